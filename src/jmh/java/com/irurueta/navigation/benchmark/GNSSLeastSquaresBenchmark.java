@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.frames.converters.NEDtoECEFPositionVelocityConverter;
+import com.irurueta.navigation.gnss.ECEFPositionAndVelocity;
+import com.irurueta.navigation.gnss.GNSSBiasesGenerator;
+import com.irurueta.navigation.gnss.GNSSConfig;
+import com.irurueta.navigation.gnss.GNSSEstimation;
+import com.irurueta.navigation.gnss.GNSSException;
+import com.irurueta.navigation.gnss.GNSSLeastSquaresPositionAndVelocityEstimator;
+import com.irurueta.navigation.gnss.GNSSMeasurement;
+import com.irurueta.navigation.gnss.GNSSMeasurementsGenerator;
+import com.irurueta.navigation.gnss.GNSSStreamingLeastSquaresPositionAndVelocityEstimator;
+import com.irurueta.navigation.inertial.ECEFPosition;
+import com.irurueta.navigation.inertial.ECEFVelocity;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.navigation.inertial.NEDVelocity;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks GNSS least squares position and velocity estimation over a track
+ * of consecutive epochs, comparing cold-started and warm-started batch estimation
+ * against the streaming estimator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GNSSLeastSquaresBenchmark {
+
+    private static final long SEED = 9041L;
+
+    private static final int EPOCHS = 100;
+
+    private static final double TIME_INTERVAL_SECONDS = 0.1;
+
+    private static final int NUM_SAT = 10;
+
+    private static final double MIN_LATITUDE_DEGREES = -80.0;
+    private static final double MAX_LATITUDE_DEGREES = 80.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_USER_HEIGHT = -50.0;
+    private static final double MAX_USER_HEIGHT = 50.0;
+
+    private static final double MIN_USER_VELOCITY_VALUE = -2.0;
+    private static final double MAX_USER_VELOCITY_VALUE = 2.0;
+
+    private static final double MIN_SAT_HEIGHT = 150000.0;
+    private static final double MAX_SAT_HEIGHT = 800000.0;
+
+    private static final double MIN_SAT_VELOCITY_VALUE = -3500.0;
+    private static final double MAX_SAT_VELOCITY_VALUE = 3500.0;
+
+    private static final double MASK_ANGLE_DEGREES = 15.0;
+
+    private static final double ERROR_SD = 5e-4;
+
+    private List<Collection<GNSSMeasurement>> mEpochs;
+
+    private GNSSLeastSquaresPositionAndVelocityEstimator mBatchEstimator;
+
+    private GNSSStreamingLeastSquaresPositionAndVelocityEstimator mStreamingEstimator;
+
+    private GNSSEstimation mResult;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(SEED);
+        do {
+            mEpochs = generateTrack(random);
+        } while (mEpochs == null);
+
+        mBatchEstimator = new GNSSLeastSquaresPositionAndVelocityEstimator();
+        mStreamingEstimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+        mResult = new GNSSEstimation();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EPOCHS)
+    public GNSSEstimation batchCold() throws LockedException, NotReadyException,
+            GNSSException {
+        for (final Collection<GNSSMeasurement> measurements : mEpochs) {
+            mBatchEstimator.setMeasurements(measurements);
+            mBatchEstimator.setPriorPositionAndVelocity(null);
+            mBatchEstimator.estimate(mResult);
+        }
+        return mResult;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EPOCHS)
+    public GNSSEstimation batchWarm() throws LockedException, NotReadyException,
+            GNSSException {
+        GNSSEstimation previous = null;
+        for (final Collection<GNSSMeasurement> measurements : mEpochs) {
+            mBatchEstimator.setMeasurements(measurements);
+            mBatchEstimator.setPriorPositionAndVelocityFromEstimation(previous);
+            previous = mBatchEstimator.estimate();
+        }
+        return previous;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EPOCHS)
+    public GNSSEstimation streaming() throws GNSSException {
+        mStreamingEstimator.reset();
+        double timeInterval = 0.0;
+        for (final Collection<GNSSMeasurement> measurements : mEpochs) {
+            mStreamingEstimator.estimate(measurements, timeInterval, mResult);
+            timeInterval = TIME_INTERVAL_SECONDS;
+        }
+        return mResult;
+    }
+
+    /**
+     * Generates measurements of a track where both user and satellites move
+     * with constant velocity.
+     *
+     * @param random random generator.
+     * @return measurements of each epoch, or null if any epoch did not contain
+     * enough visible satellites.
+     */
+    private static List<Collection<GNSSMeasurement>> generateTrack(
+            final Random random) {
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final GNSSConfig config = new GNSSConfig(ERROR_SD, ERROR_SD, ERROR_SD,
+                ERROR_SD, NUM_SAT, ERROR_SD, ERROR_SD, ERROR_SD, ERROR_SD,
+                MASK_ANGLE_DEGREES, ERROR_SD, ERROR_SD, ERROR_SD, ERROR_SD,
+                ERROR_SD, ERROR_SD, ERROR_SD);
+
+        final double userLatitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double userLongitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final NEDPosition nedUserPosition = new NEDPosition(userLatitude,
+                userLongitude, randomizer.nextDouble(MIN_USER_HEIGHT, MAX_USER_HEIGHT));
+        final NEDVelocity nedUserVelocity = new NEDVelocity(
+                randomizer.nextDouble(MIN_USER_VELOCITY_VALUE, MAX_USER_VELOCITY_VALUE),
+                randomizer.nextDouble(MIN_USER_VELOCITY_VALUE, MAX_USER_VELOCITY_VALUE),
+                randomizer.nextDouble(MIN_USER_VELOCITY_VALUE, MAX_USER_VELOCITY_VALUE));
+        final ECEFPosition userPosition = new ECEFPosition();
+        final ECEFVelocity userVelocity = new ECEFVelocity();
+        NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                nedUserPosition, nedUserVelocity, userPosition, userVelocity);
+
+        final double delta = Math.toRadians(MASK_ANGLE_DEGREES) / 3.0;
+        final List<ECEFPositionAndVelocity> satellites = new ArrayList<>();
+        final List<Double> biases = new ArrayList<>();
+        for (int n = 0; n < NUM_SAT; n++) {
+            final NEDPosition nedSatPosition = new NEDPosition(
+                    randomizer.nextDouble(userLatitude - delta, userLatitude + delta),
+                    randomizer.nextDouble(userLongitude - delta, userLongitude + delta),
+                    randomizer.nextDouble(MIN_SAT_HEIGHT, MAX_SAT_HEIGHT));
+            final NEDVelocity nedSatVelocity = new NEDVelocity(
+                    randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE, MAX_SAT_VELOCITY_VALUE),
+                    randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE, MAX_SAT_VELOCITY_VALUE),
+                    randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE, MAX_SAT_VELOCITY_VALUE));
+            final ECEFPosition satPosition = new ECEFPosition();
+            final ECEFVelocity satVelocity = new ECEFVelocity();
+            NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                    nedSatPosition, nedSatVelocity, satPosition, satVelocity);
+
+            satellites.add(new ECEFPositionAndVelocity(satPosition, satVelocity));
+            biases.add(GNSSBiasesGenerator.generateBias(satPosition, userPosition,
+                    config, random));
+        }
+
+        final List<Collection<GNSSMeasurement>> epochs = new ArrayList<>();
+        for (int k = 0; k < EPOCHS; k++) {
+            final double time = k * TIME_INTERVAL_SECONDS;
+
+            final List<ECEFPositionAndVelocity> movedSatellites = new ArrayList<>();
+            for (final ECEFPositionAndVelocity satellite : satellites) {
+                movedSatellites.add(move(satellite, time));
+            }
+            final ECEFPositionAndVelocity user = move(new ECEFPositionAndVelocity(
+                    userPosition, userVelocity), time);
+
+            final Collection<GNSSMeasurement> measurements =
+                    GNSSMeasurementsGenerator.generate(time, movedSatellites, user,
+                            biases, config, random);
+            if (!GNSSLeastSquaresPositionAndVelocityEstimator.isValidMeasurements(
+                    measurements)) {
+                return null;
+            }
+            epochs.add(measurements);
+        }
+
+        return epochs;
+    }
+
+    private static ECEFPositionAndVelocity move(
+            final ECEFPositionAndVelocity positionAndVelocity, final double time) {
+        final double vx = positionAndVelocity.getVx();
+        final double vy = positionAndVelocity.getVy();
+        final double vz = positionAndVelocity.getVz();
+        return new ECEFPositionAndVelocity(positionAndVelocity.getX() + vx * time,
+                positionAndVelocity.getY() + vy * time,
+                positionAndVelocity.getZ() + vz * time, vx, vy, vz);
+    }
+}
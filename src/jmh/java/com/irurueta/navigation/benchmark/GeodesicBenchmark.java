@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.navigation.geodesic.Geodesic;
+import com.irurueta.navigation.geodesic.GeodesicMask;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the inverse geodesic problem on the WGS84 ellipsoid, both computing
+ * the standard set of outputs and only the distance between points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeodesicBenchmark {
+
+    private static final long SEED = 1618L;
+
+    private static final int PAIRS = 1024;
+
+    private static final double MIN_LATITUDE_DEGREES = -90.0;
+    private static final double MAX_LATITUDE_DEGREES = 90.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private double[] mLatitudes1;
+    private double[] mLongitudes1;
+    private double[] mLatitudes2;
+    private double[] mLongitudes2;
+
+    @Setup
+    public void setUp() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random(SEED));
+
+        mLatitudes1 = new double[PAIRS];
+        mLongitudes1 = new double[PAIRS];
+        mLatitudes2 = new double[PAIRS];
+        mLongitudes2 = new double[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            mLatitudes1[i] = randomizer.nextDouble(
+                    MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES);
+            mLongitudes1[i] = randomizer.nextDouble(
+                    MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES);
+            mLatitudes2[i] = randomizer.nextDouble(
+                    MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES);
+            mLongitudes2[i] = randomizer.nextDouble(
+                    MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void inverse(final Blackhole blackhole) {
+        final Geodesic geodesic = Geodesic.WGS84;
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(geodesic.inverse(mLatitudes1[i], mLongitudes1[i],
+                    mLatitudes2[i], mLongitudes2[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public void inverseDistance(final Blackhole blackhole) {
+        final Geodesic geodesic = Geodesic.WGS84;
+        for (int i = 0; i < PAIRS; i++) {
+            blackhole.consume(geodesic.inverse(mLatitudes1[i], mLongitudes1[i],
+                    mLatitudes2[i], mLongitudes2[i], GeodesicMask.DISTANCE));
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.navigation.frames.ECEFFrame;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.frames.converters.ECEFtoNEDPositionVelocityConverter;
+import com.irurueta.navigation.frames.converters.NEDtoECEFFrameConverter;
+import com.irurueta.navigation.gnss.GNSSMeasurement;
+import com.irurueta.navigation.inertial.ECEFPosition;
+import com.irurueta.navigation.inertial.ECEFVelocity;
+import com.irurueta.navigation.inertial.INSLooselyCoupledKalmanConfig;
+import com.irurueta.navigation.inertial.INSLooselyCoupledKalmanEpochEstimator;
+import com.irurueta.navigation.inertial.INSLooselyCoupledKalmanSparseEpochEstimator;
+import com.irurueta.navigation.inertial.INSLooselyCoupledKalmanState;
+import com.irurueta.navigation.inertial.INSTightlyCoupledKalmanConfig;
+import com.irurueta.navigation.inertial.INSTightlyCoupledKalmanEpochEstimator;
+import com.irurueta.navigation.inertial.INSTightlyCoupledKalmanSequentialEpochEstimator;
+import com.irurueta.navigation.inertial.INSTightlyCoupledKalmanSequentialUpdateType;
+import com.irurueta.navigation.inertial.INSTightlyCoupledKalmanState;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.navigation.inertial.NEDVelocity;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single epoch of the loosely and tightly coupled INS/GNSS Kalman
+ * filters, comparing dense matrix implementations against the sparse and
+ * sequential scalar-update ones.
+ * Every invocation starts from the same previous state, so that results of
+ * different invocations are not accumulated.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class INSKalmanEpochEstimatorBenchmark {
+
+    private static final long SEED = 3517L;
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final double MIN_LATITUDE_DEGREES = -80.0;
+    private static final double MAX_LATITUDE_DEGREES = 80.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT_METERS = -50.0;
+    private static final double MAX_HEIGHT_METERS = 50.0;
+
+    private static final double MIN_SPEED_VALUE = -2.0;
+    private static final double MAX_SPEED_VALUE = 2.0;
+
+    private static final double MIN_SAT_HEIGHT_METERS = 150000;
+    private static final double MAX_SAT_HEIGHT_METERS = 500000;
+
+    private static final double MIN_SAT_SPEED_VALUE = -20.0;
+    private static final double MAX_SAT_SPEED_VALUE = 20.0;
+
+    private static final double MIN_ERROR_METERS = -5.0;
+    private static final double MAX_ERROR_METERS = 5.0;
+
+    private static final double MIN_SPECIFIC_FORCE = -12.0;
+    private static final double MAX_SPECIFIC_FORCE = 12.0;
+
+    private static final double MIN_VALUE = 1e-4;
+    private static final double MAX_VALUE = 1e-3;
+
+    private static final double MIN_NOISE_SD = 0.1;
+    private static final double MAX_NOISE_SD = 5.0;
+
+    private static final double MIN_PSEUDO_RANGE_SD = 1.0;
+    private static final double MAX_PSEUDO_RANGE_SD = 5.0;
+
+    private static final double MIN_RANGE_RATE_SD = 0.01;
+    private static final double MAX_RANGE_RATE_SD = 0.1;
+
+    /**
+     * Number of satellite measurements processed by tightly coupled filters.
+     */
+    @Param({"8", "24"})
+    public int mNumMeasurements;
+
+    private double mX;
+    private double mY;
+    private double mZ;
+    private double mVx;
+    private double mVy;
+    private double mVz;
+    private double mFx;
+    private double mFy;
+    private double mFz;
+    private double mPreviousLatitude;
+
+    private INSLooselyCoupledKalmanState mLooselyCoupledPreviousState;
+
+    private INSLooselyCoupledKalmanState mLooselyCoupledResult;
+
+    private INSLooselyCoupledKalmanConfig mLooselyCoupledConfig;
+
+    private INSLooselyCoupledKalmanSparseEpochEstimator mSparseEstimator;
+
+    private List<GNSSMeasurement> mMeasurements;
+
+    private INSTightlyCoupledKalmanState mTightlyCoupledPreviousState;
+
+    private INSTightlyCoupledKalmanState mTightlyCoupledResult;
+
+    private INSTightlyCoupledKalmanConfig mTightlyCoupledConfig;
+
+    private INSTightlyCoupledKalmanSequentialEpochEstimator mJosephEstimator;
+
+    private INSTightlyCoupledKalmanSequentialEpochEstimator mUDEstimator;
+
+    @Setup
+    public void setUp() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random(SEED));
+
+        final double userLatitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double userLongitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double userHeight = randomizer.nextDouble(
+                MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+        final double userVn = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+        final double userVe = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+        final double userVd = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+
+        final NEDFrame userNedFrame = new NEDFrame(
+                userLatitude, userLongitude, userHeight, userVn, userVe, userVd);
+        final ECEFFrame userEcefFrame = NEDtoECEFFrameConverter
+                .convertNEDtoECEFAndReturnNew(userNedFrame);
+        final ECEFVelocity userEcefVelocity = userEcefFrame.getECEFVelocity();
+
+        final ECEFPosition previousPosition = new ECEFPosition(
+                userEcefFrame.getX() + TIME_INTERVAL_SECONDS * userEcefFrame.getVx(),
+                userEcefFrame.getY() + TIME_INTERVAL_SECONDS * userEcefFrame.getVy(),
+                userEcefFrame.getZ() + TIME_INTERVAL_SECONDS * userEcefFrame.getVz());
+        final NEDPosition previousNedPosition = new NEDPosition();
+        final NEDVelocity previousNedVelocity = new NEDVelocity();
+        ECEFtoNEDPositionVelocityConverter.convertECEFtoNED(previousPosition,
+                userEcefVelocity, previousNedPosition, previousNedVelocity);
+        mPreviousLatitude = previousNedPosition.getLatitude();
+
+        final double accelerationBiasX = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerationBiasY = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerationBiasZ = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasX = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasY = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasZ = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+
+        final double gyroNoisePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerometerNoisePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerometerBiasPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+
+        mFx = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        mFy = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        mFz = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+
+        // loosely coupled scenario
+        mX = userEcefFrame.getX() + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+        mY = userEcefFrame.getY() + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+        mZ = userEcefFrame.getZ() + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+        mVx = userEcefFrame.getVx() + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+        mVy = userEcefFrame.getVy() + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+        mVz = userEcefFrame.getVz() + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+
+        mLooselyCoupledPreviousState = new INSLooselyCoupledKalmanState(
+                userEcefFrame.getCoordinateTransformation(), userEcefVelocity,
+                previousPosition, accelerationBiasX, accelerationBiasY,
+                accelerationBiasZ, gyroBiasX, gyroBiasY, gyroBiasZ,
+                Matrix.identity(INSLooselyCoupledKalmanState.NUM_PARAMS,
+                        INSLooselyCoupledKalmanState.NUM_PARAMS));
+        mLooselyCoupledResult = new INSLooselyCoupledKalmanState();
+        mLooselyCoupledConfig = new INSLooselyCoupledKalmanConfig(
+                gyroNoisePSD, accelerometerNoisePSD, accelerometerBiasPSD,
+                gyroBiasPSD, randomizer.nextDouble(MIN_NOISE_SD, MAX_NOISE_SD),
+                randomizer.nextDouble(MIN_NOISE_SD, MAX_NOISE_SD));
+        mSparseEstimator = new INSLooselyCoupledKalmanSparseEpochEstimator();
+
+        // tightly coupled scenario
+        final Point3D userPosition = userEcefFrame.getPosition();
+        mMeasurements = new ArrayList<>();
+        for (int i = 0; i < mNumMeasurements; i++) {
+            final NEDFrame satNedFrame = new NEDFrame(
+                    Math.toRadians(randomizer.nextDouble(
+                            MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES)),
+                    Math.toRadians(randomizer.nextDouble(
+                            MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES)),
+                    randomizer.nextDouble(MIN_SAT_HEIGHT_METERS, MAX_SAT_HEIGHT_METERS),
+                    randomizer.nextDouble(MIN_SAT_SPEED_VALUE, MAX_SAT_SPEED_VALUE),
+                    randomizer.nextDouble(MIN_SAT_SPEED_VALUE, MAX_SAT_SPEED_VALUE),
+                    randomizer.nextDouble(MIN_SAT_SPEED_VALUE, MAX_SAT_SPEED_VALUE));
+            final ECEFFrame satEcefFrame = NEDtoECEFFrameConverter
+                    .convertNEDtoECEFAndReturnNew(satNedFrame);
+
+            final double pseudoRange = userPosition.distanceTo(satEcefFrame.getPosition())
+                    + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+
+            final double posDiffX = satEcefFrame.getX() - userEcefFrame.getX();
+            final double posDiffY = satEcefFrame.getY() - userEcefFrame.getY();
+            final double posDiffZ = satEcefFrame.getZ() - userEcefFrame.getZ();
+            final double posNorm = Math.sqrt(posDiffX * posDiffX + posDiffY * posDiffY
+                    + posDiffZ * posDiffZ);
+            final double pseudoRate = (posDiffX * (satEcefFrame.getVx() - userEcefFrame.getVx())
+                    + posDiffY * (satEcefFrame.getVy() - userEcefFrame.getVy())
+                    + posDiffZ * (satEcefFrame.getVz() - userEcefFrame.getVz())) / posNorm;
+
+            mMeasurements.add(new GNSSMeasurement(pseudoRange, pseudoRate,
+                    satEcefFrame.getX(), satEcefFrame.getY(), satEcefFrame.getZ(),
+                    satEcefFrame.getVx(), satEcefFrame.getVy(), satEcefFrame.getVz()));
+        }
+
+        mTightlyCoupledPreviousState = new INSTightlyCoupledKalmanState(
+                userEcefFrame.getCoordinateTransformation(), userEcefVelocity,
+                previousPosition, accelerationBiasX, accelerationBiasY,
+                accelerationBiasZ, gyroBiasX, gyroBiasY, gyroBiasZ,
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                Matrix.identity(INSTightlyCoupledKalmanState.NUM_PARAMS,
+                        INSTightlyCoupledKalmanState.NUM_PARAMS));
+        mTightlyCoupledResult = new INSTightlyCoupledKalmanState();
+        mTightlyCoupledConfig = new INSTightlyCoupledKalmanConfig(
+                gyroNoisePSD, accelerometerNoisePSD, accelerometerBiasPSD,
+                gyroBiasPSD, randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                randomizer.nextDouble(MIN_PSEUDO_RANGE_SD, MAX_PSEUDO_RANGE_SD),
+                randomizer.nextDouble(MIN_RANGE_RATE_SD, MAX_RANGE_RATE_SD));
+        mJosephEstimator = new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                INSTightlyCoupledKalmanSequentialUpdateType.JOSEPH);
+        mUDEstimator = new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                INSTightlyCoupledKalmanSequentialUpdateType.UD);
+    }
+
+    @Benchmark
+    public INSLooselyCoupledKalmanState looselyCoupledDense() throws AlgebraException {
+        INSLooselyCoupledKalmanEpochEstimator.estimate(mX, mY, mZ, mVx, mVy, mVz,
+                TIME_INTERVAL_SECONDS, mLooselyCoupledPreviousState, mFx, mFy, mFz,
+                mPreviousLatitude, mLooselyCoupledConfig, mLooselyCoupledResult);
+        return mLooselyCoupledResult;
+    }
+
+    @Benchmark
+    public INSLooselyCoupledKalmanState looselyCoupledSparse() throws AlgebraException {
+        mSparseEstimator.estimate(mX, mY, mZ, mVx, mVy, mVz,
+                TIME_INTERVAL_SECONDS, mLooselyCoupledPreviousState, mFx, mFy, mFz,
+                mPreviousLatitude, mLooselyCoupledConfig, mLooselyCoupledResult);
+        return mLooselyCoupledResult;
+    }
+
+    @Benchmark
+    public INSTightlyCoupledKalmanState tightlyCoupledDense() throws AlgebraException {
+        INSTightlyCoupledKalmanEpochEstimator.estimate(mMeasurements,
+                TIME_INTERVAL_SECONDS, mTightlyCoupledPreviousState, mFx, mFy, mFz,
+                mPreviousLatitude, mTightlyCoupledConfig, mTightlyCoupledResult);
+        return mTightlyCoupledResult;
+    }
+
+    @Benchmark
+    public INSTightlyCoupledKalmanState tightlyCoupledSequentialJoseph()
+            throws AlgebraException {
+        mJosephEstimator.estimate(mMeasurements,
+                TIME_INTERVAL_SECONDS, mTightlyCoupledPreviousState, mFx, mFy, mFz,
+                mPreviousLatitude, mTightlyCoupledConfig, mTightlyCoupledResult);
+        return mTightlyCoupledResult;
+    }
+
+    @Benchmark
+    public INSTightlyCoupledKalmanState tightlyCoupledSequentialUD()
+            throws AlgebraException {
+        mUDEstimator.estimate(mMeasurements,
+                TIME_INTERVAL_SECONDS, mTightlyCoupledPreviousState, mFx, mFy, mFz,
+                mPreviousLatitude, mTightlyCoupledConfig, mTightlyCoupledResult);
+        return mTightlyCoupledResult;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.ECEFFrame;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.frames.converters.NEDtoECEFFrameConverter;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.navigation.inertial.estimators.ECEFKinematicsEstimator;
+import com.irurueta.navigation.inertial.estimators.NEDKinematicsEstimator;
+import com.irurueta.navigation.inertial.navigators.BatchNEDInertialNavigator;
+import com.irurueta.navigation.inertial.navigators.ECEFInertialNavigator;
+import com.irurueta.navigation.inertial.navigators.InertialNavigatorException;
+import com.irurueta.navigation.inertial.navigators.NEDInertialNavigator;
+import com.irurueta.navigation.inertial.navigators.NEDNavigationBatch;
+import com.irurueta.navigation.inertial.navigators.StatefulECEFInertialNavigator;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a single inertial navigation step using the static ECEF and NED
+ * navigators, the stateful ECEF navigator and the batched NED navigator.
+ * All tracks are stationary, so that navigated states remain bounded regardless
+ * of the number of executed iterations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InertialNavigatorBenchmark {
+
+    private static final long SEED = 7129L;
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final int TRACKS = 1024;
+
+    private static final double MIN_LATITUDE_DEGREES = -80.0;
+    private static final double MAX_LATITUDE_DEGREES = 80.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT_METERS = -50.0;
+    private static final double MAX_HEIGHT_METERS = 50.0;
+
+    private static final double MIN_ANGLE_DEGREES = -45.0;
+    private static final double MAX_ANGLE_DEGREES = 45.0;
+
+    private ECEFFrame mEcefFrame;
+
+    private ECEFFrame mEcefResult;
+
+    private BodyKinematics mEcefKinematics;
+
+    private StatefulECEFInertialNavigator mStatefulNavigator;
+
+    private NEDFrame[] mNedFrames;
+
+    private NEDFrame mNedResult;
+
+    private BodyKinematics[] mNedKinematics;
+
+    private NEDNavigationBatch mBatch;
+
+    private BatchNEDInertialNavigator mSerialBatchNavigator;
+
+    private BatchNEDInertialNavigator mParallelBatchNavigator;
+
+    private ForkJoinPool mPool;
+
+    @Setup
+    public void setUp() throws InvalidSourceAndDestinationFrameTypeException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random(SEED));
+
+        mNedFrames = new NEDFrame[TRACKS];
+        mNedKinematics = new BodyKinematics[TRACKS];
+        mBatch = new NEDNavigationBatch(TRACKS);
+        for (int i = 0; i < TRACKS; i++) {
+            final NEDFrame frame = createFrame(randomizer);
+            final BodyKinematics kinematics = NEDKinematicsEstimator
+                    .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS,
+                            frame, frame);
+
+            mNedFrames[i] = frame;
+            mNedKinematics[i] = kinematics;
+            mBatch.setFrame(i, frame);
+            mBatch.setKinematics(i, kinematics);
+        }
+        mNedResult = new NEDFrame();
+
+        mEcefFrame = NEDtoECEFFrameConverter.convertNEDtoECEFAndReturnNew(
+                mNedFrames[0]);
+        mEcefKinematics = ECEFKinematicsEstimator.estimateKinematicsAndReturnNew(
+                TIME_INTERVAL_SECONDS, mEcefFrame, mEcefFrame);
+        mEcefResult = new ECEFFrame();
+        mStatefulNavigator = new StatefulECEFInertialNavigator(mEcefFrame);
+
+        mPool = new ForkJoinPool();
+        mSerialBatchNavigator = new BatchNEDInertialNavigator();
+        mParallelBatchNavigator = new BatchNEDInertialNavigator(mPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mPool.shutdown();
+    }
+
+    @Benchmark
+    public ECEFFrame ecefStatic() throws InertialNavigatorException {
+        ECEFInertialNavigator.navigateECEF(TIME_INTERVAL_SECONDS, mEcefFrame,
+                mEcefKinematics, mEcefResult);
+        return mEcefResult;
+    }
+
+    @Benchmark
+    public double ecefStateful() {
+        final BodyKinematics kinematics = mEcefKinematics;
+        mStatefulNavigator.navigate(TIME_INTERVAL_SECONDS,
+                kinematics.getFx(), kinematics.getFy(), kinematics.getFz(),
+                kinematics.getAngularRateX(), kinematics.getAngularRateY(),
+                kinematics.getAngularRateZ());
+        return mStatefulNavigator.getX();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKS)
+    public void nedStatic(final Blackhole blackhole)
+            throws InertialNavigatorException {
+        for (int i = 0; i < TRACKS; i++) {
+            NEDInertialNavigator.navigateNED(TIME_INTERVAL_SECONDS, mNedFrames[i],
+                    mNedKinematics[i], mNedResult);
+            blackhole.consume(mNedResult.getLatitude());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKS)
+    public NEDNavigationBatch nedBatchSerial() {
+        mSerialBatchNavigator.navigate(TIME_INTERVAL_SECONDS, mBatch);
+        return mBatch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRACKS)
+    public NEDNavigationBatch nedBatchParallel() {
+        mParallelBatchNavigator.navigate(TIME_INTERVAL_SECONDS, mBatch);
+        return mBatch;
+    }
+
+    private static NEDFrame createFrame(final UniformRandomizer randomizer)
+            throws InvalidSourceAndDestinationFrameTypeException {
+        final double latitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double longitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double height = randomizer.nextDouble(
+                MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+
+        final double roll = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double pitch = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double yaw = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final CoordinateTransformation c = new CoordinateTransformation(
+                roll, pitch, yaw, FrameType.BODY_FRAME,
+                FrameType.LOCAL_NAVIGATION_FRAME);
+
+        return new NEDFrame(latitude, longitude, height, 0.0, 0.0, 0.0, c);
+    }
+}
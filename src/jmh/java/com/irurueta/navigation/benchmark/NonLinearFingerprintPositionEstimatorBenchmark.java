@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.indoor.RadioSource;
+import com.irurueta.navigation.indoor.RadioSourceLocated;
+import com.irurueta.navigation.indoor.RssiFingerprint;
+import com.irurueta.navigation.indoor.RssiFingerprintLocated2D;
+import com.irurueta.navigation.indoor.RssiReading;
+import com.irurueta.navigation.indoor.Utils;
+import com.irurueta.navigation.indoor.WifiAccessPointWithPowerAndLocated2D;
+import com.irurueta.navigation.indoor.fingerprint.FingerprintEstimationException;
+import com.irurueta.navigation.indoor.fingerprint.FirstOrderNonLinearFingerprintPositionEstimator2D;
+import com.irurueta.navigation.indoor.fingerprint.NonLinearFingerprintPositionEstimator;
+import com.irurueta.navigation.indoor.fingerprint.ThirdOrderNonLinearFingerprintPositionEstimator2D;
+import com.irurueta.statistics.GaussianRandomizer;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks non-linear fingerprint position estimation for an increasing number
+ * of nearest fingerprints, either using the specialized Levenberg-Marquardt solver
+ * or the generic fitter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NonLinearFingerprintPositionEstimatorBenchmark {
+
+    private static final long SEED = 31415L;
+
+    private static final int NUM_SOURCES = 5;
+    private static final int NUM_FINGERPRINTS = 200;
+
+    private static final double MIN_RSSI = -100.0;
+    private static final double MAX_RSSI = -50.0;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double PATH_LOSS_EXPONENT = 2.0;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final double ERROR_STD = 0.1;
+
+    @Param({"1", "2", "5", "10", "20"})
+    public int mK;
+
+    @Param({"true", "false"})
+    public boolean mFastSolver;
+
+    private FirstOrderNonLinearFingerprintPositionEstimator2D mFirstOrderEstimator;
+
+    private ThirdOrderNonLinearFingerprintPositionEstimator2D mThirdOrderEstimator;
+
+    @Setup
+    public void setUp() throws LockedException {
+        final Random random = new Random(SEED);
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final GaussianRandomizer errorRandomizer = new GaussianRandomizer(random,
+                0.0, ERROR_STD);
+
+        final List<RadioSourceLocated<Point2D>> sources = new ArrayList<>();
+        for (int i = 0; i < NUM_SOURCES; i++) {
+            sources.add(new WifiAccessPointWithPowerAndLocated2D("bssid" + i, FREQUENCY,
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI),
+                    new InhomogeneousPoint2D(randomizer.nextDouble(MIN_POS, MAX_POS),
+                            randomizer.nextDouble(MIN_POS, MAX_POS))));
+        }
+
+        final List<RssiFingerprintLocated2D<RadioSource, RssiReading<RadioSource>>> locatedFingerprints =
+                new ArrayList<>();
+        for (int j = 0; j < NUM_FINGERPRINTS; j++) {
+            final InhomogeneousPoint2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            locatedFingerprints.add(new RssiFingerprintLocated2D<>(
+                    buildReadings(sources, position, errorRandomizer), position));
+        }
+
+        final InhomogeneousPoint2D position = new InhomogeneousPoint2D(
+                randomizer.nextDouble(MIN_POS, MAX_POS),
+                randomizer.nextDouble(MIN_POS, MAX_POS));
+        final RssiFingerprint<RadioSource, RssiReading<RadioSource>> fingerprint =
+                new RssiFingerprint<>(buildReadings(sources, position, errorRandomizer));
+
+        mFirstOrderEstimator = new FirstOrderNonLinearFingerprintPositionEstimator2D(
+                locatedFingerprints, fingerprint, sources);
+        setUpEstimator(mFirstOrderEstimator);
+
+        mThirdOrderEstimator = new ThirdOrderNonLinearFingerprintPositionEstimator2D(
+                locatedFingerprints, fingerprint, sources);
+        setUpEstimator(mThirdOrderEstimator);
+    }
+
+    @Benchmark
+    public void firstOrderEstimate(final Blackhole blackhole)
+            throws LockedException, NotReadyException, FingerprintEstimationException {
+        mFirstOrderEstimator.estimate();
+        blackhole.consume(mFirstOrderEstimator.getEstimatedPositionCoordinates());
+    }
+
+    @Benchmark
+    public void thirdOrderEstimate(final Blackhole blackhole)
+            throws LockedException, NotReadyException, FingerprintEstimationException {
+        mThirdOrderEstimator.estimate();
+        blackhole.consume(mThirdOrderEstimator.getEstimatedPositionCoordinates());
+    }
+
+    private void setUpEstimator(final NonLinearFingerprintPositionEstimator<Point2D> estimator)
+            throws LockedException {
+        estimator.setMinMaxNearestFingerprints(mK, mK);
+        estimator.setFastSolverUsed(mFastSolver);
+    }
+
+    private static List<RssiReading<RadioSource>> buildReadings(
+            final List<RadioSourceLocated<Point2D>> sources, final Point2D position,
+            final GaussianRandomizer errorRandomizer) {
+        final List<RssiReading<RadioSource>> readings = new ArrayList<>();
+        for (final RadioSourceLocated<Point2D> source : sources) {
+            final double distance = source.getPosition().distanceTo(position);
+            final double transmittedPowerdBm =
+                    ((WifiAccessPointWithPowerAndLocated2D) source).getTransmittedPower();
+            final double k = Utils.SPEED_OF_LIGHT / (4.0 * Math.PI * FREQUENCY);
+            final double receivedPower = Utils.dBmToPower(transmittedPowerdBm) *
+                    Math.pow(k / distance, PATH_LOSS_EXPONENT);
+            readings.add(new RssiReading<>((RadioSource) source,
+                    Utils.powerTodBm(receivedPower) + errorRandomizer.nextDouble()));
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.navigation.indoor.RssiFingerprint;
+import com.irurueta.navigation.indoor.RssiReading;
+import com.irurueta.navigation.indoor.WifiAccessPoint;
+import com.irurueta.navigation.indoor.WifiAccessPointWithPowerAndLocated2D;
+import com.irurueta.navigation.indoor.position.PositionEstimatorHelper;
+import com.irurueta.navigation.indoor.position.RadioSourceLocatedIndex;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building positions and distances of a fingerprint from a dense
+ * deployment of located access points, either searching the located access point of
+ * each reading on the list of sources or using a prebuilt index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PositionEstimatorHelperBenchmark {
+
+    private static final long SEED = 2718L;
+
+    private static final double MIN_RSSI = -100.0;
+    private static final double MAX_RSSI = -50.0;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double PATH_LOSS_EXPONENT = 2.0;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    @Param({"100", "1000"})
+    public int mNumSources;
+
+    private List<WifiAccessPointWithPowerAndLocated2D> mSources;
+
+    private RadioSourceLocatedIndex<Point2D> mIndex;
+
+    private RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> mFingerprint;
+
+    private final List<Point2D> mPositions = new ArrayList<>();
+
+    private final List<Double> mDistances = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(SEED);
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+
+        mSources = new ArrayList<>();
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        for (int i = 0; i < mNumSources; i++) {
+            final String bssid = String.valueOf(i);
+            mSources.add(new WifiAccessPointWithPowerAndLocated2D(bssid, FREQUENCY,
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI), PATH_LOSS_EXPONENT,
+                    new InhomogeneousPoint2D(randomizer.nextDouble(MIN_POS, MAX_POS),
+                            randomizer.nextDouble(MIN_POS, MAX_POS))));
+            readings.add(new RssiReading<>(new WifiAccessPoint(bssid, FREQUENCY),
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI)));
+        }
+        Collections.shuffle(readings, random);
+
+        mIndex = new RadioSourceLocatedIndex<>(mSources);
+        mFingerprint = new RssiFingerprint<>(readings);
+    }
+
+    @Benchmark
+    public void buildPositionsAndDistances(final Blackhole blackhole) {
+        PositionEstimatorHelper.buildPositionsAndDistances(mSources, mFingerprint,
+                mPositions, mDistances);
+        blackhole.consume(mDistances);
+    }
+
+    @Benchmark
+    public void buildIndexedPositionsAndDistances(final Blackhole blackhole) {
+        PositionEstimatorHelper.buildIndexedPositionsAndDistances(mIndex, mFingerprint,
+                mPositions, mDistances);
+        blackhole.consume(mDistances);
+    }
+}
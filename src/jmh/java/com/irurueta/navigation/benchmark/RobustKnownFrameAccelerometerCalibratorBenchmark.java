@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.ECEFFrame;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.frames.converters.NEDtoECEFFrameConverter;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.navigation.inertial.calibration.BodyKinematicsGenerator;
+import com.irurueta.navigation.inertial.calibration.CalibrationException;
+import com.irurueta.navigation.inertial.calibration.IMUErrors;
+import com.irurueta.navigation.inertial.calibration.StandardDeviationFrameBodyKinematics;
+import com.irurueta.navigation.inertial.calibration.accelerometer.LMedSRobustKnownFrameAccelerometerCalibrator;
+import com.irurueta.navigation.inertial.calibration.accelerometer.RANSACRobustKnownFrameAccelerometerCalibrator;
+import com.irurueta.navigation.inertial.estimators.ECEFKinematicsEstimator;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks robust accelerometer calibration using known frames on a set of
+ * measurements containing a fixed percentage of outliers.
+ * Notice that measurements are generated with a fixed seed, but robust estimators
+ * draw their own random samples, hence the number of iterations may vary slightly
+ * between invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RobustKnownFrameAccelerometerCalibratorBenchmark {
+
+    private static final long SEED = 1234L;
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final double MICRO_G_TO_METERS_PER_SECOND_SQUARED = 9.80665E-6;
+    private static final double DEG_TO_RAD = 0.01745329252;
+
+    private static final double MIN_ANGLE_DEGREES = -180.0;
+    private static final double MAX_ANGLE_DEGREES = 180.0;
+
+    private static final double MIN_LATITUDE_DEGREES = -90.0;
+    private static final double MAX_LATITUDE_DEGREES = 90.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT = -50.0;
+    private static final double MAX_HEIGHT = 50.0;
+
+    private static final int MEASUREMENT_NUMBER = 1000;
+
+    private static final int OUTLIER_PERCENTAGE = 20;
+
+    private static final double THRESHOLD = 1e-4;
+
+    private List<StandardDeviationFrameBodyKinematics> mMeasurements;
+
+    @Setup
+    public void setUp() throws WrongSizeException,
+            InvalidSourceAndDestinationFrameTypeException {
+        final Matrix ba = Matrix.newFromArray(new double[]{
+                900 * MICRO_G_TO_METERS_PER_SECOND_SQUARED,
+                -1300 * MICRO_G_TO_METERS_PER_SECOND_SQUARED,
+                800 * MICRO_G_TO_METERS_PER_SECOND_SQUARED});
+        final Matrix bg = Matrix.newFromArray(new double[]{
+                -9 * DEG_TO_RAD / 3600.0,
+                13 * DEG_TO_RAD / 3600.0,
+                -8 * DEG_TO_RAD / 3600.0});
+        final Matrix ma = new Matrix(3, 3);
+        ma.fromArray(new double[]{
+                500e-6, -300e-6, 200e-6,
+                -150e-6, -600e-6, 250e-6,
+                -250e-6, 100e-6, 450e-6
+        }, false);
+        final Matrix mg = new Matrix(3, 3);
+        mg.fromArray(new double[]{
+                400e-6, -300e-6, 250e-6,
+                0.0, -300e-6, -150e-6,
+                0.0, 0.0, -350e-6
+        }, false);
+        final Matrix gg = new Matrix(3, 3);
+        final double tmp = DEG_TO_RAD / (3600 * 9.80665);
+        gg.fromArray(new double[]{
+                0.9 * tmp, -1.1 * tmp, -0.6 * tmp,
+                -0.5 * tmp, 1.9 * tmp, -1.6 * tmp,
+                0.3 * tmp, 1.1 * tmp, -1.3 * tmp
+        }, false);
+        final double accelNoiseRootPSD = 100.0 * MICRO_G_TO_METERS_PER_SECOND_SQUARED;
+        final double gyroNoiseRootPSD = 0.01 * DEG_TO_RAD / 60.0;
+
+        final IMUErrors errorsOutlier = new IMUErrors(ba, bg, ma, mg, gg,
+                accelNoiseRootPSD, gyroNoiseRootPSD, 0.0, 0.0);
+        final IMUErrors errorsInlier = new IMUErrors(ba, bg, ma, mg, gg,
+                0.0, 0.0, 0.0, 0.0);
+
+        final Random random = new Random(SEED);
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final NEDPosition nedPosition = new NEDPosition(
+                Math.toRadians(randomizer.nextDouble(
+                        MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES)),
+                Math.toRadians(randomizer.nextDouble(
+                        MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES)),
+                randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT));
+
+        final double sqrtTimeInterval = Math.sqrt(TIME_INTERVAL_SECONDS);
+        final double specificForceStandardDeviation = accelNoiseRootPSD
+                / sqrtTimeInterval;
+        final double angularRateStandardDeviation = gyroNoiseRootPSD
+                / sqrtTimeInterval;
+
+        mMeasurements = new ArrayList<>();
+        for (int i = 0; i < MEASUREMENT_NUMBER; i++) {
+            final CoordinateTransformation nedC = new CoordinateTransformation(
+                    Math.toRadians(randomizer.nextDouble(
+                            MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES)),
+                    Math.toRadians(randomizer.nextDouble(
+                            MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES)),
+                    Math.toRadians(randomizer.nextDouble(
+                            MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES)),
+                    FrameType.BODY_FRAME, FrameType.LOCAL_NAVIGATION_FRAME);
+
+            final ECEFFrame ecefFrame = NEDtoECEFFrameConverter
+                    .convertNEDtoECEFAndReturnNew(new NEDFrame(nedPosition, nedC));
+
+            final BodyKinematics trueKinematics = ECEFKinematicsEstimator
+                    .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS, ecefFrame,
+                            ecefFrame);
+
+            final IMUErrors errors = randomizer.nextInt(0, 100) < OUTLIER_PERCENTAGE
+                    ? errorsOutlier : errorsInlier;
+            final BodyKinematics measuredKinematics = BodyKinematicsGenerator
+                    .generate(TIME_INTERVAL_SECONDS, trueKinematics, errors, random);
+
+            mMeasurements.add(new StandardDeviationFrameBodyKinematics(
+                    measuredKinematics, ecefFrame, ecefFrame, TIME_INTERVAL_SECONDS,
+                    specificForceStandardDeviation, angularRateStandardDeviation));
+        }
+    }
+
+    @Benchmark
+    public Matrix ransac() throws LockedException, NotReadyException,
+            CalibrationException {
+        final RANSACRobustKnownFrameAccelerometerCalibrator calibrator =
+                new RANSACRobustKnownFrameAccelerometerCalibrator(mMeasurements,
+                        false);
+        calibrator.setThreshold(THRESHOLD);
+        calibrator.calibrate();
+        return calibrator.getEstimatedMa();
+    }
+
+    @Benchmark
+    public Matrix lmeds() throws LockedException, NotReadyException,
+            CalibrationException {
+        final LMedSRobustKnownFrameAccelerometerCalibrator calibrator =
+                new LMedSRobustKnownFrameAccelerometerCalibrator(mMeasurements,
+                        false);
+        calibrator.calibrate();
+        return calibrator.getEstimatedMa();
+    }
+}
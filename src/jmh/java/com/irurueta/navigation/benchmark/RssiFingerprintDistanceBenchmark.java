@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.navigation.indoor.IndexedRssiFingerprint;
+import com.irurueta.navigation.indoor.RadioSourceIndex;
+import com.irurueta.navigation.indoor.RssiFingerprint;
+import com.irurueta.navigation.indoor.RssiReading;
+import com.irurueta.navigation.indoor.WifiAccessPoint;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks signal distances between RSSI fingerprints, both comparing readings
+ * through their radio sources and merging readings sorted by the index of their
+ * radio sources.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RssiFingerprintDistanceBenchmark {
+
+    private static final long SEED = 1618L;
+
+    private static final double MIN_RSSI = -100.0;
+    private static final double MAX_RSSI = -50.0;
+
+    private static final int NUM_ACCESS_POINTS = 50;
+
+    private static final int NUM_READINGS = 30;
+
+    private static final int NUM_FINGERPRINTS = 256;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private List<RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>> mFingerprints;
+
+    private List<IndexedRssiFingerprint<WifiAccessPoint>> mIndexedFingerprints;
+
+    private RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> mQuery;
+
+    private IndexedRssiFingerprint<WifiAccessPoint> mIndexedQuery;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(SEED);
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+
+        final List<WifiAccessPoint> accessPoints = new ArrayList<>();
+        for (int i = 0; i < NUM_ACCESS_POINTS; i++) {
+            accessPoints.add(new WifiAccessPoint(String.valueOf(i), FREQUENCY));
+        }
+
+        final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>(accessPoints);
+        mFingerprints = new ArrayList<>();
+        mIndexedFingerprints = new ArrayList<>();
+        for (int i = 0; i < NUM_FINGERPRINTS; i++) {
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    createFingerprint(randomizer, random, accessPoints);
+            mFingerprints.add(fingerprint);
+            mIndexedFingerprints.add(new IndexedRssiFingerprint<>(fingerprint, index));
+        }
+
+        mQuery = createFingerprint(randomizer, random, accessPoints);
+        mIndexedQuery = new IndexedRssiFingerprint<>(mQuery, index);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_FINGERPRINTS)
+    public void sqrDistance(final Blackhole blackhole) {
+        for (final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> f : mFingerprints) {
+            blackhole.consume(f.sqrDistanceTo(mQuery));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_FINGERPRINTS)
+    public void indexedSqrDistance(final Blackhole blackhole) {
+        for (final IndexedRssiFingerprint<WifiAccessPoint> f : mIndexedFingerprints) {
+            blackhole.consume(f.sqrDistanceTo(mIndexedQuery));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_FINGERPRINTS)
+    public void noMeanSqrDistance(final Blackhole blackhole) {
+        for (final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> f : mFingerprints) {
+            blackhole.consume(f.noMeanSqrDistanceTo(mQuery));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_FINGERPRINTS)
+    public void indexedNoMeanSqrDistance(final Blackhole blackhole) {
+        for (final IndexedRssiFingerprint<WifiAccessPoint> f : mIndexedFingerprints) {
+            blackhole.consume(f.noMeanSqrDistanceTo(mIndexedQuery));
+        }
+    }
+
+    private static RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> createFingerprint(
+            final UniformRandomizer randomizer, final Random random,
+            final List<WifiAccessPoint> accessPoints) {
+        final List<WifiAccessPoint> shuffled = new ArrayList<>(accessPoints);
+        Collections.shuffle(shuffled, random);
+
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        for (int i = 0; i < NUM_READINGS; i++) {
+            readings.add(new RssiReading<>(shuffled.get(i),
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI)));
+        }
+        return new RssiFingerprint<>(readings);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.navigation.geodesic.wmm.TiledWMMEarthMagneticFluxDensityEstimator;
+import com.irurueta.navigation.geodesic.wmm.WMMEarthMagneticFluxDensityEstimator;
+import com.irurueta.navigation.inertial.NEDMagneticFluxDensity;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Earth magnetic flux density estimation using the World Magnetic
+ * Model, both for positions scattered around the globe and for consecutive
+ * positions of a slowly moving track.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WMMEarthMagneticFluxDensityEstimatorBenchmark {
+
+    private static final long SEED = 2718L;
+
+    private static final int POSITIONS = 1024;
+
+    private static final double YEAR = 2020.5;
+
+    private static final double MIN_LATITUDE_DEGREES = -90.0;
+    private static final double MAX_LATITUDE_DEGREES = 90.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT_METERS = -500.0;
+    private static final double MAX_HEIGHT_METERS = 10000.0;
+
+    /**
+     * Maximum latitude and longitude increment between consecutive track
+     * positions, which is roughly 10 meters.
+     */
+    private static final double MAX_TRACK_STEP_DEGREES = 1e-4;
+
+    /**
+     * Number of latitude bands of grid positions.
+     */
+    private static final int GRID_BANDS = 32;
+
+    private WMMEarthMagneticFluxDensityEstimator mEstimator;
+
+    private TiledWMMEarthMagneticFluxDensityEstimator mTiledEstimator;
+
+    private NEDMagneticFluxDensity[] mBulkResult;
+
+    private NEDMagneticFluxDensity mResult;
+
+    private double[] mScatteredLatitudes;
+    private double[] mScatteredLongitudes;
+    private double[] mScatteredHeights;
+
+    private double[] mTrackLatitudes;
+    private double[] mTrackLongitudes;
+    private double[] mTrackHeights;
+
+    private double[] mGridLatitudes;
+    private double[] mGridLongitudes;
+    private double[] mGridHeights;
+
+    @Setup
+    public void setUp() throws IOException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random(SEED));
+
+        mScatteredLatitudes = new double[POSITIONS];
+        mScatteredLongitudes = new double[POSITIONS];
+        mScatteredHeights = new double[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            mScatteredLatitudes[i] = Math.toRadians(randomizer.nextDouble(
+                    MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+            mScatteredLongitudes[i] = Math.toRadians(randomizer.nextDouble(
+                    MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+            mScatteredHeights[i] = randomizer.nextDouble(
+                    MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+        }
+
+        mTrackLatitudes = new double[POSITIONS];
+        mTrackLongitudes = new double[POSITIONS];
+        mTrackHeights = new double[POSITIONS];
+        double latitude = randomizer.nextDouble(-60.0, 60.0);
+        double longitude = randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES);
+        final double height = randomizer.nextDouble(0.0, MAX_HEIGHT_METERS);
+        for (int i = 0; i < POSITIONS; i++) {
+            latitude += randomizer.nextDouble(-MAX_TRACK_STEP_DEGREES,
+                    MAX_TRACK_STEP_DEGREES);
+            longitude += randomizer.nextDouble(-MAX_TRACK_STEP_DEGREES,
+                    MAX_TRACK_STEP_DEGREES);
+            mTrackLatitudes[i] = Math.toRadians(latitude);
+            mTrackLongitudes[i] = Math.toRadians(longitude);
+            mTrackHeights[i] = height;
+        }
+
+        // grid positions are ordered so that consecutive positions belong
+        // to different latitude bands
+        mGridLatitudes = new double[POSITIONS];
+        mGridLongitudes = new double[POSITIONS];
+        mGridHeights = new double[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            final int band = i % GRID_BANDS;
+            final int column = i / GRID_BANDS;
+            mGridLatitudes[i] = Math.toRadians(MIN_LATITUDE_DEGREES
+                    + (band + 0.5) * (MAX_LATITUDE_DEGREES - MIN_LATITUDE_DEGREES)
+                    / GRID_BANDS);
+            mGridLongitudes[i] = Math.toRadians(MIN_LONGITUDE_DEGREES
+                    + column * (MAX_LONGITUDE_DEGREES - MIN_LONGITUDE_DEGREES)
+                    * GRID_BANDS / POSITIONS);
+            mGridHeights[i] = 0.0;
+        }
+
+        mEstimator = new WMMEarthMagneticFluxDensityEstimator();
+        mTiledEstimator = new TiledWMMEarthMagneticFluxDensityEstimator(
+                mEstimator.getModel());
+        mResult = new NEDMagneticFluxDensity();
+        mBulkResult = new NEDMagneticFluxDensity[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            mBulkResult[i] = new NEDMagneticFluxDensity();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void scattered(final Blackhole blackhole) {
+        for (int i = 0; i < POSITIONS; i++) {
+            mEstimator.estimate(mScatteredLatitudes[i], mScatteredLongitudes[i],
+                    mScatteredHeights[i], YEAR, mResult);
+            blackhole.consume(mResult.getBn());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void track(final Blackhole blackhole) {
+        for (int i = 0; i < POSITIONS; i++) {
+            mEstimator.estimate(mTrackLatitudes[i], mTrackLongitudes[i],
+                    mTrackHeights[i], YEAR, mResult);
+            blackhole.consume(mResult.getBn());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void grid(final Blackhole blackhole) {
+        for (int i = 0; i < POSITIONS; i++) {
+            mEstimator.estimate(mGridLatitudes[i], mGridLongitudes[i],
+                    mGridHeights[i], YEAR, mResult);
+            blackhole.consume(mResult.getBn());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void gridBulk(final Blackhole blackhole) {
+        mEstimator.estimate(mGridLatitudes, mGridLongitudes, mGridHeights,
+                YEAR, mBulkResult);
+        blackhole.consume(mBulkResult);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void tiledTrack(final Blackhole blackhole) {
+        for (int i = 0; i < POSITIONS; i++) {
+            mTiledEstimator.estimate(mTrackLatitudes[i], mTrackLongitudes[i],
+                    mTrackHeights[i], YEAR, mResult);
+            blackhole.consume(mResult.getBn());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.benchmark;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.indoor.BatchWeightedKNearestNeighboursPositionSolver2D;
+import com.irurueta.navigation.indoor.CompiledRadioMap;
+import com.irurueta.navigation.indoor.RadioSourceKNearestFinder;
+import com.irurueta.navigation.indoor.RssiFingerprint;
+import com.irurueta.navigation.indoor.RssiFingerprintLocated;
+import com.irurueta.navigation.indoor.RssiFingerprintLocated2D;
+import com.irurueta.navigation.indoor.RssiReading;
+import com.irurueta.navigation.indoor.WeightedKNearestNeighboursPositionSolver2D;
+import com.irurueta.navigation.indoor.WifiAccessPoint;
+import com.irurueta.statistics.GaussianRandomizer;
+import com.irurueta.statistics.UniformRandomizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.irurueta.navigation.indoor.Utils.dBmToPower;
+import static com.irurueta.navigation.indoor.Utils.powerTodBm;
+
+/**
+ * Benchmarks weighted k-nearest neighbours indoor positioning on a synthetic
+ * radio map of WiFi access points, both solving position from already found
+ * nearest fingerprints and finding nearest fingerprints on the whole map
+ * before solving.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WeightedKNearestNeighboursPositionSolverBenchmark {
+
+    private static final long SEED = 4242L;
+
+    private static final int MIN_RSSI = -100;
+    private static final int MAX_RSSI = -50;
+
+    private static final int NUM_ACCESS_POINTS = 20;
+
+    private static final int NUM_FINGERPRINTS = 1000;
+
+    private static final int NUM_QUERIES = 64;
+
+    private static final int K = 5;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double ERROR_STD = 0.5;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final double SPEED_OF_LIGHT = 3e8; //(m/s)
+
+    private RadioSourceKNearestFinder<Point2D, WifiAccessPoint> mFinder;
+
+    private CompiledRadioMap<Point2D, WifiAccessPoint> mRadioMap;
+
+    private List<RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>> mQueries;
+
+    private List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>[]> mNearestFingerprints;
+
+    private List<double[]> mNearestDistances;
+
+    private List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> mNearestFingerprintsList;
+
+    private List<Double> mNearestDistancesList;
+
+    private BatchWeightedKNearestNeighboursPositionSolver2D<WifiAccessPoint> mBatchSolver;
+
+    private BatchWeightedKNearestNeighboursPositionSolver2D<WifiAccessPoint> mParallelBatchSolver;
+
+    private ForkJoinPool mPool;
+
+    private final double[] mX = new double[NUM_QUERIES];
+
+    private final double[] mY = new double[NUM_QUERIES];
+
+    private final double[] mAccuracies = new double[NUM_QUERIES];
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(SEED);
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final GaussianRandomizer errorRandomizer = new GaussianRandomizer(random,
+                0.0, ERROR_STD);
+
+        final Point2D[] accessPointPositions = new Point2D[NUM_ACCESS_POINTS];
+        final double[] transmittedPower = new double[NUM_ACCESS_POINTS];
+        final WifiAccessPoint[] accessPoints = new WifiAccessPoint[NUM_ACCESS_POINTS];
+        for (int i = 0; i < NUM_ACCESS_POINTS; i++) {
+            accessPointPositions[i] = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            transmittedPower[i] = randomizer.nextDouble(
+                    dBmToPower(MIN_RSSI), dBmToPower(MAX_RSSI));
+            accessPoints[i] = new WifiAccessPoint(String.valueOf(i), FREQUENCY);
+        }
+
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        for (int i = 0; i < NUM_FINGERPRINTS; i++) {
+            final Point2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            fingerprints.add(new RssiFingerprintLocated2D<>(generateReadings(
+                    position, accessPointPositions, transmittedPower, accessPoints,
+                    null), position));
+        }
+        mFinder = new RadioSourceKNearestFinder<>(fingerprints);
+        mRadioMap = mFinder.compile();
+
+        mQueries = new ArrayList<>();
+        mNearestFingerprints = new ArrayList<>();
+        mNearestDistances = new ArrayList<>();
+        mNearestFingerprintsList = new ArrayList<>();
+        mNearestDistancesList = new ArrayList<>();
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final Point2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> query =
+                    new RssiFingerprint<>(generateReadings(position,
+                            accessPointPositions, transmittedPower, accessPoints,
+                            errorRandomizer));
+            mQueries.add(query);
+
+            mNearestFingerprintsList.clear();
+            mNearestDistancesList.clear();
+            mFinder.findKNearestTo(query, K, mNearestFingerprintsList,
+                    mNearestDistancesList);
+            mNearestFingerprints.add(toArray(mNearestFingerprintsList));
+            mNearestDistances.add(toDoubleArray(mNearestDistancesList));
+        }
+
+        mBatchSolver = new BatchWeightedKNearestNeighboursPositionSolver2D<>(mRadioMap, K);
+        mPool = new ForkJoinPool();
+        mParallelBatchSolver = new BatchWeightedKNearestNeighboursPositionSolver2D<>(
+                mRadioMap, K, mPool);
+        mParallelBatchSolver.setMinFingerprintsPerTask(NUM_QUERIES / 8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mPool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void solve(final Blackhole blackhole) throws NotReadyException,
+            LockedException {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final WeightedKNearestNeighboursPositionSolver2D solver =
+                    new WeightedKNearestNeighboursPositionSolver2D(
+                            mNearestFingerprints.get(i), mNearestDistances.get(i));
+            solver.solve();
+            blackhole.consume(solver.getEstimatedPositionCoordinates());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void findAndSolve(final Blackhole blackhole) throws NotReadyException,
+            LockedException {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            mNearestFingerprintsList.clear();
+            mNearestDistancesList.clear();
+            mFinder.findKNearestTo(mQueries.get(i), K, mNearestFingerprintsList,
+                    mNearestDistancesList);
+
+            final WeightedKNearestNeighboursPositionSolver2D solver =
+                    new WeightedKNearestNeighboursPositionSolver2D(
+                            toArray(mNearestFingerprintsList),
+                            toDoubleArray(mNearestDistancesList));
+            solver.solve();
+            blackhole.consume(solver.getEstimatedPositionCoordinates());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void find(final Blackhole blackhole) {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            mNearestFingerprintsList.clear();
+            mNearestDistancesList.clear();
+            mFinder.findKNearestTo(mQueries.get(i), K, mNearestFingerprintsList,
+                    mNearestDistancesList);
+            blackhole.consume(mNearestFingerprintsList);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void findCompiled(final Blackhole blackhole) {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            mRadioMap.findKNearestTo(mQueries.get(i), K, mNearestFingerprintsList,
+                    mNearestDistancesList);
+            blackhole.consume(mNearestFingerprintsList);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void findAndSolveBatch(final Blackhole blackhole) {
+        mBatchSolver.solve(mQueries, mX, mY, mAccuracies);
+        blackhole.consume(mX);
+        blackhole.consume(mY);
+        blackhole.consume(mAccuracies);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_QUERIES)
+    public void findAndSolveParallelBatch(final Blackhole blackhole) {
+        mParallelBatchSolver.solve(mQueries, mX, mY, mAccuracies);
+        blackhole.consume(mX);
+        blackhole.consume(mY);
+        blackhole.consume(mAccuracies);
+    }
+
+    private static List<RssiReading<WifiAccessPoint>> generateReadings(
+            final Point2D position, final Point2D[] accessPointPositions,
+            final double[] transmittedPower, final WifiAccessPoint[] accessPoints,
+            final GaussianRandomizer errorRandomizer) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        for (int j = 0; j < accessPoints.length; j++) {
+            final double distance = position.distanceTo(accessPointPositions[j]);
+            double rssi = powerTodBm(receivedPower(transmittedPower[j], distance,
+                    accessPoints[j].getFrequency()));
+            if (errorRandomizer != null) {
+                rssi += errorRandomizer.nextDouble();
+            }
+            readings.add(new RssiReading<>(accessPoints[j], rssi));
+        }
+        return readings;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>[] toArray(
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> list) {
+        return list.toArray(new RssiFingerprintLocated[list.size()]);
+    }
+
+    private static double[] toDoubleArray(final List<Double> list) {
+        final double[] result = new double[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+
+    private static double receivedPower(
+            final double equivalentTransmittedPower, final double distance,
+            final double frequency) {
+        //Pr = Pte*c^2/((4*pi*f)^2 * d^2)
+        final double k = Math.pow(SPEED_OF_LIGHT / (4.0 * Math.PI * frequency), 2.0);
+        return equivalentTransmittedPower * k / (distance * distance);
+    }
+}
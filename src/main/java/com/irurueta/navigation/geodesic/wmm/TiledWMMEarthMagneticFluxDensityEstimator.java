@@ -0,0 +1,704 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.geodesic.wmm;
+
+import com.irurueta.navigation.inertial.NEDMagneticFluxDensity;
+import com.irurueta.navigation.inertial.NEDPosition;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimates Earth magnetic flux density resolved around NED frame at
+ * a given Earth location by interpolating values of the World Magnetic
+ * Model precomputed on a grid of tiles.
+ * Each tile covers a cell of latitude, longitude and height, and keeps
+ * the magnetic flux density at its 8 corners, which is trilinearly
+ * interpolated for positions within the cell.
+ * Because model coefficients vary linearly with time, each corner keeps
+ * values at the start and end of the model lifespan, so that values at
+ * any time instant are exactly obtained without additional tiles.
+ * When a tile is built, interpolated values at its center and at the
+ * midpoints of its 12 edges are compared against values directly estimated
+ * by the model. If the difference exceeds the maximum allowed error (for
+ * instance close to the poles, where NED frame changes quickly), positions
+ * within such tile are directly estimated using the model.
+ * Notice that the maximum allowed error is only checked at those sampled
+ * points, hence it is an approximate bound of the interpolation error at
+ * other positions within a tile.
+ * Tiles are kept in a least recently used cache of limited size, hence
+ * this estimator is well suited for slowly moving vehicles, where many
+ * consecutive positions fall within the same tile.
+ */
+public class TiledWMMEarthMagneticFluxDensityEstimator {
+
+    /**
+     * Default size of tiles in latitude and longitude expressed in radians.
+     */
+    public static final double DEFAULT_CELL_ANGLE = Math.toRadians(0.05);
+
+    /**
+     * Default size of tiles in height expressed in meters.
+     */
+    public static final double DEFAULT_CELL_HEIGHT = 1000.0;
+
+    /**
+     * Default maximum allowed error of interpolated magnetic flux density
+     * components expressed in Teslas (T).
+     * By default this matches the guaranteed accuracy of the WMM.
+     */
+    public static final double DEFAULT_MAX_ERROR =
+            WMMEarthMagneticFluxDensityEstimator.INTENSITY_ACCURACY * 1e-9;
+
+    /**
+     * Default maximum number of tiles being kept.
+     */
+    public static final int DEFAULT_MAX_TILES = 256;
+
+    /**
+     * Number of components of magnetic flux density.
+     */
+    private static final int COMPONENTS = 3;
+
+    /**
+     * Number of corners of a tile.
+     */
+    private static final int CORNERS = 8;
+
+    /**
+     * Number of sampled normalized positions (0, 0.5 and 1) along each
+     * dimension of a tile when checking interpolation accuracy.
+     */
+    private static final int SAMPLES_PER_AXIS = 3;
+
+    /**
+     * Number of dimensions of a tile.
+     */
+    private static final int CUBE_DIMENSIONS = 3;
+
+    /**
+     * Estimator to compute values at tile corners or at positions where
+     * interpolation is not accurate enough.
+     */
+    private final WMMEarthMagneticFluxDensityEstimator mEstimator;
+
+    /**
+     * Start time of model expressed in decimal years.
+     */
+    private final double mStartYear;
+
+    /**
+     * End time of model expressed in decimal years.
+     */
+    private final double mEndYear;
+
+    /**
+     * Kept tiles sorted from least to most recently used.
+     */
+    private final LinkedHashMap<TileKey, Tile> mTiles =
+            new LinkedHashMap<TileKey, Tile>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        final Map.Entry<TileKey, Tile> eldest) {
+                    return size() > mMaxTiles;
+                }
+            };
+
+    /**
+     * Instance being reused to estimate values at tile corners.
+     */
+    private final NEDMagneticFluxDensity mTmp = new NEDMagneticFluxDensity();
+
+    /**
+     * Size of tiles in latitude and longitude expressed in radians.
+     */
+    private double mCellAngle = DEFAULT_CELL_ANGLE;
+
+    /**
+     * Size of tiles in height expressed in meters.
+     */
+    private double mCellHeight = DEFAULT_CELL_HEIGHT;
+
+    /**
+     * Maximum allowed error of interpolated magnetic flux density components
+     * expressed in Teslas (T).
+     */
+    private double mMaxError = DEFAULT_MAX_ERROR;
+
+    /**
+     * Maximum number of tiles being kept.
+     */
+    private int mMaxTiles = DEFAULT_MAX_TILES;
+
+    /**
+     * Most recently used tile.
+     */
+    private Tile mLastTile;
+
+    /**
+     * Constructor.
+     *
+     * @throws IOException if an I/O error occurs while loading
+     *                     model coefficients.
+     */
+    public TiledWMMEarthMagneticFluxDensityEstimator() throws IOException {
+        this(new WMMEarthMagneticFluxDensityEstimator().getModel());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param model a World Magnetic Model.
+     * @throws NullPointerException if provided model is null.
+     */
+    public TiledWMMEarthMagneticFluxDensityEstimator(
+            final WorldMagneticModel model) {
+        mEstimator = new WMMEarthMagneticFluxDensityEstimator(model);
+        mStartYear = model.epoch;
+        mEndYear = model.epoch + WorldMagneticModel.LIFESPAN;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param model      a World Magnetic Model.
+     * @param cellAngle  size of tiles in latitude and longitude expressed in
+     *                   radians.
+     * @param cellHeight size of tiles in height expressed in meters.
+     * @param maxError   maximum allowed error of interpolated magnetic flux
+     *                   density components expressed in Teslas (T).
+     * @throws NullPointerException     if provided model is null.
+     * @throws IllegalArgumentException if cell sizes are not positive or
+     *                                  maximum error is negative.
+     */
+    public TiledWMMEarthMagneticFluxDensityEstimator(
+            final WorldMagneticModel model, final double cellAngle,
+            final double cellHeight, final double maxError) {
+        this(model);
+        setCellAngle(cellAngle);
+        setCellHeight(cellHeight);
+        setMaxError(maxError);
+    }
+
+    /**
+     * Gets World Magnetic Model containing all required coefficients.
+     *
+     * @return World Magnetic Model.
+     */
+    public WorldMagneticModel getModel() {
+        return mEstimator.getModel();
+    }
+
+    /**
+     * Gets size of tiles in latitude and longitude expressed in radians.
+     *
+     * @return size of tiles in latitude and longitude.
+     */
+    public double getCellAngle() {
+        return mCellAngle;
+    }
+
+    /**
+     * Sets size of tiles in latitude and longitude expressed in radians.
+     * Kept tiles are discarded.
+     *
+     * @param cellAngle size of tiles in latitude and longitude.
+     * @throws IllegalArgumentException if provided value is not positive.
+     */
+    public void setCellAngle(final double cellAngle) {
+        if (cellAngle <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+        mCellAngle = cellAngle;
+        clear();
+    }
+
+    /**
+     * Gets size of tiles in height expressed in meters.
+     *
+     * @return size of tiles in height.
+     */
+    public double getCellHeight() {
+        return mCellHeight;
+    }
+
+    /**
+     * Sets size of tiles in height expressed in meters.
+     * Kept tiles are discarded.
+     *
+     * @param cellHeight size of tiles in height.
+     * @throws IllegalArgumentException if provided value is not positive.
+     */
+    public void setCellHeight(final double cellHeight) {
+        if (cellHeight <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+        mCellHeight = cellHeight;
+        clear();
+    }
+
+    /**
+     * Gets maximum allowed error of interpolated magnetic flux density
+     * components expressed in Teslas (T).
+     *
+     * @return maximum allowed error.
+     */
+    public double getMaxError() {
+        return mMaxError;
+    }
+
+    /**
+     * Sets maximum allowed error of interpolated magnetic flux density
+     * components expressed in Teslas (T).
+     * Kept tiles are discarded.
+     *
+     * @param maxError maximum allowed error.
+     * @throws IllegalArgumentException if provided value is negative.
+     */
+    public void setMaxError(final double maxError) {
+        if (maxError < 0.0) {
+            throw new IllegalArgumentException();
+        }
+        mMaxError = maxError;
+        clear();
+    }
+
+    /**
+     * Gets maximum number of tiles being kept.
+     *
+     * @return maximum number of tiles.
+     */
+    public int getMaxTiles() {
+        return mMaxTiles;
+    }
+
+    /**
+     * Sets maximum number of tiles being kept.
+     * Kept tiles are discarded.
+     *
+     * @param maxTiles maximum number of tiles.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setMaxTiles(final int maxTiles) {
+        if (maxTiles < 1) {
+            throw new IllegalArgumentException();
+        }
+        mMaxTiles = maxTiles;
+        clear();
+    }
+
+    /**
+     * Gets number of tiles currently kept.
+     *
+     * @return number of kept tiles.
+     */
+    public int getNumberOfTiles() {
+        return mTiles.size();
+    }
+
+    /**
+     * Discards all kept tiles.
+     */
+    public void clear() {
+        mTiles.clear();
+        mLastTile = null;
+    }
+
+    /**
+     * Estimates Earth magnetic flux density.
+     *
+     * @param latitude  latitude expressed in radians.
+     * @param longitude longitude expressed in radians.
+     * @param height    height expressed in meters.
+     * @param year      year expressed in decimal years.
+     * @param result    instance where magnetic flux will be stored resolved
+     *                  around NED frame.
+     */
+    public void estimate(
+            final double latitude, final double longitude,
+            final double height, final double year,
+            final NEDMagneticFluxDensity result) {
+        final double lon = normalizeLongitude(longitude);
+        final long latIndex = (long) Math.floor(latitude / mCellAngle);
+        final long lonIndex = (long) Math.floor(lon / mCellAngle);
+        final long heightIndex = (long) Math.floor(height / mCellHeight);
+
+        final Tile tile = getTile(latIndex, lonIndex, heightIndex);
+        if (tile.mStart == null) {
+            mEstimator.estimate(latitude, longitude, height, year, result);
+            return;
+        }
+
+        final double u = latitude / mCellAngle - latIndex;
+        final double v = lon / mCellAngle - lonIndex;
+        final double w = height / mCellHeight - heightIndex;
+        final double t = (year - mStartYear) / (mEndYear - mStartYear);
+
+        final double bn = tile.interpolate(0, u, v, w, t);
+        final double be = tile.interpolate(1, u, v, w, t);
+        final double bd = tile.interpolate(2, u, v, w, t);
+
+        result.setCoordinates(bn, be, bd);
+    }
+
+    /**
+     * Estimates Earth magnetic flux density.
+     *
+     * @param latitude  latitude expressed in radians.
+     * @param longitude longitude expressed in radians.
+     * @param height    height expressed in meters.
+     * @param year      year expressed in decimal years.
+     * @return Earth magnetic flux density resolved around NED frame.
+     */
+    public NEDMagneticFluxDensity estimate(
+            final double latitude, final double longitude,
+            final double height, final double year) {
+        final NEDMagneticFluxDensity result = new NEDMagneticFluxDensity();
+        estimate(latitude, longitude, height, year, result);
+        return result;
+    }
+
+    /**
+     * Estimates Earth magnetic flux density.
+     *
+     * @param position a position expressed in geodetic coordinates.
+     * @param year     year expressed in decimal years.
+     * @param result   instance where magnetic flux will be stored resolved
+     *                 around NED frame.
+     */
+    public void estimate(
+            final NEDPosition position, final double year,
+            final NEDMagneticFluxDensity result) {
+        estimate(position.getLatitude(), position.getLongitude(),
+                position.getHeight(), year, result);
+    }
+
+    /**
+     * Estimates Earth magnetic flux density.
+     *
+     * @param position a position expressed in geodetic coordinates.
+     * @param year     year expressed in decimal years.
+     * @return Earth magnetic flux density resolved around NED frame.
+     */
+    public NEDMagneticFluxDensity estimate(
+            final NEDPosition position, final double year) {
+        final NEDMagneticFluxDensity result = new NEDMagneticFluxDensity();
+        estimate(position, year, result);
+        return result;
+    }
+
+    /**
+     * Gets tile having provided indices, building it if needed.
+     *
+     * @param latIndex    latitude index of tile.
+     * @param lonIndex    longitude index of tile.
+     * @param heightIndex height index of tile.
+     * @return tile.
+     */
+    private Tile getTile(final long latIndex, final long lonIndex,
+                         final long heightIndex) {
+        if (mLastTile != null && mLastTile.mKey.equals(
+                latIndex, lonIndex, heightIndex)) {
+            return mLastTile;
+        }
+
+        final TileKey key = new TileKey(latIndex, lonIndex, heightIndex);
+        Tile tile = mTiles.get(key);
+        if (tile == null) {
+            tile = buildTile(key);
+            mTiles.put(key, tile);
+        }
+        mLastTile = tile;
+        return tile;
+    }
+
+    /**
+     * Builds a tile by estimating magnetic flux density at its corners at the
+     * start and end of the model lifespan.
+     * If the tile exceeds valid latitudes or interpolated values at its
+     * center or at the midpoints of its edges differ from the model more than
+     * the maximum allowed error, the tile is marked so that positions within
+     * it are directly estimated.
+     *
+     * @param key key of tile to be built.
+     * @return built tile.
+     */
+    private Tile buildTile(final TileKey key) {
+        final Tile tile = new Tile(key);
+
+        final double minLatitude = key.mLatIndex * mCellAngle;
+        final double maxLatitude = minLatitude + mCellAngle;
+        if (minLatitude < -Math.PI / 2.0 || maxLatitude > Math.PI / 2.0) {
+            return tile;
+        }
+
+        final double[] start = new double[COMPONENTS * CORNERS];
+        final double[] end = new double[COMPONENTS * CORNERS];
+        for (int corner = 0; corner < CORNERS; corner++) {
+            final double latitude = (key.mLatIndex + (corner & 1))
+                    * mCellAngle;
+            final double longitude = (key.mLonIndex + ((corner >> 1) & 1))
+                    * mCellAngle;
+            final double height = (key.mHeightIndex + ((corner >> 2) & 1))
+                    * mCellHeight;
+
+            mEstimator.estimate(latitude, longitude, height, mStartYear, mTmp);
+            copy(mTmp, start, corner);
+            mEstimator.estimate(latitude, longitude, height, mEndYear, mTmp);
+            copy(mTmp, end, corner);
+        }
+
+        tile.mStart = start;
+        tile.mEnd = end;
+
+        // check interpolation at the center (all coordinates at 0.5) and at
+        // edge midpoints (one coordinate at 0.5 and the rest at 0 or 1)
+        for (int i = 0; i < SAMPLES_PER_AXIS; i++) {
+            for (int j = 0; j < SAMPLES_PER_AXIS; j++) {
+                for (int k = 0; k < SAMPLES_PER_AXIS; k++) {
+                    final int midpoints = (i == 1 ? 1 : 0) + (j == 1 ? 1 : 0)
+                            + (k == 1 ? 1 : 0);
+                    if (midpoints != 1 && midpoints != CUBE_DIMENSIONS) {
+                        continue;
+                    }
+
+                    final double u = 0.5 * i;
+                    final double v = 0.5 * j;
+                    final double w = 0.5 * k;
+                    if (!isAccurate(key, tile, u, v, w)) {
+                        tile.mStart = null;
+                        tile.mEnd = null;
+                        return tile;
+                    }
+                }
+            }
+        }
+
+        return tile;
+    }
+
+    /**
+     * Indicates whether interpolated values at provided normalized position
+     * within a tile are within the maximum allowed error at the start and end
+     * of the model lifespan.
+     *
+     * @param key  key of tile.
+     * @param tile tile containing values at its corners.
+     * @param u    normalized position within tile in latitude.
+     * @param v    normalized position within tile in longitude.
+     * @param w    normalized position within tile in height.
+     * @return true if interpolation is accurate enough, false otherwise.
+     */
+    private boolean isAccurate(final TileKey key, final Tile tile,
+                               final double u, final double v,
+                               final double w) {
+        final double latitude = (key.mLatIndex + u) * mCellAngle;
+        final double longitude = (key.mLonIndex + v) * mCellAngle;
+        final double height = (key.mHeightIndex + w) * mCellHeight;
+
+        mEstimator.estimate(latitude, longitude, height, mStartYear, mTmp);
+        if (!isAccurate(mTmp, tile, u, v, w, 0.0)) {
+            return false;
+        }
+        mEstimator.estimate(latitude, longitude, height, mEndYear, mTmp);
+        return isAccurate(mTmp, tile, u, v, w, 1.0);
+    }
+
+    /**
+     * Indicates whether interpolated values at provided normalized position
+     * and time within a tile are within the maximum allowed error.
+     *
+     * @param expected expected magnetic flux density.
+     * @param tile     tile containing values at its corners.
+     * @param u        normalized position within tile in latitude.
+     * @param v        normalized position within tile in longitude.
+     * @param w        normalized position within tile in height.
+     * @param t        normalized time respect to model lifespan.
+     * @return true if interpolation is accurate enough, false otherwise.
+     */
+    private boolean isAccurate(final NEDMagneticFluxDensity expected,
+                               final Tile tile, final double u,
+                               final double v, final double w,
+                               final double t) {
+        return Math.abs(tile.interpolate(0, u, v, w, t) - expected.getBn()) <= mMaxError
+                && Math.abs(tile.interpolate(1, u, v, w, t) - expected.getBe()) <= mMaxError
+                && Math.abs(tile.interpolate(2, u, v, w, t) - expected.getBd()) <= mMaxError;
+    }
+
+    /**
+     * Copies magnetic flux density components into provided corner.
+     *
+     * @param b      magnetic flux density to be copied.
+     * @param values array where values of all corners are stored.
+     * @param corner corner to be set.
+     */
+    private static void copy(final NEDMagneticFluxDensity b,
+                             final double[] values, final int corner) {
+        final int pos = corner * COMPONENTS;
+        values[pos] = b.getBn();
+        values[pos + 1] = b.getBe();
+        values[pos + 2] = b.getBd();
+    }
+
+    /**
+     * Normalizes provided longitude within the [-pi, pi) range.
+     *
+     * @param longitude longitude expressed in radians.
+     * @return normalized longitude.
+     */
+    private static double normalizeLongitude(final double longitude) {
+        if (longitude >= -Math.PI && longitude < Math.PI) {
+            return longitude;
+        }
+        final double twoPi = 2.0 * Math.PI;
+        double result = longitude % twoPi;
+        if (result < -Math.PI) {
+            result += twoPi;
+        } else if (result >= Math.PI) {
+            result -= twoPi;
+        }
+        return result;
+    }
+
+    /**
+     * Identifies a tile by its latitude, longitude and height indices.
+     */
+    private static final class TileKey {
+
+        /**
+         * Latitude index.
+         */
+        private final long mLatIndex;
+
+        /**
+         * Longitude index.
+         */
+        private final long mLonIndex;
+
+        /**
+         * Height index.
+         */
+        private final long mHeightIndex;
+
+        /**
+         * Constructor.
+         *
+         * @param latIndex    latitude index.
+         * @param lonIndex    longitude index.
+         * @param heightIndex height index.
+         */
+        TileKey(final long latIndex, final long lonIndex,
+                final long heightIndex) {
+            mLatIndex = latIndex;
+            mLonIndex = lonIndex;
+            mHeightIndex = heightIndex;
+        }
+
+        /**
+         * Indicates whether this key has provided indices.
+         *
+         * @param latIndex    latitude index.
+         * @param lonIndex    longitude index.
+         * @param heightIndex height index.
+         * @return true if indices are equal, false otherwise.
+         */
+        boolean equals(final long latIndex, final long lonIndex,
+                       final long heightIndex) {
+            return mLatIndex == latIndex && mLonIndex == lonIndex
+                    && mHeightIndex == heightIndex;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TileKey)) {
+                return false;
+            }
+            final TileKey other = (TileKey) obj;
+            return equals(other.mLatIndex, other.mLonIndex,
+                    other.mHeightIndex);
+        }
+
+        @Override
+        public int hashCode() {
+            long result = mLatIndex;
+            result = 31 * result + mLonIndex;
+            result = 31 * result + mHeightIndex;
+            return (int) (result ^ (result >>> 32));
+        }
+    }
+
+    /**
+     * Contains magnetic flux density at the corners of a tile.
+     */
+    private static final class Tile {
+
+        /**
+         * Key of this tile.
+         */
+        private final TileKey mKey;
+
+        /**
+         * Magnetic flux density components at each corner at the start of
+         * the model lifespan. Null if positions within this tile must be
+         * directly estimated.
+         */
+        private double[] mStart;
+
+        /**
+         * Magnetic flux density components at each corner at the end of
+         * the model lifespan. Null if positions within this tile must be
+         * directly estimated.
+         */
+        private double[] mEnd;
+
+        /**
+         * Constructor.
+         *
+         * @param key key of this tile.
+         */
+        Tile(final TileKey key) {
+            mKey = key;
+        }
+
+        /**
+         * Interpolates a magnetic flux density component.
+         *
+         * @param component component to be interpolated.
+         * @param u         normalized position within tile in latitude.
+         * @param v         normalized position within tile in longitude.
+         * @param w         normalized position within tile in height.
+         * @param t         normalized time respect to model lifespan.
+         * @return interpolated value.
+         */
+        double interpolate(final int component, final double u,
+                           final double v, final double w, final double t) {
+            double result = 0.0;
+            for (int corner = 0; corner < CORNERS; corner++) {
+                final double weight = ((corner & 1) != 0 ? u : 1.0 - u)
+                        * (((corner >> 1) & 1) != 0 ? v : 1.0 - v)
+                        * (((corner >> 2) & 1) != 0 ? w : 1.0 - w);
+                final int pos = corner * COMPONENTS + component;
+                result += weight * (mStart[pos]
+                        + t * (mEnd[pos] - mStart[pos]));
+            }
+            return result;
+        }
+    }
+}
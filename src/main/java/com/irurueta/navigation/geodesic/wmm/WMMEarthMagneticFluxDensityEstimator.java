@@ -144,6 +144,14 @@ public class WMMEarthMagneticFluxDensityEstimator {
      */
     private final double[][] mTc = new double[N][N];
 
+    /**
+     * The associated Legendre polynomials p(n,m) (unnormalized).
+     * Each estimator keeps its own copy so that cached values computed for
+     * a given latitude and height are not overwritten by other estimators
+     * sharing the same model.
+     */
+    private final double[] mSnorm;
+
     /**
      * The theta derivative of p(n,m) (unnormalized).
      */
@@ -248,6 +256,7 @@ public class WMMEarthMagneticFluxDensityEstimator {
             throw new NullPointerException();
         }
         mModel = model;
+        mSnorm = model.snorm.clone();
         mSp[0] = 0.0;
         mCp[0] = 1.0;
         mPp[0] = 1.0;
@@ -2603,6 +2612,116 @@ public class WMMEarthMagneticFluxDensityEstimator {
         return result;
     }
 
+    /**
+     * Estimates Earth magnetic flux density for a collection of positions
+     * at the same time instant.
+     * Positions are internally visited sorted by height and latitude, so
+     * that the spherical coordinates conversion and the associated Legendre
+     * polynomials and their derivatives are computed only once for all
+     * positions sharing the same latitude band and height, and only
+     * longitude dependent terms are computed for each position.
+     * Hence, the speed-up respect to estimating each position independently
+     * is only significant for positions laid on a grid, where many of them
+     * share the same latitude and height.
+     *
+     * @param latitudes  latitudes expressed in radians.
+     * @param longitudes longitudes expressed in radians.
+     * @param heights    heights expressed in meters.
+     * @param year       year expressed in decimal years.
+     * @param result     instances where magnetic flux of each position will
+     *                   be stored resolved around NED frame.
+     * @throws IllegalArgumentException if provided arrays do not have the
+     *                                  same length.
+     */
+    public void estimate(
+            final double[] latitudes, final double[] longitudes,
+            final double[] heights, final double year,
+            final NEDMagneticFluxDensity[] result) {
+        final int length = latitudes.length;
+        if (longitudes.length != length || heights.length != length
+                || result.length != length) {
+            throw new IllegalArgumentException();
+        }
+
+        if (length == 0) {
+            return;
+        }
+
+        final int[] indices = new int[length];
+        for (int i = 0; i < length; i++) {
+            indices[i] = i;
+        }
+        sortByHeightAndLatitude(indices, heights, latitudes);
+
+        if (mOldTime == null || year != mOldTime) {
+            updateTime(year);
+        }
+
+        int k = 0;
+        double latitude = 0.0;
+        double longitude = 0.0;
+        double heightKm = 0.0;
+        while (k < length) {
+            // latitude and height dependent terms are computed once per band
+            final int first = indices[k];
+            latitude = Math.toDegrees(latitudes[first]);
+            heightKm = DistanceConverter.convert(heights[first],
+                    DistanceUnit.METER, DistanceUnit.KILOMETER);
+            updateBand(latitude, heightKm);
+
+            // only longitude dependent terms are computed for each position
+            int i;
+            do {
+                i = indices[k];
+                longitude = Math.toDegrees(longitudes[i]);
+                updateLongitude(longitude);
+                accumulate();
+                result[i].setCoordinates(mBx * FROM_NANO, mBy * FROM_NANO,
+                        mBz * FROM_NANO);
+                k++;
+            } while (k < length && heights[indices[k]] == heights[first]
+                    && latitudes[indices[k]] == latitudes[first]);
+        }
+
+        mOldTime = year;
+        mOldHeight = heightKm;
+        mOldLatitude = latitude;
+        mOldLongitude = longitude;
+    }
+
+    /**
+     * Estimates Earth magnetic flux density for a collection of positions
+     * at the same time instant.
+     * Positions are internally visited sorted by height and latitude, so
+     * that the spherical coordinates conversion and the associated Legendre
+     * polynomials and their derivatives are computed only once for all
+     * positions sharing the same latitude band and height, and only
+     * longitude dependent terms are computed for each position.
+     * Hence, the speed-up respect to estimating each position independently
+     * is only significant for positions laid on a grid, where many of them
+     * share the same latitude and height.
+     *
+     * @param latitudes  latitudes expressed in radians.
+     * @param longitudes longitudes expressed in radians.
+     * @param heights    heights expressed in meters.
+     * @param year       year expressed in decimal years.
+     * @return Earth magnetic flux density of each position resolved around
+     * NED frame.
+     * @throws IllegalArgumentException if provided arrays do not have the
+     *                                  same length.
+     */
+    public NEDMagneticFluxDensity[] estimate(
+            final double[] latitudes, final double[] longitudes,
+            final double[] heights, final double year) {
+        final NEDMagneticFluxDensity[] result =
+                new NEDMagneticFluxDensity[latitudes.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new NEDMagneticFluxDensity();
+        }
+        estimate(latitudes, longitudes, heights, year, result);
+        return result;
+    }
+
     /**
      * Estimates Earth magnetic flux density.
      *
@@ -2957,86 +3076,129 @@ public class WMMEarthMagneticFluxDensityEstimator {
             final double height,
             final double year) {
 
+        if (mOldTime == null || year != mOldTime) {
+            updateTime(year);
+        }
+        if (mOldHeight == null || height != mOldHeight
+                || mOldLatitude == null || latitude != mOldLatitude) {
+            updateBand(latitude, height);
+        }
+        if (mOldLongitude == null || longitude != mOldLongitude) {
+            updateLongitude(longitude);
+        }
+        accumulate();
+
+        mOldTime = year;
+        mOldHeight = height;
+        mOldLatitude = latitude;
+        mOldLongitude = longitude;
+    }
+
+    /**
+     * Time adjusts the Gauss coefficients.
+     *
+     * @param year the date as a decimal year.
+     */
+    private void updateTime(final double year) {
         final double dt = year - mModel.epoch;
-        final double rlon = Math.toRadians(longitude);
+        for (int n = 1; n <= WorldMagneticModel.MAX_ORDER; n++) {
+            for (int m = 0; m <= n; m++) {
+                mTc[m][n] = mModel.c[m][n] + dt * mModel.cd[m][n];
+
+                if (m != 0) {
+                    mTc[n][m - 1] = mModel.c[n][m - 1] + dt * mModel.cd[n][m - 1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts from geodetic coordinates to spherical coordinates and
+     * computes the unnormalized associated Legendre polynomials and their
+     * derivatives, which only depend on latitude and height.
+     *
+     * @param latitude the latitude in decimal degrees.
+     * @param height   the height (altitude) in kilometers.
+     */
+    private void updateBand(final double latitude, final double height) {
         final double rlat = Math.toRadians(latitude);
-        final double srlon = Math.sin(rlon);
         final double srlat = Math.sin(rlat);
-        final double crlon = Math.cos(rlon);
         final double crlat = Math.cos(rlat);
         final double srlat2 = srlat * srlat;
         final double crlat2 = crlat * crlat;
-        mSp[1] = srlon;
-        mCp[1] = crlon;
 
         // Convert from geodetic coords to spherical coords.
-        if (mOldHeight == null || height != mOldHeight
-                || mOldLatitude == null || latitude != mOldLatitude) {
-            final double q = Math.sqrt(mA2 - mC2 * srlat2);
-            final double q1 = height * q;
-            final double q2 = ((q1 + mA2) / (q1 + mB2)) * ((q1 + mA2) / (q1 + mB2));
-            mCt = srlat / Math.sqrt(q2 * crlat2 + srlat2);
-            mSt = Math.sqrt(1.0 - (mCt * mCt));
-            final double r2 = ((height * height) + 2.0 * q1 + (mA4 - mC4 * srlat2) / (q * q));
-            mR = Math.sqrt(r2);
-            final double mD = Math.sqrt(mA2 * crlat2 + mB2 * srlat2);
-            mCa = (height + mD) / mR;
-            mSa = mC2 * crlat * srlat / (mR * mD);
-        }
-        if (mOldLongitude == null || longitude != mOldLongitude) {
-            for (int m = 2; m <= WorldMagneticModel.MAX_ORDER; m++) {
-                mSp[m] = mSp[1] * mCp[m - 1] + mCp[1] * mSp[m - 1];
-                mCp[m] = mCp[1] * mCp[m - 1] - mSp[1] * mSp[m - 1];
+        final double q = Math.sqrt(mA2 - mC2 * srlat2);
+        final double q1 = height * q;
+        final double q2 = ((q1 + mA2) / (q1 + mB2)) * ((q1 + mA2) / (q1 + mB2));
+        mCt = srlat / Math.sqrt(q2 * crlat2 + srlat2);
+        mSt = Math.sqrt(1.0 - (mCt * mCt));
+        final double r2 = ((height * height) + 2.0 * q1 + (mA4 - mC4 * srlat2) / (q * q));
+        mR = Math.sqrt(r2);
+        final double mD = Math.sqrt(mA2 * crlat2 + mB2 * srlat2);
+        mCa = (height + mD) / mR;
+        mSa = mC2 * crlat * srlat / (mR * mD);
+
+        // compute unnormalized associated Legendre polynomials
+        // and derivatives via recursion relations
+        for (int n = 1; n <= WorldMagneticModel.MAX_ORDER; n++) {
+            for (int m = 0; m <= n; m++) {
+                if (n == m) {
+                    mSnorm[n + m * N] = mSt * mSnorm[n - 1 + (m - 1) * N];
+                    mDp[m][n] = mSt * mDp[m - 1][n - 1] + mCt * mSnorm[n - 1 + (m - 1) * N];
+                }
+                if (n == 1 && m == 0) {
+                    mSnorm[n + m * N] = mCt * mSnorm[n - 1 + m * N];
+                    mDp[m][n] = mCt * mDp[m][n - 1] - mSt * mSnorm[n - 1 + m * N];
+                }
+                if (n > 1 && n != m) {
+                    if (m > n - 2) {
+                        mSnorm[n - 2 + m * N] = 0.0;
+                    }
+                    if (m > n - 2) {
+                        mDp[m][n - 2] = 0.0;
+                    }
+                    mSnorm[n + m * N] = mCt * mSnorm[n - 1 + m * N]
+                            - mModel.k[m][n] * mSnorm[n - 2 + m * N];
+                    mDp[m][n] = mCt * mDp[m][n - 1] - mSt * mSnorm[n - 1 + m * N]
+                            - mModel.k[m][n] * mDp[m][n - 2];
+                }
             }
         }
+    }
 
+    /**
+     * Computes the sine and cosine of (m*spherical coord. longitude).
+     *
+     * @param longitude the longitude in decimal degrees.
+     */
+    private void updateLongitude(final double longitude) {
+        final double rlon = Math.toRadians(longitude);
+        mSp[1] = Math.sin(rlon);
+        mCp[1] = Math.cos(rlon);
+        for (int m = 2; m <= WorldMagneticModel.MAX_ORDER; m++) {
+            mSp[m] = mSp[1] * mCp[m - 1] + mCp[1] * mSp[m - 1];
+            mCp[m] = mCp[1] * mCp[m - 1] - mSp[1] * mSp[m - 1];
+        }
+    }
+
+    /**
+     * Accumulates the terms of the spherical harmonic expansions for
+     * current time adjusted coefficients, latitude band, height and
+     * longitude, and computes the magnetic field components.
+     */
+    private void accumulate() {
         final double aor = RE_KM / mR;
         double ar = aor * aor;
         double br = 0, bt = 0, bp = 0, bpp = 0;
 
         for (int n = 1; n <= WorldMagneticModel.MAX_ORDER; n++) {
             ar = ar * aor;
-            for (int m = 0, D3 = 1, D4 = (n + m + D3) / D3; D4 > 0; D4--, m += D3) {
-
-                // compute unnormalized associated Legendre polynomials
-                // and derivatives via recursion relations
-                if (mOldHeight == null || height != mOldHeight
-                        || mOldLatitude == null || latitude != mOldLatitude) {
-                    if (n == m) {
-                        mModel.snorm[n + m * N] = mSt * mModel.snorm[n - 1 + (m - 1) * N];
-                        mDp[m][n] = mSt * mDp[m - 1][n - 1] + mCt * mModel.snorm[n - 1 + (m - 1) * N];
-                    }
-                    if (n == 1 && m == 0) {
-                        mModel.snorm[n + m * N] = mCt * mModel.snorm[n - 1 + m * N];
-                        mDp[m][n] = mCt * mDp[m][n - 1] - mSt * mModel.snorm[n - 1 + m * N];
-                    }
-                    if (n > 1 && n != m) {
-                        if (m > n - 2) {
-                            mModel.snorm[n - 2 + m * N] = 0.0;
-                        }
-                        if (m > n - 2) {
-                            mDp[m][n - 2] = 0.0;
-                        }
-                        mModel.snorm[n + m * N] = mCt * mModel.snorm[n - 1 + m * N]
-                                - mModel.k[m][n] * mModel.snorm[n - 2 + m * N];
-                        mDp[m][n] = mCt * mDp[m][n - 1] - mSt * mModel.snorm[n - 1 + m * N]
-                                - mModel.k[m][n] * mDp[m][n - 2];
-                    }
-                }
-
-                // time adjust the Gauss coefficients
-
-                if (mOldTime == null || year != mOldTime) {
-                    mTc[m][n] = mModel.c[m][n] + dt * mModel.cd[m][n];
-
-                    if (m != 0) {
-                        mTc[n][m - 1] = mModel.c[n][m - 1] + dt * mModel.cd[n][m - 1];
-                    }
-                }
+            for (int m = 0; m <= n; m++) {
 
                 // accumulate terms of the spherical harmonic expansions
                 double temp1, temp2;
-                double par = ar * mModel.snorm[n + m * N];
+                double par = ar * mSnorm[n + m * N];
                 if (m == 0) {
                     temp1 = mTc[m][n] * mCp[m];
                     temp2 = mTc[m][n] * mSp[m];
@@ -3088,11 +3250,64 @@ public class WMMEarthMagneticFluxDensityEstimator {
         //	Calculate the declination.
         mDec = Math.toDegrees(Math.atan2(mBy, mBx));
         mDip = Math.toDegrees(Math.atan2(mBz, mBh));
+    }
 
-        mOldTime = year;
-        mOldHeight = height;
-        mOldLatitude = latitude;
-        mOldLongitude = longitude;
+    /**
+     * Sorts provided indices by their height and latitude, so that positions
+     * sharing the same latitude band and height are consecutive.
+     * A merge sort on primitive indices is used to avoid boxing them.
+     *
+     * @param indices   indices to be sorted.
+     * @param heights   heights of positions.
+     * @param latitudes latitudes of positions.
+     */
+    private static void sortByHeightAndLatitude(
+            final int[] indices, final double[] heights,
+            final double[] latitudes) {
+        final int[] buffer = new int[indices.length];
+        for (int width = 1; width < indices.length; width *= 2) {
+            for (int low = 0; low < indices.length - width; low += 2 * width) {
+                final int mid = low + width;
+                final int high = Math.min(mid + width, indices.length);
+                int i = low;
+                int j = mid;
+                int k = low;
+                while (i < mid && j < high) {
+                    if (compare(indices[j], indices[i], heights, latitudes) < 0) {
+                        buffer[k++] = indices[j++];
+                    } else {
+                        buffer[k++] = indices[i++];
+                    }
+                }
+                while (i < mid) {
+                    buffer[k++] = indices[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = indices[j++];
+                }
+                System.arraycopy(buffer, low, indices, low, high - low);
+            }
+        }
+    }
+
+    /**
+     * Compares the positions at provided indices by their height and latitude.
+     *
+     * @param i1        index of 1st position.
+     * @param i2        index of 2nd position.
+     * @param heights   heights of positions.
+     * @param latitudes latitudes of positions.
+     * @return a negative value, zero or a positive value if 1st position goes
+     * before, together or after 2nd one.
+     */
+    private static int compare(final int i1, final int i2,
+                               final double[] heights,
+                               final double[] latitudes) {
+        final int cmp = Double.compare(heights[i1], heights[i2]);
+        if (cmp != 0) {
+            return cmp;
+        }
+        return Double.compare(latitudes[i1], latitudes[i2]);
     }
 
     /**
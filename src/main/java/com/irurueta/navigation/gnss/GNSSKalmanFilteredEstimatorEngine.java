@@ -0,0 +1,975 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.gnss;
+
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs GNSS Kalman filtered estimators for many receivers concurrently.
+ * Each receiver, identified by a key, owns a {@link GNSSKalmanFilteredEstimator}
+ * that is lazily created on first submission and is pinned to one of a fixed
+ * number of worker threads (shards) according to the hash of its key.
+ * Requests are enqueued into a lock-free per-receiver mailbox and drained in
+ * submission order by the owning worker, hence requests of a given receiver
+ * are never processed concurrently nor reordered, while requests of
+ * different receivers are processed in parallel.
+ * Each time a receiver is scheduled, at most {@link #MAX_BATCH_SIZE} of its
+ * requests are processed before it is scheduled again behind other receivers
+ * of the same shard, so that a receiver with a long backlog cannot starve the
+ * rest.
+ * Results and failures are notified through a
+ * {@link GNSSKalmanFilteredEstimatorEngineListener} on the worker thread.
+ * Exceptions thrown by the listener do not stop processing; they are counted
+ * and reported to the uncaught exception handler of the worker thread.
+ * Receivers are kept until they are explicitly removed by
+ * {@link #removeReceiver(Object)}.
+ * This class is thread-safe.
+ *
+ * @param <K> type of receiver identifiers.
+ */
+public class GNSSKalmanFilteredEstimatorEngine<K> {
+
+    /**
+     * Default number of shards (worker threads).
+     */
+    public static final int DEFAULT_NUMBER_OF_SHARDS =
+            Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Minimum epoch interval expressed in seconds (s) by default.
+     */
+    public static final double DEFAULT_EPOCH_INTERVAL = 0.0;
+
+    /**
+     * Maximum number of requests of a receiver processed each time it is
+     * scheduled on its shard.
+     */
+    public static final int MAX_BATCH_SIZE = 64;
+
+    /**
+     * Number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Value of the pending counter of a mailbox that has been removed and no
+     * longer accepts requests.
+     */
+    private static final int CLOSED = -1;
+
+    /**
+     * Worker threads, each one owning a disjoint subset of receivers.
+     */
+    private final ExecutorService[] mShards;
+
+    /**
+     * Mailboxes of receivers indexed by receiver identifier.
+     */
+    private final ConcurrentHashMap<K, Mailbox> mMailboxes =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Configuration of Kalman filter used for new receivers.
+     */
+    private final GNSSKalmanConfig mConfig;
+
+    /**
+     * Minimum epoch interval expressed in seconds (s) between consecutive
+     * propagations or measurements of each receiver.
+     */
+    private final double mEpochInterval;
+
+    /**
+     * Listener to notify processed requests.
+     */
+    private volatile GNSSKalmanFilteredEstimatorEngineListener<K> mListener;
+
+    /**
+     * Number of submitted requests.
+     */
+    private final AtomicLong mSubmittedCount = new AtomicLong();
+
+    /**
+     * Number of processed requests, either successful or not.
+     */
+    private final AtomicLong mProcessedCount = new AtomicLong();
+
+    /**
+     * Number of processed requests that failed.
+     */
+    private final AtomicLong mFailedCount = new AtomicLong();
+
+    /**
+     * Number of listener notifications that threw an exception.
+     */
+    private final AtomicLong mListenerFailedCount = new AtomicLong();
+
+    /**
+     * Number of requests waiting to be processed across all receivers.
+     */
+    private final AtomicLong mQueueDepth = new AtomicLong();
+
+    /**
+     * Maximum number of requests that have been waiting to be processed at the
+     * same time across all receivers.
+     */
+    private final AtomicLong mPeakQueueDepth = new AtomicLong();
+
+    /**
+     * Time expressed in nanoseconds when this engine was started.
+     */
+    private final long mStartNanos;
+
+    /**
+     * Indicates whether this engine has been shut down.
+     */
+    private volatile boolean mShutdown;
+
+    /**
+     * Constructor.
+     * Uses as many shards as available processors and no minimum epoch interval.
+     *
+     * @param config Kalman filter configuration used for all receivers.
+     * @throws IllegalArgumentException if provided configuration is null.
+     */
+    public GNSSKalmanFilteredEstimatorEngine(final GNSSKalmanConfig config) {
+        this(DEFAULT_NUMBER_OF_SHARDS, config, DEFAULT_EPOCH_INTERVAL, null);
+    }
+
+    /**
+     * Constructor.
+     * Uses as many shards as available processors.
+     *
+     * @param config        Kalman filter configuration used for all receivers.
+     * @param epochInterval minimum epoch interval expressed in seconds (s)
+     *                      between consecutive propagations or measurements of
+     *                      each receiver.
+     * @throws IllegalArgumentException if provided configuration is null or
+     *                                  epoch interval is negative.
+     */
+    public GNSSKalmanFilteredEstimatorEngine(final GNSSKalmanConfig config,
+                                             final double epochInterval) {
+        this(DEFAULT_NUMBER_OF_SHARDS, config, epochInterval, null);
+    }
+
+    /**
+     * Constructor.
+     * Uses no minimum epoch interval.
+     *
+     * @param numberOfShards number of worker threads.
+     * @param config         Kalman filter configuration used for all receivers.
+     * @throws IllegalArgumentException if provided number of shards is less
+     *                                  than 1 or configuration is null.
+     */
+    public GNSSKalmanFilteredEstimatorEngine(final int numberOfShards,
+                                             final GNSSKalmanConfig config) {
+        this(numberOfShards, config, DEFAULT_EPOCH_INTERVAL, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numberOfShards number of worker threads.
+     * @param config         Kalman filter configuration used for all receivers.
+     * @param epochInterval  minimum epoch interval expressed in seconds (s)
+     *                       between consecutive propagations or measurements of
+     *                       each receiver.
+     * @throws IllegalArgumentException if provided number of shards is less
+     *                                  than 1, configuration is null or epoch
+     *                                  interval is negative.
+     */
+    public GNSSKalmanFilteredEstimatorEngine(final int numberOfShards,
+                                             final GNSSKalmanConfig config,
+                                             final double epochInterval) {
+        this(numberOfShards, config, epochInterval, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param numberOfShards number of worker threads.
+     * @param config         Kalman filter configuration used for all receivers.
+     * @param epochInterval  minimum epoch interval expressed in seconds (s)
+     *                       between consecutive propagations or measurements of
+     *                       each receiver.
+     * @param listener       listener to notify processed requests.
+     * @throws IllegalArgumentException if provided number of shards is less
+     *                                  than 1, configuration is null or epoch
+     *                                  interval is negative.
+     */
+    public GNSSKalmanFilteredEstimatorEngine(
+            final int numberOfShards, final GNSSKalmanConfig config,
+            final double epochInterval,
+            final GNSSKalmanFilteredEstimatorEngineListener<K> listener) {
+        if (numberOfShards < 1 || config == null) {
+            throw new IllegalArgumentException();
+        }
+        if (epochInterval < 0.0) {
+            throw new IllegalArgumentException();
+        }
+
+        mConfig = config;
+        mEpochInterval = epochInterval;
+        mListener = listener;
+
+        mShards = new ExecutorService[numberOfShards];
+        for (int i = 0; i < numberOfShards; i++) {
+            mShards[i] = Executors.newSingleThreadExecutor(
+                    new ShardThreadFactory(i));
+        }
+
+        mStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets number of shards (worker threads).
+     *
+     * @return number of shards.
+     */
+    public int getNumberOfShards() {
+        return mShards.length;
+    }
+
+    /**
+     * Gets Kalman filter configuration used for all receivers.
+     *
+     * @return Kalman filter configuration.
+     */
+    public GNSSKalmanConfig getConfig() {
+        return mConfig;
+    }
+
+    /**
+     * Gets minimum epoch interval expressed in seconds (s) between consecutive
+     * propagations or measurements of each receiver.
+     *
+     * @return minimum epoch interval.
+     */
+    public double getEpochInterval() {
+        return mEpochInterval;
+    }
+
+    /**
+     * Gets listener to notify processed requests.
+     *
+     * @return listener to notify processed requests.
+     */
+    public GNSSKalmanFilteredEstimatorEngineListener<K> getListener() {
+        return mListener;
+    }
+
+    /**
+     * Sets listener to notify processed requests.
+     *
+     * @param listener listener to notify processed requests.
+     */
+    public void setListener(
+            final GNSSKalmanFilteredEstimatorEngineListener<K> listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Gets number of receivers that have been submitted at least one request.
+     *
+     * @return number of receivers.
+     */
+    public int getNumberOfReceivers() {
+        return mMailboxes.size();
+    }
+
+    /**
+     * Indicates whether provided receiver has been submitted at least one
+     * request.
+     *
+     * @param receiverId identifier of receiver.
+     * @return true if receiver is known, false otherwise.
+     */
+    public boolean containsReceiver(final K receiverId) {
+        return receiverId != null && mMailboxes.containsKey(receiverId);
+    }
+
+    /**
+     * Removes provided receiver along with its estimator, so that resources of
+     * receivers that are no longer active can be released.
+     * A receiver can only be removed when it has no pending requests. Removal
+     * is atomic respect to submissions: requests submitted before removal are
+     * processed by the removed estimator before it is removed, and requests
+     * submitted afterwards are processed by a new estimator.
+     *
+     * @param receiverId identifier of receiver.
+     * @return true if receiver was removed, false if it was unknown or has
+     * pending requests.
+     * @throws IllegalArgumentException if receiver identifier is null.
+     */
+    public boolean removeReceiver(final K receiverId) {
+        if (receiverId == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final Mailbox mailbox = mMailboxes.get(receiverId);
+        if (mailbox == null || !mailbox.mPending.compareAndSet(0, CLOSED)) {
+            return false;
+        }
+
+        // once closed, mailbox no longer accepts requests, and submitters
+        // finding it also remove it before creating a new one
+        mMailboxes.remove(receiverId, mailbox);
+        return true;
+    }
+
+    /**
+     * Gets index of the shard owning provided receiver.
+     *
+     * @param receiverId identifier of receiver.
+     * @return index of shard.
+     * @throws IllegalArgumentException if receiver identifier is null.
+     */
+    public int getShardIndex(final K receiverId) {
+        if (receiverId == null) {
+            throw new IllegalArgumentException();
+        }
+
+        int h = receiverId.hashCode();
+        // spread high bits so that keys with similar hash codes are
+        // distributed across shards
+        h ^= (h >>> 16);
+        return (h & Integer.MAX_VALUE) % mShards.length;
+    }
+
+    /**
+     * Submits new GNSS measurements of a receiver.
+     * Provided collection is copied so it can be reused by the caller once
+     * this method returns.
+     *
+     * @param receiverId   identifier of receiver.
+     * @param measurements GNSS measurements to be updated.
+     * @param timestamp    timestamp since epoch time when GNSS measurements were
+     *                     updated.
+     * @throws IllegalArgumentException if receiver identifier or measurements
+     *                                  are null.
+     * @throws IllegalStateException    if this engine has been shut down.
+     */
+    public void submitMeasurements(
+            final K receiverId, final Collection<GNSSMeasurement> measurements,
+            final Time timestamp) {
+        submitMeasurements(receiverId, measurements, convertTime(timestamp));
+    }
+
+    /**
+     * Submits new GNSS measurements of a receiver.
+     * Provided collection is copied so it can be reused by the caller once
+     * this method returns.
+     *
+     * @param receiverId   identifier of receiver.
+     * @param measurements GNSS measurements to be updated.
+     * @param timestamp    timestamp expressed in seconds since epoch time when
+     *                     GNSS measurements were updated.
+     * @throws IllegalArgumentException if receiver identifier or measurements
+     *                                  are null.
+     * @throws IllegalStateException    if this engine has been shut down.
+     */
+    public void submitMeasurements(
+            final K receiverId, final Collection<GNSSMeasurement> measurements,
+            final double timestamp) {
+        if (measurements == null) {
+            throw new IllegalArgumentException();
+        }
+        submit(receiverId, new Request(Request.UPDATE_MEASUREMENTS,
+                new ArrayList<>(measurements), timestamp));
+    }
+
+    /**
+     * Submits a propagation of the Kalman filter state of a receiver.
+     *
+     * @param receiverId identifier of receiver.
+     * @param timestamp  timestamp since epoch to propagate state.
+     * @throws IllegalArgumentException if receiver identifier is null.
+     * @throws IllegalStateException    if this engine has been shut down.
+     */
+    public void submitPropagate(final K receiverId, final Time timestamp) {
+        submitPropagate(receiverId, convertTime(timestamp));
+    }
+
+    /**
+     * Submits a propagation of the Kalman filter state of a receiver.
+     *
+     * @param receiverId identifier of receiver.
+     * @param timestamp  timestamp expressed in seconds since epoch to propagate
+     *                   state.
+     * @throws IllegalArgumentException if receiver identifier is null.
+     * @throws IllegalStateException    if this engine has been shut down.
+     */
+    public void submitPropagate(final K receiverId, final double timestamp) {
+        submit(receiverId, new Request(Request.PROPAGATE, null, timestamp));
+    }
+
+    /**
+     * Submits a reset of the estimator of a receiver.
+     *
+     * @param receiverId identifier of receiver.
+     * @throws IllegalArgumentException if receiver identifier is null.
+     * @throws IllegalStateException    if this engine has been shut down.
+     */
+    public void submitReset(final K receiverId) {
+        submit(receiverId, new Request(Request.RESET, null, 0.0));
+    }
+
+    /**
+     * Gets number of submitted requests.
+     *
+     * @return number of submitted requests.
+     */
+    public long getSubmittedCount() {
+        return mSubmittedCount.get();
+    }
+
+    /**
+     * Gets number of processed requests, either successful or not.
+     *
+     * @return number of processed requests.
+     */
+    public long getProcessedCount() {
+        return mProcessedCount.get();
+    }
+
+    /**
+     * Gets number of processed requests that failed.
+     *
+     * @return number of failed requests.
+     */
+    public long getFailedCount() {
+        return mFailedCount.get();
+    }
+
+    /**
+     * Gets number of listener notifications that threw an exception.
+     * Such exceptions are reported to the uncaught exception handler of the
+     * worker thread and do not count as failed requests.
+     *
+     * @return number of failed listener notifications.
+     */
+    public long getListenerFailedCount() {
+        return mListenerFailedCount.get();
+    }
+
+    /**
+     * Gets number of requests waiting to be processed across all receivers.
+     *
+     * @return number of pending requests.
+     */
+    public long getQueueDepth() {
+        return mQueueDepth.get();
+    }
+
+    /**
+     * Gets number of requests of provided receiver waiting to be processed.
+     *
+     * @param receiverId identifier of receiver.
+     * @return number of pending requests of receiver or 0 if receiver is
+     * unknown.
+     */
+    public int getQueueDepth(final K receiverId) {
+        final Mailbox mailbox = receiverId != null ?
+                mMailboxes.get(receiverId) : null;
+        return mailbox != null ? Math.max(mailbox.mPending.get(), 0) : 0;
+    }
+
+    /**
+     * Gets maximum number of requests that have been waiting to be processed
+     * at the same time across all receivers.
+     *
+     * @return peak number of pending requests.
+     */
+    public long getPeakQueueDepth() {
+        return mPeakQueueDepth.get();
+    }
+
+    /**
+     * Gets time elapsed since this engine was created.
+     *
+     * @return elapsed time expressed in seconds (s).
+     */
+    public double getElapsedTime() {
+        return (System.nanoTime() - mStartNanos) / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Gets average throughput since this engine was created.
+     *
+     * @return number of processed requests per second.
+     */
+    public double getThroughput() {
+        final double elapsed = getElapsedTime();
+        return elapsed > 0.0 ? mProcessedCount.get() / elapsed : 0.0;
+    }
+
+    /**
+     * Indicates whether this engine has been shut down.
+     *
+     * @return true if engine has been shut down, false otherwise.
+     */
+    public boolean isShutdown() {
+        return mShutdown;
+    }
+
+    /**
+     * Stops accepting new requests.
+     * Requests that were already submitted are still processed.
+     */
+    public void shutdown() {
+        mShutdown = true;
+        for (final ExecutorService shard : mShards) {
+            shard.shutdown();
+        }
+    }
+
+    /**
+     * Waits until all submitted requests have been processed after a shutdown,
+     * or until provided timeout expires.
+     *
+     * @param timeoutMillis maximum time to wait expressed in milliseconds.
+     * @return true if all worker threads have terminated, false if timeout
+     * expired.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(final long timeoutMillis)
+            throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (final ExecutorService shard : mShards) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || !shard.awaitTermination(remaining,
+                    java.util.concurrent.TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Enqueues a request into the mailbox of a receiver and schedules the
+     * mailbox for draining on its shard if it was idle.
+     *
+     * @param receiverId identifier of receiver.
+     * @param request    request to be enqueued.
+     * @throws IllegalArgumentException if receiver identifier is null.
+     * @throws IllegalStateException    if this engine has been shut down.
+     */
+    private void submit(final K receiverId, final Request request) {
+        if (receiverId == null) {
+            throw new IllegalArgumentException();
+        }
+        if (mShutdown) {
+            throw new IllegalStateException();
+        }
+
+        Mailbox mailbox;
+        int pending;
+        while (true) {
+            mailbox = mMailboxes.get(receiverId);
+            if (mailbox == null) {
+                final Mailbox newMailbox = new Mailbox(receiverId,
+                        mShards[getShardIndex(receiverId)]);
+                mailbox = mMailboxes.putIfAbsent(receiverId, newMailbox);
+                if (mailbox == null) {
+                    mailbox = newMailbox;
+                }
+            }
+
+            pending = mailbox.reserve();
+            if (pending != CLOSED) {
+                break;
+            }
+
+            // receiver has been removed, so its mailbox is replaced by a new
+            // one having a new estimator
+            mMailboxes.remove(receiverId, mailbox);
+        }
+
+        // a slot has been reserved, so the drainer waits for this request
+        mailbox.mRequests.offer(request);
+        mSubmittedCount.incrementAndGet();
+        updatePeakQueueDepth(mQueueDepth.incrementAndGet());
+
+        if (pending == 0) {
+            // mailbox was idle, so no drainer is running for this receiver
+            try {
+                mailbox.mShard.execute(mailbox);
+            } catch (final RejectedExecutionException e) {
+                // shard has been shut down, so this thread owns the mailbox as
+                // its drainer
+                reject(mailbox, request, e);
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Drains the pending requests of a mailbox that could not be scheduled
+     * because its shard has been shut down.
+     * Provided request is discarded, rolling back the counters updated when it
+     * was submitted, since its submitter is notified with an exception.
+     * Requests concurrently submitted by other threads were already accepted,
+     * hence they are counted as failed and notified through {@link
+     * GNSSKalmanFilteredEstimatorEngineListener#onError} on the current
+     * thread.
+     * This must only be called by the owner of the mailbox drain.
+     *
+     * @param mailbox mailbox whose pending requests will be drained.
+     * @param request request of the owner of the mailbox drain.
+     * @param cause   cause of the rejection.
+     */
+    private void reject(final Mailbox mailbox, final Request request,
+                        final RejectedExecutionException cause) {
+        final GNSSKalmanFilteredEstimatorEngineListener<K> listener = mListener;
+        do {
+            final Request pending = mailbox.take();
+            mQueueDepth.decrementAndGet();
+            if (pending == request) {
+                mSubmittedCount.decrementAndGet();
+                continue;
+            }
+
+            mProcessedCount.incrementAndGet();
+            mFailedCount.incrementAndGet();
+            if (listener != null) {
+                try {
+                    listener.onError(this, mailbox.mReceiverId,
+                            mailbox.mEstimator, new IllegalStateException(cause));
+                } catch (final RuntimeException listenerException) {
+                    reportListenerFailure(listenerException);
+                }
+            }
+        } while (mailbox.mPending.decrementAndGet() > 0);
+    }
+
+    /**
+     * Updates peak queue depth if provided depth is larger.
+     *
+     * @param depth current queue depth.
+     */
+    private void updatePeakQueueDepth(final long depth) {
+        long peak = mPeakQueueDepth.get();
+        while (depth > peak) {
+            if (mPeakQueueDepth.compareAndSet(peak, depth)) {
+                return;
+            }
+            peak = mPeakQueueDepth.get();
+        }
+    }
+
+    /**
+     * Processes a single request on the worker thread owning the receiver.
+     * Failures of the request are notified through {@link
+     * GNSSKalmanFilteredEstimatorEngineListener#onError}, whereas failures of
+     * the listener itself are reported by {@link #reportListenerFailure}.
+     *
+     * @param receiverId identifier of receiver.
+     * @param estimator  estimator of receiver.
+     * @param request    request to be processed.
+     */
+    private void process(final K receiverId,
+                         final GNSSKalmanFilteredEstimator estimator,
+                         final Request request) {
+        final GNSSKalmanFilteredEstimatorEngineListener<K> listener = mListener;
+        final boolean result;
+        try {
+            switch (request.mType) {
+                case Request.UPDATE_MEASUREMENTS:
+                    result = estimator.updateMeasurements(
+                            request.mMeasurements, request.mTimestamp);
+                    break;
+                case Request.PROPAGATE:
+                    result = estimator.propagate(request.mTimestamp);
+                    break;
+                case Request.RESET:
+                default:
+                    estimator.reset();
+                    result = true;
+                    break;
+            }
+        } catch (final Exception e) {
+            mFailedCount.incrementAndGet();
+            if (listener != null) {
+                try {
+                    listener.onError(this, receiverId, estimator, e);
+                } catch (final RuntimeException listenerException) {
+                    reportListenerFailure(listenerException);
+                }
+            }
+            return;
+        }
+
+        if (listener == null) {
+            return;
+        }
+
+        try {
+            switch (request.mType) {
+                case Request.UPDATE_MEASUREMENTS:
+                    listener.onMeasurementsUpdated(this, receiverId, estimator,
+                            result);
+                    break;
+                case Request.PROPAGATE:
+                    listener.onPropagated(this, receiverId, estimator, result);
+                    break;
+                case Request.RESET:
+                default:
+                    listener.onReset(this, receiverId, estimator);
+                    break;
+            }
+        } catch (final RuntimeException e) {
+            reportListenerFailure(e);
+        }
+    }
+
+    /**
+     * Reports an exception thrown by the listener to the uncaught exception
+     * handler of current worker thread without stopping it.
+     *
+     * @param e exception thrown by the listener.
+     */
+    private void reportListenerFailure(final RuntimeException e) {
+        mListenerFailedCount.incrementAndGet();
+        final Thread thread = Thread.currentThread();
+        final Thread.UncaughtExceptionHandler handler =
+                thread.getUncaughtExceptionHandler();
+        if (handler != null) {
+            handler.uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * Converts provided time instance to seconds.
+     *
+     * @param time time instance to be converted.
+     * @return converted value expressed in seconds.
+     */
+    private static double convertTime(final Time time) {
+        return TimeConverter.convert(time.getValue().doubleValue(),
+                time.getUnit(), TimeUnit.SECOND);
+    }
+
+    /**
+     * Request submitted for a receiver.
+     */
+    private static class Request {
+
+        /**
+         * Request to update measurements.
+         */
+        static final int UPDATE_MEASUREMENTS = 0;
+
+        /**
+         * Request to propagate state.
+         */
+        static final int PROPAGATE = 1;
+
+        /**
+         * Request to reset estimator.
+         */
+        static final int RESET = 2;
+
+        /**
+         * Type of request.
+         */
+        final int mType;
+
+        /**
+         * Measurements to be updated or null.
+         */
+        final Collection<GNSSMeasurement> mMeasurements;
+
+        /**
+         * Timestamp expressed in seconds since epoch.
+         */
+        final double mTimestamp;
+
+        /**
+         * Constructor.
+         *
+         * @param type         type of request.
+         * @param measurements measurements to be updated or null.
+         * @param timestamp    timestamp expressed in seconds since epoch.
+         */
+        Request(final int type, final Collection<GNSSMeasurement> measurements,
+                final double timestamp) {
+            mType = type;
+            mMeasurements = measurements;
+            mTimestamp = timestamp;
+        }
+    }
+
+    /**
+     * Mailbox of a receiver.
+     * At most one drain of a mailbox is scheduled at any time, which is
+     * guaranteed by the pending counter: the submitter moving it from 0 to 1
+     * schedules the drain, and the drain keeps ownership (rescheduling itself
+     * after each batch) until it brings it back to 0.
+     * An idle mailbox is closed by moving its pending counter from 0 to
+     * {@link #CLOSED}, after which no request can be reserved on it.
+     */
+    private class Mailbox implements Runnable {
+
+        /**
+         * Identifier of receiver.
+         */
+        final K mReceiverId;
+
+        /**
+         * Shard owning this receiver.
+         */
+        final ExecutorService mShard;
+
+        /**
+         * Pending requests in submission order.
+         */
+        final ConcurrentLinkedQueue<Request> mRequests =
+                new ConcurrentLinkedQueue<>();
+
+        /**
+         * Number of pending requests, including reserved ones that might not
+         * have been enqueued yet, or {@link #CLOSED} if mailbox is closed.
+         */
+        final AtomicInteger mPending = new AtomicInteger();
+
+        /**
+         * Estimator of receiver. Only accessed by the drain of this mailbox.
+         */
+        final GNSSKalmanFilteredEstimator mEstimator;
+
+        /**
+         * Constructor.
+         *
+         * @param receiverId identifier of receiver.
+         * @param shard      shard owning this receiver.
+         */
+        Mailbox(final K receiverId, final ExecutorService shard) {
+            mReceiverId = receiverId;
+            mShard = shard;
+            mEstimator = new GNSSKalmanFilteredEstimator(mConfig, mEpochInterval);
+        }
+
+        /**
+         * Reserves a slot for a new request unless this mailbox is closed.
+         *
+         * @return number of pending requests before the reservation or
+         * {@link #CLOSED} if mailbox is closed.
+         */
+        int reserve() {
+            while (true) {
+                final int pending = mPending.get();
+                if (pending == CLOSED
+                        || mPending.compareAndSet(pending, pending + 1)) {
+                    return pending;
+                }
+            }
+        }
+
+        /**
+         * Takes next pending request, waiting for it to be enqueued if its
+         * slot has been reserved but its submitter has not enqueued it yet.
+         * This must only be called by the owner of the mailbox drain while
+         * there are pending requests.
+         *
+         * @return next pending request.
+         */
+        Request take() {
+            Request request;
+            while ((request = mRequests.poll()) == null) {
+                Thread.yield();
+            }
+            return request;
+        }
+
+        /**
+         * Drains a bounded batch of pending requests of this mailbox and
+         * reschedules it on its shard if requests remain, so that other
+         * receivers of the same shard are not starved.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+                    final Request request = take();
+                    try {
+                        process(mReceiverId, mEstimator, request);
+                    } finally {
+                        mQueueDepth.decrementAndGet();
+                        mProcessedCount.incrementAndGet();
+                    }
+                    if (mPending.decrementAndGet() == 0) {
+                        return;
+                    }
+                }
+
+                try {
+                    mShard.execute(this);
+                    return;
+                } catch (final RejectedExecutionException ignore) {
+                    // shard is shutting down, but already submitted requests
+                    // must still be processed, so keep draining on this thread
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates daemon worker threads named after their shard.
+     */
+    private static class ShardThreadFactory implements ThreadFactory {
+
+        /**
+         * Index of shard.
+         */
+        private final int mShardIndex;
+
+        /**
+         * Constructor.
+         *
+         * @param shardIndex index of shard.
+         */
+        ShardThreadFactory(final int shardIndex) {
+            mShardIndex = shardIndex;
+        }
+
+        /**
+         * Creates a new worker thread.
+         *
+         * @param r runnable to be executed.
+         * @return a new thread.
+         */
+        @Override
+        public Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r,
+                    "gnss-kalman-engine-shard-" + mShardIndex);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
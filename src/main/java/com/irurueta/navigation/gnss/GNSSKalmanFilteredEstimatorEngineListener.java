@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.gnss;
+
+/**
+ * Listener defining events of GNSSKalmanFilteredEstimatorEngine.
+ * Events are raised on the worker thread owning the receiver, hence the
+ * provided estimator can be safely inspected during the call, but must not be
+ * retained or accessed from other threads afterwards.
+ *
+ * @param <K> type of receiver identifiers.
+ */
+public interface GNSSKalmanFilteredEstimatorEngineListener<K> {
+
+    /**
+     * Called when a measurements update submitted for a receiver has been
+     * processed.
+     *
+     * @param engine     engine raising the event.
+     * @param receiverId identifier of receiver.
+     * @param estimator  estimator of receiver.
+     * @param updated    true if measurements were updated, false if they were
+     *                   ignored because epoch interval had not elapsed.
+     */
+    void onMeasurementsUpdated(final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                               final K receiverId,
+                               final GNSSKalmanFilteredEstimator estimator,
+                               final boolean updated);
+
+    /**
+     * Called when a propagation submitted for a receiver has been processed.
+     *
+     * @param engine     engine raising the event.
+     * @param receiverId identifier of receiver.
+     * @param estimator  estimator of receiver.
+     * @param propagated true if state was propagated, false if propagation was
+     *                   ignored because epoch interval had not elapsed.
+     */
+    void onPropagated(final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                      final K receiverId,
+                      final GNSSKalmanFilteredEstimator estimator,
+                      final boolean propagated);
+
+    /**
+     * Called when a reset submitted for a receiver has been processed.
+     *
+     * @param engine     engine raising the event.
+     * @param receiverId identifier of receiver.
+     * @param estimator  estimator of receiver.
+     */
+    void onReset(final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                 final K receiverId,
+                 final GNSSKalmanFilteredEstimator estimator);
+
+    /**
+     * Called when a request submitted for a receiver fails.
+     * Failures do not stop processing of further requests of the same receiver.
+     *
+     * @param engine     engine raising the event.
+     * @param receiverId identifier of receiver.
+     * @param estimator  estimator of receiver.
+     * @param e          exception that caused the failure.
+     */
+    void onError(final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                 final K receiverId,
+                 final GNSSKalmanFilteredEstimator estimator,
+                 final Exception e);
+}
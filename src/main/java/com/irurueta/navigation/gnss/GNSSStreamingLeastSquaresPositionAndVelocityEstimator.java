@@ -0,0 +1,875 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.gnss;
+
+import com.irurueta.navigation.frames.converters.ECEFtoNEDPositionVelocityConverter;
+import com.irurueta.navigation.frames.converters.NEDtoECEFPositionVelocityConverter;
+import com.irurueta.navigation.geodesic.Constants;
+import com.irurueta.navigation.inertial.ECEFPosition;
+import com.irurueta.navigation.inertial.ECEFVelocity;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.navigation.inertial.NEDVelocity;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+import java.util.Collection;
+
+/**
+ * Calculates position, velocity, clock offset and clock drift using
+ * unweighted iterated least squares on a stream of GNSS epochs.
+ * Solves the same problem as {@link GNSSLeastSquaresPositionAndVelocityEstimator},
+ * but is intended for receivers processing measurements at a high rate:
+ * - Each epoch is warm-started from the solution of the previous one
+ * (optionally propagated using previous velocity and clock drift), so that
+ * only one or two iterations are typically required on steady-state tracks.
+ * - Satellite buffers are sized to the number of measurements and reused across
+ * epochs, and normal equations are accumulated directly on a 4x4 system, so
+ * that no matrices are allocated per epoch.
+ * - Iterations stop as soon as the state update falls below the convergence
+ * threshold or the maximum number of iterations is reached, and the number of
+ * performed iterations is reported.
+ * - Since satellite positions rotated during signal transit time depend only
+ * on the prior position, they are computed once per epoch. Given the
+ * estimated position, pseudo-range rates are linear on velocity and clock
+ * drift, hence velocity is solved in a single pass.
+ * This class is not thread-safe.
+ */
+public class GNSSStreamingLeastSquaresPositionAndVelocityEstimator {
+
+    /**
+     * Minimum number of measurements required to obtain a solution.
+     */
+    public static final int MIN_MEASUREMENTS =
+            GNSSLeastSquaresPositionAndVelocityEstimator.MIN_MEASUREMENTS;
+
+    /**
+     * Default threshold to determine when convergence has been reached.
+     */
+    public static final double DEFAULT_CONVERGENCE_THRESHOLD =
+            GNSSLeastSquaresPositionAndVelocityEstimator.CONVERGENCE_THRESHOLD;
+
+    /**
+     * Default maximum number of iterations to estimate position and clock offset.
+     */
+    public static final int DEFAULT_MAX_ITERATIONS = 20;
+
+    /**
+     * Speed of light in the vacuum expressed in meters per second (m/s).
+     */
+    public static final double SPEED_OF_LIGHT = Constants.SPEED_OF_LIGHT;
+
+    /**
+     * Earth rotation rate expressed in radians per second (rad/s).
+     */
+    public static final double EARTH_ROTATION_RATE = Constants.EARTH_ROTATION_RATE;
+
+    /**
+     * Number of unknowns (3 coordinates and clock term).
+     */
+    private static final int STATE_COMPONENTS = ECEFPosition.COMPONENTS + 1;
+
+    /**
+     * Relative threshold of Cholesky pivots below which satellite geometry is
+     * considered degenerate.
+     */
+    private static final double SINGULAR_THRESHOLD = 1e-12;
+
+    /**
+     * Threshold to determine when convergence has been reached.
+     */
+    private double mConvergenceThreshold;
+
+    /**
+     * Maximum number of iterations to estimate position and clock offset.
+     */
+    private int mMaxIterations;
+
+    /**
+     * Indicates whether a previous solution is available to warm-start next
+     * epoch.
+     */
+    private boolean mHasPrevious;
+
+    /**
+     * Previous x coordinate of ECEF position expressed in meters (m).
+     */
+    private double mX;
+
+    /**
+     * Previous y coordinate of ECEF position expressed in meters (m).
+     */
+    private double mY;
+
+    /**
+     * Previous z coordinate of ECEF position expressed in meters (m).
+     */
+    private double mZ;
+
+    /**
+     * Previous x coordinate of ECEF velocity expressed in meters per second (m/s).
+     */
+    private double mVx;
+
+    /**
+     * Previous y coordinate of ECEF velocity expressed in meters per second (m/s).
+     */
+    private double mVy;
+
+    /**
+     * Previous z coordinate of ECEF velocity expressed in meters per second (m/s).
+     */
+    private double mVz;
+
+    /**
+     * Previous clock offset expressed in meters (m).
+     */
+    private double mClockOffset;
+
+    /**
+     * Previous clock drift expressed in meters per second (m/s).
+     */
+    private double mClockDrift;
+
+    /**
+     * Number of iterations used to estimate position and clock offset on last
+     * epoch.
+     */
+    private int mLastPositionIterations;
+
+    /**
+     * Number of iterations used to estimate velocity and clock drift on last
+     * epoch.
+     */
+    private int mLastVelocityIterations;
+
+    /**
+     * Indicates whether position converged on last epoch before reaching the
+     * maximum number of iterations.
+     */
+    private boolean mConverged;
+
+    /**
+     * Number of processed epochs.
+     */
+    private long mEpochs;
+
+    /**
+     * Total number of iterations performed on all processed epochs.
+     */
+    private long mTotalIterations;
+
+    /**
+     * Satellite x coordinates.
+     */
+    private double[] mSatX = new double[0];
+
+    /**
+     * Satellite y coordinates.
+     */
+    private double[] mSatY = new double[0];
+
+    /**
+     * Satellite z coordinates.
+     */
+    private double[] mSatZ = new double[0];
+
+    /**
+     * Satellite x velocities.
+     */
+    private double[] mSatVx = new double[0];
+
+    /**
+     * Satellite y velocities.
+     */
+    private double[] mSatVy = new double[0];
+
+    /**
+     * Satellite z velocities.
+     */
+    private double[] mSatVz = new double[0];
+
+    /**
+     * Measured pseudo-ranges.
+     */
+    private double[] mPseudoRanges = new double[0];
+
+    /**
+     * Measured pseudo-range rates.
+     */
+    private double[] mPseudoRates = new double[0];
+
+    /**
+     * Satellite x coordinates rotated during signal transit time.
+     */
+    private double[] mRotatedX = new double[0];
+
+    /**
+     * Satellite y coordinates rotated during signal transit time.
+     */
+    private double[] mRotatedY = new double[0];
+
+    /**
+     * Normal matrix H'*H stored in row-major order.
+     */
+    private final double[] mNormal = new double[STATE_COMPONENTS * STATE_COMPONENTS];
+
+    /**
+     * Right hand side H'*dz of normal equations, overwritten with the solution.
+     */
+    private final double[] mRhs = new double[STATE_COMPONENTS];
+
+    /**
+     * NED position used to initialize prior position on first epoch.
+     */
+    private final NEDPosition mNedPosition = new NEDPosition();
+
+    /**
+     * NED velocity used to initialize prior position on first epoch.
+     */
+    private final NEDVelocity mNedVelocity = new NEDVelocity();
+
+    /**
+     * ECEF position used to initialize prior position on first epoch.
+     */
+    private final ECEFPosition mEcefPosition = new ECEFPosition();
+
+    /**
+     * ECEF velocity used to initialize prior position on first epoch.
+     */
+    private final ECEFVelocity mEcefVelocity = new ECEFVelocity();
+
+    /**
+     * Constructor.
+     */
+    public GNSSStreamingLeastSquaresPositionAndVelocityEstimator() {
+        this(DEFAULT_CONVERGENCE_THRESHOLD, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param convergenceThreshold threshold to determine when convergence has
+     *                             been reached.
+     * @throws IllegalArgumentException if provided threshold is zero or negative.
+     */
+    public GNSSStreamingLeastSquaresPositionAndVelocityEstimator(
+            final double convergenceThreshold) {
+        this(convergenceThreshold, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param convergenceThreshold threshold to determine when convergence has
+     *                             been reached.
+     * @param maxIterations        maximum number of iterations to estimate
+     *                             position and clock offset.
+     * @throws IllegalArgumentException if provided threshold is zero or negative
+     *                                  or maximum number of iterations is less
+     *                                  than 1.
+     */
+    public GNSSStreamingLeastSquaresPositionAndVelocityEstimator(
+            final double convergenceThreshold, final int maxIterations) {
+        setConvergenceThreshold(convergenceThreshold);
+        setMaxIterations(maxIterations);
+    }
+
+    /**
+     * Gets threshold to determine when convergence has been reached.
+     *
+     * @return threshold to determine when convergence has been reached.
+     */
+    public double getConvergenceThreshold() {
+        return mConvergenceThreshold;
+    }
+
+    /**
+     * Sets threshold to determine when convergence has been reached.
+     *
+     * @param convergenceThreshold threshold to determine when convergence has
+     *                             been reached.
+     * @throws IllegalArgumentException if provided threshold is zero or negative.
+     */
+    public void setConvergenceThreshold(final double convergenceThreshold) {
+        if (convergenceThreshold <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+
+        mConvergenceThreshold = convergenceThreshold;
+    }
+
+    /**
+     * Gets maximum number of iterations to estimate position and clock offset.
+     *
+     * @return maximum number of iterations.
+     */
+    public int getMaxIterations() {
+        return mMaxIterations;
+    }
+
+    /**
+     * Sets maximum number of iterations to estimate position and clock offset.
+     *
+     * @param maxIterations maximum number of iterations.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setMaxIterations(final int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mMaxIterations = maxIterations;
+    }
+
+    /**
+     * Indicates whether a previous solution is available to warm-start next
+     * epoch.
+     *
+     * @return true if a previous solution is available, false otherwise.
+     */
+    public boolean hasPreviousEstimation() {
+        return mHasPrevious;
+    }
+
+    /**
+     * Gets previous solution used to warm-start next epoch.
+     *
+     * @param result instance where previous solution will be stored.
+     * @return true if result was updated, false if no previous solution is
+     * available.
+     */
+    public boolean getPreviousEstimation(final GNSSEstimation result) {
+        if (!mHasPrevious) {
+            return false;
+        }
+
+        result.setPositionCoordinates(mX, mY, mZ);
+        result.setVelocityCoordinates(mVx, mVy, mVz);
+        result.setClockOffset(mClockOffset);
+        result.setClockDrift(mClockDrift);
+        return true;
+    }
+
+    /**
+     * Sets solution to warm-start next epoch (e.g. obtained from a Kalman
+     * filter or from a previous session).
+     *
+     * @param previousEstimation solution to warm-start next epoch or null to
+     *                           cold-start.
+     */
+    public void setPreviousEstimation(final GNSSEstimation previousEstimation) {
+        if (previousEstimation == null) {
+            mHasPrevious = false;
+            return;
+        }
+
+        mX = previousEstimation.getX();
+        mY = previousEstimation.getY();
+        mZ = previousEstimation.getZ();
+        mVx = previousEstimation.getVx();
+        mVy = previousEstimation.getVy();
+        mVz = previousEstimation.getVz();
+        mClockOffset = previousEstimation.getClockOffset();
+        mClockDrift = previousEstimation.getClockDrift();
+        mHasPrevious = true;
+    }
+
+    /**
+     * Gets number of satellites that internal buffers can hold without being
+     * resized.
+     *
+     * @return capacity of internal buffers.
+     */
+    public int getCapacity() {
+        return mSatX.length;
+    }
+
+    /**
+     * Gets number of iterations used to estimate position and clock offset on
+     * last epoch.
+     *
+     * @return number of iterations.
+     */
+    public int getLastPositionIterations() {
+        return mLastPositionIterations;
+    }
+
+    /**
+     * Gets number of iterations used to estimate velocity and clock drift on
+     * last epoch.
+     *
+     * @return number of iterations.
+     */
+    public int getLastVelocityIterations() {
+        return mLastVelocityIterations;
+    }
+
+    /**
+     * Indicates whether position converged on last epoch before reaching the
+     * maximum number of iterations.
+     *
+     * @return true if last epoch converged, false otherwise.
+     */
+    public boolean hasConverged() {
+        return mConverged;
+    }
+
+    /**
+     * Gets number of processed epochs since this estimator was created or
+     * reset.
+     *
+     * @return number of processed epochs.
+     */
+    public long getEpochs() {
+        return mEpochs;
+    }
+
+    /**
+     * Gets total number of iterations (both for position and velocity)
+     * performed since this estimator was created or reset.
+     *
+     * @return total number of iterations.
+     */
+    public long getTotalIterations() {
+        return mTotalIterations;
+    }
+
+    /**
+     * Gets average number of iterations (both for position and velocity) per
+     * processed epoch.
+     *
+     * @return average number of iterations per epoch or 0 if no epoch has been
+     * processed.
+     */
+    public double getAverageIterations() {
+        return mEpochs > 0 ? (double) mTotalIterations / (double) mEpochs : 0.0;
+    }
+
+    /**
+     * Discards previous solution and iteration statistics, so that next epoch
+     * is cold-started.
+     */
+    public void reset() {
+        mHasPrevious = false;
+        mLastPositionIterations = 0;
+        mLastVelocityIterations = 0;
+        mConverged = false;
+        mEpochs = 0;
+        mTotalIterations = 0;
+    }
+
+    /**
+     * Estimates ECEF user position and velocity as well as clock offset and
+     * drift for a new epoch, warm-starting from previous solution without
+     * propagating it.
+     *
+     * @param measurements GNSS measurements of current epoch.
+     * @param result       instance where result data will be stored.
+     * @throws IllegalArgumentException if less than 4 measurements are provided.
+     * @throws GNSSException            if estimation fails due to numerical
+     *                                  instabilities.
+     */
+    public void estimate(final Collection<GNSSMeasurement> measurements,
+                         final GNSSEstimation result) throws GNSSException {
+        estimate(measurements, 0.0, result);
+    }
+
+    /**
+     * Estimates ECEF user position and velocity as well as clock offset and
+     * drift for a new epoch, warm-starting from previous solution propagated
+     * by provided time interval.
+     *
+     * @param measurements GNSS measurements of current epoch.
+     * @param timeInterval time interval since previous epoch.
+     * @param result       instance where result data will be stored.
+     * @throws IllegalArgumentException if less than 4 measurements are provided.
+     * @throws GNSSException            if estimation fails due to numerical
+     *                                  instabilities.
+     */
+    public void estimate(final Collection<GNSSMeasurement> measurements,
+                         final Time timeInterval,
+                         final GNSSEstimation result) throws GNSSException {
+        estimate(measurements, TimeConverter.convert(
+                timeInterval.getValue().doubleValue(), timeInterval.getUnit(),
+                TimeUnit.SECOND), result);
+    }
+
+    /**
+     * Estimates ECEF user position and velocity as well as clock offset and
+     * drift for a new epoch, warm-starting from previous solution propagated
+     * by provided time interval.
+     * If no previous solution is available, user is assumed to be located at
+     * the average latitude and longitude of all satellites, at Earth's surface
+     * and with zero velocity, as in
+     * {@link GNSSLeastSquaresPositionAndVelocityEstimator}.
+     *
+     * @param measurements GNSS measurements of current epoch.
+     * @param timeInterval time interval since previous epoch expressed in
+     *                     seconds (s).
+     * @param result       instance where result data will be stored.
+     * @throws IllegalArgumentException if less than 4 measurements are provided.
+     * @throws GNSSException            if estimation fails due to numerical
+     *                                  instabilities.
+     */
+    public void estimate(final Collection<GNSSMeasurement> measurements,
+                         final double timeInterval,
+                         final GNSSEstimation result) throws GNSSException {
+        if (!GNSSLeastSquaresPositionAndVelocityEstimator
+                .isValidMeasurements(measurements)) {
+            throw new IllegalArgumentException();
+        }
+
+        final int n = measurements.size();
+        ensureCapacity(n);
+
+        int j = 0;
+        for (final GNSSMeasurement measurement : measurements) {
+            mSatX[j] = measurement.getX();
+            mSatY[j] = measurement.getY();
+            mSatZ[j] = measurement.getZ();
+            mSatVx[j] = measurement.getVx();
+            mSatVy[j] = measurement.getVy();
+            mSatVz[j] = measurement.getVz();
+            mPseudoRanges[j] = measurement.getPseudoRange();
+            mPseudoRates[j] = measurement.getPseudoRate();
+            j++;
+        }
+
+        // Setup predicted state
+        final double priorX;
+        final double priorY;
+        final double priorZ;
+        final double priorClockOffset;
+        final double priorVx;
+        final double priorVy;
+        final double priorVz;
+        final double priorClockDrift;
+        if (mHasPrevious) {
+            priorX = mX + mVx * timeInterval;
+            priorY = mY + mVy * timeInterval;
+            priorZ = mZ + mVz * timeInterval;
+            priorClockOffset = mClockOffset + mClockDrift * timeInterval;
+            priorVx = mVx;
+            priorVy = mVy;
+            priorVz = mVz;
+            priorClockDrift = mClockDrift;
+        } else {
+            initializePriorPosition(n);
+            priorX = mEcefPosition.getX();
+            priorY = mEcefPosition.getY();
+            priorZ = mEcefPosition.getZ();
+            priorClockOffset = 0.0;
+            priorVx = 0.0;
+            priorVy = 0.0;
+            priorVz = 0.0;
+            priorClockDrift = 0.0;
+        }
+
+        // POSITION AND CLOCK OFFSET
+
+        // Calculate frame rotation during signal transit time using (8.36),
+        // which only depends on prior position
+        for (int i = 0; i < n; i++) {
+            final double approxRange = norm(mSatX[i] - priorX,
+                    mSatY[i] - priorY, mSatZ[i] - priorZ);
+            final double cei = EARTH_ROTATION_RATE * approxRange / SPEED_OF_LIGHT;
+            mRotatedX[i] = mSatX[i] + cei * mSatY[i];
+            mRotatedY[i] = mSatY[i] - cei * mSatX[i];
+        }
+
+        double x = priorX;
+        double y = priorY;
+        double z = priorZ;
+        double clockOffset = priorClockOffset;
+
+        int iterations = 0;
+        boolean converged = false;
+        while (!converged && iterations < mMaxIterations) {
+            clearNormalEquations();
+
+            for (int i = 0; i < n; i++) {
+                // Predict pseudo-range using (9.143)
+                final double deltaRx = mRotatedX[i] - x;
+                final double deltaRy = mRotatedY[i] - y;
+                final double deltaRz = mSatZ[i] - z;
+                final double range = norm(deltaRx, deltaRy, deltaRz);
+
+                final double deltaPseudoRange = mPseudoRanges[i]
+                        - (range + clockOffset);
+
+                // Predict line of sight and deploy in measurement matrix, (9.144)
+                accumulate(-deltaRx / range, -deltaRy / range,
+                        -deltaRz / range, deltaPseudoRange);
+            }
+
+            // Unweighted least-squares solution, (9.35)/(9.141)
+            solveNormalEquations();
+
+            x += mRhs[0];
+            y += mRhs[1];
+            z += mRhs[2];
+            clockOffset += mRhs[3];
+            iterations++;
+
+            // Test convergence
+            converged = norm(mRhs[0], mRhs[1], mRhs[2], mRhs[3])
+                    <= mConvergenceThreshold;
+        }
+
+        mLastPositionIterations = iterations;
+        mConverged = converged;
+
+        // VELOCITY AND CLOCK DRIFT
+
+        // omega_ie * r_user
+        final double omegaUserX = -EARTH_ROTATION_RATE * y;
+        final double omegaUserY = EARTH_ROTATION_RATE * x;
+
+        clearNormalEquations();
+        for (int i = 0; i < n; i++) {
+            final double satX = mSatX[i];
+            final double satY = mSatY[i];
+            final double satZ = mSatZ[i];
+
+            // Calculate frame rotation during signal transit time using (8.36)
+            final double approxRange = norm(satX - x, satY - y, satZ - z);
+            final double cei = EARTH_ROTATION_RATE * approxRange / SPEED_OF_LIGHT;
+
+            // Calculate range using (8.35)
+            final double deltaRx = satX + cei * satY - x;
+            final double deltaRy = satY - cei * satX - y;
+            final double deltaRz = satZ - z;
+            final double range = norm(deltaRx, deltaRy, deltaRz);
+
+            // Calculate line of sight using (8.41)
+            final double uaseX = deltaRx / range;
+            final double uaseY = deltaRy / range;
+            final double uaseZ = deltaRz / range;
+
+            // Predict pseudo-range rate using (9.143)
+            final double satOmegaVx = mSatVx[i] - EARTH_ROTATION_RATE * satY;
+            final double satOmegaVy = mSatVy[i] + EARTH_ROTATION_RATE * satX;
+            final double satOmegaVz = mSatVz[i];
+
+            final double diffX = satOmegaVx + cei * satOmegaVy
+                    - (priorVx + omegaUserX);
+            final double diffY = satOmegaVy - cei * satOmegaVx
+                    - (priorVy + omegaUserY);
+            final double diffZ = satOmegaVz - priorVz;
+
+            final double rangeRate = uaseX * diffX + uaseY * diffY + uaseZ * diffZ;
+
+            final double deltaPseudoRangeRate = mPseudoRates[i]
+                    - (rangeRate + priorClockDrift);
+
+            // Predict line of sight and deploy in measurement matrix, (9.144)
+            accumulate(-uaseX, -uaseY, -uaseZ, deltaPseudoRangeRate);
+        }
+
+        // Unweighted least-squares solution, (9.35)/(9.141), which is exact
+        // after a single pass because the model is linear on velocity
+        solveNormalEquations();
+
+        final double vx = priorVx + mRhs[0];
+        final double vy = priorVy + mRhs[1];
+        final double vz = priorVz + mRhs[2];
+        final double clockDrift = priorClockDrift + mRhs[3];
+
+        mLastVelocityIterations = 1;
+
+        mEpochs++;
+        mTotalIterations += mLastPositionIterations + mLastVelocityIterations;
+
+        // keep solution to warm-start next epoch
+        mX = x;
+        mY = y;
+        mZ = z;
+        mVx = vx;
+        mVy = vy;
+        mVz = vz;
+        mClockOffset = clockOffset;
+        mClockDrift = clockDrift;
+        mHasPrevious = true;
+
+        // Set outputs to estimates
+        result.setPositionCoordinates(x, y, z);
+        result.setClockOffset(clockOffset);
+        result.setVelocityCoordinates(vx, vy, vz);
+        result.setClockDrift(clockDrift);
+    }
+
+    /**
+     * Grows internal buffers if needed to hold provided number of satellites.
+     *
+     * @param n number of satellites.
+     */
+    private void ensureCapacity(final int n) {
+        if (mSatX.length >= n) {
+            return;
+        }
+
+        mSatX = new double[n];
+        mSatY = new double[n];
+        mSatZ = new double[n];
+        mSatVx = new double[n];
+        mSatVy = new double[n];
+        mSatVz = new double[n];
+        mPseudoRanges = new double[n];
+        mPseudoRates = new double[n];
+        mRotatedX = new double[n];
+        mRotatedY = new double[n];
+    }
+
+    /**
+     * Initializes prior position assuming that user is located at the average
+     * latitude and longitude of all buffered satellite positions, at Earth's
+     * surface (height = 0).
+     * Result is stored into ECEF position workspace.
+     *
+     * @param n number of buffered satellites.
+     */
+    private void initializePriorPosition(final int n) {
+        double userLatitude = 0.0;
+        double userLongitude = 0.0;
+        for (int i = 0; i < n; i++) {
+            ECEFtoNEDPositionVelocityConverter.convertECEFtoNED(
+                    mSatX[i], mSatY[i], mSatZ[i], mSatVx[i], mSatVy[i], mSatVz[i],
+                    mNedPosition, mNedVelocity);
+
+            userLatitude += mNedPosition.getLatitude() / n;
+            userLongitude += mNedPosition.getLongitude() / n;
+        }
+
+        NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                userLatitude, userLongitude, 0.0, 0.0, 0.0, 0.0,
+                mEcefPosition, mEcefVelocity);
+    }
+
+    /**
+     * Resets normal equations.
+     */
+    private void clearNormalEquations() {
+        for (int i = 0; i < mNormal.length; i++) {
+            mNormal[i] = 0.0;
+        }
+        for (int i = 0; i < STATE_COMPONENTS; i++) {
+            mRhs[i] = 0.0;
+        }
+    }
+
+    /**
+     * Adds a measurement row h = [hx, hy, hz, 1] with provided residual to the
+     * upper triangle of normal equations.
+     *
+     * @param hx       x coordinate of line of sight term.
+     * @param hy       y coordinate of line of sight term.
+     * @param hz       z coordinate of line of sight term.
+     * @param residual measurement residual.
+     */
+    private void accumulate(final double hx, final double hy, final double hz,
+                            final double residual) {
+        mNormal[0] += hx * hx;
+        mNormal[1] += hx * hy;
+        mNormal[2] += hx * hz;
+        mNormal[3] += hx;
+        mNormal[5] += hy * hy;
+        mNormal[6] += hy * hz;
+        mNormal[7] += hy;
+        mNormal[10] += hz * hz;
+        mNormal[11] += hz;
+        mNormal[15] += 1.0;
+
+        mRhs[0] += hx * residual;
+        mRhs[1] += hy * residual;
+        mRhs[2] += hz * residual;
+        mRhs[3] += residual;
+    }
+
+    /**
+     * Solves normal equations in place using a Cholesky decomposition of the
+     * upper triangle of the normal matrix.
+     * Solution is stored in right hand side buffer.
+     *
+     * @throws GNSSException if satellite geometry is degenerate.
+     */
+    private void solveNormalEquations() throws GNSSException {
+        final double[] a = mNormal;
+        final double[] b = mRhs;
+
+        // Factorize as U'*U, storing U in the upper triangle
+        for (int i = 0; i < STATE_COMPONENTS; i++) {
+            for (int k = i; k < STATE_COMPONENTS; k++) {
+                double sum = a[i * STATE_COMPONENTS + k];
+                for (int l = 0; l < i; l++) {
+                    sum -= a[l * STATE_COMPONENTS + i] * a[l * STATE_COMPONENTS + k];
+                }
+                if (k == i) {
+                    if (!(sum > SINGULAR_THRESHOLD * a[i * STATE_COMPONENTS + i])) {
+                        throw new GNSSException();
+                    }
+                    a[i * STATE_COMPONENTS + i] = Math.sqrt(sum);
+                } else {
+                    a[i * STATE_COMPONENTS + k] = sum / a[i * STATE_COMPONENTS + i];
+                }
+            }
+        }
+
+        // Forward substitution U'*y = b
+        for (int i = 0; i < STATE_COMPONENTS; i++) {
+            double sum = b[i];
+            for (int l = 0; l < i; l++) {
+                sum -= a[l * STATE_COMPONENTS + i] * b[l];
+            }
+            b[i] = sum / a[i * STATE_COMPONENTS + i];
+        }
+
+        // Backward substitution U*x = y
+        for (int i = STATE_COMPONENTS - 1; i >= 0; i--) {
+            double sum = b[i];
+            for (int l = i + 1; l < STATE_COMPONENTS; l++) {
+                sum -= a[i * STATE_COMPONENTS + l] * b[l];
+            }
+            b[i] = sum / a[i * STATE_COMPONENTS + i];
+        }
+    }
+
+    /**
+     * Computes norm of provided coordinates.
+     *
+     * @param x x coordinate.
+     * @param y y coordinate.
+     * @param z z coordinate.
+     * @return computed norm.
+     */
+    private static double norm(final double x, final double y, final double z) {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+
+    /**
+     * Computes norm of provided 4 components.
+     *
+     * @param x x coordinate.
+     * @param y y coordinate.
+     * @param z z coordinate.
+     * @param w clock term.
+     * @return computed norm.
+     */
+    private static double norm(final double x, final double y, final double z,
+                               final double w) {
+        return Math.sqrt(x * x + y * y + z * z + w * w);
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.Point;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Estimates positions of a batch of fingerprints using the Weighted k-Nearest
+ * Neighbours (WkNN) algorithm.
+ * For each fingerprint, the k-nearest fingerprints are found on a
+ * {@link CompiledRadioMap} and their positions are averaged using the inverse of
+ * their signal euclidean distances as weights, as
+ * {@link WeightedKNearestNeighboursPositionSolver} does.
+ * Estimated coordinates and accuracies are stored into primitive arrays, so that no
+ * solver, list or {@link Point} instances are created per fingerprint. Buffers
+ * required to find nearest fingerprints are created once per range of fingerprints
+ * being processed on a thread and reused for all fingerprints within such range.
+ * Ranges of fingerprints can optionally be split across a {@link ForkJoinPool}.
+ *
+ * @param <P> a {@link Point} type.
+ * @param <S> a {@link RadioSource} type.
+ */
+public abstract class BatchWeightedKNearestNeighboursPositionSolver<P extends Point<?>,
+        S extends RadioSource> {
+
+    /**
+     * Default minimum allowed distance between received signal fingerprints.
+     */
+    public static final double DEFAULT_EPSILON =
+            WeightedKNearestNeighboursPositionSolver.DEFAULT_EPSILON;
+
+    /**
+     * Default minimum number of fingerprints processed by each task when splitting a
+     * batch across a fork-join pool.
+     */
+    public static final int DEFAULT_MIN_FINGERPRINTS_PER_TASK = 64;
+
+    /**
+     * Radio map where nearest fingerprints are searched.
+     */
+    private final CompiledRadioMap<P, S> mRadioMap;
+
+    /**
+     * Number of nearest fingerprints to average.
+     */
+    private final int mK;
+
+    /**
+     * Fork-join pool to split batches into. If not provided, batches are processed
+     * on the calling thread.
+     */
+    private final ForkJoinPool mPool;
+
+    /**
+     * Number of dimensions of location points.
+     */
+    private final int mDims;
+
+    /**
+     * Inhomogeneous coordinates of radio map fingerprint positions, stored
+     * consecutively for each fingerprint.
+     */
+    private final double[] mPositions;
+
+    /**
+     * Minimum number of fingerprints processed by each task when splitting a batch
+     * across a fork-join pool.
+     */
+    private int mMinFingerprintsPerTask = DEFAULT_MIN_FINGERPRINTS_PER_TASK;
+
+    /**
+     * Minimum allowed distance between received signal fingerprints.
+     */
+    private double mEpsilon = DEFAULT_EPSILON;
+
+    /**
+     * Constructor.
+     *
+     * @param radioMap radio map where nearest fingerprints are searched.
+     * @param k        number of nearest fingerprints to average.
+     * @param pool     fork-join pool where ranges of fingerprints will be processed.
+     *                 If null, batches will be processed on the calling thread.
+     * @param dims     number of dimensions of location points.
+     * @throws IllegalArgumentException if radio map is null or k is less than 1.
+     */
+    protected BatchWeightedKNearestNeighboursPositionSolver(
+            final CompiledRadioMap<P, S> radioMap, final int k,
+            final ForkJoinPool pool, final int dims) {
+        if (radioMap == null || k < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mRadioMap = radioMap;
+        mK = k;
+        mPool = pool;
+        mDims = dims;
+
+        final List<RssiFingerprintLocated<S, RssiReading<S>, P>> fingerprints =
+                radioMap.getFingerprints();
+        final int num = fingerprints.size();
+        mPositions = new double[num * dims];
+        for (int i = 0; i < num; i++) {
+            final P p = fingerprints.get(i).getPosition();
+            for (int j = 0; j < dims; j++) {
+                mPositions[i * dims + j] = p.getInhomogeneousCoordinate(j);
+            }
+        }
+    }
+
+    /**
+     * Gets radio map where nearest fingerprints are searched.
+     *
+     * @return radio map where nearest fingerprints are searched.
+     */
+    public CompiledRadioMap<P, S> getRadioMap() {
+        return mRadioMap;
+    }
+
+    /**
+     * Gets number of nearest fingerprints to average.
+     *
+     * @return number of nearest fingerprints to average.
+     */
+    public int getK() {
+        return mK;
+    }
+
+    /**
+     * Gets fork-join pool where ranges of fingerprints are processed, if provided.
+     *
+     * @return fork-join pool or null if batches are processed on the calling thread.
+     */
+    public ForkJoinPool getPool() {
+        return mPool;
+    }
+
+    /**
+     * Gets minimum number of fingerprints processed by each task when splitting a
+     * batch across a fork-join pool.
+     *
+     * @return minimum number of fingerprints per task.
+     */
+    public int getMinFingerprintsPerTask() {
+        return mMinFingerprintsPerTask;
+    }
+
+    /**
+     * Sets minimum number of fingerprints processed by each task when splitting a
+     * batch across a fork-join pool.
+     *
+     * @param minFingerprintsPerTask minimum number of fingerprints per task.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setMinFingerprintsPerTask(final int minFingerprintsPerTask) {
+        if (minFingerprintsPerTask < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mMinFingerprintsPerTask = minFingerprintsPerTask;
+    }
+
+    /**
+     * Gets minimum allowed distance between signal fingerprints.
+     *
+     * @return minimum allowed distance between signal fingerprints.
+     */
+    public double getEpsilon() {
+        return mEpsilon;
+    }
+
+    /**
+     * Sets minimum allowed distance between signal fingerprints.
+     *
+     * @param epsilon minimum allowed distance between signal fingerprints.
+     * @throws IllegalArgumentException if provided value is zero or negative.
+     */
+    public void setEpsilon(final double epsilon) {
+        if (epsilon <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+
+        mEpsilon = epsilon;
+    }
+
+    /**
+     * Gets number of dimensions of location points.
+     *
+     * @return number of dimensions of location points.
+     */
+    public int getNumberOfDimensions() {
+        return mDims;
+    }
+
+    /**
+     * Estimates positions of provided fingerprints.
+     * If radio map contains no fingerprints, estimated coordinates and accuracies
+     * are set to NaN.
+     *
+     * @param fingerprints fingerprints whose positions will be estimated.
+     * @param coordinates  arrays where each estimated coordinate will be stored.
+     *                     Must contain one array per dimension, each having at least
+     *                     as many elements as fingerprints.
+     * @param accuracies   array where estimated accuracies will be stored. Must have at
+     *                     least as many elements as fingerprints.
+     * @throws IllegalArgumentException if any parameter or fingerprint is null or
+     *                                  arrays are too short.
+     */
+    protected void internalSolve(
+            final List<? extends RssiFingerprint<S, RssiReading<S>>> fingerprints,
+            final double[][] coordinates, final double[] accuracies) {
+        if (fingerprints == null || accuracies == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final int num = fingerprints.size();
+        for (final double[] c : coordinates) {
+            if (c == null || c.length < num) {
+                throw new IllegalArgumentException();
+            }
+        }
+        if (accuracies.length < num) {
+            throw new IllegalArgumentException();
+        }
+        for (final RssiFingerprint<S, RssiReading<S>> fingerprint : fingerprints) {
+            if (fingerprint == null) {
+                throw new IllegalArgumentException();
+            }
+        }
+
+        if (mPool == null || num <= mMinFingerprintsPerTask) {
+            solveRange(fingerprints, coordinates, accuracies, 0, num);
+        } else {
+            mPool.invoke(new SolveTask(fingerprints, coordinates, accuracies, 0, num,
+                    mMinFingerprintsPerTask));
+        }
+    }
+
+    /**
+     * Estimates positions of a range of fingerprints on the calling thread.
+     *
+     * @param fingerprints fingerprints whose positions will be estimated.
+     * @param coordinates  arrays where each estimated coordinate will be stored.
+     * @param accuracies   array where estimated accuracies will be stored.
+     * @param fromIndex    index of first fingerprint to be processed (inclusive).
+     * @param toIndex      index of last fingerprint to be processed (exclusive).
+     */
+    private void solveRange(
+            final List<? extends RssiFingerprint<S, RssiReading<S>>> fingerprints,
+            final double[][] coordinates, final double[] accuracies,
+            final int fromIndex, final int toIndex) {
+        final CompiledRadioMap<P, S>.Query query = mRadioMap.createQuery();
+        final int maxSize = Math.min(mK, mRadioMap.getNumberOfFingerprints());
+        final int[] nearest = new int[maxSize];
+        final double[] sqrDistances = new double[maxSize];
+        final double[] weights = new double[maxSize];
+        final double[] coords = new double[mDims];
+
+        for (int i = fromIndex; i < toIndex; i++) {
+            final int num = mRadioMap.findKNearestTo(query, fingerprints.get(i), mK,
+                    nearest, sqrDistances);
+
+            if (num == 0) {
+                for (int j = 0; j < mDims; j++) {
+                    coordinates[j][i] = Double.NaN;
+                }
+                accuracies[i] = Double.NaN;
+                continue;
+            }
+
+            if (num == 1) {
+                //only one fingerprint available
+                final int offset = nearest[0] * mDims;
+                for (int j = 0; j < mDims; j++) {
+                    coordinates[j][i] = mPositions[offset + j];
+                }
+                accuracies[i] = 0.0;
+                continue;
+            }
+
+            //weighted average and weight summation
+            for (int j = 0; j < mDims; j++) {
+                coords[j] = 0.0;
+            }
+            double sum = 0.0;
+            for (int n = 0; n < num; n++) {
+                double distance = Math.sqrt(sqrDistances[n]);
+                if (distance < mEpsilon) {
+                    distance = mEpsilon;
+                }
+                final double w = 1.0 / distance;
+                weights[n] = w;
+                sum += w;
+
+                final int offset = nearest[n] * mDims;
+                for (int j = 0; j < mDims; j++) {
+                    coords[j] += w * mPositions[offset + j];
+                }
+            }
+
+            //normalize by weight summation
+            if (sum != 0.0) {
+                for (int j = 0; j < mDims; j++) {
+                    coords[j] /= sum;
+                }
+            }
+
+            //accuracy as weighted root mean square distance of nearest fingerprint
+            //positions to estimated position
+            double sqrSpread = 0.0;
+            for (int n = 0; n < num; n++) {
+                final int offset = nearest[n] * mDims;
+                double sqrDist = 0.0;
+                for (int j = 0; j < mDims; j++) {
+                    final double diff = mPositions[offset + j] - coords[j];
+                    sqrDist += diff * diff;
+                }
+                sqrSpread += weights[n] * sqrDist;
+            }
+
+            for (int j = 0; j < mDims; j++) {
+                coordinates[j][i] = coords[j];
+            }
+            accuracies[i] = sum != 0.0 ? Math.sqrt(sqrSpread / sum) : 0.0;
+        }
+    }
+
+    /**
+     * Task to estimate positions of a range of fingerprints, which is split into
+     * halves until ranges are small enough.
+     */
+    private class SolveTask extends RecursiveAction {
+
+        /**
+         * Fingerprints whose positions will be estimated.
+         */
+        private final List<? extends RssiFingerprint<S, RssiReading<S>>> mFingerprints;
+
+        /**
+         * Arrays where each estimated coordinate will be stored.
+         */
+        private final double[][] mCoordinates;
+
+        /**
+         * Array where estimated accuracies will be stored.
+         */
+        private final double[] mAccuracies;
+
+        /**
+         * Index of first fingerprint to be processed (inclusive).
+         */
+        private final int mFromIndex;
+
+        /**
+         * Index of last fingerprint to be processed (exclusive).
+         */
+        private final int mToIndex;
+
+        /**
+         * Minimum number of fingerprints processed by each task.
+         */
+        private final int mMinPerTask;
+
+        /**
+         * Constructor.
+         *
+         * @param fingerprints fingerprints whose positions will be estimated.
+         * @param coordinates  arrays where each estimated coordinate will be stored.
+         * @param accuracies   array where estimated accuracies will be stored.
+         * @param fromIndex    index of first fingerprint to be processed (inclusive).
+         * @param toIndex      index of last fingerprint to be processed (exclusive).
+         * @param minPerTask   minimum number of fingerprints processed by each task.
+         */
+        SolveTask(final List<? extends RssiFingerprint<S, RssiReading<S>>> fingerprints,
+                  final double[][] coordinates, final double[] accuracies,
+                  final int fromIndex, final int toIndex, final int minPerTask) {
+            mFingerprints = fingerprints;
+            mCoordinates = coordinates;
+            mAccuracies = accuracies;
+            mFromIndex = fromIndex;
+            mToIndex = toIndex;
+            mMinPerTask = minPerTask;
+        }
+
+        /**
+         * Solves range of fingerprints or splits it into two halves.
+         */
+        @Override
+        protected void compute() {
+            if (mToIndex - mFromIndex <= mMinPerTask) {
+                solveRange(mFingerprints, mCoordinates, mAccuracies, mFromIndex,
+                        mToIndex);
+            } else {
+                final int middle = (mFromIndex + mToIndex) >>> 1;
+                invokeAll(new SolveTask(mFingerprints, mCoordinates, mAccuracies,
+                                mFromIndex, middle, mMinPerTask),
+                        new SolveTask(mFingerprints, mCoordinates, mAccuracies,
+                                middle, mToIndex, mMinPerTask));
+            }
+        }
+    }
+}
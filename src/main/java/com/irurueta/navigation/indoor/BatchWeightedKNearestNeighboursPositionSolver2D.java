@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.Point2D;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Estimates 2D positions of a batch of fingerprints using the Weighted k-Nearest
+ * Neighbours (WkNN) algorithm.
+ *
+ * @param <S> a {@link RadioSource} type.
+ */
+public class BatchWeightedKNearestNeighboursPositionSolver2D<S extends RadioSource> extends
+        BatchWeightedKNearestNeighboursPositionSolver<Point2D, S> {
+
+    /**
+     * Constructor.
+     * Batches will be processed on the calling thread.
+     *
+     * @param radioMap radio map where nearest fingerprints are searched.
+     * @param k        number of nearest fingerprints to average.
+     * @throws IllegalArgumentException if radio map is null or k is less than 1.
+     */
+    public BatchWeightedKNearestNeighboursPositionSolver2D(
+            final CompiledRadioMap<Point2D, S> radioMap, final int k) {
+        this(radioMap, k, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param radioMap radio map where nearest fingerprints are searched.
+     * @param k        number of nearest fingerprints to average.
+     * @param pool     fork-join pool where ranges of fingerprints will be processed.
+     *                 If null, batches will be processed on the calling thread.
+     * @throws IllegalArgumentException if radio map is null or k is less than 1.
+     */
+    public BatchWeightedKNearestNeighboursPositionSolver2D(
+            final CompiledRadioMap<Point2D, S> radioMap, final int k,
+            final ForkJoinPool pool) {
+        super(radioMap, k, pool, Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH);
+    }
+
+    /**
+     * Estimates positions of provided fingerprints.
+     * Accuracy of each estimated position is the weighted root mean square distance
+     * between positions of nearest fingerprints and the estimated position.
+     * If radio map contains no fingerprints, estimated coordinates and accuracies
+     * are set to NaN.
+     *
+     * @param fingerprints fingerprints whose positions will be estimated.
+     * @param x            array where estimated x coordinates will be stored.
+     * @param y            array where estimated y coordinates will be stored.
+     * @param accuracies   array where estimated accuracies will be stored.
+     * @throws IllegalArgumentException if any parameter or fingerprint is null or
+     *                                  any array is shorter than the number of
+     *                                  fingerprints.
+     */
+    public void solve(final List<? extends RssiFingerprint<S, RssiReading<S>>> fingerprints,
+                      final double[] x, final double[] y, final double[] accuracies) {
+        internalSolve(fingerprints, new double[][]{x, y}, accuracies);
+    }
+}
@@ -0,0 +1,826 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable radio map compiled from a collection of located RSSI fingerprints to
+ * efficiently find k-nearest fingerprints based on their signal euclidean distances
+ * (not their actual location).
+ * Radio sources are interned to integer ids and readings of each fingerprint are
+ * stored as contiguous primitive arrays. An inverted index keeps, for each radio
+ * source, the fingerprints containing readings of such source, so that only
+ * fingerprints sharing at least one radio source with a query are scored, and
+ * scoring of a fingerprint stops as soon as its partial distance exceeds the
+ * farthest of the k-nearest fingerprints found so far.
+ * Found fingerprints and distances are exactly the same ones (including order)
+ * that {@link RadioSourceKNearestFinder} finds on the collection used to compile
+ * this radio map.
+ * Because this radio map is immutable, it can be safely queried from multiple
+ * threads.
+ *
+ * @param <P> a {@link Point} type.
+ * @param <S> a {@link RadioSource} type.
+ */
+public class CompiledRadioMap<P extends Point<?>, S extends RadioSource> {
+
+    /**
+     * Candidate fingerprints are sorted when their number (including repetitions)
+     * is below the number of fingerprints divided by this value. Otherwise, they are
+     * marked on an array having one element per fingerprint.
+     */
+    private static final int SORTED_CANDIDATES_RATIO = 8;
+
+    /**
+     * Fingerprints contained in this radio map.
+     */
+    private final List<RssiFingerprintLocated<S, RssiReading<S>, P>> mFingerprints;
+
+    /**
+     * Interned radio sources, where position in the list is the id of each radio
+     * source.
+     */
+    private final List<S> mSources;
+
+    /**
+     * Maps each radio source to its interned id.
+     */
+    private final Map<S, Integer> mSourceIds;
+
+    /**
+     * Position of first reading of each fingerprint within {@link #mReadingSourceIds}
+     * and {@link #mReadingRssis}. Contains one more element than the number of
+     * fingerprints, so that the last element is the total number of readings.
+     */
+    private final int[] mReadingOffsets;
+
+    /**
+     * Radio source id of each reading, keeping the order of readings within each
+     * fingerprint.
+     */
+    private final int[] mReadingSourceIds;
+
+    /**
+     * RSSI of each reading expressed in dBm's.
+     */
+    private final double[] mReadingRssis;
+
+    /**
+     * Position of first fingerprint of each radio source within
+     * {@link #mPostings}. Contains one more element than the number of radio
+     * sources.
+     */
+    private final int[] mPostingOffsets;
+
+    /**
+     * Positions of fingerprints containing readings of each radio source, sorted
+     * in ascending order for each radio source.
+     */
+    private final int[] mPostings;
+
+    /**
+     * Constructor.
+     *
+     * @param fingerprints collection of fingerprints to be compiled.
+     * @throws IllegalArgumentException if collection of fingerprints is null.
+     */
+    public CompiledRadioMap(
+            final Collection<? extends RssiFingerprintLocated<S, RssiReading<S>, P>> fingerprints) {
+        if (fingerprints == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final List<RssiFingerprintLocated<S, RssiReading<S>, P>> list =
+                new ArrayList<>(fingerprints);
+        mFingerprints = Collections.unmodifiableList(list);
+
+        final int numFingerprints = list.size();
+        int numReadings = 0;
+        for (final RssiFingerprintLocated<S, RssiReading<S>, P> f : list) {
+            numReadings += f.getReadings().size();
+        }
+
+        final List<S> sources = new ArrayList<>();
+        mSourceIds = new HashMap<>();
+        mReadingOffsets = new int[numFingerprints + 1];
+        mReadingSourceIds = new int[numReadings];
+        mReadingRssis = new double[numReadings];
+
+        int pos = 0;
+        for (int i = 0; i < numFingerprints; i++) {
+            mReadingOffsets[i] = pos;
+            for (final RssiReading<S> reading : list.get(i).getReadings()) {
+                final S source = reading.getSource();
+                Integer id = mSourceIds.get(source);
+                if (id == null) {
+                    id = sources.size();
+                    sources.add(source);
+                    mSourceIds.put(source, id);
+                }
+                mReadingSourceIds[pos] = id;
+                mReadingRssis[pos] = reading.getRssi();
+                pos++;
+            }
+        }
+        mReadingOffsets[numFingerprints] = pos;
+        mSources = Collections.unmodifiableList(sources);
+
+        // build inverted index
+        final int numSources = sources.size();
+        final int[] lastFingerprints = new int[numSources];
+        Arrays.fill(lastFingerprints, -1);
+        final int[] counts = new int[numSources];
+        for (int i = 0; i < numFingerprints; i++) {
+            for (int j = mReadingOffsets[i]; j < mReadingOffsets[i + 1]; j++) {
+                final int id = mReadingSourceIds[j];
+                if (lastFingerprints[id] != i) {
+                    lastFingerprints[id] = i;
+                    counts[id]++;
+                }
+            }
+        }
+
+        mPostingOffsets = new int[numSources + 1];
+        for (int id = 0; id < numSources; id++) {
+            mPostingOffsets[id + 1] = mPostingOffsets[id] + counts[id];
+        }
+        mPostings = new int[mPostingOffsets[numSources]];
+
+        Arrays.fill(lastFingerprints, -1);
+        final int[] positions = Arrays.copyOf(mPostingOffsets, numSources);
+        for (int i = 0; i < numFingerprints; i++) {
+            for (int j = mReadingOffsets[i]; j < mReadingOffsets[i + 1]; j++) {
+                final int id = mReadingSourceIds[j];
+                if (lastFingerprints[id] != i) {
+                    lastFingerprints[id] = i;
+                    mPostings[positions[id]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets fingerprints contained in this radio map in the same order as the
+     * collection used to compile it.
+     *
+     * @return fingerprints contained in this radio map.
+     */
+    public List<RssiFingerprintLocated<S, RssiReading<S>, P>> getFingerprints() {
+        return mFingerprints;
+    }
+
+    /**
+     * Gets number of fingerprints contained in this radio map.
+     *
+     * @return number of fingerprints.
+     */
+    public int getNumberOfFingerprints() {
+        return mFingerprints.size();
+    }
+
+    /**
+     * Gets radio sources found in fingerprints of this radio map. Position of each
+     * radio source in returned list is its interned id.
+     *
+     * @return radio sources.
+     */
+    public List<S> getSources() {
+        return mSources;
+    }
+
+    /**
+     * Gets number of different radio sources found in fingerprints of this radio map.
+     *
+     * @return number of radio sources.
+     */
+    public int getNumberOfSources() {
+        return mSources.size();
+    }
+
+    /**
+     * Gets interned id of provided radio source.
+     *
+     * @param source radio source.
+     * @return interned id or -1 if radio source is not contained in this radio map.
+     */
+    public int getSourceId(final S source) {
+        final Integer id = mSourceIds.get(source);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Finds nearest fingerprint to provided one, in terms of signal euclidean distances.
+     *
+     * @param fingerprint fingerprint to find the nearest to.
+     * @return nearest fingerprint or null if none could be found.
+     * @throws IllegalArgumentException if fingerprint is null.
+     */
+    public RssiFingerprintLocated<S, RssiReading<S>, P> findNearestTo(
+            final RssiFingerprint<S, RssiReading<S>> fingerprint) {
+        if (fingerprint == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final Query query = new Query();
+        query.set(fingerprint);
+        final int numCandidates = findCandidates(query);
+        final int[] candidates = query.mCandidates;
+
+        double bestSqrDist = Double.MAX_VALUE;
+        int best = -1;
+        for (int c = 0; c < numCandidates; c++) {
+            final int candidate = candidates[c];
+            final double sqrDist = sqrDistance(candidate, query, bestSqrDist);
+            if (sqrDist < bestSqrDist) {
+                bestSqrDist = sqrDist;
+                best = candidate;
+            }
+        }
+
+        return best >= 0 ? mFingerprints.get(best) : null;
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one, in terms of signal euclidean
+     * distances.
+     *
+     * @param fingerprint fingerprint to find the k-nearest ones to.
+     * @param k           number of nearest fingerprints to find.
+     * @return nearest fingerprints ordered from closest to farthest or an empty list if
+     * none could be found.
+     * @throws IllegalArgumentException if fingerprint is null or k is less than 1.
+     */
+    public List<RssiFingerprintLocated<S, RssiReading<S>, P>> findKNearestTo(
+            final RssiFingerprint<S, RssiReading<S>> fingerprint, final int k) {
+        final List<RssiFingerprintLocated<S, RssiReading<S>, P>> result =
+                new ArrayList<>();
+        final List<Double> nearestSqrDistances = new ArrayList<>();
+        findKNearestTo(fingerprint, k, result, nearestSqrDistances);
+        return result;
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one, in terms of signal euclidean
+     * distances.
+     *
+     * @param fingerprint         fingerprint to find the k-nearest ones to.
+     * @param k                   number of nearest fingerprints to find.
+     * @param nearestFingerprints list where found nearest fingerprints will be stored
+     *                            ordered from closest to farthest or an empty list if
+     *                            none could be found.
+     * @param nearestSqrDistances list where squared signal euclidean distances
+     *                            corresponding to found fingerprints will be stored or
+     *                            an empty list if no fingerprint is found.
+     * @throws IllegalArgumentException if any parameter is null or k is less than 1.
+     */
+    public void findKNearestTo(
+            final RssiFingerprint<S, RssiReading<S>> fingerprint,
+            final int k,
+            final List<RssiFingerprintLocated<S, RssiReading<S>, P>> nearestFingerprints,
+            final List<Double> nearestSqrDistances) {
+        if (fingerprint == null || k < 1 || nearestFingerprints == null ||
+                nearestSqrDistances == null) {
+            throw new IllegalArgumentException();
+        }
+
+        nearestFingerprints.clear();
+        nearestSqrDistances.clear();
+
+        final int maxSize = Math.min(k, mFingerprints.size());
+        final int[] positions = new int[maxSize];
+        final double[] sqrDistances = new double[maxSize];
+        final int numFound = findKNearestTo(new Query(), fingerprint, maxSize,
+                positions, sqrDistances);
+        for (int i = 0; i < numFound; i++) {
+            nearestFingerprints.add(mFingerprints.get(positions[i]));
+            nearestSqrDistances.add(sqrDistances[i]);
+        }
+    }
+
+    /**
+     * Creates an empty query whose buffers can be reused to find the k-nearest
+     * fingerprints of several fingerprints on the same thread.
+     *
+     * @return a new query.
+     */
+    Query createQuery() {
+        return new Query();
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one reusing buffers of provided query,
+     * so that no objects are created once buffers are large enough.
+     *
+     * @param query        query whose buffers will be reused.
+     * @param fingerprint  fingerprint to find the k-nearest ones to.
+     * @param k            number of nearest fingerprints to find.
+     * @param positions    array where positions of found fingerprints will be stored
+     *                     ordered from closest to farthest. Must have at least
+     *                     min(k, number of fingerprints) elements.
+     * @param sqrDistances array where squared signal euclidean distances of found
+     *                     fingerprints will be stored. Must have at least
+     *                     min(k, number of fingerprints) elements.
+     * @return number of found fingerprints, which is min(k, number of fingerprints).
+     */
+    int findKNearestTo(final Query query,
+                       final RssiFingerprint<S, RssiReading<S>> fingerprint,
+                       final int k, final int[] positions,
+                       final double[] sqrDistances) {
+        final int numFingerprints = mFingerprints.size();
+        final int maxSize = Math.min(k, numFingerprints);
+        if (maxSize == 0) {
+            return 0;
+        }
+
+        query.set(fingerprint);
+        final int numCandidates = findCandidates(query);
+        final int[] candidates = query.mCandidates;
+
+        final NeighbourHeap heap = query.getHeap(maxSize);
+        for (int c = 0; c < numCandidates; c++) {
+            final int candidate = candidates[c];
+            final double maxSqrDist = heap.isFull() ? heap.getMaxSqrDistance() :
+                    Double.MAX_VALUE;
+            final double sqrDist = sqrDistance(candidate, query, maxSqrDist);
+            if (sqrDist < maxSqrDist) {
+                heap.add(candidate, sqrDist);
+            }
+        }
+
+        int numFound = heap.size();
+        heap.sort(positions, sqrDistances);
+
+        // fingerprints not sharing any radio source with provided one are at
+        // maximum distance and are returned in order of appearance when less than
+        // k fingerprints share radio sources
+        int c = 0;
+        for (int i = 0; i < numFingerprints && numFound < maxSize; i++) {
+            if (c < numCandidates && candidates[c] == i) {
+                c++;
+                continue;
+            }
+            positions[numFound] = i;
+            sqrDistances[numFound] = Double.MAX_VALUE;
+            numFound++;
+        }
+
+        return numFound;
+    }
+
+    /**
+     * Finds positions of fingerprints sharing at least one radio source with
+     * provided query and stores them into the candidates buffer of the query.
+     *
+     * @param query query to be matched.
+     * @return number of candidates, which are stored sorted in ascending order.
+     */
+    private int findCandidates(final Query query) {
+        final int[] ids = query.mIds;
+        final int numIds = query.mNumIds;
+
+        int total = 0;
+        for (int i = 0; i < numIds; i++) {
+            final int id = ids[i];
+            total += mPostingOffsets[id + 1] - mPostingOffsets[id];
+        }
+
+        if (numIds == 1) {
+            final int[] result = query.getCandidates(total);
+            System.arraycopy(mPostings, mPostingOffsets[ids[0]], result, 0, total);
+            return total;
+        }
+
+        final int numFingerprints = mFingerprints.size();
+        if (total > numFingerprints / SORTED_CANDIDATES_RATIO) {
+            // most fingerprints are candidates, hence they are marked instead of
+            // being sorted
+            final boolean[] marks = query.getMarks();
+            int count = 0;
+            for (int i = 0; i < numIds; i++) {
+                final int id = ids[i];
+                for (int j = mPostingOffsets[id]; j < mPostingOffsets[id + 1]; j++) {
+                    final int position = mPostings[j];
+                    if (!marks[position]) {
+                        marks[position] = true;
+                        count++;
+                    }
+                }
+            }
+
+            // marks are cleared while being collected so that they can be reused
+            final int[] result = query.getCandidates(count);
+            int pos = 0;
+            for (int i = 0; i < numFingerprints && pos < count; i++) {
+                if (marks[i]) {
+                    marks[i] = false;
+                    result[pos++] = i;
+                }
+            }
+            return count;
+        }
+
+        final int[] result = query.getCandidates(total);
+        int pos = 0;
+        for (int i = 0; i < numIds; i++) {
+            final int id = ids[i];
+            final int start = mPostingOffsets[id];
+            final int length = mPostingOffsets[id + 1] - start;
+            System.arraycopy(mPostings, start, result, pos, length);
+            pos += length;
+        }
+
+        Arrays.sort(result, 0, total);
+        int unique = 0;
+        for (int i = 0; i < total; i++) {
+            if (unique == 0 || result[unique - 1] != result[i]) {
+                result[unique++] = result[i];
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * Computes squared signal euclidean distance between fingerprint at provided
+     * position and provided query.
+     * Terms are accumulated in the same order as
+     * {@link RssiFingerprint#sqrDistanceTo(RssiFingerprint)} does, so that exactly
+     * the same value is obtained.
+     *
+     * @param position   position of fingerprint.
+     * @param query      query to be compared.
+     * @param maxSqrDist squared distance above which computation can be stopped
+     *                   because fingerprint is not among nearest ones.
+     * @return squared distance, a value not less than provided maximum if
+     * computation was stopped, or {@link Double#MAX_VALUE} if fingerprint does not
+     * share any radio source with query.
+     */
+    private double sqrDistance(final int position, final Query query,
+                               final double maxSqrDist) {
+        final int[] firstReadings = query.mFirstReadings;
+        final int[] nextReadings = query.mNextReadings;
+        final double[] rssis = query.mRssis;
+
+        int numAccessPoints = 0;
+        double result = 0.0;
+        double diff;
+        final int end = mReadingOffsets[position + 1];
+        for (int j = mReadingOffsets[position]; j < end; j++) {
+            final double rssi = mReadingRssis[j];
+            for (int q = firstReadings[mReadingSourceIds[j]]; q >= 0; q = nextReadings[q]) {
+                diff = rssi - rssis[q];
+                result += diff * diff;
+                numAccessPoints++;
+            }
+
+            if (result >= maxSqrDist) {
+                return result;
+            }
+        }
+
+        if (numAccessPoints == 0) {
+            return Double.MAX_VALUE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Contains readings of a query fingerprint indexed by interned radio source id,
+     * along with buffers required to find its nearest fingerprints.
+     * Buffers grow as needed and are reused every time a new fingerprint is set, so
+     * that a single instance can be used to process many fingerprints on the same
+     * thread.
+     */
+    final class Query {
+
+        /**
+         * Position of first reading of each radio source or -1 if query has no
+         * readings of such radio source.
+         */
+        private final int[] mFirstReadings;
+
+        /**
+         * Position of next reading having the same radio source as each reading or -1
+         * if there are no more readings of such radio source.
+         */
+        private int[] mNextReadings = new int[0];
+
+        /**
+         * RSSI of each reading expressed in dBm's.
+         */
+        private double[] mRssis = new double[0];
+
+        /**
+         * Interned radio source id of each reading or -1 if radio source is not
+         * contained in radio map.
+         */
+        private int[] mReadingIds = new int[0];
+
+        /**
+         * Distinct ids of radio sources contained in query and radio map.
+         */
+        private int[] mIds = new int[0];
+
+        /**
+         * Number of distinct ids of radio sources contained in query and radio map.
+         */
+        private int mNumIds;
+
+        /**
+         * Positions of candidate fingerprints.
+         */
+        private int[] mCandidates = new int[0];
+
+        /**
+         * Marks of candidate fingerprints. All marks are false when not in use.
+         */
+        private boolean[] mMarks;
+
+        /**
+         * Heap to keep the k-nearest fingerprints.
+         */
+        private NeighbourHeap mHeap;
+
+        /**
+         * Constructor.
+         */
+        Query() {
+            mFirstReadings = new int[mSources.size()];
+            Arrays.fill(mFirstReadings, -1);
+        }
+
+        /**
+         * Sets fingerprint to be queried, replacing any previous one.
+         *
+         * @param fingerprint fingerprint to be indexed.
+         */
+        void set(final RssiFingerprint<S, RssiReading<S>> fingerprint) {
+            // reset only radio sources of previous fingerprint
+            for (int i = 0; i < mNumIds; i++) {
+                mFirstReadings[mIds[i]] = -1;
+            }
+
+            final List<RssiReading<S>> readings = fingerprint.getReadings();
+            final int numReadings = readings.size();
+            if (mRssis.length < numReadings) {
+                mNextReadings = new int[numReadings];
+                mRssis = new double[numReadings];
+                mReadingIds = new int[numReadings];
+                mIds = new int[numReadings];
+            }
+
+            for (int q = 0; q < numReadings; q++) {
+                final RssiReading<S> reading = readings.get(q);
+                final Integer id = mSourceIds.get(reading.getSource());
+                mReadingIds[q] = id != null ? id : -1;
+                mRssis[q] = reading.getRssi();
+            }
+
+            // link readings of the same radio source keeping their order
+            for (int q = numReadings - 1; q >= 0; q--) {
+                final int id = mReadingIds[q];
+                if (id < 0) {
+                    mNextReadings[q] = -1;
+                    continue;
+                }
+                mNextReadings[q] = mFirstReadings[id];
+                mFirstReadings[id] = q;
+            }
+
+            mNumIds = 0;
+            for (int q = 0; q < numReadings; q++) {
+                final int id = mReadingIds[q];
+                if (id >= 0 && mFirstReadings[id] == q) {
+                    mIds[mNumIds++] = id;
+                }
+            }
+        }
+
+        /**
+         * Gets buffer to store candidate fingerprints.
+         *
+         * @param size minimum required size.
+         * @return buffer to store candidate fingerprints.
+         */
+        private int[] getCandidates(final int size) {
+            if (mCandidates.length < size) {
+                mCandidates = new int[Math.max(size, 2 * mCandidates.length)];
+            }
+            return mCandidates;
+        }
+
+        /**
+         * Gets array to mark candidate fingerprints.
+         *
+         * @return array to mark candidate fingerprints.
+         */
+        private boolean[] getMarks() {
+            if (mMarks == null) {
+                mMarks = new boolean[mFingerprints.size()];
+            }
+            return mMarks;
+        }
+
+        /**
+         * Gets an empty heap to keep the k-nearest fingerprints.
+         *
+         * @param capacity maximum number of fingerprints to keep.
+         * @return an empty heap.
+         */
+        private NeighbourHeap getHeap(final int capacity) {
+            if (mHeap == null || mHeap.capacity() != capacity) {
+                mHeap = new NeighbourHeap(capacity);
+            }
+            return mHeap;
+        }
+    }
+
+    /**
+     * Bounded max-heap keeping the k-nearest fingerprints found so far. Among
+     * fingerprints at the same distance, the one appearing later in the radio map is
+     * considered farther, so that results are ordered as in
+     * {@link RadioSourceKNearestFinder}.
+     */
+    static final class NeighbourHeap {
+
+        /**
+         * Positions of kept fingerprints.
+         */
+        private final int[] mPositions;
+
+        /**
+         * Squared distances of kept fingerprints.
+         */
+        private final double[] mSqrDistances;
+
+        /**
+         * Number of kept fingerprints.
+         */
+        private int mSize;
+
+        /**
+         * Constructor.
+         *
+         * @param capacity maximum number of fingerprints to keep.
+         */
+        NeighbourHeap(final int capacity) {
+            mPositions = new int[capacity];
+            mSqrDistances = new double[capacity];
+        }
+
+        /**
+         * Gets maximum number of fingerprints to keep.
+         *
+         * @return maximum number of fingerprints to keep.
+         */
+        int capacity() {
+            return mPositions.length;
+        }
+
+        /**
+         * Gets number of kept fingerprints.
+         *
+         * @return number of kept fingerprints.
+         */
+        int size() {
+            return mSize;
+        }
+
+        /**
+         * Indicates whether heap has reached its capacity.
+         *
+         * @return true if heap is full, false otherwise.
+         */
+        boolean isFull() {
+            return mSize == mPositions.length;
+        }
+
+        /**
+         * Gets squared distance of farthest kept fingerprint.
+         *
+         * @return squared distance of farthest kept fingerprint.
+         */
+        double getMaxSqrDistance() {
+            return mSqrDistances[0];
+        }
+
+        /**
+         * Adds a fingerprint, replacing the farthest one if heap is full.
+         * Fingerprints must be added in ascending order of position.
+         *
+         * @param position position of fingerprint.
+         * @param sqrDist  squared distance of fingerprint.
+         */
+        void add(final int position, final double sqrDist) {
+            if (isFull()) {
+                mPositions[0] = position;
+                mSqrDistances[0] = sqrDist;
+                siftDown(0, mSize);
+            } else {
+                int i = mSize++;
+                mPositions[i] = position;
+                mSqrDistances[i] = sqrDist;
+                while (i > 0) {
+                    final int parent = (i - 1) / 2;
+                    if (!isFarther(i, parent)) {
+                        break;
+                    }
+                    swap(i, parent);
+                    i = parent;
+                }
+            }
+        }
+
+        /**
+         * Sorts kept fingerprints from closest to farthest. Heap is emptied.
+         *
+         * @param positions    array where positions of fingerprints will be stored.
+         * @param sqrDistances array where squared distances will be stored.
+         */
+        void sort(final int[] positions, final double[] sqrDistances) {
+            for (int end = mSize - 1; end >= 0; end--) {
+                positions[end] = mPositions[0];
+                sqrDistances[end] = mSqrDistances[0];
+                swap(0, end);
+                siftDown(0, end);
+            }
+            mSize = 0;
+        }
+
+        /**
+         * Moves element at provided position down the heap until heap property is
+         * restored.
+         *
+         * @param i    position of element.
+         * @param size number of elements in heap.
+         */
+        private void siftDown(int i, final int size) {
+            while (true) {
+                final int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                final int right = left + 1;
+                final int farthest = right < size && isFarther(right, left) ?
+                        right : left;
+                if (!isFarther(farthest, i)) {
+                    break;
+                }
+                swap(i, farthest);
+                i = farthest;
+            }
+        }
+
+        /**
+         * Indicates whether element at position i is farther than element at
+         * position j.
+         *
+         * @param i position of an element.
+         * @param j position of another element.
+         * @return true if element i is farther, false otherwise.
+         */
+        private boolean isFarther(final int i, final int j) {
+            final double di = mSqrDistances[i];
+            final double dj = mSqrDistances[j];
+            return di > dj || (di == dj && mPositions[i] > mPositions[j]);
+        }
+
+        /**
+         * Swaps two elements.
+         *
+         * @param i position of an element.
+         * @param j position of another element.
+         */
+        private void swap(final int i, final int j) {
+            final int position = mPositions[i];
+            mPositions[i] = mPositions[j];
+            mPositions[j] = position;
+
+            final double sqrDist = mSqrDistances[i];
+            mSqrDistances[i] = mSqrDistances[j];
+            mSqrDistances[j] = sqrDist;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable representation of a {@link RssiFingerprint} whose readings are sorted by
+ * the index of their radio sources within a {@link RadioSourceIndex}.
+ * Signal distances between fingerprints sharing the same radio source index are
+ * computed in a single linear merge pass over primitive arrays, instead of comparing
+ * every reading with every other reading through
+ * {@link Reading#hasSameSource(Reading)}.
+ * Computed distances are equal to those of {@link RssiFingerprint} up to rounding
+ * errors, since terms are accumulated in a different order.
+ *
+ * @param <S> a {@link RadioSource} type.
+ */
+public class IndexedRssiFingerprint<S extends RadioSource> {
+
+    /**
+     * Number of bits to shift radio source indices when sorting readings.
+     */
+    private static final int INDEX_SHIFT = 32;
+
+    /**
+     * Mask to obtain position of readings when sorting.
+     */
+    private static final long POSITION_MASK = 0xffffffffL;
+
+    /**
+     * Index of radio sources.
+     */
+    private final RadioSourceIndex<S> mIndex;
+
+    /**
+     * Radio source index of each reading sorted in ascending order.
+     */
+    private final int[] mSourceIndices;
+
+    /**
+     * RSSI of each reading expressed in dBm's.
+     */
+    private final double[] mRssis;
+
+    /**
+     * Constructor.
+     * Radio sources of readings not yet contained in provided index are added to it.
+     * Readings of the same radio source keep their relative order.
+     *
+     * @param fingerprint fingerprint to be indexed.
+     * @param index       index of radio sources.
+     * @throws IllegalArgumentException if any parameter is null.
+     */
+    public IndexedRssiFingerprint(
+            final RssiFingerprint<S, ? extends RssiReading<S>> fingerprint,
+            final RadioSourceIndex<S> index) {
+        if (fingerprint == null || index == null) {
+            throw new IllegalArgumentException();
+        }
+
+        mIndex = index;
+
+        final List<? extends RssiReading<S>> readings = fingerprint.getReadings();
+        final int numReadings = readings.size();
+
+        // combine source index and reading position so that sorting is stable
+        final long[] keys = new long[numReadings];
+        for (int i = 0; i < numReadings; i++) {
+            final long sourceIndex = index.add(readings.get(i).getSource());
+            keys[i] = (sourceIndex << INDEX_SHIFT) | i;
+        }
+        Arrays.sort(keys);
+
+        mSourceIndices = new int[numReadings];
+        mRssis = new double[numReadings];
+        for (int i = 0; i < numReadings; i++) {
+            mSourceIndices[i] = (int) (keys[i] >>> INDEX_SHIFT);
+            mRssis[i] = readings.get((int) (keys[i] & POSITION_MASK)).getRssi();
+        }
+    }
+
+    /**
+     * Gets index of radio sources.
+     *
+     * @return index of radio sources.
+     */
+    public RadioSourceIndex<S> getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * Gets number of readings.
+     *
+     * @return number of readings.
+     */
+    public int getNumberOfReadings() {
+        return mRssis.length;
+    }
+
+    /**
+     * Gets radio source index of each reading sorted in ascending order.
+     *
+     * @return radio source index of each reading.
+     */
+    public int[] getSourceIndices() {
+        return Arrays.copyOf(mSourceIndices, mSourceIndices.length);
+    }
+
+    /**
+     * Gets RSSI of each reading expressed in dBm's, sorted by the radio source index
+     * of each reading.
+     *
+     * @return RSSI of each reading.
+     */
+    public double[] getRssis() {
+        return Arrays.copyOf(mRssis, mRssis.length);
+    }
+
+    /**
+     * Gets average RSSI (received signal strength indicator) of all readings
+     * contained in this fingerprint expressed in dB's.
+     *
+     * @return average RSSI of all readings.
+     */
+    public double getMeanRssi() {
+        if (mRssis.length == 0) {
+            return Double.MAX_VALUE;
+        }
+
+        double result = 0.0;
+        for (final double rssi : mRssis) {
+            result += rssi / (double) mRssis.length;
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets euclidean distance of signal readings from another fingerprint.
+     *
+     * @param otherFingerprint other fingerprint to compare.
+     * @return euclidean distance of signal readings from another fingerprint.
+     * @throws IllegalArgumentException if other fingerprint does not use the same
+     *                                  radio source index.
+     */
+    public double distanceTo(final IndexedRssiFingerprint<S> otherFingerprint) {
+        return Math.sqrt(sqrDistanceTo(otherFingerprint));
+    }
+
+    /**
+     * Gets squared euclidean distance of signal readings from another fingerprint.
+     *
+     * @param otherFingerprint other fingerprint to compare.
+     * @return squared euclidean distance of signal readings from another
+     * fingerprint or {@link Double#MAX_VALUE} if fingerprints do not share any radio
+     * source.
+     * @throws IllegalArgumentException if other fingerprint does not use the same
+     *                                  radio source index.
+     */
+    public double sqrDistanceTo(final IndexedRssiFingerprint<S> otherFingerprint) {
+        if (otherFingerprint == null) {
+            return Double.MAX_VALUE;
+        }
+        checkIndex(otherFingerprint);
+
+        return sqrDistance(mSourceIndices, mRssis, 0, mRssis.length,
+                otherFingerprint.mSourceIndices, otherFingerprint.mRssis, 0,
+                otherFingerprint.mRssis.length);
+    }
+
+    /**
+     * Gets euclidean distance of signal readings with mean RSSI removed from another
+     * fingerprint.
+     *
+     * @param otherFingerprint other fingerprint to compare.
+     * @return euclidean distance of signal readings from another fingerprint with
+     * average RSSI's removed.
+     * @throws IllegalArgumentException if other fingerprint does not use the same
+     *                                  radio source index.
+     */
+    public double noMeanDistanceTo(final IndexedRssiFingerprint<S> otherFingerprint) {
+        return Math.sqrt(noMeanSqrDistanceTo(otherFingerprint));
+    }
+
+    /**
+     * Gets squared euclidean distance of signal readings with mean RSSI removed from
+     * another fingerprint.
+     * Mean RSSI's are taken into account so that bias effects introduced by different
+     * device's hardware is partially removed.
+     *
+     * @param otherFingerprint other fingerprint to compare.
+     * @return squared euclidean distance of signal readings from another fingerprint
+     * with average RSSI's removed or {@link Double#MAX_VALUE} if fingerprints do not
+     * share any radio source.
+     * @throws IllegalArgumentException if other fingerprint does not use the same
+     *                                  radio source index.
+     */
+    public double noMeanSqrDistanceTo(final IndexedRssiFingerprint<S> otherFingerprint) {
+        if (otherFingerprint == null) {
+            return Double.MAX_VALUE;
+        }
+        checkIndex(otherFingerprint);
+
+        return noMeanSqrDistance(mSourceIndices, mRssis, 0, mRssis.length,
+                otherFingerprint.mSourceIndices, otherFingerprint.mRssis, 0,
+                otherFingerprint.mRssis.length);
+    }
+
+    /**
+     * Computes squared euclidean distance between two sets of readings sorted by
+     * their radio source index, in a single merge pass.
+     * Every pair of readings sharing the same radio source is taken into account,
+     * as {@link RssiFingerprint#sqrDistanceTo(RssiFingerprint)} does.
+     *
+     * @param indices1 radio source indices of first set of readings.
+     * @param rssis1   RSSI's of first set of readings.
+     * @param from1    position of first reading of first set (inclusive).
+     * @param to1      position of last reading of first set (exclusive).
+     * @param indices2 radio source indices of second set of readings.
+     * @param rssis2   RSSI's of second set of readings.
+     * @param from2    position of first reading of second set (inclusive).
+     * @param to2      position of last reading of second set (exclusive).
+     * @return squared euclidean distance or {@link Double#MAX_VALUE} if both sets do
+     * not share any radio source.
+     */
+    static double sqrDistance(
+            final int[] indices1, final double[] rssis1, final int from1, final int to1,
+            final int[] indices2, final double[] rssis2, final int from2, final int to2) {
+        int numAccessPoints = 0;
+        double result = 0.0;
+        double diff;
+        int i = from1;
+        int j = from2;
+        while (i < to1 && j < to2) {
+            final int index1 = indices1[i];
+            final int index2 = indices2[j];
+            if (index1 < index2) {
+                i++;
+            } else if (index1 > index2) {
+                j++;
+            } else {
+                final int end1 = runEnd(indices1, i, to1);
+                final int end2 = runEnd(indices2, j, to2);
+                for (int i2 = i; i2 < end1; i2++) {
+                    for (int j2 = j; j2 < end2; j2++) {
+                        diff = rssis1[i2] - rssis2[j2];
+                        result += diff * diff;
+                        numAccessPoints++;
+                    }
+                }
+                i = end1;
+                j = end2;
+            }
+        }
+
+        if (numAccessPoints == 0) {
+            return Double.MAX_VALUE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes squared euclidean distance with mean RSSI removed between two sets of
+     * readings sorted by their radio source index, in a single merge pass.
+     * Because removing mean RSSI's of both sets is equivalent to removing the mean of
+     * RSSI differences, the result is the sum of squared deviations of RSSI
+     * differences, which is accumulated using Welford's algorithm.
+     *
+     * @param indices1 radio source indices of first set of readings.
+     * @param rssis1   RSSI's of first set of readings.
+     * @param from1    position of first reading of first set (inclusive).
+     * @param to1      position of last reading of first set (exclusive).
+     * @param indices2 radio source indices of second set of readings.
+     * @param rssis2   RSSI's of second set of readings.
+     * @param from2    position of first reading of second set (inclusive).
+     * @param to2      position of last reading of second set (exclusive).
+     * @return squared euclidean distance with mean RSSI removed or
+     * {@link Double#MAX_VALUE} if both sets do not share any radio source.
+     */
+    static double noMeanSqrDistance(
+            final int[] indices1, final double[] rssis1, final int from1, final int to1,
+            final int[] indices2, final double[] rssis2, final int from2, final int to2) {
+        int numAccessPoints = 0;
+        double mean = 0.0;
+        double result = 0.0;
+        int i = from1;
+        int j = from2;
+        while (i < to1 && j < to2) {
+            final int index1 = indices1[i];
+            final int index2 = indices2[j];
+            if (index1 < index2) {
+                i++;
+            } else if (index1 > index2) {
+                j++;
+            } else {
+                final int end1 = runEnd(indices1, i, to1);
+                final int end2 = runEnd(indices2, j, to2);
+                for (int i2 = i; i2 < end1; i2++) {
+                    for (int j2 = j; j2 < end2; j2++) {
+                        final double diff = rssis1[i2] - rssis2[j2];
+                        numAccessPoints++;
+                        final double delta = diff - mean;
+                        mean += delta / numAccessPoints;
+                        result += delta * (diff - mean);
+                    }
+                }
+                i = end1;
+                j = end2;
+            }
+        }
+
+        if (numAccessPoints == 0) {
+            return Double.MAX_VALUE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the end of the run of readings sharing the radio source of reading at
+     * provided position.
+     *
+     * @param indices radio source indices of readings.
+     * @param from    position of first reading of the run.
+     * @param to      position of last reading to be checked (exclusive).
+     * @return position after last reading of the run.
+     */
+    private static int runEnd(final int[] indices, final int from, final int to) {
+        final int index = indices[from];
+        int end = from + 1;
+        while (end < to && indices[end] == index) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Checks that provided fingerprint uses the same radio source index as this one.
+     *
+     * @param otherFingerprint other fingerprint to be checked.
+     * @throws IllegalArgumentException if radio source index is not the same.
+     */
+    private void checkIndex(final IndexedRssiFingerprint<S> otherFingerprint) {
+        if (otherFingerprint.mIndex != mIndex) {
+            throw new IllegalArgumentException();
+        }
+    }
+}
@@ -0,0 +1,1190 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.Point;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only radio map backed by a buffer (typically memory mapped from a file)
+ * containing located RSSI fingerprints in a compact versioned columnar binary
+ * format.
+ * The format contains a dictionary of radio sources, followed by columns
+ * containing the position of first reading of each fingerprint, fingerprint
+ * positions quantized and delta-encoded respect to the previous fingerprint as
+ * 32 bit integers, radio source ids of readings as 16 or 32 bit integers and
+ * quantized RSSI values of readings as 16 bit integers. All values are stored in
+ * little endian byte order.
+ * Only radio sources and fingerprint positions are decoded when a radio map is
+ * opened. Readings are read directly from the buffer when searching the nearest
+ * fingerprints of a query, and fingerprint objects are only created when
+ * requested.
+ * Radio sources are stored as {@link WifiAccessPoint} or {@link Beacon} instances
+ * keeping their identifiers, hence any additional data (such as location or
+ * transmitted power of access points) is not stored.
+ * Because this radio map is read-only, it can be safely queried from multiple
+ * threads.
+ *
+ * @param <P> a {@link Point} type.
+ */
+public abstract class MappedRadioMap<P extends Point<?>> {
+
+    /**
+     * Magic number identifying the binary format ("IRM1").
+     */
+    public static final int MAGIC = 0x49524D31;
+
+    /**
+     * Version of binary format being written.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Default resolution of stored positions expressed in meters.
+     */
+    public static final double DEFAULT_POSITION_RESOLUTION = 1e-3;
+
+    /**
+     * Default resolution of stored RSSI values expressed in dBm's.
+     */
+    public static final double DEFAULT_RSSI_RESOLUTION = 1e-2;
+
+    /**
+     * Size of header expressed in bytes.
+     */
+    private static final int HEADER_SIZE = 40;
+
+    /**
+     * Flag indicating that radio source ids of readings are stored as 32 bit
+     * integers instead of 16 bit unsigned integers.
+     */
+    private static final int FLAG_WIDE_SOURCE_IDS = 1;
+
+    /**
+     * Maximum number of radio sources whose ids can be stored as 16 bit unsigned
+     * integers.
+     */
+    private static final int MAX_NARROW_SOURCES = 1 << 16;
+
+    /**
+     * Code of WiFi access points within the dictionary of radio sources.
+     */
+    private static final byte WIFI_ACCESS_POINT_CODE = 0;
+
+    /**
+     * Code of beacons within the dictionary of radio sources.
+     */
+    private static final byte BEACON_CODE = 1;
+
+    /**
+     * Size of buffer used for writing expressed in bytes.
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Buffer containing the radio map.
+     */
+    private final ByteBuffer mBuffer;
+
+    /**
+     * Number of fingerprints.
+     */
+    private final int mNumFingerprints;
+
+    /**
+     * Total number of readings.
+     */
+    private final int mNumReadings;
+
+    /**
+     * Number of dimensions of positions.
+     */
+    private final int mDims;
+
+    /**
+     * Indicates whether radio source ids of readings are stored as 32 bit integers.
+     */
+    private final boolean mWideSourceIds;
+
+    /**
+     * Resolution of stored RSSI values expressed in dBm's.
+     */
+    private final double mRssiResolution;
+
+    /**
+     * Radio sources, where position in the list is the id of each radio source.
+     */
+    private final List<RadioSource> mSources;
+
+    /**
+     * Maps each radio source to its id.
+     */
+    private final Map<RadioSource, Integer> mSourceIds;
+
+    /**
+     * Decoded coordinates of fingerprint positions.
+     */
+    private final double[] mCoordinates;
+
+    /**
+     * Position within buffer where offsets of readings of fingerprints start.
+     */
+    private final int mReadingOffsetsStart;
+
+    /**
+     * Position within buffer where radio source ids of readings start.
+     */
+    private final int mSourceIdsStart;
+
+    /**
+     * Position within buffer where RSSI values of readings start.
+     */
+    private final int mRssisStart;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer buffer containing the radio map from its current position.
+     * @param dims   expected number of dimensions of positions.
+     * @throws IllegalArgumentException if buffer is null.
+     * @throws IOException              if buffer does not contain a valid radio map.
+     */
+    protected MappedRadioMap(final ByteBuffer buffer, final int dims)
+            throws IOException {
+        if (buffer == null) {
+            throw new IllegalArgumentException();
+        }
+
+        mBuffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        mDims = dims;
+
+        if (mBuffer.capacity() < HEADER_SIZE || mBuffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a radio map");
+        }
+        if (mBuffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported radio map version");
+        }
+
+        final int storedDims = mBuffer.get(6);
+        final int flags = mBuffer.get(7);
+        final int numSources = mBuffer.getInt(8);
+        mNumFingerprints = mBuffer.getInt(12);
+        mNumReadings = mBuffer.getInt(16);
+        final double positionResolution = mBuffer.getDouble(20);
+        mRssiResolution = mBuffer.getDouble(28);
+        final int dictionarySize = mBuffer.getInt(36);
+
+        if (storedDims != dims && !(storedDims == 0 && mNumFingerprints == 0)) {
+            throw new IOException("Unexpected number of dimensions");
+        }
+        if (numSources < 0 || mNumFingerprints < 0 || mNumReadings < 0 ||
+                dictionarySize < 0) {
+            throw new IOException("Invalid radio map header");
+        }
+
+        mWideSourceIds = (flags & FLAG_WIDE_SOURCE_IDS) != 0;
+        mReadingOffsetsStart = HEADER_SIZE + dictionarySize;
+        final long positionsStart = mReadingOffsetsStart +
+                4L * (mNumFingerprints + 1);
+        final long sourceIdsStart = positionsStart + 4L * mNumFingerprints * storedDims;
+        final long rssisStart = sourceIdsStart +
+                (mWideSourceIds ? 4L : 2L) * mNumReadings;
+        final long end = rssisStart + 2L * mNumReadings;
+        if (end > mBuffer.capacity()) {
+            throw new IOException("Truncated radio map");
+        }
+        mSourceIdsStart = (int) sourceIdsStart;
+        mRssisStart = (int) rssisStart;
+
+        // check that offsets of readings are consistent, so that readings of each
+        // fingerprint are always within the buffer
+        int previousOffset = 0;
+        for (int i = 0; i <= mNumFingerprints; i++) {
+            final int offset = getReadingOffset(i);
+            if (offset < previousOffset || offset > mNumReadings) {
+                throw new IOException("Invalid offsets of readings");
+            }
+            previousOffset = offset;
+        }
+
+        // decode dictionary of radio sources
+        final ByteBuffer dictionary = mBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        dictionary.position(HEADER_SIZE);
+        dictionary.limit(mReadingOffsetsStart);
+        final List<RadioSource> sources = new ArrayList<>(numSources);
+        mSourceIds = new HashMap<>();
+        try {
+            for (int i = 0; i < numSources; i++) {
+                final RadioSource source = readSource(dictionary);
+                mSourceIds.put(source, i);
+                sources.add(source);
+            }
+        } catch (final RuntimeException e) {
+            throw new IOException("Invalid dictionary of radio sources", e);
+        }
+        mSources = Collections.unmodifiableList(sources);
+
+        // decode positions
+        mCoordinates = new double[mNumFingerprints * dims];
+        final long[] previous = new long[dims];
+        int pos = (int) positionsStart;
+        for (int i = 0; i < mNumFingerprints; i++) {
+            for (int d = 0; d < dims; d++) {
+                previous[d] += mBuffer.getInt(pos);
+                mCoordinates[i * dims + d] = previous[d] * positionResolution;
+                pos += 4;
+            }
+        }
+    }
+
+    /**
+     * Writes provided fingerprints into provided channel using default position
+     * and RSSI resolutions.
+     *
+     * @param fingerprints fingerprints to be written. All of them must have
+     *                     positions with the same number of dimensions.
+     * @param channel      channel where radio map will be written.
+     * @throws IllegalArgumentException if any parameter is null, positions have
+     *                                  different dimensions, any radio source is
+     *                                  not a WiFi access point or a beacon, or
+     *                                  values cannot be quantized.
+     * @throws IOException              if an I/O error occurs.
+     */
+    public static void write(
+            final Collection<? extends RssiFingerprintLocated<? extends RadioSource,
+                    ? extends RssiReading<? extends RadioSource>, ? extends Point<?>>> fingerprints,
+            final WritableByteChannel channel) throws IOException {
+        write(fingerprints, DEFAULT_POSITION_RESOLUTION, DEFAULT_RSSI_RESOLUTION,
+                channel);
+    }
+
+    /**
+     * Writes provided fingerprints into provided channel.
+     *
+     * @param fingerprints       fingerprints to be written. All of them must have
+     *                           positions with the same number of dimensions.
+     * @param positionResolution resolution of stored positions expressed in meters.
+     * @param rssiResolution     resolution of stored RSSI values expressed in dBm's.
+     * @param channel            channel where radio map will be written.
+     * @throws IllegalArgumentException if any parameter is null, resolutions are not
+     *                                  positive, positions have different
+     *                                  dimensions, any radio source is not a WiFi
+     *                                  access point or a beacon, or values cannot be
+     *                                  quantized with provided resolutions.
+     * @throws IOException              if an I/O error occurs.
+     */
+    public static void write(
+            final Collection<? extends RssiFingerprintLocated<? extends RadioSource,
+                    ? extends RssiReading<? extends RadioSource>, ? extends Point<?>>> fingerprints,
+            final double positionResolution, final double rssiResolution,
+            final WritableByteChannel channel) throws IOException {
+        if (fingerprints == null || channel == null || positionResolution <= 0.0 ||
+                rssiResolution <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+
+        // intern radio sources and check dimensions
+        final List<RadioSource> sources = new ArrayList<>();
+        final Map<RadioSource, Integer> sourceIds = new HashMap<>();
+        int dims = 0;
+        long numReadings = 0;
+        boolean first = true;
+        for (final RssiFingerprintLocated<? extends RadioSource,
+                ? extends RssiReading<? extends RadioSource>, ? extends Point<?>> fingerprint :
+                fingerprints) {
+            final int fingerprintDims = fingerprint.getPosition().getDimensions();
+            if (first) {
+                dims = fingerprintDims;
+                first = false;
+            } else if (fingerprintDims != dims) {
+                throw new IllegalArgumentException();
+            }
+
+            for (final RssiReading<? extends RadioSource> reading : fingerprint.getReadings()) {
+                final RadioSource source = reading.getSource();
+                if (!sourceIds.containsKey(source)) {
+                    sourceIds.put(source, sources.size());
+                    sources.add(source);
+                }
+                numReadings++;
+            }
+        }
+        if (numReadings > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException();
+        }
+
+        int dictionarySize = 0;
+        for (final RadioSource source : sources) {
+            dictionarySize += sourceSize(source);
+        }
+
+        final boolean wideSourceIds = sources.size() > MAX_NARROW_SOURCES;
+        final Output output = new Output(channel);
+
+        // header
+        output.putInt(MAGIC);
+        output.putShort((short) VERSION);
+        output.put((byte) dims);
+        output.put((byte) (wideSourceIds ? FLAG_WIDE_SOURCE_IDS : 0));
+        output.putInt(sources.size());
+        output.putInt(fingerprints.size());
+        output.putInt((int) numReadings);
+        output.putDouble(positionResolution);
+        output.putDouble(rssiResolution);
+        output.putInt(dictionarySize);
+
+        // dictionary of radio sources
+        for (final RadioSource source : sources) {
+            writeSource(source, output);
+        }
+
+        // offsets of readings of each fingerprint
+        int offset = 0;
+        for (final RssiFingerprintLocated<? extends RadioSource,
+                ? extends RssiReading<? extends RadioSource>, ? extends Point<?>> fingerprint :
+                fingerprints) {
+            output.putInt(offset);
+            offset += fingerprint.getReadings().size();
+        }
+        output.putInt(offset);
+
+        // delta-encoded quantized positions
+        final long[] previous = new long[dims];
+        for (final RssiFingerprintLocated<? extends RadioSource,
+                ? extends RssiReading<? extends RadioSource>, ? extends Point<?>> fingerprint :
+                fingerprints) {
+            final Point<?> position = fingerprint.getPosition();
+            for (int d = 0; d < dims; d++) {
+                final long value = Math.round(
+                        position.getInhomogeneousCoordinate(d) / positionResolution);
+                final long delta = value - previous[d];
+                if (delta < Integer.MIN_VALUE || delta > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException();
+                }
+                output.putInt((int) delta);
+                previous[d] = value;
+            }
+        }
+
+        // radio source ids of readings
+        for (final RssiFingerprintLocated<? extends RadioSource,
+                ? extends RssiReading<? extends RadioSource>, ? extends Point<?>> fingerprint :
+                fingerprints) {
+            for (final RssiReading<? extends RadioSource> reading : fingerprint.getReadings()) {
+                final int id = sourceIds.get(reading.getSource());
+                if (wideSourceIds) {
+                    output.putInt(id);
+                } else {
+                    output.putShort((short) id);
+                }
+            }
+        }
+
+        // quantized RSSI values of readings
+        for (final RssiFingerprintLocated<? extends RadioSource,
+                ? extends RssiReading<? extends RadioSource>, ? extends Point<?>> fingerprint :
+                fingerprints) {
+            for (final RssiReading<? extends RadioSource> reading : fingerprint.getReadings()) {
+                final long value = Math.round(reading.getRssi() / rssiResolution);
+                if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException();
+                }
+                output.putShort((short) value);
+            }
+        }
+
+        output.flush();
+    }
+
+    /**
+     * Gets number of dimensions of positions.
+     *
+     * @return number of dimensions.
+     */
+    public int getNumberOfDimensions() {
+        return mDims;
+    }
+
+    /**
+     * Gets number of fingerprints contained in this radio map.
+     *
+     * @return number of fingerprints.
+     */
+    public int getNumberOfFingerprints() {
+        return mNumFingerprints;
+    }
+
+    /**
+     * Gets total number of readings of all fingerprints.
+     *
+     * @return total number of readings.
+     */
+    public int getNumberOfReadings() {
+        return mNumReadings;
+    }
+
+    /**
+     * Gets number of readings of fingerprint at provided position.
+     *
+     * @param fingerprint position of fingerprint.
+     * @return number of readings.
+     * @throws IndexOutOfBoundsException if position is not valid.
+     */
+    public int getNumberOfReadings(final int fingerprint) {
+        checkFingerprint(fingerprint);
+        return getReadingOffset(fingerprint + 1) - getReadingOffset(fingerprint);
+    }
+
+    /**
+     * Gets radio sources contained in this radio map. Position of each radio source
+     * in returned list is its id.
+     *
+     * @return radio sources.
+     */
+    public List<RadioSource> getSources() {
+        return mSources;
+    }
+
+    /**
+     * Gets number of radio sources contained in this radio map.
+     *
+     * @return number of radio sources.
+     */
+    public int getNumberOfSources() {
+        return mSources.size();
+    }
+
+    /**
+     * Gets id of provided radio source.
+     *
+     * @param source radio source.
+     * @return id or -1 if radio source is not contained in this radio map.
+     */
+    public int getSourceId(final RadioSource source) {
+        final Integer id = mSourceIds.get(source);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets radio source id of a reading of a fingerprint.
+     *
+     * @param fingerprint position of fingerprint.
+     * @param reading     position of reading within fingerprint.
+     * @return radio source id.
+     * @throws IndexOutOfBoundsException if any position is not valid.
+     */
+    public int getSourceId(final int fingerprint, final int reading) {
+        return getSourceIdAt(getReadingPosition(fingerprint, reading));
+    }
+
+    /**
+     * Gets RSSI of a reading of a fingerprint.
+     *
+     * @param fingerprint position of fingerprint.
+     * @param reading     position of reading within fingerprint.
+     * @return RSSI expressed in dBm's.
+     * @throws IndexOutOfBoundsException if any position is not valid.
+     */
+    public double getRssi(final int fingerprint, final int reading) {
+        return getRssiAt(getReadingPosition(fingerprint, reading));
+    }
+
+    /**
+     * Gets a coordinate of the position of a fingerprint.
+     *
+     * @param fingerprint position of fingerprint.
+     * @param dim         dimension of coordinate.
+     * @return coordinate expressed in meters.
+     * @throws IndexOutOfBoundsException if any position is not valid.
+     */
+    public double getCoordinate(final int fingerprint, final int dim) {
+        checkFingerprint(fingerprint);
+        if (dim < 0 || dim >= mDims) {
+            throw new IndexOutOfBoundsException();
+        }
+        return mCoordinates[fingerprint * mDims + dim];
+    }
+
+    /**
+     * Gets position of a fingerprint.
+     *
+     * @param fingerprint position of fingerprint.
+     * @return a new point containing fingerprint position.
+     * @throws IndexOutOfBoundsException if position is not valid.
+     */
+    public P getPosition(final int fingerprint) {
+        checkFingerprint(fingerprint);
+        return createPosition(mCoordinates, fingerprint * mDims);
+    }
+
+    /**
+     * Creates a fingerprint object, including its readings, for the fingerprint at
+     * provided position.
+     *
+     * @param fingerprint position of fingerprint.
+     * @return a new fingerprint.
+     * @throws IndexOutOfBoundsException if position is not valid.
+     */
+    public RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, P> getFingerprint(
+            final int fingerprint) {
+        checkFingerprint(fingerprint);
+        final int start = getReadingOffset(fingerprint);
+        final int end = getReadingOffset(fingerprint + 1);
+        final List<RssiReading<RadioSource>> readings = new ArrayList<>(end - start);
+        for (int j = start; j < end; j++) {
+            readings.add(new RssiReading<>(mSources.get(getSourceIdAt(j)), getRssiAt(j)));
+        }
+        return createFingerprint(readings, getPosition(fingerprint));
+    }
+
+    /**
+     * Creates fingerprint objects for all fingerprints contained in this radio map,
+     * so that they can be used by estimators and finders requiring them.
+     *
+     * @return a new list containing all fingerprints.
+     */
+    public List<RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, P>> getFingerprints() {
+        final List<RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, P>> result =
+                new ArrayList<>(mNumFingerprints);
+        for (int i = 0; i < mNumFingerprints; i++) {
+            result.add(getFingerprint(i));
+        }
+        return result;
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one, in terms of signal euclidean
+     * distances. Only found fingerprints are created as objects.
+     * Found fingerprints and distances are the same ones that
+     * {@link RadioSourceKNearestFinder} finds on fingerprints returned by
+     * {@link #getFingerprints()}.
+     *
+     * @param fingerprint         fingerprint to find the k-nearest ones to.
+     * @param k                   number of nearest fingerprints to find.
+     * @param nearestFingerprints list where found nearest fingerprints will be stored
+     *                            ordered from closest to farthest or an empty list if
+     *                            none could be found.
+     * @param nearestSqrDistances list where squared signal euclidean distances
+     *                            corresponding to found fingerprints will be stored or
+     *                            an empty list if no fingerprint is found.
+     * @throws IllegalArgumentException if any parameter is null or k is less than 1.
+     */
+    public void findKNearestTo(
+            final RssiFingerprint<? extends RadioSource, ? extends RssiReading<? extends RadioSource>> fingerprint,
+            final int k,
+            final List<RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, P>> nearestFingerprints,
+            final List<Double> nearestSqrDistances) {
+        if (nearestFingerprints == null || nearestSqrDistances == null) {
+            throw new IllegalArgumentException();
+        }
+
+        nearestFingerprints.clear();
+        nearestSqrDistances.clear();
+
+        final int maxSize = Math.min(Math.max(k, 0), mNumFingerprints);
+        final int[] positions = new int[maxSize];
+        final double[] sqrDistances = new double[maxSize];
+        final int numFound = findKNearestTo(fingerprint, k, positions, sqrDistances);
+        for (int i = 0; i < numFound; i++) {
+            nearestFingerprints.add(getFingerprint(positions[i]));
+            nearestSqrDistances.add(sqrDistances[i]);
+        }
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one, in terms of signal euclidean
+     * distances, without creating any fingerprint object.
+     *
+     * @param fingerprint  fingerprint to find the k-nearest ones to.
+     * @param k            number of nearest fingerprints to find.
+     * @param positions    array where positions of found fingerprints will be stored
+     *                     ordered from closest to farthest. Must have at least
+     *                     min(k, number of fingerprints) elements.
+     * @param sqrDistances array where squared signal euclidean distances of found
+     *                     fingerprints will be stored. Must have at least
+     *                     min(k, number of fingerprints) elements.
+     * @return number of found fingerprints, which is min(k, number of fingerprints).
+     * @throws IllegalArgumentException if any parameter is null, k is less than 1 or
+     *                                  arrays are too short.
+     */
+    public int findKNearestTo(
+            final RssiFingerprint<? extends RadioSource, ? extends RssiReading<? extends RadioSource>> fingerprint,
+            final int k, final int[] positions, final double[] sqrDistances) {
+        if (fingerprint == null || k < 1 || positions == null || sqrDistances == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final int maxSize = Math.min(k, mNumFingerprints);
+        if (positions.length < maxSize || sqrDistances.length < maxSize) {
+            throw new IllegalArgumentException();
+        }
+        if (maxSize == 0) {
+            return 0;
+        }
+
+        final QueryReadings query = new QueryReadings(fingerprint.getReadings());
+
+        final CompiledRadioMap.NeighbourHeap heap =
+                new CompiledRadioMap.NeighbourHeap(maxSize);
+        for (int i = 0; i < mNumFingerprints; i++) {
+            final double maxSqrDist = heap.isFull() ? heap.getMaxSqrDistance() :
+                    Double.MAX_VALUE;
+            final double sqrDist = sqrDistance(i, query, maxSqrDist);
+            if (sqrDist < maxSqrDist) {
+                heap.add(i, sqrDist);
+            }
+        }
+
+        int numFound = heap.size();
+        heap.sort(positions, sqrDistances);
+
+        // fingerprints not sharing any radio source with provided one are at
+        // maximum distance and are returned in order of appearance when less than
+        // k fingerprints share radio sources
+        for (int i = 0; i < mNumFingerprints && numFound < maxSize; i++) {
+            if (!sharesSources(i, query)) {
+                positions[numFound] = i;
+                sqrDistances[numFound] = Double.MAX_VALUE;
+                numFound++;
+            }
+        }
+
+        return numFound;
+    }
+
+    /**
+     * Creates a point.
+     *
+     * @param coordinates array containing coordinates.
+     * @param offset      position of first coordinate within array.
+     * @return a new point.
+     */
+    protected abstract P createPosition(final double[] coordinates, final int offset);
+
+    /**
+     * Creates a located fingerprint.
+     *
+     * @param readings readings of fingerprint.
+     * @param position position of fingerprint.
+     * @return a new fingerprint.
+     */
+    protected abstract RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, P> createFingerprint(
+            final List<RssiReading<RadioSource>> readings, final P position);
+
+    /**
+     * Memory maps the whole content of provided file channel.
+     *
+     * @param channel channel to be mapped.
+     * @return mapped buffer.
+     * @throws IllegalArgumentException if channel is null.
+     * @throws IOException              if file is too large to be mapped or an I/O
+     *                                  error occurs.
+     */
+    protected static ByteBuffer map(final FileChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Radio map is too large to be mapped");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    /**
+     * Computes squared signal euclidean distance between fingerprint at provided
+     * position and indexed query readings.
+     * Terms are accumulated in the same order as
+     * {@link RssiFingerprint#sqrDistanceTo(RssiFingerprint)} does.
+     *
+     * @param fingerprint position of fingerprint.
+     * @param query       indexed query readings.
+     * @param maxSqrDist  squared distance above which computation can be stopped.
+     * @return squared distance, a value not less than provided maximum if
+     * computation was stopped, or {@link Double#MAX_VALUE} if fingerprint does not
+     * share any radio source with query.
+     */
+    private double sqrDistance(final int fingerprint, final QueryReadings query,
+                               final double maxSqrDist) {
+        final int[] nextReadings = query.mNextReadings;
+        final double[] rssis = query.mRssis;
+        int numAccessPoints = 0;
+        double result = 0.0;
+        double diff;
+        final int end = getReadingOffset(fingerprint + 1);
+        for (int j = getReadingOffset(fingerprint); j < end; j++) {
+            final int first = query.getFirstReading(getSourceIdAt(j));
+            if (first < 0) {
+                continue;
+            }
+
+            final double rssi = getRssiAt(j);
+            for (int q = first; q >= 0; q = nextReadings[q]) {
+                diff = rssi - rssis[q];
+                result += diff * diff;
+                numAccessPoints++;
+            }
+
+            if (result >= maxSqrDist) {
+                return result;
+            }
+        }
+
+        if (numAccessPoints == 0) {
+            return Double.MAX_VALUE;
+        }
+
+        return result;
+    }
+
+    /**
+     * Indicates whether fingerprint at provided position shares any radio source
+     * with indexed query readings.
+     *
+     * @param fingerprint position of fingerprint.
+     * @param query       indexed query readings.
+     * @return true if any radio source is shared, false otherwise.
+     */
+    private boolean sharesSources(final int fingerprint, final QueryReadings query) {
+        final int end = getReadingOffset(fingerprint + 1);
+        for (int j = getReadingOffset(fingerprint); j < end; j++) {
+            if (query.getFirstReading(getSourceIdAt(j)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that position of a fingerprint is valid.
+     *
+     * @param fingerprint position of fingerprint.
+     * @throws IndexOutOfBoundsException if position is not valid.
+     */
+    private void checkFingerprint(final int fingerprint) {
+        if (fingerprint < 0 || fingerprint >= mNumFingerprints) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Gets global position of a reading of a fingerprint.
+     *
+     * @param fingerprint position of fingerprint.
+     * @param reading     position of reading within fingerprint.
+     * @return global position of reading.
+     * @throws IndexOutOfBoundsException if any position is not valid.
+     */
+    private int getReadingPosition(final int fingerprint, final int reading) {
+        checkFingerprint(fingerprint);
+        final int start = getReadingOffset(fingerprint);
+        if (reading < 0 || start + reading >= getReadingOffset(fingerprint + 1)) {
+            throw new IndexOutOfBoundsException();
+        }
+        return start + reading;
+    }
+
+    /**
+     * Gets global position of first reading of a fingerprint.
+     *
+     * @param fingerprint position of fingerprint or number of fingerprints to get
+     *                    the total number of readings.
+     * @return global position of first reading.
+     */
+    private int getReadingOffset(final int fingerprint) {
+        return mBuffer.getInt(mReadingOffsetsStart + 4 * fingerprint);
+    }
+
+    /**
+     * Gets radio source id of reading at provided global position.
+     *
+     * @param reading global position of reading.
+     * @return radio source id.
+     */
+    private int getSourceIdAt(final int reading) {
+        return mWideSourceIds ? mBuffer.getInt(mSourceIdsStart + 4 * reading) :
+                mBuffer.getShort(mSourceIdsStart + 2 * reading) & 0xffff;
+    }
+
+    /**
+     * Gets RSSI of reading at provided global position.
+     *
+     * @param reading global position of reading.
+     * @return RSSI expressed in dBm's.
+     */
+    private double getRssiAt(final int reading) {
+        return mBuffer.getShort(mRssisStart + 2 * reading) * mRssiResolution;
+    }
+
+    /**
+     * Computes size of an encoded radio source.
+     *
+     * @param source radio source.
+     * @return size expressed in bytes.
+     * @throws IllegalArgumentException if radio source is not a WiFi access point or
+     *                                  a beacon.
+     */
+    private static int sourceSize(final RadioSource source) {
+        // code and frequency
+        int size = 9;
+        if (source instanceof WifiAccessPoint) {
+            final WifiAccessPoint accessPoint = (WifiAccessPoint) source;
+            size += stringSize(accessPoint.getBssid()) + stringSize(accessPoint.getSsid());
+        } else if (source instanceof Beacon) {
+            final Beacon beacon = (Beacon) source;
+            size += 4;
+            for (final BeaconIdentifier identifier : beacon.getIdentifiers()) {
+                size += 4 + identifier.getByteCount();
+            }
+            size += 8 + stringSize(beacon.getBluetoothAddress()) + 12 +
+                    stringSize(beacon.getBluetoothName());
+        } else {
+            throw new IllegalArgumentException();
+        }
+        return size;
+    }
+
+    /**
+     * Computes size of an encoded string.
+     *
+     * @param value string.
+     * @return size expressed in bytes.
+     */
+    private static int stringSize(final String value) {
+        return 4 + (value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0);
+    }
+
+    /**
+     * Writes a radio source.
+     *
+     * @param source radio source.
+     * @param output output where radio source will be written.
+     * @throws IOException if an I/O error occurs.
+     */
+    private static void writeSource(final RadioSource source, final Output output)
+            throws IOException {
+        if (source instanceof WifiAccessPoint) {
+            final WifiAccessPoint accessPoint = (WifiAccessPoint) source;
+            output.put(WIFI_ACCESS_POINT_CODE);
+            output.putDouble(accessPoint.getFrequency());
+            output.putString(accessPoint.getBssid());
+            output.putString(accessPoint.getSsid());
+        } else {
+            final Beacon beacon = (Beacon) source;
+            output.put(BEACON_CODE);
+            output.putDouble(beacon.getFrequency());
+            final List<BeaconIdentifier> identifiers = beacon.getIdentifiers();
+            output.putInt(identifiers.size());
+            for (final BeaconIdentifier identifier : identifiers) {
+                final byte[] bytes = identifier.toByteArray();
+                output.putInt(bytes.length);
+                output.put(bytes);
+            }
+            output.putDouble(beacon.getTransmittedPower());
+            output.putString(beacon.getBluetoothAddress());
+            output.putInt(beacon.getBeaconTypeCode());
+            output.putInt(beacon.getManufacturer());
+            output.putInt(beacon.getServiceUuid());
+            output.putString(beacon.getBluetoothName());
+        }
+    }
+
+    /**
+     * Reads a radio source.
+     *
+     * @param buffer buffer to read from.
+     * @return radio source.
+     * @throws IOException if radio source is not valid.
+     */
+    private static RadioSource readSource(final ByteBuffer buffer) throws IOException {
+        final byte code = buffer.get();
+        final double frequency = buffer.getDouble();
+        if (code == WIFI_ACCESS_POINT_CODE) {
+            final String bssid = readString(buffer);
+            final String ssid = readString(buffer);
+            return new WifiAccessPoint(bssid, frequency, ssid);
+        } else if (code == BEACON_CODE) {
+            final int numIdentifiers = buffer.getInt();
+            final List<BeaconIdentifier> identifiers = new ArrayList<>();
+            for (int i = 0; i < numIdentifiers; i++) {
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                identifiers.add(BeaconIdentifier.fromBytes(bytes, 0, bytes.length,
+                        false));
+            }
+            final double transmittedPower = buffer.getDouble();
+            final String bluetoothAddress = readString(buffer);
+            final int beaconTypeCode = buffer.getInt();
+            final int manufacturer = buffer.getInt();
+            final int serviceUuid = buffer.getInt();
+            final String bluetoothName = readString(buffer);
+            return new Beacon(identifiers, transmittedPower, frequency,
+                    bluetoothAddress, beaconTypeCode, manufacturer, serviceUuid,
+                    bluetoothName);
+        } else {
+            throw new IOException("Unknown radio source type");
+        }
+    }
+
+    /**
+     * Reads a string.
+     *
+     * @param buffer buffer to read from.
+     * @return string or null.
+     */
+    private static String readString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Readings of a query fingerprint indexed by radio source id.
+     * Memory being used only depends on the number of query readings and not on
+     * the number of radio sources of the radio map.
+     */
+    private final class QueryReadings {
+
+        /**
+         * Distinct radio source ids of query readings sorted in ascending order.
+         */
+        private final int[] mIds;
+
+        /**
+         * Number of distinct radio source ids.
+         */
+        private final int mNumIds;
+
+        /**
+         * Position of first query reading of each distinct radio source id.
+         */
+        private final int[] mFirstReadings;
+
+        /**
+         * Position of next query reading having the same radio source as each
+         * query reading, or -1 if there are no more.
+         */
+        private final int[] mNextReadings;
+
+        /**
+         * RSSI of each query reading.
+         */
+        private final double[] mRssis;
+
+        /**
+         * Constructor.
+         *
+         * @param readings readings of query fingerprint.
+         */
+        QueryReadings(final List<? extends RssiReading<? extends RadioSource>> readings) {
+            final int numReadings = readings.size();
+            mNextReadings = new int[numReadings];
+            mRssis = new double[numReadings];
+
+            // find radio source id of each reading, or -1 if not in the radio map
+            final int[] ids = new int[numReadings];
+            for (int q = 0; q < numReadings; q++) {
+                final RssiReading<? extends RadioSource> reading = readings.get(q);
+                mRssis[q] = reading.getRssi();
+                final Integer id = mSourceIds.get(reading.getSource());
+                ids[q] = id != null ? id : -1;
+            }
+
+            // keep distinct known ids sorted
+            mIds = Arrays.copyOf(ids, numReadings);
+            Arrays.sort(mIds);
+            int numSourceIds = 0;
+            for (int q = 0; q < numReadings; q++) {
+                final int id = mIds[q];
+                if (id >= 0 && (numSourceIds == 0 || mIds[numSourceIds - 1] != id)) {
+                    mIds[numSourceIds++] = id;
+                }
+            }
+            mNumIds = numSourceIds;
+
+            // link readings of each radio source keeping their order
+            mFirstReadings = new int[numSourceIds];
+            Arrays.fill(mFirstReadings, -1);
+            for (int q = numReadings - 1; q >= 0; q--) {
+                if (ids[q] < 0) {
+                    mNextReadings[q] = -1;
+                    continue;
+                }
+                final int pos = Arrays.binarySearch(mIds, 0, mNumIds, ids[q]);
+                mNextReadings[q] = mFirstReadings[pos];
+                mFirstReadings[pos] = q;
+            }
+        }
+
+        /**
+         * Gets position of first query reading having provided radio source id.
+         *
+         * @param sourceId radio source id.
+         * @return position of first query reading or -1 if query does not contain
+         * any reading of such radio source.
+         */
+        int getFirstReading(final int sourceId) {
+            final int pos = Arrays.binarySearch(mIds, 0, mNumIds, sourceId);
+            return pos >= 0 ? mFirstReadings[pos] : -1;
+        }
+    }
+
+    /**
+     * Buffered little endian output writing into a channel.
+     */
+    private static final class Output {
+
+        /**
+         * Channel where data is written.
+         */
+        private final WritableByteChannel mChannel;
+
+        /**
+         * Buffer containing pending data.
+         */
+        private final ByteBuffer mBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * Constructor.
+         *
+         * @param channel channel where data is written.
+         */
+        Output(final WritableByteChannel channel) {
+            mChannel = channel;
+        }
+
+        /**
+         * Writes a byte.
+         *
+         * @param value value to be written.
+         * @throws IOException if an I/O error occurs.
+         */
+        void put(final byte value) throws IOException {
+            ensure(1);
+            mBuffer.put(value);
+        }
+
+        /**
+         * Writes an array of bytes.
+         *
+         * @param values values to be written.
+         * @throws IOException if an I/O error occurs.
+         */
+        void put(final byte[] values) throws IOException {
+            int pos = 0;
+            while (pos < values.length) {
+                ensure(1);
+                final int length = Math.min(values.length - pos, mBuffer.remaining());
+                mBuffer.put(values, pos, length);
+                pos += length;
+            }
+        }
+
+        /**
+         * Writes a 16 bit integer.
+         *
+         * @param value value to be written.
+         * @throws IOException if an I/O error occurs.
+         */
+        void putShort(final short value) throws IOException {
+            ensure(2);
+            mBuffer.putShort(value);
+        }
+
+        /**
+         * Writes a 32 bit integer.
+         *
+         * @param value value to be written.
+         * @throws IOException if an I/O error occurs.
+         */
+        void putInt(final int value) throws IOException {
+            ensure(4);
+            mBuffer.putInt(value);
+        }
+
+        /**
+         * Writes a 64 bit floating point value.
+         *
+         * @param value value to be written.
+         * @throws IOException if an I/O error occurs.
+         */
+        void putDouble(final double value) throws IOException {
+            ensure(8);
+            mBuffer.putDouble(value);
+        }
+
+        /**
+         * Writes a UTF-8 string preceded by its length, or -1 if null.
+         *
+         * @param value value to be written.
+         * @throws IOException if an I/O error occurs.
+         */
+        void putString(final String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            put(bytes);
+        }
+
+        /**
+         * Writes all pending data into channel.
+         *
+         * @throws IOException if an I/O error occurs.
+         */
+        void flush() throws IOException {
+            mBuffer.flip();
+            while (mBuffer.hasRemaining()) {
+                mChannel.write(mBuffer);
+            }
+            mBuffer.clear();
+        }
+
+        /**
+         * Ensures that buffer has room for provided number of bytes, flushing it if
+         * needed.
+         *
+         * @param size number of bytes.
+         * @throws IOException if an I/O error occurs.
+         */
+        private void ensure(final int size) throws IOException {
+            if (mBuffer.remaining() < size) {
+                flush();
+            }
+        }
+    }
+}
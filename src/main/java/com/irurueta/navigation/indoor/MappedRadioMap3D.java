@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point3D;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Read-only radio map of 3D located RSSI fingerprints backed by a buffer
+ * containing them in compact binary format.
+ */
+public class MappedRadioMap3D extends MappedRadioMap<Point3D> {
+
+    /**
+     * Constructor.
+     *
+     * @param buffer buffer containing the radio map from its current position.
+     * @throws IllegalArgumentException if buffer is null.
+     * @throws IOException              if buffer does not contain a valid 3D radio
+     *                                  map.
+     */
+    public MappedRadioMap3D(final ByteBuffer buffer) throws IOException {
+        super(buffer, Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH);
+    }
+
+    /**
+     * Opens a radio map by memory mapping the whole content of provided file
+     * channel. Channel can be closed once radio map has been opened.
+     *
+     * @param channel channel of file containing the radio map.
+     * @return opened radio map.
+     * @throws IllegalArgumentException if channel is null.
+     * @throws IOException              if file does not contain a valid 3D radio
+     *                                  map or an I/O error occurs.
+     */
+    public static MappedRadioMap3D open(final FileChannel channel) throws IOException {
+        return new MappedRadioMap3D(map(channel));
+    }
+
+    /**
+     * Creates a point.
+     *
+     * @param coordinates array containing coordinates.
+     * @param offset      position of first coordinate within array.
+     * @return a new point.
+     */
+    @Override
+    protected Point3D createPosition(final double[] coordinates, final int offset) {
+        return new InhomogeneousPoint3D(coordinates[offset], coordinates[offset + 1],
+                coordinates[offset + 2]);
+    }
+
+    /**
+     * Creates a located fingerprint.
+     *
+     * @param readings readings of fingerprint.
+     * @param position position of fingerprint.
+     * @return a new fingerprint.
+     */
+    @Override
+    protected RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, Point3D> createFingerprint(
+            final List<RssiReading<RadioSource>> readings, final Point3D position) {
+        return new RssiFingerprintLocated3D<RadioSource, RssiReading<RadioSource>>(
+                readings, position);
+    }
+}
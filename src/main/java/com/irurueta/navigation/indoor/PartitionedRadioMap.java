@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable radio map whose fingerprints are partitioned into spatial cells (e.g.
+ * floors or zones of a building when using a cell size similar to the floor height)
+ * to find k-nearest fingerprints based on their signal euclidean distances (not
+ * their actual location) on large radio maps.
+ * Each partition is compiled into a {@link CompiledRadioMap}, and partitions are
+ * indexed by the strongest radio sources seen on each of their fingerprints.
+ * When querying a fingerprint, only partitions where any of the strongest radio
+ * sources of the query is also among the strongest ones of a fingerprint are
+ * searched, so that fingerprints on other floors, buildings or zones are not scored.
+ * Because pruned fingerprints are not scored, found fingerprints might differ from
+ * the ones found by {@link RadioSourceKNearestFinder} when nearest fingerprints in
+ * terms of signal distance do not share any strongest radio source with the query.
+ * If no partition matches the strongest radio sources of a query, all partitions
+ * are searched.
+ * Because this radio map is immutable, it can be safely queried from multiple
+ * threads.
+ *
+ * @param <P> a {@link Point} type.
+ * @param <S> a {@link RadioSource} type.
+ */
+public class PartitionedRadioMap<P extends Point<?>, S extends RadioSource> {
+
+    /**
+     * Default size of spatial cells expressed in meters.
+     */
+    public static final double DEFAULT_CELL_SIZE = 50.0;
+
+    /**
+     * Default number of strongest radio sources of each fingerprint used to index
+     * partitions and to select partitions of queries.
+     */
+    public static final int DEFAULT_NUMBER_OF_STRONGEST_SOURCES = 3;
+
+    /**
+     * Size of spatial cells expressed in meters.
+     */
+    private final double mCellSize;
+
+    /**
+     * Number of strongest radio sources of each fingerprint used to index partitions
+     * and to select partitions of queries.
+     */
+    private final int mNumStrongestSources;
+
+    /**
+     * Number of fingerprints contained in all partitions.
+     */
+    private final int mNumFingerprints;
+
+    /**
+     * Compiled radio map of each partition.
+     */
+    private final List<CompiledRadioMap<P, S>> mPartitions;
+
+    /**
+     * Maps each radio source to the positions of the partitions, sorted in ascending
+     * order, where such radio source is among the strongest ones of any fingerprint.
+     */
+    private final Map<S, int[]> mSourcePartitions;
+
+    /**
+     * Constructor using default cell size and number of strongest radio sources.
+     *
+     * @param fingerprints collection of fingerprints to be partitioned.
+     * @throws IllegalArgumentException if collection of fingerprints is null.
+     */
+    public PartitionedRadioMap(
+            final Collection<? extends RssiFingerprintLocated<S, RssiReading<S>, P>> fingerprints) {
+        this(fingerprints, DEFAULT_CELL_SIZE, DEFAULT_NUMBER_OF_STRONGEST_SOURCES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param fingerprints        collection of fingerprints to be partitioned.
+     * @param cellSize            size of spatial cells expressed in meters.
+     * @param numStrongestSources number of strongest radio sources of each fingerprint
+     *                            used to index partitions and to select partitions of
+     *                            queries.
+     * @throws IllegalArgumentException if collection of fingerprints is null, cell
+     *                                  size is not positive or number of strongest
+     *                                  radio sources is less than 1.
+     */
+    public PartitionedRadioMap(
+            final Collection<? extends RssiFingerprintLocated<S, RssiReading<S>, P>> fingerprints,
+            final double cellSize, final int numStrongestSources) {
+        if (fingerprints == null || cellSize <= 0.0 || numStrongestSources < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mCellSize = cellSize;
+        mNumStrongestSources = numStrongestSources;
+        mNumFingerprints = fingerprints.size();
+
+        // group fingerprints by cell keeping their order
+        final Map<Cell, List<RssiFingerprintLocated<S, RssiReading<S>, P>>> cells =
+                new LinkedHashMap<>();
+        for (final RssiFingerprintLocated<S, RssiReading<S>, P> fingerprint : fingerprints) {
+            final Cell cell = new Cell(fingerprint.getPosition(), cellSize);
+            List<RssiFingerprintLocated<S, RssiReading<S>, P>> list = cells.get(cell);
+            if (list == null) {
+                list = new ArrayList<>();
+                cells.put(cell, list);
+            }
+            list.add(fingerprint);
+        }
+
+        final List<CompiledRadioMap<P, S>> partitions = new ArrayList<>();
+        final Map<S, List<Integer>> sourcePartitions = new HashMap<>();
+        final List<S> strongestSources = new ArrayList<>();
+        for (final List<RssiFingerprintLocated<S, RssiReading<S>, P>> list : cells.values()) {
+            final int partition = partitions.size();
+            partitions.add(new CompiledRadioMap<>(list));
+
+            for (final RssiFingerprintLocated<S, RssiReading<S>, P> fingerprint : list) {
+                findStrongestSources(fingerprint, numStrongestSources, strongestSources);
+                for (final S source : strongestSources) {
+                    List<Integer> sourceList = sourcePartitions.get(source);
+                    if (sourceList == null) {
+                        sourceList = new ArrayList<>();
+                        sourcePartitions.put(source, sourceList);
+                    }
+                    if (sourceList.isEmpty() ||
+                            sourceList.get(sourceList.size() - 1) != partition) {
+                        sourceList.add(partition);
+                    }
+                }
+            }
+        }
+        mPartitions = Collections.unmodifiableList(partitions);
+
+        mSourcePartitions = new HashMap<>();
+        for (final Map.Entry<S, List<Integer>> entry : sourcePartitions.entrySet()) {
+            final List<Integer> list = entry.getValue();
+            final int[] positions = new int[list.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = list.get(i);
+            }
+            mSourcePartitions.put(entry.getKey(), positions);
+        }
+    }
+
+    /**
+     * Gets size of spatial cells expressed in meters.
+     *
+     * @return size of spatial cells.
+     */
+    public double getCellSize() {
+        return mCellSize;
+    }
+
+    /**
+     * Gets number of strongest radio sources of each fingerprint used to index
+     * partitions and to select partitions of queries.
+     *
+     * @return number of strongest radio sources.
+     */
+    public int getNumberOfStrongestSources() {
+        return mNumStrongestSources;
+    }
+
+    /**
+     * Gets number of fingerprints contained in all partitions.
+     *
+     * @return number of fingerprints.
+     */
+    public int getNumberOfFingerprints() {
+        return mNumFingerprints;
+    }
+
+    /**
+     * Gets compiled radio maps of partitions, in order of appearance of their first
+     * fingerprint in the collection used to build this radio map.
+     *
+     * @return compiled radio maps of partitions.
+     */
+    public List<CompiledRadioMap<P, S>> getPartitions() {
+        return mPartitions;
+    }
+
+    /**
+     * Gets number of partitions.
+     *
+     * @return number of partitions.
+     */
+    public int getNumberOfPartitions() {
+        return mPartitions.size();
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one, in terms of signal euclidean
+     * distances, within partitions matching its strongest radio sources.
+     *
+     * @param fingerprint fingerprint to find the k-nearest ones to.
+     * @param k           number of nearest fingerprints to find.
+     * @return nearest fingerprints ordered from closest to farthest or an empty list if
+     * none could be found.
+     * @throws IllegalArgumentException if fingerprint is null or k is less than 1.
+     */
+    public List<RssiFingerprintLocated<S, RssiReading<S>, P>> findKNearestTo(
+            final RssiFingerprint<S, RssiReading<S>> fingerprint, final int k) {
+        final List<RssiFingerprintLocated<S, RssiReading<S>, P>> result =
+                new ArrayList<>();
+        final List<Double> nearestSqrDistances = new ArrayList<>();
+        findKNearestTo(fingerprint, k, result, nearestSqrDistances);
+        return result;
+    }
+
+    /**
+     * Finds k-nearest fingerprints to provided one, in terms of signal euclidean
+     * distances, within partitions matching its strongest radio sources.
+     *
+     * @param fingerprint         fingerprint to find the k-nearest ones to.
+     * @param k                   number of nearest fingerprints to find.
+     * @param nearestFingerprints list where found nearest fingerprints will be stored
+     *                            ordered from closest to farthest or an empty list if
+     *                            none could be found.
+     * @param nearestSqrDistances list where squared signal euclidean distances
+     *                            corresponding to found fingerprints will be stored or
+     *                            an empty list if no fingerprint is found.
+     * @return pruning ratio, which is the ratio of fingerprints contained in pruned
+     * partitions respect to the total number of fingerprints. It is a value between
+     * 0.0 (no fingerprint was pruned) and 1.0.
+     * @throws IllegalArgumentException if any parameter is null or k is less than 1.
+     */
+    public double findKNearestTo(
+            final RssiFingerprint<S, RssiReading<S>> fingerprint,
+            final int k,
+            final List<RssiFingerprintLocated<S, RssiReading<S>, P>> nearestFingerprints,
+            final List<Double> nearestSqrDistances) {
+        if (fingerprint == null || k < 1 || nearestFingerprints == null ||
+                nearestSqrDistances == null) {
+            throw new IllegalArgumentException();
+        }
+
+        nearestFingerprints.clear();
+        nearestSqrDistances.clear();
+
+        final int numPartitions = mPartitions.size();
+        if (numPartitions == 0) {
+            return 0.0;
+        }
+
+        // select partitions containing any of the strongest sources of fingerprint
+        final List<S> strongestSources = new ArrayList<>();
+        findStrongestSources(fingerprint, mNumStrongestSources, strongestSources);
+
+        final boolean[] selected = new boolean[numPartitions];
+        int numSelected = 0;
+        for (final S source : strongestSources) {
+            final int[] positions = mSourcePartitions.get(source);
+            if (positions == null) {
+                continue;
+            }
+            for (final int position : positions) {
+                if (!selected[position]) {
+                    selected[position] = true;
+                    numSelected++;
+                }
+            }
+        }
+
+        if (numSelected == 0) {
+            // no partition matches, hence all of them are searched
+            Arrays.fill(selected, true);
+            numSelected = numPartitions;
+        }
+
+        // find k-nearest fingerprints on each selected partition
+        final List<List<RssiFingerprintLocated<S, RssiReading<S>, P>>> partitionFingerprints =
+                new ArrayList<>(numSelected);
+        final List<List<Double>> partitionSqrDistances = new ArrayList<>(numSelected);
+        int numScored = 0;
+        for (int i = 0; i < numPartitions; i++) {
+            if (!selected[i]) {
+                continue;
+            }
+
+            final CompiledRadioMap<P, S> partition = mPartitions.get(i);
+            final List<RssiFingerprintLocated<S, RssiReading<S>, P>> fingerprints =
+                    new ArrayList<>();
+            final List<Double> sqrDistances = new ArrayList<>();
+            partition.findKNearestTo(fingerprint, k, fingerprints, sqrDistances);
+            partitionFingerprints.add(fingerprints);
+            partitionSqrDistances.add(sqrDistances);
+            numScored += partition.getNumberOfFingerprints();
+        }
+
+        // merge sorted results of partitions, resolving ties by partition order
+        final int[] heads = new int[numSelected];
+        while (nearestFingerprints.size() < k) {
+            int best = -1;
+            double bestSqrDist = Double.MAX_VALUE;
+            for (int i = 0; i < numSelected; i++) {
+                final List<Double> sqrDistances = partitionSqrDistances.get(i);
+                if (heads[i] >= sqrDistances.size()) {
+                    continue;
+                }
+                final double sqrDist = sqrDistances.get(heads[i]);
+                if (best < 0 || sqrDist < bestSqrDist) {
+                    best = i;
+                    bestSqrDist = sqrDist;
+                }
+            }
+
+            if (best < 0) {
+                break;
+            }
+
+            nearestFingerprints.add(partitionFingerprints.get(best).get(heads[best]));
+            nearestSqrDistances.add(bestSqrDist);
+            heads[best]++;
+        }
+
+        return mNumFingerprints > 0 ?
+                1.0 - (double) numScored / (double) mNumFingerprints : 0.0;
+    }
+
+    /**
+     * Finds radio sources of the strongest readings of provided fingerprint.
+     *
+     * @param fingerprint         fingerprint to be checked.
+     * @param numStrongestSources maximum number of radio sources to find.
+     * @param result              list where radio sources will be stored ordered from
+     *                            strongest to weakest.
+     * @param <S>                 a {@link RadioSource} type.
+     */
+    private static <S extends RadioSource> void findStrongestSources(
+            final RssiFingerprint<S, RssiReading<S>> fingerprint,
+            final int numStrongestSources, final List<S> result) {
+        result.clear();
+
+        final List<RssiReading<S>> readings = fingerprint.getReadings();
+        final int numReadings = readings.size();
+        final double[] rssis = new double[numStrongestSources];
+        for (int i = 0; i < numReadings; i++) {
+            final RssiReading<S> reading = readings.get(i);
+            final S source = reading.getSource();
+            final double rssi = reading.getRssi();
+
+            // keep only the strongest reading of each source
+            final int existing = result.indexOf(source);
+            if (existing >= 0) {
+                if (rssi <= rssis[existing]) {
+                    continue;
+                }
+                result.remove(existing);
+                System.arraycopy(rssis, existing + 1, rssis, existing,
+                        result.size() - existing);
+            } else if (result.size() == numStrongestSources &&
+                    rssi <= rssis[numStrongestSources - 1]) {
+                continue;
+            } else if (result.size() == numStrongestSources) {
+                result.remove(numStrongestSources - 1);
+            }
+
+            // insert keeping descending order of RSSI
+            int pos = result.size();
+            while (pos > 0 && rssis[pos - 1] < rssi) {
+                rssis[pos] = rssis[pos - 1];
+                pos--;
+            }
+            rssis[pos] = rssi;
+            result.add(pos, source);
+        }
+    }
+
+    /**
+     * Spatial cell containing a position.
+     */
+    private static final class Cell {
+
+        /**
+         * Indices of cell along each dimension.
+         */
+        private final long[] mIndices;
+
+        /**
+         * Constructor.
+         *
+         * @param position position contained in cell.
+         * @param cellSize size of cells expressed in meters.
+         */
+        Cell(final Point<?> position, final double cellSize) {
+            final int dims = position.getDimensions();
+            mIndices = new long[dims];
+            for (int i = 0; i < dims; i++) {
+                mIndices[i] = (long) Math.floor(
+                        position.getInhomogeneousCoordinate(i) / cellSize);
+            }
+        }
+
+        /**
+         * Determines whether this cell is equal to provided object.
+         *
+         * @param o object to compare.
+         * @return true if both are equal, false otherwise.
+         */
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Cell)) {
+                return false;
+            }
+            return Arrays.equals(mIndices, ((Cell) o).mIndices);
+        }
+
+        /**
+         * Computes hash code of this cell.
+         *
+         * @return hash code.
+         */
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(mIndices);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns radio sources to consecutive integer indices, so that radio sources
+ * can be compared and looked up using their index instead of calling
+ * {@link RadioSource#equals(Object)}.
+ * Radio sources considered equal (i.e. having the same identifiers) are assigned
+ * the same index.
+ * This class is not thread-safe while new radio sources are being added, but it
+ * can be safely shared among threads once all radio sources have been added.
+ *
+ * @param <S> a {@link RadioSource} type.
+ */
+public class RadioSourceIndex<S extends RadioSource> {
+
+    /**
+     * Interned radio sources, where position in the list is the index of each
+     * radio source.
+     */
+    private final List<S> mSources = new ArrayList<>();
+
+    /**
+     * Maps each radio source to its index.
+     */
+    private final Map<S, Integer> mIndices = new HashMap<>();
+
+    /**
+     * Constructor.
+     */
+    public RadioSourceIndex() {
+    }
+
+    /**
+     * Constructor.
+     * Radio sources are assigned indices in iteration order, so that index of each
+     * radio source matches its position within provided collection when it
+     * contains no repeated radio sources.
+     *
+     * @param sources radio sources to be added.
+     * @throws IllegalArgumentException if provided collection is null.
+     */
+    public RadioSourceIndex(final Collection<? extends S> sources) {
+        if (sources == null) {
+            throw new IllegalArgumentException();
+        }
+        for (final S source : sources) {
+            add(source);
+        }
+    }
+
+    /**
+     * Adds provided radio source if not already contained and returns its index.
+     *
+     * @param source radio source to be added.
+     * @return index of radio source.
+     * @throws IllegalArgumentException if provided radio source is null.
+     */
+    public int add(final S source) {
+        if (source == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final Integer index = mIndices.get(source);
+        if (index != null) {
+            return index;
+        }
+
+        final int result = mSources.size();
+        mSources.add(source);
+        mIndices.put(source, result);
+        return result;
+    }
+
+    /**
+     * Gets index of provided radio source.
+     *
+     * @param source radio source to look for.
+     * @return index of radio source or -1 if not contained.
+     */
+    public int indexOf(final S source) {
+        final Integer index = source != null ? mIndices.get(source) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Indicates whether provided radio source is contained.
+     *
+     * @param source radio source to look for.
+     * @return true if radio source is contained, false otherwise.
+     */
+    public boolean contains(final S source) {
+        return indexOf(source) >= 0;
+    }
+
+    /**
+     * Gets radio source having provided index.
+     *
+     * @param index index of radio source.
+     * @return radio source.
+     * @throws IndexOutOfBoundsException if index is not valid.
+     */
+    public S getSource(final int index) {
+        return mSources.get(index);
+    }
+
+    /**
+     * Gets contained radio sources sorted by their index.
+     *
+     * @return contained radio sources.
+     */
+    public List<S> getSources() {
+        return Collections.unmodifiableList(mSources);
+    }
+
+    /**
+     * Gets number of contained radio sources.
+     *
+     * @return number of contained radio sources.
+     */
+    public int size() {
+        return mSources.size();
+    }
+}
@@ -104,6 +104,38 @@ public class RadioSourceKNearestFinder<P extends Point<?>, S extends RadioSource
         return mFingerprints;
     }
 
+    /**
+     * Compiles collection of fingerprints to match against into an immutable radio map
+     * that finds the same nearest fingerprints without scanning the whole collection.
+     * Compiled radio map does not reflect further changes in the collection of
+     * fingerprints.
+     *
+     * @return compiled radio map.
+     */
+    public CompiledRadioMap<P, S> compile() {
+        return new CompiledRadioMap<>(mFingerprints);
+    }
+
+    /**
+     * Partitions collection of fingerprints to match against into spatial cells
+     * indexed by their strongest radio sources, so that queries only score
+     * fingerprints of partitions sharing strongest radio sources with them.
+     * Partitioned radio map does not reflect further changes in the collection of
+     * fingerprints.
+     *
+     * @param cellSize            size of spatial cells expressed in meters.
+     * @param numStrongestSources number of strongest radio sources of each fingerprint
+     *                            used to index partitions and to select partitions of
+     *                            queries.
+     * @return partitioned radio map.
+     * @throws IllegalArgumentException if cell size is not positive or number of
+     *                                  strongest radio sources is less than 1.
+     */
+    public PartitionedRadioMap<P, S> partition(final double cellSize,
+                                               final int numStrongestSources) {
+        return new PartitionedRadioMap<>(mFingerprints, cellSize, numStrongestSources);
+    }
+
     /**
      * Finds nearest fingerprint to provided one, in terms of signal euclidean distances, within the collection of
      * provided fingerprints.
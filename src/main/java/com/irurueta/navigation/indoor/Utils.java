@@ -20,9 +20,6 @@ import com.irurueta.algebra.Matrix;
 import com.irurueta.geometry.Point2D;
 import com.irurueta.geometry.Point3D;
 import com.irurueta.navigation.indoor.radiosource.RssiRadioSourceEstimator;
-import com.irurueta.numerical.EvaluationException;
-import com.irurueta.numerical.JacobianEstimator;
-import com.irurueta.numerical.MultiVariateFunctionEvaluatorListener;
 import com.irurueta.statistics.MultivariateNormalDist;
 import com.irurueta.statistics.StatisticsException;
 
@@ -326,145 +323,8 @@ public class Utils {
                 @Override
                 public void evaluate(
                         final double[] x, final double[] y, final Matrix jacobian) {
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2
-
-                    //Hence:
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-
-                    final double diffX1a = x1 - xa;
-                    final double diffY1a = y1 - ya;
-
-                    final double diffXi1 = xi - x1;
-                    final double diffYi1 = yi - y1;
-
-                    final double diffX1a2 = diffX1a * diffX1a;
-                    final double diffY1a2 = diffY1a * diffY1a;
-
-                    final double d1a2 = diffX1a2 + diffY1a2;
-                    final double d1a4 = d1a2 * d1a2;
-
-                    final double ln10 = Math.log(10.0);
-                    final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1;
-
-                    y[0] = fingerprintRssi
-                            - 10.0 * pathLossExponent * crossDiff / (ln10 * d1a2);
-
-                    //compute gradient (is a jacobian having 1 row and 8 columns)
-
-
-                    //derivative of rssi respect to fingerprint rssi
-                    final double derivativeFingerprintRssi = 1.0;
-
-                    //derivative of rssi respect to path-loss exponent
-
-                    //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  -10*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    final double derivativePathLossExponent = -10.0 * crossDiff /
-                            (ln10 * d1a2);
-
-
-                    //derivative of rssi respect to x1
-
-                    //We have
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-
-                    //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
-                    //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
-
-                    //Hence
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(x1) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
-                    //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
-                    //  -2*x1 + xi + xa
-
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
-                    final double tmpX = 2.0 * crossDiff * diffX1a;
-                    final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * x1 + xi + xa) * d1a2
-                            - tmpX) / d1a4;
-
-                    //derivative of rssi respect to y1
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(y1) =
-                    //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(y1) =
-                    //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
-                    //  -2*y1 + yi + ya
-
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
-                    final double tmpY = 2.0 * crossDiff * diffY1a;
-                    final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2
-                            - tmpY) / d1a4;
-
-
-                    //derivative of rssi respect to xa
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xa) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xa) =
-                    //  x1 - xi
-
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*((x1 - xi)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
-                    final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2
-                            + tmpX) / d1a4;
-
-
-                    //derivative of rssi respect to ya
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(ya) =
-                    //  diff(y1*yi -y1^2 -ya*yi + ya*y1)/diff(ya) =
-                    //  y1 - yi
-
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*((y1 - yi)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
-                    final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2
-                            + tmpY) / d1a4;
-
-
-                    //derivative of rssi respect to xi
-
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xi) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xi) =
-                    //  x1 - xa
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/(x1 - xa)^2 + (y1 - ya)^2)^2
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*d1a^2)/d1a^4
-                    //diff(Pr(pi))/diff(xi) = -10*n*(x1 - xa)/(ln(10)*d1a^2)
-                    final double derivativeXi = -10.0 * pathLossExponent * diffX1a / (ln10 * d1a2);
-
-
-                    //derivative of rssi respect to yi
-
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(yi) =
-                    //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(yi) =
-                    //  y1 - ya
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*d1a^2)/d1a^4
-                    //diff(Pr(pi))/diff(yi) = -10*n*(y1 - ya)/(ln(10)*d1a^2)
-                    final double derivativeYi = -10.0 * pathLossExponent * diffY1a / (ln10 * d1a2);
-
-                    //set derivatives fingerprintRssi, pathLossExponent, x1, y1, xa, ya, xi, yi
-                    jacobian.setElementAtIndex(0, derivativeFingerprintRssi);
-                    jacobian.setElementAtIndex(1, derivativePathLossExponent);
-                    jacobian.setElementAtIndex(2, derivativeX1);
-                    jacobian.setElementAtIndex(3, derivativeY1);
-                    jacobian.setElementAtIndex(4, derivativeXa);
-                    jacobian.setElementAtIndex(5, derivativeYa);
-                    jacobian.setElementAtIndex(6, derivativeXi);
-                    jacobian.setElementAtIndex(7, derivativeYi);
+                    y[0] = evaluateRssiFirstOrderNonLinear2D(fingerprintRssi, pathLossExponent,
+                            x1, y1, xa, ya, xi, yi, jacobian.getBuffer());
                 }
 
                 @Override
@@ -477,6 +337,68 @@ public class Utils {
         }
     }
 
+    /**
+     * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
+     * fingerprint position covariance and radio source position covariance) into
+     * rssi variance by considering the 2D 1st order Taylor expression of received power.
+     * Notice that any unknown variance is assumed to be zero.
+     * This method does not allocate any memory, hence it is suitable to be called for
+     * each reading on every iteration of a non linear algorithm.
+     *
+     * @param fingerprintRssi               closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent              path-loss exponent.
+     * @param fingerprintPosition           position of closest fingerprint.
+     * @param radioSourcePosition           radio source position associated to fingerprint reading.
+     * @param estimatedPosition             position to be estimated. Usually this is equal to the
+     *                                      initial position used by a non linear algorithm.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown. (This is usually unknown).
+     * @param gradient                      array where gradient of received power respect to
+     *                                      fingerprint RSSI, path-loss exponent, fingerprint
+     *                                      position, radio source position and estimated
+     *                                      position will be stored. Must have length 8.
+     * @param result                        array where expected received RSSI value and its
+     *                                      variance will be stored. Must have length 2.
+     * @return true if result has been computed, false if any position is not provided.
+     * @throws IllegalArgumentException if gradient or result do not have proper length.
+     */
+    public static boolean propagateVariancesToRssiVarianceFirstOrderNonLinear2D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final Point2D fingerprintPosition, final Point2D radioSourcePosition,
+            final Point2D estimatedPosition,
+            final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance,
+            final double[] gradient, final double[] result) {
+        if (gradient.length != 8 || result.length != 2) {
+            throw new IllegalArgumentException();
+        }
+
+        if (fingerprintPosition == null || radioSourcePosition == null ||
+                estimatedPosition == null) {
+            return false;
+        }
+
+        result[0] = evaluateRssiFirstOrderNonLinear2D(fingerprintRssi, pathLossExponent,
+                fingerprintPosition.getInhomX(), fingerprintPosition.getInhomY(),
+                radioSourcePosition.getInhomX(), radioSourcePosition.getInhomY(),
+                estimatedPosition.getInhomX(), estimatedPosition.getInhomY(),
+                gradient);
+        result[1] = propagateRssiVariance(gradient, fingerprintRssiVariance,
+                pathLossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, estimatedPositionCovariance,
+                Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH);
+        return true;
+    }
+
     /**
      * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
      * fingerprint position covariance and radio source position covariance) into
@@ -573,194 +495,8 @@ public class Utils {
                 @Override
                 public void evaluate(
                         final double[] x, final double[] y, final Matrix jacobian) {
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    //  - 10*n*(z1 - za)/(ln(10)*d1a^2)*(zi - z1)
-                    //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2
-
-                    //Hence:
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-
-                    final double diffX1a = x1 - xa;
-                    final double diffY1a = y1 - ya;
-                    final double diffZ1a = z1 - za;
-
-                    final double diffXi1 = xi - x1;
-                    final double diffYi1 = yi - y1;
-                    final double diffZi1 = zi - z1;
-
-                    final double diffX1a2 = diffX1a * diffX1a;
-                    final double diffY1a2 = diffY1a * diffY1a;
-                    final double diffZ1a2 = diffZ1a * diffZ1a;
-
-                    final double d1a2 = diffX1a2 + diffY1a2 + diffZ1a2;
-                    final double d1a4 = d1a2 * d1a2;
-
-                    final double ln10 = Math.log(10.0);
-                    final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1 + diffZ1a * diffZi1;
-
-                    y[0] = fingerprintRssi
-                            - 10.0 * pathLossExponent * crossDiff / (ln10 * d1a2);
-
-                    //compute gradient (is a jacobian having 1 row and 11 columns)
-
-
-                    //derivative of rssi respect to fingerprint rssi
-                    final double derivativeFingerprintRssi = 1.0;
-
-                    //derivative of rssi respect to path-loss exponent
-
-                    //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  -10*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    final double derivativePathLossExponent = -10.0 * crossDiff /
-                            (ln10 * d1a2);
-
-
-                    //derivative of rssi respect to x1
-
-                    //We have
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-
-                    //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
-                    //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
-
-                    //Hence
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(x1) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
-                    //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
-                    //  -2*x1 + xi + xa
-
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/d1a^4
-                    final double tmpX = 2.0 * crossDiff * diffX1a;
-                    final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * x1 + xi + xa) * d1a2
-                            - tmpX) / d1a4;
-
-
-                    //derivative of rssi respect to y1
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(y1) =
-                    //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(y1) =
-                    //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
-                    //  -2*y1 + yi + ya
-
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/d1a^4
-                    final double tmpY = 2.0 * crossDiff * diffY1a;
-                    final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2
-                            - tmpY) / d1a4;
-
-
-                    //derivative of rssi respect to z1
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(z1) =
-                    //  diff(z1*zi -za*zi -z1^2 + za*z1)/diff(z1) =
-                    //  diff(-z1^2 + (zi + za)*z1 - za*zi)/diff(z1) =
-                    //  -2*z1 + zi + za
-
-                    //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/d1a^4
-                    final double tmpZ = 2.0 * crossDiff * diffZ1a;
-                    final double derivativeZ1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * z1 + z1 + za) * d1a2
-                            - tmpZ) / d1a4;
-
-
-                    //derivative of rssi respect to xa
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(xa) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xa) =
-                    //  x1 - xi
-
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*((x1 - xi)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/d1a^4
-                    final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2
-                            + tmpX) / d1a4;
-
-
-                    //derivative of rssi respect to ya
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(ya) =
-                    //  diff(y1*yi -y1^2 -ya*yi + ya*y1)/diff(ya) =
-                    //  y1 - yi
-
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*((y1 - yi)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/d1a^4
-                    final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2
-                            + tmpY) / d1a4;
-
-
-                    //derivative of rssi respect to za
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(za) =
-                    //  diff(z1*zi -z1^2 -za*zi + za*z1)/diff(za) =
-                    //  z1 - zi
-
-                    //diff(Pr(pi))/diff(za) = -10*n/ln(10)*((z1 - zi)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(za) = -10*n/ln(10)*(-(zi - z1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/d1a^4
-                    final double derivativeZa = -10.0 * pathLossExponent / ln10 * (-diffZi1 * d1a2 +
-                            +tmpZ) / d1a4;
-
-
-                    //derivative of rssi respect to xi
-
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(xi) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xi) =
-                    //  x1 - xa
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*d1a^2)/d1a^4
-                    //diff(Pr(pi))/diff(xi) = -10*n*(x1 - xa)/(ln(10)*d1a^2)
-                    final double derivativeXi = -10.0 * pathLossExponent * diffX1a / (ln10 * d1a2);
-
-
-                    //derivative of rssi respect to yi
-
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(yi) =
-                    //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(yi) =
-                    //  y1 - ya
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*d1a^2)/d1a^4
-                    //diff(Pr(pi))/diff(yi) = -10*n*(y1 - ya)/(ln(10)*d1a^2)
-                    final double derivativeYi = -10.0 * pathLossExponent * diffY1a / (ln10 * d1a2);
-
-
-                    //derivative of rssi respect to zi
-
-                    //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
-                    //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(zi) =
-                    //  diff(z1*zi -za*zi -z1^2 + za*z1)/diff(zi) =
-                    //  z1 - za
-
-                    //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*d1a^2)/d1a^4
-                    //diff(Pr(pi))/diff(zi) = -10*n*(z1 - za)/(ln(10*d1a^2)
-                    final double derivativeZi = -10.0 * pathLossExponent * diffZ1a / (ln10 * d1a2);
-
-                    //set derivatives fingerprintRssi, pathLossExponent, x1, y1, z1, xa, ya, za, xi, yi, zi
-                    jacobian.setElementAtIndex(0, derivativeFingerprintRssi);
-                    jacobian.setElementAtIndex(1, derivativePathLossExponent);
-                    jacobian.setElementAtIndex(2, derivativeX1);
-                    jacobian.setElementAtIndex(3, derivativeY1);
-                    jacobian.setElementAtIndex(4, derivativeZ1);
-                    jacobian.setElementAtIndex(5, derivativeXa);
-                    jacobian.setElementAtIndex(6, derivativeYa);
-                    jacobian.setElementAtIndex(7, derivativeZa);
-                    jacobian.setElementAtIndex(8, derivativeXi);
-                    jacobian.setElementAtIndex(9, derivativeYi);
-                    jacobian.setElementAtIndex(10, derivativeZi);
+                    y[0] = evaluateRssiFirstOrderNonLinear3D(fingerprintRssi, pathLossExponent,
+                            x1, y1, z1, xa, ya, za, xi, yi, zi, jacobian.getBuffer());
                 }
 
                 @Override
@@ -773,6 +509,71 @@ public class Utils {
         }
     }
 
+    /**
+     * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
+     * fingerprint position covariance and radio source position covariance) into
+     * rssi variance by considering the 3D 1st order Taylor expression of received power.
+     * Notice that any unknown variance is assumed to be zero.
+     * This method does not allocate any memory, hence it is suitable to be called for
+     * each reading on every iteration of a non linear algorithm.
+     *
+     * @param fingerprintRssi               closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent              path-loss exponent.
+     * @param fingerprintPosition           position of closest fingerprint.
+     * @param radioSourcePosition           radio source position associated to fingerprint reading.
+     * @param estimatedPosition             position to be estimated. Usually this is equal to the
+     *                                      initial position used by a non linear algorithm.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown. (This is usually unknown).
+     * @param gradient                      array where gradient of received power respect to
+     *                                      fingerprint RSSI, path-loss exponent, fingerprint
+     *                                      position, radio source position and estimated
+     *                                      position will be stored. Must have length 11.
+     * @param result                        array where expected received RSSI value and its
+     *                                      variance will be stored. Must have length 2.
+     * @return true if result has been computed, false if any position is not provided.
+     * @throws IllegalArgumentException if gradient or result do not have proper length.
+     */
+    public static boolean propagateVariancesToRssiVarianceFirstOrderNonLinear3D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final Point3D fingerprintPosition, final Point3D radioSourcePosition,
+            final Point3D estimatedPosition,
+            final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance,
+            final double[] gradient, final double[] result) {
+        if (gradient.length != 11 || result.length != 2) {
+            throw new IllegalArgumentException();
+        }
+
+        if (fingerprintPosition == null || radioSourcePosition == null ||
+                estimatedPosition == null) {
+            return false;
+        }
+
+        result[0] = evaluateRssiFirstOrderNonLinear3D(fingerprintRssi, pathLossExponent,
+                fingerprintPosition.getInhomX(), fingerprintPosition.getInhomY(),
+                fingerprintPosition.getInhomZ(),
+                radioSourcePosition.getInhomX(), radioSourcePosition.getInhomY(),
+                radioSourcePosition.getInhomZ(),
+                estimatedPosition.getInhomX(), estimatedPosition.getInhomY(),
+                estimatedPosition.getInhomZ(),
+                gradient);
+        result[1] = propagateRssiVariance(gradient, fingerprintRssiVariance,
+                pathLossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, estimatedPositionCovariance,
+                Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH);
+        return true;
+    }
+
     /**
      * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
      * fingerprint position covariance and radio source position covariance) into
@@ -867,315 +668,81 @@ public class Utils {
                 @Override
                 public void evaluate(
                         final double[] x, final double[] y, final Matrix jacobian) {
+                    y[0] = evaluateRssiSecondOrderNonLinear2D(fingerprintRssi, pathLossExponent,
+                            x1, y1, xa, ya, xi, yi, jacobian.getBuffer());
+                }
 
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2
-                    //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*d1a^4)*(yi - y1)^2
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4))*(xi - x1)*(yi - y1)
-                    //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2
-
-                    //Hence:
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
-                    //  - 10*n*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
-                    //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
-                    //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    final double diffX1a = x1 - xa;
-                    final double diffY1a = y1 - ya;
-
-                    final double diffXi1 = xi - x1;
-                    final double diffYi1 = yi - y1;
-
-                    final double diffX1a2 = diffX1a * diffX1a;
-                    final double diffY1a2 = diffY1a * diffY1a;
-
-                    final double diffXi12 = diffXi1 * diffXi1;
-                    final double diffYi12 = diffYi1 * diffYi1;
-
-                    final double d1a2 = diffX1a2 + diffY1a2;
-                    final double d1a4 = d1a2 * d1a2;
-                    final double d1a8 = d1a4 * d1a4;
-
-                    final double ln10 = Math.log(10.0);
-
-                    y[0] = fingerprintRssi
-                            - 10.0 * pathLossExponent * diffX1a / (ln10 * d1a2) * diffXi1
-                            - 10.0 * pathLossExponent * diffY1a / (ln10 * d1a2) * diffYi1
-                            - 5.0 * pathLossExponent * (-diffX1a2 + diffY1a2) / (ln10 * d1a4) * diffXi12
-                            - 5.0 * pathLossExponent * (diffX1a2 - diffY1a2) / (ln10 * d1a4) * diffYi12
-                            + 20.0 * pathLossExponent * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1;
-
-                    //compute gradient (is a jacobian having 1 row and 8 columns)
-
-
-                    //derivative of rssi respect to fingerprint rssi
-                    final double derivativeFingerprintRssi = 1.0;
-
-                    //derivative of rssi respect to path-loss exponent
-
-                    //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
-                    //  -10*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
-                    //  -5*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
-                    //  -5*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
-                    //  +20*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-                    final double derivativePathLossExponent = -10.0 * diffX1a / (ln10 * d1a2) * diffXi1
-                            - 10.0 * diffY1a / (ln10 * d1a2) * diffYi1
-                            - 5.0 * (-diffX1a2 + diffY1a2) / (ln10 * d1a4) * diffXi12
-                            - 5.0 * (diffX1a2 - diffY1a2) / (ln10 * d1a4) * diffYi12
-                            + 20.0 * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1;
+                @Override
+                public int getNumberOfVariables() {
+                    return 1;
+                }
+            }, mean, covariance);
+        } catch (final AlgebraException | StatisticsException e) {
+            throw new IndoorException(e);
+        }
+    }
 
+    /**
+     * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
+     * fingerprint position covariance and radio source position covariance) into
+     * rssi variance by considering the 2D 2nd order Taylor expression of received power.
+     * Notice that any unknown variance is assumed to be zero.
+     * This method does not allocate any memory, hence it is suitable to be called for
+     * each reading on every iteration of a non linear algorithm.
+     *
+     * @param fingerprintRssi               closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent              path-loss exponent.
+     * @param fingerprintPosition           position of closest fingerprint.
+     * @param radioSourcePosition           radio source position associated to fingerprint reading.
+     * @param estimatedPosition             position to be estimated. Usually this is equal to the
+     *                                      initial position used by a non linear algorithm.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown. (This is usually unknown).
+     * @param gradient                      array where gradient of received power respect to
+     *                                      fingerprint RSSI, path-loss exponent, fingerprint
+     *                                      position, radio source position and estimated
+     *                                      position will be stored. Must have length 8.
+     * @param result                        array where expected received RSSI value and its
+     *                                      variance will be stored. Must have length 2.
+     * @return true if result has been computed, false if any position is not provided.
+     * @throws IllegalArgumentException if gradient or result do not have proper length.
+     */
+    public static boolean propagateVariancesToRssiVarianceSecondOrderNonLinear2D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final Point2D fingerprintPosition, final Point2D radioSourcePosition,
+            final Point2D estimatedPosition,
+            final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance,
+            final double[] gradient, final double[] result) {
+        if (gradient.length != 8 || result.length != 2) {
+            throw new IllegalArgumentException();
+        }
 
-                    //derivative of rssi respect to x1
+        if (fingerprintPosition == null || radioSourcePosition == null ||
+                estimatedPosition == null) {
+            return false;
+        }
 
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
-                    //  - 10*n*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
-                    //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
-                    //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-                    //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-
-                    //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
-                    //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
-
-                    //Hence
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(x1) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
-                    //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
-                    //  -2*x1 + xi + xa
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(x1) =
-                    //  2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2) - 2*(xi - x1)*((x1 - xa)^2 - (y1 - ya)^2)
-
-                    //diff((x1 - xa)*(y1 - ya))/diff(x1) =
-                    //  y1 - ya
-
-                    //diff((xi - x1)*(yi - y1))/diff(x1) =
-                    // -(yi - y1)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(x1) =
-                    //  (y1 - ya)*(xi - x1)*(yi - y1) - (x1 - xa)*(y1 - ya)*(yi - y1) =
-                    //  ((y1 - ya)*(xi - x1) - (x1 - xa)*(y1 - ya))*(yi - y1)
-
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //  + 5*n/ln(10)*(2*((x1 - xa)*((xi - x1)^2 - (yi - y1)^2) - (xi - x1)*((x1 - xa)^2 - (y1 - ya)^2))*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
-                    //  + 20*n/ln(10)*(((y1 - ya)*(xi - x1) - (x1 - xa)*(y1 - ya))*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
-
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
-                    //  + 5*n/ln(10)*(2*((x1 - xa)*((xi - x1)^2 - (yi - y1)^2) - (xi - x1)*((x1 - xa)^2 - (y1 - ya)^2))*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))*4*d1a^2*(x1 - xa))/d1a^8
-                    //  + 20*n/ln(10)*(((y1 - ya)*(xi - x1) - (x1 - xa)*(y1 - ya))*(yi - y1)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
-                    final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1;
-                    final double tmpX = crossDiff * 2.0 * diffX1a;
-                    final double tmpX2 = (diffX1a2 - diffY1a2) * (diffXi12 - diffYi12) * 4.0 * d1a2 * diffX1a;
-                    final double tmpX3 = diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffX1a;
-                    final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * x1 + xi + xa) * d1a2 - tmpX) / d1a4
-                            + 5.0 * pathLossExponent / ln10 * (2.0 * (diffX1a * (diffXi12 - diffYi12) - diffXi1 * (diffX1a2 - diffY1a2)) * d1a4 - tmpX2) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * ((diffY1a * diffXi1 - diffX1a * diffY1a) * diffYi1 * d1a4 - tmpX3) / d1a8;
-
-
-                    //derivative of rssi respect to y1
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
-                    //  - 10*n*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
-                    //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
-                    //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-                    //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-
-                    //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
-                    //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
-
-                    //Hence
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(y1) =
-                    //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(y1) =
-                    //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
-                    //  -2*y1 + yi + ya
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(y1) =
-                    //  -2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2) + 2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2)
-
-                    //diff((x1 - xa)*(y1 - ya))/diff(y1) =
-                    //  x1 - xa
-
-                    //diff((xi - x1)*(yi - y1))/diff(y1) =
-                    // -(xi - x1)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(y1) =
-                    //  (x1 - xa)*(xi - x1)*(yi - y1) - (x1 - xa)*(y1 - ya)*(xi - x1) =
-                    //  ((x1 - xa)*(yi - y1) - (x1 - xa)*(y1 - ya))*(xi - x1)
-
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //  + 5*n/ln(10)*(2*(-(y1 - ya)*((xi - x1)^2 - (yi - y1)^2) + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2))*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
-                    //  + 20*n/ln(10)*(((x1 - xa)*(yi - y1) - (x1 - xa)*(y1 - ya))*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
-
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
-                    //  + 5*n/ln(10)*(2*(-(y1 - ya)*((xi - x1)^2 - (yi - y1)^2) + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2))*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  + 20*n/ln(10)*(((x1 - xa)*(yi - y1) - (x1 - xa)*(y1 - ya))*(xi - x1)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(y1 - ya))/d1a^8
-                    final double tmpY = crossDiff * 2.0 * diffY1a;
-                    final double tmpY2 = (diffX1a2 - diffY1a2) * (diffXi12 - diffYi12) * 4.0 * d1a2 * diffY1a;
-                    final double tmpY3 = diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffY1a;
-                    final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2 - tmpY) / d1a4
-                            + 5.0 * pathLossExponent / ln10 * (2.0 * (-diffY1a * (diffXi12 - diffYi12) + diffYi1 * (diffX1a2 - diffY1a2)) * d1a4 - tmpY2) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * ((diffX1a * diffYi1 - diffX1a * diffY1a) * diffXi1 * d1a4 - tmpY3) / d1a8;
-
-
-                    //derivative of rssi respect to xa
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-                    //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xa) =
-                    //  -(xi - x1)
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(xa) =
-                    //  -2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xa) =
-                    //  -(y1 - ya)*(xi - x1)*(yi - y1)
-
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //  + 5*n/ln(10)*(-2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
-                    //  + 20*n*(-(y1 - ya)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
-
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
-                    //  + 5*n/ln(10)*(-2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2)*d1a^4 + ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  + 20*n/ln(10)*(-(y1 - ya)*(xi - x1)*(yi - y1)*d1a^4 + (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
-                    final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2 + tmpX) / d1a4
-                            + 5.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * (diffXi12 - diffYi12) * d1a4 + tmpX2) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffXi1 * diffYi1 * d1a4 + tmpX3) / d1a8;
-
-
-                    //derivative of rssi respect to ya
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-                    //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(ya) =
-                    //  -(yi - y1)
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(ya) =
-                    //  2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(ya) =
-                    //  -(x1 - xa)*(xi - x1)*(yi - y1)
-
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //  + 5*n/ln(10)*(2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
-                    //  + 20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
-
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
-                    //  + 5*n/ln(10)*(2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2)*d1a^4 + ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  + 20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*d1a^4 + (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(y1 - ya))/d1a^8
-                    final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2 + tmpY) / d1a4
-                            + 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * (diffXi12 - diffYi12) * d1a4 + tmpY2) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffXi1 * diffYi1 * d1a4 + tmpY3) / d1a8;
-
-
-                    //derivative of rssi respect to xi
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-                    //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xi) =
-                    //  x1 - xa
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(xi) =
-                    //  2*((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xi) =
-                    //  (x1 - xa)*(y1 - ya)*(yi - y1)
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //  + 5*n/ln(10)*(2*((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
-                    //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*d1a^2)/d1a^4
-                    //  + 5*n/ln(10)*(2*((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1)*d1a^4)/d1a^8
-                    //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(yi - y1)*d1a^4)/d1a^8
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*(x1 - xa)/d1a^2
-                    //  + 10*n/ln(10)*(((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1))/d1a^4
-                    //  + 20*n/ln(10)*(x1 - xa)*(y1 - ya)*(yi - y1)/d1a^4
-                    final double derivativeXi = -10.0 * pathLossExponent / ln10 * diffX1a / d1a2
-                            + 10.0 * pathLossExponent / ln10 * ((diffX1a2 - diffY1a2) * diffXi1) / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffYi1 / d1a4;
-
-
-                    //derivative of rssi respect to yi
-
-                    //Pr(pi) = Pr(p1)
-                    //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
-                    //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
-                    //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
-
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(yi) =
-                    //  y1 - ya
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(yi) =
-                    //  2*((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(yi) =
-                    //  (x1 - xa)*(y1 - ya)*(xi - x1)
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2)^2
-                    //  + 5*n/ln(10)*(2*((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
-                    //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*d1a^2)/d1a^4
-                    //  + 5*n/ln(10)*(2*((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1)*d1a^4)/d1a^8
-                    //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*d1a^4)/d1a^8
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*(y1 - ya)/d1a^2
-                    //  + 10*n/ln(10)*(((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1))/d1a^4
-                    //  + 20*n/ln(10)*(x1 - xa)*(y1 - ya)*(xi - x1)/d1a^4
-                    final double derivativeYi = -10.0 * pathLossExponent / ln10 * diffY1a / d1a2
-                            + 10.0 * pathLossExponent / ln10 * ((diffX1a2 - diffY1a2) * diffYi1) / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffXi1 / d1a4;
-
-
-                    //set derivatives fingerprintRssi, pathLossExponent, x1, y1, xa, ya, xi, yi
-                    jacobian.setElementAtIndex(0, derivativeFingerprintRssi);
-                    jacobian.setElementAtIndex(1, derivativePathLossExponent);
-                    jacobian.setElementAtIndex(2, derivativeX1);
-                    jacobian.setElementAtIndex(3, derivativeY1);
-                    jacobian.setElementAtIndex(4, derivativeXa);
-                    jacobian.setElementAtIndex(5, derivativeYa);
-                    jacobian.setElementAtIndex(6, derivativeXi);
-                    jacobian.setElementAtIndex(7, derivativeYi);
-                }
-
-                @Override
-                public int getNumberOfVariables() {
-                    return 1;
-                }
-            }, mean, covariance);
-        } catch (final AlgebraException | StatisticsException e) {
-            throw new IndoorException(e);
-        }
-    }
+        result[0] = evaluateRssiSecondOrderNonLinear2D(fingerprintRssi, pathLossExponent,
+                fingerprintPosition.getInhomX(), fingerprintPosition.getInhomY(),
+                radioSourcePosition.getInhomX(), radioSourcePosition.getInhomY(),
+                estimatedPosition.getInhomX(), estimatedPosition.getInhomY(),
+                gradient);
+        result[1] = propagateRssiVariance(gradient, fingerprintRssiVariance,
+                pathLossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, estimatedPositionCovariance,
+                Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH);
+        return true;
+    }
 
     /**
      * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
@@ -1279,654 +846,8 @@ public class Utils {
                 @Override
                 public void evaluate(
                         final double[] x, final double[] y, final Matrix jacobian) {
-
-                    //Pr(pi) = Pr(p1)
-                    // - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    // - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    // - 10*n*(z1 - za)/(ln(10)*d1a^2)*(zi - z1)
-                    // - 5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2
-                    // - 5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*d1a^4)*(yi - y1)^2
-                    // - 5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*d1a^4)*(zi - z1)^2
-                    // + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4)*(xi - x1)*(yi - y1)
-                    // + 20*n*(y1 - ya)*(z1 - za)/(ln(10)*d1a^4)*(yi - y1)*(zi - z1)
-                    // + 20*n*(x1 - xa)*(z1 - za)/(ln(10)*d1a^4)*(xi - x1)*(zi - z1)
-                    //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2
-
-                    //Hence:
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(xi - x1)
-                    //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(yi - y1)
-                    //  -10*n*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(zi - z1)
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    final double diffX1a = x1 - xa;
-                    final double diffY1a = y1 - ya;
-                    final double diffZ1a = z1 - za;
-
-                    final double diffXi1 = xi - x1;
-                    final double diffYi1 = yi - y1;
-                    final double diffZi1 = zi - z1;
-
-                    final double diffX1a2 = diffX1a * diffX1a;
-                    final double diffY1a2 = diffY1a * diffY1a;
-                    final double diffZ1a2 = diffZ1a * diffZ1a;
-
-                    final double diffXi12 = diffXi1 * diffXi1;
-                    final double diffYi12 = diffYi1 * diffYi1;
-                    final double diffZi12 = diffZi1 * diffZi1;
-
-                    final double d1a2 = diffX1a2 + diffY1a2 + diffZ1a2;
-                    final double d1a4 = d1a2 * d1a2;
-                    final double d1a8 = d1a4 * d1a4;
-
-                    final double ln10 = Math.log(10.0);
-                    final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1 + diffZ1a * diffZi1;
-
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(xi - x1)
-                    //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(yi - y1)
-                    //  -10*n*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(zi - z1)
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    y[0] = fingerprintRssi
-                            - 10.0 * pathLossExponent * diffX1a / (ln10 * d1a2) * diffXi1
-                            - 10.0 * pathLossExponent * diffY1a / (ln10 * d1a2) * diffYi1
-                            - 10.0 * pathLossExponent * diffZ1a / (ln10 * d1a2) * diffZi1
-                            - 5.0 * pathLossExponent * (-diffX1a2 + diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffXi12
-                            - 5.0 * pathLossExponent * (diffX1a2 - diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffYi12
-                            - 5.0 * pathLossExponent * (diffX1a2 + diffY1a2 - diffZ1a2) / (ln10 * d1a4) * diffZi12
-                            + 20.0 * pathLossExponent * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1
-                            + 20.0 * pathLossExponent * diffY1a * diffZ1a / (ln10 * d1a4) * diffYi1 * diffZi1
-                            + 20.0 * pathLossExponent * diffX1a * diffZ1a / (ln10 * d1a4) * diffXi1 * diffZi1;
-
-                    //compute gradient (is a jacobian having 1 row and 11 columns)
-
-
-                    //derivative of rssi respect to fingerprint rssi
-                    final double derivativeFingerprintRssi = 1.0;
-
-                    //derivative of rssi respect to path-loss exponent
-
-                    //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  -10*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    final double derivativePathLossExponent = -10.0 * diffX1a / (ln10 * d1a2) * diffXi1
-                            - 10.0 * diffY1a / (ln10 * d1a2) * diffYi1
-                            - 10.0 * diffZ1a / (ln10 * d1a2) * diffZi1
-                            - 5.0 * (-diffX1a2 + diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffXi12
-                            - 5.0 * (diffX1a2 - diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffYi12
-                            - 5.0 * (diffX1a2 + diffY1a2 - diffZ1a2) / (ln10 * d1a4) * diffZi12
-                            + 20.0 * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1
-                            + 20.0 * diffY1a * diffZ1a / (ln10 * d1a4) * diffYi1 * diffZi1
-                            + 20.0 * diffX1a * diffZ1a / (ln10 * d1a4) * diffXi1 * diffZi1;
-
-
-                    //derivative of rssi respect to x1
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(xi - x1)
-                    //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(yi - y1)
-                    //  -10*n*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(zi - z1)
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-
-                    //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
-                    //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
-
-                    //Hence
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(x1) =
-                    //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
-                    //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
-                    //  -2*x1 + xi + xa
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(x1) =
-                    //  diff(-(x1 - xa)^2*(xi - x1)^2)/diff(x1) =
-                    //  -2*(x1 - xa)*(xi - x1)^2 - 2*(xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)
-                    //  -2*((x1 - xa)*(xi - x1)^2 + (xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(x1) =
-                    //  diff((x1 - xa)^2*(yi - y1)^2)/diff(x1) =
-                    //  2*(x1 - xa)*(yi - y1)^2
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(z1 - za)^2)/diff(x1) =
-                    //  diff((x1 - xa)^2*(z1 - za)^2)/diff(x1) =
-                    //  2*(x1 - xa)*(z1 - za)^2
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(x1) =
-                    //  (y1 - ya)*(yi - y1)*((xi - x1) - (x1 - xa)) =
-                    //  (y1 - ya)*(yi - y1)*(-2*x1 + xi + xa)
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(x1) = 0
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(x1) =
-                    //  (z1 - za)*(zi - z1)*((xi - x1) - (x1 - xa)) =
-                    //  (z1 - za)*(zi - z1)*(-2*x1 + xi + xa)
-
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(-2*((x1 - xa)*(xi - x1)^2 + (xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(x1 - xa)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(x1 - xa)*(z1 - za)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(z1 - za)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/d1a^4
-                    //  -5*n/ln(10)*(-2*((x1 - xa)*(xi - x1)^2 + (xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  -5*n/ln(10)*(2*(x1 - xa)*(yi - y1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  -5*n/ln(10)*(2*(x1 - xa)*(z1 - za)^2*d1a^4 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(z1 - za)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*x1 + xi + xa)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  +20*n/ln(10)*(-(y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*x1 + xi + xa)*d1a^4 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
-                    final double tmp1 = (diffY1a2 + diffZ1a2 - diffX1a2) * diffXi12 * 4.0 * d1a2 * diffX1a;
-                    final double tmp2 = diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffX1a;
-                    final double tmp3 = diffX1a * diffZ1a * diffXi1 * diffZi1 * 4.0 * d1a2 * diffX1a;
-                    final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2 * x1 + xi + xa) * d1a2 - crossDiff * 2.0 * diffX1a) / d1a4
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * (diffX1a * diffXi12 + diffXi1 * (-diffX1a2 + diffY1a2 + diffZ1a2)) * d1a4 - tmp1) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * diffYi12 * d1a4 - tmp1) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * diffZ1a2 * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * diffZ1a2 * 4.0 * d1a2 * diffX1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffY1a * diffYi1 * (-2.0 * x1 + xi + xa) * d1a4 - tmp2) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffX1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffZ1a * diffZi1 * (-2.0 * x1 + xi + xa) * d1a4 - tmp3) / d1a8;
-
-
-                    //derivative of rssi respect to y1
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(y1) =
-                    //  diff(y1*yi - ya*yi -y1^2 + ya*y1)/diff(y1) =
-                    //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
-                    //  -2*y1 + yi + ya
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(y1) =
-                    //  2*(y1 - ya)*(xi - x1)^2
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(y1) =
-                    //  -2*(y1 - ya)*(yi - y1)^2 -2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)
-                    //  -2*((y1 - ya)*(yi - y1)^2 + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2))
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(y1) =
-                    //  2*(y1 - ya)*(zi - z1)^2
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(y1) =
-                    //  (x1 - xa)*(xi - x1)*(yi - y1) - (xi - x1)*(x1 - xa)*(y1 - ya) =
-                    //  (x1 - xa)*((xi - x1)*(yi - y1) - (xi - x1)*(y1 - ya)) =
-                    //  (x1 - xa)*(xi - x1)*(-2*y1 + yi + ya)
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(y1) =
-                    //  (z1 - za)*(yi - y1)*(zi - z1) - (zi - z1)*(y1 - ya)*(z1 - za) =
-                    //  (z1 - za)*((yi - y1)*(zi - z1) - (zi - z1)*(y1 - ya)) =
-                    //  (z1 - za)*(zi - z1)*(-2*y1 + yi + ya)
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(y1) = 0
-
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(2*(y1 - ya)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(-2*((y1 - ya)*(yi - y1)^2 + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2))*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2*2((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2(y1 -ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(y1 - ya)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/d1a^4
-                    //  -5*n/ln(10)*(2*(y1 - ya)*(xi - x1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  -5*n/ln(10)*(-2*((y1 - ya)*(yi - y1)^2 + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2))*d1a^4 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(y1 -ya))/d1a^8
-                    //  -5*n/ln(10)*(2*(y1 - ya)*(zi - z1)^2*d1a^4 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*y1 + yi + ya)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*y1 + yi + ya)*d1a^4 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  +20*n/ln(10)*(-(x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*4*d1a^2*(y1 - ya))/d1a^8
-                    final double tmp4 = diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffY1a;
-                    final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2 - crossDiff * 2.0 * diffY1a) / d1a4
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * diffXi12 * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * diffXi12 * 4.0 * d1a2 * diffY1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * (diffY1a * diffYi12 + diffYi1 * (diffX1a2 - diffY1a2 + diffZ1a2)) * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12 * 4.0 * d1a2 * diffY1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * diffZi12 * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12 * 4.0 * d1a2 * diffY1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffX1a * diffXi1 * (-2.0 * y1 + yi + ya) * d1a4 - diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffY1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffZ1a * diffZi1 * (-2.0 * y1 + yi + ya) * d1a4 - tmp4) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffZ1a * diffXi1 * diffZi1 * 4.0 * d1a2 * diffY1a) / d1a8;
-
-
-                    //derivative of rssi respect to z1
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(z1) =
-                    //  diff(z1*zi -za*zi -z1^2 + za*z1)/diff(z1) =
-                    //  diff(-z1^2 + (zi + za)*z1 - za*zi)/diff(z1) =
-                    //  -2*z1 + zi + za
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(z1) =
-                    //  2*(z1 - za)*(xi - x1)^2
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(z1) =
-                    //  2*(z1 - za)*(yi - y1)^2
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(z1) =
-                    //  2*(z1 - za)*(zi - z1)^2 + 2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)
-                    //  2*((z1 - za)*(zi - z1)^2 + (zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2))
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(z1) = 0
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(z1) =
-                    //  (y1 - ya)*(yi - y1)*(zi - z1) - (yi - y1)*(y1 - ya)*(z1 - za) =
-                    //  (y1 - ya)*((yi - y1)*(zi - z1) - (yi - y1)*(z1 - za)) =
-                    //  (y1 - ya)*(yi - y1)*(-2*z1 + zi + za)
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(z1) =
-                    //  (x1 - xa)*(xi - x1)*(zi - z1) - (xi - x1)*(x1 - xa)*(z1 - za) =
-                    //  (x1 - xa)*((xi - x1)*(zi - z1) - (xi - x1)*(z1 - za)) =
-                    //  (x1 - xa)*(xi - x1)*(-2*z1 + zi + za)
-
-                    //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(2*(z1 - za)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(z1 - za)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*((z1 - za)*(zi - z1)^2 + (zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2))*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/d1a^4
-                    //  -5*n/ln(10)*(2*(z1 - za)*(xi - x1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(z1 - za))/d1a^8
-                    //  -5*n/ln(10)*(2*(z1 - za)*(yi - y1)^2*d1a^4 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(z1 - za))/d1a^8
-                    //  -5*n/ln(10)*(2*((z1 - za)*(zi - z1)^2 + (zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2))*d1a^4 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(z1 - za))/d1a^8
-                    //  +20*n/ln(10)*(-(x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(z1 - za))/d1a^8
-                    //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*z1 + zi + za)*d1a^4 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
-                    //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*z1 + zi + za)*d1a^4 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
-                    final double derivativeZ1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * z1 + zi + za) * d1a2 - crossDiff * 2.0 * diffZ1a) / d1a4
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * diffXi12 * d1a4 - ((-diffX1a2 + diffY1a2 + diffZ1a2) * diffXi12) * 4.0 * d1a2 * diffZ1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * diffYi12 * d1a4 - ((diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12) * 4.0 * d1a2 * diffZ1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * (diffZ1a * diffZi12 + diffZi1 * (diffX1a2 + diffY1a2 - diffZ1a2)) * d1a4 - ((diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12) * 4.0 * d1a2 * diffZ1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffZ1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffY1a * diffYi1 * (-2.0 * z1 + zi + za) * d1a4 - diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffZ1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffX1a * diffXi1 * (-2.0 * z1 + zi + za) * d1a4 - diffX1a * diffZ1a * diffXi1 * diffZi1 * 4.0 * d1a2 * diffZ1a) / d1a8;
-
-
-                    //derivative of rssi respect to xa
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(xa) =
-                    //  -(xi - x1)
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(xa) =
-                    //  2*(x1 - xa)*(xi - x1)^2
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(xa) =
-                    //  -2*(x1 - xa)*(yi - y1)^2
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(xa) =
-                    //  -2*(x1 - xa)*(zi - z1)^2
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xa) =
-                    //  -(y1 - ya)*(xi - x1)*(yi - y1)
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(xa) = 0
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(xa) =
-                    //  -(z1 - za)*(xi - x1)*(zi - z1)
-
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(2*(x1 - xa)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(-2*(x1 - xa)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(-2*(x1 - xa)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(-(y1 - ya)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(-(z1 - za)*(xi - x1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*2*(x1 - xa))/d1a^4
-                    //  -5*n/ln(10)*(2*(x1 - xa)*(xi - x1)^2*d1a^4 + (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  -5*n/ln(10)*(-2*(x1 - xa)*(yi - y1)^2*d1a^4 + (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  -5*n/ln(10)*(-2*(x1 - xa)*(zi - z1)^2*d1a^4 + (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  +20*n/ln(10)*(-(y1 - ya)*(xi - x1)*(yi - y1)*d1a^4 + (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  +20*n/ln(10)*((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
-                    //  +20*n/ln(10)*(-(z1 - za)*(xi - x1)*(zi - z1)*d1a^4 + (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
-                    final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2 + crossDiff * 2.0 * diffX1a) / d1a4
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * diffXi12 * d1a4 + ((diffY1a2 + diffZ1a2 - diffX1a2) * diffXi12) * 4.0 * d1a2 * diffX1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * diffYi12 * d1a4 + ((diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12) * 4.0 * d1a2 * diffX1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * diffZi12 * d1a4 + ((diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12) * 4.0 * d1a2 * diffX1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffXi1 * diffYi1 * d1a4 + tmp2) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffX1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffZ1a * diffXi1 * diffZi1 * d1a4 + tmp3) / d1a8;
-
-
-                    //derivative of rssi respect to ya
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(ya) =
-                    //  -(yi - y1)
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(ya) =
-                    //  -2*(y1 - ya)*(xi - x1)^2
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(ya) =
-                    //  2*(y1 - ya)*(yi - y1)^2
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(ya) =
-                    //  -2*(y1 - ya)*(zi - z1)^2
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(ya) =
-                    //  -(x1 - xa)*(xi - x1)*(yi - y1)
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(ya) =
-                    //  -(z1 - za)*(yi - y1)*(zi - z1)
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(ya) = 0
-
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(-2*(y1 - ya)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(y1 - ya)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(-2*(y1 - ya)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(-(z1 - za)*(yi - y1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*2*(y1 - ya))/d1a^4
-                    //  -5*n/ln(10)*(-2*(y1 - ya)*(xi - x1)^2*d1a^4 + (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  -5*n/ln(10)*(2*(y1 - ya)*(yi - y1)^2*d1a^4 + (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  -5*n/ln(10)*(-2*(y1 - ya)*(zi - z1)^2*d1a^4 + (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*d1a^4 + ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*4*d1a^2*(y1 - ya))/d1a^8
-                    //  +20*n/ln(10)*(-(z1 - za)*(yi - y1)*(zi - z1)*d1a^4 + (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(y1 - ya))/d1a^8
-                    //  +20*n/ln(10)*(((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*4*d1a^2*(y1 - ya))/d1a^8
-                    final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2 + crossDiff * 2.0 * diffY1a) / d1a4
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * diffY1a * diffXi12 * d1a4 + ((diffY1a2 + diffZ1a2 - diffX1a2) * diffXi12) * 4.0 * d1a2 * diffY1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * diffYi12 * d1a4 + ((diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12) * 4.0 * d1a2 * diffY1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * diffY1a * diffZi12 * d1a4 + ((diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12) * 4.0 * d1a2 * diffY1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffXi1 * diffYi1 * d1a4 + (diffX1a * diffY1a * diffXi1 * diffYi1) * 4.0 * d1a2 * diffY1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffZ1a * diffYi1 * diffZi1 * d1a4 + tmp4) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * ((diffX1a * diffZ1a * diffXi1 * diffZi1) * 4.0 * d1a2 * diffY1a) / d1a8;
-
-
-                    //derivative of rssi respect to za
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(za) =
-                    //  -(zi - z1)
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(za) =
-                    //  -2*(z1 - za)*(xi - x1)^2
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(za) =
-                    //  -2*(z1 - za)*(yi - y1)^2
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(za) =
-                    //  2*(z1 - za)*(zi - z1)^2
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(za) = 0
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(za) =
-                    //  -(y1 - ya)*(yi - y1)*(zi - z1)
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(za) =
-                    //  -(x1 - xa)*(xi - x1)*(zi - z1)
-
-                    //diff(Pr(pi))/diff(za) = -10*n/ln(10)*(-(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(-2*(z1 - za)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(-2*(z1 - za)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(z1 - za)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(-(y1 - ya)*(yi - y1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(za) = -10*n/ln(10)*(-(zi - z1)*d1a^2 + (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*2*(z1 - za))/d1a^4
-                    //  -5*n/ln(10)*(-2*(z1 - za)*(xi - x1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(z1 - za))/d1a^8
-                    //  -5*n/ln(10)*(-2*(z1 - za)*(yi - y1)^2*d1a^4 + (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(z1 - za))/d1a^8
-                    //  -5*n/ln(10)*(2*(z1 - za)*(zi - z1)^2*d1a^4 + (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(z1 - za))/d1a^8
-                    //  +20*n/ln(10)*(((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*4*d1a^2*(z1 - za))/d1a^8
-                    //  +20*n/ln(10)*(-(y1 - ya)*(yi - y1)*(zi - z1)*d1a^4 + ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
-                    //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(zi - z1)*d1a^4 + ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
-                    final double derivativeZa = -10.0 * pathLossExponent / ln10 * (-diffZi1 * d1a2 + crossDiff * 2.0 * diffZ1a) / d1a4
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * diffZ1a * diffXi12 * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * diffXi12 * 4.0 * d1a2 * diffZ1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (-2.0 * diffZ1a * diffYi12 * d1a4 + (diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12 * 4.0 * d1a2 * diffZ1a) / d1a8
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * diffZi12 * d1a4 + (diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12 * 4.0 * d1a2 * diffZ1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * ((diffX1a * diffY1a * diffXi1 * diffYi1) * 4.0 * d1a2 * diffZ1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffYi1 * diffZi1 * d1a4 + (diffY1a * diffZ1a * diffYi1 * diffZi1) * 4.0 * d1a2 * diffZ1a) / d1a8
-                            + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffXi1 * diffZi1 * d1a4 + (diffX1a * diffZ1a * diffXi1 * diffZi1) * 4.0 * d1a2 * diffZ1a) / d1a8;
-
-
-                    //derivative of rssi respect to xi
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(xi) =
-                    //  x1 - xa
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(xi) =
-                    //  2*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(xi) = 0
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(xi) = 0
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xi) =
-                    //  (x1 - xa)*(y1 - ya)*(yi - y1)
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(xi) = 0
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(xi) =
-                    //  (x1 - xa)*(z1 - za)*(zi - z1)
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(2*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((x1 - xa)*(y1 - ya)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((x1 - xa)*(z1 - za)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*(x1 - xa)*d1a^2/d1a^4
-                    //  -5*n/ln(10)*(2*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*d1a^4)/d1a^8
-                    //  +20*n/ln(10)*(x1 - xa)*(y1 - ya)*(yi - y1)*d1a^4/d1a^8
-                    //  +20*n/ln(10)*(x1 - xa)*(z1 - za)*(zi - z1)*d1a^4)/d1a^8
-
-                    //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*(x1 - xa)/d1a^2
-                    //  -10*n/ln(10)*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/d1a^4
-                    //  +20*n/ln(10)*(x1 - xa)*(y1 - ya)*(yi - y1)/d1a^4
-                    //  +20*n/ln(10)*(x1 - xa)*(z1 - za)*(zi - z1)/d1a^4
-                    final double derivativeXi = -10.0 * pathLossExponent / ln10 * diffX1a / d1a2
-                            - 10.0 * pathLossExponent / ln10 * diffXi1 * (-diffX1a2 + diffY1a2 + diffZ1a2) / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffYi1 / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffX1a * diffZ1a * diffZi1 / d1a4;
-
-
-                    //derivative of rssi respect to yi
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(yi) =
-                    //  y1 - ya
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(yi) = 0
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(yi) =
-                    //  2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(yi) = 0
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(yi) =
-                    //  (x1 - xa)*(y1 - ya)*(xi - x1)
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(yi) =
-                    //  (y1 - ya)*(z1 - za)*(zi - z1)
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(yi) = 0
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*((y1 - ya)*(z1 - za)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*(y1 - ya)*d1a^2/d1a^4
-                    //  -5*n/ln(10)*(2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*d1a^4)/d1a^8
-                    //  +20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*d1a^4)/d1a^8
-                    //  +20*n/ln(10)*((y1 - ya)*(z1 - za)*(zi - z1)*d1a^4)/d1a^8
-
-                    //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*(y1 - ya)/d1a^2
-                    //  -10*n/ln(10)*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/d1a^4
-                    //  +20*n/ln(10)*(x1 - xa)*(y1 - ya)*(xi - x1)/d1a^4
-                    //  +20*n/ln(10)*(y1 - ya)*(z1 - za)*(zi - z1)/d1a^4
-                    final double derivativeYi = -10.0 * pathLossExponent / ln10 * diffY1a / d1a2
-                            - 10.0 * pathLossExponent / ln10 * diffYi1 * (diffX1a2 - diffY1a2 + diffZ1a2) / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffXi1 / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffY1a * diffZ1a * diffZi1 / d1a4;
-
-
-                    //derivative of rssi respect to zi
-
-                    //We have
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
-                    //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
-                    //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
-
-                    //Hence
-                    //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(zi) =
-                    //  z1 - za
-
-                    //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(zi) = 0
-
-                    //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(zi) = 0
-
-                    //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(zi) =
-                    //  2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)
-
-                    //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(zi) = 0
-
-                    //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(zi) =
-                    //  (y1 - ya)*(z1 - za)*(yi - y1)
-
-                    //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(zi) =
-                    //  (x1 - xa)*(z1 - za)*(xi - x1)
-
-                    //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
-                    //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  -5*n/ln(10)*(2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  20*n/ln(10)*((y1 - ya)*(z1 - za)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-                    //  20*n/ln(10)*((x1 - xa)*(z1 - za)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
-
-                    //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*d1a^2)/d1a^4
-                    //  -5*n/ln(10)*(2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*d1a^4)/d1a^8
-                    //  20*n/ln(10)*((y1 - ya)*(z1 - za)*(yi - y1)*d1a^4)/d1a^8
-                    //  20*n/ln(10)*((x1 - xa)*(z1 - za)*(xi - x1)*d1a^4)/d1a^8
-
-                    //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*(z1 - za)/d1a^2
-                    //  -10*n/ln(10)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/d1a^4
-                    //  20*n/ln(10)*(y1 - ya)*(z1 - za)*(yi - y1)/d1a^4
-                    //  20*n/ln(10)*(x1 - xa)*(z1 - za)*(xi - x1)/d1a^4
-                    final double derivativeZi = -10.0 * pathLossExponent / ln10 * diffZ1a / d1a2
-                            - 10.0 * pathLossExponent / ln10 * diffZi1 * (diffX1a2 + diffY1a2 - diffZ1a2) / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffY1a * diffZ1a * diffYi1 / d1a4
-                            + 20.0 * pathLossExponent / ln10 * diffX1a * diffZ1a * diffXi1 / d1a4;
-
-
-                    //set derivatives fingerprintRssi, pathLossExponent, x1, y1, z1, xa, ya, za, xi, yi, zi
-                    jacobian.setElementAtIndex(0, derivativeFingerprintRssi);
-                    jacobian.setElementAtIndex(1, derivativePathLossExponent);
-                    jacobian.setElementAtIndex(2, derivativeX1);
-                    jacobian.setElementAtIndex(3, derivativeY1);
-                    jacobian.setElementAtIndex(4, derivativeZ1);
-                    jacobian.setElementAtIndex(5, derivativeXa);
-                    jacobian.setElementAtIndex(6, derivativeYa);
-                    jacobian.setElementAtIndex(7, derivativeZa);
-                    jacobian.setElementAtIndex(8, derivativeXi);
-                    jacobian.setElementAtIndex(9, derivativeYi);
-                    jacobian.setElementAtIndex(10, derivativeZi);
+                    y[0] = evaluateRssiSecondOrderNonLinear3D(fingerprintRssi, pathLossExponent,
+                            x1, y1, z1, xa, ya, za, xi, yi, zi, jacobian.getBuffer());
                 }
 
                 @Override
@@ -1939,6 +860,71 @@ public class Utils {
         }
     }
 
+    /**
+     * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
+     * fingerprint position covariance and radio source position covariance) into
+     * rssi variance by considering the 3D 2nd order Taylor expression of received power.
+     * Notice that any unknown variance is assumed to be zero.
+     * This method does not allocate any memory, hence it is suitable to be called for
+     * each reading on every iteration of a non linear algorithm.
+     *
+     * @param fingerprintRssi               closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent              path-loss exponent.
+     * @param fingerprintPosition           position of closest fingerprint.
+     * @param radioSourcePosition           radio source position associated to fingerprint reading.
+     * @param estimatedPosition             position to be estimated. Usually this is equal to the
+     *                                      initial position used by a non linear algorithm.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown. (This is usually unknown).
+     * @param gradient                      array where gradient of received power respect to
+     *                                      fingerprint RSSI, path-loss exponent, fingerprint
+     *                                      position, radio source position and estimated
+     *                                      position will be stored. Must have length 11.
+     * @param result                        array where expected received RSSI value and its
+     *                                      variance will be stored. Must have length 2.
+     * @return true if result has been computed, false if any position is not provided.
+     * @throws IllegalArgumentException if gradient or result do not have proper length.
+     */
+    public static boolean propagateVariancesToRssiVarianceSecondOrderNonLinear3D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final Point3D fingerprintPosition, final Point3D radioSourcePosition,
+            final Point3D estimatedPosition,
+            final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance,
+            final double[] gradient, final double[] result) {
+        if (gradient.length != 11 || result.length != 2) {
+            throw new IllegalArgumentException();
+        }
+
+        if (fingerprintPosition == null || radioSourcePosition == null ||
+                estimatedPosition == null) {
+            return false;
+        }
+
+        result[0] = evaluateRssiSecondOrderNonLinear3D(fingerprintRssi, pathLossExponent,
+                fingerprintPosition.getInhomX(), fingerprintPosition.getInhomY(),
+                fingerprintPosition.getInhomZ(),
+                radioSourcePosition.getInhomX(), radioSourcePosition.getInhomY(),
+                radioSourcePosition.getInhomZ(),
+                estimatedPosition.getInhomX(), estimatedPosition.getInhomY(),
+                estimatedPosition.getInhomZ(),
+                gradient);
+        result[1] = propagateRssiVariance(gradient, fingerprintRssiVariance,
+                pathLossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, estimatedPositionCovariance,
+                Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH);
+        return true;
+    }
+
     /**
      * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
      * fingerprint position covariance and radio source position covariance) into
@@ -2033,96 +1019,12 @@ public class Utils {
         }
 
         try {
-            //although less precise, we use a jacobian estimator to simplify expressions
-            final MultiVariateFunctionEvaluatorListener evaluator = new MultiVariateFunctionEvaluatorListener() {
-                @Override
-                public void evaluate(
-                        final double[] point, final double[] result) {
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
-                    //  -10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
-                    //  -5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*d1a^4)*(yi - y1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4)*(xi - x1)*(yi - y1)
-                    //  -10/6*n/ln(10)*(-2*(x1 - xa)*dia^4 - ((y1 - ya)^2 - (x1 - xa)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)^3
-                    //  -10/6*n/ln(10)*(-2*(y1 - ya)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*4*d1a^2*(y1 - ya))/d1a^8*(yi - y1)^3
-                    //  -5*n/ln(10)*(2*(y1 - ya)*d1a^4 - ((y1 - ya)^2 - (x1 - xa)^2)*4*d1a^2*(y1 - ya))/d1a^8*(xi - x1)^2*(yi - y1)
-                    //  -5*n/ln(10)*(2*(x1 - xa)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)*(yi - y1)^2
-                    //where d1a2 = (x1 - xa)^2 + (y1 - ya)^2
-
-                    //Hence:
-                    //Pr(pi) = Pr(p1)
-                    //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
-                    //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(yi - y1)
-                    //  -5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)*(xi - x1)^2
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)*(yi - y1)^2
-                    //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)*(xi - x1)*(yi - y1)
-                    //  -10/6*n/ln(10)*(-2*(x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((y1 - ya)^2 - (x1 - xa)^2)*4*((x1 - xa)^2 + (y1 - ya)^2)*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4*(xi - x1)^3
-                    //  -10/6*n/ln(10)*(-2*(y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*4*((x1 - xa)^2 + (y1 - ya)^2)*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4*(yi - y1)^3
-                    //  -5*n/ln(10)*(2*(y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((y1 - ya)^2 - (x1 - xa)^2)*4*((x1 - xa)^2 + (y1 - ya)^2)*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4*(xi - x1)^2*(yi - y1)
-                    //  -5*n/ln(10)*(2*(x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*4*((x1 - xa)^2 + (y1 - ya)^2)*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4*(xi - x1)*(yi - y1)^2
-
-                    final double fingerprintRssi = point[0];
-                    final double pathLossExponent = point[1];
-                    final double x1 = point[2];
-                    final double y1 = point[3];
-                    final double xa = point[4];
-                    final double ya = point[5];
-                    final double xi = point[6];
-                    final double yi = point[7];
-
-                    final double diffX1a = x1 - xa;
-                    final double diffY1a = y1 - ya;
-
-                    final double diffXi1 = xi - x1;
-                    final double diffYi1 = yi - y1;
-
-                    final double diffX1a2 = diffX1a * diffX1a;
-                    final double diffY1a2 = diffY1a * diffY1a;
-
-                    final double diffXi12 = diffXi1 * diffXi1;
-                    final double diffYi12 = diffYi1 * diffYi1;
-
-                    final double diffXi13 = diffXi12 * diffXi1;
-                    final double diffYi13 = diffYi12 * diffYi1;
-
-                    final double d1a2 = diffX1a2 + diffY1a2;
-                    final double d1a4 = d1a2 * d1a2;
-                    final double d1a8 = d1a4 * d1a4;
-
-                    final double ln10 = Math.log(10.0);
-
-                    result[0] = fingerprintRssi
-                            - 10.0 * pathLossExponent * diffX1a / (ln10 * d1a2) * diffXi1
-                            - 10.0 * pathLossExponent * diffY1a / (ln10 * d1a2) * diffYi1
-                            - 5.0 * pathLossExponent * (-diffX1a2 + diffY1a2) / (ln10 * d1a4) * diffXi12
-                            - 5.0 * pathLossExponent * (diffX1a2 - diffY1a2) / (ln10 * d1a4) * diffYi12
-                            + 20.0 * pathLossExponent * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1
-                            - 10.0 / 6.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * d1a4 - (-diffX1a2 + diffY1a2) * 4.0 * d1a2 * diffX1a) / d1a8 * diffXi13
-                            - 10.0 / 6.0 * pathLossExponent / ln10 * (-2.0 * diffY1a * d1a4 - (diffX1a2 - diffY1a2) * 4.0 * d1a2 * diffY1a) / d1a8 * diffYi13
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * d1a4 - (-diffX1a2 + diffY1a2) * 4.0 * d1a2 * diffY1a) / d1a8 * diffXi12 * diffYi1
-                            - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * d1a4 - (diffX1a2 - diffY1a2) * 4.0 * d1a2 * diffX1a) / d1a8 * diffXi1 * diffYi12;
-                }
-
-                @Override
-                public int getNumberOfVariables() {
-                    return 1;
-                }
-            };
-
-            final JacobianEstimator jacobianEstimator = new JacobianEstimator(evaluator);
-
             return MultivariateNormalDist.propagate(new MultivariateNormalDist.JacobianEvaluator() {
                 @Override
                 public void evaluate(
                         final double[] x, final double[] y, final Matrix jacobian) {
-
-                    try {
-                        evaluator.evaluate(x, y);
-                        jacobianEstimator.jacobian(x, jacobian);
-                    } catch (final EvaluationException ignore) {
-                        //never happens
-                    }
+                    y[0] = evaluateRssiThirdOrderNonLinear2D(fingerprintRssi, pathLossExponent,
+                            x1, y1, xa, ya, xi, yi, jacobian.getBuffer());
                 }
 
                 @Override
@@ -2135,6 +1037,68 @@ public class Utils {
         }
     }
 
+    /**
+     * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
+     * fingerprint position covariance and radio source position covariance) into
+     * rssi variance by considering the 2D 3rd order Taylor expression of received power.
+     * Notice that any unknown variance is assumed to be zero.
+     * This method does not allocate any memory, hence it is suitable to be called for
+     * each reading on every iteration of a non linear algorithm.
+     *
+     * @param fingerprintRssi               closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent              path-loss exponent.
+     * @param fingerprintPosition           position of closest fingerprint.
+     * @param radioSourcePosition           radio source position associated to fingerprint reading.
+     * @param estimatedPosition             position to be estimated. Usually this is equal to the
+     *                                      initial position used by a non linear algorithm.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown. (This is usually unknown).
+     * @param gradient                      array where gradient of received power respect to
+     *                                      fingerprint RSSI, path-loss exponent, fingerprint
+     *                                      position, radio source position and estimated
+     *                                      position will be stored. Must have length 8.
+     * @param result                        array where expected received RSSI value and its
+     *                                      variance will be stored. Must have length 2.
+     * @return true if result has been computed, false if any position is not provided.
+     * @throws IllegalArgumentException if gradient or result do not have proper length.
+     */
+    public static boolean propagateVariancesToRssiVarianceThirdOrderNonLinear2D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final Point2D fingerprintPosition, final Point2D radioSourcePosition,
+            final Point2D estimatedPosition,
+            final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance,
+            final double[] gradient, final double[] result) {
+        if (gradient.length != 8 || result.length != 2) {
+            throw new IllegalArgumentException();
+        }
+
+        if (fingerprintPosition == null || radioSourcePosition == null ||
+                estimatedPosition == null) {
+            return false;
+        }
+
+        result[0] = evaluateRssiThirdOrderNonLinear2D(fingerprintRssi, pathLossExponent,
+                fingerprintPosition.getInhomX(), fingerprintPosition.getInhomY(),
+                radioSourcePosition.getInhomX(), radioSourcePosition.getInhomY(),
+                estimatedPosition.getInhomX(), estimatedPosition.getInhomY(),
+                gradient);
+        result[1] = propagateRssiVariance(gradient, fingerprintRssiVariance,
+                pathLossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, estimatedPositionCovariance,
+                Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH);
+        return true;
+    }
+
     /**
      * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
      * fingerprint position covariance and radio source position covariance) into
@@ -2227,141 +1191,87 @@ public class Utils {
         }
 
         try {
-            //although less precise, we use a jacobian estimator to simplify expressions
-            final MultiVariateFunctionEvaluatorListener evaluator = new MultiVariateFunctionEvaluatorListener() {
+            return MultivariateNormalDist.propagate(new MultivariateNormalDist.JacobianEvaluator() {
                 @Override
                 public void evaluate(
-                        final double[] point, final double[] result) {
-                    //Pr(pi = (xi,yi)) = Pr(p1) +
-                    //  -10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1) +
-                    //  -10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1) +
-                    //  -10*n*(z1 - za)/(ln(10)*d1a^2)*(zi - z1) +
-                    //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2 +
-                    //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*d1a^4)*(yi - y1)^2 +
-                    //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*d1a^4)*(zi - z1)^2 +
-                    //  20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4)*(xi - x1)*(yi - y1) +
-                    //  20*n*(y1 - ya)*(z1 - za)/(ln(10)*d1a^4)*(yi - y1)*(zi - z1) +
-                    //  20*n*(x1 - xa)*(z1 - za)/(ln(10)*d1a^4)*(xi - x1)*(zi - z1) +
-                    //  -10/6*n/ln(10)*(-2*(x1 - xa)*d1a^4 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)^3 +
-                    //  -10/6*n/ln(10)*(-2*(y1 - ya)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*4*d1a^2*(y1 - ya))/d1a^8*(yi - y1)^3 +
-                    //  -10/6*n/ln(10)*(-2*(z1 - za)*d1a^4 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*4*d1a^2*(z1 - za))/d1a^8*(zi - z1)^3 +
-                    //  -5*n/ln(10)*(2*(y1 - ya)*d1a^4 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*4*d1a^2*(y1 - ya))/d1a^8*(xi - x1)^2*(yi - y1) +
-                    //  -5*n/ln(10)*(2*(z1 - za)*d1a^4 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*4*d1a^2*(z1 - za))/d1a^8*(xi - x1)^2*(zi - z1) +
-                    //  -5*n/ln(10)*(2*(x1 - xa)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)*(yi - y1)^2 +
-                    //  -5*n/ln(10)*(2*(x1 - xa)*d1a^4 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)*(zi - z1)^2 +
-                    //  -5*n/ln(10)*(2*(z1 - za)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*4*d1a^2*(z1 - za))/d1a^8*(yi - y1)^2*(zi - z1) +
-                    //  -5*n/ln(10)*(2*(y1 - ya)*d1a^4 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*4*d1a^2*(y1 - ya))/d1a^8*(yi - y1)*(zi - z1)^2 +
-                    //  -80*n/ln(10)*((x1 - xa)*(y1 - ya)*(z1 - za)*d1a^2)/d1a^8*(xi - x1)*(yi - y1)*(zi - z1)
-
-                    final double fingerprintRssi = point[0];
-                    final double pathLossExponent = point[1];
-                    final double x1 = point[2];
-                    final double y1 = point[3];
-                    final double z1 = point[4];
-                    final double xa = point[5];
-                    final double ya = point[6];
-                    final double za = point[7];
-                    final double xi = point[8];
-                    final double yi = point[9];
-                    final double zi = point[10];
-
-                    final double diffX1a = x1 - xa;
-                    final double diffY1a = y1 - ya;
-                    final double diffZ1a = z1 - za;
-
-                    final double diffXi1 = xi - x1;
-                    final double diffYi1 = yi - y1;
-                    final double diffZi1 = zi - z1;
-
-                    final double diffX1a2 = diffX1a * diffX1a;
-                    final double diffY1a2 = diffY1a * diffY1a;
-                    final double diffZ1a2 = diffZ1a * diffZ1a;
-
-                    final double diffXi12 = diffXi1 * diffXi1;
-                    final double diffYi12 = diffYi1 * diffYi1;
-                    final double diffZi12 = diffZi1 * diffZi1;
-
-                    final double diffXi13 = diffXi12 * diffXi1;
-                    final double diffYi13 = diffYi12 * diffYi1;
-                    final double diffZi13 = diffZi12 * diffZi1;
-
-                    final double d1a2 = diffX1a2 + diffY1a2 + diffZ1a2;
-                    final double d1a4 = d1a2 * d1a2;
-                    final double d1a8 = d1a4 * d1a4;
-
-                    final double ln10 = Math.log(10.0);
-
-                    final double value1 = -10.0 * pathLossExponent * diffX1a / (ln10 * d1a2);
-                    final double value2 = -10.0 * pathLossExponent * diffY1a / (ln10 * d1a2);
-                    final double value3 = -10.0 * pathLossExponent * diffZ1a / (ln10 * d1a2);
-                    final double value4 = -5.0 * pathLossExponent * (-diffX1a2 + diffY1a2 + diffZ1a2) / (ln10 * d1a4);
-                    final double value5 = -5.0 * pathLossExponent * (diffX1a2 - diffY1a2 + diffZ1a2) / (ln10 * d1a4);
-                    final double value6 = -5.0 * pathLossExponent * (diffX1a2 + diffY1a2 - diffZ1a2) / (ln10 * d1a4);
-                    final double value7 = 20.0 * pathLossExponent * diffX1a * diffY1a / (ln10 * d1a4);
-                    final double value8 = 20.0 * pathLossExponent * diffY1a * diffZ1a / (ln10 * d1a4);
-                    final double value9 = 20.0 * pathLossExponent * diffX1a * diffZ1a / (ln10 * d1a4);
-                    final double value10 = -10.0 / 6.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
-                    final double value11 = -10.0 / 6.0 * pathLossExponent / ln10 * (-2.0 * diffY1a * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
-                    final double value12 = -10.0 / 6.0 * pathLossExponent / ln10 * (-2.0 * diffZ1a * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * 4.0 * d1a2 * diffZ1a) / d1a8;
-                    final double value13 = -5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
-                    final double value14 = -5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffZ1a) / d1a8;
-                    final double value15 = -5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
-                    final double value16 = -5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
-                    final double value17 = -5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffZ1a) / d1a8;
-                    final double value18 = -5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
-                    final double value19 = -80.0 * pathLossExponent / ln10 * (diffX1a * diffY1a * diffZ1a * d1a2) / d1a8;
-
-                    result[0] = fingerprintRssi
-                            + value1 * diffXi1
-                            + value2 * diffYi1
-                            + value3 * diffZi1
-                            + value4 * diffXi12
-                            + value5 * diffYi12
-                            + value6 * diffZi12
-                            + value7 * diffXi1 * diffYi1
-                            + value8 * diffYi1 * diffZi1
-                            + value9 * diffXi1 * diffZi1
-                            + value10 * diffXi13
-                            + value11 * diffYi13
-                            + value12 * diffZi13
-                            + value13 * diffXi12 * diffYi1
-                            + value14 * diffXi12 * diffZi1
-                            + value15 * diffXi1 * diffYi12
-                            + value16 * diffXi1 * diffZi12
-                            + value17 * diffYi12 * diffZi1
-                            + value18 * diffYi1 * diffZi12
-                            + value19 * diffXi1 * diffYi1 * diffZi1;
+                        final double[] x, final double[] y, final Matrix jacobian) {
+                    y[0] = evaluateRssiThirdOrderNonLinear3D(fingerprintRssi, pathLossExponent,
+                            x1, y1, z1, xa, ya, za, xi, yi, zi, jacobian.getBuffer());
                 }
 
                 @Override
                 public int getNumberOfVariables() {
                     return 1;
                 }
-            };
+            }, mean, covariance);
+        } catch (final AlgebraException | StatisticsException e) {
+            throw new IndoorException(e);
+        }
+    }
 
-            final JacobianEstimator jacobianEstimator = new JacobianEstimator(evaluator);
-
-            return MultivariateNormalDist.propagate(new MultivariateNormalDist.JacobianEvaluator() {
-                @Override
-                public void evaluate(
-                        final double[] x, final double[] y, final Matrix jacobian) {
-
-                    try {
-                        evaluator.evaluate(x, y);
-                        jacobianEstimator.jacobian(x, jacobian);
-                    } catch (final EvaluationException ignore) {
-                        //never happens
-                    }
-                }
+    /**
+     * Propagates provided variances (fingerprint rssi variance, path-loss exponent variance,
+     * fingerprint position covariance and radio source position covariance) into
+     * rssi variance by considering the 3D 3rd order Taylor expression of received power.
+     * Notice that any unknown variance is assumed to be zero.
+     * This method does not allocate any memory, hence it is suitable to be called for
+     * each reading on every iteration of a non linear algorithm.
+     *
+     * @param fingerprintRssi               closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent              path-loss exponent.
+     * @param fingerprintPosition           position of closest fingerprint.
+     * @param radioSourcePosition           radio source position associated to fingerprint reading.
+     * @param estimatedPosition             position to be estimated. Usually this is equal to the
+     *                                      initial position used by a non linear algorithm.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown. (This is usually unknown).
+     * @param gradient                      array where gradient of received power respect to
+     *                                      fingerprint RSSI, path-loss exponent, fingerprint
+     *                                      position, radio source position and estimated
+     *                                      position will be stored. Must have length 11.
+     * @param result                        array where expected received RSSI value and its
+     *                                      variance will be stored. Must have length 2.
+     * @return true if result has been computed, false if any position is not provided.
+     * @throws IllegalArgumentException if gradient or result do not have proper length.
+     */
+    public static boolean propagateVariancesToRssiVarianceThirdOrderNonLinear3D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final Point3D fingerprintPosition, final Point3D radioSourcePosition,
+            final Point3D estimatedPosition,
+            final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance,
+            final double[] gradient, final double[] result) {
+        if (gradient.length != 11 || result.length != 2) {
+            throw new IllegalArgumentException();
+        }
 
-                @Override
-                public int getNumberOfVariables() {
-                    return 1;
-                }
-            }, mean, covariance);
-        } catch (final AlgebraException | StatisticsException e) {
-            throw new IndoorException(e);
+        if (fingerprintPosition == null || radioSourcePosition == null ||
+                estimatedPosition == null) {
+            return false;
         }
+
+        result[0] = evaluateRssiThirdOrderNonLinear3D(fingerprintRssi, pathLossExponent,
+                fingerprintPosition.getInhomX(), fingerprintPosition.getInhomY(),
+                fingerprintPosition.getInhomZ(),
+                radioSourcePosition.getInhomX(), radioSourcePosition.getInhomY(),
+                radioSourcePosition.getInhomZ(),
+                estimatedPosition.getInhomX(), estimatedPosition.getInhomY(),
+                estimatedPosition.getInhomZ(),
+                gradient);
+        result[1] = propagateRssiVariance(gradient, fingerprintRssiVariance,
+                pathLossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, estimatedPositionCovariance,
+                Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH);
+        return true;
     }
 
     /**
@@ -2772,4 +1682,1839 @@ public class Utils {
         }
     }
 
+
+    /**
+     * Evaluates the 2D 1st order Taylor expression of received power and its gradient
+     * respect to fingerprint RSSI, path-loss exponent, fingerprint position, radio source
+     * position and estimated position (in this order).
+     *
+     * @param fingerprintRssi  closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent path-loss exponent.
+     * @param x1               x coordinate of closest fingerprint position.
+     * @param y1               y coordinate of closest fingerprint position.
+     * @param xa               x coordinate of radio source position.
+     * @param ya               y coordinate of radio source position.
+     * @param xi               x coordinate of position to be estimated.
+     * @param yi               y coordinate of position to be estimated.
+     * @param gradient         array where gradient will be stored. Must have length 8.
+     * @return expected received RSSI expressed in dBm's.
+     */
+    private static double evaluateRssiFirstOrderNonLinear2D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final double x1, final double y1, final double xa, final double ya,
+            final double xi, final double yi, final double[] gradient) {
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2
+
+        //Hence:
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+
+        final double diffX1a = x1 - xa;
+        final double diffY1a = y1 - ya;
+
+        final double diffXi1 = xi - x1;
+        final double diffYi1 = yi - y1;
+
+        final double diffX1a2 = diffX1a * diffX1a;
+        final double diffY1a2 = diffY1a * diffY1a;
+
+        final double d1a2 = diffX1a2 + diffY1a2;
+        final double d1a4 = d1a2 * d1a2;
+
+        final double ln10 = Math.log(10.0);
+        final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1;
+
+        final double rssi = fingerprintRssi
+                - 10.0 * pathLossExponent * crossDiff / (ln10 * d1a2);
+
+        //compute gradient (is a jacobian having 1 row and 8 columns)
+
+
+        //derivative of rssi respect to fingerprint rssi
+        final double derivativeFingerprintRssi = 1.0;
+
+        //derivative of rssi respect to path-loss exponent
+
+        //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  -10*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        final double derivativePathLossExponent = -10.0 * crossDiff /
+                (ln10 * d1a2);
+
+
+        //derivative of rssi respect to x1
+
+        //We have
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+
+        //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
+        //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
+
+        //Hence
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(x1) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
+        //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
+        //  -2*x1 + xi + xa
+
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
+        final double tmpX = 2.0 * crossDiff * diffX1a;
+        final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * x1 + xi + xa) * d1a2
+                - tmpX) / d1a4;
+
+        //derivative of rssi respect to y1
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(y1) =
+        //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(y1) =
+        //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
+        //  -2*y1 + yi + ya
+
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
+        final double tmpY = 2.0 * crossDiff * diffY1a;
+        final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2
+                - tmpY) / d1a4;
+
+
+        //derivative of rssi respect to xa
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xa) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xa) =
+        //  x1 - xi
+
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*((x1 - xi)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
+        final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2
+                + tmpX) / d1a4;
+
+
+        //derivative of rssi respect to ya
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(ya) =
+        //  diff(y1*yi -y1^2 -ya*yi + ya*y1)/diff(ya) =
+        //  y1 - yi
+
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*((y1 - yi)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
+        final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2
+                + tmpY) / d1a4;
+
+
+        //derivative of rssi respect to xi
+
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xi) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xi) =
+        //  x1 - xa
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/(x1 - xa)^2 + (y1 - ya)^2)^2
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*d1a^2)/d1a^4
+        //diff(Pr(pi))/diff(xi) = -10*n*(x1 - xa)/(ln(10)*d1a^2)
+        final double derivativeXi = -10.0 * pathLossExponent * diffX1a / (ln10 * d1a2);
+
+
+        //derivative of rssi respect to yi
+
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(yi) =
+        //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(yi) =
+        //  y1 - ya
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*d1a^2)/d1a^4
+        //diff(Pr(pi))/diff(yi) = -10*n*(y1 - ya)/(ln(10)*d1a^2)
+        final double derivativeYi = -10.0 * pathLossExponent * diffY1a / (ln10 * d1a2);
+
+        //set derivatives fingerprintRssi, pathLossExponent, x1, y1, xa, ya, xi, yi
+        gradient[0] = derivativeFingerprintRssi;
+        gradient[1] = derivativePathLossExponent;
+        gradient[2] = derivativeX1;
+        gradient[3] = derivativeY1;
+        gradient[4] = derivativeXa;
+        gradient[5] = derivativeYa;
+        gradient[6] = derivativeXi;
+        gradient[7] = derivativeYi;
+
+        return rssi;
+    }
+
+    /**
+     * Evaluates the 3D 1st order Taylor expression of received power and its gradient
+     * respect to fingerprint RSSI, path-loss exponent, fingerprint position, radio source
+     * position and estimated position (in this order).
+     *
+     * @param fingerprintRssi  closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent path-loss exponent.
+     * @param x1               x coordinate of closest fingerprint position.
+     * @param y1               y coordinate of closest fingerprint position.
+     * @param z1               z coordinate of closest fingerprint position.
+     * @param xa               x coordinate of radio source position.
+     * @param ya               y coordinate of radio source position.
+     * @param za               z coordinate of radio source position.
+     * @param xi               x coordinate of position to be estimated.
+     * @param yi               y coordinate of position to be estimated.
+     * @param zi               z coordinate of position to be estimated.
+     * @param gradient         array where gradient will be stored. Must have length 11.
+     * @return expected received RSSI expressed in dBm's.
+     */
+    private static double evaluateRssiFirstOrderNonLinear3D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final double x1, final double y1, final double z1,
+            final double xa, final double ya, final double za,
+            final double xi, final double yi, final double zi,
+            final double[] gradient) {
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        //  - 10*n*(z1 - za)/(ln(10)*d1a^2)*(zi - z1)
+        //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2
+
+        //Hence:
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+
+        final double diffX1a = x1 - xa;
+        final double diffY1a = y1 - ya;
+        final double diffZ1a = z1 - za;
+
+        final double diffXi1 = xi - x1;
+        final double diffYi1 = yi - y1;
+        final double diffZi1 = zi - z1;
+
+        final double diffX1a2 = diffX1a * diffX1a;
+        final double diffY1a2 = diffY1a * diffY1a;
+        final double diffZ1a2 = diffZ1a * diffZ1a;
+
+        final double d1a2 = diffX1a2 + diffY1a2 + diffZ1a2;
+        final double d1a4 = d1a2 * d1a2;
+
+        final double ln10 = Math.log(10.0);
+        final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1 + diffZ1a * diffZi1;
+
+        final double rssi = fingerprintRssi
+                - 10.0 * pathLossExponent * crossDiff / (ln10 * d1a2);
+
+        //compute gradient (is a jacobian having 1 row and 11 columns)
+
+
+        //derivative of rssi respect to fingerprint rssi
+        final double derivativeFingerprintRssi = 1.0;
+
+        //derivative of rssi respect to path-loss exponent
+
+        //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  -10*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        final double derivativePathLossExponent = -10.0 * crossDiff /
+                (ln10 * d1a2);
+
+
+        //derivative of rssi respect to x1
+
+        //We have
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+
+        //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
+        //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
+
+        //Hence
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(x1) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
+        //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
+        //  -2*x1 + xi + xa
+
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/d1a^4
+        final double tmpX = 2.0 * crossDiff * diffX1a;
+        final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * x1 + xi + xa) * d1a2
+                - tmpX) / d1a4;
+
+
+        //derivative of rssi respect to y1
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(y1) =
+        //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(y1) =
+        //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
+        //  -2*y1 + yi + ya
+
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/d1a^4
+        final double tmpY = 2.0 * crossDiff * diffY1a;
+        final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2
+                - tmpY) / d1a4;
+
+
+        //derivative of rssi respect to z1
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(z1) =
+        //  diff(z1*zi -za*zi -z1^2 + za*z1)/diff(z1) =
+        //  diff(-z1^2 + (zi + za)*z1 - za*zi)/diff(z1) =
+        //  -2*z1 + zi + za
+
+        //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/d1a^4
+        final double tmpZ = 2.0 * crossDiff * diffZ1a;
+        final double derivativeZ1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * z1 + zi + za) * d1a2
+                - tmpZ) / d1a4;
+
+
+        //derivative of rssi respect to xa
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(xa) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xa) =
+        //  x1 - xi
+
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*((x1 - xi)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/d1a^4
+        final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2
+                + tmpX) / d1a4;
+
+
+        //derivative of rssi respect to ya
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(ya) =
+        //  diff(y1*yi -y1^2 -ya*yi + ya*y1)/diff(ya) =
+        //  y1 - yi
+
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*((y1 - yi)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/d1a^4
+        final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2
+                + tmpY) / d1a4;
+
+
+        //derivative of rssi respect to za
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(za) =
+        //  diff(z1*zi -z1^2 -za*zi + za*z1)/diff(za) =
+        //  z1 - zi
+
+        //diff(Pr(pi))/diff(za) = -10*n/ln(10)*((z1 - zi)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(za) = -10*n/ln(10)*(-(zi - z1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/d1a^4
+        final double derivativeZa = -10.0 * pathLossExponent / ln10 * (-diffZi1 * d1a2 +
+                +tmpZ) / d1a4;
+
+
+        //derivative of rssi respect to xi
+
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(xi) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(xi) =
+        //  x1 - xa
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*d1a^2)/d1a^4
+        //diff(Pr(pi))/diff(xi) = -10*n*(x1 - xa)/(ln(10)*d1a^2)
+        final double derivativeXi = -10.0 * pathLossExponent * diffX1a / (ln10 * d1a2);
+
+
+        //derivative of rssi respect to yi
+
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(yi) =
+        //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(yi) =
+        //  y1 - ya
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*d1a^2)/d1a^4
+        //diff(Pr(pi))/diff(yi) = -10*n*(y1 - ya)/(ln(10)*d1a^2)
+        final double derivativeYi = -10.0 * pathLossExponent * diffY1a / (ln10 * d1a2);
+
+
+        //derivative of rssi respect to zi
+
+        //Pr(pi) = Pr(p1) -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/
+        //      (ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(zi) =
+        //  diff(z1*zi -za*zi -z1^2 + za*z1)/diff(zi) =
+        //  z1 - za
+
+        //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*d1a^2)/d1a^4
+        //diff(Pr(pi))/diff(zi) = -10*n*(z1 - za)/(ln(10*d1a^2)
+        final double derivativeZi = -10.0 * pathLossExponent * diffZ1a / (ln10 * d1a2);
+
+        //set derivatives fingerprintRssi, pathLossExponent, x1, y1, z1, xa, ya, za, xi, yi, zi
+        gradient[0] = derivativeFingerprintRssi;
+        gradient[1] = derivativePathLossExponent;
+        gradient[2] = derivativeX1;
+        gradient[3] = derivativeY1;
+        gradient[4] = derivativeZ1;
+        gradient[5] = derivativeXa;
+        gradient[6] = derivativeYa;
+        gradient[7] = derivativeZa;
+        gradient[8] = derivativeXi;
+        gradient[9] = derivativeYi;
+        gradient[10] = derivativeZi;
+
+        return rssi;
+    }
+
+    /**
+     * Evaluates the 2D 2nd order Taylor expression of received power and its gradient
+     * respect to fingerprint RSSI, path-loss exponent, fingerprint position, radio source
+     * position and estimated position (in this order).
+     *
+     * @param fingerprintRssi  closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent path-loss exponent.
+     * @param x1               x coordinate of closest fingerprint position.
+     * @param y1               y coordinate of closest fingerprint position.
+     * @param xa               x coordinate of radio source position.
+     * @param ya               y coordinate of radio source position.
+     * @param xi               x coordinate of position to be estimated.
+     * @param yi               y coordinate of position to be estimated.
+     * @param gradient         array where gradient will be stored. Must have length 8.
+     * @return expected received RSSI expressed in dBm's.
+     */
+    private static double evaluateRssiSecondOrderNonLinear2D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final double x1, final double y1, final double xa, final double ya,
+            final double xi, final double yi, final double[] gradient) {
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2
+        //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*d1a^4)*(yi - y1)^2
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4))*(xi - x1)*(yi - y1)
+        //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2
+
+        //Hence:
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
+        //  - 10*n*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
+        //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
+        //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        final double diffX1a = x1 - xa;
+        final double diffY1a = y1 - ya;
+
+        final double diffXi1 = xi - x1;
+        final double diffYi1 = yi - y1;
+
+        final double diffX1a2 = diffX1a * diffX1a;
+        final double diffY1a2 = diffY1a * diffY1a;
+
+        final double diffXi12 = diffXi1 * diffXi1;
+        final double diffYi12 = diffYi1 * diffYi1;
+
+        final double d1a2 = diffX1a2 + diffY1a2;
+        final double d1a4 = d1a2 * d1a2;
+        final double d1a8 = d1a4 * d1a4;
+
+        final double ln10 = Math.log(10.0);
+
+        final double rssi = fingerprintRssi
+                - 10.0 * pathLossExponent * diffX1a / (ln10 * d1a2) * diffXi1
+                - 10.0 * pathLossExponent * diffY1a / (ln10 * d1a2) * diffYi1
+                - 5.0 * pathLossExponent * (-diffX1a2 + diffY1a2) / (ln10 * d1a4) * diffXi12
+                - 5.0 * pathLossExponent * (diffX1a2 - diffY1a2) / (ln10 * d1a4) * diffYi12
+                + 20.0 * pathLossExponent * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1;
+
+        //compute gradient (is a jacobian having 1 row and 8 columns)
+
+
+        //derivative of rssi respect to fingerprint rssi
+        final double derivativeFingerprintRssi = 1.0;
+
+        //derivative of rssi respect to path-loss exponent
+
+        //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
+        //  -10*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
+        //  -5*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
+        //  -5*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
+        //  +20*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+        final double derivativePathLossExponent = -10.0 * diffX1a / (ln10 * d1a2) * diffXi1
+                - 10.0 * diffY1a / (ln10 * d1a2) * diffYi1
+                - 5.0 * (-diffX1a2 + diffY1a2) / (ln10 * d1a4) * diffXi12
+                - 5.0 * (diffX1a2 - diffY1a2) / (ln10 * d1a4) * diffYi12
+                + 20.0 * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1;
+
+
+        //derivative of rssi respect to x1
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
+        //  - 10*n*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
+        //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
+        //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+        //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+
+        //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
+        //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
+
+        //Hence
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(x1) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
+        //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
+        //  -2*x1 + xi + xa
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(x1) =
+        //  2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2) - 2*(xi - x1)*((x1 - xa)^2 - (y1 - ya)^2)
+
+        //diff((x1 - xa)*(y1 - ya))/diff(x1) =
+        //  y1 - ya
+
+        //diff((xi - x1)*(yi - y1))/diff(x1) =
+        // -(yi - y1)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(x1) =
+        //  (y1 - ya)*(xi - x1)*(yi - y1) - (x1 - xa)*(y1 - ya)*(yi - y1) =
+        //  ((y1 - ya)*(xi - x1) - (x1 - xa)*(y1 - ya))*(yi - y1)
+
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //  + 5*n/ln(10)*(2*((x1 - xa)*((xi - x1)^2 - (yi - y1)^2) - (xi - x1)*((x1 - xa)^2 - (y1 - ya)^2))*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
+        //  + 20*n/ln(10)*(((y1 - ya)*(xi - x1) - (x1 - xa)*(y1 - ya))*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
+
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
+        //  + 5*n/ln(10)*(2*((x1 - xa)*((xi - x1)^2 - (yi - y1)^2) - (xi - x1)*((x1 - xa)^2 - (y1 - ya)^2))*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))*4*d1a^2*(x1 - xa))/d1a^8
+        //  + 20*n/ln(10)*(((y1 - ya)*(xi - x1) - (x1 - xa)*(y1 - ya))*(yi - y1)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
+        final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1;
+        final double tmpX = crossDiff * 2.0 * diffX1a;
+        final double tmpX2 = (diffX1a2 - diffY1a2) * (diffXi12 - diffYi12) * 4.0 * d1a2 * diffX1a;
+        final double tmpX3 = diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffX1a;
+        final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * x1 + xi + xa) * d1a2 - tmpX) / d1a4
+                + 5.0 * pathLossExponent / ln10 * (2.0 * (diffX1a * (diffXi12 - diffYi12) - diffXi1 * (diffX1a2 - diffY1a2)) * d1a4 - tmpX2) / d1a8
+                + 20.0 * pathLossExponent / ln10 * ((diffY1a * diffXi1 - diffX1a * diffY1a) * diffYi1 * d1a4 - tmpX3) / d1a8;
+
+
+        //derivative of rssi respect to y1
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))*(xi - x1)
+        //  - 10*n*(y1 - ya)/(ln(10)*(x1 - xa)^2 + (y1 - ya)^2)*(yi - y1)
+        //  - 5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)^2
+        //  - 5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(yi - y1)^2
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+        //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+
+        //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
+        //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
+
+        //Hence
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(y1) =
+        //  diff(y1*yi -ya*yi -y1^2 + ya*y1)/diff(y1) =
+        //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
+        //  -2*y1 + yi + ya
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(y1) =
+        //  -2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2) + 2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2)
+
+        //diff((x1 - xa)*(y1 - ya))/diff(y1) =
+        //  x1 - xa
+
+        //diff((xi - x1)*(yi - y1))/diff(y1) =
+        // -(xi - x1)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(y1) =
+        //  (x1 - xa)*(xi - x1)*(yi - y1) - (x1 - xa)*(y1 - ya)*(xi - x1) =
+        //  ((x1 - xa)*(yi - y1) - (x1 - xa)*(y1 - ya))*(xi - x1)
+
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //  + 5*n/ln(10)*(2*(-(y1 - ya)*((xi - x1)^2 - (yi - y1)^2) + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2))*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
+        //  + 20*n/ln(10)*(((x1 - xa)*(yi - y1) - (x1 - xa)*(y1 - ya))*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
+
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
+        //  + 5*n/ln(10)*(2*(-(y1 - ya)*((xi - x1)^2 - (yi - y1)^2) + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2))*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  + 20*n/ln(10)*(((x1 - xa)*(yi - y1) - (x1 - xa)*(y1 - ya))*(xi - x1)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(y1 - ya))/d1a^8
+        final double tmpY = crossDiff * 2.0 * diffY1a;
+        final double tmpY2 = (diffX1a2 - diffY1a2) * (diffXi12 - diffYi12) * 4.0 * d1a2 * diffY1a;
+        final double tmpY3 = diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffY1a;
+        final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2 - tmpY) / d1a4
+                + 5.0 * pathLossExponent / ln10 * (2.0 * (-diffY1a * (diffXi12 - diffYi12) + diffYi1 * (diffX1a2 - diffY1a2)) * d1a4 - tmpY2) / d1a8
+                + 20.0 * pathLossExponent / ln10 * ((diffX1a * diffYi1 - diffX1a * diffY1a) * diffXi1 * d1a4 - tmpY3) / d1a8;
+
+
+        //derivative of rssi respect to xa
+
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+        //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xa) =
+        //  -(xi - x1)
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(xa) =
+        //  -2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xa) =
+        //  -(y1 - ya)*(xi - x1)*(yi - y1)
+
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //  + 5*n/ln(10)*(-2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
+        //  + 20*n*(-(y1 - ya)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2)^4
+
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(x1 - xa))/d1a^4
+        //  + 5*n/ln(10)*(-2*(x1 - xa)*((xi - x1)^2 - (yi - y1)^2)*d1a^4 + ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  + 20*n/ln(10)*(-(y1 - ya)*(xi - x1)*(yi - y1)*d1a^4 + (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
+        final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2 + tmpX) / d1a4
+                + 5.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * (diffXi12 - diffYi12) * d1a4 + tmpX2) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffXi1 * diffYi1 * d1a4 + tmpX3) / d1a8;
+
+
+        //derivative of rssi respect to ya
+
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+        //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(ya) =
+        //  -(yi - y1)
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(ya) =
+        //  2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(ya) =
+        //  -(x1 - xa)*(xi - x1)*(yi - y1)
+
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //  + 5*n/ln(10)*(2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
+        //  + 20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2)*-2(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2)^4
+
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*2*(y1 - ya))/d1a^4
+        //  + 5*n/ln(10)*(2*(y1 - ya)*((xi - x1)^2 - (yi - y1)^2)*d1a^4 + ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  + 20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*d1a^4 + (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(y1 - ya))/d1a^8
+        final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2 + tmpY) / d1a4
+                + 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * (diffXi12 - diffYi12) * d1a4 + tmpY2) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffXi1 * diffYi1 * d1a4 + tmpY3) / d1a8;
+
+
+        //derivative of rssi respect to xi
+
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+        //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(xi) =
+        //  x1 - xa
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(xi) =
+        //  2*((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xi) =
+        //  (x1 - xa)*(y1 - ya)*(yi - y1)
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //  + 5*n/ln(10)*(2*((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
+        //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*d1a^2)/d1a^4
+        //  + 5*n/ln(10)*(2*((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1)*d1a^4)/d1a^8
+        //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(yi - y1)*d1a^4)/d1a^8
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*(x1 - xa)/d1a^2
+        //  + 10*n/ln(10)*(((x1 - xa)^2 - (y1 - ya)^2)*(xi - x1))/d1a^4
+        //  + 20*n/ln(10)*(x1 - xa)*(y1 - ya)*(yi - y1)/d1a^4
+        final double derivativeXi = -10.0 * pathLossExponent / ln10 * diffX1a / d1a2
+                + 10.0 * pathLossExponent / ln10 * ((diffX1a2 - diffY1a2) * diffXi1) / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffYi1 / d1a4;
+
+
+        //derivative of rssi respect to yi
+
+        //Pr(pi) = Pr(p1)
+        //  - 10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2))
+        //  + 5*n*((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2)
+        //  + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2)^2))*(xi - x1)*(yi - y1)
+
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))/diff(yi) =
+        //  y1 - ya
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2))/diff(yi) =
+        //  2*((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(yi) =
+        //  (x1 - xa)*(y1 - ya)*(xi - x1)
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2)^2
+        //  + 5*n/ln(10)*(-2*((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2)*((xi - x1)^2 - (yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
+        //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*0)/((x1 - xa)^2 + (y1 - ya)^2)^4
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*d1a^2)/d1a^4
+        //  + 5*n/ln(10)*(-2*((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1)*d1a^4)/d1a^8
+        //  + 20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*d1a^4)/d1a^8
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*(y1 - ya)/d1a^2
+        //  - 10*n/ln(10)*(((x1 - xa)^2 - (y1 - ya)^2)*(yi - y1))/d1a^4
+        //  + 20*n/ln(10)*(x1 - xa)*(y1 - ya)*(xi - x1)/d1a^4
+        final double derivativeYi = -10.0 * pathLossExponent / ln10 * diffY1a / d1a2
+                - 10.0 * pathLossExponent / ln10 * ((diffX1a2 - diffY1a2) * diffYi1) / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffXi1 / d1a4;
+
+
+        //set derivatives fingerprintRssi, pathLossExponent, x1, y1, xa, ya, xi, yi
+        gradient[0] = derivativeFingerprintRssi;
+        gradient[1] = derivativePathLossExponent;
+        gradient[2] = derivativeX1;
+        gradient[3] = derivativeY1;
+        gradient[4] = derivativeXa;
+        gradient[5] = derivativeYa;
+        gradient[6] = derivativeXi;
+        gradient[7] = derivativeYi;
+
+        return rssi;
+    }
+
+    /**
+     * Evaluates the 3D 2nd order Taylor expression of received power and its gradient
+     * respect to fingerprint RSSI, path-loss exponent, fingerprint position, radio source
+     * position and estimated position (in this order).
+     *
+     * @param fingerprintRssi  closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent path-loss exponent.
+     * @param x1               x coordinate of closest fingerprint position.
+     * @param y1               y coordinate of closest fingerprint position.
+     * @param z1               z coordinate of closest fingerprint position.
+     * @param xa               x coordinate of radio source position.
+     * @param ya               y coordinate of radio source position.
+     * @param za               z coordinate of radio source position.
+     * @param xi               x coordinate of position to be estimated.
+     * @param yi               y coordinate of position to be estimated.
+     * @param zi               z coordinate of position to be estimated.
+     * @param gradient         array where gradient will be stored. Must have length 11.
+     * @return expected received RSSI expressed in dBm's.
+     */
+    private static double evaluateRssiSecondOrderNonLinear3D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final double x1, final double y1, final double z1,
+            final double xa, final double ya, final double za,
+            final double xi, final double yi, final double zi,
+            final double[] gradient) {
+        //Pr(pi) = Pr(p1)
+        // - 10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        // - 10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        // - 10*n*(z1 - za)/(ln(10)*d1a^2)*(zi - z1)
+        // - 5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2
+        // - 5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*d1a^4)*(yi - y1)^2
+        // - 5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*d1a^4)*(zi - z1)^2
+        // + 20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4)*(xi - x1)*(yi - y1)
+        // + 20*n*(y1 - ya)*(z1 - za)/(ln(10)*d1a^4)*(yi - y1)*(zi - z1)
+        // + 20*n*(x1 - xa)*(z1 - za)/(ln(10)*d1a^4)*(xi - x1)*(zi - z1)
+        //where d1a^2 = (x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2
+
+        //Hence:
+        //Pr(pi) = Pr(p1)
+        //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(xi - x1)
+        //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(yi - y1)
+        //  -10*n*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(zi - z1)
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        final double diffX1a = x1 - xa;
+        final double diffY1a = y1 - ya;
+        final double diffZ1a = z1 - za;
+
+        final double diffXi1 = xi - x1;
+        final double diffYi1 = yi - y1;
+        final double diffZi1 = zi - z1;
+
+        final double diffX1a2 = diffX1a * diffX1a;
+        final double diffY1a2 = diffY1a * diffY1a;
+        final double diffZ1a2 = diffZ1a * diffZ1a;
+
+        final double diffXi12 = diffXi1 * diffXi1;
+        final double diffYi12 = diffYi1 * diffYi1;
+        final double diffZi12 = diffZi1 * diffZi1;
+
+        final double d1a2 = diffX1a2 + diffY1a2 + diffZ1a2;
+        final double d1a4 = d1a2 * d1a2;
+        final double d1a8 = d1a4 * d1a4;
+
+        final double ln10 = Math.log(10.0);
+        final double crossDiff = diffX1a * diffXi1 + diffY1a * diffYi1 + diffZ1a * diffZi1;
+
+        //Pr(pi) = Pr(p1)
+        //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(xi - x1)
+        //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(yi - y1)
+        //  -10*n*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(zi - z1)
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        final double rssi = fingerprintRssi
+                - 10.0 * pathLossExponent * diffX1a / (ln10 * d1a2) * diffXi1
+                - 10.0 * pathLossExponent * diffY1a / (ln10 * d1a2) * diffYi1
+                - 10.0 * pathLossExponent * diffZ1a / (ln10 * d1a2) * diffZi1
+                - 5.0 * pathLossExponent * (-diffX1a2 + diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffXi12
+                - 5.0 * pathLossExponent * (diffX1a2 - diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffYi12
+                - 5.0 * pathLossExponent * (diffX1a2 + diffY1a2 - diffZ1a2) / (ln10 * d1a4) * diffZi12
+                + 20.0 * pathLossExponent * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1
+                + 20.0 * pathLossExponent * diffY1a * diffZ1a / (ln10 * d1a4) * diffYi1 * diffZi1
+                + 20.0 * pathLossExponent * diffX1a * diffZ1a / (ln10 * d1a4) * diffXi1 * diffZi1;
+
+        //compute gradient (is a jacobian having 1 row and 11 columns)
+
+
+        //derivative of rssi respect to fingerprint rssi
+        final double derivativeFingerprintRssi = 1.0;
+
+        //derivative of rssi respect to path-loss exponent
+
+        //diff(Pr(pi))/diff(n) = -10*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  -10*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        final double derivativePathLossExponent = -10.0 * diffX1a / (ln10 * d1a2) * diffXi1
+                - 10.0 * diffY1a / (ln10 * d1a2) * diffYi1
+                - 10.0 * diffZ1a / (ln10 * d1a2) * diffZi1
+                - 5.0 * (-diffX1a2 + diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffXi12
+                - 5.0 * (diffX1a2 - diffY1a2 + diffZ1a2) / (ln10 * d1a4) * diffYi12
+                - 5.0 * (diffX1a2 + diffY1a2 - diffZ1a2) / (ln10 * d1a4) * diffZi12
+                + 20.0 * diffX1a * diffY1a / (ln10 * d1a4) * diffXi1 * diffYi1
+                + 20.0 * diffY1a * diffZ1a / (ln10 * d1a4) * diffYi1 * diffZi1
+                + 20.0 * diffX1a * diffZ1a / (ln10 * d1a4) * diffXi1 * diffZi1;
+
+
+        //derivative of rssi respect to x1
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*(x1 - xa)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(xi - x1)
+        //  -10*n*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(yi - y1)
+        //  -10*n*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*(zi - z1)
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+
+        //and we know that: (f(x)/g(x))' = (f'(x)*g(x) - f(x)*g'(x))/g(x)^2
+        //and also that (f(x)*g(x))' = f'(x)*g(x) + f(x)*g'(x)
+
+        //Hence
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(x1) =
+        //  diff(x1*xi -xa*xi -x1^2 + xa*x1)/diff(x1) =
+        //  diff(-x1^2 + (xi + xa)*x1 - xa*xi)/diff(x1) =
+        //  -2*x1 + xi + xa
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(x1) =
+        //  diff(-(x1 - xa)^2*(xi - x1)^2)/diff(x1) =
+        //  -2*(x1 - xa)*(xi - x1)^2 - 2*(xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)
+        //  -2*((x1 - xa)*(xi - x1)^2 + (xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(x1) =
+        //  diff((x1 - xa)^2*(yi - y1)^2)/diff(x1) =
+        //  2*(x1 - xa)*(yi - y1)^2
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(x1) =
+        //  diff((x1 - xa)^2*(zi - z1)^2)/diff(x1) =
+        //  2*(x1 - xa)*(zi - z1)^2
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(x1) =
+        //  (y1 - ya)*(yi - y1)*((xi - x1) - (x1 - xa)) =
+        //  (y1 - ya)*(yi - y1)*(-2*x1 + xi + xa)
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(x1) = 0
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(x1) =
+        //  (z1 - za)*(zi - z1)*((xi - x1) - (x1 - xa)) =
+        //  (z1 - za)*(zi - z1)*(-2*x1 + xi + xa)
+
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(-2*((x1 - xa)*(xi - x1)^2 + (xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(x1 - xa)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(x1 - xa)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*x1 + xi + xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(x1) = -10*n/ln(10)*((-2*x1 + xi + xa)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(x1 - xa))/d1a^4
+        //  -5*n/ln(10)*(-2*((x1 - xa)*(xi - x1)^2 + (xi - x1)*(-(x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  -5*n/ln(10)*(2*(x1 - xa)*(yi - y1)^2*d1a^4 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  -5*n/ln(10)*(2*(x1 - xa)*(zi - z1)^2*d1a^4 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*x1 + xi + xa)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
+        //  +20*n/ln(10)*(-(y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
+        //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*x1 + xi + xa)*d1a^4 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
+        final double tmp1 = (diffY1a2 + diffZ1a2 - diffX1a2) * diffXi12 * 4.0 * d1a2 * diffX1a;
+        final double tmp2 = diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffX1a;
+        final double tmp3 = diffX1a * diffZ1a * diffXi1 * diffZi1 * 4.0 * d1a2 * diffX1a;
+        final double derivativeX1 = -10.0 * pathLossExponent / ln10 * ((-2 * x1 + xi + xa) * d1a2 - crossDiff * 2.0 * diffX1a) / d1a4
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * (diffX1a * diffXi12 + diffXi1 * (-diffX1a2 + diffY1a2 + diffZ1a2)) * d1a4 - tmp1) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * diffYi12 * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12 * 4.0 * d1a2 * diffX1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * diffZi12 * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12 * 4.0 * d1a2 * diffX1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffY1a * diffYi1 * (-2.0 * x1 + xi + xa) * d1a4 - tmp2) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffX1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffZ1a * diffZi1 * (-2.0 * x1 + xi + xa) * d1a4 - tmp3) / d1a8;
+
+
+        //derivative of rssi respect to y1
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/diff(y1) =
+        //  diff(y1*yi - ya*yi -y1^2 + ya*y1)/diff(y1) =
+        //  diff(-y1^2 + (yi + ya)*y1 - ya*yi)/diff(y1) =
+        //  -2*y1 + yi + ya
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(y1) =
+        //  2*(y1 - ya)*(xi - x1)^2
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(y1) =
+        //  -2*(y1 - ya)*(yi - y1)^2 -2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)
+        //  -2*((y1 - ya)*(yi - y1)^2 + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2))
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(y1) =
+        //  2*(y1 - ya)*(zi - z1)^2
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(y1) =
+        //  (x1 - xa)*(xi - x1)*(yi - y1) - (xi - x1)*(x1 - xa)*(y1 - ya) =
+        //  (x1 - xa)*((xi - x1)*(yi - y1) - (xi - x1)*(y1 - ya)) =
+        //  (x1 - xa)*(xi - x1)*(-2*y1 + yi + ya)
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(y1) =
+        //  (z1 - za)*(yi - y1)*(zi - z1) - (zi - z1)*(y1 - ya)*(z1 - za) =
+        //  (z1 - za)*((yi - y1)*(zi - z1) - (zi - z1)*(y1 - ya)) =
+        //  (z1 - za)*(zi - z1)*(-2*y1 + yi + ya)
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(y1) = 0
+
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(2*(y1 - ya)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(-2*((y1 - ya)*(yi - y1)^2 + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2))*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2*2((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2(y1 -ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(y1 - ya)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*y1 + yi + ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(y1) = -10*n/ln(10)*((-2*y1 + yi + ya)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(y1 - ya))/d1a^4
+        //  -5*n/ln(10)*(2*(y1 - ya)*(xi - x1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  -5*n/ln(10)*(-2*((y1 - ya)*(yi - y1)^2 + (yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2))*d1a^4 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(y1 -ya))/d1a^8
+        //  -5*n/ln(10)*(2*(y1 - ya)*(zi - z1)^2*d1a^4 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*y1 + yi + ya)*d1a^4 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(y1 - ya))/d1a^8
+        //  +20*n/ln(10)*((z1 - za)*(zi - z1)*(-2*y1 + yi + ya)*d1a^4 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(y1 - ya))/d1a^8
+        //  +20*n/ln(10)*(-(x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*4*d1a^2*(y1 - ya))/d1a^8
+        final double tmp4 = diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffY1a;
+        final double derivativeY1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * y1 + yi + ya) * d1a2 - crossDiff * 2.0 * diffY1a) / d1a4
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * diffXi12 * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * diffXi12 * 4.0 * d1a2 * diffY1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * (diffY1a * diffYi12 + diffYi1 * (diffX1a2 - diffY1a2 + diffZ1a2)) * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12 * 4.0 * d1a2 * diffY1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * diffZi12 * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12 * 4.0 * d1a2 * diffY1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffX1a * diffXi1 * (-2.0 * y1 + yi + ya) * d1a4 - diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffY1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffZ1a * diffZi1 * (-2.0 * y1 + yi + ya) * d1a4 - tmp4) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffZ1a * diffXi1 * diffZi1 * 4.0 * d1a2 * diffY1a) / d1a8;
+
+
+        //derivative of rssi respect to z1
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(z1) =
+        //  diff(z1*zi -za*zi -z1^2 + za*z1)/diff(z1) =
+        //  diff(-z1^2 + (zi + za)*z1 - za*zi)/diff(z1) =
+        //  -2*z1 + zi + za
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(z1) =
+        //  2*(z1 - za)*(xi - x1)^2
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(z1) =
+        //  2*(z1 - za)*(yi - y1)^2
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(z1) =
+        //  -2*(z1 - za)*(zi - z1)^2 - 2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)
+        //  -2*((z1 - za)*(zi - z1)^2 + (zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2))
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(z1) = 0
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(z1) =
+        //  (y1 - ya)*(yi - y1)*(zi - z1) - (yi - y1)*(y1 - ya)*(z1 - za) =
+        //  (y1 - ya)*((yi - y1)*(zi - z1) - (yi - y1)*(z1 - za)) =
+        //  (y1 - ya)*(yi - y1)*(-2*z1 + zi + za)
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(z1) =
+        //  (x1 - xa)*(xi - x1)*(zi - z1) - (xi - x1)*(x1 - xa)*(z1 - za) =
+        //  (x1 - xa)*((xi - x1)*(zi - z1) - (xi - x1)*(z1 - za)) =
+        //  (x1 - xa)*(xi - x1)*(-2*z1 + zi + za)
+
+        //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(2*(z1 - za)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(z1 - za)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(-2*((z1 - za)*(zi - z1)^2 + (zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2))*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*z1 + zi + za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(z1) = -10*n/ln(10)*((-2*z1 + zi + za)*d1a^2 - ((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))*2*(z1 - za))/d1a^4
+        //  -5*n/ln(10)*(2*(z1 - za)*(xi - x1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(z1 - za))/d1a^8
+        //  -5*n/ln(10)*(2*(z1 - za)*(yi - y1)^2*d1a^4 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(z1 - za))/d1a^8
+        //  -5*n/ln(10)*(-2*((z1 - za)*(zi - z1)^2 + (zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2))*d1a^4 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(z1 - za))/d1a^8
+        //  +20*n/ln(10)*(-(x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(z1 - za))/d1a^8
+        //  +20*n/ln(10)*((y1 - ya)*(yi - y1)*(-2*z1 + zi + za)*d1a^4 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
+        //  +20*n/ln(10)*((x1 - xa)*(xi - x1)*(-2*z1 + zi + za)*d1a^4 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
+        final double derivativeZ1 = -10.0 * pathLossExponent / ln10 * ((-2.0 * z1 + zi + za) * d1a2 - crossDiff * 2.0 * diffZ1a) / d1a4
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * diffXi12 * d1a4 - ((-diffX1a2 + diffY1a2 + diffZ1a2) * diffXi12) * 4.0 * d1a2 * diffZ1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * diffYi12 * d1a4 - ((diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12) * 4.0 * d1a2 * diffZ1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * (diffZ1a * diffZi12 + diffZi1 * (diffX1a2 + diffY1a2 - diffZ1a2)) * d1a4 - ((diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12) * 4.0 * d1a2 * diffZ1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffY1a * diffXi1 * diffYi1 * 4.0 * d1a2 * diffZ1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffY1a * diffYi1 * (-2.0 * z1 + zi + za) * d1a4 - diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffZ1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffX1a * diffXi1 * (-2.0 * z1 + zi + za) * d1a4 - diffX1a * diffZ1a * diffXi1 * diffZi1 * 4.0 * d1a2 * diffZ1a) / d1a8;
+
+
+        //derivative of rssi respect to xa
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(xa) =
+        //  -(xi - x1)
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(xa) =
+        //  2*(x1 - xa)*(xi - x1)^2
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(xa) =
+        //  -2*(x1 - xa)*(yi - y1)^2
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(xa) =
+        //  -2*(x1 - xa)*(zi - z1)^2
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xa) =
+        //  -(y1 - ya)*(xi - x1)*(yi - y1)
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(xa) = 0
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(xa) =
+        //  -(z1 - za)*(xi - x1)*(zi - z1)
+
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(2*(x1 - xa)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(-2*(x1 - xa)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(-2*(x1 - xa)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(-(y1 - ya)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(-(z1 - za)*(xi - x1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(x1 - xa))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(xa) = -10*n/ln(10)*(-(xi - x1)*d1a^2 + (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*2*(x1 - xa))/d1a^4
+        //  -5*n/ln(10)*(2*(x1 - xa)*(xi - x1)^2*d1a^4 + (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  -5*n/ln(10)*(-2*(x1 - xa)*(yi - y1)^2*d1a^4 + (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  -5*n/ln(10)*(-2*(x1 - xa)*(zi - z1)^2*d1a^4 + (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(x1 - xa))/d1a^8
+        //  +20*n/ln(10)*(-(y1 - ya)*(xi - x1)*(yi - y1)*d1a^4 + (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*4*d1a^2*(x1 - xa))/d1a^8
+        //  +20*n/ln(10)*((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
+        //  +20*n/ln(10)*(-(z1 - za)*(xi - x1)*(zi - z1)*d1a^4 + (x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1)*4*d1a^2*(x1 - xa))/d1a^8
+        final double derivativeXa = -10.0 * pathLossExponent / ln10 * (-diffXi1 * d1a2 + crossDiff * 2.0 * diffX1a) / d1a4
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffX1a * diffXi12 * d1a4 + ((diffY1a2 + diffZ1a2 - diffX1a2) * diffXi12) * 4.0 * d1a2 * diffX1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * diffYi12 * d1a4 + ((diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12) * 4.0 * d1a2 * diffX1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * diffX1a * diffZi12 * d1a4 + ((diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12) * 4.0 * d1a2 * diffX1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffXi1 * diffYi1 * d1a4 + tmp2) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (diffY1a * diffZ1a * diffYi1 * diffZi1 * 4.0 * d1a2 * diffX1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffZ1a * diffXi1 * diffZi1 * d1a4 + tmp3) / d1a8;
+
+
+        //derivative of rssi respect to ya
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(ya) =
+        //  -(yi - y1)
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(ya) =
+        //  -2*(y1 - ya)*(xi - x1)^2
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(ya) =
+        //  2*(y1 - ya)*(yi - y1)^2
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(ya) =
+        //  -2*(y1 - ya)*(zi - z1)^2
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(ya) =
+        //  -(x1 - xa)*(xi - x1)*(yi - y1)
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(ya) =
+        //  -(z1 - za)*(yi - y1)*(zi - z1)
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(ya) = 0
+
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(-2*(y1 - ya)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(y1 - ya)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(-2*(y1 - ya)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(-(z1 - za)*(yi - y1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(y1 - ya))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(ya) = -10*n/ln(10)*(-(yi - y1)*d1a^2 + (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*2*(y1 - ya))/d1a^4
+        //  -5*n/ln(10)*(-2*(y1 - ya)*(xi - x1)^2*d1a^4 + (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  -5*n/ln(10)*(2*(y1 - ya)*(yi - y1)^2*d1a^4 + (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  -5*n/ln(10)*(-2*(y1 - ya)*(zi - z1)^2*d1a^4 + (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(y1 - ya))/d1a^8
+        //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(yi - y1)*d1a^4 + ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*4*d1a^2*(y1 - ya))/d1a^8
+        //  +20*n/ln(10)*(-(z1 - za)*(yi - y1)*(zi - z1)*d1a^4 + (y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1)*4*d1a^2*(y1 - ya))/d1a^8
+        //  +20*n/ln(10)*(((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*4*d1a^2*(y1 - ya))/d1a^8
+        final double derivativeYa = -10.0 * pathLossExponent / ln10 * (-diffYi1 * d1a2 + crossDiff * 2.0 * diffY1a) / d1a4
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * diffY1a * diffXi12 * d1a4 + ((diffY1a2 + diffZ1a2 - diffX1a2) * diffXi12) * 4.0 * d1a2 * diffY1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffY1a * diffYi12 * d1a4 + ((diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12) * 4.0 * d1a2 * diffY1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * diffY1a * diffZi12 * d1a4 + ((diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12) * 4.0 * d1a2 * diffY1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffXi1 * diffYi1 * d1a4 + (diffX1a * diffY1a * diffXi1 * diffYi1) * 4.0 * d1a2 * diffY1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffZ1a * diffYi1 * diffZi1 * d1a4 + tmp4) / d1a8
+                + 20.0 * pathLossExponent / ln10 * ((diffX1a * diffZ1a * diffXi1 * diffZi1) * 4.0 * d1a2 * diffY1a) / d1a8;
+
+
+        //derivative of rssi respect to za
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(za) =
+        //  -(zi - z1)
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(za) =
+        //  -2*(z1 - za)*(xi - x1)^2
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(za) =
+        //  -2*(z1 - za)*(yi - y1)^2
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(za) =
+        //  2*(z1 - za)*(zi - z1)^2
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(za) = 0
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(za) =
+        //  -(y1 - ya)*(yi - y1)*(zi - z1)
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(za) =
+        //  -(x1 - xa)*(xi - x1)*(zi - z1)
+
+        //diff(Pr(pi))/diff(za) = -10*n/ln(10)*(-(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(-2*(z1 - za)*(xi - x1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(-2*(z1 - za)*(yi - y1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(z1 - za)*(zi - z1)^2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(-(y1 - ya)*(yi - y1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*2*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)*-2*(z1 - za))/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(za) = -10*n/ln(10)*(-(zi - z1)*d1a^2 + (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*2*(z1 - za))/d1a^4
+        //  -5*n/ln(10)*(-2*(z1 - za)*(xi - x1)^2*d1a^4 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*4*d1a^2*(z1 - za))/d1a^8
+        //  -5*n/ln(10)*(-2*(z1 - za)*(yi - y1)^2*d1a^4 + (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*4*d1a^2*(z1 - za))/d1a^8
+        //  -5*n/ln(10)*(2*(z1 - za)*(zi - z1)^2*d1a^4 + (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*4*d1a^2*(z1 - za))/d1a^8
+        //  +20*n/ln(10)*(((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*4*d1a^2*(z1 - za))/d1a^8
+        //  +20*n/ln(10)*(-(y1 - ya)*(yi - y1)*(zi - z1)*d1a^4 + ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
+        //  +20*n/ln(10)*(-(x1 - xa)*(xi - x1)*(zi - z1)*d1a^4 + ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*4*d1a^2*(z1 - za))/d1a^8
+        final double derivativeZa = -10.0 * pathLossExponent / ln10 * (-diffZi1 * d1a2 + crossDiff * 2.0 * diffZ1a) / d1a4
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * diffZ1a * diffXi12 * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * diffXi12 * 4.0 * d1a2 * diffZ1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (-2.0 * diffZ1a * diffYi12 * d1a4 + (diffX1a2 - diffY1a2 + diffZ1a2) * diffYi12 * 4.0 * d1a2 * diffZ1a) / d1a8
+                - 5.0 * pathLossExponent / ln10 * (2.0 * diffZ1a * diffZi12 * d1a4 + (diffX1a2 + diffY1a2 - diffZ1a2) * diffZi12 * 4.0 * d1a2 * diffZ1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * ((diffX1a * diffY1a * diffXi1 * diffYi1) * 4.0 * d1a2 * diffZ1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffY1a * diffYi1 * diffZi1 * d1a4 + (diffY1a * diffZ1a * diffYi1 * diffZi1) * 4.0 * d1a2 * diffZ1a) / d1a8
+                + 20.0 * pathLossExponent / ln10 * (-diffX1a * diffXi1 * diffZi1 * d1a4 + (diffX1a * diffZ1a * diffXi1 * diffZi1) * 4.0 * d1a2 * diffZ1a) / d1a8;
+
+
+        //derivative of rssi respect to xi
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(xi) =
+        //  x1 - xa
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(xi) =
+        //  2*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(xi) = 0
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(xi) = 0
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(xi) =
+        //  (x1 - xa)*(y1 - ya)*(yi - y1)
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(xi) = 0
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(xi) =
+        //  (x1 - xa)*(z1 - za)*(zi - z1)
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*((x1 - xa)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(2*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((x1 - xa)*(y1 - ya)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((x1 - xa)*(z1 - za)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*(x1 - xa)*d1a^2/d1a^4
+        //  -5*n/ln(10)*(2*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*d1a^4)/d1a^8
+        //  +20*n/ln(10)*(x1 - xa)*(y1 - ya)*(yi - y1)*d1a^4/d1a^8
+        //  +20*n/ln(10)*(x1 - xa)*(z1 - za)*(zi - z1)*d1a^4)/d1a^8
+
+        //diff(Pr(pi))/diff(xi) = -10*n/ln(10)*(x1 - xa)/d1a^2
+        //  -10*n/ln(10)*(xi - x1)*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/d1a^4
+        //  +20*n/ln(10)*(x1 - xa)*(y1 - ya)*(yi - y1)/d1a^4
+        //  +20*n/ln(10)*(x1 - xa)*(z1 - za)*(zi - z1)/d1a^4
+        final double derivativeXi = -10.0 * pathLossExponent / ln10 * diffX1a / d1a2
+                - 10.0 * pathLossExponent / ln10 * diffXi1 * (-diffX1a2 + diffY1a2 + diffZ1a2) / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffYi1 / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffX1a * diffZ1a * diffZi1 / d1a4;
+
+
+        //derivative of rssi respect to yi
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(yi) =
+        //  y1 - ya
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(yi) = 0
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(yi) =
+        //  2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(yi) = 0
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(yi) =
+        //  (x1 - xa)*(y1 - ya)*(xi - x1)
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(yi) =
+        //  (y1 - ya)*(z1 - za)*(zi - z1)
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(yi) = 0
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*((y1 - ya)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*((y1 - ya)*(z1 - za)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  +20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*(y1 - ya)*d1a^2/d1a^4
+        //  -5*n/ln(10)*(2*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*d1a^4)/d1a^8
+        //  +20*n/ln(10)*((x1 - xa)*(y1 - ya)*(xi - x1)*d1a^4)/d1a^8
+        //  +20*n/ln(10)*((y1 - ya)*(z1 - za)*(zi - z1)*d1a^4)/d1a^8
+
+        //diff(Pr(pi))/diff(yi) = -10*n/ln(10)*(y1 - ya)/d1a^2
+        //  -10*n/ln(10)*(yi - y1)*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/d1a^4
+        //  +20*n/ln(10)*(x1 - xa)*(y1 - ya)*(xi - x1)/d1a^4
+        //  +20*n/ln(10)*(y1 - ya)*(z1 - za)*(zi - z1)/d1a^4
+        final double derivativeYi = -10.0 * pathLossExponent / ln10 * diffY1a / d1a2
+                - 10.0 * pathLossExponent / ln10 * diffYi1 * (diffX1a2 - diffY1a2 + diffZ1a2) / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffX1a * diffY1a * diffXi1 / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffY1a * diffZ1a * diffZi1 / d1a4;
+
+
+        //derivative of rssi respect to zi
+
+        //We have
+        //Pr(pi) = Pr(p1)
+        //  -10*n*((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1))/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2))
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)^2
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(zi - z1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(yi - y1)
+        //  +20*n*(y1 - ya)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(yi - y1)*(zi - z1)
+        //  +20*n*(x1 - xa)*(z1 - za)/(ln(10)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2)*(xi - x1)*(zi - z1)
+
+        //Hence
+        //diff(((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))/diff(zi) =
+        //  z1 - za
+
+        //diff(((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)/diff(zi) = 0
+
+        //diff(((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)/diff(zi) = 0
+
+        //diff(((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)/diff(zi) =
+        //  2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)
+
+        //diff((x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1))/diff(zi) = 0
+
+        //diff((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))/diff(zi) =
+        //  (y1 - ya)*(z1 - za)*(yi - y1)
+
+        //diff((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))/diff(zi) =
+        //  (x1 - xa)*(z1 - za)*(xi - x1)
+
+        //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2) - (((x1 - xa)*(xi - x1) + (y1 - ya)*(yi - y1) + (z1 - za)*(zi - z1)))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2
+        //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*(xi - x1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*(yi - y1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  -5*n/ln(10)*(2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*(zi - z1)^2)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  20*n/ln(10)*(0*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - (x1 - xa)*(y1 - ya)*(xi - x1)*(yi - y1)*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  20*n/ln(10)*((y1 - ya)*(z1 - za)*(yi - y1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((y1 - ya)*(z1 - za)*(yi - y1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+        //  20*n/ln(10)*((x1 - xa)*(z1 - za)*(xi - x1)*((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^2 - ((x1 - xa)*(z1 - za)*(xi - x1)*(zi - z1))*0)/((x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2)^4
+
+        //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*((z1 - za)*d1a^2)/d1a^4
+        //  -5*n/ln(10)*(2*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*d1a^4)/d1a^8
+        //  20*n/ln(10)*((y1 - ya)*(z1 - za)*(yi - y1)*d1a^4)/d1a^8
+        //  20*n/ln(10)*((x1 - xa)*(z1 - za)*(xi - x1)*d1a^4)/d1a^8
+
+        //diff(Pr(pi))/diff(zi) = -10*n/ln(10)*(z1 - za)/d1a^2
+        //  -10*n/ln(10)*(zi - z1)*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/d1a^4
+        //  20*n/ln(10)*(y1 - ya)*(z1 - za)*(yi - y1)/d1a^4
+        //  20*n/ln(10)*(x1 - xa)*(z1 - za)*(xi - x1)/d1a^4
+        final double derivativeZi = -10.0 * pathLossExponent / ln10 * diffZ1a / d1a2
+                - 10.0 * pathLossExponent / ln10 * diffZi1 * (diffX1a2 + diffY1a2 - diffZ1a2) / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffY1a * diffZ1a * diffYi1 / d1a4
+                + 20.0 * pathLossExponent / ln10 * diffX1a * diffZ1a * diffXi1 / d1a4;
+
+
+        //set derivatives fingerprintRssi, pathLossExponent, x1, y1, z1, xa, ya, za, xi, yi, zi
+        gradient[0] = derivativeFingerprintRssi;
+        gradient[1] = derivativePathLossExponent;
+        gradient[2] = derivativeX1;
+        gradient[3] = derivativeY1;
+        gradient[4] = derivativeZ1;
+        gradient[5] = derivativeXa;
+        gradient[6] = derivativeYa;
+        gradient[7] = derivativeZa;
+        gradient[8] = derivativeXi;
+        gradient[9] = derivativeYi;
+        gradient[10] = derivativeZi;
+
+        return rssi;
+    }
+
+    /**
+     * Evaluates the 2D 3rd order Taylor expression of received power and its gradient
+     * respect to fingerprint RSSI, path-loss exponent, fingerprint position, radio source
+     * position and estimated position (in this order).
+     *
+     * @param fingerprintRssi  closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent path-loss exponent.
+     * @param x1               x coordinate of closest fingerprint position.
+     * @param y1               y coordinate of closest fingerprint position.
+     * @param xa               x coordinate of radio source position.
+     * @param ya               y coordinate of radio source position.
+     * @param xi               x coordinate of position to be estimated.
+     * @param yi               y coordinate of position to be estimated.
+     * @param gradient         array where gradient will be stored. Must have length 8.
+     * @return expected received RSSI expressed in dBm's.
+     */
+    private static double evaluateRssiThirdOrderNonLinear2D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final double x1, final double y1, final double xa, final double ya,
+            final double xi, final double yi, final double[] gradient) {
+        //Pr(pi) = Pr(p1)
+        //  -10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1)
+        //  -10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1)
+        //  -5*n*((y1 - ya)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2)/(ln(10)*d1a^4)*(yi - y1)^2
+        //  +20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4)*(xi - x1)*(yi - y1)
+        //  -10/6*n/ln(10)*(-2*(x1 - xa)*dia^4 - ((y1 - ya)^2 - (x1 - xa)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)^3
+        //  -10/6*n/ln(10)*(-2*(y1 - ya)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*4*d1a^2*(y1 - ya))/d1a^8*(yi - y1)^3
+        //  -5*n/ln(10)*(2*(y1 - ya)*d1a^4 - ((y1 - ya)^2 - (x1 - xa)^2)*4*d1a^2*(y1 - ya))/d1a^8*(xi - x1)^2*(yi - y1)
+        //  -5*n/ln(10)*(2*(x1 - xa)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)*(yi - y1)^2
+        //where d1a2 = (x1 - xa)^2 + (y1 - ya)^2
+
+        //Hence:
+        //Pr(pi) = Pr(p1) + n*(value1*(xi - x1) + value2*(yi - y1) + value3*(xi - x1)^2 +
+        //  value4*(yi - y1)^2 + value5*(xi - x1)*(yi - y1) + value6*(xi - x1)^3 +
+        //  value7*(yi - y1)^3 + value8*(xi - x1)^2*(yi - y1) + value9*(xi - x1)*(yi - y1)^2)
+        //where coefficients only depend on (x1 - xa) and (y1 - ya)
+
+        final double diffX1a = x1 - xa;
+        final double diffY1a = y1 - ya;
+
+        final double diffXi1 = xi - x1;
+        final double diffYi1 = yi - y1;
+
+        final double diffX1a2 = diffX1a * diffX1a;
+        final double diffY1a2 = diffY1a * diffY1a;
+
+        final double diffXi12 = diffXi1 * diffXi1;
+        final double diffYi12 = diffYi1 * diffYi1;
+
+        final double diffXi13 = diffXi12 * diffXi1;
+        final double diffYi13 = diffYi12 * diffYi1;
+
+        final double d1a2 = diffX1a2 + diffY1a2;
+        final double d1a4 = d1a2 * d1a2;
+        final double d1a8 = d1a4 * d1a4;
+
+        final double ln10 = Math.log(10.0);
+
+        final double value1 = -10.0 * diffX1a / (ln10 * d1a2);
+        final double value2 = -10.0 * diffY1a / (ln10 * d1a2);
+        final double value3 = -5.0 * (-diffX1a2 + diffY1a2) / (ln10 * d1a4);
+        final double value4 = -5.0 * (diffX1a2 - diffY1a2) / (ln10 * d1a4);
+        final double value5 = 20.0 * diffX1a * diffY1a / (ln10 * d1a4);
+        final double value6 = -10.0 / 6.0 / ln10 * (-2.0 * diffX1a * d1a4 - (-diffX1a2 + diffY1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
+        final double value7 = -10.0 / 6.0 / ln10 * (-2.0 * diffY1a * d1a4 - (diffX1a2 - diffY1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
+        final double value8 = -5.0 / ln10 * (2.0 * diffY1a * d1a4 - (-diffX1a2 + diffY1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
+        final double value9 = -5.0 / ln10 * (2.0 * diffX1a * d1a4 - (diffX1a2 - diffY1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
+
+        final double taylor = value1 * diffXi1
+                + value2 * diffYi1
+                + value3 * diffXi12
+                + value4 * diffYi12
+                + value5 * diffXi1 * diffYi1
+                + value6 * diffXi13
+                + value7 * diffYi13
+                + value8 * diffXi12 * diffYi1
+                + value9 * diffXi1 * diffYi12;
+
+        //derivatives of Taylor expression respect to (xi - x1) and (yi - y1)
+        final double derivativeDiffXi1 = value1
+                + 2.0 * value3 * diffXi1
+                + value5 * diffYi1
+                + 3.0 * value6 * diffXi12
+                + 2.0 * value8 * diffXi1 * diffYi1
+                + value9 * diffYi12;
+        final double derivativeDiffYi1 = value2
+                + 2.0 * value4 * diffYi1
+                + value5 * diffXi1
+                + 3.0 * value7 * diffYi12
+                + value8 * diffXi12
+                + 2.0 * value9 * diffXi1 * diffYi1;
+
+        //derivatives of Taylor expression respect to (x1 - xa) and (y1 - ya)
+
+        //Because d1a^2 = (x1 - xa)^2 + (y1 - ya)^2, coefficients can be simplified as:
+        //value1 = -10/ln(10)*(x1 - xa)/d1a^2
+        //value3 = 5/ln(10)*(-1/d1a^2 + 2*(x1 - xa)^2/d1a^4)
+        //value5 = 20/ln(10)*(x1 - xa)*(y1 - ya)/d1a^4
+        //value6 = 10/ln(10)*((x1 - xa)/d1a^4 - 4/3*(x1 - xa)^3/d1a^6)
+        //value8 = 10/ln(10)*((y1 - ya)/d1a^4 - 4*(x1 - xa)^2*(y1 - ya)/d1a^6)
+        //and value2, value4, value7 and value9 are obtained by swapping (x1 - xa) and (y1 - ya)
+        //in value1, value3, value6 and value8 respectively.
+
+        //Taking into account that diff(d1a^2)/diff(x1 - xa) = 2*(x1 - xa) and
+        //diff(d1a^2)/diff(y1 - ya) = 2*(y1 - ya), derivatives of each coefficient
+        //are multiplied by their respective monomials
+        final double invD1a2 = 1.0 / d1a2;
+        final double invD1a4 = invD1a2 * invD1a2;
+        final double invD1a6 = invD1a4 * invD1a2;
+        final double invD1a8 = invD1a4 * invD1a4;
+
+        final double derivativeDiffX1a = ((-10.0 * invD1a2 + 20.0 * diffX1a2 * invD1a4) * diffXi1
+                + 20.0 * diffX1a * diffY1a * invD1a4 * diffYi1
+                + (30.0 * diffX1a * invD1a4 - 40.0 * diffX1a2 * diffX1a * invD1a6) * diffXi12
+                + (10.0 * diffX1a * invD1a4 - 40.0 * diffX1a * diffY1a2 * invD1a6) * diffYi12
+                + (20.0 * diffY1a * invD1a4 - 80.0 * diffX1a2 * diffY1a * invD1a6) * diffXi1 * diffYi1
+                + (10.0 * invD1a4 - 80.0 * diffX1a2 * invD1a6 + 80.0 * diffX1a2 * diffX1a2 * invD1a8) * diffXi13
+                + (-40.0 * diffX1a * diffY1a * invD1a6 + 80.0 * diffX1a * diffY1a2 * diffY1a * invD1a8) * diffYi13
+                + (-120.0 * diffX1a * diffY1a * invD1a6 + 240.0 * diffX1a2 * diffX1a * diffY1a * invD1a8) * diffXi12 * diffYi1
+                + (10.0 * invD1a4 - 40.0 * diffX1a2 * invD1a6 - 40.0 * diffY1a2 * invD1a6 + 240.0 * diffX1a2 * diffY1a2 * invD1a8) * diffXi1 * diffYi12) / ln10;
+
+        final double derivativeDiffY1a = (20.0 * diffX1a * diffY1a * invD1a4 * diffXi1
+                + (-10.0 * invD1a2 + 20.0 * diffY1a2 * invD1a4) * diffYi1
+                + (10.0 * diffY1a * invD1a4 - 40.0 * diffX1a2 * diffY1a * invD1a6) * diffXi12
+                + (30.0 * diffY1a * invD1a4 - 40.0 * diffY1a2 * diffY1a * invD1a6) * diffYi12
+                + (20.0 * diffX1a * invD1a4 - 80.0 * diffX1a * diffY1a2 * invD1a6) * diffXi1 * diffYi1
+                + (-40.0 * diffX1a * diffY1a * invD1a6 + 80.0 * diffX1a2 * diffX1a * diffY1a * invD1a8) * diffXi13
+                + (10.0 * invD1a4 - 80.0 * diffY1a2 * invD1a6 + 80.0 * diffY1a2 * diffY1a2 * invD1a8) * diffYi13
+                + (10.0 * invD1a4 - 40.0 * diffY1a2 * invD1a6 - 40.0 * diffX1a2 * invD1a6 + 240.0 * diffX1a2 * diffY1a2 * invD1a8) * diffXi12 * diffYi1
+                + (-120.0 * diffX1a * diffY1a * invD1a6 + 240.0 * diffX1a * diffY1a2 * diffY1a * invD1a8) * diffXi1 * diffYi12) / ln10;
+
+        //set derivatives fingerprintRssi, pathLossExponent, x1, y1, xa, ya, xi, yi
+        gradient[0] = 1.0;
+        gradient[1] = taylor;
+        gradient[2] = pathLossExponent * (derivativeDiffX1a - derivativeDiffXi1);
+        gradient[3] = pathLossExponent * (derivativeDiffY1a - derivativeDiffYi1);
+        gradient[4] = -pathLossExponent * derivativeDiffX1a;
+        gradient[5] = -pathLossExponent * derivativeDiffY1a;
+        gradient[6] = pathLossExponent * derivativeDiffXi1;
+        gradient[7] = pathLossExponent * derivativeDiffYi1;
+
+        return fingerprintRssi + pathLossExponent * taylor;
+    }
+
+    /**
+     * Evaluates the 3D 3rd order Taylor expression of received power and its gradient
+     * respect to fingerprint RSSI, path-loss exponent, fingerprint position, radio source
+     * position and estimated position (in this order).
+     *
+     * @param fingerprintRssi  closest located fingerprint reading RSSI expressed in dBm's.
+     * @param pathLossExponent path-loss exponent.
+     * @param x1               x coordinate of closest fingerprint position.
+     * @param y1               y coordinate of closest fingerprint position.
+     * @param z1               z coordinate of closest fingerprint position.
+     * @param xa               x coordinate of radio source position.
+     * @param ya               y coordinate of radio source position.
+     * @param za               z coordinate of radio source position.
+     * @param xi               x coordinate of position to be estimated.
+     * @param yi               y coordinate of position to be estimated.
+     * @param zi               z coordinate of position to be estimated.
+     * @param gradient         array where gradient will be stored. Must have length 11.
+     * @return expected received RSSI expressed in dBm's.
+     */
+    private static double evaluateRssiThirdOrderNonLinear3D(
+            final double fingerprintRssi, final double pathLossExponent,
+            final double x1, final double y1, final double z1,
+            final double xa, final double ya, final double za,
+            final double xi, final double yi, final double zi,
+            final double[] gradient) {
+        //Pr(pi = (xi,yi)) = Pr(p1) +
+        //  -10*n*(x1 - xa)/(ln(10)*d1a^2)*(xi - x1) +
+        //  -10*n*(y1 - ya)/(ln(10)*d1a^2)*(yi - y1) +
+        //  -10*n*(z1 - za)/(ln(10)*d1a^2)*(zi - z1) +
+        //  -5*n*((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)/(ln(10)*d1a^4)*(xi - x1)^2 +
+        //  -5*n*((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)/(ln(10)*d1a^4)*(yi - y1)^2 +
+        //  -5*n*((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)/(ln(10)*d1a^4)*(zi - z1)^2 +
+        //  20*n*(x1 - xa)*(y1 - ya)/(ln(10)*d1a^4)*(xi - x1)*(yi - y1) +
+        //  20*n*(y1 - ya)*(z1 - za)/(ln(10)*d1a^4)*(yi - y1)*(zi - z1) +
+        //  20*n*(x1 - xa)*(z1 - za)/(ln(10)*d1a^4)*(xi - x1)*(zi - z1) +
+        //  -10/6*n/ln(10)*(-2*(x1 - xa)*d1a^4 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)^3 +
+        //  -10/6*n/ln(10)*(-2*(y1 - ya)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*4*d1a^2*(y1 - ya))/d1a^8*(yi - y1)^3 +
+        //  -10/6*n/ln(10)*(-2*(z1 - za)*d1a^4 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*4*d1a^2*(z1 - za))/d1a^8*(zi - z1)^3 +
+        //  -5*n/ln(10)*(2*(y1 - ya)*d1a^4 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*4*d1a^2*(y1 - ya))/d1a^8*(xi - x1)^2*(yi - y1) +
+        //  -5*n/ln(10)*(2*(z1 - za)*d1a^4 - ((y1 - ya)^2 + (z1 - za)^2 - (x1 - xa)^2)*4*d1a^2*(z1 - za))/d1a^8*(xi - x1)^2*(zi - z1) +
+        //  -5*n/ln(10)*(2*(x1 - xa)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)*(yi - y1)^2 +
+        //  -5*n/ln(10)*(2*(x1 - xa)*d1a^4 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*4*d1a^2*(x1 - xa))/d1a^8*(xi - x1)*(zi - z1)^2 +
+        //  -5*n/ln(10)*(2*(z1 - za)*d1a^4 - ((x1 - xa)^2 - (y1 - ya)^2 + (z1 - za)^2)*4*d1a^2*(z1 - za))/d1a^8*(yi - y1)^2*(zi - z1) +
+        //  -5*n/ln(10)*(2*(y1 - ya)*d1a^4 - ((x1 - xa)^2 + (y1 - ya)^2 - (z1 - za)^2)*4*d1a^2*(y1 - ya))/d1a^8*(yi - y1)*(zi - z1)^2 +
+        //  -80*n/ln(10)*((x1 - xa)*(y1 - ya)*(z1 - za)*d1a^2)/d1a^8*(xi - x1)*(yi - y1)*(zi - z1)
+
+        //Hence:
+        //Pr(pi) = Pr(p1) + n*(value1*(xi - x1) + value2*(yi - y1) + ... + value19*(xi - x1)*(yi - y1)*(zi - z1))
+        //where coefficients only depend on (x1 - xa), (y1 - ya) and (z1 - za)
+
+        final double diffX1a = x1 - xa;
+        final double diffY1a = y1 - ya;
+        final double diffZ1a = z1 - za;
+
+        final double diffXi1 = xi - x1;
+        final double diffYi1 = yi - y1;
+        final double diffZi1 = zi - z1;
+
+        final double diffX1a2 = diffX1a * diffX1a;
+        final double diffY1a2 = diffY1a * diffY1a;
+        final double diffZ1a2 = diffZ1a * diffZ1a;
+
+        final double diffXi12 = diffXi1 * diffXi1;
+        final double diffYi12 = diffYi1 * diffYi1;
+        final double diffZi12 = diffZi1 * diffZi1;
+
+        final double diffXi13 = diffXi12 * diffXi1;
+        final double diffYi13 = diffYi12 * diffYi1;
+        final double diffZi13 = diffZi12 * diffZi1;
+
+        final double d1a2 = diffX1a2 + diffY1a2 + diffZ1a2;
+        final double d1a4 = d1a2 * d1a2;
+        final double d1a8 = d1a4 * d1a4;
+
+        final double ln10 = Math.log(10.0);
+
+        final double value1 = -10.0 * diffX1a / (ln10 * d1a2);
+        final double value2 = -10.0 * diffY1a / (ln10 * d1a2);
+        final double value3 = -10.0 * diffZ1a / (ln10 * d1a2);
+        final double value4 = -5.0 * (-diffX1a2 + diffY1a2 + diffZ1a2) / (ln10 * d1a4);
+        final double value5 = -5.0 * (diffX1a2 - diffY1a2 + diffZ1a2) / (ln10 * d1a4);
+        final double value6 = -5.0 * (diffX1a2 + diffY1a2 - diffZ1a2) / (ln10 * d1a4);
+        final double value7 = 20.0 * diffX1a * diffY1a / (ln10 * d1a4);
+        final double value8 = 20.0 * diffY1a * diffZ1a / (ln10 * d1a4);
+        final double value9 = 20.0 * diffX1a * diffZ1a / (ln10 * d1a4);
+        final double value10 = -10.0 / 6.0 / ln10 * (-2.0 * diffX1a * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
+        final double value11 = -10.0 / 6.0 / ln10 * (-2.0 * diffY1a * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
+        final double value12 = -10.0 / 6.0 / ln10 * (-2.0 * diffZ1a * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * 4.0 * d1a2 * diffZ1a) / d1a8;
+        final double value13 = -5.0 / ln10 * (2.0 * diffY1a * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
+        final double value14 = -5.0 / ln10 * (2.0 * diffZ1a * d1a4 - (-diffX1a2 + diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffZ1a) / d1a8;
+        final double value15 = -5.0 / ln10 * (2.0 * diffX1a * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
+        final double value16 = -5.0 / ln10 * (2.0 * diffX1a * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * 4.0 * d1a2 * diffX1a) / d1a8;
+        final double value17 = -5.0 / ln10 * (2.0 * diffZ1a * d1a4 - (diffX1a2 - diffY1a2 + diffZ1a2) * 4.0 * d1a2 * diffZ1a) / d1a8;
+        final double value18 = -5.0 / ln10 * (2.0 * diffY1a * d1a4 - (diffX1a2 + diffY1a2 - diffZ1a2) * 4.0 * d1a2 * diffY1a) / d1a8;
+        final double value19 = -80.0 / ln10 * (diffX1a * diffY1a * diffZ1a * d1a2) / d1a8;
+
+        final double taylor = value1 * diffXi1
+                + value2 * diffYi1
+                + value3 * diffZi1
+                + value4 * diffXi12
+                + value5 * diffYi12
+                + value6 * diffZi12
+                + value7 * diffXi1 * diffYi1
+                + value8 * diffYi1 * diffZi1
+                + value9 * diffXi1 * diffZi1
+                + value10 * diffXi13
+                + value11 * diffYi13
+                + value12 * diffZi13
+                + value13 * diffXi12 * diffYi1
+                + value14 * diffXi12 * diffZi1
+                + value15 * diffXi1 * diffYi12
+                + value16 * diffXi1 * diffZi12
+                + value17 * diffYi12 * diffZi1
+                + value18 * diffYi1 * diffZi12
+                + value19 * diffXi1 * diffYi1 * diffZi1;
+
+        //derivatives of Taylor expression respect to (xi - x1), (yi - y1) and (zi - z1)
+        final double derivativeDiffXi1 = value1
+                + 2.0 * value4 * diffXi1
+                + value7 * diffYi1
+                + value9 * diffZi1
+                + 3.0 * value10 * diffXi12
+                + 2.0 * value13 * diffXi1 * diffYi1
+                + 2.0 * value14 * diffXi1 * diffZi1
+                + value15 * diffYi12
+                + value16 * diffZi12
+                + value19 * diffYi1 * diffZi1;
+        final double derivativeDiffYi1 = value2
+                + 2.0 * value5 * diffYi1
+                + value7 * diffXi1
+                + value8 * diffZi1
+                + 3.0 * value11 * diffYi12
+                + value13 * diffXi12
+                + 2.0 * value15 * diffXi1 * diffYi1
+                + 2.0 * value17 * diffYi1 * diffZi1
+                + value18 * diffZi12
+                + value19 * diffXi1 * diffZi1;
+        final double derivativeDiffZi1 = value3
+                + 2.0 * value6 * diffZi1
+                + value8 * diffYi1
+                + value9 * diffXi1
+                + 3.0 * value12 * diffZi12
+                + value14 * diffXi12
+                + 2.0 * value16 * diffXi1 * diffZi1
+                + value17 * diffYi12
+                + 2.0 * value18 * diffYi1 * diffZi1
+                + value19 * diffXi1 * diffYi1;
+
+        //derivatives of Taylor expression respect to (x1 - xa), (y1 - ya) and (z1 - za)
+
+        //Because d1a^2 = (x1 - xa)^2 + (y1 - ya)^2 + (z1 - za)^2, coefficients can be simplified as:
+        //value1 = -10/ln(10)*(x1 - xa)/d1a^2
+        //value4 = 5/ln(10)*(-1/d1a^2 + 2*(x1 - xa)^2/d1a^4)
+        //value7 = 20/ln(10)*(x1 - xa)*(y1 - ya)/d1a^4
+        //value10 = 10/ln(10)*((x1 - xa)/d1a^4 - 4/3*(x1 - xa)^3/d1a^6)
+        //value13 = 10/ln(10)*((y1 - ya)/d1a^4 - 4*(x1 - xa)^2*(y1 - ya)/d1a^6)
+        //value19 = -80/ln(10)*(x1 - xa)*(y1 - ya)*(z1 - za)/d1a^6
+        //and remaining coefficients are obtained by permuting (x1 - xa), (y1 - ya) and (z1 - za).
+
+        //Taking into account that diff(d1a^2)/diff(x1 - xa) = 2*(x1 - xa),
+        //diff(d1a^2)/diff(y1 - ya) = 2*(y1 - ya) and diff(d1a^2)/diff(z1 - za) = 2*(z1 - za),
+        //derivatives of each coefficient are multiplied by their respective monomials
+        final double invD1a2 = 1.0 / d1a2;
+        final double invD1a4 = invD1a2 * invD1a2;
+        final double invD1a6 = invD1a4 * invD1a2;
+        final double invD1a8 = invD1a4 * invD1a4;
+
+        final double derivativeDiffX1a = ((-10.0 * invD1a2 + 20.0 * diffX1a2 * invD1a4) * diffXi1
+                + 20.0 * diffX1a * diffY1a * invD1a4 * diffYi1
+                + 20.0 * diffX1a * diffZ1a * invD1a4 * diffZi1
+                + (30.0 * diffX1a * invD1a4 - 40.0 * diffX1a2 * diffX1a * invD1a6) * diffXi12
+                + (10.0 * diffX1a * invD1a4 - 40.0 * diffX1a * diffY1a2 * invD1a6) * diffYi12
+                + (10.0 * diffX1a * invD1a4 - 40.0 * diffX1a * diffZ1a2 * invD1a6) * diffZi12
+                + (20.0 * diffY1a * invD1a4 - 80.0 * diffX1a2 * diffY1a * invD1a6) * diffXi1 * diffYi1
+                + -80.0 * diffX1a * diffY1a * diffZ1a * invD1a6 * diffYi1 * diffZi1
+                + (20.0 * diffZ1a * invD1a4 - 80.0 * diffX1a2 * diffZ1a * invD1a6) * diffXi1 * diffZi1
+                + (10.0 * invD1a4 - 80.0 * diffX1a2 * invD1a6 + 80.0 * diffX1a2 * diffX1a2 * invD1a8) * diffXi13
+                + (-40.0 * diffX1a * diffY1a * invD1a6 + 80.0 * diffX1a * diffY1a2 * diffY1a * invD1a8) * diffYi13
+                + (-40.0 * diffX1a * diffZ1a * invD1a6 + 80.0 * diffX1a * diffZ1a2 * diffZ1a * invD1a8) * diffZi13
+                + (-120.0 * diffX1a * diffY1a * invD1a6 + 240.0 * diffX1a2 * diffX1a * diffY1a * invD1a8) * diffXi12 * diffYi1
+                + (-120.0 * diffX1a * diffZ1a * invD1a6 + 240.0 * diffX1a2 * diffX1a * diffZ1a * invD1a8) * diffXi12 * diffZi1
+                + (10.0 * invD1a4 - 40.0 * diffX1a2 * invD1a6 - 40.0 * diffY1a2 * invD1a6 + 240.0 * diffX1a2 * diffY1a2 * invD1a8) * diffXi1 * diffYi12
+                + (10.0 * invD1a4 - 40.0 * diffX1a2 * invD1a6 - 40.0 * diffZ1a2 * invD1a6 + 240.0 * diffX1a2 * diffZ1a2 * invD1a8) * diffXi1 * diffZi12
+                + (-40.0 * diffX1a * diffZ1a * invD1a6 + 240.0 * diffX1a * diffY1a2 * diffZ1a * invD1a8) * diffYi12 * diffZi1
+                + (-40.0 * diffX1a * diffY1a * invD1a6 + 240.0 * diffX1a * diffY1a * diffZ1a2 * invD1a8) * diffYi1 * diffZi12
+                + (-80.0 * diffY1a * diffZ1a * invD1a6 + 480.0 * diffX1a2 * diffY1a * diffZ1a * invD1a8) * diffXi1 * diffYi1 * diffZi1) / ln10;
+
+        final double derivativeDiffY1a = (20.0 * diffX1a * diffY1a * invD1a4 * diffXi1
+                + (-10.0 * invD1a2 + 20.0 * diffY1a2 * invD1a4) * diffYi1
+                + 20.0 * diffY1a * diffZ1a * invD1a4 * diffZi1
+                + (10.0 * diffY1a * invD1a4 - 40.0 * diffX1a2 * diffY1a * invD1a6) * diffXi12
+                + (30.0 * diffY1a * invD1a4 - 40.0 * diffY1a2 * diffY1a * invD1a6) * diffYi12
+                + (10.0 * diffY1a * invD1a4 - 40.0 * diffY1a * diffZ1a2 * invD1a6) * diffZi12
+                + (20.0 * diffX1a * invD1a4 - 80.0 * diffX1a * diffY1a2 * invD1a6) * diffXi1 * diffYi1
+                + (20.0 * diffZ1a * invD1a4 - 80.0 * diffY1a2 * diffZ1a * invD1a6) * diffYi1 * diffZi1
+                + -80.0 * diffX1a * diffY1a * diffZ1a * invD1a6 * diffXi1 * diffZi1
+                + (-40.0 * diffX1a * diffY1a * invD1a6 + 80.0 * diffX1a2 * diffX1a * diffY1a * invD1a8) * diffXi13
+                + (10.0 * invD1a4 - 80.0 * diffY1a2 * invD1a6 + 80.0 * diffY1a2 * diffY1a2 * invD1a8) * diffYi13
+                + (-40.0 * diffY1a * diffZ1a * invD1a6 + 80.0 * diffY1a * diffZ1a2 * diffZ1a * invD1a8) * diffZi13
+                + (10.0 * invD1a4 - 40.0 * diffY1a2 * invD1a6 - 40.0 * diffX1a2 * invD1a6 + 240.0 * diffX1a2 * diffY1a2 * invD1a8) * diffXi12 * diffYi1
+                + (-40.0 * diffY1a * diffZ1a * invD1a6 + 240.0 * diffX1a2 * diffY1a * diffZ1a * invD1a8) * diffXi12 * diffZi1
+                + (-120.0 * diffX1a * diffY1a * invD1a6 + 240.0 * diffX1a * diffY1a2 * diffY1a * invD1a8) * diffXi1 * diffYi12
+                + (-40.0 * diffX1a * diffY1a * invD1a6 + 240.0 * diffX1a * diffY1a * diffZ1a2 * invD1a8) * diffXi1 * diffZi12
+                + (-120.0 * diffY1a * diffZ1a * invD1a6 + 240.0 * diffY1a2 * diffY1a * diffZ1a * invD1a8) * diffYi12 * diffZi1
+                + (10.0 * invD1a4 - 40.0 * diffY1a2 * invD1a6 - 40.0 * diffZ1a2 * invD1a6 + 240.0 * diffY1a2 * diffZ1a2 * invD1a8) * diffYi1 * diffZi12
+                + (-80.0 * diffX1a * diffZ1a * invD1a6 + 480.0 * diffX1a * diffY1a2 * diffZ1a * invD1a8) * diffXi1 * diffYi1 * diffZi1) / ln10;
+
+        final double derivativeDiffZ1a = (20.0 * diffX1a * diffZ1a * invD1a4 * diffXi1
+                + 20.0 * diffY1a * diffZ1a * invD1a4 * diffYi1
+                + (-10.0 * invD1a2 + 20.0 * diffZ1a2 * invD1a4) * diffZi1
+                + (10.0 * diffZ1a * invD1a4 - 40.0 * diffX1a2 * diffZ1a * invD1a6) * diffXi12
+                + (10.0 * diffZ1a * invD1a4 - 40.0 * diffY1a2 * diffZ1a * invD1a6) * diffYi12
+                + (30.0 * diffZ1a * invD1a4 - 40.0 * diffZ1a2 * diffZ1a * invD1a6) * diffZi12
+                + -80.0 * diffX1a * diffY1a * diffZ1a * invD1a6 * diffXi1 * diffYi1
+                + (20.0 * diffY1a * invD1a4 - 80.0 * diffY1a * diffZ1a2 * invD1a6) * diffYi1 * diffZi1
+                + (20.0 * diffX1a * invD1a4 - 80.0 * diffX1a * diffZ1a2 * invD1a6) * diffXi1 * diffZi1
+                + (-40.0 * diffX1a * diffZ1a * invD1a6 + 80.0 * diffX1a2 * diffX1a * diffZ1a * invD1a8) * diffXi13
+                + (-40.0 * diffY1a * diffZ1a * invD1a6 + 80.0 * diffY1a2 * diffY1a * diffZ1a * invD1a8) * diffYi13
+                + (10.0 * invD1a4 - 80.0 * diffZ1a2 * invD1a6 + 80.0 * diffZ1a2 * diffZ1a2 * invD1a8) * diffZi13
+                + (-40.0 * diffY1a * diffZ1a * invD1a6 + 240.0 * diffX1a2 * diffY1a * diffZ1a * invD1a8) * diffXi12 * diffYi1
+                + (10.0 * invD1a4 - 40.0 * diffZ1a2 * invD1a6 - 40.0 * diffX1a2 * invD1a6 + 240.0 * diffX1a2 * diffZ1a2 * invD1a8) * diffXi12 * diffZi1
+                + (-40.0 * diffX1a * diffZ1a * invD1a6 + 240.0 * diffX1a * diffY1a2 * diffZ1a * invD1a8) * diffXi1 * diffYi12
+                + (-120.0 * diffX1a * diffZ1a * invD1a6 + 240.0 * diffX1a * diffZ1a2 * diffZ1a * invD1a8) * diffXi1 * diffZi12
+                + (10.0 * invD1a4 - 40.0 * diffZ1a2 * invD1a6 - 40.0 * diffY1a2 * invD1a6 + 240.0 * diffY1a2 * diffZ1a2 * invD1a8) * diffYi12 * diffZi1
+                + (-120.0 * diffY1a * diffZ1a * invD1a6 + 240.0 * diffY1a * diffZ1a2 * diffZ1a * invD1a8) * diffYi1 * diffZi12
+                + (-80.0 * diffX1a * diffY1a * invD1a6 + 480.0 * diffX1a * diffY1a * diffZ1a2 * invD1a8) * diffXi1 * diffYi1 * diffZi1) / ln10;
+
+        //set derivatives fingerprintRssi, pathLossExponent, x1, y1, z1, xa, ya, za, xi, yi, zi
+        gradient[0] = 1.0;
+        gradient[1] = taylor;
+        gradient[2] = pathLossExponent * (derivativeDiffX1a - derivativeDiffXi1);
+        gradient[3] = pathLossExponent * (derivativeDiffY1a - derivativeDiffYi1);
+        gradient[4] = pathLossExponent * (derivativeDiffZ1a - derivativeDiffZi1);
+        gradient[5] = -pathLossExponent * derivativeDiffX1a;
+        gradient[6] = -pathLossExponent * derivativeDiffY1a;
+        gradient[7] = -pathLossExponent * derivativeDiffZ1a;
+        gradient[8] = pathLossExponent * derivativeDiffXi1;
+        gradient[9] = pathLossExponent * derivativeDiffYi1;
+        gradient[10] = pathLossExponent * derivativeDiffZi1;
+
+        return fingerprintRssi + pathLossExponent * taylor;
+    }
+
+    /**
+     * Propagates provided variances into rssi variance using provided gradient of
+     * received power respect to fingerprint RSSI, path-loss exponent, fingerprint
+     * position, radio source position and estimated position.
+     * Because all parameters are assumed to be independent among them, the covariance
+     * of all parameters is block diagonal, hence only non zero blocks are taken into
+     * account.
+     *
+     * @param gradient                      gradient of received power.
+     * @param fingerprintRssiVariance       variance of fingerprint RSSI or null if unknown.
+     * @param pathLossExponentVariance      variance of path-loss exponent or null if unknown.
+     * @param fingerprintPositionCovariance covariance of fingerprint position or null if
+     *                                      unknown.
+     * @param radioSourcePositionCovariance covariance of radio source position or null
+     *                                      if unknown.
+     * @param estimatedPositionCovariance   covariance of position to be estimated or null
+     *                                      if unknown.
+     * @param dims                          number of dimensions of positions.
+     * @return propagated rssi variance.
+     */
+    private static double propagateRssiVariance(
+            final double[] gradient, final Double fingerprintRssiVariance,
+            final Double pathLossExponentVariance,
+            final Matrix fingerprintPositionCovariance,
+            final Matrix radioSourcePositionCovariance,
+            final Matrix estimatedPositionCovariance, final int dims) {
+        double variance = 0.0;
+        if (fingerprintRssiVariance != null) {
+            variance += gradient[0] * gradient[0] * fingerprintRssiVariance;
+        }
+        if (pathLossExponentVariance != null) {
+            variance += gradient[1] * gradient[1] * pathLossExponentVariance;
+        }
+
+        variance += propagatePositionCovariance(gradient, 2,
+                fingerprintPositionCovariance, dims);
+        variance += propagatePositionCovariance(gradient, 2 + dims,
+                radioSourcePositionCovariance, dims);
+        variance += propagatePositionCovariance(gradient, 2 + 2 * dims,
+                estimatedPositionCovariance, dims);
+        return variance;
+    }
+
+    /**
+     * Propagates provided position covariance into rssi variance using the part of the
+     * gradient of received power corresponding to such position.
+     *
+     * @param gradient   gradient of received power.
+     * @param offset     position of gradient where position derivatives start.
+     * @param covariance position covariance or null if unknown.
+     * @param dims       number of dimensions of position.
+     * @return propagated rssi variance or zero if covariance is unknown or does not have
+     * proper size.
+     */
+    private static double propagatePositionCovariance(
+            final double[] gradient, final int offset, final Matrix covariance,
+            final int dims) {
+        if (covariance == null || covariance.getRows() != dims ||
+                covariance.getColumns() != dims) {
+            return 0.0;
+        }
+
+        double variance = 0.0;
+        for (int i = 0; i < dims; i++) {
+            final double gi = gradient[offset + i];
+            for (int j = 0; j < dims; j++) {
+                variance += gi * covariance.getElementAt(i, j) * gradient[offset + j];
+            }
+        }
+        return variance;
+    }
 }
@@ -27,7 +27,7 @@ import com.irurueta.numerical.fitting.FittingException;
 import com.irurueta.numerical.fitting.LevenbergMarquardtMultiDimensionFitter;
 import com.irurueta.numerical.fitting.LevenbergMarquardtMultiDimensionFunctionEvaluator;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -90,6 +90,48 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
      */
     public static final double TINY_RSSI_STD = 1e-12;
 
+    /**
+     * Indicates that by default the generic Levenberg-Marquardt fitter is used,
+     * so that the specialized solver using closed-form normal equations must be
+     * explicitly enabled.
+     */
+    public static final boolean DEFAULT_USE_FAST_SOLVER = false;
+
+    /**
+     * Maximum number of iterations of the specialized solver.
+     */
+    private static final int FAST_SOLVER_MAX_ITERATIONS = 100;
+
+    /**
+     * Tolerance on chi square change and on step size, measured in standard
+     * deviations of estimated position, to consider that an iteration of the
+     * specialized solver has not significantly changed the solution.
+     */
+    private static final double FAST_SOLVER_TOLERANCE = 1e-3;
+
+    /**
+     * Number of iterations that must not significantly change the solution to
+     * consider that the specialized solver has converged.
+     * This matches the default value of the generic fitter.
+     */
+    private static final int FAST_SOLVER_NDONE = 4;
+
+    /**
+     * Initial damping factor of the specialized solver.
+     */
+    private static final double FAST_SOLVER_INITIAL_LAMBDA = 1e-3;
+
+    /**
+     * Maximum damping factor of the specialized solver. When reached, no further
+     * decrease of chi square is possible and current solution is kept.
+     */
+    private static final double FAST_SOLVER_MAX_LAMBDA = 1e12;
+
+    /**
+     * Initial capacity of buffers containing data to solve position.
+     */
+    private static final int INITIAL_DATA_CAPACITY = 16;
+
     /**
      * Initial position to start the solving algorithm.
      * This should be a value close to the expected solution.
@@ -140,6 +182,12 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
      */
     private final LevenbergMarquardtMultiDimensionFitter mFitter = new LevenbergMarquardtMultiDimensionFitter();
 
+    /**
+     * Indicates whether the specialized Levenberg-Marquardt solver using closed-form
+     * normal equations is used instead of the generic fitter.
+     */
+    private boolean mUseFastSolver = DEFAULT_USE_FAST_SOLVER;
+
     /**
      * Estimated covariance matrix for estimated position.
      */
@@ -150,6 +198,78 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
      */
     private double mChiSq;
 
+    /**
+     * Number of readings contained in data buffers.
+     */
+    private int mNumData;
+
+    /**
+     * Buffer containing, for each reading, fingerprint power, fingerprint
+     * coordinates, radio source coordinates and path-loss exponent, stored
+     * consecutively.
+     */
+    private double[] mDataPoints;
+
+    /**
+     * Buffer containing received power of each reading at unknown position.
+     */
+    private double[] mDataReceivedPower;
+
+    /**
+     * Buffer containing standard deviation of each reading.
+     */
+    private double[] mDataStandardDeviations;
+
+    /**
+     * Point of a single reading being evaluated by the specialized solver.
+     */
+    private double[] mPoint;
+
+    /**
+     * Current position being refined by the specialized solver.
+     */
+    private double[] mParams;
+
+    /**
+     * Trial position of the specialized solver.
+     */
+    private double[] mTrialParams;
+
+    /**
+     * Derivatives of a single reading respect to position.
+     */
+    private double[] mDerivatives;
+
+    /**
+     * Normal matrix (J^T*W*J) at current position stored in row-major order.
+     */
+    private double[] mAlpha;
+
+    /**
+     * Normal vector (J^T*W*r) at current position.
+     */
+    private double[] mBeta;
+
+    /**
+     * Normal matrix at trial position.
+     */
+    private double[] mTrialAlpha;
+
+    /**
+     * Normal vector at trial position.
+     */
+    private double[] mTrialBeta;
+
+    /**
+     * Damped normal matrix and its Cholesky decomposition.
+     */
+    private double[] mSystem;
+
+    /**
+     * Step of the specialized solver.
+     */
+    private double[] mStep;
+
     /**
      * Constructor.
      */
@@ -441,6 +561,32 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
                 propagateRadioSourcePositionCovariance;
     }
 
+    /**
+     * Indicates whether the specialized Levenberg-Marquardt solver using closed-form
+     * normal equations and reusable buffers is used instead of the generic
+     * Levenberg-Marquardt fitter.
+     *
+     * @return true if specialized solver is used, false if generic fitter is used.
+     */
+    public boolean isFastSolverUsed() {
+        return mUseFastSolver;
+    }
+
+    /**
+     * Specifies whether the specialized Levenberg-Marquardt solver using closed-form
+     * normal equations and reusable buffers is used instead of the generic
+     * Levenberg-Marquardt fitter.
+     *
+     * @param useFastSolver true to use specialized solver, false to use generic fitter.
+     * @throws LockedException if estimator is locked.
+     */
+    public void setFastSolverUsed(final boolean useFastSolver) throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        mUseFastSolver = useFastSolver;
+    }
+
     /**
      * Gets estimated covariance matrix for estimated position.
      *
@@ -784,14 +930,20 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
 
                 //The equation above can be solved using a non-linear fitter such as Levenberg-Marquardt
                 try {
-                    setupFitter();
+                    buildData();
 
-                    mFitter.fit();
+                    if (mUseFastSolver) {
+                        solve();
+                    } else {
+                        setupFitter();
 
-                    //estimated position
-                    mEstimatedPositionCoordinates = mFitter.getA();
-                    mCovariance = mFitter.getCovar();
-                    mChiSq = mFitter.getChisq();
+                        mFitter.fit();
+
+                        //estimated position
+                        mEstimatedPositionCoordinates = mFitter.getA();
+                        mCovariance = mFitter.getCovar();
+                        mChiSq = mFitter.getChisq();
+                    }
 
                     //a solution was found so we exit loop
                     break;
@@ -870,23 +1022,11 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
             final Matrix radioSourcePositionCovariance);
 
     /**
-     * Builds data required to solve the problem.
-     *
-     * @param allReceivedPower        list of received powers for readings at unknown positions.
-     * @param allFingerprintPower     list of power readings at fingerprint positions.
-     * @param allFingerprintPositions list of fingerprint positions.
-     * @param allSourcesPositions     list of radio sources positions.
-     * @param allPathLossExponents    list of path loss exponents.
-     * @param allStandardDeviations   list of standard deviations for readings being used.
+     * Builds data required to solve the problem into reusable buffers.
      */
     @SuppressWarnings("Duplicates")
-    private void buildData(
-            final List<Double> allReceivedPower,
-            final List<Double> allFingerprintPower,
-            final List<P> allFingerprintPositions,
-            final List<P> allSourcesPositions,
-            final List<Double> allPathLossExponents,
-            final List<Double> allStandardDeviations) {
+    private void buildData() {
+        mNumData = 0;
         for (final RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, P> locatedFingerprint :
                 mNearestFingerprints) {
 
@@ -993,17 +1133,94 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
                         standardDeviation = mFallbackRssiStandardDeviation;
                     }
 
-                    allReceivedPower.add(rssi);
-                    allFingerprintPower.add(locatedRssi);
-                    allFingerprintPositions.add(fingerprintPosition);
-                    allSourcesPositions.add(sourcePosition);
-                    allPathLossExponents.add(pathLossExponent);
-                    allStandardDeviations.add(standardDeviation);
+                    addData(rssi, locatedRssi, fingerprintPosition, sourcePosition,
+                            pathLossExponent, standardDeviation);
                 }
             }
         }
     }
 
+    /**
+     * Adds a reading to data buffers, growing them if needed.
+     *
+     * @param receivedPower       received power of reading at unknown position.
+     * @param fingerprintPower    power reading at fingerprint position.
+     * @param fingerprintPosition fingerprint position.
+     * @param sourcePosition      radio source position.
+     * @param pathLossExponent    path loss exponent.
+     * @param standardDeviation   standard deviation of reading.
+     */
+    private void addData(final double receivedPower, final double fingerprintPower,
+                         final P fingerprintPosition, final P sourcePosition,
+                         final double pathLossExponent, final double standardDeviation) {
+        final int dims = getNumberOfDimensions();
+        final int n = 2 + 2 * dims;
+
+        if (mDataReceivedPower == null || mNumData == mDataReceivedPower.length) {
+            final int capacity = mDataReceivedPower == null ?
+                    INITIAL_DATA_CAPACITY : 2 * mDataReceivedPower.length;
+            mDataPoints = mDataPoints == null ? new double[capacity * n] :
+                    Arrays.copyOf(mDataPoints, capacity * n);
+            mDataReceivedPower = mDataReceivedPower == null ? new double[capacity] :
+                    Arrays.copyOf(mDataReceivedPower, capacity);
+            mDataStandardDeviations = mDataStandardDeviations == null ?
+                    new double[capacity] :
+                    Arrays.copyOf(mDataStandardDeviations, capacity);
+        }
+
+        final int offset = mNumData * n;
+        mDataPoints[offset] = fingerprintPower;
+        for (int j = 0; j < dims; j++) {
+            mDataPoints[offset + j + 1] =
+                    fingerprintPosition.getInhomogeneousCoordinate(j);
+            mDataPoints[offset + j + 1 + dims] =
+                    sourcePosition.getInhomogeneousCoordinate(j);
+        }
+        mDataPoints[offset + 1 + 2 * dims] = pathLossExponent;
+
+        mDataReceivedPower[mNumData] = receivedPower;
+        mDataStandardDeviations[mNumData] = standardDeviation;
+        mNumData++;
+    }
+
+    /**
+     * Computes initial position to start the solving algorithm.
+     * If no initial position has been provided, the centroid of nearest fingerprints
+     * is used.
+     *
+     * @param initial array where initial position coordinates will be stored.
+     */
+    private void computeInitialPosition(final double[] initial) {
+        final int dims = getNumberOfDimensions();
+        Arrays.fill(initial, 0.0);
+
+        if (mInitialPosition == null) {
+            //use centroid of nearest fingerprints as initial value
+            int num = 0;
+            for (final RssiFingerprintLocated<? extends RadioSource,
+                    ? extends RssiReading<? extends RadioSource>, P> fingerprint : mNearestFingerprints) {
+                final P position = fingerprint.getPosition();
+                if (position == null) {
+                    continue;
+                }
+
+                for (int i = 0; i < dims; i++) {
+                    initial[i] += position.getInhomogeneousCoordinate(i);
+                }
+                num++;
+            }
+
+            for (int i = 0; i < dims; i++) {
+                initial[i] /= num;
+            }
+        } else {
+            //use provided initial position
+            for (int i = 0; i < dims; i++) {
+                initial[i] = mInitialPosition.getInhomogeneousCoordinate(i);
+            }
+        }
+    }
+
     /**
      * Setups fitter to solve position.
      *
@@ -1011,18 +1228,7 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
      */
     @SuppressWarnings("Duplicates")
     private void setupFitter() throws FittingException {
-        //build lists of data
-        final List<Double> allReceivedPower = new ArrayList<>();
-        final List<Double> allFingerprintPower = new ArrayList<>();
-        final List<P> allFingerprintPositions = new ArrayList<>();
-        final List<P> allSourcesPosition = new ArrayList<>();
-        final List<Double> allPathLossExponents = new ArrayList<>();
-        final List<Double> allStandardDeviations = new ArrayList<>();
-        buildData(allReceivedPower, allFingerprintPower,
-                allFingerprintPositions, allSourcesPosition, allPathLossExponents,
-                allStandardDeviations);
-
-        final int totalReadings = allReceivedPower.size();
+        final int totalReadings = mNumData;
         final int dims = getNumberOfDimensions();
         final int n = 2 + 2 * dims;
 
@@ -1034,34 +1240,8 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
 
             @Override
             public double[] createInitialParametersArray() {
-
                 final double[] initial = new double[dims];
-
-                if (mInitialPosition == null) {
-                    //use centroid of nearest fingerprints as initial value
-                    int num = 0;
-                    for (final RssiFingerprintLocated<? extends RadioSource,
-                            ? extends RssiReading<? extends RadioSource>, P> fingerprint : mNearestFingerprints) {
-                        final P position = fingerprint.getPosition();
-                        if (position == null) {
-                            continue;
-                        }
-
-                        for (int i = 0; i < dims; i++) {
-                            initial[i] += position.getInhomogeneousCoordinate(i);
-                        }
-                        num++;
-                    }
-
-                    for (int i = 0; i < dims; i++) {
-                        initial[i] /= num;
-                    }
-                } else {
-                    //use provided initial position
-                    for (int i = 0; i < dims; i++) {
-                        initial[i] = mInitialPosition.getInhomogeneousCoordinate(i);
-                    }
-                }
+                computeInitialPosition(initial);
                 return initial;
             }
 
@@ -1075,27 +1255,265 @@ public abstract class NonLinearFingerprintPositionEstimator<P extends Point<?>>
 
         try {
             final Matrix x = new Matrix(totalReadings, n);
-            final double[] y = new double[totalReadings];
-            final double[] standardDeviations = new double[totalReadings];
             for (int i = 0; i < totalReadings; i++) {
-                //fingerprint power Pr(p1)
-                x.setElementAt(i, 0, allFingerprintPower.get(i));
+                for (int j = 0; j < n; j++) {
+                    x.setElementAt(i, j, mDataPoints[i * n + j]);
+                }
+            }
+
+            mFitter.setInputData(x,
+                    Arrays.copyOf(mDataReceivedPower, totalReadings),
+                    Arrays.copyOf(mDataStandardDeviations, totalReadings));
+        } catch (final AlgebraException e) {
+            throw new FittingException(e);
+        }
+    }
+
+    /**
+     * Solves position using a Levenberg-Marquardt algorithm specialized for the
+     * small number of unknowns of this problem.
+     * Normal equations (J^T*W*J and J^T*W*r) are accumulated in closed form from
+     * the derivatives provided by {@link #evaluate(int, double[], double[], double[])}
+     * and solved with a Cholesky decomposition on reusable buffers.
+     * As in the generic fitter, iteration stops once several iterations have not
+     * significantly changed either chi square or position.
+     * Position changes are measured respect to the uncertainty of the estimated
+     * position (i.e. Mahalanobis distance), so that convergence does not depend
+     * on the origin or units of coordinates.
+     * Estimated position, covariance and chi square are set once a solution is
+     * found.
+     *
+     * @throws FittingException if no solution can be found with current data.
+     */
+    private void solve() throws FittingException {
+        final int dims = getNumberOfDimensions();
+        final int n = 2 + 2 * dims;
+        if (mParams == null || mParams.length != dims) {
+            mPoint = new double[n];
+            mParams = new double[dims];
+            mTrialParams = new double[dims];
+            mDerivatives = new double[dims];
+            mAlpha = new double[dims * dims];
+            mBeta = new double[dims];
+            mTrialAlpha = new double[dims * dims];
+            mTrialBeta = new double[dims];
+            mSystem = new double[dims * dims];
+            mStep = new double[dims];
+        }
+
+        computeInitialPosition(mParams);
+        double chiSq = computeNormalEquations(mParams, mAlpha, mBeta);
+        if (Double.isNaN(chiSq) || Double.isInfinite(chiSq)) {
+            throw new FittingException();
+        }
+
+        double lambda = FAST_SOLVER_INITIAL_LAMBDA;
+        int done = 0;
+        boolean converged = false;
+        for (int iter = 0; iter < FAST_SOLVER_MAX_ITERATIONS && !converged; iter++) {
+            //solve damped system (alpha + lambda*diag(alpha))*step = beta
+            System.arraycopy(mAlpha, 0, mSystem, 0, mAlpha.length);
+            for (int i = 0; i < dims; i++) {
+                mSystem[i * dims + i] *= 1.0 + lambda;
+            }
+            System.arraycopy(mBeta, 0, mStep, 0, dims);
+            if (!choleskyDecompose(mSystem, dims)) {
+                throw new FittingException();
+            }
+            choleskySolve(mSystem, mStep, dims);
+
+            //squared Mahalanobis norm of step (step^T*alpha*step), since alpha is
+            //the inverse of the covariance of estimated position
+            double stepNorm2 = 0.0;
+            for (int i = 0; i < dims; i++) {
+                mTrialParams[i] = mParams[i] + mStep[i];
+                double sum = 0.0;
                 for (int j = 0; j < dims; j++) {
-                    x.setElementAt(i, j + 1,
-                            allFingerprintPositions.get(i).getInhomogeneousCoordinate(j));
-                    x.setElementAt(i, j + 1 + dims,
-                            allSourcesPosition.get(i).getInhomogeneousCoordinate(j));
+                    sum += mAlpha[i * dims + j] * mStep[j];
                 }
-                x.setElementAt(i, 1 + 2 * dims, allPathLossExponents.get(i));
+                stepNorm2 += mStep[i] * sum;
+            }
+
+            final boolean smallStep = stepNorm2 <=
+                    FAST_SOLVER_TOLERANCE * FAST_SOLVER_TOLERANCE;
+
+            final double trialChiSq = computeNormalEquations(mTrialParams,
+                    mTrialAlpha, mTrialBeta);
+
+            //stop once chi square or position have not changed significantly on
+            //several iterations
+            if (smallStep || Math.abs(trialChiSq - chiSq) <
+                    Math.max(FAST_SOLVER_TOLERANCE, FAST_SOLVER_TOLERANCE * chiSq)) {
+                done++;
+            }
+            converged = done >= FAST_SOLVER_NDONE;
+
+            if (trialChiSq <= chiSq) {
+                //step is accepted
+
+                double[] tmp = mParams;
+                mParams = mTrialParams;
+                mTrialParams = tmp;
+
+                tmp = mAlpha;
+                mAlpha = mTrialAlpha;
+                mTrialAlpha = tmp;
+
+                tmp = mBeta;
+                mBeta = mTrialBeta;
+                mTrialBeta = tmp;
 
-                y[i] = allReceivedPower.get(i);
+                chiSq = trialChiSq;
+                lambda *= 0.1;
+            } else {
+                //step is rejected, increase damping towards gradient descent
+                lambda *= 10.0;
+                converged |= lambda > FAST_SOLVER_MAX_LAMBDA;
+            }
+        }
 
-                standardDeviations[i] = allStandardDeviations.get(i);
+        if (!converged) {
+            throw new FittingException();
+        }
+
+        try {
+            //covariance is the inverse of the undamped normal matrix
+            Matrix covariance = new Matrix(dims, dims);
+            System.arraycopy(mAlpha, 0, mSystem, 0, mAlpha.length);
+            if (choleskyDecompose(mSystem, dims)) {
+                for (int j = 0; j < dims; j++) {
+                    Arrays.fill(mStep, 0.0);
+                    mStep[j] = 1.0;
+                    choleskySolve(mSystem, mStep, dims);
+                    for (int i = 0; i < dims; i++) {
+                        covariance.setElementAt(i, j, mStep[i]);
+                    }
+                }
+            } else {
+                //normal matrix is numerically rank deficient (e.g. when there are
+                //less readings than unknowns), hence general inverse is used as
+                //the generic fitter does
+                covariance.fromArray(mAlpha, false);
+                covariance = com.irurueta.algebra.Utils.inverse(covariance);
             }
 
-            mFitter.setInputData(x, y, standardDeviations);
+            mEstimatedPositionCoordinates = Arrays.copyOf(mParams, dims);
+            mCovariance = covariance;
+            mChiSq = chiSq;
         } catch (final AlgebraException e) {
             throw new FittingException(e);
         }
     }
+
+    /**
+     * Accumulates normal equations of weighted least squares problem at provided
+     * position.
+     *
+     * @param params position where normal equations are evaluated.
+     * @param alpha  array where normal matrix (J^T*W*J) will be stored in row-major
+     *               order.
+     * @param beta   array where normal vector (J^T*W*r) will be stored.
+     * @return chi square at provided position.
+     * @throws FittingException if evaluation fails.
+     */
+    private double computeNormalEquations(final double[] params, final double[] alpha,
+                                          final double[] beta) throws FittingException {
+        final int dims = params.length;
+        final int n = mPoint.length;
+        Arrays.fill(alpha, 0.0);
+        Arrays.fill(beta, 0.0);
+
+        double chiSq = 0.0;
+        try {
+            for (int i = 0; i < mNumData; i++) {
+                System.arraycopy(mDataPoints, i * n, mPoint, 0, n);
+                final double value = evaluate(i, mPoint, params, mDerivatives);
+
+                final double sigma = mDataStandardDeviations[i];
+                final double weight = 1.0 / (sigma * sigma);
+                final double residual = mDataReceivedPower[i] - value;
+                chiSq += residual * residual * weight;
+
+                for (int j = 0; j < dims; j++) {
+                    final double weightedDerivative = mDerivatives[j] * weight;
+                    beta[j] += residual * weightedDerivative;
+                    for (int k = 0; k <= j; k++) {
+                        alpha[j * dims + k] += weightedDerivative * mDerivatives[k];
+                    }
+                }
+            }
+        } catch (final EvaluationException e) {
+            throw new FittingException(e);
+        }
+
+        //fill upper triangle
+        for (int j = 0; j < dims; j++) {
+            for (int k = j + 1; k < dims; k++) {
+                alpha[j * dims + k] = alpha[k * dims + j];
+            }
+        }
+
+        return chiSq;
+    }
+
+    /**
+     * Computes in place the lower triangular Cholesky factor of a small symmetric
+     * matrix stored in row-major order.
+     *
+     * @param m    matrix to be decomposed. Its lower triangle is overwritten with
+     *             the Cholesky factor.
+     * @param dims number of rows and columns of matrix.
+     * @return true if matrix is positive definite, false otherwise.
+     */
+    private static boolean choleskyDecompose(final double[] m, final int dims) {
+        for (int j = 0; j < dims; j++) {
+            double diag = m[j * dims + j];
+            for (int k = 0; k < j; k++) {
+                diag -= m[j * dims + k] * m[j * dims + k];
+            }
+            if (!(diag > 0.0)) {
+                return false;
+            }
+            diag = Math.sqrt(diag);
+            m[j * dims + j] = diag;
+
+            for (int i = j + 1; i < dims; i++) {
+                double value = m[i * dims + j];
+                for (int k = 0; k < j; k++) {
+                    value -= m[i * dims + k] * m[j * dims + k];
+                }
+                m[i * dims + j] = value / diag;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves in place a linear system using a lower triangular Cholesky factor
+     * obtained with {@link #choleskyDecompose(double[], int)}.
+     *
+     * @param l    Cholesky factor stored in row-major order.
+     * @param b    right hand side of system, which is overwritten with solution.
+     * @param dims number of unknowns.
+     */
+    private static void choleskySolve(final double[] l, final double[] b,
+                                      final int dims) {
+        //forward substitution (L*y = b)
+        for (int i = 0; i < dims; i++) {
+            double value = b[i];
+            for (int k = 0; k < i; k++) {
+                value -= l[i * dims + k] * b[k];
+            }
+            b[i] = value / l[i * dims + i];
+        }
+
+        //backward substitution (L^T*x = y)
+        for (int i = dims - 1; i >= 0; i--) {
+            double value = b[i];
+            for (int k = i + 1; k < dims; k++) {
+                value -= l[k * dims + i] * b[k];
+            }
+            b[i] = value / l[i * dims + i];
+        }
+    }
 }
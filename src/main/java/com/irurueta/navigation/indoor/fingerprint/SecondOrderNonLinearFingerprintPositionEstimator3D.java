@@ -18,7 +18,6 @@ package com.irurueta.navigation.indoor.fingerprint;
 import com.irurueta.algebra.Matrix;
 import com.irurueta.geometry.Point3D;
 import com.irurueta.navigation.indoor.*;
-import com.irurueta.statistics.MultivariateNormalDist;
 
 import java.util.List;
 
@@ -37,6 +36,17 @@ import java.util.List;
 public class SecondOrderNonLinearFingerprintPositionEstimator3D extends
         NonLinearFingerprintPositionEstimator3D {
 
+    /**
+     * Gradient of RSSI respect to path-loss exponent and positions, reused on
+     * each variance propagation.
+     */
+    private final double[] mGradient = new double[11];
+
+    /**
+     * Mean and variance of RSSI, reused on each variance propagation.
+     */
+    private final double[] mResult = new double[2];
+
     /**
      * Constructor.
      */
@@ -304,26 +314,14 @@ public class SecondOrderNonLinearFingerprintPositionEstimator3D extends
             final Double pathlossExponentVariance,
             final Matrix fingerprintPositionCovariance,
             final Matrix radioSourcePositionCovariance) {
-        try {
-            final MultivariateNormalDist dist =
-                    Utils.propagateVariancesToRssiVarianceSecondOrderNonLinear3D(
-                            fingerprintRssi, pathlossExponent, fingerprintPosition,
-                            radioSourcePosition, estimatedPosition, fingerprintRssiVariance,
-                            pathlossExponentVariance, fingerprintPositionCovariance,
-                            radioSourcePositionCovariance, null);
-            if (dist == null) {
-                return null;
-            }
-
-            final Matrix covariance = dist.getCovariance();
-            if (covariance == null) {
-                return null;
-            }
-
-            return covariance.getElementAt(0, 0);
-
-        } catch (IndoorException e) {
-            return null;
+        if (Utils.propagateVariancesToRssiVarianceSecondOrderNonLinear3D(
+                fingerprintRssi, pathlossExponent, fingerprintPosition,
+                radioSourcePosition, estimatedPosition, fingerprintRssiVariance,
+                pathlossExponentVariance, fingerprintPositionCovariance,
+                radioSourcePositionCovariance, null, mGradient, mResult)) {
+            return mResult[1];
         }
+
+        return null;
     }
 }
@@ -274,8 +274,8 @@ public abstract class LinearMixedPositionEstimator<P extends Point<P>> extends
 
         final List<P> positions = new ArrayList<>();
         final List<Double> distances = new ArrayList<>();
-        PositionEstimatorHelper.buildPositionsAndDistances(
-                mSources, mFingerprint, positions, distances);
+        PositionEstimatorHelper.buildIndexedPositionsAndDistances(
+                mSourcesIndex, mFingerprint, positions, distances);
 
         setPositionsAndDistances(positions, distances);
     }
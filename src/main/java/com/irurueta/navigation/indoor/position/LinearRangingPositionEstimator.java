@@ -272,8 +272,8 @@ public abstract class LinearRangingPositionEstimator<P extends Point<P>> extends
 
         final List<P> positions = new ArrayList<>();
         final List<Double> distances = new ArrayList<>();
-        PositionEstimatorHelper.buildPositionsAndDistances(
-                mSources, mFingerprint, positions, distances);
+        PositionEstimatorHelper.buildIndexedPositionsAndDistances(
+                mSourcesIndex, mFingerprint, positions, distances);
 
         setPositionsAndDistances(positions, distances);
     }
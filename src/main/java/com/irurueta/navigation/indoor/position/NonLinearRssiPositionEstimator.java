@@ -374,8 +374,8 @@ public abstract class NonLinearRssiPositionEstimator<P extends Point<?>> extends
         final List<P> positions = new ArrayList<>();
         final List<Double> distances = new ArrayList<>();
         final List<Double> distanceStandardDeviations = new ArrayList<>();
-        PositionEstimatorHelper.buildPositionsDistancesAndDistanceStandardDeviations(
-                mSources, mFingerprint, mUseRadioSourcePositionCovariance,
+        PositionEstimatorHelper.buildIndexedPositionsDistancesAndDistanceStandardDeviations(
+                mSourcesIndex, mFingerprint, mUseRadioSourcePositionCovariance,
                 mFallbackDistanceStandardDeviation, positions, distances,
                 distanceStandardDeviations);
 
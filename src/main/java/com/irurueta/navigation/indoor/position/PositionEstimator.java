@@ -46,6 +46,12 @@ public abstract class PositionEstimator<P extends Point<?>,
      */
     protected List<? extends RadioSourceLocated<P>> mSources;
 
+    /**
+     * Index of located radio sources used to find the radio source of each
+     * fingerprint reading. It is built every time sources are set.
+     */
+    protected RadioSourceLocatedIndex<P> mSourcesIndex;
+
     /**
      * Fingerprint containing readings at an unknown location for provided located radio sources.
      */
@@ -252,6 +258,7 @@ public abstract class PositionEstimator<P extends Point<?>,
         }
 
         mSources = sources;
+        mSourcesIndex = new RadioSourceLocatedIndex<>(sources);
     }
 
     /**
@@ -59,8 +59,35 @@ public class PositionEstimatorHelper {
             final List<? extends RadioSourceLocated<P>> sources,
             final Fingerprint<? extends RadioSource, ? extends Reading<? extends RadioSource>> fingerprint,
             final List<P> positions, final List<Double> distances) {
+        buildIndexedPositionsAndDistances(sources != null ?
+                        new RadioSourceLocatedIndex<>(sources) : null,
+                fingerprint, positions, distances);
+    }
+
+    /**
+     * Builds positions and distances from provided index of located radio sources and
+     * fingerprint readings.
+     * Located radio source of each reading is found using provided index, hence the
+     * same index can be reused to efficiently process many fingerprints.
+     * Notice that positions and distances lists might not have the same size
+     * as indexed sources list or fingerprint readings list if not all radio sources
+     * between sources and fingerprint readings match.
+     * If no index, fingerprint readings, positions and distances are provided, this
+     * method makes no action.
+     *
+     * @param index       index of located radio sources to obtain positions and other
+     *                    parameters.
+     * @param fingerprint fingerprint containing ranged RSSI readings.
+     * @param positions   list where extracted positions will be stored.
+     * @param distances   list where extracted distances will be stored.
+     * @param <P>         a {@link Point} type.
+     */
+    public static <P extends Point<?>> void buildIndexedPositionsAndDistances(
+            final RadioSourceLocatedIndex<P> index,
+            final Fingerprint<? extends RadioSource, ? extends Reading<? extends RadioSource>> fingerprint,
+            final List<P> positions, final List<Double> distances) {
 
-        if (sources == null || fingerprint == null ||
+        if (index == null || fingerprint == null ||
                 fingerprint.getReadings() == null ||
                 positions == null || distances == null) {
             return;
@@ -72,10 +99,9 @@ public class PositionEstimatorHelper {
         final List<? extends Reading<? extends RadioSource>> readings =
                 fingerprint.getReadings();
         for (final Reading<? extends RadioSource> reading : readings) {
-            //noinspection all
-            final int index = sources.indexOf(reading.getSource());
-            if (index >= 0) {
-                final RadioSourceLocated<P> locatedSource = sources.get(index);
+            final int sourceIndex = index.indexOf(reading.getSource());
+            if (sourceIndex >= 0) {
+                final RadioSourceLocated<P> locatedSource = index.getSource(sourceIndex);
                 final P position = locatedSource.getPosition();
 
                 //compute distance
@@ -156,6 +182,48 @@ public class PositionEstimatorHelper {
                 distanceStandardDeviations, null);
     }
 
+    /**
+     * Builds positions, distances and standard deviations from provided index of
+     * located radio sources and fingerprint readings.
+     * Located radio source of each reading is found using provided index, hence the
+     * same index can be reused to efficiently process many fingerprints.
+     * Notice that positions, distances and standard deviations lists might not have
+     * the same size as indexed sources list or fingerprint readings list if not all
+     * radio sources between sources and fingerprint readings match.
+     * If no index, fingerprint readings, positions, distances and standard deviations
+     * are provided, this method makes no action.
+     *
+     * @param index                             index of located radio sources to
+     *                                          obtain positions and other parameters.
+     * @param fingerprint                       fingerprint containing ranged or RSSI
+     *                                          readings.
+     * @param useRadioSourcePositionCovariance  true to take into account radio source
+     *                                          position covariance, false otherwise.
+     * @param fallbackDistanceStandardDeviation distance standard deviation to be
+     *                                          assumed when it cannot be determined.
+     * @param positions                         list where extracted positions will be
+     *                                          stored.
+     * @param distances                         list where extracted distances will be
+     *                                          stored.
+     * @param distanceStandardDeviations        list where extracted standard deviations
+     *                                          of distances will be stored.
+     * @param <P>                               a {@link Point} type.
+     * @throws IllegalArgumentException if provided distance standard deviation fallback
+     *                                  is negative.
+     */
+    public static <P extends Point<?>> void buildIndexedPositionsDistancesAndDistanceStandardDeviations(
+            final RadioSourceLocatedIndex<P> index,
+            final Fingerprint<? extends RadioSource, ? extends Reading<? extends RadioSource>> fingerprint,
+            final boolean useRadioSourcePositionCovariance,
+            final double fallbackDistanceStandardDeviation,
+            final List<P> positions, final List<Double> distances,
+            final List<Double> distanceStandardDeviations) {
+        buildIndexedPositionsDistancesDistanceStandardDeviationsAndQualityScores(index,
+                fingerprint, null, null, useRadioSourcePositionCovariance,
+                fallbackDistanceStandardDeviation, positions, distances,
+                distanceStandardDeviations, null);
+    }
+
     /**
      * Builds positions, distances and standard deviations from provided located radio
      * sources and fingerprint readings.
@@ -200,12 +268,66 @@ public class PositionEstimatorHelper {
             final List<P> positions, final List<Double> distances,
             final List<Double> distanceStandardDeviations,
             final List<Double> distanceQualityScores) {
+        buildIndexedPositionsDistancesDistanceStandardDeviationsAndQualityScores(
+                sources != null ? new RadioSourceLocatedIndex<>(sources) : null,
+                fingerprint, sourceQualityScores, fingerprintReadingsQualityScores,
+                useRadioSourcePositionCovariance, fallbackDistanceStandardDeviation,
+                positions, distances, distanceStandardDeviations,
+                distanceQualityScores);
+    }
+
+    /**
+     * Builds positions, distances and standard deviations from provided index of
+     * located radio sources and fingerprint readings.
+     * Located radio source of each reading is found using provided index, hence the
+     * same index can be reused to efficiently process many fingerprints.
+     * Notice that positions, distance and standard deviations lists might not have the
+     * same size as indexed sources list or fingerprint readings list if not all radio
+     * sources between sources and fingerprint readings match.
+     * If no index, fingerprint readings, positions, distances and standard deviations
+     * are provided, this method makes no action.
+     *
+     * @param index                             index of located radio sources to
+     *                                          obtain positions and other parameters.
+     * @param fingerprint                       fingerprint containing ranged or RSSI
+     *                                          readings.
+     * @param sourceQualityScores               quality scores corresponding to each
+     *                                          indexed located radio source. The larger
+     *                                          the score value the better the quality of
+     *                                          the sample. If null, no quality scores
+     *                                          will be stored.
+     * @param fingerprintReadingsQualityScores  quality scores corresponding to each
+     *                                          reading within provided fingerprint.
+     * @param useRadioSourcePositionCovariance  true to take into account radio source
+     *                                          position covariance, false otherwise.
+     * @param fallbackDistanceStandardDeviation distance standard deviation to be
+     *                                          assumed when it cannot be determined.
+     * @param positions                         list where extracted positions will be stored.
+     * @param distances                         list where extracted distances will be stored.
+     * @param distanceStandardDeviations        list where extracted standard deviations of
+     *                                          distances will be stored.
+     * @param distanceQualityScores             list where extracted quality scores will
+     *                                          be stored. If null, quality scores will
+     *                                          be ignored.
+     * @param <P>                               a {@link Point} type.
+     * @throws IllegalArgumentException if provided distance standard deviation
+     *                                  fallback is negative.
+     */
+    public static <P extends Point<?>> void buildIndexedPositionsDistancesDistanceStandardDeviationsAndQualityScores(
+            final RadioSourceLocatedIndex<P> index,
+            final Fingerprint<? extends RadioSource, ? extends Reading<? extends RadioSource>> fingerprint,
+            final double[] sourceQualityScores, final double[] fingerprintReadingsQualityScores,
+            final boolean useRadioSourcePositionCovariance,
+            final double fallbackDistanceStandardDeviation,
+            final List<P> positions, final List<Double> distances,
+            final List<Double> distanceStandardDeviations,
+            final List<Double> distanceQualityScores) {
 
         if (fallbackDistanceStandardDeviation < 0.0) {
             throw new IllegalArgumentException();
         }
 
-        if (sources == null || fingerprint == null ||
+        if (index == null || fingerprint == null ||
                 fingerprint.getReadings() == null ||
                 positions == null || distances == null ||
                 distanceStandardDeviations == null) {
@@ -228,14 +350,13 @@ public class PositionEstimatorHelper {
                 fingerprint.getReadings();
         int readingIndex = 0;
         for (final Reading<? extends RadioSource> reading : readings) {
-            // noinspection all
-            final int sourceIndex = sources.indexOf(reading.getSource());
+            final int sourceIndex = index.indexOf(reading.getSource());
             final Double readingQualityScore = fingerprintReadingsQualityScores != null ?
                     fingerprintReadingsQualityScores[readingIndex] : null;
             Double sourceQualityScore = null;
             Double qualityScore = null;
             if (sourceIndex >= 0) {
-                final RadioSourceLocated<P> locatedSource = sources.get(sourceIndex);
+                final RadioSourceLocated<P> locatedSource = index.getSource(sourceIndex);
                 final P position = locatedSource.getPosition();
                 if (sourceQualityScores != null) {
                     sourceQualityScore = sourceQualityScores[sourceIndex];
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.position;
+
+import com.irurueta.geometry.Point;
+import com.irurueta.navigation.indoor.RadioSource;
+import com.irurueta.navigation.indoor.RadioSourceLocated;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash index mapping radio sources to their position within a list of located radio
+ * sources.
+ * Looking up the located radio source of a reading takes constant time instead of
+ * the linear search done by {@link List#indexOf(Object)}, so that positions and
+ * distances of a fingerprint can be built in linear time even when thousands of
+ * radio sources are deployed.
+ * An index can be reused for any number of fingerprints as long as provided list of
+ * located radio sources is not modified.
+ *
+ * @param <P> a {@link Point} type.
+ */
+public class RadioSourceLocatedIndex<P extends Point<?>> {
+
+    /**
+     * Indexed located radio sources.
+     */
+    private final List<? extends RadioSourceLocated<P>> mSources;
+
+    /**
+     * Maps each located radio source to its position within the list. If a radio
+     * source is repeated, the position of its last occurrence is kept.
+     */
+    private final Map<RadioSourceLocated<P>, Integer> mPositions;
+
+    /**
+     * Maps repeated located radio sources to the position of their first
+     * occurrence within the list, or null if no radio source is repeated.
+     */
+    private Map<RadioSourceLocated<P>, Integer> mFirstPositions;
+
+    /**
+     * Constructor.
+     *
+     * @param sources located radio sources to be indexed.
+     * @throws IllegalArgumentException if provided list is null.
+     */
+    public RadioSourceLocatedIndex(final List<? extends RadioSourceLocated<P>> sources) {
+        if (sources == null) {
+            throw new IllegalArgumentException();
+        }
+
+        mSources = sources;
+
+        final int size = sources.size();
+        mPositions = new HashMap<>(2 * size);
+        int position = 0;
+        for (final RadioSourceLocated<P> source : sources) {
+            final Integer previous = mPositions.put(source, position);
+            if (previous != null) {
+                if (mFirstPositions == null) {
+                    mFirstPositions = new HashMap<>();
+                }
+                if (!mFirstPositions.containsKey(source)) {
+                    mFirstPositions.put(source, previous);
+                }
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Gets indexed located radio sources.
+     *
+     * @return indexed located radio sources.
+     */
+    public List<? extends RadioSourceLocated<P>> getSources() {
+        return mSources;
+    }
+
+    /**
+     * Gets number of indexed located radio sources.
+     *
+     * @return number of indexed located radio sources.
+     */
+    public int size() {
+        return mSources.size();
+    }
+
+    /**
+     * Gets located radio source at provided position.
+     *
+     * @param position position of located radio source.
+     * @return located radio source.
+     * @throws IndexOutOfBoundsException if position is not valid.
+     */
+    public RadioSourceLocated<P> getSource(final int position) {
+        return mSources.get(position);
+    }
+
+    /**
+     * Gets position of first located radio source equal to provided radio source,
+     * as {@link List#indexOf(Object)} would return.
+     *
+     * @param source radio source to look for.
+     * @return position of located radio source or -1 if not found.
+     */
+    public int indexOf(final RadioSource source) {
+        if (mFirstPositions != null) {
+            // noinspection all
+            final Integer position = mFirstPositions.get(source);
+            if (position != null) {
+                return position;
+            }
+        }
+        return lastIndexOf(source);
+    }
+
+    /**
+     * Gets position of last located radio source equal to provided radio source,
+     * as {@link List#lastIndexOf(Object)} would return.
+     *
+     * @param source radio source to look for.
+     * @return position of located radio source or -1 if not found.
+     */
+    public int lastIndexOf(final RadioSource source) {
+        // noinspection all
+        final Integer position = mPositions.get(source);
+        return position != null ? position : -1;
+    }
+}
@@ -23,6 +23,9 @@ import java.util.*;
 /**
  * Evenly sorts readings of a fingerprint among different radio sources taking into
  * account their respective quality scores as well.
+ * If the same radio source is repeated within provided sources, readings of that
+ * radio source are assigned to its last occurrence, and previous occurrences are
+ * kept without readings.
  *
  * @param <P> a {@link Point} type.
  * @param <R> a {@link Reading} type.
@@ -34,6 +37,11 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
      */
     private final List<? extends RadioSourceLocated<P>> mSources;
 
+    /**
+     * Index of sources to find the source of each reading.
+     */
+    private final RadioSourceLocatedIndex<P> mSourcesIndex;
+
     /**
      * Fingerprint containing readings of different sources.
      */
@@ -74,6 +82,31 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
                   final Fingerprint<? extends RadioSource, ? extends R> fingerprint,
                   final double[] sourceQualityScores,
                   final double[] fingerprintReadingsQualityScores) {
+        this(new RadioSourceLocatedIndex<>(sources), fingerprint, sourceQualityScores,
+                fingerprintReadingsQualityScores);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sourcesIndex                     index of sources to take into account
+     *                                         within readings.
+     * @param fingerprint                      fingerprint containing readings of
+     *                                         different sources.
+     * @param sourceQualityScores              quality scores associated to each radio
+     *                                         source.
+     * @param fingerprintReadingsQualityScores quality scores associated to each reading
+     *                                         within the fingerprint.
+     * @throws IllegalArgumentException if number of source quality scores is not equal
+     *                                  to the number of sources, or if number of
+     *                                  fingerprint reading quality scores is not equal
+     *                                  to the number of readings within fingerprint.
+     */
+    ReadingSorter(final RadioSourceLocatedIndex<P> sourcesIndex,
+                  final Fingerprint<? extends RadioSource, ? extends R> fingerprint,
+                  final double[] sourceQualityScores,
+                  final double[] fingerprintReadingsQualityScores) {
+        final List<? extends RadioSourceLocated<P>> sources = sourcesIndex.getSources();
         if (sources.size() != sourceQualityScores.length) {
             throw new IllegalArgumentException();
         }
@@ -83,6 +116,7 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
         }
 
         mSources = sources;
+        mSourcesIndex = sourcesIndex;
         mFingerprint = fingerprint;
         mSourceQualityScores = sourceQualityScores;
         mFingerprintReadingsQualityScores = fingerprintReadingsQualityScores;
@@ -129,10 +163,11 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
      */
     void sort() {
 
-        final Map<RadioSourceLocated<P>, RadioSourceSourceWithQualityScore<P, R>> sourcesMap = new HashMap<>();
-
         // build sources
-        final List<RadioSourceSourceWithQualityScore<P, R>> sourcesWithQualityScores = new ArrayList<>();
+        final int numSources = mSources.size();
+        // noinspection unchecked
+        final RadioSourceSourceWithQualityScore<P, R>[] sourcesWithQualityScores =
+                new RadioSourceSourceWithQualityScore[numSources];
         int sourcePosition = 0;
         for (final RadioSourceLocated<P> source : mSources) {
             final RadioSourceSourceWithQualityScore<P, R> sourceWithQualityScore =
@@ -142,9 +177,7 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
             sourceWithQualityScore.position = sourcePosition;
             sourceWithQualityScore.readingsWithQualityScores = new ArrayList<>();
 
-            sourcesWithQualityScores.add(sourceWithQualityScore);
-
-            sourcesMap.put(source, sourceWithQualityScore);
+            sourcesWithQualityScores[sourcePosition] = sourceWithQualityScore;
 
             sourcePosition++;
         }
@@ -152,15 +185,13 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
         // build readings
         int readingPosition = 0;
         for (@SuppressWarnings("unchecked") final R reading : mFingerprint.getReadings()) {
-            // noinspection all
-            final RadioSourceSourceWithQualityScore<P, R> sourceWithQualityScore =
-                    sourcesMap.get(reading.getSource());
-            if (sourceWithQualityScore == null) {
+            final int position = mSourcesIndex.lastIndexOf(reading.getSource());
+            if (position < 0) {
                 continue;
             }
 
             final List<ReadingWithQualityScore<R>> readingsWithQualityScores =
-                    sourceWithQualityScore.readingsWithQualityScores;
+                    sourcesWithQualityScores[position].readingsWithQualityScores;
 
             final ReadingWithQualityScore<R> readingWithQualityScore = new ReadingWithQualityScore<>();
             readingWithQualityScore.reading = reading;
@@ -172,29 +203,19 @@ public class ReadingSorter<P extends Point<?>, R extends Reading<? extends Radio
             readingPosition++;
         }
 
-        // sort all readings within sources
+        // sort all readings within sources from highest to lowest quality. Sources
+        // having less than two readings are already sorted
         for (final RadioSourceSourceWithQualityScore<P, R> sourceWithQualityScore : sourcesWithQualityScores) {
-            // sort all readings for this source from highest to lowest quality
-
-            // noinspection unchecked
-            final ReadingWithQualityScore<R>[] readingsWithQualityScoresArray =
-                    new ReadingWithQualityScore[sourceWithQualityScore.readingsWithQualityScores.size()];
-            sourceWithQualityScore.readingsWithQualityScores.toArray(readingsWithQualityScoresArray);
-            Arrays.sort(readingsWithQualityScoresArray, new ReadingComparator<R>());
-
-            sourceWithQualityScore.readingsWithQualityScores = Arrays.asList(
-                    readingsWithQualityScoresArray);
+            if (sourceWithQualityScore.readingsWithQualityScores.size() > 1) {
+                Collections.sort(sourceWithQualityScore.readingsWithQualityScores,
+                        new ReadingComparator<R>());
+            }
         }
 
         // sort all sources from highest to lowest quality
+        Arrays.sort(sourcesWithQualityScores, new RadioSourceComparator<P, R>());
 
-        // noinspection unchecked
-        final RadioSourceSourceWithQualityScore<P, R>[] sourcesWithQualityScoresArray =
-                new RadioSourceSourceWithQualityScore[sourcesWithQualityScores.size()];
-        sourcesWithQualityScores.toArray(sourcesWithQualityScoresArray);
-        Arrays.sort(sourcesWithQualityScoresArray, new RadioSourceComparator<P, R>());
-
-        mSortedSourcesAndReadings = Arrays.asList(sourcesWithQualityScoresArray);
+        mSortedSourcesAndReadings = Arrays.asList(sourcesWithQualityScores);
     }
 
     /**
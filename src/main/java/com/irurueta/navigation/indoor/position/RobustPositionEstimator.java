@@ -78,6 +78,12 @@ public abstract class RobustPositionEstimator<P extends Point<?>,
      */
     protected List<? extends RadioSourceLocated<P>> mSources;
 
+    /**
+     * Index of located radio sources used to find the radio source of each
+     * fingerprint reading. It is built every time sources are set.
+     */
+    protected RadioSourceLocatedIndex<P> mSourcesIndex;
+
     /**
      * Fingerprint containing readings at an unknown location for provided located
      * radio sources.
@@ -746,6 +752,7 @@ public abstract class RobustPositionEstimator<P extends Point<?>,
         }
 
         mSources = sources;
+        mSourcesIndex = new RadioSourceLocatedIndex<>(sources);
 
         buildPositionsDistancesDistanceStandardDeviationsAndQualityScores();
     }
@@ -819,7 +826,7 @@ public abstract class RobustPositionEstimator<P extends Point<?>,
                         mFingerprint.getReadings().size()];
             }
 
-            final ReadingSorter<P, R> sorter = new ReadingSorter<>(mSources, mFingerprint,
+            final ReadingSorter<P, R> sorter = new ReadingSorter<>(mSourcesIndex, mFingerprint,
                     sourceQualityScores, fingerprintReadingsQualityScores);
             sorter.sort();
 
@@ -855,8 +862,8 @@ public abstract class RobustPositionEstimator<P extends Point<?>,
         if (sourceQualityScores != null || fingerprintReadingsQualityScores != null) {
             distanceQualityScores = new ArrayList<>();
         }
-        PositionEstimatorHelper.buildPositionsDistancesDistanceStandardDeviationsAndQualityScores(
-                mSources, mFingerprint, sourceQualityScores,
+        PositionEstimatorHelper.buildIndexedPositionsDistancesDistanceStandardDeviationsAndQualityScores(
+                mSourcesIndex, mFingerprint, sourceQualityScores,
                 fingerprintReadingsQualityScores,
                 isRadioSourcePositionCovarianceUsed(),
                 getFallbackDistanceStandardDeviation(), positions, distances,
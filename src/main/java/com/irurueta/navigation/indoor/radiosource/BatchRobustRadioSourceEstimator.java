@@ -0,0 +1,486 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.radiosource;
+
+import com.irurueta.geometry.Point;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.indoor.RadioSource;
+import com.irurueta.navigation.indoor.RadioSourceLocated;
+import com.irurueta.navigation.indoor.Reading;
+import com.irurueta.navigation.indoor.ReadingLocated;
+import com.irurueta.numerical.robust.InliersData;
+import com.irurueta.numerical.robust.RobustEstimatorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Robustly estimates all radio sources (e.g. WiFi access points or bluetooth beacons)
+ * found in a batch of located readings, such as a fingerprint database of a whole
+ * building or campus.
+ * Readings are grouped by radio source, and each radio source is estimated using a
+ * robust estimator created by provided factory. Radio sources can be estimated in
+ * parallel on a fork-join pool, where idle workers steal pending ranges of radio
+ * sources.
+ * To bound memory usage when a large number of readings is available, at most
+ * {@link #getMaxReadingsPerSource()} readings (1000 by default) are kept for each
+ * radio source. Radio sources having more readings than that are subsampled, so
+ * that kept readings are uniformly sampled among all their readings, and hence
+ * estimations of such radio sources do not use all available readings.
+ * Subsampling is driven by a randomizer that can be provided with a fixed seed to
+ * obtain repeatable results.
+ * Because readings usually do not have quality scores, all readings are given the
+ * same quality score when estimators using PROSAC or PROMedS are used.
+ *
+ * @param <S> a {@link RadioSource} type.
+ * @param <P> a {@link Point} type.
+ * @param <R> a located {@link Reading} type.
+ */
+public class BatchRobustRadioSourceEstimator<S extends RadioSource, P extends Point<?>,
+        R extends Reading<S> & ReadingLocated<P>> {
+
+    /**
+     * Default maximum number of readings kept for each radio source.
+     */
+    public static final int DEFAULT_MAX_READINGS_PER_SOURCE = 1000;
+
+    /**
+     * Default minimum number of radio sources estimated by each task when splitting
+     * a batch across a fork-join pool.
+     * Because estimation of each radio source is expensive, ranges are split until
+     * each task estimates a single radio source.
+     */
+    public static final int DEFAULT_MIN_SOURCES_PER_TASK = 1;
+
+    /**
+     * Factory of robust estimators used for each radio source.
+     */
+    private final RobustRadioSourceEstimatorFactory<P, R> mFactory;
+
+    /**
+     * Fork-join pool to split batches into. If not provided, batches are processed
+     * on the calling thread.
+     */
+    private final ForkJoinPool mPool;
+
+    /**
+     * Randomizer used to sample readings of radio sources exceeding the maximum
+     * number of readings.
+     */
+    private final Random mRandom;
+
+    /**
+     * Maximum number of readings kept for each radio source.
+     */
+    private int mMaxReadingsPerSource = DEFAULT_MAX_READINGS_PER_SOURCE;
+
+    /**
+     * Minimum number of radio sources estimated by each task when splitting a batch
+     * across a fork-join pool.
+     */
+    private int mMinSourcesPerTask = DEFAULT_MIN_SOURCES_PER_TASK;
+
+    /**
+     * Constructor.
+     * Batches will be processed on the calling thread.
+     *
+     * @param factory factory of robust estimators used for each radio source.
+     * @throws IllegalArgumentException if factory is null.
+     */
+    public BatchRobustRadioSourceEstimator(
+            final RobustRadioSourceEstimatorFactory<P, R> factory) {
+        this(factory, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory factory of robust estimators used for each radio source.
+     * @param pool    fork-join pool where radio sources will be estimated. If null,
+     *                batches will be processed on the calling thread.
+     * @throws IllegalArgumentException if factory is null.
+     */
+    public BatchRobustRadioSourceEstimator(
+            final RobustRadioSourceEstimatorFactory<P, R> factory,
+            final ForkJoinPool pool) {
+        this(factory, pool, new Random());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory factory of robust estimators used for each radio source.
+     * @param pool    fork-join pool where radio sources will be estimated. If null,
+     *                batches will be processed on the calling thread.
+     * @param random  randomizer used to subsample readings of radio sources
+     *                exceeding the maximum number of readings.
+     * @throws IllegalArgumentException if factory or randomizer is null.
+     */
+    public BatchRobustRadioSourceEstimator(
+            final RobustRadioSourceEstimatorFactory<P, R> factory,
+            final ForkJoinPool pool, final Random random) {
+        if (factory == null || random == null) {
+            throw new IllegalArgumentException();
+        }
+
+        mFactory = factory;
+        mPool = pool;
+        mRandom = random;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory factory of robust estimators used for each radio source.
+     * @param pool    fork-join pool where radio sources will be estimated. If null,
+     *                batches will be processed on the calling thread.
+     * @param seed    seed of randomizer used to subsample readings of radio sources
+     *                exceeding the maximum number of readings.
+     * @throws IllegalArgumentException if factory is null.
+     */
+    public BatchRobustRadioSourceEstimator(
+            final RobustRadioSourceEstimatorFactory<P, R> factory,
+            final ForkJoinPool pool, final long seed) {
+        this(factory, pool, new Random(seed));
+    }
+
+    /**
+     * Gets factory of robust estimators used for each radio source.
+     *
+     * @return factory of robust estimators.
+     */
+    public RobustRadioSourceEstimatorFactory<P, R> getFactory() {
+        return mFactory;
+    }
+
+    /**
+     * Gets fork-join pool where radio sources are estimated, if provided.
+     *
+     * @return fork-join pool or null if batches are processed on the calling thread.
+     */
+    public ForkJoinPool getPool() {
+        return mPool;
+    }
+
+    /**
+     * Gets randomizer used to subsample readings of radio sources exceeding the
+     * maximum number of readings.
+     *
+     * @return randomizer used to subsample readings.
+     */
+    public Random getRandom() {
+        return mRandom;
+    }
+
+    /**
+     * Gets maximum number of readings kept for each radio source.
+     * Radio sources having more readings are uniformly subsampled.
+     *
+     * @return maximum number of readings kept for each radio source.
+     */
+    public int getMaxReadingsPerSource() {
+        return mMaxReadingsPerSource;
+    }
+
+    /**
+     * Sets maximum number of readings kept for each radio source.
+     *
+     * @param maxReadingsPerSource maximum number of readings kept for each radio
+     *                             source.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setMaxReadingsPerSource(final int maxReadingsPerSource) {
+        if (maxReadingsPerSource < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mMaxReadingsPerSource = maxReadingsPerSource;
+    }
+
+    /**
+     * Gets minimum number of radio sources estimated by each task when splitting a
+     * batch across a fork-join pool.
+     *
+     * @return minimum number of radio sources per task.
+     */
+    public int getMinSourcesPerTask() {
+        return mMinSourcesPerTask;
+    }
+
+    /**
+     * Sets minimum number of radio sources estimated by each task when splitting a
+     * batch across a fork-join pool.
+     *
+     * @param minSourcesPerTask minimum number of radio sources per task.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setMinSourcesPerTask(final int minSourcesPerTask) {
+        if (minSourcesPerTask < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mMinSourcesPerTask = minSourcesPerTask;
+    }
+
+    /**
+     * Estimates all radio sources found in provided readings.
+     * Readings are consumed once, so that they can be lazily provided (e.g. while
+     * being read from a database).
+     * Results are returned in the same order as radio sources are first found in
+     * provided readings. Estimation of a radio source failing (e.g. because not
+     * enough readings are available) does not prevent estimation of the remaining
+     * ones, and the cause of failure is kept in its result.
+     *
+     * @param readings located readings of any number of radio sources.
+     * @return estimation results of each radio source.
+     * @throws IllegalArgumentException if readings are null or any reading is null.
+     */
+    public List<BatchRobustRadioSourceEstimatorResult<S, P>> estimate(
+            final Iterable<? extends R> readings) {
+        if (readings == null) {
+            throw new IllegalArgumentException();
+        }
+
+        final List<SourceReadings> groups = group(readings);
+        final int num = groups.size();
+
+        // noinspection unchecked
+        final BatchRobustRadioSourceEstimatorResult<S, P>[] results =
+                new BatchRobustRadioSourceEstimatorResult[num];
+        if (mPool == null || num <= mMinSourcesPerTask) {
+            estimateRange(groups, results, 0, num);
+        } else {
+            mPool.invoke(new EstimateTask(groups, results, 0, num, mMinSourcesPerTask));
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Groups readings by radio source, keeping a uniform sample of at most
+     * {@link #getMaxReadingsPerSource()} readings for each radio source.
+     *
+     * @param readings located readings of any number of radio sources.
+     * @return readings grouped by radio source in order of appearance.
+     * @throws IllegalArgumentException if any reading is null.
+     */
+    private List<SourceReadings> group(final Iterable<? extends R> readings) {
+        // radio sources are interned, so that all results refer to the first found
+        // instance of each radio source
+        final Map<S, SourceReadings> groups = new LinkedHashMap<>();
+        for (final R reading : readings) {
+            if (reading == null) {
+                throw new IllegalArgumentException();
+            }
+
+            final S source = reading.getSource();
+            SourceReadings group = groups.get(source);
+            if (group == null) {
+                group = new SourceReadings(source);
+                groups.put(source, group);
+            }
+            group.add(reading);
+        }
+
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Estimates a range of radio sources on the calling thread.
+     *
+     * @param groups    readings grouped by radio source.
+     * @param results   array where estimation results will be stored.
+     * @param fromIndex index of first radio source to be estimated (inclusive).
+     * @param toIndex   index of last radio source to be estimated (exclusive).
+     */
+    private void estimateRange(
+            final List<SourceReadings> groups,
+            final BatchRobustRadioSourceEstimatorResult<S, P>[] results,
+            final int fromIndex, final int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            results[i] = estimate(groups.get(i));
+        }
+    }
+
+    /**
+     * Estimates a single radio source.
+     *
+     * @param group readings of radio source to be estimated.
+     * @return estimation result.
+     */
+    private BatchRobustRadioSourceEstimatorResult<S, P> estimate(
+            final SourceReadings group) {
+        final List<R> readings = group.mReadings;
+        final int numUsedReadings = readings.size();
+
+        final long startTime = System.nanoTime();
+        RadioSourceLocated<P> estimatedRadioSource = null;
+        int numInliers = -1;
+        RadioSourceEstimationException failure = null;
+        try {
+            final RobustRadioSourceEstimator<P, R, ?> estimator = mFactory.create();
+            if (!estimator.areValidReadings(readings)) {
+                throw new NotReadyException();
+            }
+
+            estimator.setReadings(readings);
+
+            final double[] qualityScores = new double[numUsedReadings];
+            Arrays.fill(qualityScores, 1.0);
+            estimator.setQualityScores(qualityScores);
+
+            estimator.estimate();
+
+            estimatedRadioSource = estimator.getEstimatedRadioSource();
+            final InliersData inliersData = estimator.getInliersData();
+            if (inliersData != null) {
+                numInliers = inliersData.getNumInliers();
+            }
+        } catch (final LockedException | NotReadyException |
+                RobustEstimatorException | RuntimeException e) {
+            // a failing radio source must not abort estimation of the others
+            failure = new RadioSourceEstimationException(e);
+        }
+        final long estimationTime = System.nanoTime() - startTime;
+
+        return new BatchRobustRadioSourceEstimatorResult<>(group.mSource,
+                group.mNumReadings, numUsedReadings, estimatedRadioSource, numInliers,
+                estimationTime, failure);
+    }
+
+    /**
+     * Contains a uniform sample of the readings of a single radio source.
+     */
+    private class SourceReadings {
+
+        /**
+         * Radio source.
+         */
+        private final S mSource;
+
+        /**
+         * Sampled readings of radio source.
+         */
+        private final List<R> mReadings = new ArrayList<>();
+
+        /**
+         * Total number of readings of radio source.
+         */
+        private int mNumReadings;
+
+        /**
+         * Constructor.
+         *
+         * @param source radio source.
+         */
+        private SourceReadings(final S source) {
+            mSource = source;
+        }
+
+        /**
+         * Adds a reading, replacing a randomly chosen one once maximum number of
+         * readings is reached, so that kept readings are a uniform sample of all
+         * readings (i.e. reservoir sampling).
+         *
+         * @param reading reading to be added.
+         */
+        private void add(final R reading) {
+            mNumReadings++;
+            if (mReadings.size() < mMaxReadingsPerSource) {
+                mReadings.add(reading);
+            } else {
+                final int pos = mRandom.nextInt(mNumReadings);
+                if (pos < mMaxReadingsPerSource) {
+                    mReadings.set(pos, reading);
+                }
+            }
+        }
+    }
+
+    /**
+     * Task to estimate a range of radio sources, which is split into halves until
+     * ranges are small enough.
+     */
+    private class EstimateTask extends RecursiveAction {
+
+        /**
+         * Readings grouped by radio source.
+         */
+        private final List<SourceReadings> mGroups;
+
+        /**
+         * Array where estimation results will be stored.
+         */
+        private final BatchRobustRadioSourceEstimatorResult<S, P>[] mResults;
+
+        /**
+         * Index of first radio source to be estimated (inclusive).
+         */
+        private final int mFromIndex;
+
+        /**
+         * Index of last radio source to be estimated (exclusive).
+         */
+        private final int mToIndex;
+
+        /**
+         * Minimum number of radio sources estimated by each task.
+         */
+        private final int mMinSources;
+
+        /**
+         * Constructor.
+         *
+         * @param groups     readings grouped by radio source.
+         * @param results    array where estimation results will be stored.
+         * @param fromIndex  index of first radio source to be estimated (inclusive).
+         * @param toIndex    index of last radio source to be estimated (exclusive).
+         * @param minSources minimum number of radio sources estimated by each task.
+         */
+        EstimateTask(final List<SourceReadings> groups,
+                     final BatchRobustRadioSourceEstimatorResult<S, P>[] results,
+                     final int fromIndex, final int toIndex, final int minSources) {
+            mGroups = groups;
+            mResults = results;
+            mFromIndex = fromIndex;
+            mToIndex = toIndex;
+            mMinSources = minSources;
+        }
+
+        /**
+         * Estimates range of radio sources or splits it into halves.
+         */
+        @Override
+        protected void compute() {
+            final int length = mToIndex - mFromIndex;
+            if (length <= mMinSources) {
+                estimateRange(mGroups, mResults, mFromIndex, mToIndex);
+                return;
+            }
+
+            final int middle = mFromIndex + length / 2;
+            invokeAll(new EstimateTask(mGroups, mResults, mFromIndex, middle, mMinSources),
+                    new EstimateTask(mGroups, mResults, middle, mToIndex, mMinSources));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.radiosource;
+
+import com.irurueta.geometry.Point;
+import com.irurueta.navigation.indoor.RadioSource;
+import com.irurueta.navigation.indoor.RadioSourceLocated;
+
+/**
+ * Contains the result of estimating a single radio source within a batch, along with
+ * statistics about the estimation.
+ *
+ * @param <S> a {@link RadioSource} type.
+ * @param <P> a {@link Point} type.
+ */
+public class BatchRobustRadioSourceEstimatorResult<S extends RadioSource,
+        P extends Point<?>> {
+
+    /**
+     * Radio source being estimated.
+     */
+    private final S mSource;
+
+    /**
+     * Number of readings of the radio source found in the batch.
+     */
+    private final int mNumReadings;
+
+    /**
+     * Number of readings used for estimation.
+     */
+    private final int mNumUsedReadings;
+
+    /**
+     * Estimated located radio source or null if not available.
+     */
+    private final RadioSourceLocated<P> mEstimatedRadioSource;
+
+    /**
+     * Number of inliers found during estimation or -1 if not available.
+     */
+    private final int mNumInliers;
+
+    /**
+     * Time spent on estimation expressed in nanoseconds.
+     */
+    private final long mEstimationTimeNanos;
+
+    /**
+     * Cause of estimation failure or null if estimation succeeded.
+     */
+    private final RadioSourceEstimationException mFailure;
+
+    /**
+     * Constructor.
+     *
+     * @param source               radio source being estimated.
+     * @param numReadings          number of readings of the radio source found in
+     *                             the batch.
+     * @param numUsedReadings      number of readings used for estimation.
+     * @param estimatedRadioSource estimated located radio source or null if not
+     *                             available.
+     * @param numInliers           number of inliers found during estimation or -1 if
+     *                             not available.
+     * @param estimationTimeNanos  time spent on estimation expressed in nanoseconds.
+     * @param failure              cause of estimation failure or null if estimation
+     *                             succeeded.
+     */
+    BatchRobustRadioSourceEstimatorResult(
+            final S source, final int numReadings, final int numUsedReadings,
+            final RadioSourceLocated<P> estimatedRadioSource, final int numInliers,
+            final long estimationTimeNanos,
+            final RadioSourceEstimationException failure) {
+        mSource = source;
+        mNumReadings = numReadings;
+        mNumUsedReadings = numUsedReadings;
+        mEstimatedRadioSource = estimatedRadioSource;
+        mNumInliers = numInliers;
+        mEstimationTimeNanos = estimationTimeNanos;
+        mFailure = failure;
+    }
+
+    /**
+     * Gets radio source being estimated.
+     *
+     * @return radio source being estimated.
+     */
+    public S getSource() {
+        return mSource;
+    }
+
+    /**
+     * Gets number of readings of the radio source found in the batch.
+     *
+     * @return number of readings of the radio source.
+     */
+    public int getNumReadings() {
+        return mNumReadings;
+    }
+
+    /**
+     * Gets number of readings used for estimation, which might be less than the
+     * number of readings found in the batch when readings per radio source are
+     * bounded.
+     *
+     * @return number of readings used for estimation.
+     */
+    public int getNumUsedReadings() {
+        return mNumUsedReadings;
+    }
+
+    /**
+     * Gets estimated located radio source.
+     * When estimators using RSSI data are used, returned instance will also be a
+     * {@link com.irurueta.navigation.indoor.RadioSourceWithPowerAndLocated}.
+     *
+     * @return estimated located radio source or null if estimation failed or radio
+     * source type is not supported by estimator.
+     */
+    public RadioSourceLocated<P> getEstimatedRadioSource() {
+        return mEstimatedRadioSource;
+    }
+
+    /**
+     * Gets number of inliers found during estimation.
+     *
+     * @return number of inliers or -1 if not available.
+     */
+    public int getNumInliers() {
+        return mNumInliers;
+    }
+
+    /**
+     * Gets ratio of inliers among readings used for estimation.
+     *
+     * @return ratio of inliers or NaN if not available.
+     */
+    public double getInlierRatio() {
+        return mNumInliers >= 0 && mNumUsedReadings > 0 ?
+                (double) mNumInliers / (double) mNumUsedReadings : Double.NaN;
+    }
+
+    /**
+     * Gets time spent on estimation expressed in nanoseconds.
+     *
+     * @return time spent on estimation expressed in nanoseconds.
+     */
+    public long getEstimationTimeNanos() {
+        return mEstimationTimeNanos;
+    }
+
+    /**
+     * Indicates whether estimation succeeded.
+     *
+     * @return true if estimation succeeded, false otherwise.
+     */
+    public boolean isSuccessful() {
+        return mFailure == null;
+    }
+
+    /**
+     * Gets cause of estimation failure.
+     *
+     * @return cause of estimation failure or null if estimation succeeded.
+     */
+    public RadioSourceEstimationException getFailure() {
+        return mFailure;
+    }
+}
@@ -0,0 +1,1198 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.radiosource;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.geometry.Point;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.indoor.RadioSource;
+import com.irurueta.navigation.indoor.RadioSourceLocated;
+import com.irurueta.navigation.indoor.RangingAndRssiReadingLocated;
+import com.irurueta.navigation.indoor.Utils;
+import com.irurueta.navigation.lateration.NonLinearLeastSquaresLaterationSolver;
+import com.irurueta.numerical.robust.RobustEstimatorException;
+import com.irurueta.numerical.robust.RobustEstimatorMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estimates position, transmitted power and pathloss exponent of a radio source
+ * (e.g. WiFi access point or bluetooth beacon) online, as ranging and RSSI readings
+ * keep arriving (e.g. when readings are crowdsourced).
+ * <p>
+ * Once enough readings have been collected, a sequential robust estimator is used to
+ * obtain an initial estimation and its covariance. From then on, each new reading
+ * updates the estimation recursively by means of an Extended Kalman Filter with no
+ * process noise (which is equivalent to a recursive non-linear least squares
+ * solution), so that the cost of adding a reading does not depend on the number of
+ * collected readings.
+ * Like {@link SequentialRobustRangingAndRssiRadioSourceEstimator}, position is only
+ * refined with ranging data, whereas RSSI data is used to refine transmitted power
+ * and pathloss exponent when their estimation is enabled.
+ * <p>
+ * Readings whose normalized innovation exceeds a gating threshold are considered
+ * outliers and do not update the estimation. When the ratio of online inliers drops
+ * below the inlier ratio of the last robust estimation by more than a given drift,
+ * a new full robust estimation is made using all collected readings.
+ * <p>
+ * To bound memory usage and the cost of full robust estimations, only the most
+ * recent {@link #getMaxReadings()} readings (1000 by default) are kept. Once that
+ * amount is reached, each new reading replaces the oldest collected one, hence full
+ * robust estimations are made on a sliding window of recent readings.
+ *
+ * @param <S> a {@link RadioSource} type.
+ * @param <P> a {@link Point} type.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class OnlineRangingAndRssiRadioSourceEstimator<S extends RadioSource,
+        P extends Point<P>> {
+
+    /**
+     * Default threshold of squared normalized innovations to consider a reading an
+     * inlier. A value of 9.0 accepts readings within 3 standard deviations of their
+     * predicted values.
+     */
+    public static final double DEFAULT_GATING_THRESHOLD = 9.0;
+
+    /**
+     * Default maximum allowed drop of the ratio of online inliers respect the inlier
+     * ratio of the last robust estimation before a new full robust estimation is
+     * made.
+     */
+    public static final double DEFAULT_MAX_INLIER_RATIO_DRIFT = 0.2;
+
+    /**
+     * Minimum allowed value for maximum inlier ratio drift.
+     */
+    public static final double MIN_INLIER_RATIO_DRIFT = 0.0;
+
+    /**
+     * Maximum allowed value for maximum inlier ratio drift.
+     */
+    public static final double MAX_INLIER_RATIO_DRIFT = 1.0;
+
+    /**
+     * Default minimum number of readings to be added online after a robust estimation
+     * before the ratio of online inliers is checked.
+     */
+    public static final int DEFAULT_MIN_ONLINE_READINGS = 20;
+
+    /**
+     * Variance assigned to estimated parameters when the robust estimator does not
+     * provide their covariance (i.e. when result refinement is disabled).
+     */
+    public static final double UNKNOWN_PARAMETER_VARIANCE = 1.0;
+
+    /**
+     * Default robust estimator method used by robust estimators created by this
+     * class. Because readings are usually added online without meaningful quality
+     * scores, RANSAC is used instead of PROSAC or PROMedS.
+     */
+    public static final RobustEstimatorMethod DEFAULT_ROBUST_METHOD =
+            RobustEstimatorMethod.RANSAC;
+
+    /**
+     * Quality score assigned to readings added without an explicit quality score.
+     */
+    public static final double DEFAULT_QUALITY_SCORE = 1.0;
+
+    /**
+     * Default maximum number of collected readings.
+     */
+    public static final int DEFAULT_MAX_READINGS = 1000;
+
+    /**
+     * Initial capacity of the array containing quality scores of collected readings.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Robust estimator used to make full estimations.
+     */
+    private final SequentialRobustRangingAndRssiRadioSourceEstimator<S, P> mRobustEstimator;
+
+    /**
+     * Collected readings. Once maximum number of readings is reached, this list is
+     * used as a circular buffer where new readings replace the oldest ones.
+     */
+    private final List<RangingAndRssiReadingLocated<S, P>> mReadings = new ArrayList<>();
+
+    /**
+     * Quality scores of collected readings. Only the first elements, up to the
+     * number of collected readings, are meaningful.
+     */
+    private double[] mQualityScores = new double[INITIAL_CAPACITY];
+
+    /**
+     * Maximum number of collected readings.
+     */
+    private int mMaxReadings = DEFAULT_MAX_READINGS;
+
+    /**
+     * Position where next reading will be stored, which once maximum number of
+     * readings is reached is the position of the oldest collected reading.
+     */
+    private int mNextReadingPosition;
+
+    /**
+     * Listener in charge of attending events raised by this instance.
+     */
+    private OnlineRangingAndRssiRadioSourceEstimatorListener<S, P> mListener;
+
+    /**
+     * Threshold of squared normalized innovations to consider a reading an inlier.
+     */
+    private double mGatingThreshold = DEFAULT_GATING_THRESHOLD;
+
+    /**
+     * Maximum allowed drop of the ratio of online inliers before a new full robust
+     * estimation is made.
+     */
+    private double mMaxInlierRatioDrift = DEFAULT_MAX_INLIER_RATIO_DRIFT;
+
+    /**
+     * Minimum number of readings to be added online after a robust estimation before
+     * the ratio of online inliers is checked.
+     */
+    private int mMinOnlineReadings = DEFAULT_MIN_ONLINE_READINGS;
+
+    /**
+     * Indicates whether this instance is busy.
+     */
+    private boolean mLocked;
+
+    /**
+     * Estimated state containing position coordinates, transmitted power expressed
+     * in dBm's and pathloss exponent, or null if not available yet.
+     */
+    private double[] mState;
+
+    /**
+     * Covariance of estimated state stored in row-major order.
+     */
+    private double[] mStateCovariance;
+
+    /**
+     * Jacobian of a reading measurement respect to the state.
+     */
+    private double[] mJacobian;
+
+    /**
+     * Product of state covariance and measurement Jacobian.
+     */
+    private double[] mCovarianceJacobian;
+
+    /**
+     * Kalman gain of a scalar measurement.
+     */
+    private double[] mGain;
+
+    /**
+     * Indicates whether transmitted power was estimated on last robust estimation.
+     */
+    private boolean mTransmittedPowerEstimated;
+
+    /**
+     * Indicates whether pathloss exponent was estimated on last robust estimation.
+     */
+    private boolean mPathLossEstimated;
+
+    /**
+     * Constant term of received power model expressed in dB's, which depends on the
+     * frequency of the radio source.
+     */
+    private double mKdB;
+
+    /**
+     * Ratio of inliers found on last robust estimation.
+     */
+    private double mReferenceInlierRatio;
+
+    /**
+     * Number of readings added online since last robust estimation.
+     */
+    private int mNumOnlineReadings;
+
+    /**
+     * Number of inliers among readings added online since last robust estimation.
+     */
+    private int mNumOnlineInliers;
+
+    /**
+     * Number of full robust estimations made so far.
+     */
+    private int mNumFullEstimations;
+
+    /**
+     * Constructor.
+     *
+     * @param robustEstimator robust estimator used to make full estimations.
+     * @param listener        listener in charge of attending events raised by this
+     *                        instance.
+     * @throws IllegalArgumentException if robust estimator is null.
+     */
+    protected OnlineRangingAndRssiRadioSourceEstimator(
+            final SequentialRobustRangingAndRssiRadioSourceEstimator<S, P> robustEstimator,
+            final OnlineRangingAndRssiRadioSourceEstimatorListener<S, P> listener) {
+        if (robustEstimator == null) {
+            throw new IllegalArgumentException();
+        }
+
+        mRobustEstimator = robustEstimator;
+        mListener = listener;
+    }
+
+    /**
+     * Gets robust estimator used to make full estimations.
+     * Robust estimator can be configured (i.e. robust methods, thresholds or
+     * estimated parameters) before adding readings, and changes will be taken into
+     * account on next full estimation. Readings of robust estimator are managed by
+     * this instance.
+     *
+     * @return robust estimator used to make full estimations.
+     */
+    public SequentialRobustRangingAndRssiRadioSourceEstimator<S, P> getRobustEstimator() {
+        return mRobustEstimator;
+    }
+
+    /**
+     * Gets listener in charge of attending events raised by this instance.
+     *
+     * @return listener in charge of attending events raised by this instance.
+     */
+    public OnlineRangingAndRssiRadioSourceEstimatorListener<S, P> getListener() {
+        return mListener;
+    }
+
+    /**
+     * Sets listener in charge of attending events raised by this instance.
+     *
+     * @param listener listener in charge of attending events raised by this instance.
+     * @throws LockedException if estimator is locked.
+     */
+    public void setListener(
+            final OnlineRangingAndRssiRadioSourceEstimatorListener<S, P> listener)
+            throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        mListener = listener;
+    }
+
+    /**
+     * Gets threshold of squared normalized innovations to consider a reading an
+     * inlier.
+     *
+     * @return threshold of squared normalized innovations.
+     */
+    public double getGatingThreshold() {
+        return mGatingThreshold;
+    }
+
+    /**
+     * Sets threshold of squared normalized innovations to consider a reading an
+     * inlier.
+     *
+     * @param gatingThreshold threshold of squared normalized innovations.
+     * @throws IllegalArgumentException if provided value is zero or negative.
+     * @throws LockedException          if estimator is locked.
+     */
+    public void setGatingThreshold(final double gatingThreshold) throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        if (gatingThreshold <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+        mGatingThreshold = gatingThreshold;
+    }
+
+    /**
+     * Gets maximum allowed drop of the ratio of online inliers respect the inlier
+     * ratio of the last robust estimation before a new full robust estimation is
+     * made.
+     *
+     * @return maximum allowed drop of the ratio of online inliers.
+     */
+    public double getMaxInlierRatioDrift() {
+        return mMaxInlierRatioDrift;
+    }
+
+    /**
+     * Sets maximum allowed drop of the ratio of online inliers respect the inlier
+     * ratio of the last robust estimation before a new full robust estimation is
+     * made.
+     *
+     * @param maxInlierRatioDrift maximum allowed drop of the ratio of online inliers.
+     * @throws IllegalArgumentException if provided value is not between 0.0 and 1.0.
+     * @throws LockedException          if estimator is locked.
+     */
+    public void setMaxInlierRatioDrift(final double maxInlierRatioDrift)
+            throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        if (maxInlierRatioDrift < MIN_INLIER_RATIO_DRIFT ||
+                maxInlierRatioDrift > MAX_INLIER_RATIO_DRIFT) {
+            throw new IllegalArgumentException();
+        }
+        mMaxInlierRatioDrift = maxInlierRatioDrift;
+    }
+
+    /**
+     * Gets minimum number of readings to be added online after a robust estimation
+     * before the ratio of online inliers is checked.
+     *
+     * @return minimum number of readings added online before checking inlier ratio.
+     */
+    public int getMinOnlineReadings() {
+        return mMinOnlineReadings;
+    }
+
+    /**
+     * Sets minimum number of readings to be added online after a robust estimation
+     * before the ratio of online inliers is checked.
+     *
+     * @param minOnlineReadings minimum number of readings added online before
+     *                          checking inlier ratio.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if estimator is locked.
+     */
+    public void setMinOnlineReadings(final int minOnlineReadings) throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        if (minOnlineReadings < 1) {
+            throw new IllegalArgumentException();
+        }
+        mMinOnlineReadings = minOnlineReadings;
+    }
+
+    /**
+     * Gets maximum number of collected readings.
+     * Once this amount is reached, each new reading replaces the oldest collected
+     * one, so that memory usage and the cost of full robust estimations are bounded.
+     *
+     * @return maximum number of collected readings.
+     */
+    public int getMaxReadings() {
+        return mMaxReadings;
+    }
+
+    /**
+     * Sets maximum number of collected readings.
+     * If more readings are currently collected, only the most recent ones are kept.
+     * Values smaller than {@link #getMinReadings()} prevent full robust estimations.
+     *
+     * @param maxReadings maximum number of collected readings.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if estimator is locked.
+     */
+    public void setMaxReadings(final int maxReadings) throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        if (maxReadings < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        // reorder collected readings from oldest to newest keeping the most
+        // recent ones
+        final int size = mReadings.size();
+        final int newSize = Math.min(size, maxReadings);
+        final List<RangingAndRssiReadingLocated<S, P>> readings =
+                new ArrayList<>(newSize);
+        final double[] qualityScores = new double[Math.max(newSize, INITIAL_CAPACITY)];
+        for (int i = 0; i < newSize; i++) {
+            final int pos = (mNextReadingPosition + size - newSize + i) % size;
+            readings.add(mReadings.get(pos));
+            qualityScores[i] = mQualityScores[pos];
+        }
+
+        mReadings.clear();
+        mReadings.addAll(readings);
+        mQualityScores = qualityScores;
+        mMaxReadings = maxReadings;
+        mNextReadingPosition = newSize % maxReadings;
+    }
+
+    /**
+     * Indicates whether this instance is busy.
+     *
+     * @return true if this instance is busy, false otherwise.
+     */
+    public boolean isLocked() {
+        return mLocked;
+    }
+
+    /**
+     * Gets collected readings.
+     * Once maximum number of readings has been reached, collected readings are not
+     * necessarily sorted from oldest to newest.
+     *
+     * @return collected readings.
+     */
+    public List<RangingAndRssiReadingLocated<S, P>> getReadings() {
+        return Collections.unmodifiableList(mReadings);
+    }
+
+    /**
+     * Indicates whether an estimation is available.
+     *
+     * @return true if an estimation is available, false otherwise.
+     */
+    public boolean isEstimationAvailable() {
+        return mState != null;
+    }
+
+    /**
+     * Gets number of full robust estimations made so far.
+     *
+     * @return number of full robust estimations.
+     */
+    public int getNumFullEstimations() {
+        return mNumFullEstimations;
+    }
+
+    /**
+     * Gets number of readings added online since last robust estimation.
+     *
+     * @return number of readings added online since last robust estimation.
+     */
+    public int getNumOnlineReadings() {
+        return mNumOnlineReadings;
+    }
+
+    /**
+     * Gets number of inliers among readings added online since last robust
+     * estimation.
+     *
+     * @return number of online inliers.
+     */
+    public int getNumOnlineInliers() {
+        return mNumOnlineInliers;
+    }
+
+    /**
+     * Gets ratio of inliers found on last robust estimation.
+     *
+     * @return ratio of inliers found on last robust estimation.
+     */
+    public double getReferenceInlierRatio() {
+        return mReferenceInlierRatio;
+    }
+
+    /**
+     * Gets ratio of inliers among readings added online since last robust estimation.
+     *
+     * @return ratio of online inliers or NaN if no reading has been added online yet.
+     */
+    public double getOnlineInlierRatio() {
+        return mNumOnlineReadings > 0 ?
+                (double) mNumOnlineInliers / (double) mNumOnlineReadings : Double.NaN;
+    }
+
+    /**
+     * Gets minimum required number of readings to make the first robust estimation.
+     *
+     * @return minimum required number of readings.
+     */
+    public int getMinReadings() {
+        return mRobustEstimator.getMinReadings();
+    }
+
+    /**
+     * Gets number of dimensions of position points.
+     *
+     * @return number of dimensions of position points.
+     */
+    public int getNumberOfDimensions() {
+        return mRobustEstimator.getNumberOfDimensions();
+    }
+
+    /**
+     * Gets estimated position of radio source.
+     *
+     * @return estimated position or null if not available.
+     */
+    public P getEstimatedPosition() {
+        if (mState == null) {
+            return null;
+        }
+
+        final P position = createPoint();
+        final int dims = getNumberOfDimensions();
+        for (int i = 0; i < dims; i++) {
+            position.setInhomogeneousCoordinate(i, mState[i]);
+        }
+        return position;
+    }
+
+    /**
+     * Gets covariance of estimated position.
+     *
+     * @return covariance of estimated position or null if not available.
+     */
+    public Matrix getEstimatedPositionCovariance() {
+        if (mState == null) {
+            return null;
+        }
+
+        final int dims = getNumberOfDimensions();
+        final int[] indices = new int[dims];
+        for (int i = 0; i < dims; i++) {
+            indices[i] = i;
+        }
+        return buildCovariance(indices);
+    }
+
+    /**
+     * Gets covariance of estimated parameters, containing position and, when
+     * enabled, transmitted power (expressed in dBm's) and pathloss exponent, in
+     * this order.
+     *
+     * @return covariance of estimated parameters or null if not available.
+     */
+    public Matrix getCovariance() {
+        if (mState == null) {
+            return null;
+        }
+
+        final int dims = getNumberOfDimensions();
+        int n = dims;
+        if (mTransmittedPowerEstimated) {
+            n++;
+        }
+        if (mPathLossEstimated) {
+            n++;
+        }
+
+        final int[] indices = new int[n];
+        int pos = 0;
+        for (int i = 0; i < dims; i++) {
+            indices[pos++] = i;
+        }
+        if (mTransmittedPowerEstimated) {
+            indices[pos++] = dims;
+        }
+        if (mPathLossEstimated) {
+            indices[pos] = dims + 1;
+        }
+        return buildCovariance(indices);
+    }
+
+    /**
+     * Gets estimated transmitted power expressed in dBm's.
+     *
+     * @return estimated transmitted power expressed in dBm's or NaN if not available.
+     */
+    public double getEstimatedTransmittedPowerdBm() {
+        return mState != null ? mState[getNumberOfDimensions()] : Double.NaN;
+    }
+
+    /**
+     * Gets estimated transmitted power expressed in milli watts (mW).
+     *
+     * @return estimated transmitted power expressed in mW or NaN if not available.
+     */
+    public double getEstimatedTransmittedPower() {
+        return Utils.dBmToPower(getEstimatedTransmittedPowerdBm());
+    }
+
+    /**
+     * Gets variance of estimated transmitted power expressed in dBm's.
+     *
+     * @return variance of estimated transmitted power or null if transmitted power
+     * is not estimated or estimation is not available.
+     */
+    public Double getEstimatedTransmittedPowerVariance() {
+        if (mState == null || !mTransmittedPowerEstimated) {
+            return null;
+        }
+        final int i = getNumberOfDimensions();
+        return mStateCovariance[i * mState.length + i];
+    }
+
+    /**
+     * Gets estimated pathloss exponent.
+     *
+     * @return estimated pathloss exponent or NaN if not available.
+     */
+    public double getEstimatedPathLossExponent() {
+        return mState != null ? mState[getNumberOfDimensions() + 1] : Double.NaN;
+    }
+
+    /**
+     * Gets variance of estimated pathloss exponent.
+     *
+     * @return variance of estimated pathloss exponent or null if pathloss exponent is
+     * not estimated or estimation is not available.
+     */
+    public Double getEstimatedPathLossExponentVariance() {
+        if (mState == null || !mPathLossEstimated) {
+            return null;
+        }
+        final int i = getNumberOfDimensions() + 1;
+        return mStateCovariance[i * mState.length + i];
+    }
+
+    /**
+     * Adds a reading of the radio source using {@link #DEFAULT_QUALITY_SCORE} as its
+     * quality score.
+     *
+     * @param reading reading to be added.
+     * @return true if estimation was updated, false otherwise.
+     * @throws IllegalArgumentException if reading is null or belongs to a different
+     *                                  radio source than previously added readings.
+     * @throws LockedException          if estimator is locked.
+     * @throws RobustEstimatorException if robust estimation fails for any reason
+     *                                  (i.e. numerical instability, no solution
+     *                                  available, etc).
+     * @see #addReading(RangingAndRssiReadingLocated, double)
+     */
+    public boolean addReading(final RangingAndRssiReadingLocated<S, P> reading)
+            throws LockedException, RobustEstimatorException {
+        return addReading(reading, DEFAULT_QUALITY_SCORE);
+    }
+
+    /**
+     * Adds a reading of the radio source.
+     * Until an estimation is available, readings are collected and a robust estimation
+     * is attempted once enough readings are available.
+     * If maximum number of readings has been reached, provided reading replaces the
+     * oldest collected one.
+     * Afterwards, provided reading recursively updates the estimation unless it is
+     * considered an outlier, and a new full robust estimation is made if the ratio of
+     * online inliers drifts too much.
+     * If a robust estimation fails, provided reading is kept, current estimation
+     * (if any) remains unchanged and robust estimation will be attempted again when
+     * next reading is added.
+     * Quality scores are only used by robust estimations made with PROSAC or
+     * PROMedS methods, where readings with larger scores are sampled first.
+     *
+     * @param reading      reading to be added.
+     * @param qualityScore quality score of reading.
+     * @return true if estimation was updated, false otherwise.
+     * @throws IllegalArgumentException if reading is null or belongs to a different
+     *                                  radio source than previously added readings.
+     * @throws LockedException          if estimator is locked.
+     * @throws RobustEstimatorException if robust estimation fails for any reason
+     *                                  (i.e. numerical instability, no solution
+     *                                  available, etc).
+     */
+    public boolean addReading(final RangingAndRssiReadingLocated<S, P> reading,
+                              final double qualityScore)
+            throws LockedException, RobustEstimatorException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+        if (reading == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!mReadings.isEmpty() &&
+                !mReadings.get(0).getSource().equals(reading.getSource())) {
+            throw new IllegalArgumentException();
+        }
+
+        try {
+            mLocked = true;
+
+            final int pos = mNextReadingPosition;
+            if (mReadings.size() < mMaxReadings) {
+                if (pos == mQualityScores.length) {
+                    mQualityScores = Arrays.copyOf(mQualityScores,
+                            Math.min(2 * pos, mMaxReadings));
+                }
+                mReadings.add(reading);
+            } else {
+                mReadings.set(pos, reading);
+            }
+            mQualityScores[pos] = qualityScore;
+            mNextReadingPosition = (pos + 1) % mMaxReadings;
+
+            if (mState == null) {
+                return mReadings.size() >= getMinReadings() && fullEstimateIfReady();
+            }
+
+            final boolean inlier = update(reading, true);
+            mNumOnlineReadings++;
+            if (inlier) {
+                mNumOnlineInliers++;
+            }
+
+            if (mNumOnlineReadings >= mMinOnlineReadings &&
+                    mReferenceInlierRatio - getOnlineInlierRatio() > mMaxInlierRatioDrift) {
+                return fullEstimateIfReady() || inlier;
+            }
+
+            return inlier;
+        } finally {
+            mLocked = false;
+        }
+    }
+
+    /**
+     * Makes a full robust estimation using all collected readings.
+     *
+     * @throws LockedException          if estimator is locked.
+     * @throws NotReadyException        if not enough readings have been collected
+     *                                  or robust estimator is not ready.
+     * @throws RobustEstimatorException if robust estimation fails for any reason
+     *                                  (i.e. numerical instability, no solution
+     *                                  available, etc).
+     */
+    public void estimate() throws LockedException, NotReadyException,
+            RobustEstimatorException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+
+        try {
+            mLocked = true;
+
+            if (!fullEstimateIfReady()) {
+                throw new NotReadyException();
+            }
+        } finally {
+            mLocked = false;
+        }
+    }
+
+    /**
+     * Removes all collected readings, current estimation and counters.
+     *
+     * @throws LockedException if estimator is locked.
+     */
+    public void reset() throws LockedException {
+        if (isLocked()) {
+            throw new LockedException();
+        }
+
+        mReadings.clear();
+        mQualityScores = new double[INITIAL_CAPACITY];
+        mNextReadingPosition = 0;
+        mState = null;
+        mStateCovariance = null;
+        mJacobian = null;
+        mCovarianceJacobian = null;
+        mGain = null;
+        mTransmittedPowerEstimated = false;
+        mPathLossEstimated = false;
+        mKdB = 0.0;
+        mReferenceInlierRatio = 0.0;
+        mNumOnlineReadings = 0;
+        mNumOnlineInliers = 0;
+        mNumFullEstimations = 0;
+    }
+
+    /**
+     * Gets estimated located radio source.
+     *
+     * @param <S2> type of located radio source.
+     * @return estimated located radio source or null if not available.
+     */
+    public abstract <S2 extends RadioSourceLocated<P>> S2 getEstimatedRadioSource();
+
+    /**
+     * Creates a point where estimated position will be stored.
+     *
+     * @return a new point.
+     */
+    protected abstract P createPoint();
+
+    /**
+     * Makes a full robust estimation using all collected readings if robust
+     * estimator is ready, and initializes the recursive estimation from its result.
+     *
+     * @return true if estimation was made, false if robust estimator was not ready.
+     * @throws RobustEstimatorException if robust estimation fails.
+     */
+    private boolean fullEstimateIfReady() throws RobustEstimatorException {
+        try {
+            if (mReadings.size() < getMinReadings()) {
+                return false;
+            }
+
+            mRobustEstimator.setReadings(mReadings);
+            mRobustEstimator.setQualityScores(
+                    Arrays.copyOf(mQualityScores, mReadings.size()));
+            if (!mRobustEstimator.isReady()) {
+                return false;
+            }
+
+            if (mListener != null) {
+                mListener.onFullEstimateStart(this);
+            }
+
+            mRobustEstimator.estimate();
+
+            initializeState();
+
+            if (mListener != null) {
+                mListener.onFullEstimateEnd(this);
+            }
+
+            return true;
+        } catch (final LockedException | NotReadyException e) {
+            // never happens because robust estimator is only used by this instance
+            // and its readiness has already been checked
+            throw new RobustEstimatorException(e);
+        }
+    }
+
+    /**
+     * Initializes recursive estimation from the result of last robust estimation.
+     */
+    private void initializeState() {
+        final int dims = getNumberOfDimensions();
+        final int n = dims + 2;
+        final int powerPos = dims;
+        final int pathLossPos = dims + 1;
+
+        final double[] state = new double[n];
+        final double[] covariance = new double[n * n];
+
+        final P position = mRobustEstimator.getEstimatedPosition();
+        for (int i = 0; i < dims; i++) {
+            state[i] = position.getInhomogeneousCoordinate(i);
+        }
+        state[powerPos] = mRobustEstimator.getEstimatedTransmittedPowerdBm();
+        state[pathLossPos] = mRobustEstimator.getEstimatedPathLossExponent();
+
+        mTransmittedPowerEstimated =
+                mRobustEstimator.isTransmittedPowerEstimationEnabled();
+        mPathLossEstimated = mRobustEstimator.isPathLossEstimationEnabled();
+
+        // covariance of robust estimator contains position and enabled parameters
+        final int[] indices = new int[n];
+        int numParams = 0;
+        for (int i = 0; i < dims; i++) {
+            indices[numParams++] = i;
+        }
+        if (mTransmittedPowerEstimated) {
+            indices[numParams++] = powerPos;
+        }
+        if (mPathLossEstimated) {
+            indices[numParams++] = pathLossPos;
+        }
+
+        final Matrix robustCovariance = mRobustEstimator.getCovariance();
+        if (robustCovariance != null && robustCovariance.getRows() == numParams &&
+                robustCovariance.getColumns() == numParams) {
+            for (int i = 0; i < numParams; i++) {
+                for (int j = 0; j < numParams; j++) {
+                    covariance[indices[i] * n + indices[j]] =
+                            robustCovariance.getElementAt(i, j);
+                }
+            }
+        } else {
+            // disabled parameters keep a zero variance so that they are never updated
+            for (int i = 0; i < numParams; i++) {
+                covariance[indices[i] * n + indices[i]] = UNKNOWN_PARAMETER_VARIANCE;
+            }
+        }
+
+        final double frequency = mReadings.get(0).getSource().getFrequency();
+        mKdB = 10.0 * Math.log10(RssiRadioSourceEstimator.SPEED_OF_LIGHT /
+                (4.0 * Math.PI * frequency));
+
+        mState = state;
+        mStateCovariance = covariance;
+        mJacobian = new double[n];
+        mCovarianceJacobian = new double[n];
+        mGain = new double[n];
+
+        // inliers of robust estimator depend on its method and thresholds, hence
+        // reference ratio is obtained by gating collected readings the same way
+        // online readings are gated
+        int numInliers = 0;
+        for (final RangingAndRssiReadingLocated<S, P> reading : mReadings) {
+            if (update(reading, false)) {
+                numInliers++;
+            }
+        }
+        mReferenceInlierRatio = (double) numInliers / (double) mReadings.size();
+
+        mNumOnlineReadings = 0;
+        mNumOnlineInliers = 0;
+        mNumFullEstimations++;
+    }
+
+    /**
+     * Recursively updates estimation with provided reading unless it is considered
+     * an outlier.
+     *
+     * @param reading reading to update estimation with.
+     * @param correct true to update estimation if reading is an inlier, false to only
+     *                check whether reading is an inlier.
+     * @return true if reading is an inlier, false otherwise.
+     */
+    private boolean update(final RangingAndRssiReadingLocated<S, P> reading,
+                           final boolean correct) {
+        final P readingPosition = reading.getPosition();
+        final Matrix positionCovariance =
+                mRobustEstimator.getUseReadingPositionCovariance() ?
+                        reading.getPositionCovariance() : null;
+
+        final double distanceStandardDeviation =
+                reading.getDistanceStandardDeviation() != null ?
+                        reading.getDistanceStandardDeviation() :
+                        NonLinearLeastSquaresLaterationSolver.DEFAULT_DISTANCE_STANDARD_DEVIATION;
+        final double rssiStandardDeviation = reading.getRssiStandardDeviation() != null ?
+                reading.getRssiStandardDeviation() :
+                RssiRadioSourceEstimator.DEFAULT_POWER_STANDARD_DEVIATION;
+        final double distanceVariance = distanceStandardDeviation * distanceStandardDeviation;
+        final double rssiVariance = rssiStandardDeviation * rssiStandardDeviation;
+
+        // gate both measurements against current estimation before updating it
+        double distance = setRangingJacobian(readingPosition);
+        if (distance <= 0.0) {
+            // reading taken at estimated position carries no direction
+            return false;
+        }
+        double positionVariance = projectPositionCovariance(positionCovariance);
+        final double rangingInnovation = reading.getDistance() - distance;
+        final double rangingVariance = distanceVariance + positionVariance;
+        if (!isInlier(rangingInnovation, rangingVariance)) {
+            return false;
+        }
+
+        double rssiGain = rssiPositionGain(distance);
+        double rssiInnovation = reading.getRssi() - setRssiJacobian(distance);
+        if (!isInlier(rssiInnovation,
+                rssiVariance + rssiGain * rssiGain * positionVariance)) {
+            return false;
+        }
+        if (!correct) {
+            return true;
+        }
+
+        setRangingJacobian(readingPosition);
+        correct(rangingInnovation, rangingVariance);
+
+        // RSSI is linearized again around position updated with ranging data
+        distance = setRangingJacobian(readingPosition);
+        if (distance <= 0.0) {
+            return true;
+        }
+        positionVariance = projectPositionCovariance(positionCovariance);
+        rssiGain = rssiPositionGain(distance);
+        rssiInnovation = reading.getRssi() - setRssiJacobian(distance);
+        correct(rssiInnovation, rssiVariance + rssiGain * rssiGain * positionVariance);
+
+        return true;
+    }
+
+    /**
+     * Sets Jacobian of ranging measurement of a reading respect to the state.
+     * Jacobian respect to position is the unitary vector pointing from the reading
+     * towards estimated radio source position.
+     *
+     * @param readingPosition position where reading was taken.
+     * @return predicted distance between reading and estimated radio source position.
+     */
+    private double setRangingJacobian(final P readingPosition) {
+        final int dims = getNumberOfDimensions();
+
+        double sqrDistance = 0.0;
+        for (int i = 0; i < dims; i++) {
+            final double diff = mState[i] - readingPosition.getInhomogeneousCoordinate(i);
+            mJacobian[i] = diff;
+            sqrDistance += diff * diff;
+        }
+        mJacobian[dims] = 0.0;
+        mJacobian[dims + 1] = 0.0;
+
+        final double distance = Math.sqrt(sqrDistance);
+        if (distance > 0.0) {
+            for (int i = 0; i < dims; i++) {
+                mJacobian[i] /= distance;
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Sets Jacobian of RSSI measurement of a reading respect to the state.
+     * Received power expressed in dBm's follows:
+     * Pr = Pte + n * kdB - 10 * n * log(d),
+     * where Pte is transmitted power expressed in dBm's, n is pathloss exponent and
+     * d is distance.
+     * Jacobian respect to position is left to zero so that position is only refined
+     * with ranging data.
+     *
+     * @param distance predicted distance between reading and estimated radio source
+     *                 position.
+     * @return predicted received power expressed in dBm's.
+     */
+    private double setRssiJacobian(final double distance) {
+        final int dims = getNumberOfDimensions();
+        for (int i = 0; i < dims; i++) {
+            mJacobian[i] = 0.0;
+        }
+
+        final double pathLossFactor = mKdB - 10.0 * Math.log10(distance);
+        mJacobian[dims] = 1.0;
+        mJacobian[dims + 1] = pathLossFactor;
+
+        return mState[dims] + mState[dims + 1] * pathLossFactor;
+    }
+
+    /**
+     * Gets derivative of received power respect to distance, which is used to
+     * propagate reading position uncertainty into RSSI uncertainty.
+     *
+     * @param distance predicted distance between reading and estimated radio source
+     *                 position.
+     * @return derivative of received power respect to distance.
+     */
+    private double rssiPositionGain(final double distance) {
+        return 10.0 * mState[getNumberOfDimensions() + 1] / (Math.log(10.0) * distance);
+    }
+
+    /**
+     * Projects covariance of reading position along the direction of current ranging
+     * Jacobian.
+     *
+     * @param positionCovariance covariance of reading position or null if not
+     *                           available.
+     * @return variance of reading position along direction towards radio source.
+     */
+    private double projectPositionCovariance(final Matrix positionCovariance) {
+        if (positionCovariance == null) {
+            return 0.0;
+        }
+
+        final int dims = getNumberOfDimensions();
+        double result = 0.0;
+        for (int i = 0; i < dims; i++) {
+            for (int j = 0; j < dims; j++) {
+                result += mJacobian[i] * positionCovariance.getElementAt(i, j) *
+                        mJacobian[j];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indicates whether a measurement is an inlier by comparing its squared normalized
+     * innovation against gating threshold.
+     * This method must be called after Jacobian of the measurement has been set.
+     *
+     * @param innovation          difference between measured and predicted values.
+     * @param measurementVariance variance of measurement.
+     * @return true if measurement is an inlier, false otherwise.
+     */
+    private boolean isInlier(final double innovation, final double measurementVariance) {
+        computeCovarianceJacobian();
+        final double innovationVariance = innovationVariance(measurementVariance);
+        return innovation * innovation <= mGatingThreshold * innovationVariance;
+    }
+
+    /**
+     * Computes product of state covariance and current Jacobian.
+     */
+    private void computeCovarianceJacobian() {
+        final int n = mState.length;
+        for (int i = 0; i < n; i++) {
+            double value = 0.0;
+            for (int j = 0; j < n; j++) {
+                value += mStateCovariance[i * n + j] * mJacobian[j];
+            }
+            mCovarianceJacobian[i] = value;
+        }
+    }
+
+    /**
+     * Computes variance of innovation of a measurement.
+     *
+     * @param measurementVariance variance of measurement.
+     * @return variance of innovation.
+     */
+    private double innovationVariance(final double measurementVariance) {
+        final int n = mState.length;
+        double result = measurementVariance;
+        for (int i = 0; i < n; i++) {
+            result += mJacobian[i] * mCovarianceJacobian[i];
+        }
+        return result;
+    }
+
+    /**
+     * Corrects state and its covariance with a scalar measurement.
+     * Covariance is updated using Joseph form, which for a scalar measurement
+     * becomes P = P - k*u' - u*k' + s*k*k', where u = P*h', s = h*P*h' + r and
+     * k = u / s, and only its upper triangle is computed and mirrored, so that it
+     * remains symmetric after many updates.
+     * This method must be called after Jacobian of the measurement has been set.
+     *
+     * @param innovation          difference between measured and predicted values.
+     * @param measurementVariance variance of measurement.
+     */
+    private void correct(final double innovation, final double measurementVariance) {
+        computeCovarianceJacobian();
+        final double innovationVariance = innovationVariance(measurementVariance);
+        if (innovationVariance <= 0.0) {
+            return;
+        }
+
+        final int n = mState.length;
+        final double[] u = mCovarianceJacobian;
+        final double[] k = mGain;
+        for (int i = 0; i < n; i++) {
+            k[i] = u[i] / innovationVariance;
+            mState[i] += k[i] * innovation;
+        }
+        for (int i = 0; i < n; i++) {
+            final double ki = k[i];
+            final double ui = u[i];
+            for (int j = i; j < n; j++) {
+                final double value = mStateCovariance[i * n + j] - ki * u[j] - ui * k[j]
+                        + innovationVariance * ki * k[j];
+                mStateCovariance[i * n + j] = value;
+                mStateCovariance[j * n + i] = value;
+            }
+        }
+    }
+
+    /**
+     * Builds covariance of a subset of the state.
+     *
+     * @param indices positions of state elements to be included.
+     * @return covariance of provided subset of the state.
+     */
+    private Matrix buildCovariance(final int[] indices) {
+        final int n = mState.length;
+        try {
+            final Matrix result = new Matrix(indices.length, indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                for (int j = 0; j < indices.length; j++) {
+                    result.setElementAt(i, j,
+                            mStateCovariance[indices[i] * n + indices[j]]);
+                }
+            }
+            return result;
+        } catch (final AlgebraException ignore) {
+            // never happens
+            return null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.radiosource;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.indoor.*;
+
+import java.util.List;
+
+/**
+ * Estimates 3D position, transmitted power and pathloss exponent of a radio source
+ * (e.g. WiFi access point or bluetooth beacon) online, as ranging and RSSI readings
+ * keep arriving.
+ * Each reading recursively updates the estimation at a constant cost, and a full
+ * robust estimation using {@link SequentialRobustRangingAndRssiRadioSourceEstimator3D}
+ * is only made initially and whenever the ratio of inliers drifts too much.
+ *
+ * @param <S> a {@link RadioSource} type.
+ */
+@SuppressWarnings({"WeakerAccess", "Duplicates"})
+public class OnlineRangingAndRssiRadioSourceEstimator3D<S extends RadioSource> extends
+        OnlineRangingAndRssiRadioSourceEstimator<S, Point3D> {
+
+    /**
+     * Constructor.
+     * Full estimations are made with a robust estimator using
+     * {@link #DEFAULT_ROBUST_METHOD}.
+     */
+    public OnlineRangingAndRssiRadioSourceEstimator3D() {
+        this(OnlineRangingAndRssiRadioSourceEstimator3D.<S>createRobustEstimator());
+    }
+
+    /**
+     * Constructor.
+     * Full estimations are made with a robust estimator using
+     * {@link #DEFAULT_ROBUST_METHOD}.
+     *
+     * @param listener listener in charge of attending events raised by this instance.
+     */
+    public OnlineRangingAndRssiRadioSourceEstimator3D(
+            final OnlineRangingAndRssiRadioSourceEstimatorListener<S, Point3D> listener) {
+        this(OnlineRangingAndRssiRadioSourceEstimator3D.<S>createRobustEstimator(), listener);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param robustEstimator robust estimator used to make full estimations.
+     * @throws IllegalArgumentException if robust estimator is null.
+     */
+    public OnlineRangingAndRssiRadioSourceEstimator3D(
+            final SequentialRobustRangingAndRssiRadioSourceEstimator3D<S> robustEstimator) {
+        this(robustEstimator, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param robustEstimator robust estimator used to make full estimations.
+     * @param listener        listener in charge of attending events raised by this
+     *                        instance.
+     * @throws IllegalArgumentException if robust estimator is null.
+     */
+    public OnlineRangingAndRssiRadioSourceEstimator3D(
+            final SequentialRobustRangingAndRssiRadioSourceEstimator3D<S> robustEstimator,
+            final OnlineRangingAndRssiRadioSourceEstimatorListener<S, Point3D> listener) {
+        super(robustEstimator, listener);
+    }
+
+    /**
+     * Gets estimated located radio source with estimated transmitted power.
+     *
+     * @return estimated located radio source with estimated transmitted power or null.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public RadioSourceWithPowerAndLocated<Point3D> getEstimatedRadioSource() {
+        final List<RangingAndRssiReadingLocated<S, Point3D>> readings = getReadings();
+        if (readings.isEmpty()) {
+            return null;
+        }
+        final S source = readings.get(0).getSource();
+
+        final Point3D estimatedPosition = getEstimatedPosition();
+        if (estimatedPosition == null) {
+            return null;
+        }
+
+        final Matrix estimatedPositionCovariance = getEstimatedPositionCovariance();
+
+        final Double transmittedPowerVariance =
+                getEstimatedTransmittedPowerVariance();
+        final Double transmittedPowerStandardDeviation = transmittedPowerVariance != null ?
+                Math.sqrt(transmittedPowerVariance) : null;
+
+        final Double pathlossExponentVariance =
+                getEstimatedPathLossExponentVariance();
+        final Double pathlossExponentStandardDeviation = pathlossExponentVariance != null ?
+                Math.sqrt(pathlossExponentVariance) : null;
+
+        if (source instanceof WifiAccessPoint) {
+            final WifiAccessPoint accessPoint = (WifiAccessPoint) source;
+            return new WifiAccessPointWithPowerAndLocated3D(accessPoint.getBssid(),
+                    source.getFrequency(), accessPoint.getSsid(),
+                    getEstimatedTransmittedPowerdBm(),
+                    transmittedPowerStandardDeviation,
+                    getEstimatedPathLossExponent(),
+                    pathlossExponentStandardDeviation,
+                    estimatedPosition,
+                    estimatedPositionCovariance);
+        } else if (source instanceof Beacon) {
+            final Beacon beacon = (Beacon) source;
+            return new BeaconWithPowerAndLocated3D(beacon.getIdentifiers(),
+                    getEstimatedTransmittedPowerdBm(), beacon.getFrequency(),
+                    beacon.getBluetoothAddress(), beacon.getBeaconTypeCode(),
+                    beacon.getManufacturer(), beacon.getServiceUuid(),
+                    beacon.getBluetoothName(),
+                    getEstimatedPathLossExponent(),
+                    transmittedPowerStandardDeviation,
+                    pathlossExponentStandardDeviation,
+                    estimatedPosition, estimatedPositionCovariance);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a robust estimator using {@link #DEFAULT_ROBUST_METHOD}.
+     *
+     * @param <S> a {@link RadioSource} type.
+     * @return a new robust estimator.
+     */
+    private static <S extends RadioSource> SequentialRobustRangingAndRssiRadioSourceEstimator3D<S>
+    createRobustEstimator() {
+        final SequentialRobustRangingAndRssiRadioSourceEstimator3D<S> robustEstimator =
+                new SequentialRobustRangingAndRssiRadioSourceEstimator3D<>();
+        try {
+            robustEstimator.setRangingRobustMethod(DEFAULT_ROBUST_METHOD);
+            robustEstimator.setRssiRobustMethod(DEFAULT_ROBUST_METHOD);
+        } catch (final LockedException ignore) {
+            // never happens
+        }
+        return robustEstimator;
+    }
+
+    /**
+     * Creates a point where estimated position will be stored.
+     *
+     * @return a new 3D point.
+     */
+    @Override
+    protected Point3D createPoint() {
+        return new InhomogeneousPoint3D();
+    }
+}
@@ -0,0 +1,976 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.NonSymmetricPositiveDefiniteMatrixException;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.navigation.frames.converters.ECEFtoNEDPositionVelocityConverter;
+import com.irurueta.navigation.gnss.ECEFPositionAndVelocity;
+import com.irurueta.navigation.inertial.estimators.ECEFGravityEstimator;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+/**
+ * Implements one cycle of the loosely coupled INS/GNSS Kalman filter plus
+ * closed-loop correction of all inertial states, exploiting the known block
+ * structure of the transition, system noise and measurement matrices.
+ * Results are equivalent to the ones obtained with
+ * {@link INSLooselyCoupledKalmanEpochEstimator}, however:
+ * - The transition matrix is built in closed form and stored in compressed
+ * row format, since most of its 3x3 blocks are structurally zero or identity.
+ * Covariance is then propagated as Phi * (P + Q/2) * Phi' + Q/2 only
+ * multiplying structurally non-zero elements, taking into account that Q is
+ * diagonal and that the result is symmetric.
+ * - Because the measurement matrix only selects (and negates) position and
+ * velocity states, the innovation covariance is a 6x6 submatrix of the
+ * propagated covariance, which is solved using a Cholesky decomposition
+ * instead of being inverted.
+ * - All intermediate values are stored in workspace arrays owned by this
+ * instance, and covariance and coordinate transformation matrices of the
+ * result state are reused when available, so that previous state can be
+ * updated in place without allocating any matrices.
+ * Consequently, instances of this class are not thread-safe.
+ * This implementation is based on the equations defined in "Principles of GNSS, Inertial, and Multisensor
+ * Integrated Navigation Systems, Second Edition" and on the companion software available at:
+ * https://github.com/ymjdz/MATLAB-Codes/blob/master/LC_KF_Epoch.m
+ */
+public class INSLooselyCoupledKalmanSparseEpochEstimator {
+
+    /**
+     * Earth rotation rate expressed in radians per second (rad/s).
+     */
+    public static final double EARTH_ROTATION_RATE = INSLooselyCoupledKalmanEpochEstimator.EARTH_ROTATION_RATE;
+
+    /**
+     * The equatorial radius of WGS84 ellipsoid (6378137 m) defining Earth's shape.
+     */
+    public static final double EARTH_EQUATORIAL_RADIUS_WGS84 =
+            INSLooselyCoupledKalmanEpochEstimator.EARTH_EQUATORIAL_RADIUS_WGS84;
+
+    /**
+     * Earth eccentricity as defined on the WGS84 ellipsoid.
+     */
+    public static final double EARTH_ECCENTRICITY = INSLooselyCoupledKalmanEpochEstimator.EARTH_ECCENTRICITY;
+
+    /**
+     * Number of Kalman filter states.
+     */
+    private static final int N = INSLooselyCoupledKalmanState.NUM_PARAMS;
+
+    /**
+     * Number of components of position and velocity measurements.
+     */
+    private static final int M = 6;
+
+    /**
+     * Number of components of each 3x3 block.
+     */
+    private static final int B = 3;
+
+    /**
+     * Number of structurally non-zero elements of transition matrix.
+     * Attitude rows contain full attitude and gyro bias blocks, velocity rows
+     * contain full attitude, velocity, position and accelerometer bias blocks,
+     * position rows contain diagonal velocity and position blocks and bias
+     * rows only contain the diagonal.
+     */
+    private static final int PHI_NON_ZEROS = B * 2 * B + B * 4 * B + B * 2 + 2 * B;
+
+    /**
+     * Positions where each row of transition matrix starts within
+     * {@link #PHI_COLUMNS}.
+     */
+    private static final int[] PHI_ROW_OFFSETS = new int[N + 1];
+
+    /**
+     * Columns of structurally non-zero elements of transition matrix,
+     * stored row after row.
+     */
+    private static final int[] PHI_COLUMNS = new int[PHI_NON_ZEROS];
+
+    /**
+     * States measured by each row of the measurement matrix. Measurement
+     * matrix contains -1 at these positions and zero elsewhere.
+     */
+    private static final int[] MEASURED_STATES = {6, 7, 8, 3, 4, 5};
+
+    static {
+        int pos = 0;
+        for (int row = 0; row < N; row++) {
+            PHI_ROW_OFFSETS[row] = pos;
+            if (row < 3) {
+                // attitude and gyro bias blocks
+                pos = addColumns(pos, 0, B);
+                pos = addColumns(pos, 12, B);
+            } else if (row < 6) {
+                // attitude, velocity, position and accelerometer bias blocks
+                pos = addColumns(pos, 0, 4 * B);
+            } else if (row < 9) {
+                // velocity and position diagonals
+                PHI_COLUMNS[pos++] = row - B;
+                PHI_COLUMNS[pos++] = row;
+            } else {
+                // identity
+                PHI_COLUMNS[pos++] = row;
+            }
+        }
+        PHI_ROW_OFFSETS[N] = pos;
+    }
+
+    /**
+     * Values of structurally non-zero elements of transition matrix, stored in
+     * the same order as {@link #PHI_COLUMNS}.
+     */
+    private final double[] mPhiValues = new double[PHI_NON_ZEROS];
+
+    /**
+     * Previous covariance plus half of system noise covariance, stored in
+     * row-major order.
+     */
+    private final double[] mA = new double[N * N];
+
+    /**
+     * Product of transition matrix and mA, stored in row-major order.
+     */
+    private final double[] mB = new double[N * N];
+
+    /**
+     * Propagated covariance, stored in row-major order.
+     */
+    private final double[] mP = new double[N * N];
+
+    /**
+     * Half of the diagonal of system noise covariance matrix.
+     */
+    private final double[] mQ = new double[N];
+
+    /**
+     * Cholesky factor of innovation covariance, stored in row-major order.
+     */
+    private final double[] mL = new double[M * M];
+
+    /**
+     * Columns of propagated covariance corresponding to measured states,
+     * stored in row-major order.
+     */
+    private final double[] mW = new double[N * M];
+
+    /**
+     * Product of mW and inverse of innovation covariance, stored in
+     * row-major order. Kalman gain is the negative of this matrix.
+     */
+    private final double[] mY = new double[N * M];
+
+    /**
+     * Measurement innovations.
+     */
+    private final double[] mDeltaZ = new double[M];
+
+    /**
+     * Updated state estimates.
+     */
+    private final double[] mX = new double[N];
+
+    /**
+     * Previous body to ECEF coordinate transformation matrix stored in
+     * row-major order.
+     */
+    private final double[] mCbe = new double[B * B];
+
+    /**
+     * Gravity at previous position.
+     */
+    private final ECEFGravity mGravity = new ECEFGravity();
+
+    /**
+     * Previous NED position used to obtain previous latitude when not provided.
+     */
+    private final NEDPosition mPreviousNedPosition = new NEDPosition();
+
+    /**
+     * Previous NED velocity used to obtain previous latitude when not provided.
+     */
+    private final NEDVelocity mPreviousNedVelocity = new NEDVelocity();
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     *
+     * @param x                   ECEF x coordinate of user position expressed in
+     *                            meters (m).
+     * @param y                   ECEF y coordinate of user position expressed in
+     *                            meters (m).
+     * @param z                   ECEF z coordinate of user position expressed in
+     *                            meters (m).
+     * @param vx                  ECEF x coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vy                  ECEF y coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vz                  ECEF z coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final double x, final double y, final double z,
+            final double vx, final double vy, final double vz,
+            final double propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final double previousLatitude,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+
+        // SYSTEM PROPAGATION PHASE
+
+        // 1. Determine transition matrix using (14.50) (first-order approx)
+        final double[] cbe = mCbe;
+        final double[] cbeBuffer = previousState
+                .getBodyToEcefCoordinateTransformationMatrix().getBuffer();
+        for (int row = 0; row < B; row++) {
+            for (int col = 0; col < B; col++) {
+                cbe[row * B + col] = cbeBuffer[row + col * B];
+            }
+        }
+
+        final double prevX = previousState.getX();
+        final double prevY = previousState.getY();
+        final double prevZ = previousState.getZ();
+
+        final double sinPrevLat = Math.sin(previousLatitude);
+        final double cosPrevLat = Math.cos(previousLatitude);
+        final double sinPrevLat2 = sinPrevLat * sinPrevLat;
+        final double cosPrevLat2 = cosPrevLat * cosPrevLat;
+
+        // From (2.137)
+        final double geocentricRadius = EARTH_EQUATORIAL_RADIUS_WGS84
+                / Math.sqrt(1.0 - Math.pow(EARTH_ECCENTRICITY * sinPrevLat, 2.0))
+                * Math.sqrt(cosPrevLat2
+                + Math.pow(1.0 - EARTH_ECCENTRICITY * EARTH_ECCENTRICITY, 2.0) * sinPrevLat2);
+
+        ECEFGravityEstimator.estimateGravity(prevX, prevY, prevZ, mGravity);
+
+        final double previousPositionNorm = Math.sqrt(prevX * prevX +
+                prevY * prevY + prevZ * prevZ);
+
+        buildTransition(propagationInterval, fx, fy, fz, geocentricRadius,
+                previousPositionNorm, prevX, prevY, prevZ);
+
+
+        // 2. Determine approximate system noise covariance matrix using (14.82)
+        // (only its diagonal is non-zero, and it is already halved)
+        final double[] q = mQ;
+        final double gyroNoiseValue = 0.5 * config.getGyroNoisePSD() * propagationInterval;
+        final double accelNoiseValue = 0.5 * config.getAccelerometerNoisePSD() * propagationInterval;
+        final double accelBiasValue = 0.5 * config.getAccelerometerBiasPSD() * propagationInterval;
+        final double gyroBiasValue = 0.5 * config.getGyroBiasPSD() * propagationInterval;
+        for (int i = 0; i < B; i++) {
+            q[i] = gyroNoiseValue;
+            q[3 + i] = accelNoiseValue;
+            q[6 + i] = 0.0;
+            q[9 + i] = accelBiasValue;
+            q[12 + i] = gyroBiasValue;
+        }
+
+
+        // 3. Propagate state estimates using (3.14) noting that all states are zero
+        // due to closed-loop correction.
+
+        // 4. Propagate state estimation error covariance matrix using (3.46)
+        propagateCovariance(previousState.getCovariance().getBuffer());
+
+
+        // MEASUREMENT UPDATE PHASE
+
+        // 5. Set-up measurement matrix using (14.115) (it only selects and negates
+        // position and velocity states, see MEASURED_STATES)
+
+        // 6. Set-up measurement noise covariance matrix assuming all components of
+        // GNSS position and velocity are independent and have equal variance.
+        final double posMeasSD = config.getPositionNoiseSD();
+        final double velMeasSD = config.getVelocityNoiseSD();
+
+        // 7. Calculate Kalman gain using (3.21), which becomes
+        // K = -W * (H*P*H' + R)^-1, where W contains the columns of P of measured
+        // states
+        factorizeInnovationCovariance(posMeasSD * posMeasSD, velMeasSD * velMeasSD);
+        solveGain();
+
+        // 8. Formulate measurement innovations using (14.102), noting that zero
+        // lever arm is assumed here
+        final double prevVx = previousState.getVx();
+        final double prevVy = previousState.getVy();
+        final double prevVz = previousState.getVz();
+
+        final double[] deltaZ = mDeltaZ;
+        deltaZ[0] = x - prevX;
+        deltaZ[1] = y - prevY;
+        deltaZ[2] = z - prevZ;
+        deltaZ[3] = vx - prevVx;
+        deltaZ[4] = vy - prevVy;
+        deltaZ[5] = vz - prevVz;
+
+        // 9. Update state estimates using (3.24)
+        final double[] xEstNew = mX;
+        final double[] y1 = mY;
+        for (int i = 0; i < N; i++) {
+            final int offset = i * M;
+            double value = 0.0;
+            for (int j = 0; j < M; j++) {
+                value -= y1[offset + j] * deltaZ[j];
+            }
+            xEstNew[i] = value;
+        }
+
+        // 10. Update state estimation error covariance matrix using (3.25), which
+        // becomes P - Y * W'
+        Matrix pNew = result.getCovariance();
+        if (pNew == null) {
+            pNew = createMatrix(N, N);
+        }
+        updateCovariance(pNew.getBuffer());
+
+
+        // CLOSED-LOOP CORRECTION
+
+        // Correct attitude, velocity, and position using (14.7-9)
+        Matrix estCbeNew = result.getBodyToEcefCoordinateTransformationMatrix();
+        if (estCbeNew == null) {
+            estCbeNew = createMatrix(B, B);
+        }
+        final double[] cbeNewBuffer = estCbeNew.getBuffer();
+        for (int col = 0; col < B; col++) {
+            final double c0 = cbe[col];
+            final double c1 = cbe[B + col];
+            final double c2 = cbe[2 * B + col];
+
+            // (I - skew(x[0..2])) * Cbe
+            final int offset = col * B;
+            cbeNewBuffer[offset] = c0 + xEstNew[2] * c1 - xEstNew[1] * c2;
+            cbeNewBuffer[offset + 1] = -xEstNew[2] * c0 + c1 + xEstNew[0] * c2;
+            cbeNewBuffer[offset + 2] = xEstNew[1] * c0 - xEstNew[0] * c1 + c2;
+        }
+
+        // Update IMU bias estimates
+        final double newAccelerationBiasX = previousState.getAccelerationBiasX()
+                + xEstNew[9];
+        final double newAccelerationBiasY = previousState.getAccelerationBiasY()
+                + xEstNew[10];
+        final double newAccelerationBiasZ = previousState.getAccelerationBiasZ()
+                + xEstNew[11];
+
+        final double newGyroBiasX = previousState.getGyroBiasX()
+                + xEstNew[12];
+        final double newGyroBiasY = previousState.getGyroBiasY()
+                + xEstNew[13];
+        final double newGyroBiasZ = previousState.getGyroBiasZ()
+                + xEstNew[14];
+
+        // set result values
+        result.setBodyToEcefCoordinateTransformationMatrix(estCbeNew);
+        result.setVelocityCoordinates(prevVx - xEstNew[3], prevVy - xEstNew[4],
+                prevVz - xEstNew[5]);
+        result.setPositionCoordinates(prevX - xEstNew[6], prevY - xEstNew[7],
+                prevZ - xEstNew[8]);
+        result.setAccelerationBiasCoordinates(newAccelerationBiasX,
+                newAccelerationBiasY, newAccelerationBiasZ);
+        result.setGyroBiasCoordinates(newGyroBiasX, newGyroBiasY,
+                newGyroBiasZ);
+        result.setCovariance(pNew);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     *
+     * @param x                   ECEF x coordinate of user position expressed in
+     *                            meters (m).
+     * @param y                   ECEF y coordinate of user position expressed in
+     *                            meters (m).
+     * @param z                   ECEF z coordinate of user position expressed in
+     *                            meters (m).
+     * @param vx                  ECEF x coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vy                  ECEF y coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vz                  ECEF z coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final double x, final double y, final double z,
+            final double vx, final double vy, final double vz,
+            final Time propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final double previousLatitude,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        estimate(x, y, z, vx, vy, vz, convertTime(propagationInterval), previousState,
+                fx, fy, fz, previousLatitude, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param x                   ECEF x coordinate of user position expressed in
+     *                            meters (m).
+     * @param y                   ECEF y coordinate of user position expressed in
+     *                            meters (m).
+     * @param z                   ECEF z coordinate of user position expressed in
+     *                            meters (m).
+     * @param vx                  ECEF x coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vy                  ECEF y coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vz                  ECEF z coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final double x, final double y, final double z,
+            final double vx, final double vy, final double vz,
+            final double propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        ECEFtoNEDPositionVelocityConverter.convertECEFtoNED(
+                previousState.getX(), previousState.getY(), previousState.getZ(),
+                previousState.getVx(), previousState.getVy(), previousState.getVz(),
+                mPreviousNedPosition, mPreviousNedVelocity);
+
+        estimate(x, y, z, vx, vy, vz, propagationInterval, previousState,
+                fx, fy, fz, mPreviousNedPosition.getLatitude(), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param x                   ECEF x coordinate of user position expressed in
+     *                            meters (m).
+     * @param y                   ECEF y coordinate of user position expressed in
+     *                            meters (m).
+     * @param z                   ECEF z coordinate of user position expressed in
+     *                            meters (m).
+     * @param vx                  ECEF x coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vy                  ECEF y coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param vz                  ECEF z coordinate of user velocity expressed in
+     *                            meters per second (m/s).
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final double x, final double y, final double z,
+            final double vx, final double vy, final double vz,
+            final Time propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        estimate(x, y, z, vx, vy, vz, convertTime(propagationInterval), previousState,
+                fx, fy, fz, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     *
+     * @param positionAndVelocity ECEF user position and velocity.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final ECEFPositionAndVelocity positionAndVelocity,
+            final double propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final double previousLatitude,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        estimate(positionAndVelocity.getX(), positionAndVelocity.getY(),
+                positionAndVelocity.getZ(), positionAndVelocity.getVx(),
+                positionAndVelocity.getVy(), positionAndVelocity.getVz(),
+                propagationInterval, previousState, bodyKinematics.getFx(),
+                bodyKinematics.getFy(), bodyKinematics.getFz(), previousLatitude,
+                config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     *
+     * @param positionAndVelocity ECEF user position and velocity.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final ECEFPositionAndVelocity positionAndVelocity,
+            final Time propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final double previousLatitude,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        estimate(positionAndVelocity, convertTime(propagationInterval), previousState,
+                bodyKinematics, previousLatitude, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param positionAndVelocity ECEF user position and velocity.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final ECEFPositionAndVelocity positionAndVelocity,
+            final double propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        estimate(positionAndVelocity.getX(), positionAndVelocity.getY(),
+                positionAndVelocity.getZ(), positionAndVelocity.getVx(),
+                positionAndVelocity.getVy(), positionAndVelocity.getVz(),
+                propagationInterval, previousState, bodyKinematics.getFx(),
+                bodyKinematics.getFy(), bodyKinematics.getFz(), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state for a single epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param positionAndVelocity ECEF user position and velocity.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param config              Loosely Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored. It can be the same instance as previous state.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final ECEFPositionAndVelocity positionAndVelocity,
+            final Time propagationInterval,
+            final INSLooselyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final INSLooselyCoupledKalmanConfig config,
+            final INSLooselyCoupledKalmanState result) throws AlgebraException {
+        estimate(positionAndVelocity, convertTime(propagationInterval), previousState,
+                bodyKinematics, config, result);
+    }
+
+    /**
+     * Fills structurally non-zero values of transition matrix in the same order
+     * as {@link #PHI_COLUMNS}.
+     *
+     * @param propagationInterval  propagation interval expressed in seconds (s).
+     * @param fx                   measured specific force resolved along body
+     *                             frame x-axis.
+     * @param fy                   measured specific force resolved along body
+     *                             frame y-axis.
+     * @param fz                   measured specific force resolved along body
+     *                             frame z-axis.
+     * @param geocentricRadius     geocentric radius at previous latitude.
+     * @param previousPositionNorm norm of previous position.
+     * @param prevX                previous ECEF x coordinate.
+     * @param prevY                previous ECEF y coordinate.
+     * @param prevZ                previous ECEF z coordinate.
+     */
+    private void buildTransition(
+            final double propagationInterval,
+            final double fx, final double fy, final double fz,
+            final double geocentricRadius, final double previousPositionNorm,
+            final double prevX, final double prevY, final double prevZ) {
+        final double[] phi = mPhiValues;
+        final double[] cbe = mCbe;
+        final double omegaTau = EARTH_ROTATION_RATE * propagationInterval;
+
+        // -skew(Cbe * f) * tau
+        final double fex = (cbe[0] * fx + cbe[1] * fy + cbe[2] * fz) * propagationInterval;
+        final double fey = (cbe[3] * fx + cbe[4] * fy + cbe[5] * fz) * propagationInterval;
+        final double fez = (cbe[6] * fx + cbe[7] * fy + cbe[8] * fz) * propagationInterval;
+
+        // -2 * g * r' * tau / (geocentricRadius * |r|)
+        final double gravityFactor = -2.0 * propagationInterval / geocentricRadius
+                / previousPositionNorm;
+        final double gx = mGravity.getGx() * gravityFactor;
+        final double gy = mGravity.getGy() * gravityFactor;
+        final double gz = mGravity.getGz() * gravityFactor;
+
+        int pos = 0;
+
+        // attitude rows: [I - omegaIe * tau, 0, 0, 0, Cbe * tau]
+        phi[pos++] = 1.0;
+        phi[pos++] = omegaTau;
+        phi[pos++] = 0.0;
+        pos = addScaledRow(pos, 0, propagationInterval);
+        phi[pos++] = -omegaTau;
+        phi[pos++] = 1.0;
+        phi[pos++] = 0.0;
+        pos = addScaledRow(pos, 1, propagationInterval);
+        phi[pos++] = 0.0;
+        phi[pos++] = 0.0;
+        phi[pos++] = 1.0;
+        pos = addScaledRow(pos, 2, propagationInterval);
+
+        // velocity rows: [-skew(Cbe * f) * tau, I - 2 * omegaIe * tau,
+        // -2 * g * r' * tau / (geocentricRadius * |r|), Cbe * tau, 0]
+        phi[pos++] = 0.0;
+        phi[pos++] = fez;
+        phi[pos++] = -fey;
+        phi[pos++] = 1.0;
+        phi[pos++] = 2.0 * omegaTau;
+        phi[pos++] = 0.0;
+        phi[pos++] = gx * prevX;
+        phi[pos++] = gx * prevY;
+        phi[pos++] = gx * prevZ;
+        pos = addScaledRow(pos, 0, propagationInterval);
+
+        phi[pos++] = -fez;
+        phi[pos++] = 0.0;
+        phi[pos++] = fex;
+        phi[pos++] = -2.0 * omegaTau;
+        phi[pos++] = 1.0;
+        phi[pos++] = 0.0;
+        phi[pos++] = gy * prevX;
+        phi[pos++] = gy * prevY;
+        phi[pos++] = gy * prevZ;
+        pos = addScaledRow(pos, 1, propagationInterval);
+
+        phi[pos++] = fey;
+        phi[pos++] = -fex;
+        phi[pos++] = 0.0;
+        phi[pos++] = 0.0;
+        phi[pos++] = 0.0;
+        phi[pos++] = 1.0;
+        phi[pos++] = gz * prevX;
+        phi[pos++] = gz * prevY;
+        phi[pos++] = gz * prevZ;
+        pos = addScaledRow(pos, 2, propagationInterval);
+
+        // position rows: [0, I * tau, I, 0, 0]
+        for (int i = 0; i < B; i++) {
+            phi[pos++] = propagationInterval;
+            phi[pos++] = 1.0;
+        }
+
+        // bias rows: identity
+        while (pos < PHI_NON_ZEROS) {
+            phi[pos++] = 1.0;
+        }
+    }
+
+    /**
+     * Copies a row of previous body to ECEF coordinate transformation matrix
+     * multiplied by provided factor into transition values.
+     *
+     * @param pos    position where values will be copied.
+     * @param row    row of coordinate transformation matrix.
+     * @param factor factor to multiply values with.
+     * @return position after copied values.
+     */
+    private int addScaledRow(final int pos, final int row, final double factor) {
+        final double[] phi = mPhiValues;
+        final double[] cbe = mCbe;
+        final int offset = row * B;
+        phi[pos] = cbe[offset] * factor;
+        phi[pos + 1] = cbe[offset + 1] * factor;
+        phi[pos + 2] = cbe[offset + 2] * factor;
+        return pos + B;
+    }
+
+    /**
+     * Propagates covariance as Phi * (P + Q/2) * Phi' + Q/2, only taking into
+     * account structurally non-zero elements of Phi.
+     * Only the upper triangle of the result is computed and mirrored, since the
+     * result is symmetric.
+     *
+     * @param previousCovariance column-major buffer of previous covariance.
+     */
+    private void propagateCovariance(final double[] previousCovariance) {
+        final double[] phi = mPhiValues;
+        final double[] a = mA;
+        final double[] b = mB;
+        final double[] p = mP;
+        final double[] q = mQ;
+
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) {
+                a[row * N + col] = previousCovariance[row + col * N];
+            }
+            a[row * N + row] += q[row];
+        }
+
+        // B = Phi * A
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            for (int col = 0; col < N; col++) {
+                double value = 0.0;
+                for (int k = PHI_ROW_OFFSETS[row]; k < PHI_ROW_OFFSETS[row + 1]; k++) {
+                    value += phi[k] * a[PHI_COLUMNS[k] * N + col];
+                }
+                b[rowOffset + col] = value;
+            }
+        }
+
+        // P = B * Phi' + Q/2
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            for (int col = row; col < N; col++) {
+                double value = 0.0;
+                for (int k = PHI_ROW_OFFSETS[col]; k < PHI_ROW_OFFSETS[col + 1]; k++) {
+                    value += b[rowOffset + PHI_COLUMNS[k]] * phi[k];
+                }
+                p[rowOffset + col] = value;
+                p[col * N + row] = value;
+            }
+            p[rowOffset + row] += q[row];
+        }
+    }
+
+    /**
+     * Computes Cholesky factor of innovation covariance H*P*H' + R, which is
+     * the submatrix of propagated covariance corresponding to measured states
+     * plus measurement noise variances.
+     *
+     * @param posMeasVariance variance of position measurements.
+     * @param velMeasVariance variance of velocity measurements.
+     * @throws NonSymmetricPositiveDefiniteMatrixException if innovation
+     *                                                     covariance is not
+     *                                                     positive definite.
+     */
+    private void factorizeInnovationCovariance(
+            final double posMeasVariance, final double velMeasVariance)
+            throws NonSymmetricPositiveDefiniteMatrixException {
+        final double[] p = mP;
+        final double[] l = mL;
+        final double[] w = mW;
+
+        // W = P * (-H') without sign
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < M; j++) {
+                w[i * M + j] = p[i * N + MEASURED_STATES[j]];
+            }
+        }
+
+        for (int i = 0; i < M; i++) {
+            final int iOffset = i * M;
+            for (int j = 0; j <= i; j++) {
+                final int jOffset = j * M;
+                double sum = w[MEASURED_STATES[i] * M + j];
+                if (i == j) {
+                    sum += i < B ? posMeasVariance : velMeasVariance;
+                }
+                for (int k = 0; k < j; k++) {
+                    sum -= l[iOffset + k] * l[jOffset + k];
+                }
+
+                if (i == j) {
+                    if (sum <= 0.0) {
+                        throw new NonSymmetricPositiveDefiniteMatrixException();
+                    }
+                    l[iOffset + i] = Math.sqrt(sum);
+                } else {
+                    l[iOffset + j] = sum / l[jOffset + j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves Y = W * (H*P*H' + R)^-1 row by row using the Cholesky factor of
+     * innovation covariance.
+     */
+    private void solveGain() {
+        final double[] l = mL;
+        final double[] w = mW;
+        final double[] y = mY;
+
+        for (int i = 0; i < N; i++) {
+            final int offset = i * M;
+
+            // forward substitution L * t = w_i
+            for (int j = 0; j < M; j++) {
+                double sum = w[offset + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[j * M + k] * y[offset + k];
+                }
+                y[offset + j] = sum / l[j * M + j];
+            }
+
+            // backward substitution L' * y_i = t
+            for (int j = M - 1; j >= 0; j--) {
+                double sum = y[offset + j];
+                for (int k = j + 1; k < M; k++) {
+                    sum -= l[k * M + j] * y[offset + k];
+                }
+                y[offset + j] = sum / l[j * M + j];
+            }
+        }
+    }
+
+    /**
+     * Computes updated covariance as P - Y * W' into provided column-major
+     * buffer.
+     *
+     * @param result column-major buffer where updated covariance will be
+     *               stored.
+     */
+    private void updateCovariance(final double[] result) {
+        final double[] p = mP;
+        final double[] w = mW;
+        final double[] y = mY;
+
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * M;
+            for (int col = row; col < N; col++) {
+                final int colOffset = col * M;
+                double value = p[row * N + col];
+                for (int k = 0; k < M; k++) {
+                    value -= y[rowOffset + k] * w[colOffset + k];
+                }
+                result[row + col * N] = value;
+                result[col + row * N] = value;
+            }
+        }
+    }
+
+    /**
+     * Adds consecutive columns to the pattern of transition matrix.
+     *
+     * @param pos   position where columns will be added.
+     * @param start first column to be added.
+     * @param count number of columns to be added.
+     * @return position after added columns.
+     */
+    private static int addColumns(final int pos, final int start, final int count) {
+        int result = pos;
+        for (int i = 0; i < count; i++) {
+            PHI_COLUMNS[result++] = start + i;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a matrix having provided size.
+     *
+     * @param rows    number of rows.
+     * @param columns number of columns.
+     * @return a new matrix.
+     */
+    private static Matrix createMatrix(final int rows, final int columns) {
+        try {
+            return new Matrix(rows, columns);
+        } catch (final WrongSizeException ignore) {
+            // never happens
+            return null;
+        }
+    }
+
+    /**
+     * Converts time instance into a value expressed in seconds.
+     *
+     * @param time time instance to be converted.
+     * @return time value expressed in seconds.
+     */
+    private static double convertTime(final Time time) {
+        return TimeConverter.convert(time.getValue().doubleValue(),
+                time.getUnit(), TimeUnit.SECOND);
+    }
+}
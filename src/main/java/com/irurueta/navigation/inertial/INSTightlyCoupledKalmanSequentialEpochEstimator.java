@@ -0,0 +1,1158 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.NonSymmetricPositiveDefiniteMatrixException;
+import com.irurueta.algebra.SingularMatrixException;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.converters.ECEFtoNEDPositionVelocityConverter;
+import com.irurueta.navigation.gnss.GNSSMeasurement;
+import com.irurueta.navigation.inertial.estimators.ECEFGravityEstimator;
+import com.irurueta.units.Angle;
+import com.irurueta.units.AngleConverter;
+import com.irurueta.units.AngleUnit;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Implements one cycle of the tightly coupled INS/GNSS Kalman filter plus
+ * closed-loop correction of all inertial states, processing measurements
+ * sequentially.
+ * System propagation is the same as in {@link INSTightlyCoupledKalmanEpochEstimator},
+ * but instead of building a 2m x 17 measurement matrix and inverting a 2m x 2m
+ * innovation covariance matrix (where m is the number of satellites), each
+ * pseudo-range and pseudo-range rate is processed as an independent scalar
+ * measurement. Because measurement noise covariance is diagonal, the result is
+ * mathematically equivalent, but cost grows as O(m*n^2) instead of O(m^3),
+ * where n is the number of Kalman filter states.
+ * Covariance can be updated either using the Joseph form or using a U-D
+ * factorization (see {@link INSTightlyCoupledKalmanSequentialUpdateType}).
+ * All intermediate values are stored in workspace arrays owned by this instance
+ * so that no matrices are allocated on each epoch once the result state already
+ * contains its covariance and coordinate transformation matrices.
+ * Consequently, instances of this class are not thread-safe.
+ * This implementation is based on the equations defined in "Principles of GNSS, Inertial, and Multisensor
+ * Integrated Navigation Systems, Second Edition" and on the companion software available at:
+ * https://github.com/ymjdz/MATLAB-Codes/blob/master/TC_KF_Epoch.m
+ */
+public class INSTightlyCoupledKalmanSequentialEpochEstimator {
+
+    /**
+     * Speed of light in the vacuum expressed in meters per second (m/s).
+     */
+    public static final double SPEED_OF_LIGHT = INSTightlyCoupledKalmanEpochEstimator.SPEED_OF_LIGHT;
+
+    /**
+     * Earth rotation rate expressed in radians per second (rad/s).
+     */
+    public static final double EARTH_ROTATION_RATE = INSTightlyCoupledKalmanEpochEstimator.EARTH_ROTATION_RATE;
+
+    /**
+     * The equatorial radius of WGS84 ellipsoid (6378137 m) defining Earth's shape.
+     */
+    public static final double EARTH_EQUATORIAL_RADIUS_WGS84 =
+            INSTightlyCoupledKalmanEpochEstimator.EARTH_EQUATORIAL_RADIUS_WGS84;
+
+    /**
+     * Earth eccentricity as defined on the WGS84 ellipsoid.
+     */
+    public static final double EARTH_ECCENTRICITY = INSTightlyCoupledKalmanEpochEstimator.EARTH_ECCENTRICITY;
+
+    /**
+     * Default covariance update type.
+     */
+    public static final INSTightlyCoupledKalmanSequentialUpdateType DEFAULT_UPDATE_TYPE =
+            INSTightlyCoupledKalmanSequentialUpdateType.JOSEPH;
+
+    /**
+     * Number of Kalman filter states.
+     */
+    private static final int N = INSTightlyCoupledKalmanState.NUM_PARAMS;
+
+    /**
+     * Number of non-zero elements on each row of the measurement matrix.
+     */
+    private static final int H_NON_ZEROS = 4;
+
+    /**
+     * Covariance update type.
+     */
+    private INSTightlyCoupledKalmanSequentialUpdateType mUpdateType;
+
+    /**
+     * Transition matrix stored in row-major order.
+     */
+    private final double[] mPhi = new double[N * N];
+
+    /**
+     * Previous covariance plus half of system noise covariance stored in
+     * row-major order.
+     */
+    private final double[] mA = new double[N * N];
+
+    /**
+     * Product of transition matrix and mA stored in row-major order.
+     */
+    private final double[] mB = new double[N * N];
+
+    /**
+     * Error covariance matrix stored in row-major order.
+     */
+    private final double[] mP = new double[N * N];
+
+    /**
+     * Unit upper triangular factor of covariance matrix stored in row-major
+     * order. Only used for U-D updates.
+     */
+    private final double[] mU = new double[N * N];
+
+    /**
+     * Diagonal factor of covariance matrix. Only used for U-D updates.
+     */
+    private final double[] mD = new double[N];
+
+    /**
+     * Half of the diagonal of system noise covariance matrix.
+     */
+    private final double[] mQ = new double[N];
+
+    /**
+     * Correction of propagated state estimated from processed measurements.
+     */
+    private final double[] mDx = new double[N];
+
+    /**
+     * Product of covariance matrix and current measurement row for Joseph
+     * updates, or unnormalized Kalman gain for U-D updates.
+     */
+    private final double[] mPh = new double[N];
+
+    /**
+     * Kalman gain for Joseph updates, or product of transposed U factor and
+     * current measurement row for U-D updates.
+     */
+    private final double[] mK = new double[N];
+
+    /**
+     * Product of D factor and mK for U-D updates.
+     */
+    private final double[] mV = new double[N];
+
+    /**
+     * Column positions of non-zero elements of current measurement row.
+     */
+    private final int[] mHIndices = new int[H_NON_ZEROS];
+
+    /**
+     * Non-zero values of current measurement row.
+     */
+    private final double[] mHValues = new double[H_NON_ZEROS];
+
+    /**
+     * Previous body to ECEF coordinate transformation matrix stored in
+     * row-major order.
+     */
+    private final double[] mCbe = new double[CoordinateTransformation.ROWS * CoordinateTransformation.COLS];
+
+    /**
+     * Gravity at previous position.
+     */
+    private final ECEFGravity mGravity = new ECEFGravity();
+
+    /**
+     * Previous NED position used to obtain previous latitude when not provided.
+     */
+    private final NEDPosition mPreviousNedPosition = new NEDPosition();
+
+    /**
+     * Previous NED velocity used to obtain previous latitude when not provided.
+     */
+    private final NEDVelocity mPreviousNedVelocity = new NEDVelocity();
+
+    /**
+     * Constructor.
+     */
+    public INSTightlyCoupledKalmanSequentialEpochEstimator() {
+        this(DEFAULT_UPDATE_TYPE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param updateType covariance update type.
+     * @throws NullPointerException if provided update type is null.
+     */
+    public INSTightlyCoupledKalmanSequentialEpochEstimator(
+            final INSTightlyCoupledKalmanSequentialUpdateType updateType) {
+        setUpdateType(updateType);
+    }
+
+    /**
+     * Gets covariance update type.
+     *
+     * @return covariance update type.
+     */
+    public INSTightlyCoupledKalmanSequentialUpdateType getUpdateType() {
+        return mUpdateType;
+    }
+
+    /**
+     * Sets covariance update type.
+     *
+     * @param updateType covariance update type.
+     * @throws NullPointerException if provided update type is null.
+     */
+    public void setUpdateType(final INSTightlyCoupledKalmanSequentialUpdateType updateType) {
+        if (updateType == null) {
+            throw new NullPointerException();
+        }
+        mUpdateType = updateType;
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final double propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final double previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+
+        // SYSTEM PROPAGATION PHASE
+
+        // 1. Determine transition matrix using (14.50) (first-order approx)
+        final double[] phi = mPhi;
+        Arrays.fill(phi, 0.0);
+        for (int i = 0; i < N; i++) {
+            phi[i * N + i] = 1.0;
+        }
+
+        // I - omegaIe * tau
+        final double omegaTau = EARTH_ROTATION_RATE * propagationInterval;
+        phi[1] = omegaTau;
+        phi[N] = -omegaTau;
+
+        final double[] cbe = mCbe;
+        final double[] cbeBuffer = previousState
+                .getBodyToEcefCoordinateTransformationMatrix().getBuffer();
+        for (int row = 0; row < CoordinateTransformation.ROWS; row++) {
+            for (int col = 0; col < CoordinateTransformation.COLS; col++) {
+                final double value = cbeBuffer[row + col * CoordinateTransformation.ROWS];
+                cbe[row * CoordinateTransformation.COLS + col] = value;
+
+                phi[row * N + 12 + col] = value * propagationInterval;
+                phi[(3 + row) * N + 9 + col] = value * propagationInterval;
+            }
+        }
+
+        // -skew(Cbe * f) * tau
+        final double fex = cbe[0] * fx + cbe[1] * fy + cbe[2] * fz;
+        final double fey = cbe[3] * fx + cbe[4] * fy + cbe[5] * fz;
+        final double fez = cbe[6] * fx + cbe[7] * fy + cbe[8] * fz;
+        phi[3 * N + 1] = fez * propagationInterval;
+        phi[3 * N + 2] = -fey * propagationInterval;
+        phi[4 * N] = -fez * propagationInterval;
+        phi[4 * N + 2] = fex * propagationInterval;
+        phi[5 * N] = fey * propagationInterval;
+        phi[5 * N + 1] = -fex * propagationInterval;
+
+        // I - 2 * omegaIe * tau
+        phi[3 * N + 4] = 2.0 * omegaTau;
+        phi[4 * N + 3] = -2.0 * omegaTau;
+
+        final double sinPrevLat = Math.sin(previousLatitude);
+        final double cosPrevLat = Math.cos(previousLatitude);
+        final double sinPrevLat2 = sinPrevLat * sinPrevLat;
+        final double cosPrevLat2 = cosPrevLat * cosPrevLat;
+
+        // From (2.137)
+        final double geocentricRadius = EARTH_EQUATORIAL_RADIUS_WGS84
+                / Math.sqrt(1.0 - Math.pow(EARTH_ECCENTRICITY * sinPrevLat, 2.0))
+                * Math.sqrt(cosPrevLat2
+                + Math.pow(1.0 - EARTH_ECCENTRICITY * EARTH_ECCENTRICITY, 2.0) * sinPrevLat2);
+
+        final double prevX = previousState.getX();
+        final double prevY = previousState.getY();
+        final double prevZ = previousState.getZ();
+        ECEFGravityEstimator.estimateGravity(prevX, prevY, prevZ, mGravity);
+
+        final double previousPositionNorm = Math.sqrt(prevX * prevX +
+                prevY * prevY + prevZ * prevZ);
+
+        final double gravityFactor = -2.0 * propagationInterval / geocentricRadius
+                / previousPositionNorm;
+        final double gx = mGravity.getGx() * gravityFactor;
+        final double gy = mGravity.getGy() * gravityFactor;
+        final double gz = mGravity.getGz() * gravityFactor;
+        phi[3 * N + 6] = gx * prevX;
+        phi[3 * N + 7] = gx * prevY;
+        phi[3 * N + 8] = gx * prevZ;
+        phi[4 * N + 6] = gy * prevX;
+        phi[4 * N + 7] = gy * prevY;
+        phi[4 * N + 8] = gy * prevZ;
+        phi[5 * N + 6] = gz * prevX;
+        phi[5 * N + 7] = gz * prevY;
+        phi[5 * N + 8] = gz * prevZ;
+
+        for (int i = 0; i < ECEFPosition.COMPONENTS; i++) {
+            phi[(6 + i) * N + 3 + i] = propagationInterval;
+        }
+
+        phi[15 * N + 16] = propagationInterval;
+
+
+        // 2. Determine approximate system noise covariance matrix using (14.82)
+        // (only its diagonal is non-zero, and it is already halved)
+        final double[] q = mQ;
+        Arrays.fill(q, 0.0);
+        final double gyroNoiseValue = 0.5 * config.getGyroNoisePSD() * propagationInterval;
+        final double accelNoiseValue = 0.5 * config.getAccelerometerNoisePSD() * propagationInterval;
+        final double accelBiasValue = 0.5 * config.getAccelerometerBiasPSD() * propagationInterval;
+        final double gyroBiasValue = 0.5 * config.getGyroBiasPSD() * propagationInterval;
+        for (int i = 0; i < 3; i++) {
+            q[i] = gyroNoiseValue;
+            q[3 + i] = accelNoiseValue;
+            q[9 + i] = accelBiasValue;
+            q[12 + i] = gyroBiasValue;
+        }
+        q[15] = 0.5 * config.getClockPhasePSD() * propagationInterval;
+        q[16] = 0.5 * config.getClockFrequencyPSD() * propagationInterval;
+
+
+        // 3. Propagate state estimates using (3.14) noting that only the clock
+        // states are non-zero due to closed-loop correction
+        final double prevClockDrift = previousState.getReceiverClockDrift();
+        final double propagatedClockOffset = previousState.getReceiverClockOffset()
+                + prevClockDrift * propagationInterval;
+
+
+        // 4. Propagate state estimation error covariance matrix using (3.46)
+        propagateCovariance(previousState.getCovariance().getBuffer());
+
+
+        // MEASUREMENT UPDATE PHASE
+
+        final boolean ud = mUpdateType == INSTightlyCoupledKalmanSequentialUpdateType.UD;
+        if (ud) {
+            factorize();
+        }
+        Arrays.fill(mDx, 0.0);
+
+        final double pseudoRangeSD = config.getPseudoRangeSD();
+        final double pseudoRangeSD2 = pseudoRangeSD * pseudoRangeSD;
+        final double rangeRateSD = config.getRangeRateSD();
+        final double rangeRateSD2 = rangeRateSD * rangeRateSD;
+
+        final double prevVx = previousState.getVx();
+        final double prevVy = previousState.getVy();
+        final double prevVz = previousState.getVz();
+
+        // user velocity plus omegaIe * user position
+        final double userVx = prevVx - EARTH_ROTATION_RATE * prevY;
+        final double userVy = prevVy + EARTH_ROTATION_RATE * prevX;
+
+        final int[] hIndices = mHIndices;
+        final double[] hValues = mHValues;
+        for (final GNSSMeasurement measurement : measurements) {
+            // Predict approx range
+            final double measX = measurement.getX();
+            final double measY = measurement.getY();
+            final double measZ = measurement.getZ();
+
+            final double deltaX = measX - prevX;
+            final double deltaY = measY - prevY;
+            final double deltaZ = measZ - prevZ;
+            final double approxRange = Math.sqrt(deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ);
+
+            // Calculate frame rotation during signal transit time using (8.36)
+            final double ceiValue = EARTH_ROTATION_RATE * approxRange / SPEED_OF_LIGHT;
+
+            // Predict pseudo-range using (9.165)
+            final double deltaRx = measX + ceiValue * measY - prevX;
+            final double deltaRy = -ceiValue * measX + measY - prevY;
+            final double deltaRz = measZ - prevZ;
+            final double range = Math.sqrt(deltaRx * deltaRx + deltaRy * deltaRy
+                    + deltaRz * deltaRz);
+
+            // Predict line of sight
+            final double uX = deltaRx / range;
+            final double uY = deltaRy / range;
+            final double uZ = deltaRz / range;
+
+            // Predict pseudo-range rate using (9.165)
+            final double satVx = measurement.getVx() - EARTH_ROTATION_RATE * measY;
+            final double satVy = measurement.getVy() + EARTH_ROTATION_RATE * measX;
+            final double satVz = measurement.getVz();
+
+            final double rangeRate = uX * (satVx + ceiValue * satVy - userVx)
+                    + uY * (-ceiValue * satVx + satVy - userVy)
+                    + uZ * (satVz - prevVz);
+
+            // 5. Process pseudo-range as a scalar measurement using row of (14.126)
+            // and innovation of (14.119)
+            hIndices[0] = 6;
+            hIndices[1] = 7;
+            hIndices[2] = 8;
+            hIndices[3] = 15;
+            hValues[0] = uX;
+            hValues[1] = uY;
+            hValues[2] = uZ;
+            hValues[3] = 1.0;
+            update(measurement.getPseudoRange() - range - propagatedClockOffset,
+                    pseudoRangeSD2, ud);
+
+            // 6. Process pseudo-range rate as a scalar measurement
+            hIndices[0] = 3;
+            hIndices[1] = 4;
+            hIndices[2] = 5;
+            hIndices[3] = 16;
+            update(measurement.getPseudoRate() - rangeRate - prevClockDrift,
+                    rangeRateSD2, ud);
+        }
+
+        if (ud) {
+            compose();
+        }
+
+        // mDx now contains the correction of propagated state and mP the
+        // updated covariance
+
+        Matrix updatedCovariance = result.getCovariance();
+        if (updatedCovariance == null) {
+            updatedCovariance = createMatrix(N, N);
+        }
+        final double[] covarianceBuffer = updatedCovariance.getBuffer();
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) {
+                covarianceBuffer[row + col * N] = mP[row * N + col];
+            }
+        }
+
+
+        // CLOSED-LOOP CORRECTION
+
+        // Correct attitude, velocity, and position using (14.7-9)
+        final double[] dx = mDx;
+        Matrix estCbeNew = result.getBodyToEcefCoordinateTransformationMatrix();
+        if (estCbeNew == null) {
+            estCbeNew = createMatrix(CoordinateTransformation.ROWS, CoordinateTransformation.COLS);
+        }
+        final double[] cbeNewBuffer = estCbeNew.getBuffer();
+        for (int col = 0; col < CoordinateTransformation.COLS; col++) {
+            final double c0 = cbe[col];
+            final double c1 = cbe[CoordinateTransformation.COLS + col];
+            final double c2 = cbe[2 * CoordinateTransformation.COLS + col];
+
+            // (I - skew(dx[0..2])) * Cbe
+            final int offset = col * CoordinateTransformation.ROWS;
+            cbeNewBuffer[offset] = c0 + dx[2] * c1 - dx[1] * c2;
+            cbeNewBuffer[offset + 1] = -dx[2] * c0 + c1 + dx[0] * c2;
+            cbeNewBuffer[offset + 2] = dx[1] * c0 - dx[0] * c1 + c2;
+        }
+
+        // Read remaining previous values before result is modified, in case
+        // both states are the same instance
+        final double prevAccelBiasX = previousState.getAccelerationBiasX();
+        final double prevAccelBiasY = previousState.getAccelerationBiasY();
+        final double prevAccelBiasZ = previousState.getAccelerationBiasZ();
+        final double prevGyroBiasX = previousState.getGyroBiasX();
+        final double prevGyroBiasY = previousState.getGyroBiasY();
+        final double prevGyroBiasZ = previousState.getGyroBiasZ();
+
+        result.setBodyToEcefCoordinateTransformationMatrix(estCbeNew);
+        result.setVelocityCoordinates(prevVx - dx[3], prevVy - dx[4], prevVz - dx[5]);
+        result.setPositionCoordinates(prevX - dx[6], prevY - dx[7], prevZ - dx[8]);
+        result.setCovariance(updatedCovariance);
+
+        // Update IMU bias and GNSS receiver clock estimates
+        result.setAccelerationBiasCoordinates(
+                prevAccelBiasX + dx[9],
+                prevAccelBiasY + dx[10],
+                prevAccelBiasZ + dx[11]);
+        result.setGyroBiasCoordinates(
+                prevGyroBiasX + dx[12],
+                prevGyroBiasY + dx[13],
+                prevGyroBiasZ + dx[14]);
+
+        result.setReceiverClockOffset(propagatedClockOffset + dx[15]);
+        result.setReceiverClockDrift(prevClockDrift + dx[16]);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final Time propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final double previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, convertTime(propagationInterval), previousState,
+                fx, fy, fz, previousLatitude, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param previousLatitude    previous latitude solution.
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final double propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final Angle previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, propagationInterval, previousState,
+                fx, fy, fz, convertAngle(previousLatitude), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param previousLatitude    previous latitude solution.
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final Time propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final Angle previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, convertTime(propagationInterval), previousState,
+                fx, fy, fz, convertAngle(previousLatitude), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final double propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        ECEFtoNEDPositionVelocityConverter.convertECEFtoNED(
+                previousState.getX(), previousState.getY(), previousState.getZ(),
+                previousState.getVx(), previousState.getVy(), previousState.getVz(),
+                mPreviousNedPosition, mPreviousNedVelocity);
+
+        estimate(measurements, propagationInterval, previousState,
+                fx, fy, fz, mPreviousNedPosition.getLatitude(), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param fx                  measured specific force resolved along body frame
+     *                            x-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fy                  measured specific force resolved along body frame
+     *                            y-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param fz                  measured specific force resolved along body frame
+     *                            z-axis and expressed in meters per squared
+     *                            second (m/s^2).
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final Time propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final double fx, final double fy, final double fz,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, convertTime(propagationInterval), previousState,
+                fx, fy, fz, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final double propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final double previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, propagationInterval, previousState,
+                bodyKinematics.getFx(), bodyKinematics.getFy(), bodyKinematics.getFz(),
+                previousLatitude, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param previousLatitude    previous latitude solution expressed in radians (rad).
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final Time propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final double previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, convertTime(propagationInterval), previousState,
+                bodyKinematics, previousLatitude, config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param previousLatitude    previous latitude solution.
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final double propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final Angle previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, propagationInterval, previousState,
+                bodyKinematics, convertAngle(previousLatitude), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param previousLatitude    previous latitude solution.
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final Time propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final Angle previousLatitude,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, convertTime(propagationInterval), previousState,
+                bodyKinematics, convertAngle(previousLatitude), config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval expressed in seconds (s).
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final double propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, propagationInterval, previousState,
+                bodyKinematics.getFx(), bodyKinematics.getFy(), bodyKinematics.getFz(),
+                config, result);
+    }
+
+    /**
+     * Estimates the update of Kalman filter state and covariance matrix for a single
+     * epoch.
+     * Previous latitude is obtained from the position of previous state.
+     *
+     * @param measurements        satellite measurements data.
+     * @param propagationInterval propagation interval.
+     * @param previousState       previous Kalman filter state.
+     * @param bodyKinematics      body kinematics containing measured specific force
+     *                            resolved along body frame axes.
+     * @param config              Tightly Coupled Kalman filter configuration.
+     * @param result              instance where new state of Kalman filter will be
+     *                            stored.
+     * @throws AlgebraException if there are numerical instabilities.
+     */
+    public void estimate(
+            final Collection<GNSSMeasurement> measurements,
+            final Time propagationInterval,
+            final INSTightlyCoupledKalmanState previousState,
+            final BodyKinematics bodyKinematics,
+            final INSTightlyCoupledKalmanConfig config,
+            final INSTightlyCoupledKalmanState result) throws AlgebraException {
+        estimate(measurements, convertTime(propagationInterval), previousState,
+                bodyKinematics, config, result);
+    }
+
+    /**
+     * Propagates covariance as Phi * (P + Q/2) * Phi' + Q/2, taking into
+     * account that Q is diagonal and skipping zero elements of Phi.
+     * Only the upper triangle is computed and mirrored, since the result is
+     * symmetric.
+     *
+     * @param previousCovariance column-major buffer of previous covariance.
+     */
+    private void propagateCovariance(final double[] previousCovariance) {
+        final double[] phi = mPhi;
+        final double[] a = mA;
+        final double[] b = mB;
+        final double[] p = mP;
+        final double[] q = mQ;
+
+        for (int row = 0; row < N; row++) {
+            for (int col = 0; col < N; col++) {
+                a[row * N + col] = previousCovariance[row + col * N];
+            }
+            a[row * N + row] += q[row];
+        }
+
+        // B = Phi * A
+        Arrays.fill(b, 0.0);
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            for (int k = 0; k < N; k++) {
+                final double value = phi[rowOffset + k];
+                if (value == 0.0) {
+                    continue;
+                }
+                final int kOffset = k * N;
+                for (int col = 0; col < N; col++) {
+                    b[rowOffset + col] += value * a[kOffset + col];
+                }
+            }
+        }
+
+        // P = B * Phi' + Q/2
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            for (int col = row; col < N; col++) {
+                final int colOffset = col * N;
+                double value = 0.0;
+                for (int k = 0; k < N; k++) {
+                    final double phiValue = phi[colOffset + k];
+                    if (phiValue != 0.0) {
+                        value += b[rowOffset + k] * phiValue;
+                    }
+                }
+                p[rowOffset + col] = value;
+                p[colOffset + row] = value;
+            }
+            p[rowOffset + row] += q[row];
+        }
+    }
+
+    /**
+     * Processes a single scalar measurement whose measurement matrix row is
+     * defined by mHIndices and mHValues.
+     *
+     * @param innovation measurement innovation respect to propagated state.
+     * @param variance   measurement noise variance.
+     * @param ud         true to update U-D factors, false to update covariance
+     *                   using Joseph form.
+     * @throws SingularMatrixException if innovation variance is not positive.
+     */
+    private void update(final double innovation, final double variance,
+                        final boolean ud) throws SingularMatrixException {
+        final int[] hIndices = mHIndices;
+        final double[] hValues = mHValues;
+        final double[] dx = mDx;
+
+        // innovation respect to current state, since previously processed
+        // measurements already corrected propagated state
+        double residual = innovation;
+        for (int k = 0; k < H_NON_ZEROS; k++) {
+            residual -= hValues[k] * dx[hIndices[k]];
+        }
+
+        if (ud) {
+            updateUD(residual, variance);
+        } else {
+            updateJoseph(residual, variance);
+        }
+    }
+
+    /**
+     * Processes a single scalar measurement using Joseph form, which for a
+     * scalar measurement becomes P = P - k*u' - u*k' + s*k*k', where u = P*h',
+     * s = h*P*h' + r and k = u / s.
+     *
+     * @param residual measurement residual respect to current state.
+     * @param variance measurement noise variance.
+     * @throws SingularMatrixException if innovation variance is not positive.
+     */
+    private void updateJoseph(final double residual, final double variance)
+            throws SingularMatrixException {
+        final int[] hIndices = mHIndices;
+        final double[] hValues = mHValues;
+        final double[] p = mP;
+        final double[] u = mPh;
+        final double[] k = mK;
+        final double[] dx = mDx;
+
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            double value = 0.0;
+            for (int i = 0; i < H_NON_ZEROS; i++) {
+                value += p[rowOffset + hIndices[i]] * hValues[i];
+            }
+            u[row] = value;
+        }
+
+        double s = variance;
+        for (int i = 0; i < H_NON_ZEROS; i++) {
+            s += hValues[i] * u[hIndices[i]];
+        }
+        if (!(s > 0.0)) {
+            throw new SingularMatrixException();
+        }
+
+        for (int row = 0; row < N; row++) {
+            k[row] = u[row] / s;
+            dx[row] += k[row] * residual;
+        }
+
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            final double kRow = k[row];
+            final double uRow = u[row];
+            for (int col = row; col < N; col++) {
+                final double value = p[rowOffset + col] - kRow * u[col] - uRow * k[col]
+                        + s * kRow * k[col];
+                p[rowOffset + col] = value;
+                p[col * N + row] = value;
+            }
+        }
+    }
+
+    /**
+     * Processes a single scalar measurement updating U-D factors of
+     * covariance using Bierman's algorithm.
+     *
+     * @param residual measurement residual respect to current state.
+     * @param variance measurement noise variance.
+     * @throws SingularMatrixException if innovation variance is not positive.
+     */
+    private void updateUD(final double residual, final double variance)
+            throws SingularMatrixException {
+        final int[] hIndices = mHIndices;
+        final double[] hValues = mHValues;
+        final double[] u = mU;
+        final double[] d = mD;
+        final double[] f = mK;
+        final double[] v = mV;
+        final double[] b = mPh;
+        final double[] dx = mDx;
+
+        // f = U' * h', v = D * f
+        for (int j = 0; j < N; j++) {
+            double value = 0.0;
+            for (int i = 0; i < H_NON_ZEROS; i++) {
+                final int index = hIndices[i];
+                if (index <= j) {
+                    value += u[index * N + j] * hValues[i];
+                }
+            }
+            f[j] = value;
+            v[j] = d[j] * value;
+        }
+
+        double alpha = variance;
+        for (int j = 0; j < N; j++) {
+            final double beta = alpha;
+            alpha += f[j] * v[j];
+            if (!(alpha > 0.0)) {
+                throw new SingularMatrixException();
+            }
+            d[j] *= beta / alpha;
+
+            if (j > 0) {
+                final double lambda = -f[j] / beta;
+                for (int i = 0; i < j; i++) {
+                    final int pos = i * N + j;
+                    final double uij = u[pos];
+                    u[pos] = uij + b[i] * lambda;
+                    b[i] += v[j] * uij;
+                }
+            }
+            b[j] = v[j];
+        }
+
+        // alpha now contains innovation variance and b the unnormalized gain
+        final double factor = residual / alpha;
+        for (int i = 0; i < N; i++) {
+            dx[i] += b[i] * factor;
+        }
+    }
+
+    /**
+     * Factorizes propagated covariance as P = U*D*U', where U is unit upper
+     * triangular and D is diagonal.
+     *
+     * @throws NonSymmetricPositiveDefiniteMatrixException if covariance is not
+     *                                                     positive semi-definite.
+     */
+    private void factorize() throws NonSymmetricPositiveDefiniteMatrixException {
+        final double[] p = mP;
+        final double[] u = mU;
+        final double[] d = mD;
+
+        Arrays.fill(u, 0.0);
+        for (int j = N - 1; j >= 0; j--) {
+            final int jOffset = j * N;
+            double dj = p[jOffset + j];
+            for (int k = j + 1; k < N; k++) {
+                final double ujk = u[jOffset + k];
+                dj -= d[k] * ujk * ujk;
+            }
+            if (dj < 0.0) {
+                throw new NonSymmetricPositiveDefiniteMatrixException();
+            }
+            d[j] = dj;
+            u[jOffset + j] = 1.0;
+
+            if (dj == 0.0) {
+                // column of U is irrelevant for a zero variance
+                continue;
+            }
+            for (int i = j - 1; i >= 0; i--) {
+                final int iOffset = i * N;
+                double value = p[iOffset + j];
+                for (int k = j + 1; k < N; k++) {
+                    value -= d[k] * u[iOffset + k] * u[jOffset + k];
+                }
+                u[iOffset + j] = value / dj;
+            }
+        }
+    }
+
+    /**
+     * Composes covariance from its U-D factors as P = U*D*U'.
+     */
+    private void compose() {
+        final double[] p = mP;
+        final double[] u = mU;
+        final double[] d = mD;
+
+        for (int row = 0; row < N; row++) {
+            final int rowOffset = row * N;
+            for (int col = row; col < N; col++) {
+                final int colOffset = col * N;
+                double value = 0.0;
+                for (int k = col; k < N; k++) {
+                    value += u[rowOffset + k] * d[k] * u[colOffset + k];
+                }
+                p[rowOffset + col] = value;
+                p[colOffset + row] = value;
+            }
+        }
+    }
+
+    /**
+     * Creates a matrix having provided size.
+     *
+     * @param rows    number of rows.
+     * @param columns number of columns.
+     * @return a new matrix.
+     */
+    private static Matrix createMatrix(final int rows, final int columns) {
+        try {
+            return new Matrix(rows, columns);
+        } catch (final WrongSizeException ignore) {
+            // never happens
+            return null;
+        }
+    }
+
+    /**
+     * Converts time instance into a value expressed in seconds.
+     *
+     * @param time time instance to be converted.
+     * @return time value expressed in seconds.
+     */
+    private static double convertTime(final Time time) {
+        return TimeConverter.convert(time.getValue().doubleValue(),
+                time.getUnit(), TimeUnit.SECOND);
+    }
+
+    /**
+     * Converts angle instance into a value expressed in radians.
+     *
+     * @param angle angle instance to be converted.
+     * @return angle value expressed in radians.
+     */
+    private static double convertAngle(final Angle angle) {
+        return AngleConverter.convert(angle.getValue().doubleValue(),
+                angle.getUnit(), AngleUnit.RADIANS);
+    }
+}
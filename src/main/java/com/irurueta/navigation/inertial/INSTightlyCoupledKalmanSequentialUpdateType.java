@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial;
+
+/**
+ * Indicates the covariance form used when measurements of a tightly coupled
+ * INS/GNSS Kalman filter are processed one at a time.
+ */
+public enum INSTightlyCoupledKalmanSequentialUpdateType {
+    /**
+     * Each scalar measurement updates the full covariance matrix using the
+     * Joseph form P = (I - k*h)*P*(I - k*h)' + k*r*k', which preserves
+     * symmetry and positive definiteness better than the conventional form.
+     */
+    JOSEPH,
+
+    /**
+     * Covariance matrix is factorized as P = U*D*U', where U is unit upper
+     * triangular and D is diagonal, and each scalar measurement updates the
+     * factors using Bierman's algorithm.
+     */
+    UD
+}
@@ -0,0 +1,712 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.inertial.calibration.accelerometer.RobustKnownGravityNormAccelerometerCalibrator;
+import com.irurueta.navigation.inertial.calibration.generators.AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator;
+import com.irurueta.navigation.inertial.calibration.generators.AccelerometerGyroscopeAndMagnetometerMeasurementsGeneratorListener;
+import com.irurueta.navigation.inertial.calibration.gyroscope.RobustEasyGyroscopeCalibrator;
+import com.irurueta.navigation.inertial.calibration.intervals.TriadStaticIntervalDetector;
+import com.irurueta.navigation.inertial.calibration.magnetometer.RobustKnownPositionAndInstantMagnetometerCalibrator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Calibrates an accelerometer, a gyroscope and a magnetometer from samples
+ * processed by an {@link AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator}.
+ * Each calibrator is started on provided executor as soon as the generator has
+ * produced the required number of measurements for it, so that the three
+ * calibrations run concurrently while samples keep being processed.
+ * Because easy gyroscope calibrators need a known accelerometer bias and
+ * cross-coupling matrix, the gyroscope calibration is started once both enough
+ * gyroscope sequences have been generated and the accelerometer calibration
+ * has completed, and then takes the accelerometer result from its future.
+ * This way gyroscope calibration never blocks a thread of the executor waiting
+ * for the accelerometer, regardless of the number of threads of the executor.
+ * <p>
+ * Provided calibrators must be fully configured (e.g. ground truth gravity
+ * norm, position and year) before samples are processed. Measurements are
+ * set by this pipeline. Quality scores are also set from the standard
+ * deviations of generated measurements, which only has effect on calibrators
+ * using them (PROSAC and PROMedS).
+ * <p>
+ * By default each calibration waits for {@link #DEFAULT_REDUNDANCY_FACTOR} times
+ * the minimum number of measurements required by its calibrator, so that robust
+ * estimators have redundant measurements to detect outliers. Minimum values are
+ * read from calibrators each time they are needed, hence changes in calibrator
+ * configuration (e.g. using a common z-axis) are taken into account until the
+ * corresponding calibration starts.
+ * <p>
+ * This class is not thread safe: samples must be processed from a single
+ * thread.
+ */
+public class AccelerometerGyroscopeAndMagnetometerCalibrationPipeline {
+
+    /**
+     * Default factor applied to the minimum number of measurements required by
+     * each calibrator to obtain the number of measurements required to start its
+     * calibration when no value is explicitly set.
+     */
+    public static final int DEFAULT_REDUNDANCY_FACTOR = 3;
+
+    /**
+     * Executor where calibrations are run.
+     */
+    private final Executor mExecutor;
+
+    /**
+     * Robust accelerometer calibrator.
+     */
+    private final RobustKnownGravityNormAccelerometerCalibrator mAccelerometerCalibrator;
+
+    /**
+     * Robust gyroscope calibrator.
+     */
+    private final RobustEasyGyroscopeCalibrator mGyroscopeCalibrator;
+
+    /**
+     * Robust magnetometer calibrator.
+     */
+    private final RobustKnownPositionAndInstantMagnetometerCalibrator mMagnetometerCalibrator;
+
+    /**
+     * Generated measurements for accelerometer calibration.
+     */
+    private final List<StandardDeviationBodyKinematics> mAccelerometerMeasurements =
+            new ArrayList<>();
+
+    /**
+     * Generated sequences for gyroscope calibration.
+     */
+    private final List<BodyKinematicsSequence<StandardDeviationTimedBodyKinematics>> mGyroscopeSequences =
+            new ArrayList<>();
+
+    /**
+     * Generated measurements for magnetometer calibration.
+     */
+    private final List<StandardDeviationBodyMagneticFluxDensity> mMagnetometerMeasurements =
+            new ArrayList<>();
+
+    /**
+     * Number of accelerometer measurements required to start accelerometer
+     * calibration, or zero to use the default redundancy respect to the minimum
+     * required by the accelerometer calibrator.
+     */
+    private int mRequiredAccelerometerMeasurements;
+
+    /**
+     * Number of gyroscope sequences required to start gyroscope calibration, or
+     * zero to use the default redundancy respect to the minimum required by the
+     * gyroscope calibrator.
+     */
+    private int mRequiredGyroscopeSequences;
+
+    /**
+     * Number of magnetometer measurements required to start magnetometer
+     * calibration, or zero to use the default redundancy respect to the minimum
+     * required by the magnetometer calibrator.
+     */
+    private int mRequiredMagnetometerMeasurements;
+
+    /**
+     * Future containing accelerometer calibration result.
+     */
+    private final FutureTask<RobustKnownGravityNormAccelerometerCalibrator> mAccelerometerFuture;
+
+    /**
+     * Future containing gyroscope calibration result.
+     */
+    private final FutureTask<RobustEasyGyroscopeCalibrator> mGyroscopeFuture;
+
+    /**
+     * Future containing magnetometer calibration result.
+     */
+    private final FutureTask<RobustKnownPositionAndInstantMagnetometerCalibrator> mMagnetometerFuture;
+
+    /**
+     * Indicates whether accelerometer calibration has been started.
+     */
+    private boolean mAccelerometerStarted;
+
+    /**
+     * Indicates whether gyroscope sequences have been handed to the gyroscope
+     * calibration, which starts once accelerometer calibration completes.
+     */
+    private boolean mGyroscopeSequencesCompleted;
+
+    /**
+     * Indicates whether gyroscope calibration has been submitted to the executor.
+     */
+    private boolean mGyroscopeStarted;
+
+    /**
+     * Indicates whether magnetometer calibration has been started.
+     */
+    private boolean mMagnetometerStarted;
+
+    /**
+     * Listener for internal measurements generator.
+     */
+    private final AccelerometerGyroscopeAndMagnetometerMeasurementsGeneratorListener mGeneratorListener =
+            new AccelerometerGyroscopeAndMagnetometerMeasurementsGeneratorListener() {
+                @Override
+                public void onInitializationStarted(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator) {
+                    // no action required
+                }
+
+                @Override
+                public void onInitializationCompleted(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator,
+                        final double accelerometerBaseNoiseLevel) {
+                    // no action required
+                }
+
+                @Override
+                public void onError(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator,
+                        final TriadStaticIntervalDetector.ErrorReason reason) {
+                    // no action required
+                }
+
+                @Override
+                public void onStaticIntervalDetected(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator) {
+                    // no action required
+                }
+
+                @Override
+                public void onDynamicIntervalDetected(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator) {
+                    // no action required
+                }
+
+                @Override
+                public void onStaticIntervalSkipped(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator) {
+                    // no action required
+                }
+
+                @Override
+                public void onDynamicIntervalSkipped(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator) {
+                    // no action required
+                }
+
+                @Override
+                public void onGeneratedAccelerometerMeasurement(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator,
+                        final StandardDeviationBodyKinematics measurement) {
+                    if (!mAccelerometerStarted) {
+                        mAccelerometerMeasurements.add(measurement);
+                        if (mAccelerometerMeasurements.size() >= Math.max(
+                                getRequiredAccelerometerMeasurements(),
+                                mAccelerometerCalibrator.getMinimumRequiredMeasurements())) {
+                            startAccelerometerCalibration();
+                        }
+                    }
+                }
+
+                @Override
+                public void onGeneratedGyroscopeMeasurement(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator,
+                        final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> measurement) {
+                    if (!mGyroscopeSequencesCompleted) {
+                        mGyroscopeSequences.add(measurement);
+                        if (mGyroscopeSequences.size() >= Math.max(
+                                getRequiredGyroscopeSequences(),
+                                mGyroscopeCalibrator.getMinimumRequiredSequences())) {
+                            completeGyroscopeSequences();
+                        }
+                    }
+                }
+
+                @Override
+                public void onGeneratedMagnetometerMeasurement(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator,
+                        final StandardDeviationBodyMagneticFluxDensity measurement) {
+                    if (!mMagnetometerStarted) {
+                        mMagnetometerMeasurements.add(measurement);
+                        if (mMagnetometerMeasurements.size() >= Math.max(
+                                getRequiredMagnetometerMeasurements(),
+                                mMagnetometerCalibrator.getMinimumRequiredMeasurements())) {
+                            startMagnetometerCalibration();
+                        }
+                    }
+                }
+
+                @Override
+                public void onReset(
+                        final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator generator) {
+                    // no action required
+                }
+            };
+
+    /**
+     * Internal measurements generator.
+     */
+    private final AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator mGenerator =
+            new AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator(mGeneratorListener);
+
+    /**
+     * Constructor.
+     * By default each calibration starts once {@link #DEFAULT_REDUNDANCY_FACTOR}
+     * times the minimum number of measurements required by its calibrator have
+     * been generated.
+     *
+     * @param executor                executor where calibrations are run.
+     * @param accelerometerCalibrator robust accelerometer calibrator.
+     * @param gyroscopeCalibrator     robust gyroscope calibrator.
+     * @param magnetometerCalibrator  robust magnetometer calibrator.
+     * @throws IllegalArgumentException if any of provided parameters is null.
+     */
+    public AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+            final Executor executor,
+            final RobustKnownGravityNormAccelerometerCalibrator accelerometerCalibrator,
+            final RobustEasyGyroscopeCalibrator gyroscopeCalibrator,
+            final RobustKnownPositionAndInstantMagnetometerCalibrator magnetometerCalibrator) {
+        if (executor == null || accelerometerCalibrator == null
+                || gyroscopeCalibrator == null || magnetometerCalibrator == null) {
+            throw new IllegalArgumentException();
+        }
+
+        mExecutor = executor;
+        mAccelerometerCalibrator = accelerometerCalibrator;
+        mGyroscopeCalibrator = gyroscopeCalibrator;
+        mMagnetometerCalibrator = magnetometerCalibrator;
+
+        mAccelerometerFuture = new FutureTask<RobustKnownGravityNormAccelerometerCalibrator>(
+                new Callable<RobustKnownGravityNormAccelerometerCalibrator>() {
+                    @Override
+                    public RobustKnownGravityNormAccelerometerCalibrator call()
+                            throws Exception {
+                        return calibrateAccelerometer();
+                    }
+                }) {
+            @Override
+            protected void done() {
+                // accelerometer result (or failure) is now available for the
+                // gyroscope calibration
+                startGyroscopeCalibrationIfReady();
+            }
+        };
+
+        mGyroscopeFuture = new FutureTask<>(
+                new Callable<RobustEasyGyroscopeCalibrator>() {
+                    @Override
+                    public RobustEasyGyroscopeCalibrator call() throws Exception {
+                        return calibrateGyroscope();
+                    }
+                });
+
+        mMagnetometerFuture = new FutureTask<>(
+                new Callable<RobustKnownPositionAndInstantMagnetometerCalibrator>() {
+                    @Override
+                    public RobustKnownPositionAndInstantMagnetometerCalibrator call()
+                            throws Exception {
+                        return calibrateMagnetometer();
+                    }
+                });
+    }
+
+    /**
+     * Gets internal measurements generator so that its parameters can be
+     * configured.
+     * Listener of returned generator must not be replaced, otherwise generated
+     * measurements will not reach this pipeline.
+     *
+     * @return internal measurements generator.
+     */
+    public AccelerometerGyroscopeAndMagnetometerMeasurementsGenerator getGenerator() {
+        return mGenerator;
+    }
+
+    /**
+     * Gets robust accelerometer calibrator.
+     *
+     * @return robust accelerometer calibrator.
+     */
+    public RobustKnownGravityNormAccelerometerCalibrator getAccelerometerCalibrator() {
+        return mAccelerometerCalibrator;
+    }
+
+    /**
+     * Gets robust gyroscope calibrator.
+     *
+     * @return robust gyroscope calibrator.
+     */
+    public RobustEasyGyroscopeCalibrator getGyroscopeCalibrator() {
+        return mGyroscopeCalibrator;
+    }
+
+    /**
+     * Gets robust magnetometer calibrator.
+     *
+     * @return robust magnetometer calibrator.
+     */
+    public RobustKnownPositionAndInstantMagnetometerCalibrator getMagnetometerCalibrator() {
+        return mMagnetometerCalibrator;
+    }
+
+    /**
+     * Gets number of accelerometer measurements required to start accelerometer
+     * calibration.
+     * If no value has been set, {@link #DEFAULT_REDUNDANCY_FACTOR} times the
+     * current minimum required by the accelerometer calibrator is returned.
+     * In any case, accelerometer calibration never starts with less measurements
+     * than the minimum required by the calibrator when it starts.
+     *
+     * @return number of required accelerometer measurements.
+     */
+    public int getRequiredAccelerometerMeasurements() {
+        return mRequiredAccelerometerMeasurements > 0
+                ? mRequiredAccelerometerMeasurements
+                : DEFAULT_REDUNDANCY_FACTOR
+                * mAccelerometerCalibrator.getMinimumRequiredMeasurements();
+    }
+
+    /**
+     * Sets number of accelerometer measurements required to start accelerometer
+     * calibration.
+     *
+     * @param requiredAccelerometerMeasurements number of required accelerometer
+     *                                          measurements.
+     * @throws LockedException          if accelerometer calibration has already
+     *                                  started.
+     * @throws IllegalArgumentException if provided value is less than the minimum
+     *                                  required by the accelerometer calibrator.
+     */
+    public void setRequiredAccelerometerMeasurements(
+            final int requiredAccelerometerMeasurements) throws LockedException {
+        if (mAccelerometerStarted) {
+            throw new LockedException();
+        }
+        if (requiredAccelerometerMeasurements
+                < mAccelerometerCalibrator.getMinimumRequiredMeasurements()) {
+            throw new IllegalArgumentException();
+        }
+
+        mRequiredAccelerometerMeasurements = requiredAccelerometerMeasurements;
+    }
+
+    /**
+     * Gets number of gyroscope sequences required to start gyroscope calibration.
+     * If no value has been set, {@link #DEFAULT_REDUNDANCY_FACTOR} times the
+     * current minimum required by the gyroscope calibrator is returned.
+     * In any case, gyroscope sequences are never completed with less sequences
+     * than the minimum required by the calibrator at that time.
+     *
+     * @return number of required gyroscope sequences.
+     */
+    public int getRequiredGyroscopeSequences() {
+        return mRequiredGyroscopeSequences > 0
+                ? mRequiredGyroscopeSequences
+                : DEFAULT_REDUNDANCY_FACTOR
+                * mGyroscopeCalibrator.getMinimumRequiredSequences();
+    }
+
+    /**
+     * Sets number of gyroscope sequences required to start gyroscope calibration.
+     *
+     * @param requiredGyroscopeSequences number of required gyroscope sequences.
+     * @throws LockedException          if gyroscope sequences have already been
+     *                                  completed.
+     * @throws IllegalArgumentException if provided value is less than the minimum
+     *                                  required by the gyroscope calibrator.
+     */
+    public void setRequiredGyroscopeSequences(final int requiredGyroscopeSequences)
+            throws LockedException {
+        if (mGyroscopeSequencesCompleted) {
+            throw new LockedException();
+        }
+        if (requiredGyroscopeSequences
+                < mGyroscopeCalibrator.getMinimumRequiredSequences()) {
+            throw new IllegalArgumentException();
+        }
+
+        mRequiredGyroscopeSequences = requiredGyroscopeSequences;
+    }
+
+    /**
+     * Gets number of magnetometer measurements required to start magnetometer
+     * calibration.
+     * If no value has been set, {@link #DEFAULT_REDUNDANCY_FACTOR} times the
+     * current minimum required by the magnetometer calibrator is returned.
+     * In any case, magnetometer calibration never starts with less measurements
+     * than the minimum required by the calibrator when it starts.
+     *
+     * @return number of required magnetometer measurements.
+     */
+    public int getRequiredMagnetometerMeasurements() {
+        return mRequiredMagnetometerMeasurements > 0
+                ? mRequiredMagnetometerMeasurements
+                : DEFAULT_REDUNDANCY_FACTOR
+                * mMagnetometerCalibrator.getMinimumRequiredMeasurements();
+    }
+
+    /**
+     * Sets number of magnetometer measurements required to start magnetometer
+     * calibration.
+     *
+     * @param requiredMagnetometerMeasurements number of required magnetometer
+     *                                         measurements.
+     * @throws LockedException          if magnetometer calibration has already
+     *                                  started.
+     * @throws IllegalArgumentException if provided value is less than the minimum
+     *                                  required by the magnetometer calibrator.
+     */
+    public void setRequiredMagnetometerMeasurements(
+            final int requiredMagnetometerMeasurements) throws LockedException {
+        if (mMagnetometerStarted) {
+            throw new LockedException();
+        }
+        if (requiredMagnetometerMeasurements
+                < mMagnetometerCalibrator.getMinimumRequiredMeasurements()) {
+            throw new IllegalArgumentException();
+        }
+
+        mRequiredMagnetometerMeasurements = requiredMagnetometerMeasurements;
+    }
+
+    /**
+     * Gets number of accelerometer measurements generated so far and not yet
+     * handed to the accelerometer calibrator.
+     *
+     * @return number of accelerometer measurements.
+     */
+    public int getAccelerometerMeasurementsCount() {
+        return mAccelerometerMeasurements.size();
+    }
+
+    /**
+     * Gets number of gyroscope sequences generated so far and not yet handed to
+     * the gyroscope calibrator.
+     *
+     * @return number of gyroscope sequences.
+     */
+    public int getGyroscopeSequencesCount() {
+        return mGyroscopeSequences.size();
+    }
+
+    /**
+     * Gets number of magnetometer measurements generated so far and not yet
+     * handed to the magnetometer calibrator.
+     *
+     * @return number of magnetometer measurements.
+     */
+    public int getMagnetometerMeasurementsCount() {
+        return mMagnetometerMeasurements.size();
+    }
+
+    /**
+     * Gets future containing accelerometer calibration result.
+     * Returned future completes with the calibrated accelerometer calibrator,
+     * or fails with the exception raised during calibration.
+     *
+     * @return future containing accelerometer calibration result.
+     */
+    public Future<RobustKnownGravityNormAccelerometerCalibrator> getAccelerometerFuture() {
+        return mAccelerometerFuture;
+    }
+
+    /**
+     * Gets future containing gyroscope calibration result.
+     * Returned future completes with the calibrated gyroscope calibrator,
+     * or fails if either gyroscope or accelerometer calibration fails.
+     *
+     * @return future containing gyroscope calibration result.
+     */
+    public Future<RobustEasyGyroscopeCalibrator> getGyroscopeFuture() {
+        return mGyroscopeFuture;
+    }
+
+    /**
+     * Gets future containing magnetometer calibration result.
+     * Returned future completes with the calibrated magnetometer calibrator,
+     * or fails with the exception raised during calibration.
+     *
+     * @return future containing magnetometer calibration result.
+     */
+    public Future<RobustKnownPositionAndInstantMagnetometerCalibrator> getMagnetometerFuture() {
+        return mMagnetometerFuture;
+    }
+
+    /**
+     * Processes a sample of accelerometer, gyroscope and magnetometer
+     * measurements. Calibrations having enough generated measurements are
+     * started on the executor.
+     *
+     * @param sample sample to be processed.
+     * @return true if sample was processed, false if it couldn't be processed
+     * (e.g. because an error occurred during initialization).
+     * @throws LockedException if internal generator is busy.
+     */
+    public boolean process(final TimedBodyKinematicsAndMagneticFluxDensity sample)
+            throws LockedException {
+        return mGenerator.process(sample);
+    }
+
+    /**
+     * Indicates that no more samples will be processed, so that calibrations
+     * that have not started yet are started with the measurements generated so
+     * far.
+     * Calibrations without enough measurements will fail through their futures.
+     */
+    public void finish() {
+        if (!mAccelerometerStarted) {
+            startAccelerometerCalibration();
+        }
+        if (!mGyroscopeSequencesCompleted) {
+            completeGyroscopeSequences();
+        }
+        if (!mMagnetometerStarted) {
+            startMagnetometerCalibration();
+        }
+    }
+
+    /**
+     * Hands generated accelerometer measurements to the accelerometer calibrator
+     * and starts its calibration on the executor.
+     */
+    private void startAccelerometerCalibration() {
+        mAccelerometerStarted = true;
+        mExecutor.execute(mAccelerometerFuture);
+    }
+
+    /**
+     * Marks gyroscope sequences as completed and starts gyroscope calibration if
+     * accelerometer calibration has already finished.
+     */
+    private void completeGyroscopeSequences() {
+        synchronized (this) {
+            mGyroscopeSequencesCompleted = true;
+        }
+        startGyroscopeCalibrationIfReady();
+    }
+
+    /**
+     * Hands generated magnetometer measurements to the magnetometer calibrator
+     * and starts its calibration on the executor.
+     */
+    private void startMagnetometerCalibration() {
+        mMagnetometerStarted = true;
+        mExecutor.execute(mMagnetometerFuture);
+    }
+
+    /**
+     * Submits gyroscope calibration to the executor once gyroscope sequences are
+     * completed and accelerometer calibration has finished.
+     * This is called both from the thread processing samples and from the
+     * thread completing the accelerometer calibration, and it ensures that
+     * gyroscope calibration is submitted only once.
+     */
+    private void startGyroscopeCalibrationIfReady() {
+        synchronized (this) {
+            if (mGyroscopeStarted || !mGyroscopeSequencesCompleted
+                    || !mAccelerometerFuture.isDone()) {
+                return;
+            }
+            mGyroscopeStarted = true;
+        }
+        mExecutor.execute(mGyroscopeFuture);
+    }
+
+    /**
+     * Calibrates accelerometer using generated measurements.
+     *
+     * @return calibrated accelerometer calibrator.
+     * @throws Exception if calibration fails.
+     */
+    private RobustKnownGravityNormAccelerometerCalibrator calibrateAccelerometer()
+            throws Exception {
+        final List<StandardDeviationBodyKinematics> measurements = mAccelerometerMeasurements;
+        final double[] qualityScores = new double[measurements.size()];
+        for (int i = 0; i < qualityScores.length; i++) {
+            qualityScores[i] = 1.0 / (1.0 + measurements.get(i)
+                    .getSpecificForceStandardDeviation());
+        }
+
+        mAccelerometerCalibrator.setMeasurements(measurements);
+        mAccelerometerCalibrator.setQualityScores(qualityScores);
+        mAccelerometerCalibrator.calibrate();
+        return mAccelerometerCalibrator;
+    }
+
+    /**
+     * Calibrates gyroscope using generated sequences and the estimated
+     * accelerometer bias and cross-coupling matrix.
+     *
+     * @return calibrated gyroscope calibrator.
+     * @throws Exception if gyroscope or accelerometer calibration fails.
+     */
+    private RobustEasyGyroscopeCalibrator calibrateGyroscope() throws Exception {
+        // accelerometer future is already done at this point, so this never blocks
+        final RobustKnownGravityNormAccelerometerCalibrator accelerometerCalibrator =
+                mAccelerometerFuture.get();
+
+        final List<BodyKinematicsSequence<StandardDeviationTimedBodyKinematics>> sequences =
+                mGyroscopeSequences;
+        final double[] qualityScores = new double[sequences.size()];
+        for (int i = 0; i < qualityScores.length; i++) {
+            final List<StandardDeviationTimedBodyKinematics> items =
+                    sequences.get(i).getSortedItems();
+            double avgStd = 0.0;
+            if (items != null && !items.isEmpty()) {
+                for (final StandardDeviationTimedBodyKinematics item : items) {
+                    avgStd += item.getAngularRateStandardDeviation() / items.size();
+                }
+            }
+            qualityScores[i] = 1.0 / (1.0 + avgStd);
+        }
+
+        mGyroscopeCalibrator.setAccelerometerBias(
+                accelerometerCalibrator.getEstimatedBiases());
+        mGyroscopeCalibrator.setAccelerometerMa(
+                accelerometerCalibrator.getEstimatedMa());
+        mGyroscopeCalibrator.setSequences(sequences);
+        mGyroscopeCalibrator.setQualityScores(qualityScores);
+        mGyroscopeCalibrator.calibrate();
+        return mGyroscopeCalibrator;
+    }
+
+    /**
+     * Calibrates magnetometer using generated measurements.
+     *
+     * @return calibrated magnetometer calibrator.
+     * @throws Exception if calibration fails.
+     */
+    private RobustKnownPositionAndInstantMagnetometerCalibrator calibrateMagnetometer()
+            throws Exception {
+        final List<StandardDeviationBodyMagneticFluxDensity> measurements =
+                mMagnetometerMeasurements;
+        final double[] qualityScores = new double[measurements.size()];
+        for (int i = 0; i < qualityScores.length; i++) {
+            qualityScores[i] = 1.0 / (1.0 + measurements.get(i)
+                    .getMagneticFluxDensityStandardDeviation());
+        }
+
+        mMagnetometerCalibrator.setMeasurements(measurements);
+        mMagnetometerCalibrator.setQualityScores(qualityScores);
+        mMagnetometerCalibrator.calibrate();
+        return mMagnetometerCalibrator;
+    }
+}
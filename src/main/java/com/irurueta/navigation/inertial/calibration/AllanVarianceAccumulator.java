@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+/**
+ * Accumulates Allan variances of a single stream of samples for octave-spaced
+ * cluster sizes (1, 2, 4, 8, ... samples) in a single pass and with bounded memory.
+ * Non-overlapping Allan variances are obtained by cascading averages of pairs of
+ * consecutive clusters, so that each level only keeps its last cluster average.
+ * Overlapping Allan variances, which have a lower variance of their own, are
+ * obtained for cluster sizes up to 2^maxOverlappingLevel samples by keeping a
+ * ring buffer of cumulative sums covering two clusters of the largest of those
+ * sizes.
+ * Raw samples are never kept.
+ */
+final class AllanVarianceAccumulator {
+
+    /**
+     * Maximum number of octave-spaced cluster levels.
+     * This is enough for more than 10^14 samples.
+     */
+    static final int MAX_LEVELS = 48;
+
+    /**
+     * Maximum level of clusters whose Allan variance is estimated using
+     * overlapping clusters.
+     */
+    private final int mMaxOverlappingLevel;
+
+    /**
+     * Ring buffer containing last cumulative sums of samples.
+     */
+    private final double[] mCumulativeSums;
+
+    /**
+     * Position of last cumulative sum within ring buffer.
+     */
+    private int mCursor;
+
+    /**
+     * Number of processed samples.
+     */
+    private long mNumSamples;
+
+    /**
+     * Value of first sample, which is subtracted from all samples to preserve
+     * accuracy of cumulative sums.
+     */
+    private double mOffset;
+
+    /**
+     * Average of last completed cluster at each level.
+     */
+    private final double[] mPreviousAvgs = new double[MAX_LEVELS];
+
+    /**
+     * Sum of squared differences between consecutive non-overlapping cluster
+     * averages at each level.
+     */
+    private final double[] mSqrDiffSums = new double[MAX_LEVELS];
+
+    /**
+     * Number of differences between consecutive non-overlapping cluster averages
+     * at each level.
+     */
+    private final long[] mCounts = new long[MAX_LEVELS];
+
+    /**
+     * Sum of squared differences between consecutive overlapping cluster sums at
+     * each level up to maximum overlapping level.
+     */
+    private final double[] mOverlappingSqrDiffSums;
+
+    /**
+     * Number of differences between consecutive overlapping cluster sums at each
+     * level up to maximum overlapping level.
+     */
+    private final long[] mOverlappingCounts;
+
+    /**
+     * Number of levels having at least one difference between clusters.
+     */
+    private int mNumLevels;
+
+    /**
+     * Constructor.
+     *
+     * @param maxOverlappingLevel maximum level of clusters whose Allan variance is
+     *                            estimated using overlapping clusters.
+     */
+    AllanVarianceAccumulator(final int maxOverlappingLevel) {
+        mMaxOverlappingLevel = maxOverlappingLevel;
+        mCumulativeSums = new double[2 * (1 << maxOverlappingLevel) + 1];
+        mOverlappingSqrDiffSums = new double[maxOverlappingLevel + 1];
+        mOverlappingCounts = new long[maxOverlappingLevel + 1];
+    }
+
+    /**
+     * Adds a sample.
+     *
+     * @param value value of sample to be added.
+     */
+    void add(final double value) {
+        if (mNumSamples == 0) {
+            mOffset = value;
+        }
+        final double y = value - mOffset;
+
+        // update cumulative sums
+        final int length = mCumulativeSums.length;
+        final double cumulativeSum = mCumulativeSums[mCursor] + y;
+        mCursor = mCursor + 1 < length ? mCursor + 1 : 0;
+        mCumulativeSums[mCursor] = cumulativeSum;
+        mNumSamples++;
+
+        // overlapping clusters
+        for (int l = 0; l <= mMaxOverlappingLevel; l++) {
+            final int m = 1 << l;
+            if (mNumSamples < 2 * m) {
+                break;
+            }
+
+            int pos1 = mCursor - m;
+            if (pos1 < 0) {
+                pos1 += length;
+            }
+            int pos2 = pos1 - m;
+            if (pos2 < 0) {
+                pos2 += length;
+            }
+
+            final double diff = cumulativeSum - 2.0 * mCumulativeSums[pos1] +
+                    mCumulativeSums[pos2];
+            mOverlappingSqrDiffSums[l] += diff * diff;
+            mOverlappingCounts[l]++;
+        }
+
+        // non-overlapping clusters, where each pair of consecutive clusters at a
+        // level becomes a cluster at next level. A cluster at level l is completed
+        // every 2^l samples, hence levels to be updated are determined by the
+        // number of trailing zeros of the number of samples
+        final int numLevels = Math.min(
+                Long.numberOfTrailingZeros(mNumSamples) + 1, MAX_LEVELS);
+        double avg = y;
+        for (int l = 0; l < numLevels; l++) {
+            // number of completed clusters at this level
+            final long k = mNumSamples >>> l;
+            final double previousAvg = mPreviousAvgs[l];
+            mPreviousAvgs[l] = avg;
+
+            if (k >= 2) {
+                final double diff = avg - previousAvg;
+                mSqrDiffSums[l] += diff * diff;
+                mCounts[l]++;
+                if (l >= mNumLevels) {
+                    mNumLevels = l + 1;
+                }
+            }
+
+            if ((k & 1L) == 0) {
+                // second cluster of a pair has been completed
+                avg = 0.5 * (previousAvg + avg);
+            }
+        }
+    }
+
+    /**
+     * Resets this accumulator to its initial state.
+     */
+    void reset() {
+        for (int i = 0; i < mCumulativeSums.length; i++) {
+            mCumulativeSums[i] = 0.0;
+        }
+        for (int l = 0; l <= mMaxOverlappingLevel; l++) {
+            mOverlappingSqrDiffSums[l] = 0.0;
+            mOverlappingCounts[l] = 0;
+        }
+        for (int l = 0; l < MAX_LEVELS; l++) {
+            mPreviousAvgs[l] = 0.0;
+            mSqrDiffSums[l] = 0.0;
+            mCounts[l] = 0;
+        }
+        mCursor = 0;
+        mNumSamples = 0;
+        mOffset = 0.0;
+        mNumLevels = 0;
+    }
+
+    /**
+     * Gets number of processed samples.
+     *
+     * @return number of processed samples.
+     */
+    long getNumSamples() {
+        return mNumSamples;
+    }
+
+    /**
+     * Gets number of levels having at least one difference between clusters.
+     *
+     * @return number of available levels.
+     */
+    int getNumLevels() {
+        return mNumLevels;
+    }
+
+    /**
+     * Gets number of differences between consecutive non-overlapping clusters at
+     * provided level, which determines the reliability of the Allan variance at
+     * that level.
+     *
+     * @param level level of clusters containing 2^level samples.
+     * @return number of differences between consecutive non-overlapping clusters.
+     */
+    long getNumIndependentDifferences(final int level) {
+        return mCounts[level];
+    }
+
+    /**
+     * Gets Allan variance for clusters at provided level.
+     *
+     * @param level level of clusters containing 2^level samples.
+     * @return Allan variance or 0.0 if not available.
+     */
+    double getAllanVariance(final int level) {
+        if (level <= mMaxOverlappingLevel && mOverlappingCounts[level] > 0) {
+            final double m = 1 << level;
+            return mOverlappingSqrDiffSums[level] /
+                    (2.0 * m * m * mOverlappingCounts[level]);
+        }
+        if (mCounts[level] > 0) {
+            return mSqrDiffSums[level] / (2.0 * mCounts[level]);
+        }
+        return 0.0;
+    }
+}
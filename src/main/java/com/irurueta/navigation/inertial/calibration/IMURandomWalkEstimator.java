@@ -1,10 +1,734 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
 package com.irurueta.navigation.inertial.calibration;
 
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+/**
+ * Estimates accelerometer and gyroscope random walks and bias instabilities by
+ * means of Allan variances of body kinematics samples.
+ * This estimator must be used when the body where the accelerometer and gyroscope
+ * are attached remains static during a long period of time (typically hours)
+ * while capturing data.
+ * Samples are processed in a single pass. Allan variances are accumulated for
+ * octave-spaced averaging times (1, 2, 4, 8, ... times the time interval between
+ * samples) without keeping raw samples, hence memory remains constant regardless
+ * of the number of processed samples.
+ * Overlapping Allan variances are used for averaging times up to
+ * 2^{@link #getMaxOverlappingClusterLevel()} samples, and non-overlapping ones are
+ * used for longer averaging times.
+ * From resulting Allan deviation curves the following noise parameters are
+ * extracted for each axis:
+ * - Velocity random walk (for accelerometer) or angle random walk (for gyroscope),
+ * corresponding to the -1/2 slope of the curve.
+ * - Bias instability, corresponding to the flat bottom of the curve.
+ * - Acceleration random walk (for accelerometer) or rate random walk (for
+ * gyroscope), corresponding to the +1/2 slope of the curve.
+ * Noise parameters are estimated as the minimum values obtained from upper
+ * confidence bounds of Allan deviations at each averaging time having enough
+ * clusters, so that poorly estimated long averaging times do not bias results
+ * towards zero. Hence, if a given noise term is not dominant at any averaging
+ * time, its estimation becomes an upper bound of its actual value.
+ * This estimator assumes that samples are obtained at a constant provided rate
+ * equal to {@link #getTimeInterval()} seconds. If not available, sampling rate
+ * average can be estimated using {@link TimeIntervalEstimator}.
+ */
 public class IMURandomWalkEstimator {
 
-    // TODO: to compute position and velocity accuracy, use ECEFInertialNavigator to accumulate all kinematics samples
-    //  and update current frame to determine changes in position and velocity when it should remain static
+    /**
+     * Default time interval between body kinematics samples expressed in seconds
+     * (s).
+     */
+    public static final double DEFAULT_TIME_INTERVAL_SECONDS = 0.02;
+
+    /**
+     * Default maximum level of clusters whose Allan variance is estimated using
+     * overlapping clusters (i.e. clusters up to 256 samples).
+     */
+    public static final int DEFAULT_MAX_OVERLAPPING_CLUSTER_LEVEL = 8;
+
+    /**
+     * Minimum allowed maximum level of clusters whose Allan variance is estimated
+     * using overlapping clusters.
+     */
+    public static final int MIN_OVERLAPPING_CLUSTER_LEVEL = 0;
+
+    /**
+     * Maximum allowed maximum level of clusters whose Allan variance is estimated
+     * using overlapping clusters.
+     */
+    public static final int MAX_OVERLAPPING_CLUSTER_LEVEL = 20;
+
+    /**
+     * Minimum number of differences between consecutive non-overlapping clusters
+     * required to use the Allan variance of an averaging time to estimate noise
+     * parameters.
+     */
+    public static final int MIN_CLUSTER_DIFFERENCES = 16;
+
+    /**
+     * Factor relating bias instability to the minimum of Allan deviation, which is
+     * equal to sqrt(2 * ln(2) / pi).
+     */
+    private static final double BIAS_INSTABILITY_FACTOR =
+            Math.sqrt(2.0 * Math.log(2.0) / Math.PI);
+
+    /**
+     * Number of standard deviations of Allan deviation estimations added to them
+     * to obtain their upper confidence bounds.
+     */
+    private static final double CONFIDENCE_FACTOR = 3.0;
+
+    /**
+     * Index of x coordinate of specific force.
+     */
+    private static final int FX = 0;
+
+    /**
+     * Index of y coordinate of specific force.
+     */
+    private static final int FY = 1;
+
+    /**
+     * Index of z coordinate of specific force.
+     */
+    private static final int FZ = 2;
+
+    /**
+     * Index of x coordinate of angular rate.
+     */
+    private static final int WX = 3;
+
+    /**
+     * Index of y coordinate of angular rate.
+     */
+    private static final int WY = 4;
+
+    /**
+     * Index of z coordinate of angular rate.
+     */
+    private static final int WZ = 5;
+
+    /**
+     * Time interval expressed in seconds (s) between consecutive body kinematics
+     * samples.
+     */
+    private double mTimeInterval = DEFAULT_TIME_INTERVAL_SECONDS;
+
+    /**
+     * Maximum level of clusters whose Allan variance is estimated using overlapping
+     * clusters.
+     */
+    private int mMaxOverlappingClusterLevel = DEFAULT_MAX_OVERLAPPING_CLUSTER_LEVEL;
+
+    /**
+     * Allan variance accumulators for each specific force and angular rate
+     * coordinate.
+     */
+    private AllanVarianceAccumulator[] mAccumulators;
+
+    /**
+     * Constructor.
+     */
+    public IMURandomWalkEstimator() {
+        createAccumulators();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param timeInterval time interval between body kinematics samples expressed
+     *                     in seconds (s).
+     * @throws IllegalArgumentException if provided time interval is not positive.
+     */
+    public IMURandomWalkEstimator(final double timeInterval) {
+        this();
+        setTimeInterval(timeInterval);
+    }
+
+    /**
+     * Gets time interval between body kinematics samples expressed in seconds (s).
+     *
+     * @return time interval between body kinematics samples.
+     */
+    public double getTimeInterval() {
+        return mTimeInterval;
+    }
+
+    /**
+     * Sets time interval between body kinematics samples expressed in seconds (s).
+     *
+     * @param timeInterval time interval between body kinematics samples.
+     * @throws IllegalArgumentException if provided value is not positive.
+     */
+    public void setTimeInterval(final double timeInterval) {
+        if (timeInterval <= 0.0) {
+            throw new IllegalArgumentException();
+        }
+
+        mTimeInterval = timeInterval;
+    }
+
+    /**
+     * Gets time interval between body kinematics samples.
+     *
+     * @return time interval between body kinematics samples.
+     */
+    public Time getTimeIntervalAsTime() {
+        return new Time(mTimeInterval, TimeUnit.SECOND);
+    }
+
+    /**
+     * Gets time interval between body kinematics samples.
+     *
+     * @param result instance where time interval will be stored.
+     */
+    public void getTimeIntervalAsTime(final Time result) {
+        result.setValue(mTimeInterval);
+        result.setUnit(TimeUnit.SECOND);
+    }
+
+    /**
+     * Sets time interval between body kinematics samples.
+     *
+     * @param timeInterval time interval between body kinematics samples.
+     * @throws IllegalArgumentException if provided value is not positive.
+     */
+    public void setTimeInterval(final Time timeInterval) {
+        setTimeInterval(TimeConverter.convert(timeInterval.getValue().doubleValue(),
+                timeInterval.getUnit(), TimeUnit.SECOND));
+    }
+
+    /**
+     * Gets maximum level of clusters whose Allan variance is estimated using
+     * overlapping clusters. Clusters at level l contain 2^l samples.
+     * Larger values give more accurate Allan variances at the expense of a
+     * larger computational cost per sample and larger (but still constant)
+     * memory usage.
+     *
+     * @return maximum level of clusters using overlapping clusters.
+     */
+    public int getMaxOverlappingClusterLevel() {
+        return mMaxOverlappingClusterLevel;
+    }
+
+    /**
+     * Sets maximum level of clusters whose Allan variance is estimated using
+     * overlapping clusters. Clusters at level l contain 2^l samples.
+     * Changing this value resets this estimator.
+     *
+     * @param maxOverlappingClusterLevel maximum level of clusters using overlapping
+     *                                   clusters.
+     * @throws IllegalArgumentException if provided value is not between
+     *                                  {@link #MIN_OVERLAPPING_CLUSTER_LEVEL} and
+     *                                  {@link #MAX_OVERLAPPING_CLUSTER_LEVEL}.
+     */
+    public void setMaxOverlappingClusterLevel(final int maxOverlappingClusterLevel) {
+        if (maxOverlappingClusterLevel < MIN_OVERLAPPING_CLUSTER_LEVEL ||
+                maxOverlappingClusterLevel > MAX_OVERLAPPING_CLUSTER_LEVEL) {
+            throw new IllegalArgumentException();
+        }
+
+        mMaxOverlappingClusterLevel = maxOverlappingClusterLevel;
+        createAccumulators();
+    }
+
+    /**
+     * Adds a body kinematics sample.
+     *
+     * @param kinematics body kinematics sample to be added.
+     */
+    public void addBodyKinematics(final BodyKinematics kinematics) {
+        addBodyKinematics(kinematics.getFx(), kinematics.getFy(), kinematics.getFz(),
+                kinematics.getAngularRateX(), kinematics.getAngularRateY(),
+                kinematics.getAngularRateZ());
+    }
+
+    /**
+     * Adds a timed body kinematics sample.
+     * Notice that timestamps are ignored and samples are assumed to be obtained at
+     * a constant rate equal to {@link #getTimeInterval()} seconds.
+     *
+     * @param timedKinematics timed body kinematics sample to be added.
+     */
+    public void addTimedBodyKinematics(final TimedBodyKinematics timedKinematics) {
+        addBodyKinematics(timedKinematics.getKinematics());
+    }
+
+    /**
+     * Adds a body kinematics sample.
+     *
+     * @param fx           x coordinate of specific force expressed in meters per
+     *                     squared second (m/s^2).
+     * @param fy           y coordinate of specific force expressed in meters per
+     *                     squared second (m/s^2).
+     * @param fz           z coordinate of specific force expressed in meters per
+     *                     squared second (m/s^2).
+     * @param angularRateX x coordinate of angular rate expressed in radians per
+     *                     second (rad/s).
+     * @param angularRateY y coordinate of angular rate expressed in radians per
+     *                     second (rad/s).
+     * @param angularRateZ z coordinate of angular rate expressed in radians per
+     *                     second (rad/s).
+     */
+    public void addBodyKinematics(final double fx, final double fy, final double fz,
+                                  final double angularRateX, final double angularRateY,
+                                  final double angularRateZ) {
+        mAccumulators[FX].add(fx);
+        mAccumulators[FY].add(fy);
+        mAccumulators[FZ].add(fz);
+        mAccumulators[WX].add(angularRateX);
+        mAccumulators[WY].add(angularRateY);
+        mAccumulators[WZ].add(angularRateZ);
+    }
+
+    /**
+     * Resets this estimator so that all processed samples are discarded.
+     */
+    public void reset() {
+        for (final AllanVarianceAccumulator accumulator : mAccumulators) {
+            accumulator.reset();
+        }
+    }
+
+    /**
+     * Gets number of processed body kinematics samples.
+     *
+     * @return number of processed samples.
+     */
+    public long getNumberOfProcessedSamples() {
+        return mAccumulators[FX].getNumSamples();
+    }
+
+    /**
+     * Gets number of octave-spaced averaging times for which Allan variances are
+     * available.
+     *
+     * @return number of available averaging times.
+     */
+    public int getNumberOfAveragingTimes() {
+        return mAccumulators[FX].getNumLevels();
+    }
+
+    /**
+     * Indicates whether enough samples have been processed to estimate noise
+     * parameters.
+     *
+     * @return true if noise parameters can be estimated, false otherwise.
+     */
+    public boolean isReady() {
+        return mAccumulators[FX].getNumLevels() > 0 &&
+                mAccumulators[FX].getNumIndependentDifferences(0) >=
+                        MIN_CLUSTER_DIFFERENCES;
+    }
+
+    /**
+     * Gets octave-spaced averaging times expressed in seconds (s) for which Allan
+     * variances are available.
+     *
+     * @return averaging times.
+     */
+    public double[] getAveragingTimes() {
+        final int numLevels = getNumberOfAveragingTimes();
+        final double[] result = new double[numLevels];
+        for (int l = 0; l < numLevels; l++) {
+            result[l] = getAveragingTime(l);
+        }
+        return result;
+    }
+
+    /**
+     * Gets Allan variances of x coordinate of specific force for each averaging
+     * time, expressed in (m^2/s^4).
+     *
+     * @return Allan variances of x coordinate of specific force.
+     */
+    public double[] getSpecificForceXAllanVariances() {
+        return getAllanVariances(FX);
+    }
+
+    /**
+     * Gets Allan variances of y coordinate of specific force for each averaging
+     * time, expressed in (m^2/s^4).
+     *
+     * @return Allan variances of y coordinate of specific force.
+     */
+    public double[] getSpecificForceYAllanVariances() {
+        return getAllanVariances(FY);
+    }
+
+    /**
+     * Gets Allan variances of z coordinate of specific force for each averaging
+     * time, expressed in (m^2/s^4).
+     *
+     * @return Allan variances of z coordinate of specific force.
+     */
+    public double[] getSpecificForceZAllanVariances() {
+        return getAllanVariances(FZ);
+    }
+
+    /**
+     * Gets Allan variances of x coordinate of angular rate for each averaging
+     * time, expressed in (rad^2/s^2).
+     *
+     * @return Allan variances of x coordinate of angular rate.
+     */
+    public double[] getAngularRateXAllanVariances() {
+        return getAllanVariances(WX);
+    }
+
+    /**
+     * Gets Allan variances of y coordinate of angular rate for each averaging
+     * time, expressed in (rad^2/s^2).
+     *
+     * @return Allan variances of y coordinate of angular rate.
+     */
+    public double[] getAngularRateYAllanVariances() {
+        return getAllanVariances(WY);
+    }
+
+    /**
+     * Gets Allan variances of z coordinate of angular rate for each averaging
+     * time, expressed in (rad^2/s^2).
+     *
+     * @return Allan variances of z coordinate of angular rate.
+     */
+    public double[] getAngularRateZAllanVariances() {
+        return getAllanVariances(WZ);
+    }
+
+    /**
+     * Gets estimated velocity random walk of accelerometer x axis expressed in
+     * meters per second per squared root of second (m/s/sqrt(s)).
+     *
+     * @return velocity random walk of x axis or 0.0 if not available.
+     */
+    public double getVelocityRandomWalkX() {
+        return estimateWhiteNoise(FX);
+    }
+
+    /**
+     * Gets estimated velocity random walk of accelerometer y axis expressed in
+     * meters per second per squared root of second (m/s/sqrt(s)).
+     *
+     * @return velocity random walk of y axis or 0.0 if not available.
+     */
+    public double getVelocityRandomWalkY() {
+        return estimateWhiteNoise(FY);
+    }
+
+    /**
+     * Gets estimated velocity random walk of accelerometer z axis expressed in
+     * meters per second per squared root of second (m/s/sqrt(s)).
+     *
+     * @return velocity random walk of z axis or 0.0 if not available.
+     */
+    public double getVelocityRandomWalkZ() {
+        return estimateWhiteNoise(FZ);
+    }
+
+    /**
+     * Gets estimated angle random walk of gyroscope x axis expressed in radians
+     * per squared root of second (rad/sqrt(s)).
+     *
+     * @return angle random walk of x axis or 0.0 if not available.
+     */
+    public double getAngleRandomWalkX() {
+        return estimateWhiteNoise(WX);
+    }
+
+    /**
+     * Gets estimated angle random walk of gyroscope y axis expressed in radians
+     * per squared root of second (rad/sqrt(s)).
+     *
+     * @return angle random walk of y axis or 0.0 if not available.
+     */
+    public double getAngleRandomWalkY() {
+        return estimateWhiteNoise(WY);
+    }
+
+    /**
+     * Gets estimated angle random walk of gyroscope z axis expressed in radians
+     * per squared root of second (rad/sqrt(s)).
+     *
+     * @return angle random walk of z axis or 0.0 if not available.
+     */
+    public double getAngleRandomWalkZ() {
+        return estimateWhiteNoise(WZ);
+    }
+
+    /**
+     * Gets estimated bias instability of accelerometer x axis expressed in meters
+     * per squared second (m/s^2).
+     *
+     * @return bias instability of x axis or 0.0 if not available.
+     */
+    public double getAccelerometerBiasInstabilityX() {
+        return estimateBiasInstability(FX);
+    }
+
+    /**
+     * Gets estimated bias instability of accelerometer y axis expressed in meters
+     * per squared second (m/s^2).
+     *
+     * @return bias instability of y axis or 0.0 if not available.
+     */
+    public double getAccelerometerBiasInstabilityY() {
+        return estimateBiasInstability(FY);
+    }
+
+    /**
+     * Gets estimated bias instability of accelerometer z axis expressed in meters
+     * per squared second (m/s^2).
+     *
+     * @return bias instability of z axis or 0.0 if not available.
+     */
+    public double getAccelerometerBiasInstabilityZ() {
+        return estimateBiasInstability(FZ);
+    }
+
+    /**
+     * Gets estimated bias instability of gyroscope x axis expressed in radians per
+     * second (rad/s).
+     *
+     * @return bias instability of x axis or 0.0 if not available.
+     */
+    public double getGyroBiasInstabilityX() {
+        return estimateBiasInstability(WX);
+    }
+
+    /**
+     * Gets estimated bias instability of gyroscope y axis expressed in radians per
+     * second (rad/s).
+     *
+     * @return bias instability of y axis or 0.0 if not available.
+     */
+    public double getGyroBiasInstabilityY() {
+        return estimateBiasInstability(WY);
+    }
+
+    /**
+     * Gets estimated bias instability of gyroscope z axis expressed in radians per
+     * second (rad/s).
+     *
+     * @return bias instability of z axis or 0.0 if not available.
+     */
+    public double getGyroBiasInstabilityZ() {
+        return estimateBiasInstability(WZ);
+    }
+
+    /**
+     * Gets estimated acceleration random walk of accelerometer x axis expressed in
+     * meters per squared second per squared root of second (m/s^2/sqrt(s)).
+     *
+     * @return acceleration random walk of x axis or 0.0 if not available.
+     */
+    public double getAccelerationRandomWalkX() {
+        return estimateRateRandomWalk(FX);
+    }
+
+    /**
+     * Gets estimated acceleration random walk of accelerometer y axis expressed in
+     * meters per squared second per squared root of second (m/s^2/sqrt(s)).
+     *
+     * @return acceleration random walk of y axis or 0.0 if not available.
+     */
+    public double getAccelerationRandomWalkY() {
+        return estimateRateRandomWalk(FY);
+    }
+
+    /**
+     * Gets estimated acceleration random walk of accelerometer z axis expressed in
+     * meters per squared second per squared root of second (m/s^2/sqrt(s)).
+     *
+     * @return acceleration random walk of z axis or 0.0 if not available.
+     */
+    public double getAccelerationRandomWalkZ() {
+        return estimateRateRandomWalk(FZ);
+    }
+
+    /**
+     * Gets estimated rate random walk of gyroscope x axis expressed in radians per
+     * second per squared root of second (rad/s/sqrt(s)).
+     *
+     * @return rate random walk of x axis or 0.0 if not available.
+     */
+    public double getRateRandomWalkX() {
+        return estimateRateRandomWalk(WX);
+    }
+
+    /**
+     * Gets estimated rate random walk of gyroscope y axis expressed in radians per
+     * second per squared root of second (rad/s/sqrt(s)).
+     *
+     * @return rate random walk of y axis or 0.0 if not available.
+     */
+    public double getRateRandomWalkY() {
+        return estimateRateRandomWalk(WY);
+    }
+
+    /**
+     * Gets estimated rate random walk of gyroscope z axis expressed in radians per
+     * second per squared root of second (rad/s/sqrt(s)).
+     *
+     * @return rate random walk of z axis or 0.0 if not available.
+     */
+    public double getRateRandomWalkZ() {
+        return estimateRateRandomWalk(WZ);
+    }
+
+    /**
+     * Creates Allan variance accumulators for current maximum overlapping cluster
+     * level.
+     */
+    private void createAccumulators() {
+        mAccumulators = new AllanVarianceAccumulator[6];
+        for (int i = 0; i < mAccumulators.length; i++) {
+            mAccumulators[i] = new AllanVarianceAccumulator(mMaxOverlappingClusterLevel);
+        }
+    }
+
+    /**
+     * Gets averaging time of clusters at provided level.
+     *
+     * @param level level of clusters containing 2^level samples.
+     * @return averaging time expressed in seconds (s).
+     */
+    private double getAveragingTime(final int level) {
+        return Math.pow(2.0, level) * mTimeInterval;
+    }
+
+    /**
+     * Gets Allan variances of provided coordinate for each averaging time.
+     *
+     * @param index index of coordinate.
+     * @return Allan variances.
+     */
+    private double[] getAllanVariances(final int index) {
+        final AllanVarianceAccumulator accumulator = mAccumulators[index];
+        final int numLevels = accumulator.getNumLevels();
+        final double[] result = new double[numLevels];
+        for (int l = 0; l < numLevels; l++) {
+            result[l] = accumulator.getAllanVariance(l);
+        }
+        return result;
+    }
+
+    /**
+     * Gets number of averaging times whose Allan variances are reliable enough to
+     * estimate noise parameters.
+     *
+     * @param accumulator Allan variance accumulator.
+     * @return number of reliable averaging times.
+     */
+    private static int getNumberOfReliableLevels(
+            final AllanVarianceAccumulator accumulator) {
+        final int numLevels = accumulator.getNumLevels();
+        int l = 0;
+        while (l < numLevels &&
+                accumulator.getNumIndependentDifferences(l) >= MIN_CLUSTER_DIFFERENCES) {
+            l++;
+        }
+        return l;
+    }
+
+    /**
+     * Gets upper confidence bound of Allan deviation at provided level, taking into
+     * account that relative uncertainty of Allan deviation obtained from K
+     * clusters is approximately 1 / sqrt(2 * (K - 1)).
+     *
+     * @param accumulator Allan variance accumulator.
+     * @param level       level of clusters containing 2^level samples.
+     * @return upper confidence bound of Allan deviation.
+     */
+    private static double getAllanDeviationUpperBound(
+            final AllanVarianceAccumulator accumulator, final int level) {
+        final long count = accumulator.getNumIndependentDifferences(level);
+        return Math.sqrt(accumulator.getAllanVariance(level)) *
+                (1.0 + CONFIDENCE_FACTOR / Math.sqrt(2.0 * count));
+    }
+
+    /**
+     * Estimates white noise coefficient (velocity or angle random walk) of
+     * provided coordinate as the minimum of sigma(tau) * sqrt(tau).
+     *
+     * @param index index of coordinate.
+     * @return white noise coefficient or 0.0 if not available.
+     */
+    private double estimateWhiteNoise(final int index) {
+        final AllanVarianceAccumulator accumulator = mAccumulators[index];
+        final int numLevels = getNumberOfReliableLevels(accumulator);
+        if (numLevels == 0) {
+            return 0.0;
+        }
+
+        double result = Double.MAX_VALUE;
+        for (int l = 0; l < numLevels; l++) {
+            final double value = getAllanDeviationUpperBound(accumulator, l) *
+                    Math.sqrt(getAveragingTime(l));
+            result = Math.min(result, value);
+        }
+        return result;
+    }
+
+    /**
+     * Estimates bias instability of provided coordinate from the minimum of Allan
+     * deviation.
+     *
+     * @param index index of coordinate.
+     * @return bias instability or 0.0 if not available.
+     */
+    private double estimateBiasInstability(final int index) {
+        final AllanVarianceAccumulator accumulator = mAccumulators[index];
+        final int numLevels = getNumberOfReliableLevels(accumulator);
+        if (numLevels == 0) {
+            return 0.0;
+        }
+
+        double minDeviation = Double.MAX_VALUE;
+        for (int l = 0; l < numLevels; l++) {
+            minDeviation = Math.min(minDeviation,
+                    getAllanDeviationUpperBound(accumulator, l));
+        }
+        return minDeviation / BIAS_INSTABILITY_FACTOR;
+    }
+
+    /**
+     * Estimates rate random walk coefficient of provided coordinate as the minimum
+     * of sigma(tau) * sqrt(3 / tau).
+     *
+     * @param index index of coordinate.
+     * @return rate random walk coefficient or 0.0 if not available.
+     */
+    private double estimateRateRandomWalk(final int index) {
+        final AllanVarianceAccumulator accumulator = mAccumulators[index];
+        final int numLevels = getNumberOfReliableLevels(accumulator);
+        if (numLevels == 0) {
+            return 0.0;
+        }
 
-    // TODO: accumulate multiple estimations with BodyKinematicsBiasEstimator to account for drifts on estimated accelerometer
-    //  and gyroscope biases (accelerometer and gyro random walks)
+        double result = Double.MAX_VALUE;
+        for (int l = 0; l < numLevels; l++) {
+            final double value = getAllanDeviationUpperBound(accumulator, l) *
+                    Math.sqrt(3.0 / getAveragingTime(l));
+            result = Math.min(result, value);
+        }
+        return result;
+    }
 }
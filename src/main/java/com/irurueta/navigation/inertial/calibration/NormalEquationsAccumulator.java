@@ -0,0 +1,316 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import com.irurueta.algebra.SingularMatrixException;
+
+import java.util.Arrays;
+
+/**
+ * Accumulates the normal equations A^T*A*x = A^T*b of a linear least squares
+ * problem one equation (row of A) at a time, so that the least squares solution
+ * can be obtained at any time using an amount of memory that only depends on
+ * the number of unknowns and not on the number of equations.
+ * Previously added equations can be removed (rank-one downdate), which is useful
+ * to discard outliers without having to accumulate all remaining equations again.
+ * <p>
+ * When solving, normal equations are scaled by the square root of their
+ * diagonal so that unknowns having very different magnitudes (e.g. biases and
+ * scale factors) do not degrade the accuracy of the Cholesky factorization.
+ */
+public final class NormalEquationsAccumulator {
+
+    /**
+     * Minimum pivot allowed on the scaled normal equations before considering
+     * them singular.
+     */
+    private static final double MIN_PIVOT = 1e-12;
+
+    /**
+     * Number of unknowns.
+     */
+    private final int mUnknowns;
+
+    /**
+     * Accumulated A^T*A matrix stored in row-major order.
+     * Only the upper triangle is updated.
+     */
+    private final double[] mAtA;
+
+    /**
+     * Accumulated A^T*b vector.
+     */
+    private final double[] mAtB;
+
+    /**
+     * Accumulated b^T*b value.
+     */
+    private double mBtB;
+
+    /**
+     * Number of accumulated equations.
+     */
+    private long mNumEquations;
+
+    /**
+     * Scratch buffer containing the Cholesky factor of the scaled normal
+     * equations.
+     */
+    private final double[] mFactor;
+
+    /**
+     * Scratch buffer containing scale of each selected unknown.
+     */
+    private final double[] mScales;
+
+    /**
+     * Scratch buffer containing intermediate solution.
+     */
+    private final double[] mY;
+
+    /**
+     * Constructor.
+     *
+     * @param unknowns number of unknowns.
+     * @throws IllegalArgumentException if number of unknowns is less than 1.
+     */
+    public NormalEquationsAccumulator(final int unknowns) {
+        if (unknowns < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mUnknowns = unknowns;
+        mAtA = new double[unknowns * unknowns];
+        mAtB = new double[unknowns];
+        mFactor = new double[unknowns * unknowns];
+        mScales = new double[unknowns];
+        mY = new double[unknowns];
+    }
+
+    /**
+     * Gets number of unknowns.
+     *
+     * @return number of unknowns.
+     */
+    public int getUnknowns() {
+        return mUnknowns;
+    }
+
+    /**
+     * Gets number of currently accumulated equations.
+     *
+     * @return number of accumulated equations.
+     */
+    public long getNumberOfEquations() {
+        return mNumEquations;
+    }
+
+    /**
+     * Gets accumulated squared norm of b vector.
+     *
+     * @return accumulated b^T*b.
+     */
+    public double getSquaredNormB() {
+        return mBtB;
+    }
+
+    /**
+     * Adds an equation a^T*x = b.
+     *
+     * @param a coefficients of equation. Zero coefficients are skipped.
+     * @param b right side of equation.
+     * @throws IllegalArgumentException if length of coefficients is not equal
+     *                                  to the number of unknowns.
+     */
+    public void add(final double[] a, final double b) {
+        update(a, b, 1.0);
+        mNumEquations++;
+    }
+
+    /**
+     * Removes a previously added equation a^T*x = b.
+     * Provided coefficients and right side must be exactly the ones that were
+     * added, otherwise accumulated normal equations will become corrupted.
+     *
+     * @param a coefficients of equation. Zero coefficients are skipped.
+     * @param b right side of equation.
+     * @throws IllegalArgumentException if length of coefficients is not equal
+     *                                  to the number of unknowns.
+     * @throws IllegalStateException    if no equations are accumulated.
+     */
+    public void remove(final double[] a, final double b) {
+        if (mNumEquations == 0) {
+            throw new IllegalStateException();
+        }
+
+        update(a, b, -1.0);
+        mNumEquations--;
+    }
+
+    /**
+     * Removes all accumulated equations.
+     */
+    public void reset() {
+        Arrays.fill(mAtA, 0.0);
+        Arrays.fill(mAtB, 0.0);
+        mBtB = 0.0;
+        mNumEquations = 0;
+    }
+
+    /**
+     * Solves accumulated normal equations for all unknowns.
+     *
+     * @param result array where least squares solution will be stored. Must have
+     *               the length of the number of unknowns.
+     * @throws IllegalArgumentException if provided array does not have a valid
+     *                                  length.
+     * @throws SingularMatrixException  if accumulated equations do not constrain
+     *                                  all unknowns.
+     */
+    public void solve(final double[] result) throws SingularMatrixException {
+        solve(null, result);
+    }
+
+    /**
+     * Solves accumulated normal equations for a subset of the unknowns, assuming
+     * that the remaining ones are zero.
+     * This is equivalent to solving the least squares problem after removing the
+     * columns of A corresponding to unknowns not being selected.
+     *
+     * @param indices indices of unknowns to be solved in strictly increasing
+     *                order, or null to solve all unknowns.
+     * @param result  array where least squares solution of selected unknowns
+     *                will be stored, in the same order as provided indices.
+     * @throws IllegalArgumentException if provided array does not have a valid
+     *                                  length, or if provided indices are not
+     *                                  strictly increasing or are out of range.
+     * @throws SingularMatrixException  if accumulated equations do not constrain
+     *                                  all selected unknowns.
+     */
+    public void solve(final int[] indices, final double[] result)
+            throws SingularMatrixException {
+        final int n = indices != null ? indices.length : mUnknowns;
+        if (n > mUnknowns || result.length != n) {
+            throw new IllegalArgumentException();
+        }
+        if (indices != null) {
+            // only the upper triangle is accumulated, so indices must be sorted
+            int previous = -1;
+            for (final int index : indices) {
+                if (index <= previous || index >= mUnknowns) {
+                    throw new IllegalArgumentException();
+                }
+                previous = index;
+            }
+        }
+
+        final double[] ata = mAtA;
+        final double[] l = mFactor;
+        final double[] scales = mScales;
+        final double[] y = mY;
+        final int m = mUnknowns;
+
+        // scale normal equations to unit diagonal
+        for (int i = 0; i < n; i++) {
+            final int p = indices != null ? indices[i] : i;
+            final double diag = ata[p * m + p];
+            if (!(diag > 0.0)) {
+                throw new SingularMatrixException();
+            }
+            scales[i] = 1.0 / Math.sqrt(diag);
+        }
+
+        // Cholesky factorization L*L^T of scaled normal equations
+        for (int i = 0; i < n; i++) {
+            final int p = indices != null ? indices[i] : i;
+            for (int j = 0; j <= i; j++) {
+                final int q = indices != null ? indices[j] : j;
+                // upper triangle is the one being accumulated
+                double sum = ata[q * m + p] * scales[i] * scales[j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i * n + k] * l[j * n + k];
+                }
+
+                if (i == j) {
+                    if (!(sum > MIN_PIVOT)) {
+                        throw new SingularMatrixException();
+                    }
+                    l[i * n + i] = Math.sqrt(sum);
+                } else {
+                    l[i * n + j] = sum / l[j * n + j];
+                }
+            }
+        }
+
+        // forward substitution L*y = S*A^T*b
+        for (int i = 0; i < n; i++) {
+            final int p = indices != null ? indices[i] : i;
+            double sum = mAtB[p] * scales[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i * n + k] * y[k];
+            }
+            y[i] = sum / l[i * n + i];
+        }
+
+        // backward substitution L^T*z = y and unscaling x = S*z
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = y[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k * n + i] * y[k];
+            }
+            y[i] = sum / l[i * n + i];
+        }
+
+        for (int i = 0; i < n; i++) {
+            result[i] = y[i] * scales[i];
+        }
+    }
+
+    /**
+     * Adds or removes the contribution of an equation.
+     *
+     * @param a      coefficients of equation.
+     * @param b      right side of equation.
+     * @param weight 1.0 to add equation, -1.0 to remove it.
+     * @throws IllegalArgumentException if length of coefficients is not equal
+     *                                  to the number of unknowns.
+     */
+    private void update(final double[] a, final double b, final double weight) {
+        final int m = mUnknowns;
+        if (a.length != m) {
+            throw new IllegalArgumentException();
+        }
+
+        final double[] ata = mAtA;
+        for (int i = 0; i < m; i++) {
+            final double ai = a[i];
+            if (ai == 0.0) {
+                continue;
+            }
+
+            final double wai = weight * ai;
+            final int offset = i * m;
+            for (int j = i; j < m; j++) {
+                final double aj = a[j];
+                if (aj != 0.0) {
+                    ata[offset + j] += wai * aj;
+                }
+            }
+            mAtB[i] += wai * b;
+        }
+        mBtB += weight * b * b;
+    }
+}
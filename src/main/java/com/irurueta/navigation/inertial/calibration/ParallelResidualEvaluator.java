@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates residuals of samples respect to estimations found by robust
+ * estimators, splitting the samples into contiguous blocks that are evaluated
+ * concurrently.
+ * Robust estimators request residuals one sample at a time. When parallelism
+ * is greater than one, the first time a residual is requested for a new
+ * estimation instance, residuals of all samples are computed across available
+ * threads and kept, so that subsequent requests for the same estimation are
+ * served from memory.
+ * Kept residuals are only discarded when a different estimation instance is
+ * provided or when {@link #reset()} is called. Hence, {@link #reset()} must be
+ * called whenever the values of a previously evaluated estimation instance
+ * might have changed.
+ * Because each residual only depends on its sample and estimation, computed
+ * residuals are exactly the same ones that would be obtained on a single
+ * thread, and robust estimation results are the same regardless of the
+ * parallelism level.
+ * Evaluation is not thread-safe: residuals must be requested from a single
+ * thread at a time, as robust estimators do.
+ * Worker threads are daemon threads that are released after some time of
+ * inactivity or when {@link #close()} is called.
+ *
+ * @param <T> type of estimation.
+ */
+public class ParallelResidualEvaluator<T> implements Closeable {
+
+    /**
+     * Default parallelism level. By default residuals are evaluated on the
+     * calling thread.
+     */
+    public static final int DEFAULT_PARALLELISM = 1;
+
+    /**
+     * Minimum allowed parallelism level.
+     */
+    public static final int MIN_PARALLELISM = 1;
+
+    /**
+     * Time worker threads are kept alive while idle expressed in seconds.
+     */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    /**
+     * Listener to compute residual of each sample.
+     */
+    private final ParallelResidualEvaluatorListener<T> mListener;
+
+    /**
+     * Parallelism level, which is the number of threads used to evaluate
+     * residuals, including the calling thread.
+     */
+    private int mParallelism = DEFAULT_PARALLELISM;
+
+    /**
+     * Executor where blocks of samples are evaluated.
+     */
+    private ThreadPoolExecutor mExecutor;
+
+    /**
+     * Estimation whose residuals are currently kept.
+     */
+    private T mEstimation;
+
+    /**
+     * Residuals of all samples respect to kept estimation.
+     */
+    private double[] mResiduals;
+
+    /**
+     * Constructor.
+     *
+     * @param listener listener to compute residual of each sample.
+     * @throws IllegalArgumentException if provided listener is null.
+     */
+    public ParallelResidualEvaluator(
+            final ParallelResidualEvaluatorListener<T> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException();
+        }
+        mListener = listener;
+    }
+
+    /**
+     * Gets parallelism level, which is the number of threads used to evaluate
+     * residuals, including the calling thread.
+     *
+     * @return parallelism level.
+     */
+    public int getParallelism() {
+        return mParallelism;
+    }
+
+    /**
+     * Sets parallelism level, which is the number of threads used to evaluate
+     * residuals, including the calling thread.
+     * This must not be called while residuals are being evaluated.
+     *
+     * @param parallelism parallelism level.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setParallelism(final int parallelism) {
+        if (parallelism < MIN_PARALLELISM) {
+            throw new IllegalArgumentException();
+        }
+
+        if (parallelism != mParallelism) {
+            close();
+        }
+        mParallelism = parallelism;
+        reset();
+    }
+
+    /**
+     * Discards kept residuals so that they are computed again on next
+     * evaluation.
+     * This must be called whenever the values of a previously evaluated
+     * estimation instance might have changed.
+     */
+    public void reset() {
+        mEstimation = null;
+    }
+
+    /**
+     * Shuts down worker threads, if any.
+     * Evaluator can still be used afterwards, in which case worker threads
+     * are created again when needed.
+     */
+    @Override
+    public void close() {
+        final ThreadPoolExecutor executor;
+        synchronized (this) {
+            executor = mExecutor;
+            mExecutor = null;
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Gets residual of sample at provided position respect to provided
+     * estimation.
+     *
+     * @param estimation   estimation to be evaluated.
+     * @param i            position of sample.
+     * @param totalSamples total number of samples.
+     * @return residual of sample.
+     */
+    public double evaluate(final T estimation, final int i,
+                           final int totalSamples) {
+        if (mParallelism == MIN_PARALLELISM || totalSamples < 2 * mParallelism) {
+            return mListener.computeResidual(estimation, i, 0);
+        }
+
+        if (estimation != mEstimation || mResiduals == null
+                || mResiduals.length != totalSamples) {
+            mEstimation = null;
+            if (mResiduals == null || mResiduals.length != totalSamples) {
+                mResiduals = new double[totalSamples];
+            }
+            evaluateAll(estimation, mResiduals);
+            mEstimation = estimation;
+        }
+
+        return mResiduals[i];
+    }
+
+    /**
+     * Computes residuals of all samples respect to provided estimation.
+     * First block of samples is evaluated on the calling thread (worker 0)
+     * while remaining blocks are evaluated on worker threads, so that each
+     * block is evaluated by a different worker.
+     *
+     * @param estimation estimation to be evaluated.
+     * @param result     array where residuals will be stored.
+     */
+    private void evaluateAll(final T estimation, final double[] result) {
+        final int totalSamples = result.length;
+        final int blockSize = (totalSamples + mParallelism - 1) / mParallelism;
+
+        final ThreadPoolExecutor executor = getExecutor();
+        final List<Future<Void>> futures = new ArrayList<>();
+        int worker = 1;
+        for (int start = blockSize; start < totalSamples; start += blockSize) {
+            final int blockStart = start;
+            final int blockEnd = Math.min(start + blockSize, totalSamples);
+            final int blockWorker = worker++;
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    evaluateBlock(estimation, blockStart, blockEnd, blockWorker,
+                            result);
+                    return null;
+                }
+            }));
+        }
+
+        evaluateBlock(estimation, 0, Math.min(blockSize, totalSamples), 0,
+                result);
+
+        boolean interrupted = false;
+        for (final Future<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Computes residuals of a contiguous block of samples.
+     *
+     * @param estimation estimation to be evaluated.
+     * @param start      position of first sample of block (inclusive).
+     * @param end        position of last sample of block (exclusive).
+     * @param worker     position of worker evaluating the block.
+     * @param result     array where residuals will be stored.
+     */
+    private void evaluateBlock(final T estimation, final int start,
+                               final int end, final int worker,
+                               final double[] result) {
+        for (int i = start; i < end; i++) {
+            result[i] = mListener.computeResidual(estimation, i, worker);
+        }
+    }
+
+    /**
+     * Gets executor where blocks of samples are evaluated, creating it if
+     * needed.
+     *
+     * @return executor.
+     */
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (mExecutor == null) {
+            final int numThreads = mParallelism - 1;
+            mExecutor = new ThreadPoolExecutor(numThreads, numThreads,
+                    KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable r) {
+                            final Thread thread = new Thread(r);
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            mExecutor.allowCoreThreadTimeOut(true);
+        }
+        return mExecutor;
+    }
+}
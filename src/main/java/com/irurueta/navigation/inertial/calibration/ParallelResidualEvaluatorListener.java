@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+/**
+ * Contains listener for parallel residual evaluators to compute the residual
+ * of a single sample respect to an estimation.
+ * When parallelism is greater than one, residuals of different samples might
+ * be computed concurrently by different workers. Residuals requested for the
+ * same worker are never computed concurrently, hence implementations can reuse
+ * temporary instances of each worker.
+ *
+ * @param <T> type of estimation.
+ */
+public interface ParallelResidualEvaluatorListener<T> {
+
+    /**
+     * Computes residual of sample at provided position respect to provided
+     * estimation.
+     *
+     * @param estimation estimation to be evaluated.
+     * @param i          position of sample.
+     * @param worker     position of worker computing the residual, between 0
+     *                   and parallelism - 1. Worker 0 always corresponds to the
+     *                   thread requesting residuals.
+     * @return residual of sample.
+     */
+    double computeResidual(final T estimation, final int i, final int worker);
+}
@@ -25,10 +25,12 @@ import com.irurueta.navigation.frames.ECEFFrame;
 import com.irurueta.navigation.inertial.BodyKinematics;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
 import com.irurueta.navigation.inertial.calibration.FrameBodyKinematics;
+import com.irurueta.navigation.inertial.calibration.NormalEquationsAccumulator;
 import com.irurueta.navigation.inertial.estimators.ECEFKinematicsEstimator;
 import com.irurueta.units.Acceleration;
 import com.irurueta.units.AccelerationUnit;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -87,6 +89,12 @@ public class KnownFrameAccelerometerLinearLeastSquaresCalibrator implements
      */
     private static final int GENERAL_UNKNOWNS = 12;
 
+    /**
+     * Positions of unknowns of the general case that are estimated when common
+     * z-axis is assumed (myx, mzx and mzy are zero).
+     */
+    private static final int[] COMMON_Z_AXIS_INDICES = {0, 1, 2, 3, 4, 5, 6, 7, 9};
+
     /**
      * Contains a collection of body kinematics measurements taken at different
      * frames (positions, orientations and velocities).
@@ -166,6 +174,23 @@ public class KnownFrameAccelerometerLinearLeastSquaresCalibrator implements
      */
     private boolean mRunning;
 
+    /**
+     * Accumulated normal equations of measurements that have been added one by one.
+     * Normal equations are accumulated for the general case, so that they can be
+     * solved either for the general or the common z-axis case.
+     */
+    private NormalEquationsAccumulator mAccumulator;
+
+    /**
+     * Coefficients of an equation of the general case being accumulated.
+     */
+    private double[] mAccumulatedRow;
+
+    /**
+     * Expected kinematics of a measurement being accumulated.
+     */
+    private BodyKinematics mAccumulatedKinematics;
+
     /**
      * Constructor.
      */
@@ -432,6 +457,139 @@ public class KnownFrameAccelerometerLinearLeastSquaresCalibrator implements
         }
     }
 
+    /**
+     * Adds a measurement to the accumulated normal equations, so that calibration
+     * can be made at any time using {@link #calibrateAccumulated()} without keeping
+     * all measurements in memory.
+     * Accumulated measurements are independent of the collection of measurements
+     * used by {@link #calibrate()}.
+     *
+     * @param measurement body kinematics measurement taken at a known frame.
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void addMeasurement(final FrameBodyKinematics measurement)
+            throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        accumulate(measurement, true);
+    }
+
+    /**
+     * Removes a previously added measurement from the accumulated normal equations
+     * (e.g. because it has been found to be an outlier).
+     * Provided measurement must contain the same values as when it was added.
+     *
+     * @param measurement previously added body kinematics measurement.
+     * @throws LockedException       if calibrator is currently running.
+     * @throws IllegalStateException if there are no accumulated measurements.
+     */
+    public void removeMeasurement(final FrameBodyKinematics measurement)
+            throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (getNumberOfAccumulatedMeasurements() == 0) {
+            throw new IllegalStateException();
+        }
+
+        accumulate(measurement, false);
+    }
+
+    /**
+     * Removes all accumulated measurements.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void resetAccumulatedMeasurements() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (mAccumulator != null) {
+            mAccumulator.reset();
+        }
+    }
+
+    /**
+     * Gets number of measurements currently accumulated.
+     *
+     * @return number of accumulated measurements.
+     */
+    public long getNumberOfAccumulatedMeasurements() {
+        return mAccumulator != null ?
+                mAccumulator.getNumberOfEquations() / EQUATIONS_PER_MEASUREMENT : 0;
+    }
+
+    /**
+     * Indicates whether enough measurements have been accumulated to calibrate
+     * using {@link #calibrateAccumulated()}.
+     *
+     * @return true if enough measurements have been accumulated, false otherwise.
+     */
+    public boolean isAccumulatedReady() {
+        return getNumberOfAccumulatedMeasurements() >= MINIMUM_MEASUREMENTS;
+    }
+
+    /**
+     * Estimates accelerometer calibration parameters containing bias, scale factors
+     * and cross-coupling errors using accumulated measurements.
+     * Estimation only requires solving accumulated normal equations, hence its
+     * cost does not depend on the number of accumulated measurements.
+     *
+     * @throws LockedException      if calibrator is currently running.
+     * @throws NotReadyException    if not enough measurements have been accumulated.
+     * @throws CalibrationException if calibration fails for numerical reasons.
+     */
+    public void calibrateAccumulated() throws LockedException, NotReadyException,
+            CalibrationException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (!isAccumulatedReady()) {
+            throw new NotReadyException();
+        }
+
+        try {
+            mRunning = true;
+
+            if (mListener != null) {
+                mListener.onCalibrateStart(this);
+            }
+
+            final double[] unknowns;
+            if (mCommonAxisUsed) {
+                unknowns = new double[COMMON_Z_AXIS_UNKNOWNS];
+                mAccumulator.solve(COMMON_Z_AXIS_INDICES, unknowns);
+
+                fillBiases(unknowns[0], unknowns[1], unknowns[2]);
+                fillMa(unknowns[3], unknowns[4], unknowns[5],
+                        unknowns[6], unknowns[7], 0.0,
+                        unknowns[8], 0.0, 0.0);
+            } else {
+                unknowns = new double[GENERAL_UNKNOWNS];
+                mAccumulator.solve(unknowns);
+
+                fillBiases(unknowns[0], unknowns[1], unknowns[2]);
+                fillMa(unknowns[3], unknowns[4], unknowns[5],
+                        unknowns[6], unknowns[7], unknowns[8],
+                        unknowns[9], unknowns[10], unknowns[11]);
+            }
+
+            if (mListener != null) {
+                mListener.onCalibrateEnd(this);
+            }
+
+        } catch (final AlgebraException e) {
+            throw new CalibrationException(e);
+        } finally {
+            mRunning = false;
+        }
+    }
+
     /**
      * Gets array containing x,y,z components of estimated accelerometer biases
      * expressed in meters per squared second (m/s^2).
@@ -988,6 +1146,73 @@ public class KnownFrameAccelerometerLinearLeastSquaresCalibrator implements
         fillMa(sx, sy, sz, mxy, mxz, myx, myz, mzx, mzy);
     }
 
+    /**
+     * Adds or removes the equations of provided measurement into accumulated
+     * normal equations of the general case.
+     * Equations are the same ones used by {@link #calibrateGeneral()}.
+     *
+     * @param measurement measurement to be added or removed.
+     * @param add         true to add measurement, false to remove it.
+     */
+    private void accumulate(final FrameBodyKinematics measurement, final boolean add) {
+        if (mAccumulator == null) {
+            mAccumulator = new NormalEquationsAccumulator(GENERAL_UNKNOWNS);
+            mAccumulatedRow = new double[GENERAL_UNKNOWNS];
+            mAccumulatedKinematics = new BodyKinematics();
+        }
+
+        final BodyKinematics measuredKinematics = measurement.getKinematics();
+        ECEFKinematicsEstimator.estimateKinematics(measurement.getTimeInterval(),
+                measurement.getFrame(), measurement.getPreviousFrame(),
+                mAccumulatedKinematics);
+
+        final double fMeasX = measuredKinematics.getFx();
+        final double fMeasY = measuredKinematics.getFy();
+        final double fMeasZ = measuredKinematics.getFz();
+
+        final double fTrueX = mAccumulatedKinematics.getFx();
+        final double fTrueY = mAccumulatedKinematics.getFy();
+        final double fTrueZ = mAccumulatedKinematics.getFz();
+
+        final double[] row = mAccumulatedRow;
+
+        Arrays.fill(row, 0.0);
+        row[0] = 1.0;
+        row[3] = fTrueX;
+        row[6] = fTrueY;
+        row[7] = fTrueZ;
+        accumulateRow(row, fMeasX - fTrueX, add);
+
+        Arrays.fill(row, 0.0);
+        row[1] = 1.0;
+        row[4] = fTrueY;
+        row[8] = fTrueX;
+        row[9] = fTrueZ;
+        accumulateRow(row, fMeasY - fTrueY, add);
+
+        Arrays.fill(row, 0.0);
+        row[2] = 1.0;
+        row[5] = fTrueZ;
+        row[10] = fTrueX;
+        row[11] = fTrueY;
+        accumulateRow(row, fMeasZ - fTrueZ, add);
+    }
+
+    /**
+     * Adds or removes a single equation into accumulated normal equations.
+     *
+     * @param row coefficients of equation.
+     * @param b   right side of equation.
+     * @param add true to add equation, false to remove it.
+     */
+    private void accumulateRow(final double[] row, final double b, final boolean add) {
+        if (add) {
+            mAccumulator.add(row, b);
+        } else {
+            mAccumulator.remove(row, b);
+        }
+    }
+
     /**
      * Fills estimated biases array with estimated values.
      *
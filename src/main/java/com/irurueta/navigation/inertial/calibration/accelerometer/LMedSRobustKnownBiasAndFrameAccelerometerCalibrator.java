@@ -826,7 +826,7 @@ public class LMedSRobustKnownBiasAndFrameAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final Matrix currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
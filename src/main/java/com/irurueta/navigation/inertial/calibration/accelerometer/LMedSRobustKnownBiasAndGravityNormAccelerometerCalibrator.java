@@ -978,7 +978,7 @@ public class LMedSRobustKnownBiasAndGravityNormAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final PreliminaryResult currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -906,7 +906,7 @@ public class LMedSRobustKnownBiasAndPositionAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final PreliminaryResult currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -287,7 +287,7 @@ public class LMedSRobustKnownFrameAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final PreliminaryResult currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -991,7 +991,7 @@ public class LMedSRobustKnownGravityNormAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final PreliminaryResult currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -917,7 +917,7 @@ public class LMedSRobustKnownPositionAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final PreliminaryResult currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -779,7 +779,7 @@ public class MSACRobustKnownBiasAndFrameAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final Matrix currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
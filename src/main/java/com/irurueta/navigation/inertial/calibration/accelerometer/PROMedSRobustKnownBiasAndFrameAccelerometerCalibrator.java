@@ -1722,7 +1722,7 @@ public class PROMedSRobustKnownBiasAndFrameAccelerometerCalibrator extends
                     @Override
                     public double computeResidual(
                             final Matrix currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -1746,7 +1746,7 @@ public class PROSACRobustKnownBiasAndFrameAccelerometerCalibrator extends
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -1988,7 +1988,7 @@ public class PROSACRobustKnownBiasAndGravityNormAccelerometerCalibrator extends
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation,
                                     final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -2012,7 +2012,7 @@ public class PROSACRobustKnownGravityNormAccelerometerCalibrator extends
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation,
                                     final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -1874,7 +1874,7 @@ public class PROSACRobustKnownPositionAccelerometerCalibrator extends
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation,
                                     final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -852,7 +852,7 @@ public class RANSACRobustKnownBiasAndFrameAccelerometerCalibrator extends
 
                     @Override
                     public double computeResidual(final Matrix currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -1007,7 +1007,7 @@ public class RANSACRobustKnownBiasAndGravityNormAccelerometerCalibrator extends
                             @Override
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation, final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -938,7 +938,7 @@ public class RANSACRobustKnownBiasAndPositionAccelerometerCalibrator extends
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation,
                                     final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
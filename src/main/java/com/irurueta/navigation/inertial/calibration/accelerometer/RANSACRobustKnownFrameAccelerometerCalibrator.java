@@ -317,7 +317,7 @@ public class RANSACRobustKnownFrameAccelerometerCalibrator extends
                             @Override
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation, final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -1020,7 +1020,7 @@ public class RANSACRobustKnownGravityNormAccelerometerCalibrator extends
                             @Override
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation, final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -949,7 +949,7 @@ public class RANSACRobustKnownPositionAccelerometerCalibrator extends
                             @Override
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation, final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -22,6 +22,8 @@ import com.irurueta.navigation.NotReadyException;
 import com.irurueta.navigation.frames.ECEFFrame;
 import com.irurueta.navigation.inertial.BodyKinematics;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluator;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluatorListener;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationFrameBodyKinematics;
 import com.irurueta.navigation.inertial.estimators.ECEFKinematicsEstimator;
 import com.irurueta.numerical.robust.InliersData;
@@ -174,6 +176,21 @@ public abstract class RobustKnownBiasAndFrameAccelerometerCalibrator {
      */
     protected float mProgressDelta = DEFAULT_PROGRESS_DELTA;
 
+    /**
+     * Evaluates residuals of measurements respect to preliminary solutions found
+     * during robust estimation, possibly using multiple threads.
+     */
+    private final ParallelResidualEvaluator<Matrix> mResidualEvaluator =
+            new ParallelResidualEvaluator<>(
+                    new ParallelResidualEvaluatorListener<Matrix>() {
+                        @Override
+                        public double computeResidual(
+                                final Matrix estimation, final int i,
+                                final int worker) {
+                            return computeError(mMeasurements.get(i), estimation);
+                        }
+                    });
+
     /**
      * Amount of confidence expressed as a value between 0.0 and 1.0 (which is equivalent
      * to 100%). The amount of confidence indicates the probability that the estimated
@@ -1897,6 +1914,50 @@ public abstract class RobustKnownBiasAndFrameAccelerometerCalibrator {
         mProgressDelta = progressDelta;
     }
 
+    /**
+     * Gets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @return parallelism level.
+     */
+    public int getParallelism() {
+        return mResidualEvaluator.getParallelism();
+    }
+
+    /**
+     * Sets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @param parallelism parallelism level.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if calibrator is currently running.
+     */
+    public void setParallelism(final int parallelism) throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.setParallelism(parallelism);
+    }
+
+    /**
+     * Releases worker threads used to evaluate residuals of measurements in
+     * parallel, if any.
+     * Calibrator can still be used afterwards, in which case worker threads
+     * are created again when needed.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void close() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.close();
+    }
+
     /**
      * Returns amount of confidence expressed as a value between 0.0 and 1.0
      * (which is equivalent to 100%). The amount of confidence indicates the probability
@@ -5841,6 +5902,20 @@ public abstract class RobustKnownBiasAndFrameAccelerometerCalibrator {
                 DEFAULT_ROBUST_METHOD);
     }
 
+    /**
+     * Evaluates residual of measurement at provided position respect to a
+     * preliminary result using configured parallelism.
+     *
+     * @param preliminaryResult a preliminary result.
+     * @param i                 position of measurement.
+     * @return computed residual.
+     */
+    protected double evaluateResidual(final Matrix preliminaryResult,
+                                      final int i) {
+        return mResidualEvaluator.evaluate(preliminaryResult, i,
+                mMeasurements.size());
+    }
+
     /**
      * Computes error of a preliminary result respect a given measurement.
      *
@@ -5910,6 +5985,8 @@ public abstract class RobustKnownBiasAndFrameAccelerometerCalibrator {
      */
     protected void computePreliminarySolutions(final int[] samplesIndices,
                                                final List<Matrix> solutions) {
+        // residuals kept for previous solutions must not be reused
+        mResidualEvaluator.reset();
 
         final List<StandardDeviationFrameBodyKinematics> measurements = new ArrayList<>();
 
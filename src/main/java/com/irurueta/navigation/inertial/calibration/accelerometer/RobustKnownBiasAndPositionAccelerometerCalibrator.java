@@ -30,6 +30,8 @@ import com.irurueta.navigation.inertial.ECEFVelocity;
 import com.irurueta.navigation.inertial.NEDPosition;
 import com.irurueta.navigation.inertial.NEDVelocity;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluator;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluatorListener;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationBodyKinematics;
 import com.irurueta.navigation.inertial.estimators.ECEFGravityEstimator;
 import com.irurueta.numerical.robust.InliersData;
@@ -165,6 +167,21 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
      */
     protected float mProgressDelta = DEFAULT_PROGRESS_DELTA;
 
+    /**
+     * Evaluates residuals of measurements respect to preliminary solutions found
+     * during robust estimation, possibly using multiple threads.
+     */
+    private final ParallelResidualEvaluator<PreliminaryResult> mResidualEvaluator =
+            new ParallelResidualEvaluator<>(
+                    new ParallelResidualEvaluatorListener<PreliminaryResult>() {
+                        @Override
+                        public double computeResidual(
+                                final PreliminaryResult estimation, final int i,
+                                final int worker) {
+                            return computeError(mMeasurements.get(i), estimation, worker);
+                        }
+                    });
+
     /**
      * Amount of confidence expressed as a value between 0.0 and 1.0 (which is equivalent
      * to 100%). The amount of confidence indicates the probability that the estimated
@@ -362,6 +379,12 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
      */
     protected Matrix mTmp4;
 
+    /**
+     * Contains temporary matrices of each additional worker thread used to
+     * compute errors when parallelism is greater than one.
+     */
+    private ErrorBuffers[] mWorkerBuffers = new ErrorBuffers[0];
+
     /**
      * Constructor.
      */
@@ -2008,6 +2031,51 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
         mProgressDelta = progressDelta;
     }
 
+    /**
+     * Gets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @return parallelism level.
+     */
+    public int getParallelism() {
+        return mResidualEvaluator.getParallelism();
+    }
+
+    /**
+     * Sets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @param parallelism parallelism level.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if calibrator is currently running.
+     */
+    public void setParallelism(final int parallelism) throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.setParallelism(parallelism);
+        mWorkerBuffers = new ErrorBuffers[parallelism - 1];
+    }
+
+    /**
+     * Releases worker threads used to evaluate residuals of measurements in
+     * parallel, if any.
+     * Calibrator can still be used afterwards, in which case worker threads
+     * are created again when needed.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void close() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.close();
+    }
+
     /**
      * Returns amount of confidence expressed as a value between 0.0 and 1.0
      * (which is equivalent to 100%). The amount of confidence indicates the probability
@@ -6164,6 +6232,20 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
                 listener, DEFAULT_ROBUST_METHOD);
     }
 
+    /**
+     * Evaluates residual of measurement at provided position respect to a
+     * preliminary result using configured parallelism.
+     *
+     * @param preliminaryResult a preliminary result.
+     * @param i                 position of measurement.
+     * @return computed residual.
+     */
+    protected double evaluateResidual(final PreliminaryResult preliminaryResult,
+                                      final int i) {
+        return mResidualEvaluator.evaluate(preliminaryResult, i,
+                mMeasurements.size());
+    }
+
     /**
      * Computes error of preliminary result respect a given measurement for current gravity norm.
      *
@@ -6176,19 +6258,6 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
             final PreliminaryResult preliminaryResult) {
 
         try {
-            // We know that measured specific force is:
-            // fmeas = ba + (I + Ma) * ftrue
-
-            // fmeas - ba = (I + Ma) * ftrue
-
-            // ftrue = (I + Ma)^-1 * (fmeas - ba)
-
-            // We know that ||ftrue|| should be equal to the gravity value at current Earth
-            // position
-            // ||ftrue|| = g ~ 9.81 m/s^2
-
-            final Matrix estimatedMa = preliminaryResult.mEstimatedMa;
-
             if (mIdentity == null) {
                 mIdentity = Matrix.identity(BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
             }
@@ -6209,31 +6278,99 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
                 mTmp4 = new Matrix(BodyKinematics.COMPONENTS, 1);
             }
 
-            mIdentity.add(estimatedMa, mTmp1);
-
-            Utils.inverse(mTmp1, mTmp2);
+            return computeError(measurement, preliminaryResult, mIdentity,
+                    mTmp1, mTmp2, mTmp3, mTmp4);
 
-            final BodyKinematics kinematics = measurement.getKinematics();
-            final double fmeasX = kinematics.getFx();
-            final double fmeasY = kinematics.getFy();
-            final double fmeasZ = kinematics.getFz();
-
-            mTmp3.setElementAtIndex(0, fmeasX - mBiasX);
-            mTmp3.setElementAtIndex(1, fmeasY - mBiasY);
-            mTmp3.setElementAtIndex(2, fmeasZ - mBiasZ);
+        } catch (final AlgebraException e) {
+            return Double.MAX_VALUE;
+        }
+    }
 
-            mTmp2.multiply(mTmp3, mTmp4);
+    /**
+     * Computes error of a preliminary result respect a given measurement using
+     * temporary matrices of provided worker.
+     *
+     * @param measurement       a measurement.
+     * @param preliminaryResult a preliminary result.
+     * @param worker            position of worker computing the error.
+     * @return computed error.
+     */
+    private double computeError(
+            final StandardDeviationBodyKinematics measurement,
+            final PreliminaryResult preliminaryResult, final int worker) {
+        if (worker == 0) {
+            return computeError(measurement, preliminaryResult);
+        }
 
-            final double norm = Utils.normF(mTmp4);
-            final double diff = mGravityNorm - norm;
+        try {
+            ErrorBuffers buffers = mWorkerBuffers[worker - 1];
+            if (buffers == null) {
+                buffers = new ErrorBuffers();
+                mWorkerBuffers[worker - 1] = buffers;
+            }
 
-            return diff * diff;
+            return computeError(measurement, preliminaryResult,
+                    buffers.mIdentity, buffers.mTmp1, buffers.mTmp2,
+                    buffers.mTmp3, buffers.mTmp4);
 
         } catch (final AlgebraException e) {
             return Double.MAX_VALUE;
         }
     }
 
+    /**
+     * Computes error of a preliminary result respect a given measurement using
+     * provided temporary matrices.
+     *
+     * @param measurement       a measurement.
+     * @param preliminaryResult a preliminary result.
+     * @param identity          3x3 identity.
+     * @param tmp1              3x3 temporary matrix.
+     * @param tmp2              3x3 temporary matrix.
+     * @param tmp3              3x1 temporary matrix.
+     * @param tmp4              3x1 temporary matrix.
+     * @return computed error.
+     * @throws AlgebraException if preliminary result is numerically unstable.
+     */
+    private double computeError(
+            final StandardDeviationBodyKinematics measurement,
+            final PreliminaryResult preliminaryResult, final Matrix identity,
+            final Matrix tmp1, final Matrix tmp2, final Matrix tmp3,
+            final Matrix tmp4) throws AlgebraException {
+        // We know that measured specific force is:
+        // fmeas = ba + (I + Ma) * ftrue
+
+        // fmeas - ba = (I + Ma) * ftrue
+
+        // ftrue = (I + Ma)^-1 * (fmeas - ba)
+
+        // We know that ||ftrue|| should be equal to the gravity value at current Earth
+        // position
+        // ||ftrue|| = g ~ 9.81 m/s^2
+
+        final Matrix estimatedMa = preliminaryResult.mEstimatedMa;
+
+        identity.add(estimatedMa, tmp1);
+
+        Utils.inverse(tmp1, tmp2);
+
+        final BodyKinematics kinematics = measurement.getKinematics();
+        final double fmeasX = kinematics.getFx();
+        final double fmeasY = kinematics.getFy();
+        final double fmeasZ = kinematics.getFz();
+
+        tmp3.setElementAtIndex(0, fmeasX - mBiasX);
+        tmp3.setElementAtIndex(1, fmeasY - mBiasY);
+        tmp3.setElementAtIndex(2, fmeasZ - mBiasZ);
+
+        tmp2.multiply(tmp3, tmp4);
+
+        final double norm = Utils.normF(tmp4);
+        final double diff = mGravityNorm - norm;
+
+        return diff * diff;
+    }
+
     /**
      * Computes a preliminary solution for a subset of samples picked by a robust estimator.
      *
@@ -6243,6 +6380,8 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
     protected void computePreliminarySolutions(
             final int[] samplesIndices,
             final List<PreliminaryResult> solutions) {
+        // residuals kept for previous solutions must not be reused
+        mResidualEvaluator.reset();
 
         final List<StandardDeviationBodyKinematics> measurements = new ArrayList<>();
 
@@ -6401,4 +6540,50 @@ public abstract class RobustKnownBiasAndPositionAccelerometerCalibrator {
          */
         private Matrix mEstimatedMa;
     }
+
+    /**
+     * Contains temporary matrices used by a worker thread to compute errors.
+     */
+    private static final class ErrorBuffers {
+        /**
+         * Contains 3x3 identity.
+         */
+        private final Matrix mIdentity;
+
+        /**
+         * Contains 3x3 temporary matrix.
+         */
+        private final Matrix mTmp1;
+
+        /**
+         * Contains 3x3 temporary matrix.
+         */
+        private final Matrix mTmp2;
+
+        /**
+         * Contains 3x1 temporary matrix.
+         */
+        private final Matrix mTmp3;
+
+        /**
+         * Contains 3x1 temporary matrix.
+         */
+        private final Matrix mTmp4;
+
+        /**
+         * Constructor.
+         *
+         * @throws WrongSizeException never happens.
+         */
+        private ErrorBuffers() throws WrongSizeException {
+            mIdentity = Matrix.identity(BodyKinematics.COMPONENTS,
+                    BodyKinematics.COMPONENTS);
+            mTmp1 = new Matrix(BodyKinematics.COMPONENTS,
+                    BodyKinematics.COMPONENTS);
+            mTmp2 = new Matrix(BodyKinematics.COMPONENTS,
+                    BodyKinematics.COMPONENTS);
+            mTmp3 = new Matrix(BodyKinematics.COMPONENTS, 1);
+            mTmp4 = new Matrix(BodyKinematics.COMPONENTS, 1);
+        }
+    }
 }
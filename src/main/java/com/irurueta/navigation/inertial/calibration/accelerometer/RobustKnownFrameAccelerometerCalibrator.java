@@ -22,6 +22,8 @@ import com.irurueta.navigation.NotReadyException;
 import com.irurueta.navigation.frames.ECEFFrame;
 import com.irurueta.navigation.inertial.BodyKinematics;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluator;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluatorListener;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationFrameBodyKinematics;
 import com.irurueta.navigation.inertial.estimators.ECEFKinematicsEstimator;
 import com.irurueta.numerical.robust.InliersData;
@@ -173,6 +175,21 @@ public abstract class RobustKnownFrameAccelerometerCalibrator {
      */
     protected float mProgressDelta = DEFAULT_PROGRESS_DELTA;
 
+    /**
+     * Evaluates residuals of measurements respect to preliminary solutions found
+     * during robust estimation, possibly using multiple threads.
+     */
+    private final ParallelResidualEvaluator<PreliminaryResult> mResidualEvaluator =
+            new ParallelResidualEvaluator<>(
+                    new ParallelResidualEvaluatorListener<PreliminaryResult>() {
+                        @Override
+                        public double computeResidual(
+                                final PreliminaryResult estimation, final int i,
+                                final int worker) {
+                            return computeError(mMeasurements.get(i), estimation);
+                        }
+                    });
+
     /**
      * Amount of confidence expressed as a value between 0.0 and 1.0 (which is equivalent
      * to 100%). The amount of confidence indicates the probability that the estimated
@@ -1374,6 +1391,50 @@ public abstract class RobustKnownFrameAccelerometerCalibrator {
         mProgressDelta = progressDelta;
     }
 
+    /**
+     * Gets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @return parallelism level.
+     */
+    public int getParallelism() {
+        return mResidualEvaluator.getParallelism();
+    }
+
+    /**
+     * Sets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @param parallelism parallelism level.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if calibrator is currently running.
+     */
+    public void setParallelism(final int parallelism) throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.setParallelism(parallelism);
+    }
+
+    /**
+     * Releases worker threads used to evaluate residuals of measurements in
+     * parallel, if any.
+     * Calibrator can still be used afterwards, in which case worker threads
+     * are created again when needed.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void close() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.close();
+    }
+
     /**
      * Returns amount of confidence expressed as a value between 0.0 and 1.0
      * (which is equivalent to 100%). The amount of confidence indicates the probability
@@ -2666,6 +2727,20 @@ public abstract class RobustKnownFrameAccelerometerCalibrator {
                 DEFAULT_ROBUST_METHOD);
     }
 
+    /**
+     * Evaluates residual of measurement at provided position respect to a
+     * preliminary result using configured parallelism.
+     *
+     * @param preliminaryResult a preliminary result.
+     * @param i                 position of measurement.
+     * @return computed residual.
+     */
+    protected double evaluateResidual(final PreliminaryResult preliminaryResult,
+                                      final int i) {
+        return mResidualEvaluator.evaluate(preliminaryResult, i,
+                mMeasurements.size());
+    }
+
     /**
      * Computes error of a preliminary result respect a given measurement.
      *
@@ -2742,6 +2817,8 @@ public abstract class RobustKnownFrameAccelerometerCalibrator {
      */
     protected void computePreliminarySolutions(final int[] samplesIndices,
                                                final List<PreliminaryResult> solutions) {
+        // residuals kept for previous solutions must not be reused
+        mResidualEvaluator.reset();
 
         final List<StandardDeviationFrameBodyKinematics> measurements = new ArrayList<>();
 
@@ -16,8 +16,10 @@
 
 package com.irurueta.navigation.inertial.calibration.generators;
 
+import com.irurueta.navigation.LockedException;
 import com.irurueta.navigation.inertial.BodyKinematics;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationBodyKinematics;
+import com.irurueta.navigation.inertial.calibration.intervals.TriadStaticIntervalDetector;
 
 /**
  * Generates measurements for the calibration of accelerometers by alternating
@@ -44,6 +46,12 @@ public class AccelerometerMeasurementsGenerator extends
                 AccelerometerMeasurementsGenerator,
                 AccelerometerMeasurementsGeneratorListener, BodyKinematics> {
 
+    /**
+     * Body kinematics sample used to process blocks of samples.
+     * This is reused for memory efficiency.
+     */
+    private final BodyKinematics mBlockSample = new BodyKinematics();
+
     /**
      * Constructor.
      */
@@ -61,6 +69,47 @@ public class AccelerometerMeasurementsGenerator extends
         super(listener);
     }
 
+    /**
+     * Processes a block of specific force samples stored into primitive arrays, so
+     * that long recordings can be processed without creating a body kinematics
+     * instance per sample.
+     * Samples are processed in order until the whole block is processed or
+     * generator fails.
+     *
+     * @param fx     array containing x-coordinates of specific force expressed in
+     *               meters per squared second (m/s^2).
+     * @param fy     array containing y-coordinates of specific force expressed in
+     *               meters per squared second (m/s^2).
+     * @param fz     array containing z-coordinates of specific force expressed in
+     *               meters per squared second (m/s^2).
+     * @param offset position of first sample to be processed within arrays.
+     * @param length number of samples to be processed.
+     * @return number of processed samples, which will be less than provided length
+     * if generator fails. If generator previously failed, it will need to be reset
+     * before processing additional samples.
+     * @throws IllegalArgumentException if any array is null, offset or length are
+     *                                  negative or arrays do not contain the required
+     *                                  number of samples.
+     * @throws LockedException          if generator is busy processing a previous
+     *                                  sample.
+     */
+    public int process(final double[] fx, final double[] fy, final double[] fz,
+                       final int offset, final int length) throws LockedException {
+        TriadStaticIntervalDetector.checkBlock(offset, length, fx, fy, fz);
+
+        final int end = offset + length;
+        int processed = 0;
+        for (int i = offset; i < end; i++) {
+            mBlockSample.setSpecificForceCoordinates(fx[i], fy[i], fz[i]);
+            if (!process(mBlockSample)) {
+                break;
+            }
+            processed++;
+        }
+
+        return processed;
+    }
+
     /**
      * Post process provided input sample.
      *
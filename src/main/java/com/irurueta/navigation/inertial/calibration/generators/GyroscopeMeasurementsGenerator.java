@@ -28,6 +28,7 @@ import com.irurueta.units.AngularSpeed;
 import com.irurueta.units.AngularSpeedUnit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -53,6 +54,17 @@ public class GyroscopeMeasurementsGenerator extends
                 GyroscopeMeasurementsGenerator,
                 GyroscopeMeasurementGeneratorListener, TimedBodyKinematics> {
 
+    /**
+     * Number of values stored for each item of a sequence (timestamp, specific force
+     * and angular rate coordinates).
+     */
+    private static final int SEQUENCE_ITEM_LENGTH = 7;
+
+    /**
+     * Initial number of items that can be stored into sequence buffer.
+     */
+    private static final int INITIAL_SEQUENCE_CAPACITY = 64;
+
     /**
      * An angular speed triad.
      * This is reused for memory efficiency.
@@ -61,9 +73,25 @@ public class GyroscopeMeasurementsGenerator extends
             new AngularSpeedTriad();
 
     /**
-     * Items to be added to a generated sequence when next static period occurs.
+     * Timed body kinematics sample used to process blocks of samples.
+     * This is reused for memory efficiency.
      */
-    private List<StandardDeviationTimedBodyKinematics> mCurrentSequenceItems;
+    private final TimedBodyKinematics mBlockSample =
+            new TimedBodyKinematics(new BodyKinematics());
+
+    /**
+     * Buffer containing timestamps, specific forces and angular rates of items to
+     * be added to a generated sequence when next static period occurs.
+     * Buffer is reused between sequences and only grows when a dynamic period
+     * longer than any previous one is found, so that no instances are created for
+     * items until a sequence is actually generated.
+     */
+    private double[] mCurrentSequenceValues;
+
+    /**
+     * Number of items stored into sequence buffer.
+     */
+    private int mCurrentSequenceItemsCount;
 
     /**
      * Accumulated noise estimator for angular speed measurements.
@@ -150,7 +178,7 @@ public class GyroscopeMeasurementsGenerator extends
     public void reset() throws LockedException {
         super.reset();
 
-        mCurrentSequenceItems = null;
+        mCurrentSequenceItemsCount = 0;
 
         mAccelerationStandardDeviation = 0.0;
         mAngularSpeedStandardDeviation = 0.0;
@@ -235,6 +263,62 @@ public class GyroscopeMeasurementsGenerator extends
         result.setUnit(AngularSpeedUnit.RADIANS_PER_SECOND);
     }
 
+    /**
+     * Processes a block of timed body kinematics samples stored into primitive
+     * arrays, so that long recordings can be processed without creating a timed
+     * body kinematics instance per sample.
+     * Samples are processed in order until the whole block is processed or
+     * generator fails.
+     *
+     * @param timestamps   array containing timestamps expressed in seconds (s).
+     * @param fx           array containing x-coordinates of specific force
+     *                     expressed in meters per squared second (m/s^2).
+     * @param fy           array containing y-coordinates of specific force
+     *                     expressed in meters per squared second (m/s^2).
+     * @param fz           array containing z-coordinates of specific force
+     *                     expressed in meters per squared second (m/s^2).
+     * @param angularRateX array containing x-coordinates of angular rate expressed
+     *                     in radians per second (rad/s).
+     * @param angularRateY array containing y-coordinates of angular rate expressed
+     *                     in radians per second (rad/s).
+     * @param angularRateZ array containing z-coordinates of angular rate expressed
+     *                     in radians per second (rad/s).
+     * @param offset       position of first sample to be processed within arrays.
+     * @param length       number of samples to be processed.
+     * @return number of processed samples, which will be less than provided length
+     * if generator fails. If generator previously failed, it will need to be reset
+     * before processing additional samples.
+     * @throws IllegalArgumentException if any array is null, offset or length are
+     *                                  negative or arrays do not contain the required
+     *                                  number of samples.
+     * @throws LockedException          if generator is busy processing a previous
+     *                                  sample.
+     */
+    public int process(final double[] timestamps,
+                       final double[] fx, final double[] fy, final double[] fz,
+                       final double[] angularRateX, final double[] angularRateY,
+                       final double[] angularRateZ, final int offset, final int length)
+            throws LockedException {
+        TriadStaticIntervalDetector.checkBlock(offset, length, timestamps,
+                fx, fy, fz, angularRateX, angularRateY, angularRateZ);
+
+        final BodyKinematics kinematics = mBlockSample.getKinematics();
+        final int end = offset + length;
+        int processed = 0;
+        for (int i = offset; i < end; i++) {
+            mBlockSample.setTimestampSeconds(timestamps[i]);
+            kinematics.setSpecificForceCoordinates(fx[i], fy[i], fz[i]);
+            kinematics.setAngularRateCoordinates(
+                    angularRateX[i], angularRateY[i], angularRateZ[i]);
+            if (!process(mBlockSample)) {
+                break;
+            }
+            processed++;
+        }
+
+        return processed;
+    }
+
     /**
      * Post process provided input sample.
      *
@@ -258,7 +342,7 @@ public class GyroscopeMeasurementsGenerator extends
             if (isDynamicIntervalSkipped()) {
                 // dynamic interval has been skipped because there were too many
                 // items in the sequence.
-                mCurrentSequenceItems = null;
+                mCurrentSequenceItemsCount = 0;
             } else {
                 if (mPreviousStatus == TriadStaticIntervalDetector.Status.STATIC_INTERVAL) {
                     mPreviousAvgX = mStaticIntervalDetector.getAccumulatedAvgX();
@@ -270,7 +354,7 @@ public class GyroscopeMeasurementsGenerator extends
             }
         } else if (status == TriadStaticIntervalDetector.Status.STATIC_INTERVAL) {
             if (mPreviousStatus == TriadStaticIntervalDetector.Status.DYNAMIC_INTERVAL
-                && mCurrentSequenceItems != null && !mCurrentSequenceItems.isEmpty()) {
+                && mCurrentSequenceItemsCount > 0) {
 
                 mCurrentAvgX = mStaticIntervalDetector.getInstantaneousAvgX();
                 mCurrentAvgY = mStaticIntervalDetector.getInstantaneousAvgY();
@@ -281,11 +365,11 @@ public class GyroscopeMeasurementsGenerator extends
                         new BodyKinematicsSequence<>();
                 sequence.setBeforeMeanSpecificForceCoordinates(
                         mPreviousAvgX, mPreviousAvgY, mPreviousAvgZ);
-                sequence.setItems(mCurrentSequenceItems);
+                sequence.setItems(createSequenceItems());
                 sequence.setAfterMeanSpecificForceCoordinates(
                         mCurrentAvgX, mCurrentAvgY, mCurrentAvgZ);
 
-                mCurrentSequenceItems = null;
+                mCurrentSequenceItemsCount = 0;
 
                 if (mListener != null) {
                     mListener.onGeneratedMeasurement(this, sequence);
@@ -377,17 +461,51 @@ public class GyroscopeMeasurementsGenerator extends
      * @param sample sample to generate a sequence item from.
      */
     private void addSequenceItem(final TimedBodyKinematics sample) {
-        if (mCurrentSequenceItems == null) {
-            mCurrentSequenceItems = new ArrayList<>();
+        if (mCurrentSequenceValues == null) {
+            mCurrentSequenceValues =
+                    new double[INITIAL_SEQUENCE_CAPACITY * SEQUENCE_ITEM_LENGTH];
         }
 
-        final BodyKinematics kinematics = new BodyKinematics(
-                sample.getKinematics());
-        final double timestampSeconds = sample.getTimestampSeconds();
-        final StandardDeviationTimedBodyKinematics stdTimedKinematics =
-                new StandardDeviationTimedBodyKinematics(kinematics,
-                        timestampSeconds, mAccelerationStandardDeviation,
-                        mAngularSpeedStandardDeviation);
-        mCurrentSequenceItems.add(stdTimedKinematics);
+        int pos = mCurrentSequenceItemsCount * SEQUENCE_ITEM_LENGTH;
+        if (pos + SEQUENCE_ITEM_LENGTH > mCurrentSequenceValues.length) {
+            mCurrentSequenceValues = Arrays.copyOf(mCurrentSequenceValues,
+                    2 * mCurrentSequenceValues.length);
+        }
+
+        final BodyKinematics kinematics = sample.getKinematics();
+        mCurrentSequenceValues[pos++] = sample.getTimestampSeconds();
+        mCurrentSequenceValues[pos++] = kinematics.getFx();
+        mCurrentSequenceValues[pos++] = kinematics.getFy();
+        mCurrentSequenceValues[pos++] = kinematics.getFz();
+        mCurrentSequenceValues[pos++] = kinematics.getAngularRateX();
+        mCurrentSequenceValues[pos++] = kinematics.getAngularRateY();
+        mCurrentSequenceValues[pos] = kinematics.getAngularRateZ();
+        mCurrentSequenceItemsCount++;
+    }
+
+    /**
+     * Creates items of a generated sequence from values stored into sequence
+     * buffer.
+     *
+     * @return items of a generated sequence.
+     */
+    private List<StandardDeviationTimedBodyKinematics> createSequenceItems() {
+        final List<StandardDeviationTimedBodyKinematics> result =
+                new ArrayList<>(mCurrentSequenceItemsCount);
+        int pos = 0;
+        for (int i = 0; i < mCurrentSequenceItemsCount; i++) {
+            final double timestampSeconds = mCurrentSequenceValues[pos++];
+            final BodyKinematics kinematics = new BodyKinematics(
+                    mCurrentSequenceValues[pos++],
+                    mCurrentSequenceValues[pos++],
+                    mCurrentSequenceValues[pos++],
+                    mCurrentSequenceValues[pos++],
+                    mCurrentSequenceValues[pos++],
+                    mCurrentSequenceValues[pos++]);
+            result.add(new StandardDeviationTimedBodyKinematics(kinematics,
+                    timestampSeconds, mAccelerationStandardDeviation,
+                    mAngularSpeedStandardDeviation));
+        }
+        return result;
     }
 }
@@ -20,8 +20,6 @@ import com.irurueta.algebra.ArrayUtils;
 import com.irurueta.algebra.Matrix;
 import com.irurueta.algebra.Utils;
 import com.irurueta.algebra.WrongSizeException;
-import com.irurueta.geometry.InhomogeneousPoint3D;
-import com.irurueta.geometry.Quaternion;
 import com.irurueta.navigation.LockedException;
 import com.irurueta.navigation.NotReadyException;
 import com.irurueta.navigation.inertial.BodyKinematics;
@@ -30,8 +28,6 @@ import com.irurueta.navigation.inertial.calibration.BodyKinematicsSequence;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationTimedBodyKinematics;
 import com.irurueta.numerical.EvaluationException;
-import com.irurueta.numerical.GradientEstimator;
-import com.irurueta.numerical.MultiDimensionFunctionEvaluatorListener;
 import com.irurueta.numerical.fitting.FittingException;
 import com.irurueta.numerical.fitting.LevenbergMarquardtMultiDimensionFitter;
 import com.irurueta.numerical.fitting.LevenbergMarquardtMultiDimensionFunctionEvaluator;
@@ -409,97 +405,28 @@ public class EasyGyroscopeCalibrator {
             new AccelerationFixer();
 
     /**
-     * Index of current point being evaluated.
+     * Evaluates gravity versor error of a sequence and its derivatives respect
+     * to parameters being estimated during calibration.
      */
-    private int mI;
+    private GyroscopeCalibrationJacobianEvaluator mJacobianEvaluator;
 
     /**
-     * Holds integrated rotation of a sequence.
+     * Contains timestamps of sorted items of each sequence expressed in seconds.
      */
-    private final Quaternion mQ = new Quaternion();
+    private List<double[]> mTimestamps;
 
     /**
-     * Contains a copy of input sequences where fixed body kinematics will be updated.
+     * Contains measured angular rates of sorted items of each sequence, stored
+     * as 3 consecutive values per item.
      */
-    private List<BodyKinematicsSequence<StandardDeviationTimedBodyKinematics>> mFixedSequences;
+    private List<double[]> mMeasuredAngularRates;
 
     /**
-     * Contains measured specific force on a sample within a sequence
-     * expressed as a 3x1 matrix.
+     * Contains specific forces of sorted items of each sequence fixed using
+     * provided accelerometer parameters, stored as 3 consecutive values per
+     * item.
      */
-    private Matrix mMeasuredSpecificForce;
-
-    /**
-     * Contains fixed specific force for a sample within a sequence
-     * using provided accelerometer parameters and expressed as a 3x1
-     * matrix.
-     */
-    private Matrix mTrueSpecificForce;
-
-    /**
-     * Contains measured angular rate on a sample within a sequence
-     * expressed as a 3x1 matrix.
-     */
-    private Matrix mMeasuredAngularRate;
-
-    /**
-     * Contains fixed specific force for a samplewithin a sequence
-     * using current parameters being estimated.
-     */
-    private Matrix mTrueAngularRate;
-
-    /**
-     * Internally holds cross-coupling errors during calibration.
-     */
-    private Matrix mM;
-
-    /**
-     * Internally holds inverse of cross-coupling errors during calibration.
-     */
-    private Matrix mInvM;
-
-    /**
-     * Internally holds biases during calibration.
-     */
-    private Matrix mB;
-
-    /**
-     * Internally hold g-dependent cross biases during calibration.
-     */
-    private Matrix mG;
-
-    /**
-     * Internally holds angular rate bias due to g-dependent cross biases
-     */
-    private Matrix mTmp;
-
-    /**
-     * Holds normalized gravity versor at the start of a sequence.
-     * This is used to compute rotations of gravity versor during
-     * calibration.
-     */
-    private final InhomogeneousPoint3D mStartPoint = new InhomogeneousPoint3D();
-
-    /**
-     * Holds normalized gravity versor at the end of a sequence.
-     * This is used to compute rotations of gravity versor during
-     * calibration.
-     */
-    private final InhomogeneousPoint3D mEndPoint = new InhomogeneousPoint3D();
-
-    /**
-     * Contains expected gravity versor obtained from measurements fixed
-     * using known accelerometer parameters.
-     * This is reused for memory efficiency purposes during calibration.
-     */
-    private final InhomogeneousPoint3D mExpectedEndPoint = new InhomogeneousPoint3D();
-
-    /**
-     * Array containing normalized gravity versor before (former 3 values)
-     * and after (latter 3 values) a given sequence.
-     * This is used during calibration.
-     */
-    private double[] mPoint;
+    private List<double[]> mTrueSpecificForces;
 
     /**
      * Constructor.
@@ -3222,14 +3149,8 @@ public class EasyGyroscopeCalibrator {
         // Notice that M is upper diagonal because Mg is upper diagonal
         // when common axis is assumed
 
-        final GradientEstimator gradientEstimator = new GradientEstimator(
-                new MultiDimensionFunctionEvaluatorListener() {
-                    @Override
-                    public double evaluate(final double[] params)
-                            throws EvaluationException {
-                        return evaluateCommonAxisWithGDependentCrossBiases(mI, params);
-                    }
-                });
+        mJacobianEvaluator = new GyroscopeCalibrationJacobianEvaluator(
+                true, true, true);
 
         final Matrix initialM = Matrix.identity(
                 BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
@@ -3289,15 +3210,9 @@ public class EasyGyroscopeCalibrator {
                             final int i, final double[] point,
                             final double[] params, final double[] derivatives)
                             throws EvaluationException {
-                        mI = i;
-
                         // point contains fixed gravity versor values for current
                         // sequence
-                        mPoint = point;
-
-                        gradientEstimator.gradient(params, derivatives);
-
-                        return evaluateCommonAxisWithGDependentCrossBiases(i, params);
+                        return evaluateWithJacobian(i, point, params, derivatives);
                     }
                 });
 
@@ -3401,14 +3316,8 @@ public class EasyGyroscopeCalibrator {
         // Ωmeas - M*b - M*G*ftrue = M*Ωtrue
         // M^-1 * (Ωmeas - M*b - M*G*ftrue) = Ωtrue
 
-        final GradientEstimator gradientEstimator = new GradientEstimator(
-                new MultiDimensionFunctionEvaluatorListener() {
-                    @Override
-                    public double evaluate(final double[] params)
-                            throws EvaluationException {
-                        return evaluateGeneralWithGDependentCrossBiases(mI, params);
-                    }
-                });
+        mJacobianEvaluator = new GyroscopeCalibrationJacobianEvaluator(
+                true, false, true);
 
         final Matrix initialM = Matrix.identity(
                 BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
@@ -3457,15 +3366,9 @@ public class EasyGyroscopeCalibrator {
                             final int i, final double[] point,
                             final double[] params, final double[] derivatives)
                             throws EvaluationException {
-                        mI = i;
-
                         // point contains fixed gravity versor values for current
                         // sequence
-                        mPoint = point;
-
-                        gradientEstimator.gradient(params, derivatives);
-
-                        return evaluateGeneralWithGDependentCrossBiases(i, params);
+                        return evaluateWithJacobian(i, point, params, derivatives);
                     }
                 });
 
@@ -3583,14 +3486,8 @@ public class EasyGyroscopeCalibrator {
         // Notice that M is upper diagonal because Mg is upper diagonal
         // when common axis is assumed
 
-        final GradientEstimator gradientEstimator = new GradientEstimator(
-                new MultiDimensionFunctionEvaluatorListener() {
-                    @Override
-                    public double evaluate(final double[] params)
-                            throws EvaluationException {
-                        return evaluateCommonAxis(mI, params);
-                    }
-                });
+        mJacobianEvaluator = new GyroscopeCalibrationJacobianEvaluator(
+                true, true, false);
 
         final Matrix initialM = Matrix.identity(
                 BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
@@ -3641,15 +3538,9 @@ public class EasyGyroscopeCalibrator {
                             final int i, final double[] point,
                             final double[] params, final double[] derivatives)
                             throws EvaluationException {
-                        mI = i;
-
                         // point contains fixed gravity versor values for current
                         // sequence
-                        mPoint = point;
-
-                        gradientEstimator.gradient(params, derivatives);
-
-                        return evaluateCommonAxis(i, params);
+                        return evaluateWithJacobian(i, point, params, derivatives);
                     }
                 });
 
@@ -3732,14 +3623,8 @@ public class EasyGyroscopeCalibrator {
 
         // M^-1 * (Ωmeas - M*b) = Ωtrue
 
-        final GradientEstimator gradientEstimator = new GradientEstimator(
-                new MultiDimensionFunctionEvaluatorListener() {
-                    @Override
-                    public double evaluate(final double[] params)
-                            throws EvaluationException {
-                        return evaluateGeneral(mI, params);
-                    }
-                });
+        mJacobianEvaluator = new GyroscopeCalibrationJacobianEvaluator(
+                true, false, false);
 
         final Matrix initialM = Matrix.identity(
                 BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
@@ -3780,15 +3665,9 @@ public class EasyGyroscopeCalibrator {
                             final int i, final double[] point,
                             final double[] params, final double[] derivatives)
                             throws EvaluationException {
-                        mI = i;
-
                         // point contains fixed gravity versor values for current
                         // sequence
-                        mPoint = point;
-
-                        gradientEstimator.gradient(params, derivatives);
-
-                        return evaluateGeneral(i, params);
+                        return evaluateWithJacobian(i, point, params, derivatives);
                     }
                 });
 
@@ -3858,16 +3737,44 @@ public class EasyGyroscopeCalibrator {
         final double[] y = new double[numSequences];
         final double[] standardDeviations = new double[numSequences];
 
-        // make a copy of input sequences that will be used to update
-        // kinematics measurements with fixed values for memory efficiency
+        mAccelerationFixer.setBias(ba);
+        mAccelerationFixer.setCrossCouplingErrors(ma);
 
-        mFixedSequences = new ArrayList<>();
+        // keep timestamps, measured angular rates and fixed specific forces of
+        // sorted sequence items into arrays, since fixed specific forces only
+        // depend on known accelerometer parameters and do not need to be
+        // computed again on each evaluation
+        mTimestamps = new ArrayList<>();
+        mMeasuredAngularRates = new ArrayList<>();
+        mTrueSpecificForces = new ArrayList<>();
+        final double[] measuredF = new double[BodyKinematics.COMPONENTS];
+        final double[] fixedF = new double[BodyKinematics.COMPONENTS];
         for (final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> sequence : mSequences) {
-            mFixedSequences.add(new BodyKinematicsSequence<>(sequence));
-        }
+            final List<StandardDeviationTimedBodyKinematics> items = sequence.getSortedItems();
+            final int numItems = items.size();
+            final double[] timestamps = new double[numItems];
+            final double[] angularRates = new double[BodyKinematics.COMPONENTS * numItems];
+            final double[] specificForces = new double[BodyKinematics.COMPONENTS * numItems];
+            for (int j = 0, k = 0; j < numItems; j++, k += BodyKinematics.COMPONENTS) {
+                final StandardDeviationTimedBodyKinematics item = items.get(j);
+                final BodyKinematics kinematics = item.getKinematics();
+                timestamps[j] = item.getTimestampSeconds();
+
+                angularRates[k] = kinematics.getAngularRateX();
+                angularRates[k + 1] = kinematics.getAngularRateY();
+                angularRates[k + 2] = kinematics.getAngularRateZ();
+
+                measuredF[0] = kinematics.getFx();
+                measuredF[1] = kinematics.getFy();
+                measuredF[2] = kinematics.getFz();
+                mAccelerationFixer.fix(measuredF, fixedF);
+                System.arraycopy(fixedF, 0, specificForces, k, BodyKinematics.COMPONENTS);
+            }
 
-        mAccelerationFixer.setBias(ba);
-        mAccelerationFixer.setCrossCouplingErrors(ma);
+            mTimestamps.add(timestamps);
+            mMeasuredAngularRates.add(angularRates);
+            mTrueSpecificForces.add(specificForces);
+        }
 
         int i = 0;
         for (final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> sequence : mSequences) {
@@ -4012,363 +3919,30 @@ public class EasyGyroscopeCalibrator {
 
     /**
      * Computes gravity versor error at the end of a sequence using provided
-     * parameters.
-     * This method is internally executed during gradient estimation and
-     * Levenberg-Marquardt fitting needed for calibration computation.
-     *
-     * @param i      row position.
-     * @param params array containing parameters for the general purpose case
-     *               when G-dependent cross biases are taken into account. Must
-     *               have length 18.
-     * @return error between estimated and measured gravity versor.
-     * @throws EvaluationException if there are numerical instabilities.
-     */
-    private double evaluateGeneralWithGDependentCrossBiases(
-            final int i, final double[] params)
-            throws EvaluationException {
-
-        final double bx = params[0];
-        final double by = params[1];
-        final double bz = params[2];
-
-        final double m11 = params[3];
-        final double m21 = params[4];
-        final double m31 = params[5];
-
-        final double m12 = params[6];
-        final double m22 = params[7];
-        final double m32 = params[8];
-
-        final double m13 = params[9];
-        final double m23 = params[10];
-        final double m33 = params[11];
-
-        final double g11 = params[12];
-        final double g21 = params[13];
-        final double g31 = params[14];
-
-        final double g12 = params[15];
-        final double g22 = params[16];
-        final double g32 = params[17];
-
-        final double g13 = params[18];
-        final double g23 = params[19];
-        final double g33 = params[20];
-
-        return evaluate(i, bx, by, bz, m11, m21, m31, m12, m22, m32,
-                m13, m23, m33, g11, g21, g31, g12, g22, g32,
-                g13, g23, g33);
-    }
-
-    /**
-     * Computes gravity versor error at the end of a sequence using provided
-     * parameters.
-     * This method is internally executed during gradient estimation and
-     * Levenberg-Marquardt fitting needed for calibration computation.
-     *
-     * @param i      row position.
-     * @param params array containing parameters for the general purpose case
-     *               when G-dependent cross biases are taken into account. Must
-     *               have length 15.
+     * parameters, along with its derivatives respect to those parameters.
+     * This method is internally executed during Levenberg-Marquardt fitting
+     * needed for calibration computation.
+     *
+     * @param i           row position.
+     * @param point       normalized gravity versor before (former 3 values) and
+     *                    after (latter 3 values) the sequence.
+     * @param params      array containing current parameters.
+     * @param derivatives array where derivatives of error respect to parameters
+     *                    will be stored.
      * @return error between estimated and measured gravity versor.
      * @throws EvaluationException if there are numerical instabilities.
      */
-    private double evaluateCommonAxisWithGDependentCrossBiases(
-            final int i, final double[] params)
-            throws EvaluationException {
-
-        final double bx = params[0];
-        final double by = params[1];
-        final double bz = params[2];
-
-        final double m11 = params[3];
-
-        final double m12 = params[4];
-        final double m22 = params[5];
-
-        final double m13 = params[6];
-        final double m23 = params[7];
-        final double m33 = params[8];
-
-        final double g11 = params[9];
-        final double g21 = params[10];
-        final double g31 = params[11];
-
-        final double g12 = params[12];
-        final double g22 = params[13];
-        final double g32 = params[14];
-
-        final double g13 = params[15];
-        final double g23 = params[16];
-        final double g33 = params[17];
-
-        return evaluate(i, bx, by, bz, m11, 0.0, 0.0, m12, m22, 0.0,
-                m13, m23, m33, g11, g21, g31, g12, g22, g32,
-                g13, g23, g33);
-    }
-
-    /**
-     * Computes gravity versor error at the end of a sequence using provided
-     * parameters.
-     * This method is internally executed during gradient estimation and
-     * Levenberg-Marquardt fitting needed for calibration computation.
-     *
-     * @param i      row position.
-     * @param params array containing current parameters for the general purpose case
-     *               when G-dependent cross biases are ignored. Must have length 9.
-     * @return error between estimated and measured gravity versor.
-     * @throws EvaluationException if there are numerical instabilities.
-     */
-    private double evaluateGeneral(
-            final int i, final double[] params)
-            throws EvaluationException {
-
-        final double bx = params[0];
-        final double by = params[1];
-        final double bz = params[2];
-
-        final double m11 = params[3];
-        final double m21 = params[4];
-        final double m31 = params[5];
-
-        final double m12 = params[6];
-        final double m22 = params[7];
-        final double m32 = params[8];
-
-        final double m13 = params[9];
-        final double m23 = params[10];
-        final double m33 = params[11];
-
-        return evaluate(i, bx, by, bz, m11, m21, m31, m12, m22, m32,
-                m13, m23, m33, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0,
-                0.0, 0.0, 0.0);
-    }
-
-    /**
-     * Computes gravity versor error at the end of a sequence using provided
-     * parameters.
-     * This method is internally executed during gradient estimation and
-     * Levenberg-Marquardt fitting needed for calibration computation.
-     *
-     * @param i      row position.
-     * @param params array containing current parameters for the common z-axis case
-     *               when G-dependent cross biases are ignored. Must have length 9.
-     * @return error between estimated and measured gravity versor.
-     * @throws EvaluationException if there are numerical instabilities.
-     */
-    private double evaluateCommonAxis(
-            final int i, final double[] params)
-            throws EvaluationException {
-        final double bx = params[0];
-        final double by = params[1];
-        final double bz = params[2];
-
-        final double m11 = params[3];
-
-        final double m12 = params[4];
-        final double m22 = params[5];
-
-        final double m13 = params[6];
-        final double m23 = params[7];
-        final double m33 = params[8];
-
-        return evaluate(i, bx, by, bz, m11, 0.0, 0.0, m12, m22, 0.0,
-                m13, m23, m33, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0,
-                0.0, 0.0, 0.0);
-    }
-
-    /**
-     * Computes gravity versor error at the end of a sequence using provided
-     * parameters.
-     * This method is internally executed during gradient estimation and
-     * Levenberg-Marquardt fitting needed for calibration computation.
-     *
-     * @param i   row position.
-     * @param bx  x coordinate of bias.
-     * @param by  y coordinate of bias.
-     * @param bz  z coordinate of bias.
-     * @param m11 element 1,1 of cross-coupling error matrix.
-     * @param m21 element 2,1 of cross-coupling error matrix.
-     * @param m31 element 3,1 of cross-coupling error matrix.
-     * @param m12 element 1,2 of cross-coupling error matrix.
-     * @param m22 element 2,2 of cross-coupling error matrix.
-     * @param m32 element 3,2 of cross-coupling error matrix.
-     * @param m13 element 1,3 of cross-coupling error matrix.
-     * @param m23 element 2,3 of cross-coupling error matrix.
-     * @param m33 element 3,3 of cross-coupling error matrix.
-     * @param g11 element 1,1 of g-dependent cross bias matrix.
-     * @param g21 element 2,1 of g-dependent cross bias matrix.
-     * @param g31 element 3,1 of g-dependent cross bias matrix.
-     * @param g12 element 1,2 of g-dependent cross bias matrix.
-     * @param g22 element 2,2 of g-dependent cross bias matrix.
-     * @param g32 element 3,2 of g-dependent cross bias matrix.
-     * @param g13 element 1,3 of g-dependent cross bias matrix.
-     * @param g23 element 2,3 of g-dependent cross bias matrix.
-     * @param g33 element 3,3 of g-dependent cross bias matrix.
-     * @return error between estimated and measured gravity versor.
-     * @throws EvaluationException if there are numerical instabilities.
-     */
-    private double evaluate(
-            final int i,
-            final double bx, final double by, final double bz,
-            final double m11, final double m21, final double m31,
-            final double m12, final double m22, final double m32,
-            final double m13, final double m23, final double m33,
-            final double g11, final double g21, final double g31,
-            final double g12, final double g22, final double g32,
-            final double g13, final double g23, final double g33)
-            throws EvaluationException {
-
+    private double evaluateWithJacobian(
+            final int i, final double[] point, final double[] params,
+            final double[] derivatives) throws EvaluationException {
         try {
-            final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> measuredSequence =
-                    mSequences.get(i);
-            final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> fixedSequence =
-                    mFixedSequences.get(i);
-
-            // generate new sequence using current parameters to fix angular rate measurements
-            if (mMeasuredSpecificForce == null) {
-                mMeasuredSpecificForce = new Matrix(
-                        BodyKinematics.COMPONENTS, 1);
-            }
-            if (mTrueSpecificForce == null) {
-                mTrueSpecificForce = new Matrix(
-                        BodyKinematics.COMPONENTS, 1);
-            }
-
-            if (mMeasuredAngularRate == null) {
-                mMeasuredAngularRate = new Matrix(
-                        BodyKinematics.COMPONENTS, 1);
-            }
-            if (mTrueAngularRate == null) {
-                mTrueAngularRate = new Matrix(
-                        BodyKinematics.COMPONENTS, 1);
-            }
-
-            if (mM == null) {
-                mM = new Matrix(BodyKinematics.COMPONENTS,
-                        BodyKinematics.COMPONENTS);
-            }
-            if (mInvM == null) {
-                mInvM = new Matrix(BodyKinematics.COMPONENTS,
-                        BodyKinematics.COMPONENTS);
-            }
-            if (mB == null) {
-                mB = new Matrix(BodyKinematics.COMPONENTS, 1);
-            }
-            if (mG == null) {
-                mG = new Matrix(BodyKinematics.COMPONENTS,
-                        BodyKinematics.COMPONENTS);
-            }
-            if (mTmp == null) {
-                mTmp = new Matrix(BodyKinematics.COMPONENTS, 1);
-            }
-
-            mM.setElementAt(0, 0, m11);
-            mM.setElementAt(1, 0, m21);
-            mM.setElementAt(2, 0, m31);
-
-            mM.setElementAt(0, 1, m12);
-            mM.setElementAt(1, 1, m22);
-            mM.setElementAt(2, 1, m32);
-
-            mM.setElementAt(0, 2, m13);
-            mM.setElementAt(1, 2, m23);
-            mM.setElementAt(2, 2, m33);
-
-            Utils.inverse(mM, mInvM);
-
-            mB.setElementAtIndex(0, bx);
-            mB.setElementAtIndex(1, by);
-            mB.setElementAtIndex(2, bz);
-
-            mG.setElementAt(0, 0, g11);
-            mG.setElementAt(1, 0, g21);
-            mG.setElementAt(2, 0, g31);
-
-            mG.setElementAt(0, 1, g12);
-            mG.setElementAt(1, 1, g22);
-            mG.setElementAt(2, 1, g32);
-
-            mG.setElementAt(0, 2, g13);
-            mG.setElementAt(1, 2, g23);
-            mG.setElementAt(2, 2, g33);
-
-            // fix kinematics
-            final int numItems = measuredSequence.getItemsCount();
-            final List<StandardDeviationTimedBodyKinematics> measuredItems = measuredSequence.getSortedItems();
-            final List<StandardDeviationTimedBodyKinematics> fixedItems = fixedSequence.getSortedItems();
-            for (int j = 0; j < numItems; j++) {
-                final StandardDeviationTimedBodyKinematics measuredItem = measuredItems.get(j);
-                final StandardDeviationTimedBodyKinematics fixedItem = fixedItems.get(j);
-
-                fixKinematics(measuredItem.getKinematics(), fixedItem.getKinematics());
-            }
-
-
-            // integrate fixed sequence to obtain attitude change
-            QuaternionIntegrator.integrateGyroSequence(fixedSequence, mQ);
-
-            mStartPoint.setInhomogeneousCoordinates(
-                    mPoint[0], mPoint[1], mPoint[2]);
-            mQ.inverse();
-            mQ.rotate(mStartPoint, mEndPoint);
-
-            mExpectedEndPoint.setInhomogeneousCoordinates(
-                    mPoint[3], mPoint[4], mPoint[5]);
-
-            return mExpectedEndPoint.distanceTo(mEndPoint);
-
+            mJacobianEvaluator.setParameters(params);
         } catch (final AlgebraException e) {
             throw new EvaluationException(e);
         }
-    }
-
-    /**
-     * Fixes provided kinematics with provided accelerometer paramenters and
-     * current gyroscope parameters.
-     *
-     * @param kinematics kinematics to be fixed with current values.
-     * @param result     kinematics where result will be stored.
-     * @throws AlgebraException if for some reason kinematics
-     */
-    private void fixKinematics(
-            final BodyKinematics kinematics,
-            final BodyKinematics result) throws AlgebraException {
-
-        // Ωmeas = bg + (I + Mg) * Ωtrue + Gg * ftrue
-        // Ωmeas = M*(Ωtrue + b + G * ftrue)
-
-        // M = I + Mg
-        // bg = M*b --> b = M^-1*bg
-        // Gg = M*G --> G = M^-1*Gg
-
-        // Ωtrue = M^-1 * Ωmeas - b - G*ftrue
-
-        // fix specific force
-        mMeasuredSpecificForce.setElementAtIndex(0, kinematics.getFx());
-        mMeasuredSpecificForce.setElementAtIndex(1, kinematics.getFy());
-        mMeasuredSpecificForce.setElementAtIndex(2, kinematics.getFz());
-
-        mAccelerationFixer.fix(mMeasuredSpecificForce, mTrueSpecificForce);
-
-        // fix angular rate
-        mMeasuredAngularRate.setElementAtIndex(0, kinematics.getAngularRateX());
-        mMeasuredAngularRate.setElementAtIndex(1, kinematics.getAngularRateY());
-        mMeasuredAngularRate.setElementAtIndex(2, kinematics.getAngularRateZ());
-
-        mG.multiply(mTrueSpecificForce, mTmp);
-        mInvM.multiply(mMeasuredAngularRate, mTrueAngularRate);
-        mTrueAngularRate.subtract(mB);
-        mTrueAngularRate.subtract(mTmp);
-
-        result.setSpecificForceCoordinates(
-                mTrueSpecificForce.getElementAtIndex(0),
-                mTrueSpecificForce.getElementAtIndex(1),
-                mTrueSpecificForce.getElementAtIndex(2));
 
-        result.setAngularRateCoordinates(
-                mTrueAngularRate.getElementAtIndex(0),
-                mTrueAngularRate.getElementAtIndex(1),
-                mTrueAngularRate.getElementAtIndex(2));
+        return mJacobianEvaluator.evaluateGravityVersorError(
+                mTimestamps.get(i), mMeasuredAngularRates.get(i),
+                mTrueSpecificForces.get(i), point, derivatives);
     }
 }
@@ -0,0 +1,713 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration.gyroscope;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.Utils;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.geometry.Quaternion;
+import com.irurueta.navigation.inertial.BodyKinematics;
+
+/**
+ * Evaluates gyroscope calibration cost functions along with their analytic
+ * derivatives respect to calibration parameters.
+ * The gyroscope model is expressed as:
+ * Ωmeas = M*(Ωtrue + b + G * ftrue)
+ * so that true angular rate is obtained as:
+ * Ωtrue = M^-1 * Ωmeas - b - G*ftrue
+ * Because Ωtrue is linear on b and G, and d(M^-1) = -M^-1 * dM * M^-1, derivatives
+ * of true angular rates are exact and cheap to compute. Those derivatives are then
+ * propagated through each Runge-Kutta step of the integrated attitude in forward mode,
+ * so that a single integration of a sequence provides both the cost and its gradient,
+ * instead of re-integrating the sequence once per parameter as numerical
+ * differentiation does.
+ * Parameters are laid out as in {@link EasyGyroscopeCalibrator} and
+ * {@link KnownBiasEasyGyroscopeCalibrator}: biases b (if estimated), followed by
+ * cross-coupling matrix M in column order (only upper triangular elements if common
+ * axis is used), followed by g-dependent cross biases G in column order (if
+ * estimated).
+ * This class is not thread-safe.
+ */
+public class GyroscopeCalibrationJacobianEvaluator {
+
+    /**
+     * Number of elements of a 3x3 matrix.
+     */
+    private static final int MATRIX_ELEMENTS =
+            BodyKinematics.COMPONENTS * BodyKinematics.COMPONENTS;
+
+    /**
+     * Indicates whether biases are estimated parameters.
+     */
+    private final boolean mBiasEstimated;
+
+    /**
+     * Indicates whether g-dependent cross biases are estimated parameters.
+     */
+    private final boolean mGDependentCrossBiasesEstimated;
+
+    /**
+     * Number of estimated parameters.
+     */
+    private final int mNumberOfParameters;
+
+    /**
+     * Position of first cross-coupling parameter.
+     */
+    private final int mMOffset;
+
+    /**
+     * Position of first g-dependent cross bias parameter.
+     */
+    private final int mGOffset;
+
+    /**
+     * Row of each cross-coupling parameter.
+     */
+    private final int[] mMRows;
+
+    /**
+     * Column of each cross-coupling parameter.
+     */
+    private final int[] mMColumns;
+
+    /**
+     * Cross-coupling matrix.
+     */
+    private final Matrix mM;
+
+    /**
+     * Inverse of cross-coupling matrix.
+     */
+    private final Matrix mInvM;
+
+    /**
+     * Biases.
+     */
+    private final double[] mB = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * G-dependent cross biases stored in column order.
+     */
+    private final double[] mG = new double[MATRIX_ELEMENTS];
+
+    /**
+     * Measured angular rate multiplied by inverse of cross-coupling matrix.
+     */
+    private final double[] mU = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * True angular rate at the start of an integration step.
+     */
+    private final double[] mOmega0 = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * True angular rate at the end of an integration step.
+     */
+    private final double[] mOmega1 = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * True angular rate at the middle of an integration step.
+     */
+    private final double[] mOmega01 = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * Derivative of true angular rate at the middle of an integration step
+     * respect to a single parameter.
+     */
+    private final double[] mDOmega01 = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * Derivatives of true angular rate at the start of an integration step.
+     * Contains 3 values per parameter.
+     */
+    private double[] mJacobian0;
+
+    /**
+     * Derivatives of true angular rate at the end of an integration step.
+     * Contains 3 values per parameter.
+     */
+    private double[] mJacobian1;
+
+    /**
+     * Integrated attitude.
+     */
+    private final double[] mQ = new double[Quaternion.N_PARAMS];
+
+    /**
+     * Derivatives of integrated attitude.
+     * Contains 4 values per parameter.
+     */
+    private final double[] mDq;
+
+    /**
+     * Runge-Kutta coefficients.
+     */
+    private final double[] mK1 = new double[Quaternion.N_PARAMS];
+    private final double[] mK2 = new double[Quaternion.N_PARAMS];
+    private final double[] mK3 = new double[Quaternion.N_PARAMS];
+    private final double[] mK4 = new double[Quaternion.N_PARAMS];
+
+    /**
+     * Intermediate attitudes used to evaluate Runge-Kutta coefficients.
+     */
+    private final double[] mQ2 = new double[Quaternion.N_PARAMS];
+    private final double[] mQ3 = new double[Quaternion.N_PARAMS];
+    private final double[] mQ4 = new double[Quaternion.N_PARAMS];
+
+    /**
+     * Derivative of a Runge-Kutta coefficient respect to a single parameter.
+     */
+    private final double[] mDk = new double[Quaternion.N_PARAMS];
+
+    /**
+     * Accumulated derivative of a Runge-Kutta step respect to a single parameter.
+     */
+    private final double[] mDSum = new double[Quaternion.N_PARAMS];
+
+    /**
+     * Derivative of an intermediate attitude respect to a single parameter.
+     */
+    private final double[] mDTmp = new double[Quaternion.N_PARAMS];
+
+    /**
+     * Rotated versor.
+     */
+    private final double[] mEndPoint = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * Derivative of rotated versor respect to a single parameter.
+     */
+    private final double[] mDEndPoint = new double[BodyKinematics.COMPONENTS];
+
+    /**
+     * Constructor.
+     *
+     * @param biasEstimated                  true if biases are estimated, false if
+     *                                       they are known and set using
+     *                                       {@link #setBias(double, double, double)}.
+     * @param commonAxisUsed                 true if cross-coupling matrix is upper
+     *                                       triangular, false otherwise.
+     * @param gDependentCrossBiasesEstimated true if g-dependent cross biases are
+     *                                       estimated, false if they are assumed to
+     *                                       be zero.
+     */
+    public GyroscopeCalibrationJacobianEvaluator(final boolean biasEstimated,
+                                                 final boolean commonAxisUsed,
+                                                 final boolean gDependentCrossBiasesEstimated) {
+        mBiasEstimated = biasEstimated;
+        mGDependentCrossBiasesEstimated = gDependentCrossBiasesEstimated;
+
+        final int numM = commonAxisUsed ? 6 : MATRIX_ELEMENTS;
+        mMRows = new int[numM];
+        mMColumns = new int[numM];
+        int k = 0;
+        for (int j = 0; j < BodyKinematics.COMPONENTS; j++) {
+            for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+                if (!commonAxisUsed || i <= j) {
+                    mMRows[k] = i;
+                    mMColumns[k] = j;
+                    k++;
+                }
+            }
+        }
+
+        mMOffset = biasEstimated ? BodyKinematics.COMPONENTS : 0;
+        mGOffset = mMOffset + numM;
+        mNumberOfParameters = mGOffset +
+                (gDependentCrossBiasesEstimated ? MATRIX_ELEMENTS : 0);
+
+        mJacobian0 = new double[BodyKinematics.COMPONENTS * mNumberOfParameters];
+        mJacobian1 = new double[BodyKinematics.COMPONENTS * mNumberOfParameters];
+        mDq = new double[Quaternion.N_PARAMS * mNumberOfParameters];
+
+        Matrix m = null;
+        Matrix invM = null;
+        try {
+            m = new Matrix(BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
+            invM = new Matrix(BodyKinematics.COMPONENTS, BodyKinematics.COMPONENTS);
+        } catch (final WrongSizeException ignore) {
+            // never happens
+        }
+        mM = m;
+        mInvM = invM;
+    }
+
+    /**
+     * Gets number of estimated parameters.
+     *
+     * @return number of estimated parameters.
+     */
+    public int getNumberOfParameters() {
+        return mNumberOfParameters;
+    }
+
+    /**
+     * Sets known biases.
+     * This is only taken into account when biases are not estimated.
+     *
+     * @param bx x-coordinate of bias.
+     * @param by y-coordinate of bias.
+     * @param bz z-coordinate of bias.
+     */
+    public void setBias(final double bx, final double by, final double bz) {
+        mB[0] = bx;
+        mB[1] = by;
+        mB[2] = bz;
+    }
+
+    /**
+     * Sets current values of estimated parameters.
+     *
+     * @param params current values of estimated parameters.
+     * @throws AlgebraException         if cross-coupling matrix cannot be inverted.
+     * @throws IllegalArgumentException if provided array does not have the number
+     *                                  of estimated parameters.
+     */
+    public void setParameters(final double[] params) throws AlgebraException {
+        if (params.length != mNumberOfParameters) {
+            throw new IllegalArgumentException();
+        }
+
+        if (mBiasEstimated) {
+            System.arraycopy(params, 0, mB, 0, BodyKinematics.COMPONENTS);
+        }
+
+        mM.initialize(0.0);
+        for (int k = 0; k < mMRows.length; k++) {
+            mM.setElementAt(mMRows[k], mMColumns[k], params[mMOffset + k]);
+        }
+        Utils.inverse(mM, mInvM);
+
+        if (mGDependentCrossBiasesEstimated) {
+            System.arraycopy(params, mGOffset, mG, 0, MATRIX_ELEMENTS);
+        }
+    }
+
+    /**
+     * Computes true angular rate for provided measurement using current parameters,
+     * along with its derivatives respect to estimated parameters.
+     *
+     * @param measuredAngularRate measured angular rate. Must have length 3.
+     * @param trueSpecificForce   true specific force. Must have length 3. Ignored if
+     *                            g-dependent cross biases are not estimated.
+     * @param result              array where true angular rate will be stored. Must
+     *                            have length 3.
+     * @param jacobian            array where derivatives will be stored as 3 values
+     *                            per parameter. Must have length 3 times the number
+     *                            of parameters.
+     */
+    public void fixAngularRate(final double[] measuredAngularRate,
+                               final double[] trueSpecificForce,
+                               final double[] result,
+                               final double[] jacobian) {
+        fixAngularRate(measuredAngularRate, 0, trueSpecificForce, 0,
+                result, jacobian);
+    }
+
+    /**
+     * Integrates a sequence of measured angular rates using current parameters to
+     * rotate the gravity versor at the start of the sequence, and computes the
+     * distance between rotated versor and expected gravity versor at the end of
+     * the sequence along with its gradient respect to estimated parameters.
+     * This is the cost minimized by easy gyroscope calibrators.
+     *
+     * @param timestamps           timestamps of sorted sequence items expressed
+     *                             in seconds.
+     * @param measuredAngularRates measured angular rates of sequence items stored
+     *                             as 3 consecutive values per item.
+     * @param trueSpecificForces   true specific forces of sequence items stored
+     *                             as 3 consecutive values per item. Ignored if
+     *                             g-dependent cross biases are not estimated.
+     * @param point                gravity versors before (first 3 values) and after
+     *                             (last 3 values) the sequence.
+     * @param derivatives          array where gradient will be stored. Must have the
+     *                             number of estimated parameters.
+     * @return distance between rotated and expected gravity versors.
+     */
+    public double evaluateGravityVersorError(final double[] timestamps,
+                                             final double[] measuredAngularRates,
+                                             final double[] trueSpecificForces,
+                                             final double[] point,
+                                             final double[] derivatives) {
+        integrate(timestamps, measuredAngularRates, trueSpecificForces);
+
+        // inverse of unit quaternion is its conjugate
+        final double a = mQ[0];
+        final double b = -mQ[1];
+        final double c = -mQ[2];
+        final double d = -mQ[3];
+
+        rotate(a, b, c, d, a, b, c, d, point, mEndPoint);
+
+        final double diffX = point[3] - mEndPoint[0];
+        final double diffY = point[4] - mEndPoint[1];
+        final double diffZ = point[5] - mEndPoint[2];
+        final double distance = Math.sqrt(diffX * diffX + diffY * diffY
+                + diffZ * diffZ);
+
+        for (int p = 0, k = 0; p < mNumberOfParameters;
+             p++, k += Quaternion.N_PARAMS) {
+            if (distance == 0.0) {
+                derivatives[p] = 0.0;
+                continue;
+            }
+
+            // rotation is quadratic on quaternion values, hence its derivative
+            // is twice the bilinear form evaluated on quaternion and its derivative
+            rotate(a, b, c, d, mDq[k], -mDq[k + 1], -mDq[k + 2], -mDq[k + 3],
+                    point, mDEndPoint);
+            derivatives[p] = -2.0 * (diffX * mDEndPoint[0] + diffY * mDEndPoint[1]
+                    + diffZ * mDEndPoint[2]) / distance;
+        }
+
+        return distance;
+    }
+
+    /**
+     * Integrates a sequence of measured angular rates using current parameters
+     * to obtain attitude change and its derivatives respect to estimated
+     * parameters.
+     *
+     * @param timestamps           timestamps of sorted sequence items expressed
+     *                             in seconds.
+     * @param measuredAngularRates measured angular rates of sequence items stored
+     *                             as 3 consecutive values per item.
+     * @param trueSpecificForces   true specific forces of sequence items stored
+     *                             as 3 consecutive values per item. Ignored if
+     *                             g-dependent cross biases are not estimated.
+     * @param result               array where integrated attitude will be stored as
+     *                             quaternion values. Must have length 4.
+     * @param jacobian             array where derivatives of integrated attitude
+     *                             will be stored as 4 values per parameter. Must
+     *                             have length 4 times the number of parameters.
+     */
+    public void integrate(final double[] timestamps,
+                          final double[] measuredAngularRates,
+                          final double[] trueSpecificForces,
+                          final double[] result, final double[] jacobian) {
+        integrate(timestamps, measuredAngularRates, trueSpecificForces);
+        System.arraycopy(mQ, 0, result, 0, mQ.length);
+        System.arraycopy(mDq, 0, jacobian, 0, mDq.length);
+    }
+
+    /**
+     * Integrates a sequence of measured angular rates using current parameters
+     * and keeps resulting attitude and its derivatives.
+     *
+     * @param timestamps           timestamps of sorted sequence items.
+     * @param measuredAngularRates measured angular rates of sequence items.
+     * @param trueSpecificForces   true specific forces of sequence items.
+     */
+    private void integrate(final double[] timestamps,
+                           final double[] measuredAngularRates,
+                           final double[] trueSpecificForces) {
+        mQ[0] = 1.0;
+        mQ[1] = 0.0;
+        mQ[2] = 0.0;
+        mQ[3] = 0.0;
+        for (int i = 0; i < mDq.length; i++) {
+            mDq[i] = 0.0;
+        }
+
+        final int numItems = timestamps.length;
+        if (numItems == 0) {
+            return;
+        }
+
+        fixAngularRate(measuredAngularRates, 0, trueSpecificForces, 0,
+                mOmega0, mJacobian0);
+        for (int j = 1; j < numItems; j++) {
+            final int offset = j * BodyKinematics.COMPONENTS;
+            fixAngularRate(measuredAngularRates, offset, trueSpecificForces,
+                    offset, mOmega1, mJacobian1);
+
+            integrationStepRK4(timestamps[j] - timestamps[j - 1]);
+
+            // prepare data for next iteration
+            System.arraycopy(mOmega1, 0, mOmega0, 0, BodyKinematics.COMPONENTS);
+            final double[] tmp = mJacobian0;
+            mJacobian0 = mJacobian1;
+            mJacobian1 = tmp;
+        }
+    }
+
+    /**
+     * Computes true angular rate and its derivatives for a single measurement.
+     *
+     * @param measuredAngularRates array containing measured angular rate.
+     * @param angularRateOffset    position of measured angular rate in array.
+     * @param trueSpecificForces   array containing true specific force.
+     * @param specificForceOffset  position of true specific force in array.
+     * @param result               array where true angular rate will be stored.
+     * @param jacobian             array where derivatives will be stored.
+     */
+    private void fixAngularRate(final double[] measuredAngularRates,
+                                final int angularRateOffset,
+                                final double[] trueSpecificForces,
+                                final int specificForceOffset,
+                                final double[] result,
+                                final double[] jacobian) {
+        final double[] invM = mInvM.getBuffer();
+
+        final double wx = measuredAngularRates[angularRateOffset];
+        final double wy = measuredAngularRates[angularRateOffset + 1];
+        final double wz = measuredAngularRates[angularRateOffset + 2];
+
+        // u = M^-1 * Ωmeas
+        for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+            mU[i] = invM[i] * wx + invM[i + 3] * wy + invM[i + 6] * wz;
+        }
+
+        // Ωtrue = M^-1 * Ωmeas - b - G*ftrue
+        for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+            result[i] = mU[i] - mB[i];
+        }
+        if (mGDependentCrossBiasesEstimated) {
+            final double fx = trueSpecificForces[specificForceOffset];
+            final double fy = trueSpecificForces[specificForceOffset + 1];
+            final double fz = trueSpecificForces[specificForceOffset + 2];
+            for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+                result[i] -= mG[i] * fx + mG[i + 3] * fy + mG[i + 6] * fz;
+            }
+        }
+
+        for (int i = 0; i < jacobian.length; i++) {
+            jacobian[i] = 0.0;
+        }
+
+        // dΩtrue/db = -I
+        if (mBiasEstimated) {
+            for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+                jacobian[i * BodyKinematics.COMPONENTS + i] = -1.0;
+            }
+        }
+
+        // dΩtrue/dMrc = -M^-1 * Erc * M^-1 * Ωmeas = -M^-1(:,r) * u(c)
+        for (int k = 0; k < mMRows.length; k++) {
+            final int pos = (mMOffset + k) * BodyKinematics.COMPONENTS;
+            final int col = mMRows[k] * BodyKinematics.COMPONENTS;
+            final double u = mU[mMColumns[k]];
+            for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+                jacobian[pos + i] = -invM[col + i] * u;
+            }
+        }
+
+        // dΩtrue/dGrc = -Erc * ftrue
+        if (mGDependentCrossBiasesEstimated) {
+            int pos = mGOffset * BodyKinematics.COMPONENTS;
+            for (int c = 0; c < BodyKinematics.COMPONENTS; c++) {
+                final double f = trueSpecificForces[specificForceOffset + c];
+                for (int r = 0; r < BodyKinematics.COMPONENTS; r++) {
+                    jacobian[pos + r] = -f;
+                    pos += BodyKinematics.COMPONENTS;
+                }
+            }
+        }
+    }
+
+    /**
+     * Performs a RK4 Runge-Kutta integration step of current attitude and its
+     * derivatives, using angular rates and derivatives at the start and end of
+     * the step.
+     *
+     * @param dt time step expressed in seconds.
+     */
+    private void integrationStepRK4(final double dt) {
+        for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+            mOmega01[i] = 0.5 * (mOmega0[i] + mOmega1[i]);
+        }
+
+        final double halfDt = 0.5 * dt;
+        final double mult1 = dt / 6.0;
+        final double mult2 = dt / 3.0;
+
+        // First Runge-Kutta coefficient
+        multiplyOmegaSkew(mOmega0, 0, mQ, 0, 0.5, 0.0, mK1);
+
+        // Second Runge-Kutta coefficient
+        linearCombination(mQ, 0, mK1, 0, halfDt, mQ2);
+        multiplyOmegaSkew(mOmega01, 0, mQ2, 0, 0.5, 0.0, mK2);
+
+        // Third Runge-Kutta coefficient
+        linearCombination(mQ, 0, mK2, 0, halfDt, mQ3);
+        multiplyOmegaSkew(mOmega01, 0, mQ3, 0, 0.5, 0.0, mK3);
+
+        // Forth Runge-Kutta coefficient
+        linearCombination(mQ, 0, mK3, 0, dt, mQ4);
+        multiplyOmegaSkew(mOmega1, 0, mQ4, 0, 0.5, 0.0, mK4);
+
+        // derivatives of each step are obtained by differentiating each
+        // Runge-Kutta coefficient, taking into account that skew matrix
+        // representation of angular speed is linear
+        for (int p = 0, k = 0, l = 0; p < mNumberOfParameters;
+             p++, k += Quaternion.N_PARAMS, l += BodyKinematics.COMPONENTS) {
+            for (int i = 0; i < BodyKinematics.COMPONENTS; i++) {
+                mDOmega01[i] = 0.5 * (mJacobian0[l + i] + mJacobian1[l + i]);
+            }
+
+            // dk1 = 0.5 * (Ω(dω0) * q + Ω(ω0) * dq)
+            multiplyOmegaSkew(mJacobian0, l, mQ, 0, 0.5, 0.0, mDk);
+            multiplyOmegaSkew(mOmega0, 0, mDq, k, 0.5, 1.0, mDk);
+            linearCombination(mDq, k, mDk, 0, mult1, mDSum);
+
+            // dk2 = 0.5 * (Ω(dω01) * q2 + Ω(ω01) * dq2)
+            linearCombination(mDq, k, mDk, 0, halfDt, mDTmp);
+            multiplyOmegaSkew(mDOmega01, 0, mQ2, 0, 0.5, 0.0, mDk);
+            multiplyOmegaSkew(mOmega01, 0, mDTmp, 0, 0.5, 1.0, mDk);
+            linearCombination(mDSum, 0, mDk, 0, mult2, mDSum);
+
+            // dk3 = 0.5 * (Ω(dω01) * q3 + Ω(ω01) * dq3)
+            linearCombination(mDq, k, mDk, 0, halfDt, mDTmp);
+            multiplyOmegaSkew(mDOmega01, 0, mQ3, 0, 0.5, 0.0, mDk);
+            multiplyOmegaSkew(mOmega01, 0, mDTmp, 0, 0.5, 1.0, mDk);
+            linearCombination(mDSum, 0, mDk, 0, mult2, mDSum);
+
+            // dk4 = 0.5 * (Ω(dω1) * q4 + Ω(ω1) * dq4)
+            linearCombination(mDq, k, mDk, 0, dt, mDTmp);
+            multiplyOmegaSkew(mJacobian1, l, mQ4, 0, 0.5, 0.0, mDk);
+            multiplyOmegaSkew(mOmega1, 0, mDTmp, 0, 0.5, 1.0, mDk);
+            linearCombination(mDSum, 0, mDk, 0, mult1, mDSum);
+
+            System.arraycopy(mDSum, 0, mDq, k, Quaternion.N_PARAMS);
+        }
+
+        // q = q + dt * (k1 / 6 + k2 / 3 + k3 / 3 + k4 / 6)
+        double sqrNorm = 0.0;
+        for (int i = 0; i < Quaternion.N_PARAMS; i++) {
+            mQ[i] += mult1 * mK1[i] + mult2 * mK2[i] + mult2 * mK3[i]
+                    + mult1 * mK4[i];
+            sqrNorm += mQ[i] * mQ[i];
+        }
+
+        // normalize quaternion and its derivatives:
+        // d(q / |q|) = (dq - q_n * (q_n · dq)) / |q|
+        final double norm = Math.sqrt(sqrNorm);
+        for (int i = 0; i < Quaternion.N_PARAMS; i++) {
+            mQ[i] /= norm;
+        }
+        for (int k = 0; k < mDq.length; k += Quaternion.N_PARAMS) {
+            double dot = 0.0;
+            for (int i = 0; i < Quaternion.N_PARAMS; i++) {
+                dot += mQ[i] * mDq[k + i];
+            }
+            for (int i = 0; i < Quaternion.N_PARAMS; i++) {
+                mDq[k + i] = (mDq[k + i] - mQ[i] * dot) / norm;
+            }
+        }
+    }
+
+    /**
+     * Multiplies skew symmetric matrix representation of an angular rate by a
+     * quaternion, as done by {@link QuaternionIntegrator}, and stores the scaled
+     * product into result, optionally accumulating previous result values.
+     *
+     * @param omega        array containing angular rate.
+     * @param omegaOffset  position of angular rate in array.
+     * @param q            array containing quaternion values.
+     * @param qOffset      position of quaternion values in array.
+     * @param scale        scale to apply to product.
+     * @param resultWeight weight of previous result values (either 0 or 1).
+     * @param result       array where result will be stored.
+     */
+    private static void multiplyOmegaSkew(
+            final double[] omega, final int omegaOffset,
+            final double[] q, final int qOffset,
+            final double scale, final double resultWeight,
+            final double[] result) {
+        final double w0 = omega[omegaOffset];
+        final double w1 = omega[omegaOffset + 1];
+        final double w2 = omega[omegaOffset + 2];
+
+        final double q0 = q[qOffset];
+        final double q1 = q[qOffset + 1];
+        final double q2 = q[qOffset + 2];
+        final double q3 = q[qOffset + 3];
+
+        result[0] = resultWeight * result[0]
+                + scale * (-w0 * q1 - w1 * q2 - w2 * q3);
+        result[1] = resultWeight * result[1]
+                + scale * (w0 * q0 + w2 * q2 - w1 * q3);
+        result[2] = resultWeight * result[2]
+                + scale * (w1 * q0 - w2 * q1 + w0 * q3);
+        result[3] = resultWeight * result[3]
+                + scale * (w2 * q0 + w1 * q1 - w0 * q2);
+    }
+
+    /**
+     * Computes a + scale * b for 4 values.
+     *
+     * @param a       first array.
+     * @param aOffset position of values in first array.
+     * @param b       second array.
+     * @param bOffset position of values in second array.
+     * @param scale   scale to apply to values of second array.
+     * @param result  array where result will be stored.
+     */
+    private static void linearCombination(
+            final double[] a, final int aOffset,
+            final double[] b, final int bOffset,
+            final double scale, final double[] result) {
+        for (int i = 0; i < Quaternion.N_PARAMS; i++) {
+            result[i] = a[aOffset + i] + scale * b[bOffset + i];
+        }
+    }
+
+    /**
+     * Evaluates the symmetric bilinear form associated to the rotation of a point
+     * by a quaternion, so that rotating point p by unit quaternion q is
+     * B(q, q, p), and the derivative of the rotated point is 2 * B(q, dq, p).
+     *
+     * @param a      scalar component of first quaternion.
+     * @param b      first vector component of first quaternion.
+     * @param c      second vector component of first quaternion.
+     * @param d      third vector component of first quaternion.
+     * @param ra     scalar component of second quaternion.
+     * @param rb     first vector component of second quaternion.
+     * @param rc     second vector component of second quaternion.
+     * @param rd     third vector component of second quaternion.
+     * @param point  point to be rotated. Only first 3 values are used.
+     * @param result array where result will be stored.
+     */
+    private static void rotate(final double a, final double b,
+                               final double c, final double d,
+                               final double ra, final double rb,
+                               final double rc, final double rd,
+                               final double[] point, final double[] result) {
+        final double x = point[0];
+        final double y = point[1];
+        final double z = point[2];
+
+        final double aa = a * ra;
+        final double bb = b * rb;
+        final double cc = c * rc;
+        final double dd = d * rd;
+        final double ab = 0.5 * (a * rb + b * ra);
+        final double ac = 0.5 * (a * rc + c * ra);
+        final double ad = 0.5 * (a * rd + d * ra);
+        final double bc = 0.5 * (b * rc + c * rb);
+        final double bd = 0.5 * (b * rd + d * rb);
+        final double cd = 0.5 * (c * rd + d * rc);
+
+        result[0] = (aa + bb - cc - dd) * x + 2.0 * (bc - ad) * y
+                + 2.0 * (bd + ac) * z;
+        result[1] = 2.0 * (bc + ad) * x + (aa - bb + cc - dd) * y
+                + 2.0 * (cd - ab) * z;
+        result[2] = 2.0 * (bd - ac) * x + 2.0 * (cd + ab) * y
+                + (aa - bb - cc + dd) * z;
+    }
+}
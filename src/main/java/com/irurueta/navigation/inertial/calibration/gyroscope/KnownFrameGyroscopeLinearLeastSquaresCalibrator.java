@@ -25,10 +25,12 @@ import com.irurueta.navigation.frames.ECEFFrame;
 import com.irurueta.navigation.inertial.BodyKinematics;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
 import com.irurueta.navigation.inertial.calibration.FrameBodyKinematics;
+import com.irurueta.navigation.inertial.calibration.NormalEquationsAccumulator;
 import com.irurueta.navigation.inertial.estimators.ECEFKinematicsEstimator;
 import com.irurueta.units.AngularSpeed;
 import com.irurueta.units.AngularSpeedUnit;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -93,6 +95,13 @@ public class KnownFrameGyroscopeLinearLeastSquaresCalibrator implements
      */
     private static final int GENERAL_UNKNOWNS = 21;
 
+    /**
+     * Positions of unknowns of the general case that are estimated when common
+     * z-axis is assumed (myx, mzx and mzy are zero).
+     */
+    private static final int[] COMMON_Z_AXIS_INDICES = {
+            0, 1, 2, 3, 4, 5, 6, 7, 9, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+
     /**
      * Contains a collection of body kinematics measurements taken at different
      * frames (positions, orientations and velocities).
@@ -179,6 +188,23 @@ public class KnownFrameGyroscopeLinearLeastSquaresCalibrator implements
      */
     private boolean mRunning;
 
+    /**
+     * Accumulated normal equations of measurements that have been added one by one.
+     * Normal equations are accumulated for the general case, so that they can be
+     * solved either for the general or the common z-axis case.
+     */
+    private NormalEquationsAccumulator mAccumulator;
+
+    /**
+     * Coefficients of an equation of the general case being accumulated.
+     */
+    private double[] mAccumulatedRow;
+
+    /**
+     * Expected kinematics of a measurement being accumulated.
+     */
+    private BodyKinematics mAccumulatedKinematics;
+
     /**
      * Constructor.
      */
@@ -447,6 +473,146 @@ public class KnownFrameGyroscopeLinearLeastSquaresCalibrator implements
         }
     }
 
+    /**
+     * Adds a measurement to the accumulated normal equations, so that calibration
+     * can be made at any time using {@link #calibrateAccumulated()} without keeping
+     * all measurements in memory.
+     * Accumulated measurements are independent of the collection of measurements
+     * used by {@link #calibrate()}.
+     *
+     * @param measurement body kinematics measurement taken at a known frame.
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void addMeasurement(final FrameBodyKinematics measurement)
+            throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        accumulate(measurement, true);
+    }
+
+    /**
+     * Removes a previously added measurement from the accumulated normal equations
+     * (e.g. because it has been found to be an outlier).
+     * Provided measurement must contain the same values as when it was added.
+     *
+     * @param measurement previously added body kinematics measurement.
+     * @throws LockedException       if calibrator is currently running.
+     * @throws IllegalStateException if there are no accumulated measurements.
+     */
+    public void removeMeasurement(final FrameBodyKinematics measurement)
+            throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (getNumberOfAccumulatedMeasurements() == 0) {
+            throw new IllegalStateException();
+        }
+
+        accumulate(measurement, false);
+    }
+
+    /**
+     * Removes all accumulated measurements.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void resetAccumulatedMeasurements() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (mAccumulator != null) {
+            mAccumulator.reset();
+        }
+    }
+
+    /**
+     * Gets number of measurements currently accumulated.
+     *
+     * @return number of accumulated measurements.
+     */
+    public long getNumberOfAccumulatedMeasurements() {
+        return mAccumulator != null ?
+                mAccumulator.getNumberOfEquations() / EQUATIONS_PER_MEASUREMENT : 0;
+    }
+
+    /**
+     * Indicates whether enough measurements have been accumulated to calibrate
+     * using {@link #calibrateAccumulated()}.
+     *
+     * @return true if enough measurements have been accumulated, false otherwise.
+     */
+    public boolean isAccumulatedReady() {
+        return getNumberOfAccumulatedMeasurements() >= MINIMUM_MEASUREMENTS;
+    }
+
+    /**
+     * Estimates gyroscope calibration parameters containing bias, scale factors,
+     * cross-coupling errors and g-dependant cross biases using accumulated
+     * measurements.
+     * Estimation only requires solving accumulated normal equations, hence its
+     * cost does not depend on the number of accumulated measurements.
+     *
+     * @throws LockedException      if calibrator is currently running.
+     * @throws NotReadyException    if not enough measurements have been accumulated.
+     * @throws CalibrationException if calibration fails for numerical reasons.
+     */
+    public void calibrateAccumulated() throws LockedException, NotReadyException,
+            CalibrationException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (!isAccumulatedReady()) {
+            throw new NotReadyException();
+        }
+
+        try {
+            mRunning = true;
+
+            if (mListener != null) {
+                mListener.onCalibrateStart(this);
+            }
+
+            final double[] unknowns;
+            if (mCommonAxisUsed) {
+                unknowns = new double[COMMON_Z_AXIS_UNKNOWNS];
+                mAccumulator.solve(COMMON_Z_AXIS_INDICES, unknowns);
+
+                fillBiases(unknowns[0], unknowns[1], unknowns[2]);
+                fillMg(unknowns[3], unknowns[4], unknowns[5],
+                        unknowns[6], unknowns[7], 0.0,
+                        unknowns[8], 0.0, 0.0);
+                fillGg(unknowns[9], unknowns[10], unknowns[11],
+                        unknowns[12], unknowns[13], unknowns[14],
+                        unknowns[15], unknowns[16], unknowns[17]);
+            } else {
+                unknowns = new double[GENERAL_UNKNOWNS];
+                mAccumulator.solve(unknowns);
+
+                fillBiases(unknowns[0], unknowns[1], unknowns[2]);
+                fillMg(unknowns[3], unknowns[4], unknowns[5],
+                        unknowns[6], unknowns[7], unknowns[8],
+                        unknowns[9], unknowns[10], unknowns[11]);
+                fillGg(unknowns[12], unknowns[13], unknowns[14],
+                        unknowns[15], unknowns[16], unknowns[17],
+                        unknowns[18], unknowns[19], unknowns[20]);
+            }
+
+            if (mListener != null) {
+                mListener.onCalibrateEnd(this);
+            }
+
+        } catch (final AlgebraException e) {
+            throw new CalibrationException(e);
+        } finally {
+            mRunning = false;
+        }
+    }
+
     /**
      * Gets array containing x,y,z components of estimated gyroscope biases
      * expressed in radians per second (rad/s).
@@ -1079,6 +1245,86 @@ public class KnownFrameGyroscopeLinearLeastSquaresCalibrator implements
         fillGg(g11, g12, g13, g21, g22, g23, g31, g32, g33);
     }
 
+    /**
+     * Adds or removes the equations of provided measurement into accumulated
+     * normal equations of the general case.
+     * Equations are the same ones used by {@link #calibrateGeneral()}.
+     *
+     * @param measurement measurement to be added or removed.
+     * @param add         true to add measurement, false to remove it.
+     */
+    private void accumulate(final FrameBodyKinematics measurement, final boolean add) {
+        if (mAccumulator == null) {
+            mAccumulator = new NormalEquationsAccumulator(GENERAL_UNKNOWNS);
+            mAccumulatedRow = new double[GENERAL_UNKNOWNS];
+            mAccumulatedKinematics = new BodyKinematics();
+        }
+
+        final BodyKinematics measuredKinematics = measurement.getKinematics();
+        ECEFKinematicsEstimator.estimateKinematics(measurement.getTimeInterval(),
+                measurement.getFrame(), measurement.getPreviousFrame(),
+                mAccumulatedKinematics);
+
+        final double omegaMeasX = measuredKinematics.getAngularRateX();
+        final double omegaMeasY = measuredKinematics.getAngularRateY();
+        final double omegaMeasZ = measuredKinematics.getAngularRateZ();
+
+        final double omegaTrueX = mAccumulatedKinematics.getAngularRateX();
+        final double omegaTrueY = mAccumulatedKinematics.getAngularRateY();
+        final double omegaTrueZ = mAccumulatedKinematics.getAngularRateZ();
+
+        final double fTrueX = mAccumulatedKinematics.getFx();
+        final double fTrueY = mAccumulatedKinematics.getFy();
+        final double fTrueZ = mAccumulatedKinematics.getFz();
+
+        final double[] row = mAccumulatedRow;
+
+        Arrays.fill(row, 0.0);
+        row[0] = 1.0;
+        row[3] = omegaTrueX;
+        row[6] = omegaTrueY;
+        row[7] = omegaTrueZ;
+        row[12] = fTrueX;
+        row[13] = fTrueY;
+        row[14] = fTrueZ;
+        accumulateRow(row, omegaMeasX - omegaTrueX, add);
+
+        Arrays.fill(row, 0.0);
+        row[1] = 1.0;
+        row[4] = omegaTrueY;
+        row[8] = omegaTrueX;
+        row[9] = omegaTrueZ;
+        row[15] = fTrueX;
+        row[16] = fTrueY;
+        row[17] = fTrueZ;
+        accumulateRow(row, omegaMeasY - omegaTrueY, add);
+
+        Arrays.fill(row, 0.0);
+        row[2] = 1.0;
+        row[5] = omegaTrueZ;
+        row[10] = omegaTrueX;
+        row[11] = omegaTrueY;
+        row[18] = fTrueX;
+        row[19] = fTrueY;
+        row[20] = fTrueZ;
+        accumulateRow(row, omegaMeasZ - omegaTrueZ, add);
+    }
+
+    /**
+     * Adds or removes a single equation into accumulated normal equations.
+     *
+     * @param row coefficients of equation.
+     * @param b   right side of equation.
+     * @param add true to add equation, false to remove it.
+     */
+    private void accumulateRow(final double[] row, final double b, final boolean add) {
+        if (add) {
+            mAccumulator.add(row, b);
+        } else {
+            mAccumulator.remove(row, b);
+        }
+    }
+
     /**
      * Fills estimated biases array with estimated values.
      *
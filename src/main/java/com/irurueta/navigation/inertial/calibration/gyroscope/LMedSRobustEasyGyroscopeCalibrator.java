@@ -762,7 +762,7 @@ public class LMedSRobustEasyGyroscopeCalibrator extends RobustEasyGyroscopeCalib
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
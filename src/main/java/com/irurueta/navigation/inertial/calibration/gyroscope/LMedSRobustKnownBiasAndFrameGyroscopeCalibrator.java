@@ -835,7 +835,7 @@ public class LMedSRobustKnownBiasAndFrameGyroscopeCalibrator extends
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation,
                                     final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
@@ -747,7 +747,7 @@ public class LMedSRobustKnownBiasEasyGyroscopeCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -715,7 +715,7 @@ public class MSACRobustEasyGyroscopeCalibrator extends RobustEasyGyroscopeCalibr
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
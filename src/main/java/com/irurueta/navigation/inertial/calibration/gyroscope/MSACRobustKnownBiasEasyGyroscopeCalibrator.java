@@ -700,7 +700,7 @@ public class MSACRobustKnownBiasEasyGyroscopeCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
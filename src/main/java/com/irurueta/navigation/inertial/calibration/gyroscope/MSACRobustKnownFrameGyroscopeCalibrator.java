@@ -248,7 +248,7 @@ public class MSACRobustKnownFrameGyroscopeCalibrator extends
                             @Override
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation, final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
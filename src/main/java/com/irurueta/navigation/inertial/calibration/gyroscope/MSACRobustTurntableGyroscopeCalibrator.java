@@ -1940,7 +1940,7 @@ public class MSACRobustTurntableGyroscopeCalibrator extends RobustTurntableGyros
                     @Override
                     public double computeResidual(
                             final PreliminaryResult currentEstimation, final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
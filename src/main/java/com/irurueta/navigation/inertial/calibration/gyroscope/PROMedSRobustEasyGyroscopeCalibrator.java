@@ -1500,7 +1500,7 @@ public class PROMedSRobustEasyGyroscopeCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
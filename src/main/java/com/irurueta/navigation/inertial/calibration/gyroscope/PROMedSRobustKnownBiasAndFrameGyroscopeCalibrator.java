@@ -1733,7 +1733,7 @@ public class PROMedSRobustKnownBiasAndFrameGyroscopeCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
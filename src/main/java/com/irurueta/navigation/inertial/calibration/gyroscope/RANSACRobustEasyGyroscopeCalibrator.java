@@ -791,8 +791,7 @@ public class RANSACRobustEasyGyroscopeCalibrator extends RobustEasyGyroscopeCali
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -776,8 +776,7 @@ public class RANSACRobustKnownBiasEasyGyroscopeCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mSequences.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -2015,7 +2015,7 @@ public class RANSACRobustTurntableGyroscopeCalibrator extends RobustTurntableGyr
                             @Override
                             public double computeResidual(
                                     final PreliminaryResult currentEstimation, final int i) {
-                                return computeError(mMeasurements.get(i), currentEstimation);
+                                return evaluateResidual(currentEstimation, i);
                             }
 
                             @Override
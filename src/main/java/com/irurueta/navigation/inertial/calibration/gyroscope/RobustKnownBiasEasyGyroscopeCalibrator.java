@@ -27,6 +27,8 @@ import com.irurueta.navigation.inertial.BodyKinematics;
 import com.irurueta.navigation.inertial.calibration.AccelerationFixer;
 import com.irurueta.navigation.inertial.calibration.BodyKinematicsSequence;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluator;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluatorListener;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationTimedBodyKinematics;
 import com.irurueta.numerical.robust.InliersData;
 import com.irurueta.numerical.robust.RobustEstimatorMethod;
@@ -381,6 +383,21 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
      */
     protected float mProgressDelta = DEFAULT_PROGRESS_DELTA;
 
+    /**
+     * Evaluates residuals of sequences respect to preliminary solutions found
+     * during robust estimation, possibly using multiple threads.
+     */
+    private final ParallelResidualEvaluator<PreliminaryResult> mResidualEvaluator =
+            new ParallelResidualEvaluator<>(
+                    new ParallelResidualEvaluatorListener<PreliminaryResult>() {
+                        @Override
+                        public double computeResidual(
+                                final PreliminaryResult estimation, final int i,
+                                final int worker) {
+                            return computeError(mSequences.get(i), estimation, worker);
+                        }
+                    });
+
     /**
      * Amount of confidence expressed as a value between 0.0 and 1.0 (which is equivalent
      * to 100%). The amount of confidence indicates the probability that the estimated
@@ -427,74 +444,17 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
             new KnownBiasEasyGyroscopeCalibrator();
 
     /**
-     * Contains normalized start gravity coordinates.
-     * This is reused when computing error residuals.
-     */
-    private final InhomogeneousPoint3D mStartPoint =
-            new InhomogeneousPoint3D();
-
-    /**
-     * Contains estimated normalized end gravity coordinates.
-     * This is reused when computing error residuals.
-     */
-    private final InhomogeneousPoint3D mEndPoint =
-            new InhomogeneousPoint3D();
-
-    /**
-     * Contains expected normalized end gravity coordinates.
-     * This is reused when computing error residuals.
-     */
-    private final InhomogeneousPoint3D mExpectedEndPoint =
-            new InhomogeneousPoint3D();
-
-    /**
-     * Contains amount of rotation for a given sequence and preliminary
-     * solution.
-     * This is reused when computing error residuals.
-     */
-    private final Quaternion mQ = new Quaternion();
-
-    /**
-     * Array containing measured specific force coordinates.
-     * This is reused when computing error residuals.
+     * Contains fixers and temporary instances to be reused when computing
+     * error residuals on the calling thread.
      */
-    private final double[] mMeasuredSpecificForce = new double[
-            BodyKinematics.COMPONENTS];
+    private final ErrorBuffers mErrorBuffers = new ErrorBuffers();
 
     /**
-     * Array containing fixed specific force coordinates.
-     * This is reused when computing error residuals.
+     * Contains fixers and temporary instances of each additional worker
+     * thread used to compute error residuals when parallelism is greater
+     * than one.
      */
-    private final double[] mFixedSpecificForce = new double[
-            BodyKinematics.COMPONENTS];
-
-    /**
-     * Array containing measured angular rate coordinates.
-     * This is reused when computing error residuals.
-     */
-    private final double[] mMeasuredAngularRate = new double[
-            BodyKinematics.COMPONENTS];
-
-    /**
-     * Array containing fixed angular rate coordinates.
-     * This is reused when computing error residuals.
-     */
-    private final double[] mFixedAngularRate = new double[
-            BodyKinematics.COMPONENTS];
-
-    /**
-     * An acceleration fixer.
-     * This is reused when computing error residuals.
-     */
-    private final AccelerationFixer mAccelerationFixer =
-            new AccelerationFixer();
-
-    /**
-     * An angular rate fixer.
-     * This is reused when computing error residuals.
-     */
-    private final AngularRateFixer mAngularRateFixer =
-            new AngularRateFixer();
+    private ErrorBuffers[] mWorkerBuffers = new ErrorBuffers[0];
 
     /**
      * Constructor.
@@ -2786,6 +2746,55 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
         mProgressDelta = progressDelta;
     }
 
+    /**
+     * Gets parallelism level, which is the number of threads used to evaluate
+     * residuals of sequences respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @return parallelism level.
+     */
+    public int getParallelism() {
+        return mResidualEvaluator.getParallelism();
+    }
+
+    /**
+     * Sets parallelism level, which is the number of threads used to evaluate
+     * residuals of sequences respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @param parallelism parallelism level.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if calibrator is currently running.
+     */
+    public void setParallelism(final int parallelism) throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.setParallelism(parallelism);
+
+        mWorkerBuffers = new ErrorBuffers[parallelism - 1];
+        for (int i = 0; i < mWorkerBuffers.length; i++) {
+            mWorkerBuffers[i] = new ErrorBuffers();
+        }
+    }
+
+    /**
+     * Releases worker threads used to evaluate residuals of sequences in
+     * parallel, if any.
+     * Calibrator can still be used afterwards, in which case worker threads
+     * are created again when needed.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void close() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.close();
+    }
+
     /**
      * Returns amount of confidence expressed as a value between 0.0 and 1.0
      * (which is equivalent to 100%). The amount of confidence indicates the probability
@@ -5860,8 +5869,30 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
      *                          are numerically unstable.
      */
     protected void setupAccelerationFixer() throws AlgebraException {
-        mAccelerationFixer.setBias(getAccelerometerBias());
-        mAccelerationFixer.setCrossCouplingErrors(getAccelerometerMa());
+        final double[] accelerometerBias = getAccelerometerBias();
+        final Matrix accelerometerMa = getAccelerometerMa();
+        mErrorBuffers.mAccelerationFixer.setBias(accelerometerBias);
+        mErrorBuffers.mAccelerationFixer.setCrossCouplingErrors(
+                accelerometerMa);
+        for (final ErrorBuffers buffers : mWorkerBuffers) {
+            buffers.mAccelerationFixer.setBias(accelerometerBias);
+            buffers.mAccelerationFixer.setCrossCouplingErrors(
+                    accelerometerMa);
+        }
+    }
+
+    /**
+     * Evaluates residual of sequence at provided position respect to a
+     * preliminary result using configured parallelism.
+     *
+     * @param preliminaryResult a preliminary result.
+     * @param i                 position of sequence.
+     * @return computed residual.
+     */
+    protected double evaluateResidual(final PreliminaryResult preliminaryResult,
+                                      final int i) {
+        return mResidualEvaluator.evaluate(preliminaryResult, i,
+                mSequences.size());
     }
 
     /**
@@ -5874,12 +5905,47 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
     protected double computeError(
             final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> sequence,
             final PreliminaryResult preliminaryResult) {
+        return computeError(sequence, preliminaryResult, mErrorBuffers);
+    }
+
+    /**
+     * Computes error of a preliminary result respect a given sequence using
+     * fixers and temporary instances of provided worker.
+     *
+     * @param sequence          a sequence.
+     * @param preliminaryResult a preliminary result.
+     * @param worker            position of worker computing the error.
+     * @return computed error.
+     */
+    private double computeError(
+            final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> sequence,
+            final PreliminaryResult preliminaryResult, final int worker) {
+        if (worker == 0) {
+            return computeError(sequence, preliminaryResult);
+        }
+        return computeError(sequence, preliminaryResult,
+                mWorkerBuffers[worker - 1]);
+    }
+
+    /**
+     * Computes error of a preliminary result respect a given sequence using
+     * provided fixers and temporary instances.
+     *
+     * @param sequence          a sequence.
+     * @param preliminaryResult a preliminary result.
+     * @param buffers           fixers and temporary instances to be reused.
+     * @return computed error.
+     */
+    private double computeError(
+            final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> sequence,
+            final PreliminaryResult preliminaryResult,
+            final ErrorBuffers buffers) {
 
         try {
-            mAngularRateFixer.setBias(mBiasX, mBiasY, mBiasZ);
-            mAngularRateFixer.setCrossCouplingErrors(
+            buffers.mAngularRateFixer.setBias(mBiasX, mBiasY, mBiasZ);
+            buffers.mAngularRateFixer.setCrossCouplingErrors(
                     preliminaryResult.mEstimatedMg);
-            mAngularRateFixer.setGDependantCrossBias(
+            buffers.mAngularRateFixer.setGDependantCrossBias(
                     preliminaryResult.mEstimatedGg);
 
             // copy measured sequence as it will be used to fix kinematics values
@@ -5899,42 +5965,45 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
                         .getKinematics();
                 final BodyKinematics fixedKinematics = fixedItem
                         .getKinematics();
-                fixKinematics(measuredKinematics, fixedKinematics);
+                fixKinematics(buffers, measuredKinematics,
+                        fixedKinematics);
             }
 
             // integrate fixed sequence to obtain attitude change
-            QuaternionIntegrator.integrateGyroSequence(fixedSequence, mQ);
+            QuaternionIntegrator.integrateGyroSequence(fixedSequence,
+                    buffers.mQ);
 
             // fix before coordinates
-            mMeasuredSpecificForce[0] = sequence.getBeforeMeanFx();
-            mMeasuredSpecificForce[1] = sequence.getBeforeMeanFy();
-            mMeasuredSpecificForce[2] = sequence.getBeforeMeanFz();
-            mAccelerationFixer.fix(mMeasuredSpecificForce,
-                    mFixedSpecificForce);
+            buffers.mMeasuredSpecificForce[0] = sequence.getBeforeMeanFx();
+            buffers.mMeasuredSpecificForce[1] = sequence.getBeforeMeanFy();
+            buffers.mMeasuredSpecificForce[2] = sequence.getBeforeMeanFz();
+            buffers.mAccelerationFixer.fix(buffers.mMeasuredSpecificForce,
+                    buffers.mFixedSpecificForce);
 
             // normalize coordinates
-            ArrayUtils.normalize(mFixedSpecificForce);
+            ArrayUtils.normalize(buffers.mFixedSpecificForce);
 
             // compute estimated normalized end coordinates
-            mStartPoint.setCoordinates(mFixedSpecificForce);
-            mQ.inverse();
-            mQ.rotate(mStartPoint, mEndPoint);
+            buffers.mStartPoint.setCoordinates(buffers.mFixedSpecificForce);
+            buffers.mQ.inverse();
+            buffers.mQ.rotate(buffers.mStartPoint, buffers.mEndPoint);
 
             // fix after coordinates
-            mMeasuredSpecificForce[0] = sequence.getAfterMeanFx();
-            mMeasuredSpecificForce[1] = sequence.getAfterMeanFy();
-            mMeasuredSpecificForce[2] = sequence.getAfterMeanFz();
-            mAccelerationFixer.fix(mMeasuredSpecificForce,
-                    mFixedSpecificForce);
+            buffers.mMeasuredSpecificForce[0] = sequence.getAfterMeanFx();
+            buffers.mMeasuredSpecificForce[1] = sequence.getAfterMeanFy();
+            buffers.mMeasuredSpecificForce[2] = sequence.getAfterMeanFz();
+            buffers.mAccelerationFixer.fix(buffers.mMeasuredSpecificForce,
+                    buffers.mFixedSpecificForce);
 
             // normalize coordinates
-            ArrayUtils.normalize(mFixedSpecificForce);
+            ArrayUtils.normalize(buffers.mFixedSpecificForce);
 
-            mExpectedEndPoint.setCoordinates(mFixedSpecificForce);
+            buffers.mExpectedEndPoint.setCoordinates(
+                    buffers.mFixedSpecificForce);
 
             // compare estimated normalized end coordinates with expected
             // ones
-            return mExpectedEndPoint.distanceTo(mEndPoint);
+            return buffers.mExpectedEndPoint.distanceTo(buffers.mEndPoint);
 
         } catch (final AlgebraException e) {
             return Double.MAX_VALUE;
@@ -5949,6 +6018,9 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
      */
     protected void computePreliminarySolutions(final int[] samplesIndices,
                                                final List<PreliminaryResult> solutions) {
+        // residuals kept for previous solutions must not be reused
+        mResidualEvaluator.reset();
+
         final List<BodyKinematicsSequence<StandardDeviationTimedBodyKinematics>> sequences =
                 new ArrayList<>();
 
@@ -6067,37 +6139,40 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
     }
 
     /**
-     * Fixes a measured kinematics instance using current
+     * Fixes a measured kinematics instance using provided fixers and
+     * temporary instances.
      *
+     * @param buffers            fixers and temporary instances to be reused.
      * @param measuredKinematics a measured kinematics instance.
      * @param result             instance where fixed values will be stored.
      * @throws AlgebraException if accelerometer or gyroscope parameters
      *                          contain numerical instabilities.
      */
-    private void fixKinematics(
+    private static void fixKinematics(
+            final ErrorBuffers buffers,
             final BodyKinematics measuredKinematics,
             final BodyKinematics result) throws AlgebraException {
 
-        mMeasuredSpecificForce[0] = measuredKinematics.getFx();
-        mMeasuredSpecificForce[1] = measuredKinematics.getFy();
-        mMeasuredSpecificForce[2] = measuredKinematics.getFz();
-        mAccelerationFixer.fix(mMeasuredSpecificForce,
-                mFixedSpecificForce);
+        buffers.mMeasuredSpecificForce[0] = measuredKinematics.getFx();
+        buffers.mMeasuredSpecificForce[1] = measuredKinematics.getFy();
+        buffers.mMeasuredSpecificForce[2] = measuredKinematics.getFz();
+        buffers.mAccelerationFixer.fix(buffers.mMeasuredSpecificForce,
+                buffers.mFixedSpecificForce);
 
-        mMeasuredAngularRate[0] = measuredKinematics.getAngularRateX();
-        mMeasuredAngularRate[1] = measuredKinematics.getAngularRateY();
-        mMeasuredAngularRate[2] = measuredKinematics.getAngularRateZ();
-        mAngularRateFixer.fix(mMeasuredAngularRate,
-                mFixedSpecificForce, mFixedAngularRate);
+        buffers.mMeasuredAngularRate[0] = measuredKinematics.getAngularRateX();
+        buffers.mMeasuredAngularRate[1] = measuredKinematics.getAngularRateY();
+        buffers.mMeasuredAngularRate[2] = measuredKinematics.getAngularRateZ();
+        buffers.mAngularRateFixer.fix(buffers.mMeasuredAngularRate,
+                buffers.mFixedSpecificForce, buffers.mFixedAngularRate);
 
         result.setSpecificForceCoordinates(
-                mFixedSpecificForce[0],
-                mFixedSpecificForce[1],
-                mFixedSpecificForce[2]);
+                buffers.mFixedSpecificForce[0],
+                buffers.mFixedSpecificForce[1],
+                buffers.mFixedSpecificForce[2]);
         result.setAngularRateCoordinates(
-                mFixedAngularRate[0],
-                mFixedAngularRate[1],
-                mFixedAngularRate[2]);
+                buffers.mFixedAngularRate[0],
+                buffers.mFixedAngularRate[1],
+                buffers.mFixedAngularRate[2]);
     }
 
     /**
@@ -6157,4 +6232,79 @@ public abstract class RobustKnownBiasEasyGyroscopeCalibrator {
          */
         private Matrix mCovariance;
     }
+
+    /**
+     * Contains fixers and temporary instances used to compute error residuals.
+     */
+    private static final class ErrorBuffers {
+        /**
+         * Contains normalized start gravity coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final InhomogeneousPoint3D mStartPoint =
+                new InhomogeneousPoint3D();
+
+        /**
+         * Contains estimated normalized end gravity coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final InhomogeneousPoint3D mEndPoint =
+                new InhomogeneousPoint3D();
+
+        /**
+         * Contains expected normalized end gravity coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final InhomogeneousPoint3D mExpectedEndPoint =
+                new InhomogeneousPoint3D();
+
+        /**
+         * Contains amount of rotation for a given sequence and preliminary
+         * solution.
+         * This is reused when computing error residuals.
+         */
+        private final Quaternion mQ = new Quaternion();
+
+        /**
+         * Array containing measured specific force coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final double[] mMeasuredSpecificForce = new double[
+                BodyKinematics.COMPONENTS];
+
+        /**
+         * Array containing fixed specific force coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final double[] mFixedSpecificForce = new double[
+                BodyKinematics.COMPONENTS];
+
+        /**
+         * Array containing measured angular rate coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final double[] mMeasuredAngularRate = new double[
+                BodyKinematics.COMPONENTS];
+
+        /**
+         * Array containing fixed angular rate coordinates.
+         * This is reused when computing error residuals.
+         */
+        private final double[] mFixedAngularRate = new double[
+                BodyKinematics.COMPONENTS];
+
+        /**
+         * An acceleration fixer.
+         * This is reused when computing error residuals.
+         */
+        private final AccelerationFixer mAccelerationFixer =
+                new AccelerationFixer();
+
+        /**
+         * An angular rate fixer.
+         * This is reused when computing error residuals.
+         */
+        private final AngularRateFixer mAngularRateFixer =
+                new AngularRateFixer();
+    }
 }
@@ -1442,6 +1442,68 @@ public abstract class TriadStaticIntervalDetector<U extends Enum<?>, M extends M
         return true;
     }
 
+    /**
+     * Processes a block of measurement triad samples stored into primitive arrays, so
+     * that long recordings can be processed without creating a triad instance per
+     * sample.
+     * Provided measurement coordinates are expressed in meters per squared second (m/s^2) for acceleration,
+     * radians per second (rad/s) for angular speed or Teslas (T) for magnetic flux density.
+     * Samples are processed in order until the whole block is processed or detector fails.
+     *
+     * @param valuesX array containing x-coordinates of sensed measurements.
+     * @param valuesY array containing y-coordinates of sensed measurements.
+     * @param valuesZ array containing z-coordinates of sensed measurements.
+     * @param offset  position of first sample to be processed within arrays.
+     * @param length  number of samples to be processed.
+     * @return number of processed samples, which will be less than provided length if detector
+     * fails. If detector previously failed, it will need to be reset before processing additional
+     * samples.
+     * @throws IllegalArgumentException if any array is null, offset or length are negative or
+     *                                  arrays do not contain the required number of samples.
+     * @throws LockedException          if detector is busy processing a previous sample.
+     */
+    public int process(final double[] valuesX, final double[] valuesY,
+                       final double[] valuesZ, final int offset, final int length)
+            throws LockedException {
+        checkBlock(offset, length, valuesX, valuesY, valuesZ);
+
+        final int end = offset + length;
+        int processed = 0;
+        for (int i = offset; i < end; i++) {
+            if (!process(valuesX[i], valuesY[i], valuesZ[i])) {
+                break;
+            }
+            processed++;
+        }
+
+        return processed;
+    }
+
+    /**
+     * Checks that provided arrays contain a block of samples starting at provided
+     * offset and having provided length.
+     * This is used to validate blocks of samples processed from primitive arrays.
+     *
+     * @param offset position of first sample within arrays.
+     * @param length number of samples.
+     * @param values arrays containing samples.
+     * @throws IllegalArgumentException if any array is null, offset or length are
+     *                                  negative or any array does not contain the
+     *                                  required number of samples.
+     */
+    public static void checkBlock(final int offset, final int length,
+                                  final double[]... values) {
+        if (offset < 0 || length < 0 || values == null) {
+            throw new IllegalArgumentException();
+        }
+        for (final double[] v : values) {
+            // comparison is written so that offset + length cannot overflow
+            if (v == null || length > v.length - offset) {
+                throw new IllegalArgumentException();
+            }
+        }
+    }
+
     /**
      * Resets this detector so that it is initialized again when new samples are added.
      *
@@ -32,9 +32,11 @@ import com.irurueta.navigation.inertial.BodyMagneticFluxDensity;
 import com.irurueta.navigation.inertial.NEDMagneticFluxDensity;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
 import com.irurueta.navigation.inertial.calibration.FrameBodyMagneticFluxDensity;
+import com.irurueta.navigation.inertial.calibration.NormalEquationsAccumulator;
 import com.irurueta.navigation.inertial.estimators.BodyMagneticFluxDensityEstimator;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -95,6 +97,12 @@ public class KnownFrameMagnetometerLinearLeastSquaresCalibrator implements
      */
     private static final int GENERAL_UNKNOWNS = 12;
 
+    /**
+     * Positions of unknowns of the general case that are estimated when common
+     * z-axis is assumed (myx, mzx and mzy are zero).
+     */
+    private static final int[] COMMON_Z_AXIS_INDICES = {0, 1, 2, 3, 4, 5, 6, 7, 9};
+
     /**
      * Contains a collection of body magnetic flux density measurements taken
      * at different frames (positions and orientations).
@@ -182,6 +190,48 @@ public class KnownFrameMagnetometerLinearLeastSquaresCalibrator implements
      */
     private WorldMagneticModel mMagneticModel;
 
+    /**
+     * Accumulated normal equations of measurements that have been added one by one.
+     * Normal equations are accumulated for the general case, so that they can be
+     * solved either for the general or the common z-axis case.
+     */
+    private NormalEquationsAccumulator mAccumulator;
+
+    /**
+     * Coefficients of an equation of the general case being accumulated.
+     */
+    private double[] mAccumulatedRow;
+
+    /**
+     * Estimator of Earth magnetic flux density used for accumulated measurements.
+     */
+    private WMMEarthMagneticFluxDensityEstimator mAccumulatedWmmEstimator;
+
+    /**
+     * Expected magnetic flux density of a measurement being accumulated.
+     */
+    private BodyMagneticFluxDensity mAccumulatedMagneticFluxDensity;
+
+    /**
+     * NED frame of a measurement being accumulated.
+     */
+    private NEDFrame mAccumulatedNedFrame;
+
+    /**
+     * Earth magnetic flux density of a measurement being accumulated.
+     */
+    private NEDMagneticFluxDensity mAccumulatedEarthB;
+
+    /**
+     * Body to NED coordinate transformation of a measurement being accumulated.
+     */
+    private CoordinateTransformation mAccumulatedCbn;
+
+    /**
+     * NED to body coordinate transformation of a measurement being accumulated.
+     */
+    private CoordinateTransformation mAccumulatedCnb;
+
     /**
      * Constructor.
      */
@@ -550,6 +600,8 @@ public class KnownFrameMagnetometerLinearLeastSquaresCalibrator implements
     /**
      * Sets Earth's magnetic model.
      * If not provided a default model will be loaded internally.
+     * Because expected magnetic flux densities depend on the magnetic model,
+     * setting it also removes all accumulated measurements.
      *
      * @param magneticModel Earth's magnetic model to be set.
      * @throws LockedException if calibrator is currently running.
@@ -561,6 +613,11 @@ public class KnownFrameMagnetometerLinearLeastSquaresCalibrator implements
             throw new LockedException();
         }
         mMagneticModel = magneticModel;
+
+        mAccumulatedWmmEstimator = null;
+        if (mAccumulator != null) {
+            mAccumulator.reset();
+        }
     }
 
     /**
@@ -606,6 +663,143 @@ public class KnownFrameMagnetometerLinearLeastSquaresCalibrator implements
         }
     }
 
+    /**
+     * Adds a measurement to the accumulated normal equations, so that calibration
+     * can be made at any time using {@link #calibrateAccumulated()} without keeping
+     * all measurements in memory.
+     * Accumulated measurements are independent of the collection of measurements
+     * used by {@link #calibrate()}.
+     *
+     * @param measurement body magnetic flux density measurement taken at a known
+     *                    frame.
+     * @throws LockedException if calibrator is currently running.
+     * @throws IOException     if world magnetic model cannot be loaded.
+     */
+    public void addMeasurement(final FrameBodyMagneticFluxDensity measurement)
+            throws LockedException, IOException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        accumulate(measurement, true);
+    }
+
+    /**
+     * Removes a previously added measurement from the accumulated normal equations
+     * (e.g. because it has been found to be an outlier).
+     * Provided measurement must contain the same values as when it was added.
+     *
+     * @param measurement previously added body magnetic flux density measurement.
+     * @throws LockedException       if calibrator is currently running.
+     * @throws IOException           if world magnetic model cannot be loaded.
+     * @throws IllegalStateException if there are no accumulated measurements.
+     */
+    public void removeMeasurement(final FrameBodyMagneticFluxDensity measurement)
+            throws LockedException, IOException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (getNumberOfAccumulatedMeasurements() == 0) {
+            throw new IllegalStateException();
+        }
+
+        accumulate(measurement, false);
+    }
+
+    /**
+     * Removes all accumulated measurements.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void resetAccumulatedMeasurements() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (mAccumulator != null) {
+            mAccumulator.reset();
+        }
+    }
+
+    /**
+     * Gets number of measurements currently accumulated.
+     *
+     * @return number of accumulated measurements.
+     */
+    public long getNumberOfAccumulatedMeasurements() {
+        return mAccumulator != null ?
+                mAccumulator.getNumberOfEquations() / EQUATIONS_PER_MEASUREMENT : 0;
+    }
+
+    /**
+     * Indicates whether enough measurements have been accumulated to calibrate
+     * using {@link #calibrateAccumulated()}.
+     *
+     * @return true if enough measurements have been accumulated, false otherwise.
+     */
+    public boolean isAccumulatedReady() {
+        return getNumberOfAccumulatedMeasurements() >= MINIMUM_MEASUREMENTS;
+    }
+
+    /**
+     * Estimates magnetometer calibration parameters containing hard-iron biases
+     * and soft-iron scale factors and cross-coupling errors using accumulated
+     * measurements.
+     * Estimation only requires solving accumulated normal equations, hence its
+     * cost does not depend on the number of accumulated measurements.
+     *
+     * @throws LockedException      if calibrator is currently running.
+     * @throws NotReadyException    if not enough measurements have been accumulated.
+     * @throws CalibrationException if calibration fails for numerical reasons.
+     */
+    public void calibrateAccumulated() throws LockedException, NotReadyException,
+            CalibrationException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+
+        if (!isAccumulatedReady()) {
+            throw new NotReadyException();
+        }
+
+        try {
+            mRunning = true;
+
+            if (mListener != null) {
+                mListener.onCalibrateStart(this);
+            }
+
+            final double[] unknowns;
+            if (mCommonAxisUsed) {
+                unknowns = new double[COMMON_Z_AXIS_UNKNOWNS];
+                mAccumulator.solve(COMMON_Z_AXIS_INDICES, unknowns);
+
+                fillHardIronBiases(unknowns[0], unknowns[1], unknowns[2]);
+                fillMm(unknowns[3], unknowns[4], unknowns[5],
+                        unknowns[6], unknowns[7], 0.0,
+                        unknowns[8], 0.0, 0.0);
+            } else {
+                unknowns = new double[GENERAL_UNKNOWNS];
+                mAccumulator.solve(unknowns);
+
+                fillHardIronBiases(unknowns[0], unknowns[1], unknowns[2]);
+                fillMm(unknowns[3], unknowns[4], unknowns[5],
+                        unknowns[6], unknowns[7], unknowns[8],
+                        unknowns[9], unknowns[10], unknowns[11]);
+            }
+
+            if (mListener != null) {
+                mListener.onCalibrateEnd(this);
+            }
+
+        } catch (final AlgebraException e) {
+            throw new CalibrationException(e);
+        } finally {
+            mRunning = false;
+        }
+    }
+
     /**
      * Gets array containing x,y,z components of estimated magnetometer
      * hard-iron biases expressed in Teslas (T).
@@ -1145,6 +1339,107 @@ public class KnownFrameMagnetometerLinearLeastSquaresCalibrator implements
         fillMm(sx, sy, sz, mxy, mxz, myx, myz, mzx, mzy);
     }
 
+    /**
+     * Adds or removes the equations of provided measurement into accumulated
+     * normal equations of the general case.
+     * Equations are the same ones used by {@link #calibrateGeneral()}.
+     *
+     * @param measurement measurement to be added or removed.
+     * @param add         true to add measurement, false to remove it.
+     * @throws IOException if world magnetic model cannot be loaded.
+     */
+    private void accumulate(final FrameBodyMagneticFluxDensity measurement,
+                            final boolean add) throws IOException {
+        if (mAccumulatedWmmEstimator == null) {
+            if (mMagneticModel != null) {
+                mAccumulatedWmmEstimator =
+                        new WMMEarthMagneticFluxDensityEstimator(mMagneticModel);
+            } else {
+                mAccumulatedWmmEstimator = new WMMEarthMagneticFluxDensityEstimator();
+            }
+        }
+
+        if (mAccumulator == null) {
+            mAccumulator = new NormalEquationsAccumulator(GENERAL_UNKNOWNS);
+            mAccumulatedRow = new double[GENERAL_UNKNOWNS];
+            mAccumulatedMagneticFluxDensity = new BodyMagneticFluxDensity();
+            mAccumulatedNedFrame = new NEDFrame();
+            mAccumulatedEarthB = new NEDMagneticFluxDensity();
+            mAccumulatedCbn = new CoordinateTransformation(
+                    FrameType.BODY_FRAME, FrameType.LOCAL_NAVIGATION_FRAME);
+            mAccumulatedCnb = new CoordinateTransformation(
+                    FrameType.LOCAL_NAVIGATION_FRAME, FrameType.BODY_FRAME);
+        }
+
+        final BodyMagneticFluxDensity measuredMagneticFluxDensity =
+                measurement.getMagneticFluxDensity();
+
+        // estimate Earth magnetic flux density at frame position and
+        // timestamp using WMM
+        ECEFtoNEDFrameConverter.convertECEFtoNED(measurement.getFrame(),
+                mAccumulatedNedFrame);
+
+        mAccumulatedNedFrame.getCoordinateTransformation(mAccumulatedCbn);
+        mAccumulatedCbn.inverse(mAccumulatedCnb);
+
+        mAccumulatedWmmEstimator.estimate(mAccumulatedNedFrame.getLatitude(),
+                mAccumulatedNedFrame.getLongitude(),
+                mAccumulatedNedFrame.getHeight(), measurement.getYear(),
+                mAccumulatedEarthB);
+
+        // estimate expected body magnetic flux density taking into
+        // account body attitude (inverse of frame orientation) and
+        // estimated Earth magnetic flux density
+        BodyMagneticFluxDensityEstimator.estimate(mAccumulatedEarthB,
+                mAccumulatedCnb, mAccumulatedMagneticFluxDensity);
+
+        final double bMeasX = measuredMagneticFluxDensity.getBx();
+        final double bMeasY = measuredMagneticFluxDensity.getBy();
+        final double bMeasZ = measuredMagneticFluxDensity.getBz();
+
+        final double bTrueX = mAccumulatedMagneticFluxDensity.getBx();
+        final double bTrueY = mAccumulatedMagneticFluxDensity.getBy();
+        final double bTrueZ = mAccumulatedMagneticFluxDensity.getBz();
+
+        final double[] row = mAccumulatedRow;
+
+        Arrays.fill(row, 0.0);
+        row[0] = 1.0;
+        row[3] = bTrueX;
+        row[6] = bTrueY;
+        row[7] = bTrueZ;
+        accumulateRow(row, bMeasX - bTrueX, add);
+
+        Arrays.fill(row, 0.0);
+        row[1] = 1.0;
+        row[4] = bTrueY;
+        row[8] = bTrueX;
+        row[9] = bTrueZ;
+        accumulateRow(row, bMeasY - bTrueY, add);
+
+        Arrays.fill(row, 0.0);
+        row[2] = 1.0;
+        row[5] = bTrueZ;
+        row[10] = bTrueX;
+        row[11] = bTrueY;
+        accumulateRow(row, bMeasZ - bTrueZ, add);
+    }
+
+    /**
+     * Adds or removes a single equation into accumulated normal equations.
+     *
+     * @param row coefficients of equation.
+     * @param b   right side of equation.
+     * @param add true to add equation, false to remove it.
+     */
+    private void accumulateRow(final double[] row, final double b, final boolean add) {
+        if (add) {
+            mAccumulator.add(row, b);
+        } else {
+            mAccumulator.remove(row, b);
+        }
+    }
+
     /**
      * Fills estimated biases array with estimated values.
      *
@@ -278,8 +278,7 @@ public class LMedSRobustKnownFrameMagnetometerCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -294,8 +294,7 @@ public class LMedSRobustKnownHardIronAndFrameMagnetometerCalibrator extends
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
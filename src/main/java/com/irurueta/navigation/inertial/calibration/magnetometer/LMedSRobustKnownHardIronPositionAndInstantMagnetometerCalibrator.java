@@ -1052,8 +1052,7 @@ public class LMedSRobustKnownHardIronPositionAndInstantMagnetometerCalibrator ex
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -1055,8 +1055,7 @@ public class LMedSRobustKnownPositionAndInstantMagnetometerCalibrator extends
                     public double computeResidual(
                             final PreliminaryResult currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
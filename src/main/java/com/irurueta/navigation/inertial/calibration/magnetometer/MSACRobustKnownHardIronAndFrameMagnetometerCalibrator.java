@@ -245,8 +245,7 @@ public class MSACRobustKnownHardIronAndFrameMagnetometerCalibrator extends
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i),
-                                currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -1006,7 +1006,7 @@ public class MSACRobustKnownHardIronPositionAndInstantMagnetometerCalibrator ext
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -505,7 +505,7 @@ public class PROMedSRobustKnownHardIronAndFrameMagnetometerCalibrator extends
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
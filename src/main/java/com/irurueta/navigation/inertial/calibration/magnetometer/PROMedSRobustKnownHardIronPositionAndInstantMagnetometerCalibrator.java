@@ -2212,7 +2212,7 @@ public class PROMedSRobustKnownHardIronPositionAndInstantMagnetometerCalibrator
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
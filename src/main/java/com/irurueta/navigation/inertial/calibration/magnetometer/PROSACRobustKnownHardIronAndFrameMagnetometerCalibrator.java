@@ -528,7 +528,7 @@ public class PROSACRobustKnownHardIronAndFrameMagnetometerCalibrator extends
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
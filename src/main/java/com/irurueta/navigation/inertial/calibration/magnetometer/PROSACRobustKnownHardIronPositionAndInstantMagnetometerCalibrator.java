@@ -2233,7 +2233,7 @@ public class PROSACRobustKnownHardIronPositionAndInstantMagnetometerCalibrator e
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
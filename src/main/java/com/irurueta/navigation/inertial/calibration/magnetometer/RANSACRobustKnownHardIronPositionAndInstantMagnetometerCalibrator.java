@@ -1079,7 +1079,7 @@ public class RANSACRobustKnownHardIronPositionAndInstantMagnetometerCalibrator e
                     public double computeResidual(
                             final Matrix currentEstimation,
                             final int i) {
-                        return computeError(mMeasurements.get(i), currentEstimation);
+                        return evaluateResidual(currentEstimation, i);
                     }
 
                     @Override
@@ -33,6 +33,8 @@ import com.irurueta.navigation.inertial.NEDMagneticFluxDensity;
 import com.irurueta.navigation.inertial.NEDPosition;
 import com.irurueta.navigation.inertial.NEDVelocity;
 import com.irurueta.navigation.inertial.calibration.CalibrationException;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluator;
+import com.irurueta.navigation.inertial.calibration.ParallelResidualEvaluatorListener;
 import com.irurueta.navigation.inertial.calibration.StandardDeviationBodyMagneticFluxDensity;
 import com.irurueta.numerical.robust.InliersData;
 import com.irurueta.numerical.robust.RobustEstimatorMethod;
@@ -173,6 +175,21 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
      */
     protected float mProgressDelta = DEFAULT_PROGRESS_DELTA;
 
+    /**
+     * Evaluates residuals of measurements respect to preliminary solutions found
+     * during robust estimation, possibly using multiple threads.
+     */
+    private final ParallelResidualEvaluator<Matrix> mResidualEvaluator =
+            new ParallelResidualEvaluator<>(
+                    new ParallelResidualEvaluatorListener<Matrix>() {
+                        @Override
+                        public double computeResidual(
+                                final Matrix estimation, final int i,
+                                final int worker) {
+                            return computeError(mMeasurements.get(i), estimation, worker);
+                        }
+                    });
+
     /**
      * Amount of confidence expressed as a value between 0.0 and 1.0 (which is equivalent
      * to 100%). The amount of confidence indicates the probability that the estimated
@@ -383,6 +400,12 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
      */
     protected Matrix mTmp4;
 
+    /**
+     * Contains temporary matrices of each additional worker thread used to
+     * compute errors when parallelism is greater than one.
+     */
+    private ErrorBuffers[] mWorkerBuffers = new ErrorBuffers[0];
+
     /**
      * Constructor.
      */
@@ -2171,6 +2194,51 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
         mProgressDelta = progressDelta;
     }
 
+    /**
+     * Gets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @return parallelism level.
+     */
+    public int getParallelism() {
+        return mResidualEvaluator.getParallelism();
+    }
+
+    /**
+     * Sets parallelism level, which is the number of threads used to evaluate
+     * residuals of measurements respect to preliminary solutions during robust
+     * estimation.
+     * Estimated results do not depend on this value.
+     *
+     * @param parallelism parallelism level.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     * @throws LockedException          if calibrator is currently running.
+     */
+    public void setParallelism(final int parallelism) throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.setParallelism(parallelism);
+        mWorkerBuffers = new ErrorBuffers[parallelism - 1];
+    }
+
+    /**
+     * Releases worker threads used to evaluate residuals of measurements in
+     * parallel, if any.
+     * Calibrator can still be used afterwards, in which case worker threads
+     * are created again when needed.
+     *
+     * @throws LockedException if calibrator is currently running.
+     */
+    public void close() throws LockedException {
+        if (mRunning) {
+            throw new LockedException();
+        }
+        mResidualEvaluator.close();
+    }
+
     /**
      * Returns amount of confidence expressed as a value between 0.0 and 1.0
      * (which is equivalent to 100%). The amount of confidence indicates the probability
@@ -7097,6 +7165,20 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
         mMagneticDensityNorm = earthB.getNorm();
     }
 
+    /**
+     * Evaluates residual of measurement at provided position respect to a
+     * preliminary result using configured parallelism.
+     *
+     * @param preliminaryResult a preliminary result.
+     * @param i                 position of measurement.
+     * @return computed residual.
+     */
+    protected double evaluateResidual(final Matrix preliminaryResult,
+                                      final int i) {
+        return mResidualEvaluator.evaluate(preliminaryResult, i,
+                mMeasurements.size());
+    }
+
     /**
      * Computes error of a preliminary result respect a given measurement.
      *
@@ -7109,16 +7191,6 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
             final Matrix preliminaryResult) {
 
         try {
-            // The magnetometer model is:
-            // mBmeas = bm + (I + Mm) * mBtrue
-
-            // mBmeas - bm = (I + Mm) * mBtrue
-
-            // mBtrue = (I + Mm)^-1 * (mBmeas - ba)
-
-            // We know that ||mBtrue||should be equal to the magnitude of the
-            // Earth magnetic field at provided location
-
             if (mIdentity == null) {
                 mIdentity = Matrix.identity(
                         BodyMagneticFluxDensity.COMPONENTS,
@@ -7142,32 +7214,97 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
                 mTmp4 = new Matrix(BodyKinematics.COMPONENTS, 1);
             }
 
-            mIdentity.add(preliminaryResult, mTmp1);
-
-            Utils.inverse(mTmp1, mTmp2);
-
-            final BodyMagneticFluxDensity measuredMagneticFluxDensity =
-                    measurement.getMagneticFluxDensity();
-            final double bMeasX = measuredMagneticFluxDensity.getBx();
-            final double bMeasY = measuredMagneticFluxDensity.getBy();
-            final double bMeasZ = measuredMagneticFluxDensity.getBz();
+            return computeError(measurement, preliminaryResult, mIdentity,
+                    mTmp1, mTmp2, mTmp3, mTmp4);
 
-            mTmp3.setElementAtIndex(0, bMeasX - mHardIronX);
-            mTmp3.setElementAtIndex(1, bMeasY - mHardIronY);
-            mTmp3.setElementAtIndex(2, bMeasZ - mHardIronZ);
+        } catch (final AlgebraException e) {
+            return Double.MAX_VALUE;
+        }
+    }
 
-            mTmp2.multiply(mTmp3, mTmp4);
+    /**
+     * Computes error of a preliminary result respect a given measurement using
+     * temporary matrices of provided worker.
+     *
+     * @param measurement       a measurement.
+     * @param preliminaryResult a preliminary result.
+     * @param worker            position of worker computing the error.
+     * @return computed error.
+     */
+    private double computeError(
+            final StandardDeviationBodyMagneticFluxDensity measurement,
+            final Matrix preliminaryResult, final int worker) {
+        if (worker == 0) {
+            return computeError(measurement, preliminaryResult);
+        }
 
-            final double norm = Utils.normF(mTmp4);
-            final double diff = mMagneticDensityNorm - norm;
+        try {
+            ErrorBuffers buffers = mWorkerBuffers[worker - 1];
+            if (buffers == null) {
+                buffers = new ErrorBuffers();
+                mWorkerBuffers[worker - 1] = buffers;
+            }
 
-            return diff * diff;
+            return computeError(measurement, preliminaryResult,
+                    buffers.mIdentity, buffers.mTmp1, buffers.mTmp2,
+                    buffers.mTmp3, buffers.mTmp4);
 
         } catch (final AlgebraException e) {
             return Double.MAX_VALUE;
         }
     }
 
+    /**
+     * Computes error of a preliminary result respect a given measurement using
+     * provided temporary matrices.
+     *
+     * @param measurement       a measurement.
+     * @param preliminaryResult a preliminary result.
+     * @param identity          3x3 identity.
+     * @param tmp1              3x3 temporary matrix.
+     * @param tmp2              3x3 temporary matrix.
+     * @param tmp3              3x1 temporary matrix.
+     * @param tmp4              3x1 temporary matrix.
+     * @return computed error.
+     * @throws AlgebraException if preliminary result is numerically unstable.
+     */
+    private double computeError(
+            final StandardDeviationBodyMagneticFluxDensity measurement,
+            final Matrix preliminaryResult, final Matrix identity,
+            final Matrix tmp1, final Matrix tmp2, final Matrix tmp3,
+            final Matrix tmp4) throws AlgebraException {
+        // The magnetometer model is:
+        // mBmeas = bm + (I + Mm) * mBtrue
+
+        // mBmeas - bm = (I + Mm) * mBtrue
+
+        // mBtrue = (I + Mm)^-1 * (mBmeas - ba)
+
+        // We know that ||mBtrue||should be equal to the magnitude of the
+        // Earth magnetic field at provided location
+
+        identity.add(preliminaryResult, tmp1);
+
+        Utils.inverse(tmp1, tmp2);
+
+        final BodyMagneticFluxDensity measuredMagneticFluxDensity =
+                measurement.getMagneticFluxDensity();
+        final double bMeasX = measuredMagneticFluxDensity.getBx();
+        final double bMeasY = measuredMagneticFluxDensity.getBy();
+        final double bMeasZ = measuredMagneticFluxDensity.getBz();
+
+        tmp3.setElementAtIndex(0, bMeasX - mHardIronX);
+        tmp3.setElementAtIndex(1, bMeasY - mHardIronY);
+        tmp3.setElementAtIndex(2, bMeasZ - mHardIronZ);
+
+        tmp2.multiply(tmp3, tmp4);
+
+        final double norm = Utils.normF(tmp4);
+        final double diff = mMagneticDensityNorm - norm;
+
+        return diff * diff;
+    }
+
     /**
      * Computes a preliminary solution for a subset of samples picked by a robust estimator.
      *
@@ -7176,6 +7313,8 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
      */
     protected void computePreliminarySolutions(
             final int[] samplesIndices, final List<Matrix> solutions) {
+        // residuals kept for previous solutions must not be reused
+        mResidualEvaluator.reset();
 
         final List<StandardDeviationBodyMagneticFluxDensity> measurements =
                 new ArrayList<>();
@@ -7318,4 +7457,50 @@ public abstract class RobustKnownHardIronPositionAndInstantMagnetometerCalibrato
                 0.0, 0.0, 0.0, result, velocity);
         return result;
     }
+
+    /**
+     * Contains temporary matrices used by a worker thread to compute errors.
+     */
+    private static final class ErrorBuffers {
+        /**
+         * Contains 3x3 identity.
+         */
+        private final Matrix mIdentity;
+
+        /**
+         * Contains 3x3 temporary matrix.
+         */
+        private final Matrix mTmp1;
+
+        /**
+         * Contains 3x3 temporary matrix.
+         */
+        private final Matrix mTmp2;
+
+        /**
+         * Contains 3x1 temporary matrix.
+         */
+        private final Matrix mTmp3;
+
+        /**
+         * Contains 3x1 temporary matrix.
+         */
+        private final Matrix mTmp4;
+
+        /**
+         * Constructor.
+         *
+         * @throws WrongSizeException never happens.
+         */
+        private ErrorBuffers() throws WrongSizeException {
+            mIdentity = Matrix.identity(BodyMagneticFluxDensity.COMPONENTS,
+                    BodyMagneticFluxDensity.COMPONENTS);
+            mTmp1 = new Matrix(BodyMagneticFluxDensity.COMPONENTS,
+                    BodyMagneticFluxDensity.COMPONENTS);
+            mTmp2 = new Matrix(BodyMagneticFluxDensity.COMPONENTS,
+                    BodyMagneticFluxDensity.COMPONENTS);
+            mTmp3 = new Matrix(BodyMagneticFluxDensity.COMPONENTS, 1);
+            mTmp4 = new Matrix(BodyMagneticFluxDensity.COMPONENTS, 1);
+        }
+    }
 }
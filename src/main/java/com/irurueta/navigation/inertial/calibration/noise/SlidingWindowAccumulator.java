@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration.noise;
+
+/**
+ * Keeps a sliding window of samples having a fixed number of channels (e.g. x, y
+ * and z coordinates of a triad) into primitive ring buffers, along with running
+ * sums to obtain averages and sums of squared deviations of each channel in
+ * constant time and without allocations.
+ * To avoid loss of precision when values have a large offset respect to their
+ * dispersion (e.g. gravity respect to accelerometer noise), sums are kept for
+ * values shifted by a reference close to their average. References and sums are
+ * recomputed from stored samples once every window length of added samples, so that
+ * accumulated rounding errors are bounded while per-sample cost remains constant
+ * on average.
+ * Optionally, an object (such as the unit of a sample) can be kept along with each
+ * sample.
+ */
+final class SlidingWindowAccumulator {
+
+    /**
+     * Number of channels of each sample.
+     */
+    private final int mNumChannels;
+
+    /**
+     * Indicates whether an object is kept along with each sample.
+     */
+    private final boolean mTagged;
+
+    /**
+     * Maximum number of samples kept within the window.
+     */
+    private int mCapacity;
+
+    /**
+     * Values of samples. Values of each channel are stored consecutively, so that
+     * value of channel c for sample at slot i is at position c * capacity + i.
+     */
+    private double[] mValues;
+
+    /**
+     * Objects kept along with each sample or null if not tagged.
+     */
+    private Object[] mTags;
+
+    /**
+     * Slot of first (oldest) sample.
+     */
+    private int mFirst;
+
+    /**
+     * Number of samples within the window.
+     */
+    private int mSize;
+
+    /**
+     * Reference subtracted from values of each channel before accumulating them.
+     */
+    private final double[] mReferences;
+
+    /**
+     * Sum of shifted values of each channel.
+     */
+    private final double[] mSums;
+
+    /**
+     * Sum of squared shifted values of each channel.
+     */
+    private final double[] mSqrSums;
+
+    /**
+     * Number of samples added since sums were last recomputed.
+     */
+    private int mAddedSinceResync;
+
+    /**
+     * Constructor.
+     *
+     * @param numChannels number of channels of each sample.
+     * @param capacity    maximum number of samples kept within the window.
+     * @param tagged      true to keep an object along with each sample.
+     */
+    SlidingWindowAccumulator(final int numChannels, final int capacity,
+                             final boolean tagged) {
+        mNumChannels = numChannels;
+        mTagged = tagged;
+        mCapacity = capacity;
+        mValues = new double[numChannels * capacity];
+        mTags = tagged ? new Object[capacity] : null;
+        mReferences = new double[numChannels];
+        mSums = new double[numChannels];
+        mSqrSums = new double[numChannels];
+    }
+
+    /**
+     * Gets maximum number of samples kept within the window.
+     *
+     * @return maximum number of samples.
+     */
+    int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Changes maximum number of samples kept within the window, keeping the most
+     * recent samples that fit into the new capacity.
+     *
+     * @param capacity new maximum number of samples.
+     */
+    void setCapacity(final int capacity) {
+        if (capacity == mCapacity) {
+            return;
+        }
+
+        final int size = Math.min(mSize, capacity);
+        final int skip = mSize - size;
+        final double[] values = new double[mNumChannels * capacity];
+        final Object[] tags = mTagged ? new Object[capacity] : null;
+        for (int i = 0; i < size; i++) {
+            final int slot = slot(skip + i);
+            for (int c = 0; c < mNumChannels; c++) {
+                values[c * capacity + i] = mValues[c * mCapacity + slot];
+            }
+            if (mTagged) {
+                tags[i] = mTags[slot];
+            }
+        }
+
+        mCapacity = capacity;
+        mValues = values;
+        mTags = tags;
+        mFirst = 0;
+        mSize = size;
+        resync();
+    }
+
+    /**
+     * Gets number of samples within the window.
+     *
+     * @return number of samples.
+     */
+    int size() {
+        return mSize;
+    }
+
+    /**
+     * Indicates whether window contains no samples.
+     *
+     * @return true if window is empty, false otherwise.
+     */
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Indicates whether window is full.
+     *
+     * @return true if window is full, false otherwise.
+     */
+    boolean isFull() {
+        return mSize == mCapacity;
+    }
+
+    /**
+     * Removes all samples.
+     */
+    void clear() {
+        if (mTagged) {
+            for (int i = 0; i < mSize; i++) {
+                mTags[slot(i)] = null;
+            }
+        }
+        mFirst = 0;
+        mSize = 0;
+        mAddedSinceResync = 0;
+        for (int c = 0; c < mNumChannels; c++) {
+            mReferences[c] = 0.0;
+            mSums[c] = 0.0;
+            mSqrSums[c] = 0.0;
+        }
+    }
+
+    /**
+     * Adds a sample of three channels, removing the oldest one if window is full.
+     *
+     * @param value0 value of first channel.
+     * @param value1 value of second channel.
+     * @param value2 value of third channel.
+     * @param tag    object to keep along with sample or null.
+     */
+    void add(final double value0, final double value1, final double value2,
+             final Object tag) {
+        final int slot = prepareSlot(tag);
+        accumulate(0, slot, value0);
+        accumulate(1, slot, value1);
+        accumulate(2, slot, value2);
+        completeAdd();
+    }
+
+    /**
+     * Adds a sample of six channels, removing the oldest one if window is full.
+     *
+     * @param value0 value of first channel.
+     * @param value1 value of second channel.
+     * @param value2 value of third channel.
+     * @param value3 value of fourth channel.
+     * @param value4 value of fifth channel.
+     * @param value5 value of sixth channel.
+     */
+    void add(final double value0, final double value1, final double value2,
+             final double value3, final double value4, final double value5) {
+        final int slot = prepareSlot(null);
+        accumulate(0, slot, value0);
+        accumulate(1, slot, value1);
+        accumulate(2, slot, value2);
+        accumulate(3, slot, value3);
+        accumulate(4, slot, value4);
+        accumulate(5, slot, value5);
+        completeAdd();
+    }
+
+    /**
+     * Gets value of a channel of the first (oldest) sample.
+     *
+     * @param channel channel.
+     * @return value.
+     */
+    double getFirst(final int channel) {
+        return mValues[channel * mCapacity + mFirst];
+    }
+
+    /**
+     * Gets value of a channel of the last (most recent) sample.
+     *
+     * @param channel channel.
+     * @return value.
+     */
+    double getLast(final int channel) {
+        return mValues[channel * mCapacity + slot(mSize - 1)];
+    }
+
+    /**
+     * Gets object kept along with the first (oldest) sample.
+     *
+     * @return object or null.
+     */
+    Object getFirstTag() {
+        return mTags[mFirst];
+    }
+
+    /**
+     * Gets object kept along with the last (most recent) sample.
+     *
+     * @return object or null.
+     */
+    Object getLastTag() {
+        return mTags[slot(mSize - 1)];
+    }
+
+    /**
+     * Gets sum of values of a channel for all samples within the window.
+     *
+     * @param channel channel.
+     * @return sum of values.
+     */
+    double getSum(final int channel) {
+        return mSums[channel] + mSize * mReferences[channel];
+    }
+
+    /**
+     * Gets sum of squared deviations of values of a channel respect to provided
+     * average for all samples within the window.
+     *
+     * @param channel channel.
+     * @param avg     average respect to which deviations are computed.
+     * @return sum of squared deviations.
+     */
+    double getSqrDeviationsSum(final int channel, final double avg) {
+        // sum((y + r - avg)^2) = sum(y^2) - 2 * d * sum(y) + n * d^2,
+        // where y = x - r and d = avg - r
+        final double d = avg - mReferences[channel];
+        final double result = mSqrSums[channel] - 2.0 * d * mSums[channel] +
+                mSize * d * d;
+        return Math.max(result, 0.0);
+    }
+
+    /**
+     * Prepares slot where a new sample will be stored, removing the oldest sample
+     * from running sums if window is full.
+     *
+     * @param tag object to keep along with sample or null.
+     * @return slot where new sample must be stored.
+     */
+    private int prepareSlot(final Object tag) {
+        final int slot;
+        if (mSize == mCapacity) {
+            slot = mFirst;
+            for (int c = 0; c < mNumChannels; c++) {
+                final double y = mValues[c * mCapacity + slot] - mReferences[c];
+                mSums[c] -= y;
+                mSqrSums[c] -= y * y;
+            }
+            mFirst = (mFirst + 1) % mCapacity;
+            mSize--;
+        } else {
+            slot = slot(mSize);
+        }
+
+        if (mSize == 0) {
+            // new sample is used as reference for next samples
+            mAddedSinceResync = 0;
+        }
+
+        if (mTagged) {
+            mTags[slot] = tag;
+        }
+        return slot;
+    }
+
+    /**
+     * Stores value of a channel for a new sample and adds it to running sums.
+     *
+     * @param channel channel.
+     * @param slot    slot where sample is stored.
+     * @param value   value to be stored.
+     */
+    private void accumulate(final int channel, final int slot, final double value) {
+        mValues[channel * mCapacity + slot] = value;
+        if (mSize == 0) {
+            mReferences[channel] = value;
+            mSums[channel] = 0.0;
+            mSqrSums[channel] = 0.0;
+            return;
+        }
+
+        final double y = value - mReferences[channel];
+        mSums[channel] += y;
+        mSqrSums[channel] += y * y;
+    }
+
+    /**
+     * Completes addition of a sample, recomputing running sums from stored samples
+     * once every window length of added samples.
+     */
+    private void completeAdd() {
+        mSize++;
+        mAddedSinceResync++;
+        if (mAddedSinceResync >= mCapacity) {
+            resync();
+        }
+    }
+
+    /**
+     * Recomputes references and running sums from stored samples, using current
+     * averages as references.
+     */
+    private void resync() {
+        mAddedSinceResync = 0;
+        for (int c = 0; c < mNumChannels; c++) {
+            final int offset = c * mCapacity;
+            double reference = 0.0;
+            for (int i = 0; i < mSize; i++) {
+                reference += mValues[offset + slot(i)];
+            }
+            if (mSize > 0) {
+                reference /= mSize;
+            }
+
+            double sum = 0.0;
+            double sqrSum = 0.0;
+            for (int i = 0; i < mSize; i++) {
+                final double y = mValues[offset + slot(i)] - reference;
+                sum += y;
+                sqrSum += y * y;
+            }
+
+            mReferences[c] = reference;
+            mSums[c] = sum;
+            mSqrSums[c] = sqrSum;
+        }
+    }
+
+    /**
+     * Converts position of a sample within the window into its slot.
+     *
+     * @param i position of sample, where 0 is the oldest one.
+     * @return slot of sample.
+     */
+    private int slot(final int i) {
+        final int slot = mFirst + i;
+        return slot < mCapacity ? slot : slot - mCapacity;
+    }
+}
@@ -65,17 +65,6 @@ public class WindowedAccelerationTriadNoiseEstimator extends
         super(listener);
     }
 
-    /**
-     * Creates a copy of a triad.
-     *
-     * @param input triad to be copied.
-     * @return copy of a triad.
-     */
-    @Override
-    protected AccelerationTriad copyTriad(final AccelerationTriad input) {
-        return new AccelerationTriad(input);
-    }
-
     /**
      * Creates a triad with provided values and unit.
      *
@@ -65,17 +65,6 @@ public class WindowedAngularSpeedTriadNoiseEstimator extends
         super(listener);
     }
 
-    /**
-     * Creates a copy of a triad.
-     *
-     * @param input triad to be copied.
-     * @return copy of a triad.
-     */
-    @Override
-    protected AngularSpeedTriad copyTriad(final AngularSpeedTriad input) {
-        return new AngularSpeedTriad(input);
-    }
-
     /**
      * Creates a triad with provided values and unit.
      *
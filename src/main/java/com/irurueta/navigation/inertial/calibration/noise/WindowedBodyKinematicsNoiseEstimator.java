@@ -28,8 +28,6 @@ import com.irurueta.units.Time;
 import com.irurueta.units.TimeConverter;
 import com.irurueta.units.TimeUnit;
 
-import java.util.LinkedList;
-
 /**
  * Estimates accelerometer and angular speed noise variances and PSD's
  * (Power Spectral Densities) along with their average values for a windowed
@@ -83,9 +81,12 @@ public class WindowedBodyKinematicsNoiseEstimator {
     private double mTimeInterval = DEFAULT_TIME_INTERVAL_SECONDS;
 
     /**
-     * Keeps the list of body kinematics samples that remain within the window.
+     * Keeps specific force and angular rate values of body kinematics samples that
+     * remain within the window, along with running sums to process the window in
+     * constant time.
      */
-    private final LinkedList<BodyKinematics> mWindowedSamples = new LinkedList<>();
+    private final SlidingWindowAccumulator mWindowedSamples =
+            new SlidingWindowAccumulator(6, DEFAULT_WINDOW_SIZE, false);
 
     /**
      * Listener to handle events raised by this estimator.
@@ -220,6 +221,7 @@ public class WindowedBodyKinematicsNoiseEstimator {
         }
 
         mWindowSize = windowSize;
+        mWindowedSamples.setCapacity(windowSize);
         reset();
     }
 
@@ -315,7 +317,13 @@ public class WindowedBodyKinematicsNoiseEstimator {
      * available.
      */
     public BodyKinematics getFirstWindowedBodyKinematics() {
-        return mWindowedSamples.isEmpty() ? null : mWindowedSamples.getFirst();
+        return mWindowedSamples.isEmpty() ? null : new BodyKinematics(
+                mWindowedSamples.getFirst(0),
+                mWindowedSamples.getFirst(1),
+                mWindowedSamples.getFirst(2),
+                mWindowedSamples.getFirst(3),
+                mWindowedSamples.getFirst(4),
+                mWindowedSamples.getFirst(5));
     }
 
     /**
@@ -328,7 +336,14 @@ public class WindowedBodyKinematicsNoiseEstimator {
         if (mWindowedSamples.isEmpty()) {
             return false;
         } else {
-            result.copyFrom(mWindowedSamples.getFirst());
+            result.setSpecificForceCoordinates(
+                    mWindowedSamples.getFirst(0),
+                    mWindowedSamples.getFirst(1),
+                    mWindowedSamples.getFirst(2));
+            result.setAngularRateCoordinates(
+                    mWindowedSamples.getFirst(3),
+                    mWindowedSamples.getFirst(4),
+                    mWindowedSamples.getFirst(5));
             return true;
         }
     }
@@ -340,7 +355,13 @@ public class WindowedBodyKinematicsNoiseEstimator {
      * available.
      */
     public BodyKinematics getLastWindowedBodyKinematics() {
-        return mWindowedSamples.isEmpty() ? null : mWindowedSamples.getLast();
+        return mWindowedSamples.isEmpty() ? null : new BodyKinematics(
+                mWindowedSamples.getLast(0),
+                mWindowedSamples.getLast(1),
+                mWindowedSamples.getLast(2),
+                mWindowedSamples.getLast(3),
+                mWindowedSamples.getLast(4),
+                mWindowedSamples.getLast(5));
     }
 
     /**
@@ -353,7 +374,14 @@ public class WindowedBodyKinematicsNoiseEstimator {
         if (mWindowedSamples.isEmpty()) {
             return false;
         } else {
-            result.copyFrom(mWindowedSamples.getLast());
+            result.setSpecificForceCoordinates(
+                    mWindowedSamples.getLast(0),
+                    mWindowedSamples.getLast(1),
+                    mWindowedSamples.getLast(2));
+            result.setAngularRateCoordinates(
+                    mWindowedSamples.getLast(3),
+                    mWindowedSamples.getLast(4),
+                    mWindowedSamples.getLast(5));
             return true;
         }
     }
@@ -1615,12 +1643,11 @@ public class WindowedBodyKinematicsNoiseEstimator {
         }
 
         final boolean wasFilled = isWindowFilled();
-        if (wasFilled) {
-            // remove first sample
-            mWindowedSamples.removeFirst();
-        }
 
-        mWindowedSamples.addLast(new BodyKinematics(kinematics));
+        // when window is filled, first sample is replaced
+        mWindowedSamples.add(kinematics.getFx(), kinematics.getFy(),
+                kinematics.getFz(), kinematics.getAngularRateX(),
+                kinematics.getAngularRateY(), kinematics.getAngularRateZ());
 
         // process window
         final boolean result = process && processWindow();
@@ -1640,6 +1667,8 @@ public class WindowedBodyKinematicsNoiseEstimator {
 
     /**
      * Processes current windowed samples.
+     * Averages and variances are obtained from running sums of windowed samples,
+     * hence each window is processed in constant time regardless of its size.
      *
      * @return true if sample was processed, false it there are not enough samples to
      * process current window.
@@ -1653,81 +1682,16 @@ public class WindowedBodyKinematicsNoiseEstimator {
         }
 
         // compute averages
-        double avgFx = 0.0;
-        double avgFy = 0.0;
-        double avgFz = 0.0;
-        double avgWx = 0.0;
-        double avgWy = 0.0;
-        double avgWz = 0.0;
-        for (final BodyKinematics kinematics : mWindowedSamples) {
-            final double fx = kinematics.getFx();
-            final double fy = kinematics.getFy();
-            final double fz = kinematics.getFz();
-            final double wx = kinematics.getAngularRateX();
-            final double wy = kinematics.getAngularRateY();
-            final double wz = kinematics.getAngularRateZ();
-
-            avgFx += fx;
-            avgFy += fy;
-            avgFz += fz;
-            avgWx += wx;
-            avgWy += wy;
-            avgWz += wz;
-        }
-
-        avgFx /= n;
-        avgFy /= n;
-        avgFz /= n;
-        avgWx /= n;
-        avgWy /= n;
-        avgWz /= n;
+        final double avgFx = mWindowedSamples.getSum(0) / n;
+        final double avgFy = mWindowedSamples.getSum(1) / n;
+        final double avgFz = mWindowedSamples.getSum(2) / n;
+        final double avgWx = mWindowedSamples.getSum(3) / n;
+        final double avgWy = mWindowedSamples.getSum(4) / n;
+        final double avgWz = mWindowedSamples.getSum(5) / n;
 
         // compute variances
-        double varFx = 0.0;
-        double varFy = 0.0;
-        double varFz = 0.0;
-        double varWx = 0.0;
-        double varWy = 0.0;
-        double varWz = 0.0;
-        for (final BodyKinematics kinematics : mWindowedSamples) {
-            final double fx = kinematics.getFx();
-            final double fy = kinematics.getFy();
-            final double fz = kinematics.getFz();
-            final double wx = kinematics.getAngularRateX();
-            final double wy = kinematics.getAngularRateY();
-            final double wz = kinematics.getAngularRateZ();
-
-            final double diffFx = fx - avgFx;
-            final double diffFy = fy - avgFy;
-            final double diffFz = fz - avgFz;
-            final double diffWx = wx - avgWx;
-            final double diffWy = wy - avgWy;
-            final double diffWz = wz - avgWz;
-
-            final double diffFx2 = diffFx * diffFx;
-            final double diffFy2 = diffFy * diffFy;
-            final double diffFz2 = diffFz * diffFz;
-            final double diffWx2 = diffWx * diffWx;
-            final double diffWy2 = diffWy * diffWy;
-            final double diffWz2 = diffWz * diffWz;
-
-            varFx += diffFx2;
-            varFy += diffFy2;
-            varFz += diffFz2;
-            varWx += diffWx2;
-            varWy += diffWy2;
-            varWz += diffWz2;
-        }
-
         final int nMinusOne = n - 1;
 
-        varFx /= nMinusOne;
-        varFy /= nMinusOne;
-        varFz /= nMinusOne;
-        varWx /= nMinusOne;
-        varWy /= nMinusOne;
-        varWz /= nMinusOne;
-
         mAvgSpecificForceX = avgFx;
         mAvgSpecificForceY = avgFy;
         mAvgSpecificForceZ = avgFz;
@@ -1735,12 +1699,12 @@ public class WindowedBodyKinematicsNoiseEstimator {
         mAvgAngularRateY = avgWy;
         mAvgAngularRateZ = avgWz;
 
-        mVarianceSpecificForceX = varFx;
-        mVarianceSpecificForceY = varFy;
-        mVarianceSpecificForceZ = varFz;
-        mVarianceAngularRateX = varWx;
-        mVarianceAngularRateY = varWy;
-        mVarianceAngularRateZ = varWz;
+        mVarianceSpecificForceX = mWindowedSamples.getSqrDeviationsSum(0, avgFx) / nMinusOne;
+        mVarianceSpecificForceY = mWindowedSamples.getSqrDeviationsSum(1, avgFy) / nMinusOne;
+        mVarianceSpecificForceZ = mWindowedSamples.getSqrDeviationsSum(2, avgFz) / nMinusOne;
+        mVarianceAngularRateX = mWindowedSamples.getSqrDeviationsSum(3, avgWx) / nMinusOne;
+        mVarianceAngularRateY = mWindowedSamples.getSqrDeviationsSum(4, avgWy) / nMinusOne;
+        mVarianceAngularRateZ = mWindowedSamples.getSqrDeviationsSum(5, avgWz) / nMinusOne;
 
         return true;
     }
@@ -66,17 +66,6 @@ public class WindowedMagneticFluxDensityTriadNoiseEstimator extends
         super(listener);
     }
 
-    /**
-     * Creates a copy of a triad.
-     *
-     * @param input triad to be copied.
-     * @return copy of a triad.
-     */
-    @Override
-    protected MagneticFluxDensityTriad copyTriad(final MagneticFluxDensityTriad input) {
-        return new MagneticFluxDensityTriad(input);
-    }
-
     /**
      * Creates a triad with provided values and unit.
      *
@@ -23,8 +23,6 @@ import com.irurueta.units.Time;
 import com.irurueta.units.TimeConverter;
 import com.irurueta.units.TimeUnit;
 
-import java.util.LinkedList;
-
 /**
  * Base class to estimate measurement noise variances and PSD's (Power Spectral Densities)
  * along with average values for a windowed amount of samples.
@@ -88,9 +86,11 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
     private double mTimeInterval = DEFAULT_TIME_INTERVAL_SECONDS;
 
     /**
-     * Keeps the list of triad samples that remain within the window.
+     * Keeps values and units of triad samples that remain within the window, along
+     * with running sums to process the window in constant time.
      */
-    private final LinkedList<T> mWindowedSamples = new LinkedList<>();
+    private final SlidingWindowAccumulator mWindowedSamples =
+            new SlidingWindowAccumulator(3, DEFAULT_WINDOW_SIZE, true);
 
     /**
      * Listener to handle events raised by this estimator.
@@ -198,6 +198,7 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
         }
 
         mWindowSize = windowSize;
+        mWindowedSamples.setCapacity(windowSize);
         reset();
     }
 
@@ -286,12 +287,20 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
 
     /**
      * Gets first provided measurement triad within the window.
+     * Windowed triads are not kept as objects, so a new instance is created on
+     * every call. Use {@link #getFirstWindowedTriad(Triad)} to avoid this
+     * allocation.
      *
      * @return first provided measurement triad within the window or null if not
      * available.
      */
+    @SuppressWarnings("unchecked")
     public T getFirstWindowedTriad() {
-        return mWindowedSamples.isEmpty() ? null : mWindowedSamples.getFirst();
+        return mWindowedSamples.isEmpty() ? null : createTriad(
+                mWindowedSamples.getFirst(0),
+                mWindowedSamples.getFirst(1),
+                mWindowedSamples.getFirst(2),
+                (U) mWindowedSamples.getFirstTag());
     }
 
     /**
@@ -304,19 +313,32 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
         if (mWindowedSamples.isEmpty()) {
             return false;
         } else {
-            result.copyFrom(mWindowedSamples.getFirst());
+            //noinspection unchecked
+            result.setValueCoordinatesAndUnit(
+                    mWindowedSamples.getFirst(0),
+                    mWindowedSamples.getFirst(1),
+                    mWindowedSamples.getFirst(2),
+                    (U) mWindowedSamples.getFirstTag());
             return true;
         }
     }
 
     /**
      * Gets last provided measurement triad within the window.
+     * Windowed triads are not kept as objects, so a new instance is created on
+     * every call. Use {@link #getLastWindowedTriad(Triad)} to avoid this
+     * allocation.
      *
      * @return last provided measurement triad within the window or null if not
      * available.
      */
+    @SuppressWarnings("unchecked")
     public T getLastWindowedTriad() {
-        return mWindowedSamples.isEmpty() ? null : mWindowedSamples.getLast();
+        return mWindowedSamples.isEmpty() ? null : createTriad(
+                mWindowedSamples.getLast(0),
+                mWindowedSamples.getLast(1),
+                mWindowedSamples.getLast(2),
+                (U) mWindowedSamples.getLastTag());
     }
 
     /**
@@ -329,7 +351,12 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
         if (mWindowedSamples.isEmpty()) {
             return false;
         } else {
-            result.copyFrom(mWindowedSamples.getLast());
+            //noinspection unchecked
+            result.setValueCoordinatesAndUnit(
+                    mWindowedSamples.getLast(0),
+                    mWindowedSamples.getLast(1),
+                    mWindowedSamples.getLast(2),
+                    (U) mWindowedSamples.getLastTag());
             return true;
         }
     }
@@ -856,7 +883,8 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
      * @throws LockedException if estimator is currently running.
      */
     public void addTriadAndProcess(final T triad) throws LockedException {
-        internalAdd(triad, true);
+        internalAdd(triad.getValueX(), triad.getValueY(), triad.getValueZ(),
+                triad.getUnit(), true);
     }
 
     /**
@@ -875,7 +903,7 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
     public void addTriadAndProcess(
             final double valueX, final double valueY, final double valueZ)
             throws LockedException {
-        addTriadAndProcess(createTriad(valueX, valueY, valueZ, getDefaultUnit()));
+        internalAdd(valueX, valueY, valueZ, getDefaultUnit(), true);
     }
 
     /**
@@ -906,7 +934,8 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
      * @throws LockedException if estimator is currently running.
      */
     public void addTriad(final T triad) throws LockedException {
-        internalAdd(triad, false);
+        internalAdd(triad.getValueX(), triad.getValueY(), triad.getValueZ(),
+                triad.getUnit(), false);
     }
 
     /**
@@ -925,7 +954,7 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
      */
     public void addTriad(final double valueX, final double valueY, final double valueZ)
             throws LockedException {
-        addTriad(createTriad(valueX, valueY, valueZ, getDefaultUnit()));
+        internalAdd(valueX, valueY, valueZ, getDefaultUnit(), false);
     }
 
     /**
@@ -977,14 +1006,6 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
         return true;
     }
 
-    /**
-     * Creates a copy of a triad.
-     *
-     * @param input triad to be copied.
-     * @return copy of a triad.
-     */
-    protected abstract T copyTriad(final T input);
-
     /**
      * Creates a triad with provided values and unit.
      *
@@ -1026,12 +1047,16 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
     /**
      * Internally adds a triad of measurement samples and processes current window if indicated.
      *
-     * @param triad   measurement triad to be added.
+     * @param valueX  x coordinate of measurement to be added.
+     * @param valueY  y coordinate of measurement to be added.
+     * @param valueZ  z coordinate of measurement to be added.
+     * @param unit    unit of measurement to be added.
      * @param process true if window of samples must also be processed, false otherwise.
      * @throws LockedException if estimator is currently running.
      */
-    private void internalAdd(final T triad, final boolean process)
-            throws LockedException {
+    private void internalAdd(final double valueX, final double valueY,
+                             final double valueZ, final U unit,
+                             final boolean process) throws LockedException {
         if (mRunning) {
             throw new LockedException();
         }
@@ -1044,12 +1069,9 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
         }
 
         final boolean wasFilled = isWindowFilled();
-        if (wasFilled) {
-            // remove first sample
-            mWindowedSamples.removeFirst();
-        }
 
-        mWindowedSamples.addLast(copyTriad(triad));
+        // when window is filled, first sample is replaced
+        mWindowedSamples.add(valueX, valueY, valueZ, unit);
 
         // process window
         if (process) {
@@ -1071,63 +1093,27 @@ public abstract class WindowedTriadNoiseEstimator<U extends Enum<?>,
 
     /**
      * Processes current windowed samples.
+     * Averages and variances are obtained from running sums of windowed samples,
+     * hence each window is processed in constant time regardless of its size.
      */
     private void processWindow() {
 
         mNumberOfProcessedSamples++;
 
         // compute averages
-        double avgX = 0.0;
-        double avgY = 0.0;
-        double avgZ = 0.0;
-        for (final T triad : mWindowedSamples) {
-            final double valueX = triad.getValueX();
-            final double valueY = triad.getValueY();
-            final double valueZ = triad.getValueZ();
-
-            avgX += valueX;
-            avgY += valueY;
-            avgZ += valueZ;
-        }
-
-        avgX /= mWindowSize;
-        avgY /= mWindowSize;
-        avgZ /= mWindowSize;
+        final double avgX = mWindowedSamples.getSum(0) / mWindowSize;
+        final double avgY = mWindowedSamples.getSum(1) / mWindowSize;
+        final double avgZ = mWindowedSamples.getSum(2) / mWindowSize;
 
         // compute variances
-        double varX = 0.0;
-        double varY = 0.0;
-        double varZ = 0.0;
-        for (final T triad : mWindowedSamples) {
-            final double fx = triad.getValueX();
-            final double fy = triad.getValueY();
-            final double fz = triad.getValueZ();
-
-            final double diffX = fx - avgX;
-            final double diffY = fy - avgY;
-            final double diffZ = fz - avgZ;
-
-            final double diffX2 = diffX * diffX;
-            final double diffY2 = diffY * diffY;
-            final double diffZ2 = diffZ * diffZ;
-
-            varX += diffX2;
-            varY += diffY2;
-            varZ += diffZ2;
-        }
-
         final int m = mWindowSize - 1;
 
-        varX /= m;
-        varY /= m;
-        varZ /= m;
-
         mAvgX = avgX;
         mAvgY = avgY;
         mAvgZ = avgZ;
 
-        mVarianceX = varX;
-        mVarianceY = varY;
-        mVarianceZ = varZ;
+        mVarianceX = mWindowedSamples.getSqrDeviationsSum(0, avgX) / m;
+        mVarianceY = mWindowedSamples.getSqrDeviationsSum(1, avgY) / m;
+        mVarianceZ = mWindowedSamples.getSqrDeviationsSum(2, avgZ) / m;
     }
 }
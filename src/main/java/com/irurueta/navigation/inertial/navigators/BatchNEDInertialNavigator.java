@@ -0,0 +1,548 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.navigators;
+
+import com.irurueta.navigation.geodesic.Constants;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs precision local-navigation-frame inertial navigation equations for a batch of
+ * tracks stored as structure of arrays in a {@link NEDNavigationBatch}.
+ * This navigator solves the same equations as {@link NEDInertialNavigator}, but
+ * operates directly on primitive arrays, so that no {@link com.irurueta.navigation.frames.NEDFrame},
+ * {@link com.irurueta.navigation.frames.CoordinateTransformation} or
+ * {@link com.irurueta.navigation.inertial.BodyKinematics} instances are created per track.
+ * Ranges of tracks can optionally be split across a {@link ForkJoinPool}.
+ * NOTE: only the attitude update and specific force frame transformation phases are precise.
+ * This implementation is based on the equations defined in "Principles of GNSS, Inertial, and Multisensor
+ * Integrated Navigation Systems, Second Edition" and on the companion software available at:
+ * https://github.com/ymjdz/MATLAB-Codes/blob/master/Nav_equations_NED.m
+ */
+public class BatchNEDInertialNavigator {
+
+    /**
+     * Earth rotation rate expressed in radians per second (rad/s).
+     */
+    public static final double EARTH_ROTATION_RATE = Constants.EARTH_ROTATION_RATE;
+
+    /**
+     * Default minimum number of tracks processed by each task when splitting a batch
+     * across a fork-join pool.
+     */
+    public static final int DEFAULT_MIN_TRACKS_PER_TASK = 1024;
+
+    /**
+     * Alpha threshold.
+     */
+    private static final double ALPHA_THRESHOLD = 1e-8;
+
+    /**
+     * Equatorial radius of WGS84 ellipsoid expressed in meters (m).
+     */
+    private static final double EARTH_EQUATORIAL_RADIUS_WGS84 = Constants.EARTH_EQUATORIAL_RADIUS_WGS84;
+
+    /**
+     * Polar radius of WGS84 ellipsoid expressed in meters (m).
+     */
+    private static final double EARTH_POLAR_RADIUS_WGS84 = Constants.EARTH_POLAR_RADIUS_WGS84;
+
+    /**
+     * Earth eccentricity.
+     */
+    private static final double EARTH_ECCENTRICITY = Constants.EARTH_ECCENTRICITY;
+
+    /**
+     * WGS84 Earth flattening.
+     */
+    private static final double EARTH_FLATTENING_WGS84 = Constants.EARTH_FLATTENING_WGS84;
+
+    /**
+     * WGS84 Earth gravitational constant expressed in m^3 * s^-2.
+     */
+    private static final double EARTH_GRAVITATIONAL_CONSTANT = Constants.EARTH_GRAVITATIONAL_CONSTANT;
+
+    /**
+     * Fork-join pool to split batches into. If not provided, batches are processed
+     * on the calling thread.
+     */
+    private final ForkJoinPool mPool;
+
+    /**
+     * Minimum number of tracks processed by each task when splitting a batch across
+     * a fork-join pool.
+     */
+    private int mMinTracksPerTask = DEFAULT_MIN_TRACKS_PER_TASK;
+
+    /**
+     * Constructor.
+     * Batches will be processed on the calling thread.
+     */
+    public BatchNEDInertialNavigator() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param pool fork-join pool where ranges of tracks will be processed. If null,
+     *             batches will be processed on the calling thread.
+     */
+    public BatchNEDInertialNavigator(final ForkJoinPool pool) {
+        mPool = pool;
+    }
+
+    /**
+     * Gets fork-join pool where ranges of tracks are processed, if provided.
+     *
+     * @return fork-join pool or null if batches are processed on the calling thread.
+     */
+    public ForkJoinPool getPool() {
+        return mPool;
+    }
+
+    /**
+     * Gets minimum number of tracks processed by each task when splitting a batch
+     * across a fork-join pool.
+     *
+     * @return minimum number of tracks per task.
+     */
+    public int getMinTracksPerTask() {
+        return mMinTracksPerTask;
+    }
+
+    /**
+     * Sets minimum number of tracks processed by each task when splitting a batch
+     * across a fork-join pool.
+     *
+     * @param minTracksPerTask minimum number of tracks per task.
+     * @throws IllegalArgumentException if provided value is less than 1.
+     */
+    public void setMinTracksPerTask(final int minTracksPerTask) {
+        if (minTracksPerTask < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        mMinTracksPerTask = minTracksPerTask;
+    }
+
+    /**
+     * Runs precision local-navigation-frame inertial navigation equations for all
+     * tracks in provided batch, using the kinematics contained in the batch.
+     * Navigation state of each track is updated in place.
+     *
+     * @param timeInterval time interval between epochs expressed in seconds (s).
+     * @param batch        batch containing state and kinematics of tracks.
+     */
+    public void navigate(final double timeInterval, final NEDNavigationBatch batch) {
+        navigate(timeInterval, batch, 0, batch.getSize());
+    }
+
+    /**
+     * Runs precision local-navigation-frame inertial navigation equations for all
+     * tracks in provided batch, using the kinematics contained in the batch.
+     * Navigation state of each track is updated in place.
+     *
+     * @param timeInterval time interval between epochs.
+     * @param batch        batch containing state and kinematics of tracks.
+     */
+    public void navigate(final Time timeInterval, final NEDNavigationBatch batch) {
+        navigate(convertTimeToDouble(timeInterval), batch);
+    }
+
+    /**
+     * Runs precision local-navigation-frame inertial navigation equations for a range
+     * of tracks in provided batch, using the kinematics contained in the batch.
+     * Navigation state of each track within the range is updated in place.
+     *
+     * @param timeInterval time interval between epochs expressed in seconds (s).
+     * @param batch        batch containing state and kinematics of tracks.
+     * @param fromIndex    index of first track to be processed (inclusive).
+     * @param toIndex      index of last track to be processed (exclusive).
+     * @throws IndexOutOfBoundsException if provided range is not valid.
+     */
+    public void navigate(final double timeInterval, final NEDNavigationBatch batch,
+                         final int fromIndex, final int toIndex) {
+        if (fromIndex < 0 || toIndex > batch.getSize() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (mPool == null || toIndex - fromIndex <= mMinTracksPerTask) {
+            navigateNED(timeInterval, batch, fromIndex, toIndex);
+        } else {
+            mPool.invoke(new NavigationTask(timeInterval, batch, fromIndex, toIndex,
+                    mMinTracksPerTask));
+        }
+    }
+
+    /**
+     * Runs precision local-navigation-frame inertial navigation equations for a range
+     * of tracks in provided batch on the calling thread.
+     * Navigation state of each track within the range is updated in place.
+     *
+     * @param timeInterval time interval between epochs expressed in seconds (s).
+     * @param batch        batch containing state and kinematics of tracks.
+     * @param fromIndex    index of first track to be processed (inclusive).
+     * @param toIndex      index of last track to be processed (exclusive).
+     */
+    public static void navigateNED(final double timeInterval, final NEDNavigationBatch batch,
+                                   final int fromIndex, final int toIndex) {
+        final double[] latitudes = batch.getLatitudes();
+        final double[] longitudes = batch.getLongitudes();
+        final double[] heights = batch.getHeights();
+        final double[] vns = batch.getVn();
+        final double[] ves = batch.getVe();
+        final double[] vds = batch.getVd();
+
+        final double[] c00 = batch.getAttitude(0, 0);
+        final double[] c01 = batch.getAttitude(0, 1);
+        final double[] c02 = batch.getAttitude(0, 2);
+        final double[] c10 = batch.getAttitude(1, 0);
+        final double[] c11 = batch.getAttitude(1, 1);
+        final double[] c12 = batch.getAttitude(1, 2);
+        final double[] c20 = batch.getAttitude(2, 0);
+        final double[] c21 = batch.getAttitude(2, 1);
+        final double[] c22 = batch.getAttitude(2, 2);
+
+        final double[] fxs = batch.getFx();
+        final double[] fys = batch.getFy();
+        final double[] fzs = batch.getFz();
+        final double[] angularRatesX = batch.getAngularRateX();
+        final double[] angularRatesY = batch.getAngularRateY();
+        final double[] angularRatesZ = batch.getAngularRateZ();
+
+        final double e2 = EARTH_ECCENTRICITY * EARTH_ECCENTRICITY;
+        final double rnNumerator = EARTH_EQUATORIAL_RADIUS_WGS84 * (1.0 - e2);
+        final double omegaIe2 = EARTH_ROTATION_RATE * EARTH_ROTATION_RATE;
+        final double r02 = EARTH_EQUATORIAL_RADIUS_WGS84 * EARTH_EQUATORIAL_RADIUS_WGS84;
+        final double gravityHeightFactor = 2.0 / EARTH_EQUATORIAL_RADIUS_WGS84;
+        final double gravityRotationTerm = omegaIe2 * r02 * EARTH_POLAR_RADIUS_WGS84
+                / EARTH_GRAVITATIONAL_CONSTANT;
+        final double halfTimeInterval = 0.5 * timeInterval;
+
+        for (int i = fromIndex; i < toIndex; i++) {
+            final double oldLatitude = latitudes[i];
+            final double oldHeight = heights[i];
+            final double oldVn = vns[i];
+            final double oldVe = ves[i];
+            final double oldVd = vds[i];
+
+            final double oldC00 = c00[i];
+            final double oldC01 = c01[i];
+            final double oldC02 = c02[i];
+            final double oldC10 = c10[i];
+            final double oldC11 = c11[i];
+            final double oldC12 = c12[i];
+            final double oldC20 = c20[i];
+            final double oldC21 = c21[i];
+            final double oldC22 = c22[i];
+
+            // Calculate attitude increment and magnitude
+            final double alphaX = angularRatesX[i] * timeInterval;
+            final double alphaY = angularRatesY[i] * timeInterval;
+            final double alphaZ = angularRatesZ[i] * timeInterval;
+
+            final double alphaX2 = alphaX * alphaX;
+            final double alphaY2 = alphaY * alphaY;
+            final double alphaZ2 = alphaZ * alphaZ;
+            final double magAlpha2 = alphaX2 + alphaY2 + alphaZ2;
+            final double magAlpha = Math.sqrt(magAlpha2);
+
+            // Elements of squared skew-symmetric matrix of attitude increment
+            final double s00 = -(alphaY2 + alphaZ2);
+            final double s11 = -(alphaX2 + alphaZ2);
+            final double s22 = -(alphaX2 + alphaY2);
+            final double s01 = alphaX * alphaY;
+            final double s02 = alphaX * alphaZ;
+            final double s12 = alphaY * alphaZ;
+
+            // From (2.123), determine the angular rate of the ECEF frame with respect
+            // the ECI frame, resolved about NED
+            final double sinOldLatitude = Math.sin(oldLatitude);
+            final double cosOldLatitude = Math.cos(oldLatitude);
+            final double omegaIenX = cosOldLatitude * EARTH_ROTATION_RATE;
+            final double omegaIenZ = -sinOldLatitude * EARTH_ROTATION_RATE;
+
+            // From (5.44), determine the angular rate of the NED frame with respect
+            // the ECEF frame, resolved about NED
+            final double oldTmp = 1.0 - e2 * sinOldLatitude * sinOldLatitude;
+            final double oldRn = rnNumerator / Math.pow(oldTmp, 1.5);
+            final double oldRe = EARTH_EQUATORIAL_RADIUS_WGS84 / Math.sqrt(oldTmp);
+
+            final double oldRePlusHeight = oldRe + oldHeight;
+            final double oldOmegaEnNX = oldVe / oldRePlusHeight;
+            final double oldOmegaEnNY = -oldVn / (oldRn + oldHeight);
+            final double oldOmegaEnNZ = -oldVe * Math.tan(oldLatitude) / oldRePlusHeight;
+
+            // 0.5 * skew(oldOmegaEnN + omegaIen)
+            final double wx = 0.5 * (oldOmegaEnNX + omegaIenX);
+            final double wy = 0.5 * oldOmegaEnNY;
+            final double wz = 0.5 * (oldOmegaEnNZ + omegaIenZ);
+
+            // Calculate the average body-to-ECEF-frame coordinate transformation
+            // matrix over the update interval using (5.84) and (5.86)
+            final double value1;
+            final double value2;
+            if (magAlpha > ALPHA_THRESHOLD) {
+                value1 = (1.0 - Math.cos(magAlpha)) / magAlpha2;
+                value2 = (1.0 - Math.sin(magAlpha) / magAlpha) / magAlpha2;
+            } else {
+                value1 = 0.0;
+                value2 = 0.0;
+            }
+
+            final double a00 = 1.0 + value2 * s00;
+            final double a01 = -value1 * alphaZ + value2 * s01;
+            final double a02 = value1 * alphaY + value2 * s02;
+            final double a10 = value1 * alphaZ + value2 * s01;
+            final double a11 = 1.0 + value2 * s11;
+            final double a12 = -value1 * alphaX + value2 * s12;
+            final double a20 = -value1 * alphaY + value2 * s02;
+            final double a21 = value1 * alphaX + value2 * s12;
+            final double a22 = 1.0 + value2 * s22;
+
+            // aveCbn = oldCbn * a - 0.5 * skew(w) * oldCbn
+            final double ave00 = oldC00 * a00 + oldC01 * a10 + oldC02 * a20
+                    - (-wz * oldC10 + wy * oldC20);
+            final double ave01 = oldC00 * a01 + oldC01 * a11 + oldC02 * a21
+                    - (-wz * oldC11 + wy * oldC21);
+            final double ave02 = oldC00 * a02 + oldC01 * a12 + oldC02 * a22
+                    - (-wz * oldC12 + wy * oldC22);
+            final double ave10 = oldC10 * a00 + oldC11 * a10 + oldC12 * a20
+                    - (wz * oldC00 - wx * oldC20);
+            final double ave11 = oldC10 * a01 + oldC11 * a11 + oldC12 * a21
+                    - (wz * oldC01 - wx * oldC21);
+            final double ave12 = oldC10 * a02 + oldC11 * a12 + oldC12 * a22
+                    - (wz * oldC02 - wx * oldC22);
+            final double ave20 = oldC20 * a00 + oldC21 * a10 + oldC22 * a20
+                    - (-wy * oldC00 + wx * oldC10);
+            final double ave21 = oldC20 * a01 + oldC21 * a11 + oldC22 * a21
+                    - (-wy * oldC01 + wx * oldC11);
+            final double ave22 = oldC20 * a02 + oldC21 * a12 + oldC22 * a22
+                    - (-wy * oldC02 + wx * oldC12);
+
+            // Transform specific force to ECEF-frame resolving axes using (5.86)
+            final double fx = fxs[i];
+            final double fy = fys[i];
+            final double fz = fzs[i];
+            final double fibnX = ave00 * fx + ave01 * fy + ave02 * fz;
+            final double fibnY = ave10 * fx + ave11 * fy + ave12 * fz;
+            final double fibnZ = ave20 * fx + ave21 * fy + ave22 * fz;
+
+            // Update velocity
+            // From (5.54), using the Somigliana model (2.134) and (2.139),
+            // (2.140) for gravity (east gravity is zero)
+            final double sinsqL = sinOldLatitude * sinOldLatitude;
+            final double g0 = 9.7803253359 * (1.0 + 0.001931853 * sinsqL) / Math.sqrt(1.0 - e2 * sinsqL);
+            final double gn = -8.08E-9 * oldHeight * Math.sin(2.0 * oldLatitude);
+            final double gd = g0 * (1.0 - gravityHeightFactor * (1.0 + EARTH_FLATTENING_WGS84
+                    * (1.0 - 2.0 * sinsqL) + gravityRotationTerm) * oldHeight
+                    + (3.0 * oldHeight * oldHeight / r02));
+
+            // skew(oldOmegaEnN + 2 * omegaIen) * oldVebn
+            final double w2x = oldOmegaEnNX + 2.0 * omegaIenX;
+            final double w2y = oldOmegaEnNY;
+            final double w2z = oldOmegaEnNZ + 2.0 * omegaIenZ;
+
+            final double vn = oldVn + (fibnX + gn) * timeInterval - (w2y * oldVd - w2z * oldVe);
+            final double ve = oldVe + fibnY * timeInterval - (w2z * oldVn - w2x * oldVd);
+            final double vd = oldVd + (fibnZ + gd) * timeInterval - (w2x * oldVe - w2y * oldVn);
+
+            // Update curvilinear position
+            // Update height using (5.56)
+            final double height = oldHeight - halfTimeInterval * (oldVd + vd);
+
+            // Update latitude using (5.56)
+            final double latitude = oldLatitude
+                    + halfTimeInterval * (oldVn / (oldRn + oldHeight) + vn / (oldRn + height));
+
+            // Calculate meridian and transverse radii of curvature
+            final double sinLatitude = Math.sin(latitude);
+            final double cosLatitude = Math.cos(latitude);
+            final double tmp = 1.0 - e2 * sinLatitude * sinLatitude;
+            final double rn = rnNumerator / Math.pow(tmp, 1.5);
+            final double re = EARTH_EQUATORIAL_RADIUS_WGS84 / Math.sqrt(tmp);
+
+            // Update longitude using (5.56)
+            final double longitude = longitudes[i]
+                    + halfTimeInterval * (oldVe / (oldRePlusHeight * cosOldLatitude)
+                    + ve / ((re + height) * cosLatitude));
+
+            // Attitude update
+            // From (5.44), determine the angular rate of the NED frame with respect the
+            // ECEF frame, resolved about NED
+            final double rePlusHeight = re + height;
+            final double omegaEnNX = ve / rePlusHeight;
+            final double omegaEnNY = -vn / (rn + height);
+            final double omegaEnNZ = -ve * Math.tan(latitude) / rePlusHeight;
+
+            // Obtain coordinate transformation matrix from the new attitude with respect
+            // an inertial frame to the old using Rodrigues' formula, (5.73)
+            final double value3;
+            final double value4;
+            if (magAlpha > ALPHA_THRESHOLD) {
+                value3 = Math.sin(magAlpha) / magAlpha;
+                value4 = (1.0 - Math.cos(magAlpha)) / magAlpha2;
+            } else {
+                value3 = 1.0;
+                value4 = 0.0;
+            }
+
+            final double n00 = 1.0 + value4 * s00;
+            final double n01 = -value3 * alphaZ + value4 * s01;
+            final double n02 = value3 * alphaY + value4 * s02;
+            final double n10 = value3 * alphaZ + value4 * s01;
+            final double n11 = 1.0 + value4 * s11;
+            final double n12 = -value3 * alphaX + value4 * s12;
+            final double n20 = -value3 * alphaY + value4 * s02;
+            final double n21 = value3 * alphaX + value4 * s12;
+            final double n22 = 1.0 + value4 * s22;
+
+            // Update attitude using (5.77)
+            // cbn = (I - skew(omegaIen + 0.5 * omegaEnN + 0.5 * oldOmegaEnN) * dt)
+            //      * oldCbn * cNewOld
+            final double ox = (omegaIenX + 0.5 * omegaEnNX + 0.5 * oldOmegaEnNX) * timeInterval;
+            final double oy = (0.5 * omegaEnNY + 0.5 * oldOmegaEnNY) * timeInterval;
+            final double oz = (omegaIenZ + 0.5 * omegaEnNZ + 0.5 * oldOmegaEnNZ) * timeInterval;
+
+            final double t00 = oldC00 + oz * oldC10 - oy * oldC20;
+            final double t01 = oldC01 + oz * oldC11 - oy * oldC21;
+            final double t02 = oldC02 + oz * oldC12 - oy * oldC22;
+            final double t10 = -oz * oldC00 + oldC10 + ox * oldC20;
+            final double t11 = -oz * oldC01 + oldC11 + ox * oldC21;
+            final double t12 = -oz * oldC02 + oldC12 + ox * oldC22;
+            final double t20 = oy * oldC00 - ox * oldC10 + oldC20;
+            final double t21 = oy * oldC01 - ox * oldC11 + oldC21;
+            final double t22 = oy * oldC02 - ox * oldC12 + oldC22;
+
+            final double cbn00 = t00 * n00 + t01 * n10 + t02 * n20;
+            final double cbn01 = t00 * n01 + t01 * n11 + t02 * n21;
+            final double cbn02 = t00 * n02 + t01 * n12 + t02 * n22;
+            final double cbn10 = t10 * n00 + t11 * n10 + t12 * n20;
+            final double cbn11 = t10 * n01 + t11 * n11 + t12 * n21;
+            final double cbn12 = t10 * n02 + t11 * n12 + t12 * n22;
+            final double cbn20 = t20 * n00 + t21 * n10 + t22 * n20;
+            final double cbn21 = t20 * n01 + t21 * n11 + t22 * n21;
+            final double cbn22 = t20 * n02 + t21 * n12 + t22 * n22;
+
+            // normalize cbn to ensure it remains valid
+            final double detCbn = cbn00 * (cbn11 * cbn22 - cbn12 * cbn21)
+                    - cbn01 * (cbn10 * cbn22 - cbn12 * cbn20)
+                    + cbn02 * (cbn10 * cbn21 - cbn11 * cbn20);
+            final double scale = Math.pow(1.0 / detCbn, 1.0 / 3.0);
+
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+            heights[i] = height;
+
+            vns[i] = vn;
+            ves[i] = ve;
+            vds[i] = vd;
+
+            c00[i] = cbn00 * scale;
+            c01[i] = cbn01 * scale;
+            c02[i] = cbn02 * scale;
+            c10[i] = cbn10 * scale;
+            c11[i] = cbn11 * scale;
+            c12[i] = cbn12 * scale;
+            c20[i] = cbn20 * scale;
+            c21[i] = cbn21 * scale;
+            c22[i] = cbn22 * scale;
+        }
+    }
+
+    /**
+     * Converts provided time instance into its corresponding value expressed in
+     * seconds.
+     *
+     * @param time time instance to be converted.
+     * @return converted value expressed in seconds.
+     */
+    private static double convertTimeToDouble(final Time time) {
+        return TimeConverter.convert(time.getValue().doubleValue(), time.getUnit(),
+                TimeUnit.SECOND);
+    }
+
+    /**
+     * Fork-join task navigating a range of tracks, which is recursively split while
+     * it contains more than the minimum number of tracks per task.
+     */
+    private static class NavigationTask extends RecursiveAction {
+
+        /**
+         * Time interval between epochs expressed in seconds (s).
+         */
+        private final double mTimeInterval;
+
+        /**
+         * Batch containing state and kinematics of tracks.
+         */
+        private final NEDNavigationBatch mBatch;
+
+        /**
+         * Index of first track to be processed (inclusive).
+         */
+        private final int mFromIndex;
+
+        /**
+         * Index of last track to be processed (exclusive).
+         */
+        private final int mToIndex;
+
+        /**
+         * Minimum number of tracks processed by each task.
+         */
+        private final int mMinTracksPerTask;
+
+        /**
+         * Constructor.
+         *
+         * @param timeInterval     time interval between epochs expressed in seconds (s).
+         * @param batch            batch containing state and kinematics of tracks.
+         * @param fromIndex        index of first track to be processed (inclusive).
+         * @param toIndex          index of last track to be processed (exclusive).
+         * @param minTracksPerTask minimum number of tracks processed by each task.
+         */
+        NavigationTask(final double timeInterval, final NEDNavigationBatch batch,
+                       final int fromIndex, final int toIndex, final int minTracksPerTask) {
+            mTimeInterval = timeInterval;
+            mBatch = batch;
+            mFromIndex = fromIndex;
+            mToIndex = toIndex;
+            mMinTracksPerTask = minTracksPerTask;
+        }
+
+        /**
+         * Navigates range of tracks or splits it into two halves.
+         */
+        @Override
+        protected void compute() {
+            if (mToIndex - mFromIndex <= mMinTracksPerTask) {
+                navigateNED(mTimeInterval, mBatch, mFromIndex, mToIndex);
+            } else {
+                final int middle = (mFromIndex + mToIndex) >>> 1;
+                invokeAll(new NavigationTask(mTimeInterval, mBatch, mFromIndex, middle,
+                                mMinTracksPerTask),
+                        new NavigationTask(mTimeInterval, mBatch, middle, mToIndex,
+                                mMinTracksPerTask));
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.navigators;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.geometry.InvalidRotationMatrixException;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.inertial.BodyKinematics;
+
+import java.util.Arrays;
+
+/**
+ * Contains the NED navigation state and the body kinematics of a fixed number of
+ * tracks stored as structure of arrays.
+ * Each track is identified by its position within the arrays, so that the state of
+ * track i is made of the i-th element of latitude, longitude, height, velocity and
+ * each of the 9 attitude arrays, and the kinematics applied to track i during a
+ * navigation step are the i-th element of specific force and angular rate arrays.
+ * Getters return internal arrays (no copy is made), so that callers can fill
+ * kinematics and read navigation results directly without creating
+ * {@link NEDFrame} or {@link BodyKinematics} instances per track.
+ * This class is used by {@link BatchNEDInertialNavigator}.
+ */
+public class NEDNavigationBatch {
+
+    /**
+     * Number of rows and columns of body-to-NED coordinate transformation matrices.
+     */
+    private static final int ROWS = CoordinateTransformation.ROWS;
+
+    /**
+     * Number of tracks.
+     */
+    private final int mSize;
+
+    /**
+     * Latitudes of tracks expressed in radians (rad).
+     */
+    private final double[] mLatitudes;
+
+    /**
+     * Longitudes of tracks expressed in radians (rad).
+     */
+    private final double[] mLongitudes;
+
+    /**
+     * Heights of tracks expressed in meters (m).
+     */
+    private final double[] mHeights;
+
+    /**
+     * North velocity coordinates of tracks expressed in meters per second (m/s).
+     */
+    private final double[] mVn;
+
+    /**
+     * East velocity coordinates of tracks expressed in meters per second (m/s).
+     */
+    private final double[] mVe;
+
+    /**
+     * Down velocity coordinates of tracks expressed in meters per second (m/s).
+     */
+    private final double[] mVd;
+
+    /**
+     * Elements of body-to-NED coordinate transformation matrices of tracks stored
+     * in row order (i.e. element (row, col) of track i is stored at
+     * mAttitude[row * 3 + col][i]).
+     */
+    private final double[][] mAttitude;
+
+    /**
+     * Specific force x-coordinates resolved along body-frame axes and expressed in
+     * meters per squared second (m/s^2).
+     */
+    private final double[] mFx;
+
+    /**
+     * Specific force y-coordinates resolved along body-frame axes and expressed in
+     * meters per squared second (m/s^2).
+     */
+    private final double[] mFy;
+
+    /**
+     * Specific force z-coordinates resolved along body-frame axes and expressed in
+     * meters per squared second (m/s^2).
+     */
+    private final double[] mFz;
+
+    /**
+     * Angular rate x-coordinates resolved along body-frame axes and expressed in
+     * radians per second (rad/s).
+     */
+    private final double[] mAngularRateX;
+
+    /**
+     * Angular rate y-coordinates resolved along body-frame axes and expressed in
+     * radians per second (rad/s).
+     */
+    private final double[] mAngularRateY;
+
+    /**
+     * Angular rate z-coordinates resolved along body-frame axes and expressed in
+     * radians per second (rad/s).
+     */
+    private final double[] mAngularRateZ;
+
+    /**
+     * Constructor.
+     * All tracks are initialized at zero position and velocity, with identity
+     * attitude and without kinematics.
+     *
+     * @param size number of tracks.
+     * @throws IllegalArgumentException if provided size is negative.
+     */
+    public NEDNavigationBatch(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        mSize = size;
+        mLatitudes = new double[size];
+        mLongitudes = new double[size];
+        mHeights = new double[size];
+        mVn = new double[size];
+        mVe = new double[size];
+        mVd = new double[size];
+
+        mAttitude = new double[ROWS * ROWS][];
+        for (int k = 0; k < mAttitude.length; k++) {
+            mAttitude[k] = new double[size];
+        }
+        for (int k = 0; k < ROWS; k++) {
+            Arrays.fill(mAttitude[k * ROWS + k], 1.0);
+        }
+
+        mFx = new double[size];
+        mFy = new double[size];
+        mFz = new double[size];
+        mAngularRateX = new double[size];
+        mAngularRateY = new double[size];
+        mAngularRateZ = new double[size];
+    }
+
+    /**
+     * Gets number of tracks.
+     *
+     * @return number of tracks.
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * Gets internal array containing latitudes of tracks expressed in radians (rad).
+     *
+     * @return latitudes of tracks.
+     */
+    public double[] getLatitudes() {
+        return mLatitudes;
+    }
+
+    /**
+     * Gets internal array containing longitudes of tracks expressed in radians (rad).
+     *
+     * @return longitudes of tracks.
+     */
+    public double[] getLongitudes() {
+        return mLongitudes;
+    }
+
+    /**
+     * Gets internal array containing heights of tracks expressed in meters (m).
+     *
+     * @return heights of tracks.
+     */
+    public double[] getHeights() {
+        return mHeights;
+    }
+
+    /**
+     * Gets internal array containing north velocity coordinates of tracks with respect
+     * ECEF frame, resolved along NED-frame axes and expressed in meters per second (m/s).
+     *
+     * @return north velocity coordinates of tracks.
+     */
+    public double[] getVn() {
+        return mVn;
+    }
+
+    /**
+     * Gets internal array containing east velocity coordinates of tracks with respect
+     * ECEF frame, resolved along NED-frame axes and expressed in meters per second (m/s).
+     *
+     * @return east velocity coordinates of tracks.
+     */
+    public double[] getVe() {
+        return mVe;
+    }
+
+    /**
+     * Gets internal array containing down velocity coordinates of tracks with respect
+     * ECEF frame, resolved along NED-frame axes and expressed in meters per second (m/s).
+     *
+     * @return down velocity coordinates of tracks.
+     */
+    public double[] getVd() {
+        return mVd;
+    }
+
+    /**
+     * Gets internal array containing the element at provided row and column of the
+     * body-to-NED coordinate transformation matrix of each track.
+     *
+     * @param row row of element (between 0 and 2).
+     * @param col column of element (between 0 and 2).
+     * @return element of body-to-NED coordinate transformation matrix of tracks.
+     * @throws IllegalArgumentException if provided row or column is not between 0 and 2.
+     */
+    public double[] getAttitude(final int row, final int col) {
+        if (row < 0 || row >= ROWS || col < 0 || col >= ROWS) {
+            throw new IllegalArgumentException();
+        }
+        return mAttitude[row * ROWS + col];
+    }
+
+    /**
+     * Gets internal array containing specific force x-coordinates applied to tracks,
+     * resolved along body-frame axes, averaged over time interval and expressed in
+     * meters per squared second (m/s^2).
+     *
+     * @return specific force x-coordinates.
+     */
+    public double[] getFx() {
+        return mFx;
+    }
+
+    /**
+     * Gets internal array containing specific force y-coordinates applied to tracks,
+     * resolved along body-frame axes, averaged over time interval and expressed in
+     * meters per squared second (m/s^2).
+     *
+     * @return specific force y-coordinates.
+     */
+    public double[] getFy() {
+        return mFy;
+    }
+
+    /**
+     * Gets internal array containing specific force z-coordinates applied to tracks,
+     * resolved along body-frame axes, averaged over time interval and expressed in
+     * meters per squared second (m/s^2).
+     *
+     * @return specific force z-coordinates.
+     */
+    public double[] getFz() {
+        return mFz;
+    }
+
+    /**
+     * Gets internal array containing angular rate x-coordinates applied to tracks,
+     * resolved along body-frame axes, averaged over time interval and expressed in
+     * radians per second (rad/s).
+     *
+     * @return angular rate x-coordinates.
+     */
+    public double[] getAngularRateX() {
+        return mAngularRateX;
+    }
+
+    /**
+     * Gets internal array containing angular rate y-coordinates applied to tracks,
+     * resolved along body-frame axes, averaged over time interval and expressed in
+     * radians per second (rad/s).
+     *
+     * @return angular rate y-coordinates.
+     */
+    public double[] getAngularRateY() {
+        return mAngularRateY;
+    }
+
+    /**
+     * Gets internal array containing angular rate z-coordinates applied to tracks,
+     * resolved along body-frame axes, averaged over time interval and expressed in
+     * radians per second (rad/s).
+     *
+     * @return angular rate z-coordinates.
+     */
+    public double[] getAngularRateZ() {
+        return mAngularRateZ;
+    }
+
+    /**
+     * Sets navigation state of a track from provided NED frame.
+     *
+     * @param index index of track.
+     * @param frame NED frame containing body position, velocity and coordinate
+     *              transformation matrix.
+     * @throws IndexOutOfBoundsException if provided index is not valid.
+     */
+    public void setFrame(final int index, final NEDFrame frame) {
+        checkIndex(index);
+
+        mLatitudes[index] = frame.getLatitude();
+        mLongitudes[index] = frame.getLongitude();
+        mHeights[index] = frame.getHeight();
+
+        mVn[index] = frame.getVn();
+        mVe[index] = frame.getVe();
+        mVd[index] = frame.getVd();
+
+        final Matrix cbn = frame.getCoordinateTransformationMatrix();
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < ROWS; col++) {
+                mAttitude[row * ROWS + col][index] = cbn.getElementAt(row, col);
+            }
+        }
+    }
+
+    /**
+     * Gets navigation state of a track as a NED frame.
+     *
+     * @param index  index of track.
+     * @param result instance where body position, velocity and coordinate
+     *               transformation matrix of track will be stored.
+     * @throws IndexOutOfBoundsException     if provided index is not valid.
+     * @throws InvalidRotationMatrixException if attitude of track is not a valid
+     *                                        rotation matrix.
+     */
+    public void getFrame(final int index, final NEDFrame result)
+            throws InvalidRotationMatrixException {
+        checkIndex(index);
+
+        final Matrix cbn;
+        try {
+            cbn = new Matrix(ROWS, ROWS);
+        } catch (final WrongSizeException e) {
+            // never happens
+            throw new IllegalStateException(e);
+        }
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < ROWS; col++) {
+                cbn.setElementAt(row, col, mAttitude[row * ROWS + col][index]);
+            }
+        }
+
+        try {
+            result.setCoordinateTransformation(new CoordinateTransformation(cbn,
+                    FrameType.BODY_FRAME, FrameType.LOCAL_NAVIGATION_FRAME));
+        } catch (final InvalidSourceAndDestinationFrameTypeException e) {
+            // never happens
+            throw new IllegalStateException(e);
+        }
+
+        result.setPosition(mLatitudes[index], mLongitudes[index], mHeights[index]);
+        result.setVelocityCoordinates(mVn[index], mVe[index], mVd[index]);
+    }
+
+    /**
+     * Gets navigation state of a track as a NED frame.
+     *
+     * @param index index of track.
+     * @return NED frame containing body position, velocity and coordinate
+     * transformation matrix of track.
+     * @throws IndexOutOfBoundsException     if provided index is not valid.
+     * @throws InvalidRotationMatrixException if attitude of track is not a valid
+     *                                        rotation matrix.
+     */
+    public NEDFrame getFrame(final int index) throws InvalidRotationMatrixException {
+        final NEDFrame result = new NEDFrame();
+        getFrame(index, result);
+        return result;
+    }
+
+    /**
+     * Sets kinematics to be applied to a track on next navigation step.
+     *
+     * @param index      index of track.
+     * @param kinematics body kinematics containing specific force and angular rate
+     *                   resolved along body-frame axes and averaged over time interval.
+     * @throws IndexOutOfBoundsException if provided index is not valid.
+     */
+    public void setKinematics(final int index, final BodyKinematics kinematics) {
+        checkIndex(index);
+
+        mFx[index] = kinematics.getFx();
+        mFy[index] = kinematics.getFy();
+        mFz[index] = kinematics.getFz();
+
+        mAngularRateX[index] = kinematics.getAngularRateX();
+        mAngularRateY[index] = kinematics.getAngularRateY();
+        mAngularRateZ[index] = kinematics.getAngularRateZ();
+    }
+
+    /**
+     * Checks that provided track index is valid.
+     *
+     * @param index index to be checked.
+     * @throws IndexOutOfBoundsException if provided index is not valid.
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+}
@@ -0,0 +1,628 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.navigators;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.geometry.InvalidRotationMatrixException;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.ECEFFrame;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.navigation.inertial.ECEFGravity;
+import com.irurueta.navigation.inertial.estimators.ECEFGravityEstimator;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeConverter;
+import com.irurueta.units.TimeUnit;
+
+/**
+ * Runs precision ECEF-frame inertial navigation equations keeping current body
+ * position, velocity and attitude as internal state.
+ * This navigator solves the same equations as {@link ECEFInertialNavigator}, but
+ * all intermediate 3x3 products are unrolled on primitive fields and any object
+ * required to exchange data with {@link ECEFFrame} instances is preallocated, so
+ * that no heap allocation takes place on each navigation step.
+ * This is intended for high-rate IMU data or for a large number of concurrent
+ * tracks, where one instance of this class should be kept per track.
+ * Instances of this class are not thread-safe.
+ * This implementation is based on the equations defined in "Principles of GNSS, Inertial, and Multisensor
+ * Integrated Navigation Systems, Second Edition" and on the companion software available at:
+ * https://github.com/ymjdz/MATLAB-Codes/blob/master/Nav_equations_ECEF.m
+ */
+public class StatefulECEFInertialNavigator {
+
+    /**
+     * Earth rotation rate expressed in radians per second (rad/s).
+     */
+    public static final double EARTH_ROTATION_RATE = ECEFInertialNavigator.EARTH_ROTATION_RATE;
+
+    /**
+     * Alpha threshold.
+     */
+    private static final double ALPHA_THRESHOLD = 1e-8;
+
+    /**
+     * Number of rows.
+     */
+    private static final int ROWS = 3;
+
+    /**
+     * Cartesian x coordinate of body position expressed in meters (m) with respect ECEF frame,
+     * resolved along ECEF-frame axes.
+     */
+    private double mX;
+
+    /**
+     * Cartesian y coordinate of body position expressed in meters (m) with respect ECEF frame,
+     * resolved along ECEF-frame axes.
+     */
+    private double mY;
+
+    /**
+     * Cartesian z coordinate of body position expressed in meters (m) with respect ECEF frame,
+     * resolved along ECEF-frame axes.
+     */
+    private double mZ;
+
+    /**
+     * X coordinate of velocity of body frame expressed in meters per second (m/s) with respect
+     * ECEF frame, resolved along ECEF-frame axes.
+     */
+    private double mVx;
+
+    /**
+     * Y coordinate of velocity of body frame expressed in meters per second (m/s) with respect
+     * ECEF frame, resolved along ECEF-frame axes.
+     */
+    private double mVy;
+
+    /**
+     * Z coordinate of velocity of body frame expressed in meters per second (m/s) with respect
+     * ECEF frame, resolved along ECEF-frame axes.
+     */
+    private double mVz;
+
+    /**
+     * Element (0,0) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC00;
+
+    /**
+     * Element (0,1) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC01;
+
+    /**
+     * Element (0,2) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC02;
+
+    /**
+     * Element (1,0) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC10;
+
+    /**
+     * Element (1,1) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC11;
+
+    /**
+     * Element (1,2) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC12;
+
+    /**
+     * Element (2,0) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC20;
+
+    /**
+     * Element (2,1) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC21;
+
+    /**
+     * Element (2,2) of body-to-ECEF coordinate transformation matrix.
+     */
+    private double mC22;
+
+    /**
+     * Instance being reused to estimate gravity at each step.
+     */
+    private final ECEFGravity mGravity = new ECEFGravity();
+
+    /**
+     * 3x3 matrix being reused to exchange body-to-ECEF coordinate transformation
+     * matrices with provided frames.
+     */
+    private Matrix mMatrix;
+
+    /**
+     * ECEF frame being reused to copy current state into provided frames.
+     * Its coordinate transformation internally shares {@link #mMatrix}.
+     */
+    private ECEFFrame mFrame;
+
+    /**
+     * Constructor.
+     * Initializes position and velocity to zero and attitude to the identity.
+     */
+    public StatefulECEFInertialNavigator() {
+        try {
+            mMatrix = Matrix.identity(ROWS, ROWS);
+            mFrame = new ECEFFrame(new CoordinateTransformation(mMatrix,
+                    FrameType.BODY_FRAME, FrameType.EARTH_CENTERED_EARTH_FIXED_FRAME));
+        } catch (final WrongSizeException | InvalidRotationMatrixException
+                | InvalidSourceAndDestinationFrameTypeException ignore) {
+            // never happens
+        }
+
+        mC00 = mC11 = mC22 = 1.0;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param frame initial ECEF frame containing body position, velocity and
+     *              coordinate transformation matrix.
+     */
+    public StatefulECEFInertialNavigator(final ECEFFrame frame) {
+        this();
+        setFrame(frame);
+    }
+
+    /**
+     * Gets cartesian x coordinate of current body position expressed in meters (m) with respect
+     * ECEF frame, resolved along ECEF-frame axes.
+     *
+     * @return cartesian x coordinate of current body position.
+     */
+    public double getX() {
+        return mX;
+    }
+
+    /**
+     * Gets cartesian y coordinate of current body position expressed in meters (m) with respect
+     * ECEF frame, resolved along ECEF-frame axes.
+     *
+     * @return cartesian y coordinate of current body position.
+     */
+    public double getY() {
+        return mY;
+    }
+
+    /**
+     * Gets cartesian z coordinate of current body position expressed in meters (m) with respect
+     * ECEF frame, resolved along ECEF-frame axes.
+     *
+     * @return cartesian z coordinate of current body position.
+     */
+    public double getZ() {
+        return mZ;
+    }
+
+    /**
+     * Gets x coordinate of current body velocity expressed in meters per second (m/s) with
+     * respect ECEF frame, resolved along ECEF-frame axes.
+     *
+     * @return x coordinate of current body velocity.
+     */
+    public double getVx() {
+        return mVx;
+    }
+
+    /**
+     * Gets y coordinate of current body velocity expressed in meters per second (m/s) with
+     * respect ECEF frame, resolved along ECEF-frame axes.
+     *
+     * @return y coordinate of current body velocity.
+     */
+    public double getVy() {
+        return mVy;
+    }
+
+    /**
+     * Gets z coordinate of current body velocity expressed in meters per second (m/s) with
+     * respect ECEF frame, resolved along ECEF-frame axes.
+     *
+     * @return z coordinate of current body velocity.
+     */
+    public double getVz() {
+        return mVz;
+    }
+
+    /**
+     * Gets current body-to-ECEF coordinate transformation matrix.
+     *
+     * @param result instance where current 3x3 coordinate transformation matrix will be
+     *               stored. If needed, provided instance will be resized.
+     */
+    public void getCoordinateTransformationMatrix(final Matrix result) {
+        if (result.getRows() != ROWS || result.getColumns() != ROWS) {
+            try {
+                result.resize(ROWS, ROWS);
+            } catch (final WrongSizeException ignore) {
+                // never happens
+            }
+        }
+
+        copyStateToBuffer(result.getBuffer());
+    }
+
+    /**
+     * Gets current ECEF frame containing body position, velocity and coordinate
+     * transformation matrix.
+     *
+     * @param result instance where current ECEF frame will be stored.
+     */
+    public void getFrame(final ECEFFrame result) {
+        copyStateToBuffer(mMatrix.getBuffer());
+        mFrame.setCoordinates(mX, mY, mZ);
+        mFrame.setVelocityCoordinates(mVx, mVy, mVz);
+        result.copyFrom(mFrame);
+    }
+
+    /**
+     * Gets current ECEF frame containing body position, velocity and coordinate
+     * transformation matrix.
+     *
+     * @return current ECEF frame.
+     */
+    public ECEFFrame getFrame() {
+        final ECEFFrame result = new ECEFFrame();
+        getFrame(result);
+        return result;
+    }
+
+    /**
+     * Sets current ECEF frame containing body position, velocity and coordinate
+     * transformation matrix.
+     *
+     * @param frame ECEF frame to be set.
+     */
+    public void setFrame(final ECEFFrame frame) {
+        mX = frame.getX();
+        mY = frame.getY();
+        mZ = frame.getZ();
+
+        mVx = frame.getVx();
+        mVy = frame.getVy();
+        mVz = frame.getVz();
+
+        frame.getCoordinateTransformationMatrix(mMatrix);
+
+        // matrix buffer is stored in column order
+        final double[] buffer = mMatrix.getBuffer();
+        mC00 = buffer[0];
+        mC10 = buffer[1];
+        mC20 = buffer[2];
+        mC01 = buffer[3];
+        mC11 = buffer[4];
+        mC21 = buffer[5];
+        mC02 = buffer[6];
+        mC12 = buffer[7];
+        mC22 = buffer[8];
+    }
+
+    /**
+     * Runs precision ECEF-frame inertial navigation equations and updates current state.
+     *
+     * @param timeInterval time interval between epochs expressed in seconds (s).
+     * @param fx           specific force x-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in meters per squared second (m/s^2).
+     * @param fy           specific force y-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in meters per squared second (m/s^2).
+     * @param fz           specific force z-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in meters per squared second (m/s^2).
+     * @param angularRateX angular rate x-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in radians per second (rad/s).
+     * @param angularRateY angular rate y-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in radians per second (rad/s).
+     * @param angularRateZ angular rate z-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in radians per second (rad/s).
+     */
+    public void navigate(final double timeInterval,
+                         final double fx,
+                         final double fy,
+                         final double fz,
+                         final double angularRateX,
+                         final double angularRateY,
+                         final double angularRateZ) {
+        // Attitude update
+        // From (2.145) determine the Earth rotation over the update interval
+        final double alpha = EARTH_ROTATION_RATE * timeInterval;
+        final double sinAlpha = Math.sin(alpha);
+        final double cosAlpha = Math.cos(alpha);
+
+        // Calculate attitude increment and magnitude
+        final double alphaX = angularRateX * timeInterval;
+        final double alphaY = angularRateY * timeInterval;
+        final double alphaZ = angularRateZ * timeInterval;
+
+        final double alphaX2 = alphaX * alphaX;
+        final double alphaY2 = alphaY * alphaY;
+        final double alphaZ2 = alphaZ * alphaZ;
+        final double alphaNorm2 = alphaX2 + alphaY2 + alphaZ2;
+        final double alphaNorm = Math.sqrt(alphaNorm2);
+
+        // Elements of squared skew-symmetric matrix of attitude increment
+        final double s00 = -(alphaY2 + alphaZ2);
+        final double s11 = -(alphaX2 + alphaZ2);
+        final double s22 = -(alphaX2 + alphaY2);
+        final double s01 = alphaX * alphaY;
+        final double s02 = alphaX * alphaZ;
+        final double s12 = alphaY * alphaZ;
+
+        // Obtain coordinate transformation matrix from the new attitude with
+        // respect an inertial frame to the old using Rodrigues' formula, (5.73)
+        final double value1;
+        final double value2;
+        if (alphaNorm > ALPHA_THRESHOLD) {
+            value1 = Math.sin(alphaNorm) / alphaNorm;
+            value2 = (1.0 - Math.cos(alphaNorm)) / alphaNorm2;
+        } else {
+            value1 = 1.0;
+            value2 = 0.0;
+        }
+
+        final double n00 = 1.0 + value2 * s00;
+        final double n01 = -value1 * alphaZ + value2 * s01;
+        final double n02 = value1 * alphaY + value2 * s02;
+        final double n10 = value1 * alphaZ + value2 * s01;
+        final double n11 = 1.0 + value2 * s11;
+        final double n12 = -value1 * alphaX + value2 * s12;
+        final double n20 = -value1 * alphaY + value2 * s02;
+        final double n21 = value1 * alphaX + value2 * s12;
+        final double n22 = 1.0 + value2 * s22;
+
+        // Specific force frame transformation
+        // Calculate the average body-to-ECEF-frame coordinate transformation
+        // matrix over the update interval using (5.84) and (5.85).
+        final double value3;
+        final double value4;
+        if (alphaNorm > ALPHA_THRESHOLD) {
+            value3 = (1.0 - Math.cos(alphaNorm)) / alphaNorm2;
+            value4 = (1.0 - Math.sin(alphaNorm) / alphaNorm) / alphaNorm2;
+        } else {
+            value3 = 0.0;
+            value4 = 0.0;
+        }
+
+        final double a00 = 1.0 + value4 * s00;
+        final double a01 = -value3 * alphaZ + value4 * s01;
+        final double a02 = value3 * alphaY + value4 * s02;
+        final double a10 = value3 * alphaZ + value4 * s01;
+        final double a11 = 1.0 + value4 * s11;
+        final double a12 = -value3 * alphaX + value4 * s12;
+        final double a20 = -value3 * alphaY + value4 * s02;
+        final double a21 = value3 * alphaX + value4 * s12;
+        final double a22 = 1.0 + value4 * s22;
+
+        // tmp = oldCbe * (I + value3 * alphaSkew + value4 * alphaSkew^2)
+        final double t00 = mC00 * a00 + mC01 * a10 + mC02 * a20;
+        final double t01 = mC00 * a01 + mC01 * a11 + mC02 * a21;
+        final double t02 = mC00 * a02 + mC01 * a12 + mC02 * a22;
+        final double t10 = mC10 * a00 + mC11 * a10 + mC12 * a20;
+        final double t11 = mC10 * a01 + mC11 * a11 + mC12 * a21;
+        final double t12 = mC10 * a02 + mC11 * a12 + mC12 * a22;
+        final double t20 = mC20 * a00 + mC21 * a10 + mC22 * a20;
+        final double t21 = mC20 * a01 + mC21 * a11 + mC22 * a21;
+        final double t22 = mC20 * a02 + mC21 * a12 + mC22 * a22;
+
+        // aveCbe = tmp - 0.5 * skew([0, 0, alpha]) * tmp
+        final double halfAlpha = 0.5 * alpha;
+        final double ave00 = t00 + halfAlpha * t10;
+        final double ave01 = t01 + halfAlpha * t11;
+        final double ave02 = t02 + halfAlpha * t12;
+        final double ave10 = t10 - halfAlpha * t00;
+        final double ave11 = t11 - halfAlpha * t01;
+        final double ave12 = t12 - halfAlpha * t02;
+
+        // Transform specific force to ECEF-frame resolving axes using (5.85)
+        final double fibeX = ave00 * fx + ave01 * fy + ave02 * fz;
+        final double fibeY = ave10 * fx + ave11 * fy + ave12 * fz;
+        final double fibeZ = t20 * fx + t21 * fy + t22 * fz;
+
+        // Update attitude using (5.75)
+        // cbe = cEarth * oldCbe * cNewOld
+        final double e00 = cosAlpha * mC00 - sinAlpha * mC10;
+        final double e01 = cosAlpha * mC01 - sinAlpha * mC11;
+        final double e02 = cosAlpha * mC02 - sinAlpha * mC12;
+        final double e10 = sinAlpha * mC00 + cosAlpha * mC10;
+        final double e11 = sinAlpha * mC01 + cosAlpha * mC11;
+        final double e12 = sinAlpha * mC02 + cosAlpha * mC12;
+        final double e20 = mC20;
+        final double e21 = mC21;
+        final double e22 = mC22;
+
+        mC00 = e00 * n00 + e01 * n10 + e02 * n20;
+        mC01 = e00 * n01 + e01 * n11 + e02 * n21;
+        mC02 = e00 * n02 + e01 * n12 + e02 * n22;
+        mC10 = e10 * n00 + e11 * n10 + e12 * n20;
+        mC11 = e10 * n01 + e11 * n11 + e12 * n21;
+        mC12 = e10 * n02 + e11 * n12 + e12 * n22;
+        mC20 = e20 * n00 + e21 * n10 + e22 * n20;
+        mC21 = e20 * n01 + e21 * n11 + e22 * n21;
+        mC22 = e20 * n02 + e21 * n12 + e22 * n22;
+
+        // Update velocity
+        // From (5.36)
+        ECEFGravityEstimator.estimateGravity(mX, mY, mZ, mGravity);
+
+        final double oldVx = mVx;
+        final double oldVy = mVy;
+        final double oldVz = mVz;
+
+        // 2.0 * omegaSkew * oldVebe
+        final double twoOmega = 2.0 * EARTH_ROTATION_RATE;
+        final double coriolisX = -twoOmega * oldVy;
+        final double coriolisY = twoOmega * oldVx;
+
+        mVx = oldVx + timeInterval * (fibeX + mGravity.getGx() - coriolisX);
+        mVy = oldVy + timeInterval * (fibeY + mGravity.getGy() - coriolisY);
+        mVz = oldVz + timeInterval * (fibeZ + mGravity.getGz());
+
+        // Update cartesian position
+        // From (5.38)
+        mX += (mVx + oldVx) * 0.5 * timeInterval;
+        mY += (mVy + oldVy) * 0.5 * timeInterval;
+        mZ += (mVz + oldVz) * 0.5 * timeInterval;
+    }
+
+    /**
+     * Runs precision ECEF-frame inertial navigation equations and updates current state.
+     *
+     * @param timeInterval time interval between epochs.
+     * @param fx           specific force x-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in meters per squared second (m/s^2).
+     * @param fy           specific force y-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in meters per squared second (m/s^2).
+     * @param fz           specific force z-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in meters per squared second (m/s^2).
+     * @param angularRateX angular rate x-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in radians per second (rad/s).
+     * @param angularRateY angular rate y-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in radians per second (rad/s).
+     * @param angularRateZ angular rate z-coordinate of body frame with respect ECEF frame,
+     *                     resolved along body-frame axes, averaged over time interval and
+     *                     expressed in radians per second (rad/s).
+     */
+    public void navigate(final Time timeInterval,
+                         final double fx,
+                         final double fy,
+                         final double fz,
+                         final double angularRateX,
+                         final double angularRateY,
+                         final double angularRateZ) {
+        navigate(convertTimeToDouble(timeInterval), fx, fy, fz,
+                angularRateX, angularRateY, angularRateZ);
+    }
+
+    /**
+     * Runs precision ECEF-frame inertial navigation equations and updates current state.
+     *
+     * @param timeInterval time interval between epochs expressed in seconds (s).
+     * @param kinematics   body kinematics containing specific forces and angular rates applied to
+     *                     the body, resolved along body-frame axes and averaged over time interval.
+     */
+    public void navigate(final double timeInterval,
+                         final BodyKinematics kinematics) {
+        navigate(timeInterval, kinematics.getFx(), kinematics.getFy(), kinematics.getFz(),
+                kinematics.getAngularRateX(), kinematics.getAngularRateY(),
+                kinematics.getAngularRateZ());
+    }
+
+    /**
+     * Runs precision ECEF-frame inertial navigation equations and updates current state.
+     *
+     * @param timeInterval time interval between epochs.
+     * @param kinematics   body kinematics containing specific forces and angular rates applied to
+     *                     the body, resolved along body-frame axes and averaged over time interval.
+     */
+    public void navigate(final Time timeInterval,
+                         final BodyKinematics kinematics) {
+        navigate(convertTimeToDouble(timeInterval), kinematics);
+    }
+
+    /**
+     * Runs precision ECEF-frame inertial navigation equations.
+     * This is equivalent to
+     * {@link ECEFInertialNavigator#navigateECEF(double, ECEFFrame, BodyKinematics, ECEFFrame)},
+     * but reuses internal workspace of this instance. Current state of this instance is replaced
+     * by provided old frame and updated with the new estimated frame.
+     *
+     * @param timeInterval time interval between epochs expressed in seconds (s).
+     * @param oldFrame     previous ECEF frame containing body position, velocity and
+     *                     coordinate transformation matrix.
+     * @param kinematics   body kinematics containing specific forces and angular rates applied to
+     *                     the body, resolved along body-frame axes and averaged over time interval.
+     * @param result       instance where new estimated ECEF frame containing new body position,
+     *                     velocity and coordinate transformation matrix will be stored.
+     */
+    public void navigate(final double timeInterval,
+                         final ECEFFrame oldFrame,
+                         final BodyKinematics kinematics,
+                         final ECEFFrame result) {
+        setFrame(oldFrame);
+        navigate(timeInterval, kinematics);
+        getFrame(result);
+    }
+
+    /**
+     * Runs precision ECEF-frame inertial navigation equations.
+     * This is equivalent to
+     * {@link ECEFInertialNavigator#navigateECEF(Time, ECEFFrame, BodyKinematics, ECEFFrame)},
+     * but reuses internal workspace of this instance. Current state of this instance is replaced
+     * by provided old frame and updated with the new estimated frame.
+     *
+     * @param timeInterval time interval between epochs.
+     * @param oldFrame     previous ECEF frame containing body position, velocity and
+     *                     coordinate transformation matrix.
+     * @param kinematics   body kinematics containing specific forces and angular rates applied to
+     *                     the body, resolved along body-frame axes and averaged over time interval.
+     * @param result       instance where new estimated ECEF frame containing new body position,
+     *                     velocity and coordinate transformation matrix will be stored.
+     */
+    public void navigate(final Time timeInterval,
+                         final ECEFFrame oldFrame,
+                         final BodyKinematics kinematics,
+                         final ECEFFrame result) {
+        navigate(convertTimeToDouble(timeInterval), oldFrame, kinematics, result);
+    }
+
+    /**
+     * Copies current coordinate transformation matrix into provided column-ordered
+     * 3x3 matrix buffer.
+     *
+     * @param buffer buffer where data will be copied to.
+     */
+    private void copyStateToBuffer(final double[] buffer) {
+        buffer[0] = mC00;
+        buffer[1] = mC10;
+        buffer[2] = mC20;
+        buffer[3] = mC01;
+        buffer[4] = mC11;
+        buffer[5] = mC21;
+        buffer[6] = mC02;
+        buffer[7] = mC12;
+        buffer[8] = mC22;
+    }
+
+    /**
+     * Converts provided time instance into its corresponding value expressed in
+     * seconds.
+     *
+     * @param time time instance to be converted.
+     * @return converted value expressed in seconds.
+     */
+    private static double convertTimeToDouble(final Time time) {
+        return TimeConverter.convert(time.getValue().doubleValue(), time.getUnit(),
+                TimeUnit.SECOND);
+    }
+}
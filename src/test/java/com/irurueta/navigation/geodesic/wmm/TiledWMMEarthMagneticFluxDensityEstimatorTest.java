@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.geodesic.wmm;
+
+import com.irurueta.navigation.inertial.NEDMagneticFluxDensity;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TiledWMMEarthMagneticFluxDensityEstimatorTest {
+
+    private static final String FILE_PATH =
+            "./src/main/resources/com/irurueta/navigation/geodesic/wmm/wmm.cof";
+
+    private static final double MIN_LATITUDE_DEGREES = -90.0;
+    private static final double MAX_LATITUDE_DEGREES = 90.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT_METERS = -500.0;
+    private static final double MAX_HEIGHT_METERS = 10000.0;
+
+    private static final double MIN_YEAR = 2020.0;
+    private static final double MAX_YEAR = 2025.0;
+
+    private static final double MAX_TRACK_STEP_DEGREES = 1e-4;
+
+    private static final int TIMES = 1000;
+
+    @Test
+    public void testConstants() {
+        assertEquals(TiledWMMEarthMagneticFluxDensityEstimator
+                .DEFAULT_CELL_ANGLE, Math.toRadians(0.05), 0.0);
+        assertEquals(TiledWMMEarthMagneticFluxDensityEstimator
+                .DEFAULT_CELL_HEIGHT, 1000.0, 0.0);
+        assertEquals(TiledWMMEarthMagneticFluxDensityEstimator
+                .DEFAULT_MAX_ERROR, 5e-11, 1e-24);
+        assertEquals(TiledWMMEarthMagneticFluxDensityEstimator
+                .DEFAULT_MAX_TILES, 256);
+    }
+
+    @Test
+    public void testConstructor() throws IOException {
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator1 =
+                new TiledWMMEarthMagneticFluxDensityEstimator();
+
+        // check default values
+        assertNotNull(estimator1.getModel());
+        assertEquals(estimator1.getCellAngle(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_CELL_ANGLE,
+                0.0);
+        assertEquals(estimator1.getCellHeight(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_CELL_HEIGHT,
+                0.0);
+        assertEquals(estimator1.getMaxError(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_MAX_ERROR,
+                0.0);
+        assertEquals(estimator1.getMaxTiles(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_MAX_TILES);
+        assertEquals(estimator1.getNumberOfTiles(), 0);
+
+        final WorldMagneticModel model = WMMLoader.loadFromFile(FILE_PATH);
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator2 =
+                new TiledWMMEarthMagneticFluxDensityEstimator(model);
+        assertSame(estimator2.getModel(), model);
+
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator3 =
+                new TiledWMMEarthMagneticFluxDensityEstimator(model,
+                        Math.toRadians(0.1), 500.0, 1e-10);
+        assertSame(estimator3.getModel(), model);
+        assertEquals(estimator3.getCellAngle(), Math.toRadians(0.1), 0.0);
+        assertEquals(estimator3.getCellHeight(), 500.0, 0.0);
+        assertEquals(estimator3.getMaxError(), 1e-10, 0.0);
+
+        // Force NullPointerException
+        try {
+            new TiledWMMEarthMagneticFluxDensityEstimator(null);
+            fail("NullPointerException expected but not thrown");
+        } catch (final NullPointerException ignore) {
+        }
+
+        // Force IllegalArgumentException
+        try {
+            new TiledWMMEarthMagneticFluxDensityEstimator(model,
+                    0.0, 500.0, 1e-10);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new TiledWMMEarthMagneticFluxDensityEstimator(model,
+                    Math.toRadians(0.1), 0.0, 1e-10);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new TiledWMMEarthMagneticFluxDensityEstimator(model,
+                    Math.toRadians(0.1), 500.0, -1.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetCellAngle() throws IOException {
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator();
+
+        // check default value
+        assertEquals(estimator.getCellAngle(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_CELL_ANGLE,
+                0.0);
+
+        // set new value
+        estimator.setCellAngle(1e-3);
+
+        // check
+        assertEquals(estimator.getCellAngle(), 1e-3, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setCellAngle(0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetCellHeight() throws IOException {
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator();
+
+        // check default value
+        assertEquals(estimator.getCellHeight(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_CELL_HEIGHT,
+                0.0);
+
+        // set new value
+        estimator.setCellHeight(100.0);
+
+        // check
+        assertEquals(estimator.getCellHeight(), 100.0, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setCellHeight(0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMaxError() throws IOException {
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator();
+
+        // check default value
+        assertEquals(estimator.getMaxError(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_MAX_ERROR,
+                0.0);
+
+        // set new value
+        estimator.setMaxError(1e-9);
+
+        // check
+        assertEquals(estimator.getMaxError(), 1e-9, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxError(-1.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMaxTiles() throws IOException {
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator();
+
+        // check default value
+        assertEquals(estimator.getMaxTiles(),
+                TiledWMMEarthMagneticFluxDensityEstimator.DEFAULT_MAX_TILES);
+
+        // set new value
+        estimator.setMaxTiles(10);
+
+        // check
+        assertEquals(estimator.getMaxTiles(), 10);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxTiles(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testEstimateScattered() throws IOException {
+        final WorldMagneticModel model = WMMLoader.loadFromFile(FILE_PATH);
+        final WMMEarthMagneticFluxDensityEstimator wmmEstimator =
+                new WMMEarthMagneticFluxDensityEstimator(model);
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator(model);
+        final double maxError = estimator.getMaxError();
+
+        final UniformRandomizer randomizer =
+                new UniformRandomizer(new Random());
+        for (int t = 0; t < TIMES; t++) {
+            final double latitude = Math.toRadians(randomizer.nextDouble(
+                    MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+            final double longitude = Math.toRadians(randomizer.nextDouble(
+                    MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+            final double height = randomizer.nextDouble(
+                    MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+            final double year = randomizer.nextDouble(MIN_YEAR, MAX_YEAR);
+
+            final NEDMagneticFluxDensity expected = wmmEstimator.estimate(
+                    latitude, longitude, height, year);
+            final NEDMagneticFluxDensity b = estimator.estimate(
+                    latitude, longitude, height, year);
+
+            // interpolation error is largest at tile centers, where it is
+            // checked to be within maximum error when tiles are built
+            assertTrue(b.equals(expected, 4.0 * maxError));
+        }
+
+        assertEquals(estimator.getNumberOfTiles(), estimator.getMaxTiles());
+    }
+
+    @Test
+    public void testEstimateTrack() throws IOException {
+        final WorldMagneticModel model = WMMLoader.loadFromFile(FILE_PATH);
+        final WMMEarthMagneticFluxDensityEstimator wmmEstimator =
+                new WMMEarthMagneticFluxDensityEstimator(model);
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator(model);
+        final double maxError = estimator.getMaxError();
+
+        final UniformRandomizer randomizer =
+                new UniformRandomizer(new Random());
+        double latitudeDegrees = randomizer.nextDouble(-60.0, 60.0);
+        double longitudeDegrees = randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES);
+        final double height = randomizer.nextDouble(
+                MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+        final double year = randomizer.nextDouble(MIN_YEAR, MAX_YEAR);
+
+        final NEDMagneticFluxDensity b = new NEDMagneticFluxDensity();
+        for (int t = 0; t < TIMES; t++) {
+            latitudeDegrees += randomizer.nextDouble(
+                    -MAX_TRACK_STEP_DEGREES, MAX_TRACK_STEP_DEGREES);
+            longitudeDegrees += randomizer.nextDouble(
+                    -MAX_TRACK_STEP_DEGREES, MAX_TRACK_STEP_DEGREES);
+            final NEDPosition position = new NEDPosition(
+                    Math.toRadians(latitudeDegrees),
+                    Math.toRadians(longitudeDegrees), height);
+
+            final NEDMagneticFluxDensity expected = wmmEstimator.estimate(
+                    position, year);
+            estimator.estimate(position, year, b);
+
+            assertTrue(b.equals(expected, 4.0 * maxError));
+        }
+
+        // a short track only requires a few tiles
+        assertTrue(estimator.getNumberOfTiles() <= 4);
+    }
+
+    @Test
+    public void testEstimateNearPoleUsesModel() throws IOException {
+        final WorldMagneticModel model = WMMLoader.loadFromFile(FILE_PATH);
+        final WMMEarthMagneticFluxDensityEstimator wmmEstimator =
+                new WMMEarthMagneticFluxDensityEstimator(model);
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator(model);
+
+        final double latitude = Math.toRadians(90.0);
+        final double longitude = Math.toRadians(10.0);
+        final double height = 100.0;
+        final double year = 2022.0;
+
+        final NEDMagneticFluxDensity expected = wmmEstimator.estimate(
+                latitude, longitude, height, year);
+        final NEDMagneticFluxDensity b = estimator.estimate(
+                latitude, longitude, height, year);
+
+        assertTrue(b.equals(expected, 0.0));
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        final TiledWMMEarthMagneticFluxDensityEstimator estimator =
+                new TiledWMMEarthMagneticFluxDensityEstimator();
+
+        estimator.estimate(0.5, 0.5, 0.0, 2022.0);
+        assertEquals(estimator.getNumberOfTiles(), 1);
+
+        estimator.clear();
+        assertEquals(estimator.getNumberOfTiles(), 0);
+    }
+}
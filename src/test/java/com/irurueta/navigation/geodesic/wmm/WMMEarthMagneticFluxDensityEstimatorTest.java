@@ -15,6 +15,7 @@
  */
 package com.irurueta.navigation.geodesic.wmm;
 
+import com.irurueta.navigation.inertial.NEDMagneticFluxDensity;
 import com.irurueta.navigation.inertial.NEDPosition;
 import com.irurueta.statistics.UniformRandomizer;
 import com.irurueta.units.Angle;
@@ -3823,6 +3824,82 @@ public class WMMEarthMagneticFluxDensityEstimatorTest {
         assertEquals(intensity1, intensity9, 0.0);
     }
 
+    @Test
+    public void testEstimateMultiplePositions() throws IOException {
+        final int numPositions = 100;
+        final double[] latitudes = new double[numPositions];
+        final double[] longitudes = new double[numPositions];
+        final double[] heights = new double[numPositions];
+        for (int i = 0; i < numPositions; i++) {
+            final NEDPosition position = createPosition();
+            // positions are grouped in a few latitude bands and heights
+            latitudes[i] = (i % 3 == 0) ? latitudes[0] : position.getLatitude();
+            longitudes[i] = position.getLongitude();
+            heights[i] = (i % 3 == 0) ? heights[0] : position.getHeight();
+        }
+
+        final long timestamp = createTimestamp();
+        final GregorianCalendar calendar = createCalendar(timestamp);
+        final double year = createYear(calendar);
+
+        final WMMEarthMagneticFluxDensityEstimator estimator =
+                new WMMEarthMagneticFluxDensityEstimator();
+
+        final NEDMagneticFluxDensity[] result = estimator.estimate(
+                latitudes, longitudes, heights, year);
+
+        // check
+        assertEquals(result.length, numPositions);
+
+        final WMMEarthMagneticFluxDensityEstimator estimator2 =
+                new WMMEarthMagneticFluxDensityEstimator();
+        for (int i = 0; i < numPositions; i++) {
+            final NEDMagneticFluxDensity expected = estimator2.estimate(
+                    latitudes[i], longitudes[i], heights[i], year);
+            assertTrue(expected.equals(result[i], 1e-20));
+        }
+
+        // values cached by batch estimation are reused by single estimations
+        for (int i = 0; i < numPositions; i++) {
+            assertTrue(estimator.estimate(latitudes[i], longitudes[i],
+                    heights[i], year).equals(result[i], 1e-20));
+        }
+
+        // Force IllegalArgumentException
+        try {
+            estimator.estimate(latitudes, new double[1], heights, year);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            estimator.estimate(latitudes, longitudes, heights, year,
+                    new NEDMagneticFluxDensity[1]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testEstimatorsSharingModel() throws IOException {
+        final WorldMagneticModel model = WMMLoader.loadFromFile(FILE_PATH);
+        final WMMEarthMagneticFluxDensityEstimator estimator1 =
+                new WMMEarthMagneticFluxDensityEstimator(model);
+        final WMMEarthMagneticFluxDensityEstimator estimator2 =
+                new WMMEarthMagneticFluxDensityEstimator(model);
+
+        final NEDPosition position1 = createPosition();
+        final NEDPosition position2 = createPosition();
+        final double year = 2022.0;
+
+        final NEDMagneticFluxDensity b1 = estimator1.estimate(position1, year);
+        estimator2.estimate(position2, year);
+
+        // estimating again at the same position, values cached by first
+        // estimator are not affected by second estimator
+        final NEDMagneticFluxDensity b2 = estimator1.estimate(position1, year);
+        assertTrue(b1.equals(b2, 0.0));
+    }
+
     public static double createYear(final GregorianCalendar calendar) {
         return WMMEarthMagneticFluxDensityEstimator
                 .convertTime(calendar);
@@ -0,0 +1,653 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.gnss;
+
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.frames.converters.NEDtoECEFPositionVelocityConverter;
+import com.irurueta.navigation.inertial.ECEFPosition;
+import com.irurueta.navigation.inertial.ECEFVelocity;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.navigation.inertial.NEDVelocity;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class GNSSKalmanFilteredEstimatorEngineTest {
+
+    private static final double MIN_VALUE = 1e-4;
+    private static final double MAX_VALUE = 1e-3;
+
+    private static final int NUM_SAT = 10;
+
+    private static final double MIN_LATITUDE_DEGREES = -80.0;
+    private static final double MAX_LATITUDE_DEGREES = 80.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_USER_HEIGHT = -50.0;
+    private static final double MAX_USER_HEIGHT = 50.0;
+
+    private static final double MIN_USER_VELOCITY_VALUE = -2.0;
+    private static final double MAX_USER_VELOCITY_VALUE = 2.0;
+
+    private static final double MIN_SAT_HEIGHT = 150000.0;
+    private static final double MAX_SAT_HEIGHT = 800000.0;
+
+    private static final double MIN_SAT_VELOCITY_VALUE = -3500.0;
+    private static final double MAX_SAT_VELOCITY_VALUE = 3500.0;
+
+    private static final double MASK_ANGLE_DEGREES = 15.0;
+
+    private static final int NUM_RECEIVERS = 40;
+    private static final int NUM_EPOCHS = 10;
+    private static final int NUM_SHARDS = 4;
+
+    private static final long TIMEOUT_MILLIS = 60000;
+
+    @Test
+    public void testConstructor() throws InterruptedException {
+        final GNSSKalmanConfig config = generateKalmanConfig();
+
+        GNSSKalmanFilteredEstimatorEngine<String> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(config);
+
+        assertEquals(engine.getNumberOfShards(),
+                GNSSKalmanFilteredEstimatorEngine.DEFAULT_NUMBER_OF_SHARDS);
+        assertSame(engine.getConfig(), config);
+        assertEquals(engine.getEpochInterval(),
+                GNSSKalmanFilteredEstimatorEngine.DEFAULT_EPOCH_INTERVAL, 0.0);
+        assertNull(engine.getListener());
+        assertEquals(engine.getNumberOfReceivers(), 0);
+        assertEquals(engine.getSubmittedCount(), 0);
+        assertEquals(engine.getProcessedCount(), 0);
+        assertEquals(engine.getFailedCount(), 0);
+        assertEquals(engine.getListenerFailedCount(), 0);
+        assertEquals(engine.getQueueDepth(), 0);
+        assertEquals(engine.getPeakQueueDepth(), 0);
+        assertEquals(engine.getThroughput(), 0.0, 0.0);
+        assertFalse(engine.isShutdown());
+        engine.shutdown();
+        assertTrue(engine.isShutdown());
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+
+        engine = new GNSSKalmanFilteredEstimatorEngine<>(config, 1.0);
+        assertEquals(engine.getEpochInterval(), 1.0, 0.0);
+        engine.shutdown();
+
+        engine = new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS, config);
+        assertEquals(engine.getNumberOfShards(), NUM_SHARDS);
+        engine.shutdown();
+
+        engine = new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS, config, 2.0);
+        assertEquals(engine.getNumberOfShards(), NUM_SHARDS);
+        assertEquals(engine.getEpochInterval(), 2.0, 0.0);
+        engine.shutdown();
+
+        final Recorder<String> recorder = new Recorder<>();
+        engine = new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS, config, 2.0,
+                recorder);
+        assertSame(engine.getListener(), recorder);
+        engine.setListener(null);
+        assertNull(engine.getListener());
+        engine.shutdown();
+
+        // Force IllegalArgumentException
+        engine = null;
+        try {
+            engine = new GNSSKalmanFilteredEstimatorEngine<>(0, config);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+        try {
+            engine = new GNSSKalmanFilteredEstimatorEngine<>(config, -1.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+        try {
+            engine = new GNSSKalmanFilteredEstimatorEngine<>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+        assertNull(engine);
+    }
+
+    @Test
+    public void testGetShardIndex() {
+        final GNSSKalmanFilteredEstimatorEngine<Integer> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS,
+                        generateKalmanConfig());
+
+        final int[] counts = new int[NUM_SHARDS];
+        for (int i = 0; i < 1000; i++) {
+            final int shard = engine.getShardIndex(i);
+            assertTrue(shard >= 0 && shard < NUM_SHARDS);
+            assertEquals(engine.getShardIndex(i), shard);
+            counts[shard]++;
+        }
+        for (final int count : counts) {
+            assertTrue(count > 0);
+        }
+
+        // Force IllegalArgumentException
+        try {
+            engine.getShardIndex(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+
+        engine.shutdown();
+    }
+
+    @Test
+    public void testMatchesSequentialEstimators() throws Exception {
+        final Random random = new Random();
+        final GNSSKalmanConfig kalmanConfig = generateKalmanConfig();
+
+        // generate per receiver sequences of measurements
+        final List<List<Collection<GNSSMeasurement>>> sequences =
+                new ArrayList<>();
+        for (int r = 0; r < NUM_RECEIVERS; r++) {
+            sequences.add(generateSequence(random));
+        }
+
+        final Recorder<Integer> recorder = new Recorder<>();
+        final GNSSKalmanFilteredEstimatorEngine<Integer> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS, kalmanConfig,
+                        0.0, recorder);
+
+        // interleave submissions of all receivers
+        for (int k = 0; k < NUM_EPOCHS; k++) {
+            for (int r = 0; r < NUM_RECEIVERS; r++) {
+                engine.submitMeasurements(r, sequences.get(r).get(k),
+                        new Time(k, TimeUnit.SECOND));
+                engine.submitPropagate(r, k + 0.5);
+            }
+        }
+
+        assertEquals(engine.getNumberOfReceivers(), NUM_RECEIVERS);
+        assertTrue(engine.containsReceiver(0));
+        assertFalse(engine.containsReceiver(NUM_RECEIVERS));
+        assertFalse(engine.containsReceiver(null));
+
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+
+        final long total = 2L * NUM_EPOCHS * NUM_RECEIVERS;
+        assertEquals(engine.getSubmittedCount(), total);
+        assertEquals(engine.getProcessedCount(), total);
+        assertEquals(engine.getQueueDepth(), 0);
+        assertTrue(engine.getPeakQueueDepth() >= 1);
+        assertTrue(engine.getPeakQueueDepth() <= total);
+        assertTrue(engine.getThroughput() > 0.0);
+        assertEquals(engine.getFailedCount(), recorder.mErrors.size());
+        for (int r = 0; r < NUM_RECEIVERS; r++) {
+            assertEquals(engine.getQueueDepth(r), 0);
+        }
+        assertEquals(engine.getQueueDepth(NUM_RECEIVERS), 0);
+
+        // compare against estimators run sequentially
+        for (int r = 0; r < NUM_RECEIVERS; r++) {
+            final GNSSKalmanFilteredEstimator estimator =
+                    new GNSSKalmanFilteredEstimator(kalmanConfig, 0.0);
+            final List<Double> expectedTimestamps = new ArrayList<>();
+            for (int k = 0; k < NUM_EPOCHS; k++) {
+                try {
+                    estimator.updateMeasurements(sequences.get(r).get(k), k);
+                    expectedTimestamps.add(estimator.getLastStateTimestamp());
+                } catch (final NotReadyException | GNSSException e) {
+                    expectedTimestamps.add(null);
+                }
+                try {
+                    estimator.propagate(k + 0.5);
+                    expectedTimestamps.add(estimator.getLastStateTimestamp());
+                } catch (final NotReadyException | GNSSException e) {
+                    expectedTimestamps.add(null);
+                }
+            }
+
+            // requests of each receiver were processed in submission order
+            assertEquals(recorder.mTimestamps.get(r), expectedTimestamps);
+
+            final GNSSKalmanState expected = estimator.getState();
+            final GNSSKalmanState state = recorder.mStates.get(r);
+            if (expected == null) {
+                assertNull(state);
+            } else {
+                assertTrue(expected.equals(state, 0.0));
+            }
+        }
+    }
+
+    @Test
+    public void testErrorsAndReset() throws Exception {
+        final Recorder<String> recorder = new Recorder<>();
+        final GNSSKalmanFilteredEstimatorEngine<String> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS,
+                        generateKalmanConfig(), 0.0, recorder);
+
+        // not enough measurements
+        engine.submitMeasurements("a",
+                Collections.<GNSSMeasurement>emptyList(), 1.0);
+        // no estimation available yet
+        engine.submitPropagate("a", 2.0);
+        engine.submitReset("a");
+
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+
+        assertEquals(engine.getProcessedCount(), 3);
+        assertEquals(engine.getFailedCount(), 2);
+        assertEquals(recorder.mErrors.size(), 2);
+        for (final Exception e : recorder.mErrors) {
+            assertTrue(e instanceof NotReadyException);
+        }
+        assertEquals(recorder.mResets.get(), 1);
+
+        // Force IllegalStateException
+        try {
+            engine.submitReset("a");
+            fail("IllegalStateException expected but not thrown");
+        } catch (final IllegalStateException ignore) { }
+
+        // Force IllegalArgumentException
+        try {
+            engine.submitMeasurements("a", null, 0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+        try {
+            engine.submitPropagate(null, 0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStallReceiver() throws Exception {
+        final Recorder<String> recorder = new Recorder<String>() {
+            @Override
+            public void onReset(
+                    final GNSSKalmanFilteredEstimatorEngine<String> engine,
+                    final String receiverId,
+                    final GNSSKalmanFilteredEstimator estimator) {
+                super.onReset(engine, receiverId, estimator);
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public void onError(
+                    final GNSSKalmanFilteredEstimatorEngine<String> engine,
+                    final String receiverId,
+                    final GNSSKalmanFilteredEstimator estimator,
+                    final Exception e) {
+                super.onError(engine, receiverId, estimator, e);
+                throw new IllegalStateException();
+            }
+        };
+        final GNSSKalmanFilteredEstimatorEngine<String> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(1,
+                        generateKalmanConfig(), 0.0, recorder);
+
+        for (int i = 0; i < 5; i++) {
+            engine.submitReset("a");
+        }
+
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+
+        assertEquals(engine.getProcessedCount(), 5);
+        assertEquals(engine.getQueueDepth(), 0);
+        assertEquals(recorder.mResets.get(), 5);
+
+        // listener failures are not request failures
+        assertEquals(engine.getFailedCount(), 0);
+        assertEquals(engine.getListenerFailedCount(), 5);
+        assertTrue(recorder.mErrors.isEmpty());
+    }
+
+    @Test
+    public void testLongBacklogIsProcessedInBatches() throws Exception {
+        final Recorder<String> recorder = new Recorder<>();
+        final GNSSKalmanFilteredEstimatorEngine<String> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(1,
+                        generateKalmanConfig(), 0.0, recorder);
+
+        final int numRequests = 5 * GNSSKalmanFilteredEstimatorEngine.MAX_BATCH_SIZE + 1;
+        for (int i = 0; i < numRequests; i++) {
+            engine.submitReset("a");
+            engine.submitReset("b");
+        }
+
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+
+        assertEquals(engine.getSubmittedCount(), 2 * numRequests);
+        assertEquals(engine.getProcessedCount(), 2 * numRequests);
+        assertEquals(engine.getQueueDepth(), 0);
+        assertEquals(engine.getQueueDepth("a"), 0);
+        assertEquals(engine.getQueueDepth("b"), 0);
+        assertEquals(recorder.mResets.get(), 2 * numRequests);
+    }
+
+    @Test
+    public void testRemoveReceiver() throws Exception {
+        final Recorder<String> recorder = new Recorder<>();
+        final GNSSKalmanFilteredEstimatorEngine<String> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS,
+                        generateKalmanConfig(), 0.0, recorder);
+
+        assertFalse(engine.removeReceiver("a"));
+
+        engine.submitReset("a");
+        engine.submitReset("b");
+
+        // wait until requests are processed
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ((engine.getQueueDepth("a") > 0 || engine.getQueueDepth("b") > 0) &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(engine.getQueueDepth("a"), 0);
+        assertEquals(engine.getNumberOfReceivers(), 2);
+
+        assertTrue(engine.removeReceiver("a"));
+
+        // check
+        assertFalse(engine.containsReceiver("a"));
+        assertTrue(engine.containsReceiver("b"));
+        assertEquals(engine.getNumberOfReceivers(), 1);
+        assertFalse(engine.removeReceiver("a"));
+
+        // receiver is created again on next request
+        engine.submitReset("a");
+        assertTrue(engine.containsReceiver("a"));
+
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+        assertEquals(recorder.mResets.get(), 3);
+
+        // Force IllegalArgumentException
+        try {
+            engine.removeReceiver(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+    }
+
+    @Test
+    public void testRemoveReceiverWhileSubmitting() throws Exception {
+        final Recorder<String> recorder = new Recorder<>();
+        final GNSSKalmanFilteredEstimatorEngine<String> engine =
+                new GNSSKalmanFilteredEstimatorEngine<>(NUM_SHARDS,
+                        generateKalmanConfig(), 0.0, recorder);
+
+        final int numThreads = 4;
+        final int numRequests = 2000;
+        final Thread[] submitters = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            submitters[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < numRequests; i++) {
+                        engine.submitReset("a");
+                    }
+                }
+            });
+            submitters[t].start();
+        }
+
+        // concurrently remove receiver whenever it becomes idle
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (final Thread submitter : submitters) {
+                running |= submitter.isAlive();
+            }
+            engine.removeReceiver("a");
+        }
+        for (final Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        engine.shutdown();
+        assertTrue(engine.awaitTermination(TIMEOUT_MILLIS));
+
+        // check that every request was processed exactly once, including those
+        // submitted while the receiver was being removed
+        assertEquals(engine.getSubmittedCount(), numThreads * numRequests);
+        assertEquals(engine.getProcessedCount(), numThreads * numRequests);
+        assertEquals(engine.getFailedCount(), 0);
+        assertEquals(engine.getQueueDepth(), 0);
+        assertEquals(engine.getQueueDepth("a"), 0);
+        assertEquals(recorder.mResets.get(), numThreads * numRequests);
+    }
+
+    private static class Recorder<K> implements
+            GNSSKalmanFilteredEstimatorEngineListener<K> {
+
+        private final Map<K, List<Double>> mTimestamps =
+                new ConcurrentHashMap<>();
+
+        private final Map<K, GNSSKalmanState> mStates =
+                new ConcurrentHashMap<>();
+
+        private final List<Exception> mErrors =
+                Collections.synchronizedList(new ArrayList<Exception>());
+
+        private final AtomicInteger mResets = new AtomicInteger();
+
+        @Override
+        public void onMeasurementsUpdated(
+                final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                final K receiverId,
+                final GNSSKalmanFilteredEstimator estimator,
+                final boolean updated) {
+            record(receiverId, estimator.getLastStateTimestamp(), estimator);
+        }
+
+        @Override
+        public void onPropagated(
+                final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                final K receiverId,
+                final GNSSKalmanFilteredEstimator estimator,
+                final boolean propagated) {
+            record(receiverId, estimator.getLastStateTimestamp(), estimator);
+        }
+
+        @Override
+        public void onReset(
+                final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                final K receiverId,
+                final GNSSKalmanFilteredEstimator estimator) {
+            mResets.incrementAndGet();
+        }
+
+        @Override
+        public void onError(
+                final GNSSKalmanFilteredEstimatorEngine<K> engine,
+                final K receiverId,
+                final GNSSKalmanFilteredEstimator estimator,
+                final Exception e) {
+            mErrors.add(e);
+            record(receiverId, null, estimator);
+        }
+
+        private void record(final K receiverId, final Double timestamp,
+                            final GNSSKalmanFilteredEstimator estimator) {
+            // only the worker owning the receiver writes its entries
+            List<Double> timestamps = mTimestamps.get(receiverId);
+            if (timestamps == null) {
+                timestamps = new ArrayList<>();
+                mTimestamps.put(receiverId, timestamps);
+            }
+            timestamps.add(timestamp);
+
+            final GNSSKalmanState state = estimator.getState();
+            if (state != null) {
+                mStates.put(receiverId, state);
+            }
+        }
+    }
+
+    private static List<Collection<GNSSMeasurement>> generateSequence(
+            final Random random) {
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+
+        final double userLatitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double userLongitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double userHeight = randomizer.nextDouble(MIN_USER_HEIGHT,
+                MAX_USER_HEIGHT);
+        final NEDPosition nedUserPosition =
+                new NEDPosition(userLatitude, userLongitude, userHeight);
+
+        final double userVn = randomizer.nextDouble(MIN_USER_VELOCITY_VALUE,
+                MAX_USER_VELOCITY_VALUE);
+        final double userVe = randomizer.nextDouble(MIN_USER_VELOCITY_VALUE,
+                MAX_USER_VELOCITY_VALUE);
+        final double userVd = randomizer.nextDouble(MIN_USER_VELOCITY_VALUE,
+                MAX_USER_VELOCITY_VALUE);
+        final NEDVelocity nedUserVelocity = new NEDVelocity(userVn, userVe, userVd);
+
+        final ECEFPosition ecefUserPosition = new ECEFPosition();
+        final ECEFVelocity ecefUserVelocity = new ECEFVelocity();
+        NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                nedUserPosition, nedUserVelocity, ecefUserPosition, ecefUserVelocity);
+
+        final ECEFPositionAndVelocity ecefUserPositionAndVelocity =
+                new ECEFPositionAndVelocity(ecefUserPosition, ecefUserVelocity);
+
+        final GNSSConfig config = generateConfig();
+        final double delta = Math.toRadians(MASK_ANGLE_DEGREES) / 3.0;
+
+        final List<Collection<GNSSMeasurement>> result = new ArrayList<>();
+        for (int k = 0; k < NUM_EPOCHS; k++) {
+            final List<Double> biases = new ArrayList<>();
+            final List<ECEFPositionAndVelocity> satellitePositionsAndVelocities =
+                    new ArrayList<>();
+            for (int n = 0; n < NUM_SAT; n++) {
+                final double satLatitude = randomizer.nextDouble(
+                        userLatitude - delta, userLatitude + delta);
+                final double satLongitude = randomizer.nextDouble(
+                        userLongitude - delta, userLongitude + delta);
+                final double satHeight = randomizer.nextDouble(MIN_SAT_HEIGHT,
+                        MAX_SAT_HEIGHT);
+                final NEDPosition nedSatPosition =
+                        new NEDPosition(satLatitude, satLongitude, satHeight);
+
+                final double satVn = randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE,
+                        MAX_SAT_VELOCITY_VALUE);
+                final double satVe = randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE,
+                        MAX_SAT_VELOCITY_VALUE);
+                final double satVd = randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE,
+                        MAX_SAT_VELOCITY_VALUE);
+                final NEDVelocity nedSatVelocity =
+                        new NEDVelocity(satVn, satVe, satVd);
+
+                final ECEFPosition ecefSatPosition = new ECEFPosition();
+                final ECEFVelocity ecefSatVelocity = new ECEFVelocity();
+                NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                        nedSatPosition, nedSatVelocity, ecefSatPosition,
+                        ecefSatVelocity);
+
+                biases.add(GNSSBiasesGenerator.generateBias(ecefSatPosition,
+                        ecefUserPosition, config, random));
+                satellitePositionsAndVelocities.add(new ECEFPositionAndVelocity(
+                        ecefSatPosition, ecefSatVelocity));
+            }
+
+            result.add(GNSSMeasurementsGenerator.generate(k,
+                    satellitePositionsAndVelocities, ecefUserPositionAndVelocity,
+                    biases, config, random));
+        }
+        return result;
+    }
+
+    private static GNSSKalmanConfig generateKalmanConfig() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final double initialPositionUncertainty = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double initialVelocityUncertainty = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double initialClockOffsetUncertainty = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double initialClockDriftUncertainty = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double accelerationPSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double clockFrequencyPSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double clockPhasePSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double pseudoRangeSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double rangeRateSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+
+        return new GNSSKalmanConfig(initialPositionUncertainty,
+                initialVelocityUncertainty, initialClockOffsetUncertainty,
+                initialClockDriftUncertainty, accelerationPSD, clockFrequencyPSD,
+                clockPhasePSD, pseudoRangeSD, rangeRateSD);
+    }
+
+    private static GNSSConfig generateConfig() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final double epochInterval = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double initialEstimatedEcefPositionX = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialEstimatedEcefPositionY = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialEstimatedEcefPositionZ = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double orbitalRadiusOfSatellites = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double satellitesInclinationDegrees = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double constellationLongitudeOffsetDegrees = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double constellationTimingOffset = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double sisErrorSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double zenithIonosphereErrorSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double zenithTroposphereErrorSD = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double codeTrackingErrorSD = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double rangeRateTrackingErrorSD = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialReceiverClockOffset = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialReceiverClockDrift = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+
+        return new GNSSConfig(epochInterval, initialEstimatedEcefPositionX,
+                initialEstimatedEcefPositionY, initialEstimatedEcefPositionZ,
+                NUM_SAT, orbitalRadiusOfSatellites,
+                satellitesInclinationDegrees, constellationLongitudeOffsetDegrees,
+                constellationTimingOffset, MASK_ANGLE_DEGREES, sisErrorSD,
+                zenithIonosphereErrorSD, zenithTroposphereErrorSD, codeTrackingErrorSD,
+                rangeRateTrackingErrorSD, initialReceiverClockOffset,
+                initialReceiverClockDrift);
+    }
+}
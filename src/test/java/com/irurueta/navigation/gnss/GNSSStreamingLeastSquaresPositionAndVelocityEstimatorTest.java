@@ -0,0 +1,490 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.gnss;
+
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.frames.converters.NEDtoECEFPositionVelocityConverter;
+import com.irurueta.navigation.inertial.ECEFPosition;
+import com.irurueta.navigation.inertial.ECEFVelocity;
+import com.irurueta.navigation.inertial.NEDPosition;
+import com.irurueta.navigation.inertial.NEDVelocity;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GNSSStreamingLeastSquaresPositionAndVelocityEstimatorTest {
+
+    private static final double MIN_VALUE = 1e-4;
+    private static final double MAX_VALUE = 1e-3;
+
+    private static final int NUM_SAT = 10;
+
+    private static final double MIN_LATITUDE_DEGREES = -80.0;
+    private static final double MAX_LATITUDE_DEGREES = 80.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_USER_HEIGHT = -50.0;
+    private static final double MAX_USER_HEIGHT = 50.0;
+
+    private static final double MIN_USER_VELOCITY_VALUE = -2.0;
+    private static final double MAX_USER_VELOCITY_VALUE = 2.0;
+
+    private static final double MIN_SAT_HEIGHT = 150000.0;
+    private static final double MAX_SAT_HEIGHT = 800000.0;
+
+    private static final double MIN_SAT_VELOCITY_VALUE = -3500.0;
+    private static final double MAX_SAT_VELOCITY_VALUE = 3500.0;
+
+    private static final double MASK_ANGLE_DEGREES = 15.0;
+
+    private static final double TIME_INTERVAL = 0.1;
+
+    private static final int NUM_EPOCHS = 50;
+
+    private static final double POSITION_ERROR = 1e-3;
+    private static final double VELOCITY_ERROR = 1e-5;
+
+    private static final int TIMES = 50;
+
+    @Test
+    public void testConstructor() {
+        GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+
+        assertEquals(estimator.getConvergenceThreshold(),
+                GNSSStreamingLeastSquaresPositionAndVelocityEstimator
+                        .DEFAULT_CONVERGENCE_THRESHOLD, 0.0);
+        assertEquals(estimator.getMaxIterations(),
+                GNSSStreamingLeastSquaresPositionAndVelocityEstimator
+                        .DEFAULT_MAX_ITERATIONS);
+        assertFalse(estimator.hasPreviousEstimation());
+        assertFalse(estimator.getPreviousEstimation(null));
+        assertEquals(estimator.getCapacity(), 0);
+        assertEquals(estimator.getLastPositionIterations(), 0);
+        assertEquals(estimator.getLastVelocityIterations(), 0);
+        assertFalse(estimator.hasConverged());
+        assertEquals(estimator.getEpochs(), 0);
+        assertEquals(estimator.getTotalIterations(), 0);
+        assertEquals(estimator.getAverageIterations(), 0.0, 0.0);
+
+        estimator = new GNSSStreamingLeastSquaresPositionAndVelocityEstimator(1e-3);
+        assertEquals(estimator.getConvergenceThreshold(), 1e-3, 0.0);
+
+        estimator = new GNSSStreamingLeastSquaresPositionAndVelocityEstimator(
+                1e-3, 5);
+        assertEquals(estimator.getConvergenceThreshold(), 1e-3, 0.0);
+        assertEquals(estimator.getMaxIterations(), 5);
+
+        // Force IllegalArgumentException
+        estimator = null;
+        try {
+            estimator = new GNSSStreamingLeastSquaresPositionAndVelocityEstimator(
+                    0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+        try {
+            estimator = new GNSSStreamingLeastSquaresPositionAndVelocityEstimator(
+                    1e-3, 0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+        assertNull(estimator);
+    }
+
+    @Test
+    public void testGetSetConvergenceThreshold() {
+        final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+
+        estimator.setConvergenceThreshold(1.0);
+        assertEquals(estimator.getConvergenceThreshold(), 1.0, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setConvergenceThreshold(-1.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+    }
+
+    @Test
+    public void testGetSetMaxIterations() {
+        final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+
+        estimator.setMaxIterations(3);
+        assertEquals(estimator.getMaxIterations(), 3);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxIterations(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) { }
+    }
+
+    @Test
+    public void testGetSetPreviousEstimation() {
+        final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+
+        final GNSSEstimation estimation = new GNSSEstimation(1.0, 2.0, 3.0,
+                4.0, 5.0, 6.0, 7.0, 8.0);
+        estimator.setPreviousEstimation(estimation);
+
+        assertTrue(estimator.hasPreviousEstimation());
+        final GNSSEstimation result = new GNSSEstimation();
+        assertTrue(estimator.getPreviousEstimation(result));
+        assertEquals(result, estimation);
+
+        estimator.setPreviousEstimation(null);
+        assertFalse(estimator.hasPreviousEstimation());
+        assertFalse(estimator.getPreviousEstimation(result));
+    }
+
+    @Test
+    public void testColdStartMatchesBatchEstimator() throws LockedException,
+            NotReadyException, GNSSException {
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final Random random = new Random();
+            final Track track = new Track(random);
+            final Collection<GNSSMeasurement> measurements = track.generate(0.0);
+            if (measurements.size() <
+                    GNSSLeastSquaresPositionAndVelocityEstimator.MIN_MEASUREMENTS) {
+                continue;
+            }
+
+            final GNSSLeastSquaresPositionAndVelocityEstimator batchEstimator =
+                    new GNSSLeastSquaresPositionAndVelocityEstimator(measurements);
+            final GNSSEstimation expected;
+            try {
+                expected = batchEstimator.estimate();
+            } catch (final GNSSException e) {
+                continue;
+            }
+
+            final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                    new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+            final GNSSEstimation result = new GNSSEstimation();
+            estimator.estimate(measurements, result);
+
+            assertTrue(estimator.hasConverged());
+            assertTrue(estimator.hasPreviousEstimation());
+            assertEquals(estimator.getCapacity(), measurements.size());
+            assertEquals(estimator.getEpochs(), 1);
+            assertEquals(estimator.getLastVelocityIterations(), 1);
+            assertEquals(estimator.getTotalIterations(),
+                    estimator.getLastPositionIterations() + 1);
+
+            assertEquals(result.getX(), expected.getX(), POSITION_ERROR);
+            assertEquals(result.getY(), expected.getY(), POSITION_ERROR);
+            assertEquals(result.getZ(), expected.getZ(), POSITION_ERROR);
+            assertEquals(result.getClockOffset(), expected.getClockOffset(),
+                    POSITION_ERROR);
+            assertEquals(result.getVx(), expected.getVx(), VELOCITY_ERROR);
+            assertEquals(result.getVy(), expected.getVy(), VELOCITY_ERROR);
+            assertEquals(result.getVz(), expected.getVz(), VELOCITY_ERROR);
+            assertEquals(result.getClockDrift(), expected.getClockDrift(),
+                    VELOCITY_ERROR);
+
+            final GNSSEstimation previous = new GNSSEstimation();
+            assertTrue(estimator.getPreviousEstimation(previous));
+            assertEquals(previous, result);
+
+            numValid++;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
+    @Test
+    public void testSteadyStateTrack() throws LockedException, NotReadyException,
+            GNSSException {
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final Random random = new Random();
+            final Track track = new Track(random);
+
+            final List<Collection<GNSSMeasurement>> epochs = new ArrayList<>();
+            boolean valid = true;
+            for (int k = 0; k < NUM_EPOCHS; k++) {
+                final Collection<GNSSMeasurement> measurements =
+                        track.generate(k * TIME_INTERVAL);
+                if (measurements.size() <
+                        GNSSLeastSquaresPositionAndVelocityEstimator.MIN_MEASUREMENTS) {
+                    valid = false;
+                    break;
+                }
+                epochs.add(measurements);
+            }
+            if (!valid) {
+                continue;
+            }
+
+            final GNSSLeastSquaresPositionAndVelocityEstimator batchEstimator =
+                    new GNSSLeastSquaresPositionAndVelocityEstimator();
+            final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                    new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+
+            GNSSEstimation expected = null;
+            final GNSSEstimation result = new GNSSEstimation();
+            try {
+                for (int k = 0; k < NUM_EPOCHS; k++) {
+                    final Collection<GNSSMeasurement> measurements = epochs.get(k);
+
+                    batchEstimator.setMeasurements(measurements);
+                    batchEstimator.setPriorPositionAndVelocityFromEstimation(
+                            expected);
+                    expected = batchEstimator.estimate();
+
+                    estimator.estimate(measurements,
+                            new Time(k > 0 ? TIME_INTERVAL : 0.0, TimeUnit.SECOND),
+                            result);
+
+                    assertTrue(estimator.hasConverged());
+                    assertEquals(result.getX(), expected.getX(), POSITION_ERROR);
+                    assertEquals(result.getY(), expected.getY(), POSITION_ERROR);
+                    assertEquals(result.getZ(), expected.getZ(), POSITION_ERROR);
+                    assertEquals(result.getClockOffset(),
+                            expected.getClockOffset(), POSITION_ERROR);
+                    assertEquals(result.getVx(), expected.getVx(), VELOCITY_ERROR);
+                    assertEquals(result.getVy(), expected.getVy(), VELOCITY_ERROR);
+                    assertEquals(result.getVz(), expected.getVz(), VELOCITY_ERROR);
+                    assertEquals(result.getClockDrift(), expected.getClockDrift(),
+                            VELOCITY_ERROR);
+
+                    if (k > 0) {
+                        // warm-started epochs converge almost immediately
+                        assertTrue(estimator.getLastPositionIterations() <= 2);
+                    }
+                }
+            } catch (final GNSSException e) {
+                continue;
+            }
+
+            assertEquals(estimator.getEpochs(), NUM_EPOCHS);
+            assertTrue(estimator.getAverageIterations() < 4.0);
+            assertTrue(estimator.getCapacity() >= GNSSStreamingLeastSquaresPositionAndVelocityEstimator.MIN_MEASUREMENTS);
+
+            estimator.reset();
+            assertFalse(estimator.hasPreviousEstimation());
+            assertEquals(estimator.getEpochs(), 0);
+            assertEquals(estimator.getTotalIterations(), 0);
+
+            numValid++;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
+    @Test
+    public void testMaxIterations() throws GNSSException {
+        for (int t = 0; t < TIMES; t++) {
+            final Track track = new Track(new Random());
+            final Collection<GNSSMeasurement> measurements = track.generate(0.0);
+            if (measurements.size() <
+                    GNSSLeastSquaresPositionAndVelocityEstimator.MIN_MEASUREMENTS) {
+                continue;
+            }
+
+            final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                    new GNSSStreamingLeastSquaresPositionAndVelocityEstimator(
+                            GNSSStreamingLeastSquaresPositionAndVelocityEstimator
+                                    .DEFAULT_CONVERGENCE_THRESHOLD, 1);
+            estimator.estimate(measurements, new GNSSEstimation());
+
+            // cold start cannot converge in a single iteration
+            assertEquals(estimator.getLastPositionIterations(), 1);
+            assertFalse(estimator.hasConverged());
+            break;
+        }
+    }
+
+    @Test
+    public void testDegenerateGeometry() {
+        final GNSSMeasurement measurement = new GNSSMeasurement(2e7, 0.0,
+                1e7, 1e7, 1e7, 0.0, 0.0, 0.0);
+        final List<GNSSMeasurement> measurements = new ArrayList<>();
+        for (int i = 0; i < NUM_SAT; i++) {
+            measurements.add(measurement);
+        }
+
+        final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+        try {
+            estimator.estimate(measurements, new GNSSEstimation());
+            fail("GNSSException expected but not thrown");
+        } catch (final GNSSException ignore) { }
+        assertFalse(estimator.hasPreviousEstimation());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEstimateWithInvalidMeasurements() throws GNSSException {
+        final GNSSStreamingLeastSquaresPositionAndVelocityEstimator estimator =
+                new GNSSStreamingLeastSquaresPositionAndVelocityEstimator();
+        estimator.estimate(Collections.<GNSSMeasurement>emptyList(),
+                new GNSSEstimation());
+    }
+
+    private static class Track {
+
+        private final Random mRandom;
+
+        private final GNSSConfig mConfig;
+
+        private final ECEFPosition mUserPosition;
+
+        private final ECEFVelocity mUserVelocity;
+
+        private final List<ECEFPositionAndVelocity> mSatellites = new ArrayList<>();
+
+        private final List<Double> mBiases = new ArrayList<>();
+
+        Track(final Random random) {
+            mRandom = random;
+            mConfig = generateConfig();
+
+            final UniformRandomizer randomizer = new UniformRandomizer(random);
+
+            final double userLatitude = Math.toRadians(randomizer.nextDouble(
+                    MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+            final double userLongitude = Math.toRadians(randomizer.nextDouble(
+                    MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+            final double userHeight = randomizer.nextDouble(MIN_USER_HEIGHT,
+                    MAX_USER_HEIGHT);
+            final NEDPosition nedUserPosition =
+                    new NEDPosition(userLatitude, userLongitude, userHeight);
+
+            final NEDVelocity nedUserVelocity = new NEDVelocity(
+                    randomizer.nextDouble(MIN_USER_VELOCITY_VALUE,
+                            MAX_USER_VELOCITY_VALUE),
+                    randomizer.nextDouble(MIN_USER_VELOCITY_VALUE,
+                            MAX_USER_VELOCITY_VALUE),
+                    randomizer.nextDouble(MIN_USER_VELOCITY_VALUE,
+                            MAX_USER_VELOCITY_VALUE));
+
+            mUserPosition = new ECEFPosition();
+            mUserVelocity = new ECEFVelocity();
+            NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                    nedUserPosition, nedUserVelocity, mUserPosition, mUserVelocity);
+
+            final double delta = Math.toRadians(MASK_ANGLE_DEGREES) / 3.0;
+            for (int n = 0; n < NUM_SAT; n++) {
+                final NEDPosition nedSatPosition = new NEDPosition(
+                        randomizer.nextDouble(userLatitude - delta,
+                                userLatitude + delta),
+                        randomizer.nextDouble(userLongitude - delta,
+                                userLongitude + delta),
+                        randomizer.nextDouble(MIN_SAT_HEIGHT, MAX_SAT_HEIGHT));
+                final NEDVelocity nedSatVelocity = new NEDVelocity(
+                        randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE,
+                                MAX_SAT_VELOCITY_VALUE),
+                        randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE,
+                                MAX_SAT_VELOCITY_VALUE),
+                        randomizer.nextDouble(MIN_SAT_VELOCITY_VALUE,
+                                MAX_SAT_VELOCITY_VALUE));
+
+                final ECEFPosition ecefSatPosition = new ECEFPosition();
+                final ECEFVelocity ecefSatVelocity = new ECEFVelocity();
+                NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                        nedSatPosition, nedSatVelocity, ecefSatPosition,
+                        ecefSatVelocity);
+
+                mSatellites.add(new ECEFPositionAndVelocity(ecefSatPosition,
+                        ecefSatVelocity));
+                mBiases.add(GNSSBiasesGenerator.generateBias(ecefSatPosition,
+                        mUserPosition, mConfig, random));
+            }
+        }
+
+        Collection<GNSSMeasurement> generate(final double time) {
+            // user and satellites move with constant velocity
+            final ECEFPositionAndVelocity user = move(mUserPosition.getX(),
+                    mUserPosition.getY(), mUserPosition.getZ(),
+                    mUserVelocity.getVx(), mUserVelocity.getVy(),
+                    mUserVelocity.getVz(), time);
+
+            final List<ECEFPositionAndVelocity> satellites = new ArrayList<>();
+            for (final ECEFPositionAndVelocity satellite : mSatellites) {
+                satellites.add(move(satellite.getX(), satellite.getY(),
+                        satellite.getZ(), satellite.getVx(), satellite.getVy(),
+                        satellite.getVz(), time));
+            }
+
+            return GNSSMeasurementsGenerator.generate(time, satellites, user,
+                    mBiases, mConfig, mRandom);
+        }
+
+        private static ECEFPositionAndVelocity move(
+                final double x, final double y, final double z,
+                final double vx, final double vy, final double vz,
+                final double time) {
+            return new ECEFPositionAndVelocity(x + vx * time, y + vy * time,
+                    z + vz * time, vx, vy, vz);
+        }
+    }
+
+    private static GNSSConfig generateConfig() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final double epochInterval = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double initialEstimatedEcefPositionX = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialEstimatedEcefPositionY = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialEstimatedEcefPositionZ = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double orbitalRadiusOfSatellites = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double satellitesInclinationDegrees = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double constellationLongitudeOffsetDegrees = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double constellationTimingOffset = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double sisErrorSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double zenithIonosphereErrorSD = randomizer.nextDouble(
+                MIN_VALUE, MAX_VALUE);
+        final double zenithTroposphereErrorSD = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double codeTrackingErrorSD = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double rangeRateTrackingErrorSD = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialReceiverClockOffset = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+        final double initialReceiverClockDrift = randomizer.nextDouble(MIN_VALUE,
+                MAX_VALUE);
+
+        return new GNSSConfig(epochInterval, initialEstimatedEcefPositionX,
+                initialEstimatedEcefPositionY, initialEstimatedEcefPositionZ,
+                NUM_SAT, orbitalRadiusOfSatellites,
+                satellitesInclinationDegrees, constellationLongitudeOffsetDegrees,
+                constellationTimingOffset, MASK_ANGLE_DEGREES, sisErrorSD,
+                zenithIonosphereErrorSD, zenithTroposphereErrorSD, codeTrackingErrorSD,
+                rangeRateTrackingErrorSD, initialReceiverClockOffset,
+                initialReceiverClockDrift);
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BatchWeightedKNearestNeighboursPositionSolver3DTest {
+
+    private static final int MIN_RSSI = -100;
+    private static final int MAX_RSSI = -50;
+
+    private static final int MIN_AP = 5;
+    private static final int MAX_AP = 30;
+
+    private static final int MIN_FINGERPRINTS = 50;
+    private static final int MAX_FINGERPRINTS = 200;
+
+    private static final int NUM_QUERIES = 500;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final int MAX_K = 10;
+
+    private static final double ABSOLUTE_ERROR = 1e-9;
+
+    private static final int TIMES = 10;
+
+    @Test
+    public void testConstructor() {
+        final CompiledRadioMap<Point3D, WifiAccessPoint> radioMap =
+                new CompiledRadioMap<>(
+                        new ArrayList<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>>());
+
+        BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                new BatchWeightedKNearestNeighboursPositionSolver3D<>(radioMap, 3);
+
+        // check default values
+        assertSame(solver.getRadioMap(), radioMap);
+        assertEquals(solver.getK(), 3);
+        assertNull(solver.getPool());
+        assertEquals(solver.getMinFingerprintsPerTask(),
+                BatchWeightedKNearestNeighboursPositionSolver.DEFAULT_MIN_FINGERPRINTS_PER_TASK);
+        assertEquals(solver.getEpsilon(),
+                BatchWeightedKNearestNeighboursPositionSolver.DEFAULT_EPSILON, 0.0);
+        assertEquals(solver.getNumberOfDimensions(), 3);
+
+        // test constructor with pool
+        final ForkJoinPool pool = new ForkJoinPool();
+        solver = new BatchWeightedKNearestNeighboursPositionSolver3D<>(radioMap, 3, pool);
+
+        // check
+        assertSame(solver.getPool(), pool);
+        pool.shutdown();
+
+        // Force IllegalArgumentException
+        try {
+            new BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint>(null, 3);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new BatchWeightedKNearestNeighboursPositionSolver3D<>(radioMap, 0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMinFingerprintsPerTask() {
+        final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                new BatchWeightedKNearestNeighboursPositionSolver3D<>(
+                        new CompiledRadioMap<>(
+                                new ArrayList<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>>()),
+                        1);
+
+        // set new value
+        solver.setMinFingerprintsPerTask(10);
+
+        // check
+        assertEquals(solver.getMinFingerprintsPerTask(), 10);
+
+        // Force IllegalArgumentException
+        try {
+            solver.setMinFingerprintsPerTask(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetEpsilon() {
+        final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                new BatchWeightedKNearestNeighboursPositionSolver3D<>(
+                        new CompiledRadioMap<>(
+                                new ArrayList<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>>()),
+                        1);
+
+        // set new value
+        solver.setEpsilon(1.0);
+
+        // check
+        assertEquals(solver.getEpsilon(), 1.0, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            solver.setEpsilon(0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testSolve() throws LockedException, NotReadyException {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    createFingerprints(randomizer, accessPoints);
+            final RadioSourceKNearestFinder<Point3D, WifiAccessPoint> finder =
+                    new RadioSourceKNearestFinder<>(fingerprints);
+
+            final List<RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>> queries =
+                    new ArrayList<>();
+            for (int i = 0; i < NUM_QUERIES; i++) {
+                queries.add(new RssiFingerprint<>(createReadings(randomizer, accessPoints)));
+            }
+
+            final int k = randomizer.nextInt(1, MAX_K);
+            final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                    new BatchWeightedKNearestNeighboursPositionSolver3D<>(finder.compile(), k);
+
+            final double[] x = new double[NUM_QUERIES];
+            final double[] y = new double[NUM_QUERIES];
+            final double[] z = new double[NUM_QUERIES];
+            final double[] accuracies = new double[NUM_QUERIES];
+            solver.solve(queries, x, y, z, accuracies);
+
+            // check against finder and solver of a single fingerprint
+            for (int i = 0; i < NUM_QUERIES; i++) {
+                final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point3D>> nearestFingerprintsList =
+                        new ArrayList<>();
+                final List<Double> nearestSqrDistancesList = new ArrayList<>();
+                finder.findKNearestTo(queries.get(i), k, nearestFingerprintsList,
+                        nearestSqrDistancesList);
+
+                final int num = nearestFingerprintsList.size();
+                // noinspection all
+                final RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point3D>[] nearestFingerprints =
+                        new RssiFingerprintLocated[num];
+                final double[] nearestDistances = new double[num];
+                for (int n = 0; n < num; n++) {
+                    nearestFingerprints[n] = nearestFingerprintsList.get(n);
+                    nearestDistances[n] = Math.sqrt(nearestSqrDistancesList.get(n));
+                }
+
+                final WeightedKNearestNeighboursPositionSolver3D singleSolver =
+                        new WeightedKNearestNeighboursPositionSolver3D(
+                                nearestFingerprints, nearestDistances);
+                singleSolver.solve();
+                final Point3D expected = singleSolver.getEstimatedPosition();
+
+                assertEquals(x[i], expected.getInhomX(), ABSOLUTE_ERROR);
+                assertEquals(y[i], expected.getInhomY(), ABSOLUTE_ERROR);
+                assertEquals(z[i], expected.getInhomZ(), ABSOLUTE_ERROR);
+                assertEquals(accuracies[i], expectedAccuracy(nearestFingerprints,
+                        nearestDistances, expected), ABSOLUTE_ERROR);
+            }
+        }
+    }
+
+    @Test
+    public void testSolveWithPool() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+        final CompiledRadioMap<Point3D, WifiAccessPoint> radioMap =
+                new CompiledRadioMap<>(createFingerprints(randomizer, accessPoints));
+
+        final List<RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>> queries =
+                new ArrayList<>();
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            queries.add(new RssiFingerprint<>(createReadings(randomizer, accessPoints)));
+        }
+
+        final int k = randomizer.nextInt(1, MAX_K);
+        final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                new BatchWeightedKNearestNeighboursPositionSolver3D<>(radioMap, k);
+        final double[] expectedX = new double[NUM_QUERIES];
+        final double[] expectedY = new double[NUM_QUERIES];
+        final double[] expectedZ = new double[NUM_QUERIES];
+        final double[] expectedAccuracies = new double[NUM_QUERIES];
+        solver.solve(queries, expectedX, expectedY, expectedZ, expectedAccuracies);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> parallelSolver =
+                    new BatchWeightedKNearestNeighboursPositionSolver3D<>(radioMap, k, pool);
+            parallelSolver.setMinFingerprintsPerTask(16);
+
+            final double[] x = new double[NUM_QUERIES];
+            final double[] y = new double[NUM_QUERIES];
+            final double[] z = new double[NUM_QUERIES];
+            final double[] accuracies = new double[NUM_QUERIES];
+            parallelSolver.solve(queries, x, y, z, accuracies);
+
+            // check
+            assertArrayEquals(x, expectedX, 0.0);
+            assertArrayEquals(y, expectedY, 0.0);
+            assertArrayEquals(z, expectedZ, 0.0);
+            assertArrayEquals(accuracies, expectedAccuracies, 0.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSolveEmptyRadioMap() {
+        final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                new BatchWeightedKNearestNeighboursPositionSolver3D<>(
+                        new CompiledRadioMap<>(
+                                new ArrayList<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>>()),
+                        1);
+
+        final List<RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>> queries =
+                Collections.singletonList(
+                        new RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>());
+        final double[] x = new double[1];
+        final double[] y = new double[1];
+        final double[] z = new double[1];
+        final double[] accuracies = new double[1];
+        solver.solve(queries, x, y, z, accuracies);
+
+        // check
+        assertTrue(Double.isNaN(x[0]));
+        assertTrue(Double.isNaN(y[0]));
+        assertTrue(Double.isNaN(z[0]));
+        assertTrue(Double.isNaN(accuracies[0]));
+    }
+
+    @Test
+    public void testSolveInvalid() {
+        final BatchWeightedKNearestNeighboursPositionSolver3D<WifiAccessPoint> solver =
+                new BatchWeightedKNearestNeighboursPositionSolver3D<>(
+                        new CompiledRadioMap<>(
+                                new ArrayList<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>>()),
+                        1);
+
+        final List<RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>> queries =
+                new ArrayList<>();
+        queries.add(new RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>());
+        queries.add(new RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>());
+        final double[] x = new double[2];
+        final double[] y = new double[2];
+        final double[] z = new double[2];
+        final double[] accuracies = new double[2];
+
+        // Force IllegalArgumentException
+        try {
+            solver.solve(null, x, y, z, accuracies);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            solver.solve(queries, null, y, z, accuracies);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            solver.solve(queries, x, y, new double[1], accuracies);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            solver.solve(queries, x, y, z, new double[1]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        queries.add(null);
+        try {
+            solver.solve(queries, new double[3], new double[3], new double[3],
+                    new double[3]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    private static double expectedAccuracy(
+            final RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point3D>[] nearestFingerprints,
+            final double[] nearestDistances, final Point3D estimated) {
+        double sum = 0.0;
+        double sqrSpread = 0.0;
+        for (int n = 0; n < nearestFingerprints.length; n++) {
+            final double w = 1.0 / Math.max(nearestDistances[n],
+                    WeightedKNearestNeighboursPositionSolver.DEFAULT_EPSILON);
+            final double dist = nearestFingerprints[n].getPosition().distanceTo(estimated);
+            sum += w;
+            sqrSpread += w * dist * dist;
+        }
+        return Math.sqrt(sqrSpread / sum);
+    }
+
+    private static WifiAccessPoint[] createAccessPoints(final UniformRandomizer randomizer) {
+        final int numAccessPoints = randomizer.nextInt(MIN_AP, MAX_AP);
+        final WifiAccessPoint[] accessPoints = new WifiAccessPoint[numAccessPoints];
+        for (int i = 0; i < numAccessPoints; i++) {
+            accessPoints[i] = new WifiAccessPoint(String.valueOf(i), FREQUENCY);
+        }
+        return accessPoints;
+    }
+
+    private static List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> createFingerprints(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+        for (int i = 0; i < numFingerprints; i++) {
+            final Point3D position = new InhomogeneousPoint3D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            fingerprints.add(new RssiFingerprintLocated3D<>(
+                    createReadings(randomizer, accessPoints), position));
+        }
+        return fingerprints;
+    }
+
+    private static List<RssiReading<WifiAccessPoint>> createReadings(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        final int numReadings = randomizer.nextInt(1, 6);
+        for (int i = 0; i < numReadings; i++) {
+            final WifiAccessPoint accessPoint =
+                    accessPoints[randomizer.nextInt(0, accessPoints.length)];
+            readings.add(new RssiReading<>(accessPoint,
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI)));
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompiledRadioMapTest {
+
+    private static final int MIN_RSSI = -100;
+    private static final int MAX_RSSI = -50;
+
+    private static final int MIN_AP = 5;
+    private static final int MAX_AP = 30;
+
+    private static final int MIN_FINGERPRINTS = 50;
+    private static final int MAX_FINGERPRINTS = 200;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final int MAX_K = 20;
+
+    private static final int TIMES = 50;
+
+    @Test
+    public void testConstructor() {
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+        final WifiAccessPoint ap3 = new WifiAccessPoint("3", FREQUENCY);
+
+        final List<RssiReading<WifiAccessPoint>> readings1 = new ArrayList<>();
+        readings1.add(new RssiReading<>(ap1, -60.0));
+        readings1.add(new RssiReading<>(ap2, -70.0));
+        final List<RssiReading<WifiAccessPoint>> readings2 = new ArrayList<>();
+        readings2.add(new RssiReading<>(ap2, -65.0));
+
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        fingerprints.add(new RssiFingerprintLocated2D<>(readings1, new InhomogeneousPoint2D()));
+        fingerprints.add(new RssiFingerprintLocated2D<>(readings2, new InhomogeneousPoint2D()));
+
+        final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap =
+                new CompiledRadioMap<>(fingerprints);
+
+        // check
+        assertEquals(radioMap.getFingerprints(), fingerprints);
+        assertEquals(radioMap.getNumberOfFingerprints(), 2);
+        assertEquals(radioMap.getNumberOfSources(), 2);
+        assertSame(radioMap.getSources().get(0), ap1);
+        assertSame(radioMap.getSources().get(1), ap2);
+        assertEquals(radioMap.getSourceId(ap1), 0);
+        assertEquals(radioMap.getSourceId(ap2), 1);
+        assertEquals(radioMap.getSourceId(ap3), -1);
+
+        // compiled radio map is not affected by changes in collection
+        fingerprints.clear();
+        assertEquals(radioMap.getNumberOfFingerprints(), 2);
+
+        // Force IllegalArgumentException
+        try {
+            new CompiledRadioMap<Point2D, WifiAccessPoint>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testCompile() {
+        final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final RadioSourceKNearestFinder<Point3D, WifiAccessPoint> finder =
+                new RadioSourceKNearestFinder<>(fingerprints);
+
+        final CompiledRadioMap<Point3D, WifiAccessPoint> radioMap = finder.compile();
+
+        // check
+        assertEquals(radioMap.getNumberOfFingerprints(), 0);
+        assertEquals(radioMap.getNumberOfSources(), 0);
+    }
+
+    @Test
+    public void testFindNearestTo() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    createFingerprints2D(randomizer, accessPoints);
+            final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap =
+                    new CompiledRadioMap<>(fingerprints);
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+
+            assertSame(radioMap.findNearestTo(fingerprint),
+                    RadioSourceKNearestFinder.findNearestTo(fingerprint, fingerprints));
+        }
+
+        // Force IllegalArgumentException
+        final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap =
+                new CompiledRadioMap<>(
+                        new ArrayList<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>>());
+        try {
+            radioMap.findNearestTo(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testFindKNearestTo2D() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    createFingerprints2D(randomizer, accessPoints);
+            final RadioSourceKNearestFinder<Point2D, WifiAccessPoint> finder =
+                    new RadioSourceKNearestFinder<>(fingerprints);
+            final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap = finder.compile();
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+
+            for (int k = 1; k <= MAX_K; k++) {
+                final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> expected =
+                        new ArrayList<>();
+                final List<Double> expectedSqrDistances = new ArrayList<>();
+                finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+                final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                        new ArrayList<>();
+                final List<Double> nearestSqrDistances = new ArrayList<>();
+                radioMap.findKNearestTo(fingerprint, k, nearest, nearestSqrDistances);
+
+                assertSameElements(nearest, expected);
+                assertEquals(nearestSqrDistances, expectedSqrDistances);
+
+                assertSameElements(radioMap.findKNearestTo(fingerprint, k), expected);
+            }
+        }
+    }
+
+    @Test
+    public void testFindKNearestTo3D() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    new ArrayList<>();
+            final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+            for (int i = 0; i < numFingerprints; i++) {
+                final Point3D position = new InhomogeneousPoint3D(
+                        randomizer.nextDouble(MIN_POS, MAX_POS),
+                        randomizer.nextDouble(MIN_POS, MAX_POS),
+                        randomizer.nextDouble(MIN_POS, MAX_POS));
+                fingerprints.add(new RssiFingerprintLocated3D<>(
+                        createReadings(randomizer, accessPoints), position));
+            }
+            final RadioSourceKNearestFinder<Point3D, WifiAccessPoint> finder =
+                    new RadioSourceKNearestFinder<>(fingerprints);
+            final CompiledRadioMap<Point3D, WifiAccessPoint> radioMap = finder.compile();
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+
+            final int k = randomizer.nextInt(1, MAX_K);
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point3D>> expected =
+                    new ArrayList<>();
+            final List<Double> expectedSqrDistances = new ArrayList<>();
+            finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point3D>> nearest =
+                    new ArrayList<>();
+            final List<Double> nearestSqrDistances = new ArrayList<>();
+            radioMap.findKNearestTo(fingerprint, k, nearest, nearestSqrDistances);
+
+            assertSameElements(nearest, expected);
+            assertEquals(nearestSqrDistances, expectedSqrDistances);
+        }
+    }
+
+    @Test
+    public void testFindKNearestToReusingQuery() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                createFingerprints2D(randomizer, accessPoints);
+        final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap =
+                new CompiledRadioMap<>(fingerprints);
+
+        final CompiledRadioMap<Point2D, WifiAccessPoint>.Query query = radioMap.createQuery();
+        final int[] positions = new int[MAX_K];
+        final double[] sqrDistances = new double[MAX_K];
+        for (int t = 0; t < TIMES; t++) {
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+            final int k = randomizer.nextInt(1, MAX_K);
+
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> expected =
+                    new ArrayList<>();
+            final List<Double> expectedSqrDistances = new ArrayList<>();
+            radioMap.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+            final int numFound = radioMap.findKNearestTo(query, fingerprint, k,
+                    positions, sqrDistances);
+
+            // check
+            assertEquals(numFound, expected.size());
+            for (int i = 0; i < numFound; i++) {
+                assertSame(fingerprints.get(positions[i]), expected.get(i));
+                assertEquals(sqrDistances[i], expectedSqrDistances.get(i), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testFindKNearestToWithoutSharedSources() {
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+        final WifiAccessPoint ap3 = new WifiAccessPoint("3", FREQUENCY);
+
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+            readings.add(new RssiReading<>(i % 2 == 0 ? ap1 : ap2, -60.0 - i));
+            fingerprints.add(new RssiFingerprintLocated2D<>(readings,
+                    new InhomogeneousPoint2D(i, i)));
+        }
+        final RadioSourceKNearestFinder<Point2D, WifiAccessPoint> finder =
+                new RadioSourceKNearestFinder<>(fingerprints);
+        final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap = finder.compile();
+
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        readings.add(new RssiReading<>(ap2, -62.0));
+        readings.add(new RssiReading<>(ap3, -80.0));
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                new RssiFingerprint<>(readings);
+
+        for (int k = 1; k <= 6; k++) {
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> expected =
+                    new ArrayList<>();
+            final List<Double> expectedSqrDistances = new ArrayList<>();
+            finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                    new ArrayList<>();
+            final List<Double> nearestSqrDistances = new ArrayList<>();
+            radioMap.findKNearestTo(fingerprint, k, nearest, nearestSqrDistances);
+
+            assertSameElements(nearest, expected);
+            assertEquals(nearestSqrDistances, expectedSqrDistances);
+        }
+
+        // query not sharing any radio source
+        final List<RssiReading<WifiAccessPoint>> readings2 = new ArrayList<>();
+        readings2.add(new RssiReading<>(ap3, -80.0));
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint2 =
+                new RssiFingerprint<>(readings2);
+
+        assertNull(radioMap.findNearestTo(fingerprint2));
+        assertSameElements(radioMap.findKNearestTo(fingerprint2, 3),
+                finder.findKNearestTo(fingerprint2, 3));
+    }
+
+    @Test
+    public void testFindKNearestToInvalid() {
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final CompiledRadioMap<Point2D, WifiAccessPoint> radioMap =
+                new CompiledRadioMap<>(fingerprints);
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                new RssiFingerprint<>();
+
+        // empty radio map
+        assertTrue(radioMap.findKNearestTo(fingerprint, 1).isEmpty());
+
+        // Force IllegalArgumentException
+        final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                new ArrayList<>();
+        final List<Double> nearestSqrDistances = new ArrayList<>();
+        try {
+            radioMap.findKNearestTo(null, 1, nearest, nearestSqrDistances);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 0, nearest, nearestSqrDistances);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 1, null, nearestSqrDistances);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 1, nearest, null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    private static WifiAccessPoint[] createAccessPoints(final UniformRandomizer randomizer) {
+        final int numAccessPoints = randomizer.nextInt(MIN_AP, MAX_AP);
+        final WifiAccessPoint[] accessPoints = new WifiAccessPoint[numAccessPoints];
+        for (int i = 0; i < numAccessPoints; i++) {
+            accessPoints[i] = new WifiAccessPoint(String.valueOf(i), FREQUENCY);
+        }
+        return accessPoints;
+    }
+
+    private static List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> createFingerprints2D(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+        for (int i = 0; i < numFingerprints; i++) {
+            final Point2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            fingerprints.add(new RssiFingerprintLocated2D<>(
+                    createReadings(randomizer, accessPoints), position));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Creates readings of a random subset of access points in random order, using
+     * integer RSSI values so that ties in distances are frequent, and occasionally
+     * repeating readings of the same access point.
+     */
+    private static List<RssiReading<WifiAccessPoint>> createReadings(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        final int numReadings = randomizer.nextInt(1, 6);
+        for (int i = 0; i < numReadings; i++) {
+            final WifiAccessPoint accessPoint =
+                    accessPoints[randomizer.nextInt(0, accessPoints.length)];
+            final double rssi = randomizer.nextInt(MIN_RSSI, MAX_RSSI);
+            readings.add(new RssiReading<>(accessPoint, rssi));
+        }
+        return readings;
+    }
+
+    private static <T> void assertSameElements(final List<? extends T> list1,
+                                               final List<? extends T> list2) {
+        assertEquals(list1.size(), list2.size());
+        for (int i = 0; i < list1.size(); i++) {
+            assertSame(list1.get(i), list2.get(i));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IndexedRssiFingerprintTest {
+
+    private static final double MIN_RSSI = -100.0;
+    private static final double MAX_RSSI = -50.0;
+
+    private static final int MIN_AP = 1;
+    private static final int MAX_AP = 20;
+
+    private static final int MAX_READINGS = 30;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final double RELATIVE_ERROR = 1e-9;
+
+    private static final int TIMES = 1000;
+
+    @Test
+    public void testConstructor() {
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+
+        final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+        index.add(ap1);
+        index.add(ap2);
+
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        readings.add(new RssiReading<>(ap2, -70.0));
+        readings.add(new RssiReading<>(ap1, -60.0));
+        readings.add(new RssiReading<>(ap2, -75.0));
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                new RssiFingerprint<>(readings);
+
+        final IndexedRssiFingerprint<WifiAccessPoint> indexed =
+                new IndexedRssiFingerprint<>(fingerprint, index);
+
+        // check readings are sorted by radio source keeping order of repeated ones
+        assertSame(indexed.getIndex(), index);
+        assertEquals(indexed.getNumberOfReadings(), 3);
+        assertArrayEquals(indexed.getSourceIndices(), new int[]{0, 1, 1});
+        assertArrayEquals(indexed.getRssis(), new double[]{-60.0, -70.0, -75.0}, 0.0);
+        assertEquals(indexed.getMeanRssi(), fingerprint.getMeanRssi(), 0.0);
+
+        // radio sources not contained in index are added
+        final WifiAccessPoint ap3 = new WifiAccessPoint("3", FREQUENCY);
+        final List<RssiReading<WifiAccessPoint>> readings2 = new ArrayList<>();
+        readings2.add(new RssiReading<>(ap3, -80.0));
+        new IndexedRssiFingerprint<>(new RssiFingerprint<>(readings2), index);
+        assertEquals(index.indexOf(ap3), 2);
+
+        // empty fingerprint
+        final IndexedRssiFingerprint<WifiAccessPoint> empty = new IndexedRssiFingerprint<>(
+                new RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>(), index);
+        assertEquals(empty.getNumberOfReadings(), 0);
+        assertEquals(empty.getMeanRssi(), Double.MAX_VALUE, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            new IndexedRssiFingerprint<>(null, index);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new IndexedRssiFingerprint<>(fingerprint, null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testDistanceTo() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        for (int t = 0; t < TIMES; t++) {
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint1 =
+                    createFingerprint(randomizer, accessPoints);
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint2 =
+                    createFingerprint(randomizer, accessPoints);
+
+            final IndexedRssiFingerprint<WifiAccessPoint> indexed1 =
+                    new IndexedRssiFingerprint<>(fingerprint1, index);
+            final IndexedRssiFingerprint<WifiAccessPoint> indexed2 =
+                    new IndexedRssiFingerprint<>(fingerprint2, index);
+
+            assertEqualDistances(indexed1.sqrDistanceTo(indexed2),
+                    fingerprint1.sqrDistanceTo(fingerprint2));
+            assertEqualDistances(indexed2.sqrDistanceTo(indexed1),
+                    fingerprint2.sqrDistanceTo(fingerprint1));
+            assertEqualDistances(indexed1.distanceTo(indexed2),
+                    fingerprint1.distanceTo(fingerprint2));
+        }
+    }
+
+    @Test
+    public void testNoMeanDistanceTo() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        for (int t = 0; t < TIMES; t++) {
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint1 =
+                    createFingerprint(randomizer, accessPoints);
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint2 =
+                    createFingerprint(randomizer, accessPoints);
+
+            final IndexedRssiFingerprint<WifiAccessPoint> indexed1 =
+                    new IndexedRssiFingerprint<>(fingerprint1, index);
+            final IndexedRssiFingerprint<WifiAccessPoint> indexed2 =
+                    new IndexedRssiFingerprint<>(fingerprint2, index);
+
+            assertEqualDistances(indexed1.noMeanSqrDistanceTo(indexed2),
+                    fingerprint1.noMeanSqrDistanceTo(fingerprint2));
+            assertEqualDistances(indexed2.noMeanSqrDistanceTo(indexed1),
+                    fingerprint2.noMeanSqrDistanceTo(fingerprint1));
+            assertEqualDistances(indexed1.noMeanDistanceTo(indexed2),
+                    fingerprint1.noMeanDistanceTo(fingerprint2));
+        }
+    }
+
+    @Test
+    public void testDistanceToWithoutSharedSources() {
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+        final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+
+        final List<RssiReading<WifiAccessPoint>> readings1 = new ArrayList<>();
+        readings1.add(new RssiReading<>(ap1, -60.0));
+        final List<RssiReading<WifiAccessPoint>> readings2 = new ArrayList<>();
+        readings2.add(new RssiReading<>(ap2, -60.0));
+
+        final IndexedRssiFingerprint<WifiAccessPoint> indexed1 =
+                new IndexedRssiFingerprint<>(new RssiFingerprint<>(readings1), index);
+        final IndexedRssiFingerprint<WifiAccessPoint> indexed2 =
+                new IndexedRssiFingerprint<>(new RssiFingerprint<>(readings2), index);
+
+        assertEquals(indexed1.sqrDistanceTo(indexed2), Double.MAX_VALUE, 0.0);
+        assertEquals(indexed1.noMeanSqrDistanceTo(indexed2), Double.MAX_VALUE, 0.0);
+        assertEquals(indexed1.sqrDistanceTo(null), Double.MAX_VALUE, 0.0);
+        assertEquals(indexed1.noMeanSqrDistanceTo(null), Double.MAX_VALUE, 0.0);
+
+        // Force IllegalArgumentException
+        final IndexedRssiFingerprint<WifiAccessPoint> indexed3 = new IndexedRssiFingerprint<>(
+                new RssiFingerprint<>(readings2), new RadioSourceIndex<WifiAccessPoint>());
+        try {
+            indexed1.sqrDistanceTo(indexed3);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            indexed1.noMeanSqrDistanceTo(indexed3);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    private static WifiAccessPoint[] createAccessPoints(final UniformRandomizer randomizer) {
+        final int numAccessPoints = randomizer.nextInt(MIN_AP, MAX_AP);
+        final WifiAccessPoint[] accessPoints = new WifiAccessPoint[numAccessPoints];
+        for (int i = 0; i < numAccessPoints; i++) {
+            accessPoints[i] = new WifiAccessPoint(String.valueOf(i), FREQUENCY);
+        }
+        return accessPoints;
+    }
+
+    /**
+     * Creates a fingerprint containing readings of a random subset of access points
+     * in random order, occasionally repeating readings of the same access point.
+     */
+    private static RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> createFingerprint(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        final int numReadings = randomizer.nextInt(0, MAX_READINGS);
+        for (int i = 0; i < numReadings; i++) {
+            final WifiAccessPoint accessPoint =
+                    accessPoints[randomizer.nextInt(0, accessPoints.length)];
+            readings.add(new RssiReading<>(accessPoint,
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI)));
+        }
+        return new RssiFingerprint<>(readings);
+    }
+
+    private static void assertEqualDistances(final double value, final double expected) {
+        if (expected == Double.MAX_VALUE) {
+            assertEquals(value, expected, 0.0);
+        } else {
+            assertEquals(value, expected, RELATIVE_ERROR * Math.max(1.0, expected));
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedRadioMapTest {
+
+    private static final int MIN_RSSI = -100;
+    private static final int MAX_RSSI = -50;
+
+    private static final int MIN_AP = 5;
+    private static final int MAX_AP = 30;
+
+    private static final int MIN_FINGERPRINTS = 50;
+    private static final int MAX_FINGERPRINTS = 200;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final int MAX_K = 20;
+
+    private static final int TIMES = 50;
+
+    @Test
+    public void testWriteAndOpen2D() throws IOException {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    createFingerprints2D(randomizer, accessPoints);
+
+            final MappedRadioMap2D radioMap = new MappedRadioMap2D(write(fingerprints));
+
+            // check
+            assertEquals(radioMap.getNumberOfDimensions(), 2);
+            assertEquals(radioMap.getNumberOfFingerprints(), fingerprints.size());
+            int numReadings = 0;
+            for (int i = 0; i < fingerprints.size(); i++) {
+                final RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                        fingerprints.get(i);
+                final List<RssiReading<WifiAccessPoint>> readings = fingerprint.getReadings();
+                numReadings += readings.size();
+
+                assertEquals(radioMap.getNumberOfReadings(i), readings.size());
+                for (int j = 0; j < readings.size(); j++) {
+                    final RssiReading<WifiAccessPoint> reading = readings.get(j);
+                    assertEquals(radioMap.getSources().get(radioMap.getSourceId(i, j)),
+                            reading.getSource());
+                    assertEquals(radioMap.getSourceId(i, j),
+                            radioMap.getSourceId(reading.getSource()));
+                    assertEquals(radioMap.getRssi(i, j), reading.getRssi(), 0.0);
+                }
+
+                final Point2D position = fingerprint.getPosition();
+                assertEquals(radioMap.getCoordinate(i, 0),
+                        position.getInhomX(), MappedRadioMap.DEFAULT_POSITION_RESOLUTION);
+                assertEquals(radioMap.getCoordinate(i, 1),
+                        position.getInhomY(), MappedRadioMap.DEFAULT_POSITION_RESOLUTION);
+                assertEquals(radioMap.getPosition(i).getInhomX(),
+                        radioMap.getCoordinate(i, 0), 0.0);
+                assertEquals(radioMap.getPosition(i).getInhomY(),
+                        radioMap.getCoordinate(i, 1), 0.0);
+
+                final RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, Point2D> f =
+                        radioMap.getFingerprint(i);
+                assertTrue(f instanceof RssiFingerprintLocated2D);
+                assertEquals(f.getReadings().size(), readings.size());
+                for (int j = 0; j < readings.size(); j++) {
+                    assertEquals(f.getReadings().get(j).getSource(),
+                            readings.get(j).getSource());
+                    assertEquals(f.getReadings().get(j).getRssi(),
+                            readings.get(j).getRssi(), 0.0);
+                }
+            }
+            assertEquals(radioMap.getNumberOfReadings(), numReadings);
+            assertEquals(radioMap.getFingerprints().size(), fingerprints.size());
+            assertEquals(radioMap.getSourceId(new WifiAccessPoint("unknown", FREQUENCY)), -1);
+        }
+    }
+
+    @Test
+    public void testFindKNearestTo2D() throws IOException {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    createFingerprints2D(randomizer, accessPoints);
+            final RadioSourceKNearestFinder<Point2D, WifiAccessPoint> finder =
+                    new RadioSourceKNearestFinder<>(fingerprints);
+
+            final MappedRadioMap2D radioMap = new MappedRadioMap2D(write(fingerprints));
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+
+            final int[] positions = new int[MAX_K];
+            final double[] sqrDistances = new double[MAX_K];
+            for (int k = 1; k <= MAX_K; k++) {
+                final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> expected =
+                        new ArrayList<>();
+                final List<Double> expectedSqrDistances = new ArrayList<>();
+                finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+                final int numFound = radioMap.findKNearestTo(fingerprint, k,
+                        positions, sqrDistances);
+
+                // check
+                assertEquals(numFound, expected.size());
+                for (int i = 0; i < numFound; i++) {
+                    assertSame(fingerprints.get(positions[i]), expected.get(i));
+                    assertEquals(sqrDistances[i], expectedSqrDistances.get(i), 0.0);
+                }
+
+                final List<RssiFingerprintLocated<RadioSource, RssiReading<RadioSource>, Point2D>> nearest =
+                        new ArrayList<>();
+                final List<Double> nearestSqrDistances = new ArrayList<>();
+                radioMap.findKNearestTo(fingerprint, k, nearest, nearestSqrDistances);
+
+                assertEquals(nearest.size(), expected.size());
+                assertEquals(nearestSqrDistances, expectedSqrDistances);
+            }
+        }
+    }
+
+    @Test
+    public void testWriteAndOpenFile3D() throws IOException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+        final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+        for (int i = 0; i < numFingerprints; i++) {
+            final Point3D position = new InhomogeneousPoint3D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            fingerprints.add(new RssiFingerprintLocated3D<>(
+                    createReadings(randomizer, accessPoints), position));
+        }
+        final RadioSourceKNearestFinder<Point3D, WifiAccessPoint> finder =
+                new RadioSourceKNearestFinder<>(fingerprints);
+
+        final File file = File.createTempFile("radiomap", ".bin");
+        try {
+            try (final FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.WRITE)) {
+                MappedRadioMap.write(fingerprints, channel);
+            }
+
+            final MappedRadioMap3D radioMap;
+            try (final FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.READ)) {
+                radioMap = MappedRadioMap3D.open(channel);
+            }
+
+            // check
+            assertEquals(radioMap.getNumberOfDimensions(), 3);
+            assertEquals(radioMap.getNumberOfFingerprints(), numFingerprints);
+            for (int i = 0; i < numFingerprints; i++) {
+                final Point3D position = fingerprints.get(i).getPosition();
+                final Point3D position2 = radioMap.getPosition(i);
+                assertEquals(position2.getInhomX(), position.getInhomX(),
+                        MappedRadioMap.DEFAULT_POSITION_RESOLUTION);
+                assertEquals(position2.getInhomY(), position.getInhomY(),
+                        MappedRadioMap.DEFAULT_POSITION_RESOLUTION);
+                assertEquals(position2.getInhomZ(), position.getInhomZ(),
+                        MappedRadioMap.DEFAULT_POSITION_RESOLUTION);
+            }
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+            final int k = randomizer.nextInt(1, MAX_K);
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point3D>> expected =
+                    new ArrayList<>();
+            final List<Double> expectedSqrDistances = new ArrayList<>();
+            finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+            final int[] positions = new int[k];
+            final double[] sqrDistances = new double[k];
+            final int numFound = radioMap.findKNearestTo(fingerprint, k, positions,
+                    sqrDistances);
+            assertEquals(numFound, expected.size());
+            for (int i = 0; i < numFound; i++) {
+                assertSame(fingerprints.get(positions[i]), expected.get(i));
+                assertEquals(sqrDistances[i], expectedSqrDistances.get(i), 0.0);
+            }
+
+            // opening a 3D radio map as 2D fails
+            try (final FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.READ)) {
+                MappedRadioMap2D.open(channel);
+                fail("IOException expected but not thrown");
+            } catch (final IOException ignore) {
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testSourcesDictionary() throws IOException {
+        final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY, "ssid");
+        final WifiAccessPoint accessPointWithoutSsid = new WifiAccessPoint("bssid2", FREQUENCY);
+        final List<BeaconIdentifier> identifiers = new ArrayList<>();
+        identifiers.add(BeaconIdentifier.fromUuid(java.util.UUID.randomUUID()));
+        identifiers.add(BeaconIdentifier.fromInt(1));
+        identifiers.add(BeaconIdentifier.fromInt(2));
+        final Beacon beacon = new Beacon(identifiers, -60.0, FREQUENCY, "address", 1,
+                2, 3, "name");
+
+        final List<RssiReading<RadioSource>> readings = new ArrayList<>();
+        readings.add(new RssiReading<RadioSource>(accessPoint, -70.0));
+        readings.add(new RssiReading<RadioSource>(accessPointWithoutSsid, -75.0));
+        readings.add(new RssiReading<RadioSource>(beacon, -80.0));
+        final List<RssiFingerprintLocated2D<RadioSource, RssiReading<RadioSource>>> fingerprints =
+                new ArrayList<>();
+        fingerprints.add(new RssiFingerprintLocated2D<>(readings,
+                new InhomogeneousPoint2D(1.0, 2.0)));
+
+        final MappedRadioMap2D radioMap = new MappedRadioMap2D(write(fingerprints));
+
+        // check
+        assertEquals(radioMap.getNumberOfSources(), 3);
+
+        final WifiAccessPoint accessPoint2 = (WifiAccessPoint) radioMap.getSources().get(0);
+        assertEquals(accessPoint2.getBssid(), "bssid");
+        assertEquals(accessPoint2.getSsid(), "ssid");
+        assertEquals(accessPoint2.getFrequency(), FREQUENCY, 0.0);
+
+        final WifiAccessPoint accessPointWithoutSsid2 =
+                (WifiAccessPoint) radioMap.getSources().get(1);
+        assertEquals(accessPointWithoutSsid2.getBssid(), "bssid2");
+        assertNull(accessPointWithoutSsid2.getSsid());
+
+        final Beacon beacon2 = (Beacon) radioMap.getSources().get(2);
+        assertEquals(beacon2, beacon);
+        assertEquals(beacon2.getIdentifiers(), identifiers);
+        assertEquals(beacon2.getTransmittedPower(), -60.0, 0.0);
+        assertEquals(beacon2.getFrequency(), FREQUENCY, 0.0);
+        assertEquals(beacon2.getBluetoothAddress(), "address");
+        assertEquals(beacon2.getBeaconTypeCode(), 1);
+        assertEquals(beacon2.getManufacturer(), 2);
+        assertEquals(beacon2.getServiceUuid(), 3);
+        assertEquals(beacon2.getBluetoothName(), "name");
+    }
+
+    @Test
+    public void testWideSourceIds() throws IOException {
+        final int numAccessPoints = 70000;
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        for (int i = 0; i < numAccessPoints; i++) {
+            readings.add(new RssiReading<>(new WifiAccessPoint(String.valueOf(i), FREQUENCY),
+                    -60.0));
+        }
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        fingerprints.add(new RssiFingerprintLocated2D<>(readings, new InhomogeneousPoint2D()));
+
+        final MappedRadioMap2D radioMap = new MappedRadioMap2D(write(fingerprints));
+
+        // check
+        assertEquals(radioMap.getNumberOfSources(), numAccessPoints);
+        assertEquals(radioMap.getSourceId(0, numAccessPoints - 1), numAccessPoints - 1);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                Collections.emptyList();
+
+        final MappedRadioMap3D radioMap = new MappedRadioMap3D(write(fingerprints));
+
+        // check
+        assertEquals(radioMap.getNumberOfFingerprints(), 0);
+        assertEquals(radioMap.getNumberOfReadings(), 0);
+        assertEquals(radioMap.getNumberOfSources(), 0);
+        assertEquals(radioMap.findKNearestTo(
+                new RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>>(), 1,
+                new int[0], new double[0]), 0);
+    }
+
+    @Test
+    public void testInvalid() throws IOException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer);
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                createFingerprints2D(randomizer, accessPoints);
+        final ByteBuffer buffer = write(fingerprints);
+
+        // Force IOException
+        final ByteBuffer invalidMagic = ByteBuffer.allocate(buffer.capacity());
+        invalidMagic.put(buffer.duplicate());
+        invalidMagic.put(0, (byte) 0);
+        invalidMagic.rewind();
+        try {
+            new MappedRadioMap2D(invalidMagic);
+            fail("IOException expected but not thrown");
+        } catch (final IOException ignore) {
+        }
+
+        final ByteBuffer truncated = buffer.duplicate();
+        truncated.limit(buffer.capacity() - 1);
+        try {
+            new MappedRadioMap2D(truncated);
+            fail("IOException expected but not thrown");
+        } catch (final IOException ignore) {
+        }
+
+        try {
+            new MappedRadioMap3D(buffer.duplicate());
+            fail("IOException expected but not thrown");
+        } catch (final IOException ignore) {
+        }
+
+        // last offset of readings exceeding total number of readings
+        final ByteBuffer invalidOffsets = ByteBuffer.allocate(buffer.capacity())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        invalidOffsets.put(buffer.duplicate());
+        invalidOffsets.rewind();
+        final int numFingerprints = invalidOffsets.getInt(12);
+        final int numReadings = invalidOffsets.getInt(16);
+        final int offsetsStart = 40 + invalidOffsets.getInt(36);
+        invalidOffsets.putInt(offsetsStart + 4 * numFingerprints, numReadings + 1);
+        try {
+            new MappedRadioMap2D(invalidOffsets);
+            fail("IOException expected but not thrown");
+        } catch (final IOException ignore) {
+        }
+
+        // decreasing offsets of readings
+        invalidOffsets.putInt(offsetsStart + 4 * numFingerprints, numReadings);
+        invalidOffsets.putInt(offsetsStart + 4, -1);
+        try {
+            new MappedRadioMap2D(invalidOffsets);
+            fail("IOException expected but not thrown");
+        } catch (final IOException ignore) {
+        }
+
+        // Force IllegalArgumentException
+        try {
+            new MappedRadioMap2D(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            MappedRadioMap.write(null, Channels.newChannel(stream));
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            MappedRadioMap.write(fingerprints, null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            MappedRadioMap.write(fingerprints, 0.0, 1.0, Channels.newChannel(stream));
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            MappedRadioMap.write(fingerprints, 1.0, 0.0, Channels.newChannel(stream));
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            // RSSI values cannot be stored with such a small resolution
+            MappedRadioMap.write(fingerprints, 1.0, 1e-6, Channels.newChannel(stream));
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+
+        final MappedRadioMap2D radioMap = new MappedRadioMap2D(buffer);
+        try {
+            radioMap.findKNearestTo(null, 1, new int[1], new double[1]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+        try {
+            radioMap.findKNearestTo(fingerprint, 0, new int[1], new double[1]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 2, new int[1], new double[1]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+
+        // Force IndexOutOfBoundsException
+        try {
+            radioMap.getFingerprint(-1);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+        try {
+            radioMap.getRssi(0, radioMap.getNumberOfReadings(0));
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+        try {
+            radioMap.getCoordinate(0, 2);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+    }
+
+    private static ByteBuffer write(
+            final List<? extends RssiFingerprintLocated<? extends RadioSource,
+                    ? extends RssiReading<? extends RadioSource>, ? extends com.irurueta.geometry.Point<?>>> fingerprints)
+            throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        MappedRadioMap.write(fingerprints, Channels.newChannel(stream));
+        return ByteBuffer.wrap(stream.toByteArray());
+    }
+
+    private static WifiAccessPoint[] createAccessPoints(final UniformRandomizer randomizer) {
+        final int numAccessPoints = randomizer.nextInt(MIN_AP, MAX_AP);
+        final WifiAccessPoint[] accessPoints = new WifiAccessPoint[numAccessPoints];
+        for (int i = 0; i < numAccessPoints; i++) {
+            accessPoints[i] = new WifiAccessPoint(String.valueOf(i), FREQUENCY);
+        }
+        return accessPoints;
+    }
+
+    private static List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> createFingerprints2D(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+        for (int i = 0; i < numFingerprints; i++) {
+            final Point2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            fingerprints.add(new RssiFingerprintLocated2D<>(
+                    createReadings(randomizer, accessPoints), position));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Creates readings of a random subset of access points in random order, using
+     * integer RSSI values so that they are exactly stored and ties in distances are
+     * frequent, and occasionally repeating readings of the same access point.
+     */
+    private static List<RssiReading<WifiAccessPoint>> createReadings(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        final int numReadings = randomizer.nextInt(1, 6);
+        for (int i = 0; i < numReadings; i++) {
+            final WifiAccessPoint accessPoint =
+                    accessPoints[randomizer.nextInt(0, accessPoints.length)];
+            final double rssi = randomizer.nextInt(MIN_RSSI, MAX_RSSI);
+            readings.add(new RssiReading<>(accessPoint, rssi));
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PartitionedRadioMapTest {
+
+    private static final int MIN_RSSI = -100;
+    private static final int MAX_RSSI = -50;
+
+    private static final int MIN_AP = 3;
+    private static final int MAX_AP = 10;
+
+    private static final int MIN_FINGERPRINTS = 50;
+    private static final int MAX_FINGERPRINTS = 200;
+
+    private static final double MIN_POS = 0.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double BUILDING_SEPARATION = 1000.0;
+
+    private static final double CELL_SIZE = 100.0;
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final int MAX_K = 20;
+
+    private static final int TIMES = 50;
+
+    private static final double ABSOLUTE_ERROR = 1e-12;
+
+    @Test
+    public void testConstructor() {
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        readings.add(new RssiReading<>(ap1, -60.0));
+        readings.add(new RssiReading<>(ap2, -70.0));
+
+        final List<RssiFingerprintLocated3D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        fingerprints.add(new RssiFingerprintLocated3D<>(readings,
+                new InhomogeneousPoint3D(1.0, 1.0, 1.0)));
+        fingerprints.add(new RssiFingerprintLocated3D<>(readings,
+                new InhomogeneousPoint3D(2.0, 2.0, 2.0)));
+        // another floor
+        fingerprints.add(new RssiFingerprintLocated3D<>(readings,
+                new InhomogeneousPoint3D(1.0, 1.0, 4.0)));
+
+        // test constructor with default values
+        PartitionedRadioMap<Point3D, WifiAccessPoint> radioMap =
+                new PartitionedRadioMap<>(fingerprints);
+
+        // check
+        assertEquals(radioMap.getCellSize(), PartitionedRadioMap.DEFAULT_CELL_SIZE, 0.0);
+        assertEquals(radioMap.getNumberOfStrongestSources(),
+                PartitionedRadioMap.DEFAULT_NUMBER_OF_STRONGEST_SOURCES);
+        assertEquals(radioMap.getNumberOfFingerprints(), 3);
+        assertEquals(radioMap.getNumberOfPartitions(), 1);
+        assertEquals(radioMap.getPartitions().get(0).getNumberOfFingerprints(), 3);
+
+        // test constructor with cell size and number of strongest sources
+        radioMap = new PartitionedRadioMap<>(fingerprints, 3.0, 1);
+
+        // check
+        assertEquals(radioMap.getCellSize(), 3.0, 0.0);
+        assertEquals(radioMap.getNumberOfStrongestSources(), 1);
+        assertEquals(radioMap.getNumberOfFingerprints(), 3);
+        assertEquals(radioMap.getNumberOfPartitions(), 2);
+        assertEquals(radioMap.getPartitions().get(0).getNumberOfFingerprints(), 2);
+        assertEquals(radioMap.getPartitions().get(1).getNumberOfFingerprints(), 1);
+
+        // partitioned radio map is not affected by changes in collection
+        fingerprints.clear();
+        assertEquals(radioMap.getNumberOfFingerprints(), 3);
+
+        // Force IllegalArgumentException
+        try {
+            new PartitionedRadioMap<Point3D, WifiAccessPoint>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new PartitionedRadioMap<>(fingerprints, 0.0, 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new PartitionedRadioMap<>(fingerprints, 1.0, 0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testPartition() {
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final RadioSourceKNearestFinder<Point2D, WifiAccessPoint> finder =
+                new RadioSourceKNearestFinder<>(fingerprints);
+
+        final PartitionedRadioMap<Point2D, WifiAccessPoint> radioMap =
+                finder.partition(CELL_SIZE, 2);
+
+        // check
+        assertEquals(radioMap.getCellSize(), CELL_SIZE, 0.0);
+        assertEquals(radioMap.getNumberOfStrongestSources(), 2);
+        assertEquals(radioMap.getNumberOfFingerprints(), 0);
+        assertEquals(radioMap.getNumberOfPartitions(), 0);
+    }
+
+    @Test
+    public void testFindKNearestToSinglePartition() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            final WifiAccessPoint[] accessPoints = createAccessPoints(randomizer, "");
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    createFingerprints2D(randomizer, accessPoints, 0.0);
+            final RadioSourceKNearestFinder<Point2D, WifiAccessPoint> finder =
+                    new RadioSourceKNearestFinder<>(fingerprints);
+            final PartitionedRadioMap<Point2D, WifiAccessPoint> radioMap =
+                    finder.partition(CELL_SIZE, 1);
+            assertEquals(radioMap.getNumberOfPartitions(), 1);
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createReadings(randomizer, accessPoints));
+
+            // when there is a single partition, results are the same as an
+            // exhaustive search
+            for (int k = 1; k <= MAX_K; k++) {
+                final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> expected =
+                        new ArrayList<>();
+                final List<Double> expectedSqrDistances = new ArrayList<>();
+                finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+                final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                        new ArrayList<>();
+                final List<Double> nearestSqrDistances = new ArrayList<>();
+                final double pruningRatio = radioMap.findKNearestTo(fingerprint, k,
+                        nearest, nearestSqrDistances);
+
+                assertEquals(pruningRatio, 0.0, 0.0);
+                assertSameElements(nearest, expected);
+                assertEquals(nearestSqrDistances, expectedSqrDistances);
+
+                assertSameElements(radioMap.findKNearestTo(fingerprint, k), expected);
+            }
+        }
+    }
+
+    @Test
+    public void testFindKNearestToPrunesOtherBuildings() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+            // two buildings far apart with different access points
+            final WifiAccessPoint[] accessPointsA = createAccessPoints(randomizer, "A");
+            final WifiAccessPoint[] accessPointsB = createAccessPoints(randomizer, "B");
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprintsA =
+                    createFingerprints2D(randomizer, accessPointsA, 0.0);
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprintsB =
+                    createFingerprints2D(randomizer, accessPointsB, BUILDING_SEPARATION);
+
+            final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                    new ArrayList<>(fingerprintsA);
+            fingerprints.addAll(fingerprintsB);
+            final RadioSourceKNearestFinder<Point2D, WifiAccessPoint> finder =
+                    new RadioSourceKNearestFinder<>(fingerprints);
+
+            // index all access points of each building so that the partition of the
+            // building of the query is always selected
+            final PartitionedRadioMap<Point2D, WifiAccessPoint> radioMap =
+                    finder.partition(CELL_SIZE, Math.max(accessPointsA.length,
+                            accessPointsB.length));
+            assertEquals(radioMap.getNumberOfPartitions(), 2);
+
+            // query on building A
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(createAllReadings(randomizer, accessPointsA));
+
+            final int k = randomizer.nextInt(1, Math.min(MAX_K, fingerprintsA.size()));
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> expected =
+                    new ArrayList<>();
+            final List<Double> expectedSqrDistances = new ArrayList<>();
+            finder.findKNearestTo(fingerprint, k, expected, expectedSqrDistances);
+
+            final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                    new ArrayList<>();
+            final List<Double> nearestSqrDistances = new ArrayList<>();
+            final double pruningRatio = radioMap.findKNearestTo(fingerprint, k,
+                    nearest, nearestSqrDistances);
+
+            // check that fingerprints of building B have been pruned
+            assertEquals(pruningRatio,
+                    (double) fingerprintsB.size() / (double) fingerprints.size(),
+                    ABSOLUTE_ERROR);
+            assertSameElements(nearest, expected);
+            assertEquals(nearestSqrDistances, expectedSqrDistances);
+            for (final RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D> f : nearest) {
+                assertTrue(fingerprintsA.contains(f));
+            }
+        }
+    }
+
+    @Test
+    public void testFindKNearestToWithoutMatchingPartitions() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final WifiAccessPoint[] accessPointsA = createAccessPoints(randomizer, "A");
+        final WifiAccessPoint[] accessPointsB = createAccessPoints(randomizer, "B");
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                createFingerprints2D(randomizer, accessPointsA, 0.0);
+        fingerprints.addAll(createFingerprints2D(randomizer, accessPointsA,
+                BUILDING_SEPARATION));
+        final PartitionedRadioMap<Point2D, WifiAccessPoint> radioMap =
+                new PartitionedRadioMap<>(fingerprints, CELL_SIZE, 1);
+
+        // query only containing unknown access points searches all partitions
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                new RssiFingerprint<>(createAllReadings(randomizer, accessPointsB));
+
+        final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                new ArrayList<>();
+        final List<Double> nearestSqrDistances = new ArrayList<>();
+        final double pruningRatio = radioMap.findKNearestTo(fingerprint, 3, nearest,
+                nearestSqrDistances);
+
+        // check
+        assertEquals(pruningRatio, 0.0, 0.0);
+        assertEquals(nearest.size(), 3);
+        for (final Double sqrDistance : nearestSqrDistances) {
+            assertEquals(sqrDistance, Double.MAX_VALUE, 0.0);
+        }
+    }
+
+    @Test
+    public void testFindKNearestToInvalid() {
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final PartitionedRadioMap<Point2D, WifiAccessPoint> radioMap =
+                new PartitionedRadioMap<>(fingerprints);
+        final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                new RssiFingerprint<>();
+
+        // empty radio map
+        assertTrue(radioMap.findKNearestTo(fingerprint, 1).isEmpty());
+
+        // Force IllegalArgumentException
+        final List<RssiFingerprintLocated<WifiAccessPoint, RssiReading<WifiAccessPoint>, Point2D>> nearest =
+                new ArrayList<>();
+        final List<Double> nearestSqrDistances = new ArrayList<>();
+        try {
+            radioMap.findKNearestTo(null, 1, nearest, nearestSqrDistances);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 0, nearest, nearestSqrDistances);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 1, null, nearestSqrDistances);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            radioMap.findKNearestTo(fingerprint, 1, nearest, null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    private static WifiAccessPoint[] createAccessPoints(final UniformRandomizer randomizer,
+                                                        final String prefix) {
+        final int numAccessPoints = randomizer.nextInt(MIN_AP, MAX_AP);
+        final WifiAccessPoint[] accessPoints = new WifiAccessPoint[numAccessPoints];
+        for (int i = 0; i < numAccessPoints; i++) {
+            accessPoints[i] = new WifiAccessPoint(prefix + i, FREQUENCY);
+        }
+        return accessPoints;
+    }
+
+    private static List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> createFingerprints2D(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints,
+            final double offset) {
+        final List<RssiFingerprintLocated2D<WifiAccessPoint, RssiReading<WifiAccessPoint>>> fingerprints =
+                new ArrayList<>();
+        final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+        for (int i = 0; i < numFingerprints; i++) {
+            final Point2D position = new InhomogeneousPoint2D(
+                    offset + randomizer.nextDouble(MIN_POS, MAX_POS),
+                    offset + randomizer.nextDouble(MIN_POS, MAX_POS));
+            fingerprints.add(new RssiFingerprintLocated2D<>(
+                    createAllReadings(randomizer, accessPoints), position));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Creates readings of a random subset of access points in random order.
+     */
+    private static List<RssiReading<WifiAccessPoint>> createReadings(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        final int numReadings = randomizer.nextInt(1, 6);
+        for (int i = 0; i < numReadings; i++) {
+            final WifiAccessPoint accessPoint =
+                    accessPoints[randomizer.nextInt(0, accessPoints.length)];
+            final double rssi = randomizer.nextInt(MIN_RSSI, MAX_RSSI);
+            readings.add(new RssiReading<>(accessPoint, rssi));
+        }
+        return readings;
+    }
+
+    /**
+     * Creates readings of all access points.
+     */
+    private static List<RssiReading<WifiAccessPoint>> createAllReadings(
+            final UniformRandomizer randomizer, final WifiAccessPoint[] accessPoints) {
+        final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+        for (final WifiAccessPoint accessPoint : accessPoints) {
+            final double rssi = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+            readings.add(new RssiReading<>(accessPoint, rssi));
+        }
+        return readings;
+    }
+
+    private static <T> void assertSameElements(final List<? extends T> list1,
+                                               final List<? extends T> list2) {
+        assertEquals(list1.size(), list2.size());
+        for (int i = 0; i < list1.size(); i++) {
+            assertSame(list1.get(i), list2.get(i));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RadioSourceIndexTest {
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    @Test
+    public void testConstructor() {
+        // test empty constructor
+        RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+
+        // check default values
+        assertEquals(index.size(), 0);
+        assertTrue(index.getSources().isEmpty());
+
+        // test constructor with sources
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+        final WifiAccessPoint ap3 = new WifiAccessPoint("3", FREQUENCY);
+        index = new RadioSourceIndex<>(Arrays.asList(ap1, ap2, ap3));
+
+        // check
+        assertEquals(index.size(), 3);
+        assertEquals(index.indexOf(ap1), 0);
+        assertEquals(index.indexOf(ap2), 1);
+        assertEquals(index.indexOf(ap3), 2);
+        assertSame(index.getSource(0), ap1);
+        assertSame(index.getSource(1), ap2);
+        assertSame(index.getSource(2), ap3);
+        assertEquals(index.getSources(), Arrays.asList(ap1, ap2, ap3));
+
+        // Force IllegalArgumentException
+        try {
+            new RadioSourceIndex<WifiAccessPoint>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testAddAndIndexOf() {
+        final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+
+        assertEquals(index.indexOf(ap1), -1);
+        assertFalse(index.contains(ap1));
+        assertEquals(index.indexOf(null), -1);
+
+        assertEquals(index.add(ap1), 0);
+        assertEquals(index.add(ap2), 1);
+
+        // radio sources having the same identifiers share index
+        assertEquals(index.add(new WifiAccessPoint("1", FREQUENCY)), 0);
+        assertEquals(index.indexOf(new WifiAccessPoint("2", FREQUENCY)), 1);
+        assertTrue(index.contains(ap1));
+        assertEquals(index.size(), 2);
+
+        // Force IllegalArgumentException
+        try {
+            index.add(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testRepeatedSources() {
+        final WifiAccessPoint ap1 = new WifiAccessPoint("1", FREQUENCY);
+        final WifiAccessPoint ap2 = new WifiAccessPoint("2", FREQUENCY);
+
+        final List<WifiAccessPoint> sources = new ArrayList<>();
+        sources.add(ap1);
+        sources.add(ap1);
+        sources.add(ap2);
+
+        final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>(sources);
+
+        assertEquals(index.size(), 2);
+        assertEquals(index.indexOf(ap1), 0);
+        assertEquals(index.indexOf(ap2), 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetSourcesIsUnmodifiable() {
+        final RadioSourceIndex<WifiAccessPoint> index = new RadioSourceIndex<>();
+        index.getSources().add(new WifiAccessPoint("1", FREQUENCY));
+    }
+}
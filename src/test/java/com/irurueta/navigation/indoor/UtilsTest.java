@@ -19,6 +19,7 @@ import com.irurueta.algebra.AlgebraException;
 import com.irurueta.algebra.Matrix;
 import com.irurueta.geometry.InhomogeneousPoint2D;
 import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point;
 import com.irurueta.geometry.Point2D;
 import com.irurueta.geometry.Point3D;
 import com.irurueta.navigation.indoor.radiosource.RssiRadioSourceEstimator;
@@ -1198,6 +1199,264 @@ public class UtilsTest {
         }
     }
 
+    @Test
+    public void testPropagateVariancesToRssiVarianceFirstOrderNonLinear2DWithoutAllocation()
+            throws IndoorException, AlgebraException, EvaluationException {
+        checkPropagateVariancesToRssiVarianceWithoutAllocation(
+                Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH, new RssiVariancePropagator() {
+                    @Override
+                    public MultivariateNormalDist propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance) throws IndoorException {
+                        return Utils.propagateVariancesToRssiVarianceFirstOrderNonLinear2D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point2D) fingerprintPosition, (Point2D) radioSourcePosition,
+                                (Point2D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance);
+                    }
+
+                    @Override
+                    public boolean propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance,
+                            final double[] gradient, final double[] result) {
+                        return Utils.propagateVariancesToRssiVarianceFirstOrderNonLinear2D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point2D) fingerprintPosition, (Point2D) radioSourcePosition,
+                                (Point2D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance,
+                                gradient, result);
+                    }
+                });
+    }
+
+    @Test
+    public void testPropagateVariancesToRssiVarianceFirstOrderNonLinear3DWithoutAllocation()
+            throws IndoorException, AlgebraException, EvaluationException {
+        checkPropagateVariancesToRssiVarianceWithoutAllocation(
+                Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH, new RssiVariancePropagator() {
+                    @Override
+                    public MultivariateNormalDist propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance) throws IndoorException {
+                        return Utils.propagateVariancesToRssiVarianceFirstOrderNonLinear3D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point3D) fingerprintPosition, (Point3D) radioSourcePosition,
+                                (Point3D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance);
+                    }
+
+                    @Override
+                    public boolean propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance,
+                            final double[] gradient, final double[] result) {
+                        return Utils.propagateVariancesToRssiVarianceFirstOrderNonLinear3D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point3D) fingerprintPosition, (Point3D) radioSourcePosition,
+                                (Point3D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance,
+                                gradient, result);
+                    }
+                });
+    }
+
+    @Test
+    public void testPropagateVariancesToRssiVarianceSecondOrderNonLinear2DWithoutAllocation()
+            throws IndoorException, AlgebraException, EvaluationException {
+        checkPropagateVariancesToRssiVarianceWithoutAllocation(
+                Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH, new RssiVariancePropagator() {
+                    @Override
+                    public MultivariateNormalDist propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance) throws IndoorException {
+                        return Utils.propagateVariancesToRssiVarianceSecondOrderNonLinear2D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point2D) fingerprintPosition, (Point2D) radioSourcePosition,
+                                (Point2D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance);
+                    }
+
+                    @Override
+                    public boolean propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance,
+                            final double[] gradient, final double[] result) {
+                        return Utils.propagateVariancesToRssiVarianceSecondOrderNonLinear2D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point2D) fingerprintPosition, (Point2D) radioSourcePosition,
+                                (Point2D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance,
+                                gradient, result);
+                    }
+                });
+    }
+
+    @Test
+    public void testPropagateVariancesToRssiVarianceSecondOrderNonLinear3DWithoutAllocation()
+            throws IndoorException, AlgebraException, EvaluationException {
+        checkPropagateVariancesToRssiVarianceWithoutAllocation(
+                Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH, new RssiVariancePropagator() {
+                    @Override
+                    public MultivariateNormalDist propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance) throws IndoorException {
+                        return Utils.propagateVariancesToRssiVarianceSecondOrderNonLinear3D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point3D) fingerprintPosition, (Point3D) radioSourcePosition,
+                                (Point3D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance);
+                    }
+
+                    @Override
+                    public boolean propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance,
+                            final double[] gradient, final double[] result) {
+                        return Utils.propagateVariancesToRssiVarianceSecondOrderNonLinear3D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point3D) fingerprintPosition, (Point3D) radioSourcePosition,
+                                (Point3D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance,
+                                gradient, result);
+                    }
+                });
+    }
+
+    @Test
+    public void testPropagateVariancesToRssiVarianceThirdOrderNonLinear2DWithoutAllocation()
+            throws IndoorException, AlgebraException, EvaluationException {
+        checkPropagateVariancesToRssiVarianceWithoutAllocation(
+                Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH, new RssiVariancePropagator() {
+                    @Override
+                    public MultivariateNormalDist propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance) throws IndoorException {
+                        return Utils.propagateVariancesToRssiVarianceThirdOrderNonLinear2D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point2D) fingerprintPosition, (Point2D) radioSourcePosition,
+                                (Point2D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance);
+                    }
+
+                    @Override
+                    public boolean propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance,
+                            final double[] gradient, final double[] result) {
+                        return Utils.propagateVariancesToRssiVarianceThirdOrderNonLinear2D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point2D) fingerprintPosition, (Point2D) radioSourcePosition,
+                                (Point2D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance,
+                                gradient, result);
+                    }
+                });
+    }
+
+    @Test
+    public void testPropagateVariancesToRssiVarianceThirdOrderNonLinear3DWithoutAllocation()
+            throws IndoorException, AlgebraException, EvaluationException {
+        checkPropagateVariancesToRssiVarianceWithoutAllocation(
+                Point3D.POINT3D_INHOMOGENEOUS_COORDINATES_LENGTH, new RssiVariancePropagator() {
+                    @Override
+                    public MultivariateNormalDist propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance) throws IndoorException {
+                        return Utils.propagateVariancesToRssiVarianceThirdOrderNonLinear3D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point3D) fingerprintPosition, (Point3D) radioSourcePosition,
+                                (Point3D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance);
+                    }
+
+                    @Override
+                    public boolean propagate(
+                            final double fingerprintRssi, final double pathLossExponent,
+                            final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                            final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                            final Double pathLossExponentVariance,
+                            final Matrix fingerprintPositionCovariance,
+                            final Matrix radioSourcePositionCovariance,
+                            final Matrix estimatedPositionCovariance,
+                            final double[] gradient, final double[] result) {
+                        return Utils.propagateVariancesToRssiVarianceThirdOrderNonLinear3D(
+                                fingerprintRssi, pathLossExponent,
+                                (Point3D) fingerprintPosition, (Point3D) radioSourcePosition,
+                                (Point3D) estimatedPosition, fingerprintRssiVariance,
+                                pathLossExponentVariance, fingerprintPositionCovariance,
+                                radioSourcePositionCovariance, estimatedPositionCovariance,
+                                gradient, result);
+                    }
+                });
+    }
+
     private double receivedPower(
             final double equivalentTransmittedPower, final double distance, final double pathLossExponent) {
         //Pr = Pt*Gt*Gr*lambda^2/(4*pi*d)^2,    where Pr is the received power
@@ -1208,4 +1467,148 @@ public class UtilsTest {
         return equivalentTransmittedPower * k /
                 Math.pow(distance, pathLossExponent);
     }
+
+    private static void checkPropagateVariancesToRssiVarianceWithoutAllocation(
+            final int dims, final RssiVariancePropagator propagator)
+            throws IndoorException, AlgebraException, EvaluationException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final int numParams = 2 + 3 * dims;
+        for (int t = 0; t < TIMES; t++) {
+            final double fingerprintRssi = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+            final double pathLossExponent = randomizer.nextDouble(
+                    MIN_PATH_LOSS_EXPONENT, MAX_PATH_LOSS_EXPONENT);
+
+            // estimated position is close to fingerprint, which is far enough from
+            // radio source
+            final double[] params = new double[numParams];
+            params[0] = fingerprintRssi;
+            params[1] = pathLossExponent;
+            for (int i = 0; i < dims; i++) {
+                params[2 + i] = randomizer.nextDouble(MIN_POS, MAX_POS);
+                params[2 + dims + i] = params[2 + i] + (randomizer.nextBoolean() ? 1.0 : -1.0) *
+                        randomizer.nextDouble(MIN_DISTANCE, MAX_DISTANCE);
+                params[2 + 2 * dims + i] = params[2 + i] +
+                        randomizer.nextDouble(-MIN_DISTANCE, MIN_DISTANCE);
+            }
+
+            final Point<?> fingerprintPosition = createPoint(params, 2, dims);
+            final Point<?> radioSourcePosition = createPoint(params, 2 + dims, dims);
+            final Point<?> estimatedPosition = createPoint(params, 2 + 2 * dims, dims);
+
+            final Matrix fingerprintPositionCovariance = Matrix.identity(dims, dims)
+                    .multiplyByScalarAndReturnNew(randomizer.nextDouble(0.0, 1.0));
+            final Matrix radioSourcePositionCovariance = Matrix.identity(dims, dims)
+                    .multiplyByScalarAndReturnNew(randomizer.nextDouble(0.0, 1.0));
+            final Matrix estimatedPositionCovariance = Matrix.identity(dims, dims)
+                    .multiplyByScalarAndReturnNew(randomizer.nextDouble(0.0, 1.0));
+
+            final MultivariateNormalDist dist = propagator.propagate(fingerprintRssi,
+                    pathLossExponent, fingerprintPosition, radioSourcePosition,
+                    estimatedPosition, RX_POWER_VARIANCE, PATHLOSS_EXPONENT_VARIANCE,
+                    fingerprintPositionCovariance, radioSourcePositionCovariance,
+                    estimatedPositionCovariance);
+
+            final double[] gradient = new double[numParams];
+            final double[] result = new double[2];
+            assertTrue(propagator.propagate(fingerprintRssi, pathLossExponent,
+                    fingerprintPosition, radioSourcePosition, estimatedPosition,
+                    RX_POWER_VARIANCE, PATHLOSS_EXPONENT_VARIANCE,
+                    fingerprintPositionCovariance, radioSourcePositionCovariance,
+                    estimatedPositionCovariance, gradient, result));
+
+            // check that result matches the one obtained with a normal distribution
+            assertEquals(result[0], dist.getMean()[0], ABSOLUTE_ERROR);
+            final double variance = dist.getCovariance().getElementAt(0, 0);
+            assertEquals(result[1], variance, ABSOLUTE_ERROR * Math.max(1.0, variance));
+
+            // check gradient against a numerical one
+            final GradientEstimator gradientEstimator = new GradientEstimator(
+                    new MultiDimensionFunctionEvaluatorListener() {
+                        @Override
+                        public double evaluate(final double[] point) {
+                            final double[] result = new double[2];
+                            propagator.propagate(point[0], point[1],
+                                    createPoint(point, 2, dims),
+                                    createPoint(point, 2 + dims, dims),
+                                    createPoint(point, 2 + 2 * dims, dims),
+                                    null, null, null, null,
+                                    null, new double[numParams], result);
+                            return result[0];
+                        }
+                    });
+            final double[] numericalGradient = gradientEstimator.gradient(params);
+            for (int i = 0; i < numParams; i++) {
+                assertEquals(gradient[i], numericalGradient[i],
+                        LARGE_ABSOLUTE_ERROR * Math.max(1.0, Math.abs(gradient[i])));
+            }
+
+            // without variances, variance is zero
+            assertTrue(propagator.propagate(fingerprintRssi, pathLossExponent,
+                    fingerprintPosition, radioSourcePosition, estimatedPosition,
+                    null, null, null, null, null, gradient, result));
+            assertEquals(result[0], dist.getMean()[0], ABSOLUTE_ERROR);
+            assertEquals(result[1], 0.0, 0.0);
+
+            // without positions, result is not computed
+            assertFalse(propagator.propagate(fingerprintRssi, pathLossExponent,
+                    null, radioSourcePosition, estimatedPosition,
+                    null, null, null, null, null, gradient, result));
+            assertFalse(propagator.propagate(fingerprintRssi, pathLossExponent,
+                    fingerprintPosition, null, estimatedPosition,
+                    null, null, null, null, null, gradient, result));
+            assertFalse(propagator.propagate(fingerprintRssi, pathLossExponent,
+                    fingerprintPosition, radioSourcePosition, null,
+                    null, null, null, null, null, gradient, result));
+
+            // Force IllegalArgumentException
+            try {
+                propagator.propagate(fingerprintRssi, pathLossExponent,
+                        fingerprintPosition, radioSourcePosition, estimatedPosition,
+                        null, null, null, null, null,
+                        new double[numParams + 1], result);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+            try {
+                propagator.propagate(fingerprintRssi, pathLossExponent,
+                        fingerprintPosition, radioSourcePosition, estimatedPosition,
+                        null, null, null, null, null,
+                        gradient, new double[1]);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+        }
+    }
+
+    private static Point<?> createPoint(final double[] params, final int offset,
+                                        final int dims) {
+        if (dims == Point2D.POINT2D_INHOMOGENEOUS_COORDINATES_LENGTH) {
+            return new InhomogeneousPoint2D(params[offset], params[offset + 1]);
+        } else {
+            return new InhomogeneousPoint3D(params[offset], params[offset + 1],
+                    params[offset + 2]);
+        }
+    }
+
+    private interface RssiVariancePropagator {
+        MultivariateNormalDist propagate(
+                final double fingerprintRssi, final double pathLossExponent,
+                final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                final Double pathLossExponentVariance,
+                final Matrix fingerprintPositionCovariance,
+                final Matrix radioSourcePositionCovariance,
+                final Matrix estimatedPositionCovariance) throws IndoorException;
+
+        boolean propagate(
+                final double fingerprintRssi, final double pathLossExponent,
+                final Point<?> fingerprintPosition, final Point<?> radioSourcePosition,
+                final Point<?> estimatedPosition, final Double fingerprintRssiVariance,
+                final Double pathLossExponentVariance,
+                final Matrix fingerprintPositionCovariance,
+                final Matrix radioSourcePositionCovariance,
+                final Matrix estimatedPositionCovariance,
+                final double[] gradient, final double[] result);
+    }
 }
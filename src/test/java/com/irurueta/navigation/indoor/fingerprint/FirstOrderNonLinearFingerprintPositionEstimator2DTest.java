@@ -802,6 +802,21 @@ public class FirstOrderNonLinearFingerprintPositionEstimator2DTest
         assertFalse(estimator.isRadioSourcePositionCovariancePropagated());
     }
 
+    @Test
+    public void testIsSetFastSolverUsed() throws LockedException {
+        final FirstOrderNonLinearFingerprintPositionEstimator2D estimator =
+                new FirstOrderNonLinearFingerprintPositionEstimator2D();
+
+        //check default value
+        assertFalse(estimator.isFastSolverUsed());
+
+        //set new value
+        estimator.setFastSolverUsed(true);
+
+        //check
+        assertTrue(estimator.isFastSolverUsed());
+    }
+
     @Test
     public void testEstimateWithoutErrorWithoutBiasAndWithoutInitialPosition()
             throws LockedException, NotReadyException, FingerprintEstimationException,
@@ -802,6 +802,21 @@ public class FirstOrderNonLinearFingerprintPositionEstimator3DTest
         assertFalse(estimator.isRadioSourcePositionCovariancePropagated());
     }
 
+    @Test
+    public void testIsSetFastSolverUsed() throws LockedException {
+        final FirstOrderNonLinearFingerprintPositionEstimator3D estimator =
+                new FirstOrderNonLinearFingerprintPositionEstimator3D();
+
+        //check default value
+        assertFalse(estimator.isFastSolverUsed());
+
+        //set new value
+        estimator.setFastSolverUsed(true);
+
+        //check
+        assertTrue(estimator.isFastSolverUsed());
+    }
+
     @Test
     public void testEstimateWithoutErrorWithoutBiasAndWithoutInitialPosition()
             throws LockedException, NotReadyException, FingerprintEstimationException,
@@ -802,6 +802,21 @@ public class SecondOrderNonLinearFingerprintPositionEstimator2DTest
         assertFalse(estimator.isRadioSourcePositionCovariancePropagated());
     }
 
+    @Test
+    public void testIsSetFastSolverUsed() throws LockedException {
+        final SecondOrderNonLinearFingerprintPositionEstimator2D estimator =
+                new SecondOrderNonLinearFingerprintPositionEstimator2D();
+
+        // check default value
+        assertFalse(estimator.isFastSolverUsed());
+
+        // set new value
+        estimator.setFastSolverUsed(true);
+
+        // check
+        assertTrue(estimator.isFastSolverUsed());
+    }
+
     @Test
     public void testEstimateWithoutErrorWithoutBiasAndWithoutInitialPosition()
             throws LockedException, NotReadyException, FingerprintEstimationException,
@@ -805,6 +805,21 @@ public class ThirdOrderNonLinearFingerprintPositionEstimator2DTest
         assertFalse(estimator.isRadioSourcePositionCovariancePropagated());
     }
 
+    @Test
+    public void testIsSetFastSolverUsed() throws LockedException {
+        final ThirdOrderNonLinearFingerprintPositionEstimator2D estimator =
+                new ThirdOrderNonLinearFingerprintPositionEstimator2D();
+
+        // check default value
+        assertFalse(estimator.isFastSolverUsed());
+
+        // set new value
+        estimator.setFastSolverUsed(true);
+
+        // check
+        assertTrue(estimator.isFastSolverUsed());
+    }
+
     @Test
     public void testEstimateWithoutErrorWithoutBiasAndWithoutInitialPosition()
             throws LockedException, NotReadyException, FingerprintEstimationException,
@@ -6931,6 +6946,121 @@ public class ThirdOrderNonLinearFingerprintPositionEstimator2DTest
         assertTrue(bestPos == 0 || bestPos == 3 || bestPos == 4);
     }
 
+    @Test
+    public void testEstimateFastSolverAndGenericFitter() throws LockedException,
+            NotReadyException {
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+            final GaussianRandomizer errorRandomizer = new GaussianRandomizer(new Random(),
+                    0.0, ERROR_STD);
+
+            // build sources
+            final int numSources = randomizer.nextInt(MIN_SOURCES, MAX_SOURCES);
+            final List<RadioSourceLocated<Point2D>> sources = new ArrayList<>();
+            for (int i = 0; i < numSources; i++) {
+                final double x = randomizer.nextDouble(MIN_POS, MAX_POS);
+                final double y = randomizer.nextDouble(MIN_POS, MAX_POS);
+                final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+                final InhomogeneousPoint2D position = new InhomogeneousPoint2D(x, y);
+
+                final WifiAccessPointWithPowerAndLocated2D accessPoint =
+                        new WifiAccessPointWithPowerAndLocated2D(
+                                "bssid" + i, FREQUENCY, transmittedPowerdBm, position);
+                sources.add(accessPoint);
+            }
+
+            // build located fingerprints
+            final int numFingerprints = randomizer.nextInt(MIN_FINGERPRINTS, MAX_FINGERPRINTS);
+            final List<RssiFingerprintLocated2D<RadioSource, RssiReading<RadioSource>>> locatedFingerprints =
+                    new ArrayList<>();
+            for (int j = 0; j < numFingerprints; j++) {
+                final double x = randomizer.nextDouble(MIN_POS, MAX_POS);
+                final double y = randomizer.nextDouble(MIN_POS, MAX_POS);
+                final InhomogeneousPoint2D position = new InhomogeneousPoint2D(x, y);
+
+                final List<RssiReading<RadioSource>> readings = new ArrayList<>();
+                for (final RadioSourceLocated<Point2D> source : sources) {
+                    final double distance = source.getPosition().distanceTo(position);
+                    final double transmittedPowerdBm = ((WifiAccessPointWithPowerAndLocated2D) source).
+                            getTransmittedPower();
+
+                    final double receivedRssi = Utils.powerTodBm(receivedPower(Utils.dBmToPower(transmittedPowerdBm),
+                            distance, LinearFingerprintPositionEstimator2D.DEFAULT_PATH_LOSS_EXPONENT));
+                    final double rssiError = errorRandomizer.nextDouble();
+                    final RssiReading<RadioSource> reading = new RssiReading<>((RadioSource) source,
+                            receivedRssi + rssiError);
+                    readings.add(reading);
+                }
+
+                final RssiFingerprintLocated2D<RadioSource, RssiReading<RadioSource>> locatedFingerprint =
+                        new RssiFingerprintLocated2D<>(readings, position);
+                locatedFingerprints.add(locatedFingerprint);
+            }
+
+            // build non-located fingerprint
+            final double x = randomizer.nextDouble(MIN_POS, MAX_POS);
+            final double y = randomizer.nextDouble(MIN_POS, MAX_POS);
+            final InhomogeneousPoint2D position = new InhomogeneousPoint2D(x, y);
+
+            final List<RssiReading<RadioSource>> readings = new ArrayList<>();
+            for (final RadioSourceLocated<Point2D> source : sources) {
+                final double distance = source.getPosition().distanceTo(position);
+                final double transmittedPowerdBm = ((WifiAccessPointWithPowerAndLocated2D) source).
+                        getTransmittedPower();
+
+                final double receivedRssi = Utils.powerTodBm(receivedPower(Utils.dBmToPower(transmittedPowerdBm),
+                        distance, LinearFingerprintPositionEstimator2D.DEFAULT_PATH_LOSS_EXPONENT));
+                final double rssiError = errorRandomizer.nextDouble();
+                final RssiReading<RadioSource> reading = new RssiReading<>((RadioSource) source,
+                        receivedRssi + rssiError);
+                readings.add(reading);
+            }
+
+            final RssiFingerprint<RadioSource, RssiReading<RadioSource>> fingerprint =
+                    new RssiFingerprint<>(readings);
+
+            final int k = randomizer.nextInt(2, 6);
+
+            // estimate with specialized solver
+            final ThirdOrderNonLinearFingerprintPositionEstimator2D fastEstimator =
+                    new ThirdOrderNonLinearFingerprintPositionEstimator2D(
+                            locatedFingerprints, fingerprint, sources);
+            fastEstimator.setMinMaxNearestFingerprints(k, k);
+            fastEstimator.setFastSolverUsed(true);
+
+            // estimate with generic fitter
+            final ThirdOrderNonLinearFingerprintPositionEstimator2D genericEstimator =
+                    new ThirdOrderNonLinearFingerprintPositionEstimator2D(
+                            locatedFingerprints, fingerprint, sources);
+            genericEstimator.setMinMaxNearestFingerprints(k, k);
+            assertFalse(genericEstimator.isFastSolverUsed());
+
+            try {
+                fastEstimator.estimate();
+                genericEstimator.estimate();
+            } catch (final FingerprintEstimationException e) {
+                continue;
+            }
+
+            // both solve the same problem, hence they must reach the same minimum
+            final Point2D fastPosition = fastEstimator.getEstimatedPosition();
+            final Point2D genericPosition = genericEstimator.getEstimatedPosition();
+            if (fastPosition.distanceTo(genericPosition) > ERROR) {
+                continue;
+            }
+
+            assertEquals(fastEstimator.getCovariance().getRows(), 2);
+            assertEquals(fastEstimator.getCovariance().getColumns(), 2);
+            assertTrue(fastEstimator.getChiSq() >= 0.0);
+
+            numValid++;
+            break;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
     @Override
     public void onEstimateStart(final FingerprintPositionEstimator<Point2D> estimator) {
         estimateStart++;
@@ -808,6 +808,21 @@ public class ThirdOrderNonLinearFingerprintPositionEstimator3DTest
         assertFalse(estimator.isRadioSourcePositionCovariancePropagated());
     }
 
+    @Test
+    public void testIsSetFastSolverUsed() throws LockedException {
+        final ThirdOrderNonLinearFingerprintPositionEstimator3D estimator =
+                new ThirdOrderNonLinearFingerprintPositionEstimator3D();
+
+        // check default value
+        assertFalse(estimator.isFastSolverUsed());
+
+        // set new value
+        estimator.setFastSolverUsed(true);
+
+        // check
+        assertTrue(estimator.isFastSolverUsed());
+    }
+
     @Test
     public void testEstimateWithoutErrorWithoutBiasAndWithoutInitialPosition()
             throws LockedException, NotReadyException, FingerprintEstimationException,
@@ -1358,6 +1358,112 @@ public class PositionEstimatorHelperTest {
         }
     }
 
+    @Test
+    public void testBuildIndexedPositionsAndDistances() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final int numSources = randomizer.nextInt(MIN_SOURCES, MAX_SOURCES);
+        final double pathLossExponent = randomizer.nextDouble(
+                MIN_PATH_LOSS_EXPONENT, MAX_PATH_LOSS_EXPONENT);
+
+        final List<WifiAccessPointWithPowerAndLocated2D> sources = new ArrayList<>();
+        for (int i = 0; i < numSources; i++) {
+            final InhomogeneousPoint2D accessPointPosition = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            sources.add(new WifiAccessPointWithPowerAndLocated2D(String.valueOf(i),
+                    FREQUENCY, randomizer.nextDouble(MIN_RSSI, MAX_RSSI),
+                    pathLossExponent, accessPointPosition));
+        }
+
+        // index is reused for many fingerprints
+        final RadioSourceLocatedIndex<Point2D> index = new RadioSourceLocatedIndex<>(sources);
+        for (int t = 0; t < TIMES; t++) {
+            final InhomogeneousPoint2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+
+            // readings in reverse order, including a reading of an unknown source
+            final List<RssiReading<WifiAccessPoint>> readings = new ArrayList<>();
+            for (int i = numSources - 1; i >= 0; i--) {
+                final WifiAccessPointWithPowerAndLocated2D source = sources.get(i);
+                final double distance = position.distanceTo(source.getPosition());
+                final double rssi = Utils.powerTodBm(receivedPower(
+                        Utils.dBmToPower(source.getTransmittedPower()), distance,
+                        pathLossExponent));
+                readings.add(new RssiReading<>(new WifiAccessPoint(source.getBssid(),
+                        FREQUENCY), rssi));
+            }
+            readings.add(new RssiReading<>(new WifiAccessPoint("unknown", FREQUENCY),
+                    randomizer.nextDouble(MIN_RSSI, MAX_RSSI)));
+
+            final RssiFingerprint<WifiAccessPoint, RssiReading<WifiAccessPoint>> fingerprint =
+                    new RssiFingerprint<>(readings);
+
+            final List<Point2D> expectedPositions = new ArrayList<>();
+            final List<Double> expectedDistances = new ArrayList<>();
+            PositionEstimatorHelper.buildPositionsAndDistances(sources, fingerprint,
+                    expectedPositions, expectedDistances);
+
+            final List<Point2D> positions = new ArrayList<>();
+            final List<Double> distances = new ArrayList<>();
+            PositionEstimatorHelper.buildIndexedPositionsAndDistances(index, fingerprint,
+                    positions, distances);
+
+            // check
+            assertEquals(positions.size(), numSources);
+            assertEquals(positions, expectedPositions);
+            assertEquals(distances, expectedDistances);
+            assertEquals(positions.get(0), sources.get(numSources - 1).getPosition());
+
+            final List<Point2D> expectedPositions2 = new ArrayList<>();
+            final List<Double> expectedDistances2 = new ArrayList<>();
+            final List<Double> expectedStandardDeviations = new ArrayList<>();
+            PositionEstimatorHelper.buildPositionsDistancesAndDistanceStandardDeviations(
+                    sources, fingerprint, false, FALLBACK_DISTANCE_STANDARD_DEVIATION,
+                    expectedPositions2, expectedDistances2, expectedStandardDeviations);
+
+            final List<Point2D> positions2 = new ArrayList<>();
+            final List<Double> distances2 = new ArrayList<>();
+            final List<Double> standardDeviations = new ArrayList<>();
+            PositionEstimatorHelper.buildIndexedPositionsDistancesAndDistanceStandardDeviations(
+                    index, fingerprint, false, FALLBACK_DISTANCE_STANDARD_DEVIATION,
+                    positions2, distances2, standardDeviations);
+
+            // check
+            assertEquals(positions2, expectedPositions2);
+            assertEquals(distances2, expectedDistances2);
+            assertEquals(standardDeviations, expectedStandardDeviations);
+
+            final double[] sourceQualityScores = new double[numSources];
+            final double[] readingQualityScores = new double[readings.size()];
+            for (int i = 0; i < numSources; i++) {
+                sourceQualityScores[i] = randomizer.nextDouble();
+            }
+            for (int i = 0; i < readingQualityScores.length; i++) {
+                readingQualityScores[i] = randomizer.nextDouble();
+            }
+
+            final List<Double> expectedQualityScores = new ArrayList<>();
+            PositionEstimatorHelper.buildPositionsDistancesDistanceStandardDeviationsAndQualityScores(
+                    sources, fingerprint, sourceQualityScores, readingQualityScores,
+                    false, FALLBACK_DISTANCE_STANDARD_DEVIATION, expectedPositions2,
+                    expectedDistances2, expectedStandardDeviations, expectedQualityScores);
+
+            final List<Double> qualityScores = new ArrayList<>();
+            PositionEstimatorHelper.buildIndexedPositionsDistancesDistanceStandardDeviationsAndQualityScores(
+                    index, fingerprint, sourceQualityScores, readingQualityScores,
+                    false, FALLBACK_DISTANCE_STANDARD_DEVIATION, positions2,
+                    distances2, standardDeviations, qualityScores);
+
+            // check
+            assertEquals(positions2, expectedPositions2);
+            assertEquals(distances2, expectedDistances2);
+            assertEquals(standardDeviations, expectedStandardDeviations);
+            assertEquals(qualityScores, expectedQualityScores);
+        }
+    }
+
     private double receivedPower(final double equivalentTransmittedPower,
                                  final double distance, final double pathLossExponent) {
         // Pr = Pt*Gt*Gr*lambda^2/(4*pi*d)^2,    where Pr is the received power
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.position;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.navigation.indoor.Beacon;
+import com.irurueta.navigation.indoor.BeaconIdentifier;
+import com.irurueta.navigation.indoor.WifiAccessPoint;
+import com.irurueta.navigation.indoor.WifiAccessPointLocated2D;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RadioSourceLocatedIndexTest {
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    @Test
+    public void testConstructor() {
+        final List<WifiAccessPointLocated2D> sources = createSources(3);
+        final RadioSourceLocatedIndex<Point2D> index = new RadioSourceLocatedIndex<>(sources);
+
+        // check
+        assertSame(index.getSources(), sources);
+        assertEquals(index.size(), 3);
+        for (int i = 0; i < 3; i++) {
+            assertSame(index.getSource(i), sources.get(i));
+        }
+
+        // Force IllegalArgumentException
+        try {
+            new RadioSourceLocatedIndex<Point2D>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        final List<WifiAccessPointLocated2D> sources = createSources(100);
+        final RadioSourceLocatedIndex<Point2D> index = new RadioSourceLocatedIndex<>(sources);
+
+        // radio sources of readings are found by their identifiers
+        for (int i = 0; i < sources.size(); i++) {
+            final WifiAccessPoint accessPoint = new WifiAccessPoint(String.valueOf(i),
+                    FREQUENCY);
+            assertEquals(index.indexOf(accessPoint), sources.indexOf(accessPoint));
+            assertEquals(index.indexOf(accessPoint), i);
+            assertEquals(index.indexOf(sources.get(i)), i);
+        }
+
+        // unknown radio sources
+        final WifiAccessPoint unknown = new WifiAccessPoint("unknown", FREQUENCY);
+        assertEquals(index.indexOf(unknown), -1);
+        assertEquals(index.indexOf(new Beacon(Collections.singletonList(
+                BeaconIdentifier.fromInt(1)), -60.0)), -1);
+        assertEquals(index.indexOf(null), -1);
+    }
+
+    @Test
+    public void testIndexOfRepeatedSources() {
+        final List<WifiAccessPointLocated2D> sources = createSources(3);
+        sources.add(new WifiAccessPointLocated2D("1", FREQUENCY,
+                new InhomogeneousPoint2D(10.0, 10.0)));
+        final RadioSourceLocatedIndex<Point2D> index = new RadioSourceLocatedIndex<>(sources);
+
+        // first occurrence is found, as in List#indexOf
+        final WifiAccessPoint accessPoint = new WifiAccessPoint("1", FREQUENCY);
+        assertEquals(index.indexOf(accessPoint), 1);
+        assertEquals(index.indexOf(accessPoint), sources.indexOf(accessPoint));
+
+        // last occurrence is found, as in List#lastIndexOf
+        assertEquals(index.lastIndexOf(accessPoint), 3);
+        assertEquals(index.lastIndexOf(accessPoint),
+                sources.lastIndexOf(accessPoint));
+
+        // sources that are not repeated have a single occurrence
+        final WifiAccessPoint accessPoint2 = new WifiAccessPoint("2", FREQUENCY);
+        assertEquals(index.indexOf(accessPoint2), 2);
+        assertEquals(index.lastIndexOf(accessPoint2), 2);
+        assertEquals(index.lastIndexOf(null), -1);
+        assertEquals(index.size(), 4);
+    }
+
+    private static List<WifiAccessPointLocated2D> createSources(final int num) {
+        final List<WifiAccessPointLocated2D> sources = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            sources.add(new WifiAccessPointLocated2D(String.valueOf(i), FREQUENCY,
+                    new InhomogeneousPoint2D(i, i)));
+        }
+        return sources;
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.radiosource;
+
+import com.irurueta.geometry.InhomogeneousPoint2D;
+import com.irurueta.geometry.Point2D;
+import com.irurueta.navigation.indoor.RangingAndRssiReadingLocated;
+import com.irurueta.navigation.indoor.RangingAndRssiReadingLocated2D;
+import com.irurueta.navigation.indoor.Utils;
+import com.irurueta.navigation.indoor.WifiAccessPoint;
+import com.irurueta.navigation.indoor.WifiAccessPointWithPowerAndLocated2D;
+import com.irurueta.numerical.robust.RobustEstimatorMethod;
+import com.irurueta.statistics.GaussianRandomizer;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BatchRobustRadioSourceEstimatorTest {
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final int MIN_SOURCES = 10;
+    private static final int MAX_SOURCES = 20;
+
+    private static final int MIN_READINGS = 50;
+    private static final int MAX_READINGS = 200;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double MIN_RSSI = -100;
+    private static final double MAX_RSSI = -50;
+
+    private static final double PATH_LOSS_EXPONENT = 2.0;
+
+    private static final double INLIER_ERROR_STD = 0.1;
+
+    private static final double LARGE_POSITION_ERROR = 0.5;
+    private static final double LARGE_POWER_ERROR = 0.5;
+
+    private static final double SPEED_OF_LIGHT = 299792458.0;
+
+    private static final int PERCENTAGE_OUTLIERS = 20;
+
+    private static final double STD_OUTLIER_ERROR = 10.0;
+
+    private static final int MAX_FAILED_SOURCES = 1;
+
+    private static final RobustRadioSourceEstimatorFactory<Point2D,
+            RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> FACTORY =
+            new RobustRadioSourceEstimatorFactory<Point2D,
+                    RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>() {
+                @Override
+                public RobustRadioSourceEstimator<Point2D,
+                        RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>, ?> create() {
+                    return RobustRangingAndRssiRadioSourceEstimator2D.create(
+                            RobustEstimatorMethod.RANSAC);
+                }
+            };
+
+    @Test
+    public void testConstructor() {
+        BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+
+        // check default values
+        assertSame(estimator.getFactory(), FACTORY);
+        assertNull(estimator.getPool());
+        assertEquals(estimator.getMaxReadingsPerSource(),
+                BatchRobustRadioSourceEstimator.DEFAULT_MAX_READINGS_PER_SOURCE);
+        assertEquals(estimator.getMinSourcesPerTask(),
+                BatchRobustRadioSourceEstimator.DEFAULT_MIN_SOURCES_PER_TASK);
+
+        // test constructor with pool
+        final ForkJoinPool pool = new ForkJoinPool();
+        estimator = new BatchRobustRadioSourceEstimator<>(FACTORY, pool);
+
+        // check
+        assertSame(estimator.getPool(), pool);
+        assertNotNull(estimator.getRandom());
+
+        // test constructor with randomizer
+        final Random random = new Random();
+        estimator = new BatchRobustRadioSourceEstimator<>(FACTORY, pool, random);
+
+        // check
+        assertSame(estimator.getPool(), pool);
+        assertSame(estimator.getRandom(), random);
+
+        // test constructor with seed
+        estimator = new BatchRobustRadioSourceEstimator<>(FACTORY, pool, 1L);
+
+        // check
+        assertSame(estimator.getPool(), pool);
+        assertNotNull(estimator.getRandom());
+        pool.shutdown();
+
+        // Force IllegalArgumentException
+        try {
+            new BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                    RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            new BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                    RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>(
+                    FACTORY, null, (Random) null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMaxReadingsPerSource() {
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+
+        // set new value
+        estimator.setMaxReadingsPerSource(10);
+
+        // check
+        assertEquals(estimator.getMaxReadingsPerSource(), 10);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxReadingsPerSource(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMinSourcesPerTask() {
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+
+        // set new value
+        estimator.setMinSourcesPerTask(4);
+
+        // check
+        assertEquals(estimator.getMinSourcesPerTask(), 4);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMinSourcesPerTask(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testEstimate() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final List<WifiAccessPoint> accessPoints = new ArrayList<>();
+        final List<Point2D> positions = new ArrayList<>();
+        final List<Double> transmittedPowers = new ArrayList<>();
+        final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> readings =
+                createReadings(randomizer, accessPoints, positions, transmittedPowers);
+
+        // add an access point without enough readings
+        final WifiAccessPoint lonelyAccessPoint = new WifiAccessPoint("lonely", FREQUENCY);
+        readings.add(new RangingAndRssiReadingLocated2D<>(lonelyAccessPoint, 1.0, -50.0,
+                new InhomogeneousPoint2D()));
+
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+
+        final List<BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D>> results =
+                estimator.estimate(readings);
+
+        // check
+        checkResults(results, accessPoints, positions, transmittedPowers, readings);
+
+        final BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D> lonelyResult =
+                results.get(results.size() - 1);
+        assertSame(lonelyResult.getSource(), lonelyAccessPoint);
+        assertEquals(lonelyResult.getNumReadings(), 1);
+        assertEquals(lonelyResult.getNumUsedReadings(), 1);
+        assertFalse(lonelyResult.isSuccessful());
+        assertNotNull(lonelyResult.getFailure());
+        assertNull(lonelyResult.getEstimatedRadioSource());
+        assertEquals(lonelyResult.getNumInliers(), -1);
+        assertTrue(Double.isNaN(lonelyResult.getInlierRatio()));
+    }
+
+    @Test
+    public void testEstimateWithPool() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final List<WifiAccessPoint> accessPoints = new ArrayList<>();
+        final List<Point2D> positions = new ArrayList<>();
+        final List<Double> transmittedPowers = new ArrayList<>();
+        final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> readings =
+                createReadings(randomizer, accessPoints, positions, transmittedPowers);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                    RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                    new BatchRobustRadioSourceEstimator<>(FACTORY, pool);
+
+            final List<BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D>> results =
+                    estimator.estimate(readings);
+
+            // check
+            checkResults(results, accessPoints, positions, transmittedPowers, readings);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEstimateWithBoundedReadings() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final List<WifiAccessPoint> accessPoints = new ArrayList<>();
+        final List<Point2D> positions = new ArrayList<>();
+        final List<Double> transmittedPowers = new ArrayList<>();
+        final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> readings =
+                createReadings(randomizer, accessPoints, positions, transmittedPowers);
+
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+        estimator.setMaxReadingsPerSource(MIN_READINGS);
+
+        final List<BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D>> results =
+                estimator.estimate(readings);
+
+        // check
+        assertEquals(results.size(), accessPoints.size());
+        for (final BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D> result :
+                results) {
+            assertTrue(result.getNumReadings() >= MIN_READINGS);
+            assertEquals(result.getNumUsedReadings(), MIN_READINGS);
+        }
+        checkResults(results, accessPoints, positions, transmittedPowers, readings);
+    }
+
+    @Test
+    public void testEstimateWithFailingFactory() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final List<WifiAccessPoint> accessPoints = new ArrayList<>();
+        final List<Point2D> positions = new ArrayList<>();
+        final List<Double> transmittedPowers = new ArrayList<>();
+        final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> readings =
+                createReadings(randomizer, accessPoints, positions, transmittedPowers);
+
+        // factory fails with an unchecked exception for every radio source
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(
+                        new RobustRadioSourceEstimatorFactory<Point2D,
+                                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>() {
+                            @Override
+                            public RobustRadioSourceEstimator<Point2D,
+                                    RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>, ?> create() {
+                                throw new IllegalStateException();
+                            }
+                        });
+
+        final List<BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D>> results =
+                estimator.estimate(readings);
+
+        // check
+        assertEquals(results.size(), accessPoints.size());
+        for (final BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D> result :
+                results) {
+            assertFalse(result.isSuccessful());
+            assertTrue(result.getFailure().getCause() instanceof IllegalStateException);
+            assertNull(result.getEstimatedRadioSource());
+        }
+    }
+
+    @Test
+    public void testEstimateEmpty() {
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+
+        assertTrue(estimator.estimate(
+                Collections.<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>emptyList())
+                .isEmpty());
+    }
+
+    @Test
+    public void testEstimateInvalid() {
+        final BatchRobustRadioSourceEstimator<WifiAccessPoint, Point2D,
+                RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> estimator =
+                new BatchRobustRadioSourceEstimator<>(FACTORY);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.estimate(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            estimator.estimate(
+                    Collections.<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>singletonList(null));
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    private static void checkResults(
+            final List<BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D>> results,
+            final List<WifiAccessPoint> accessPoints, final List<Point2D> positions,
+            final List<Double> transmittedPowers,
+            final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> readings) {
+        final int numAccessPoints = accessPoints.size();
+        assertTrue(results.size() >= numAccessPoints);
+
+        int numFailed = 0;
+        int numReadings = 0;
+        for (int i = 0; i < numAccessPoints; i++) {
+            final BatchRobustRadioSourceEstimatorResult<WifiAccessPoint, Point2D> result =
+                    results.get(i);
+
+            // results are sorted in order of appearance
+            assertEquals(result.getSource(), accessPoints.get(i));
+            assertTrue(result.getNumUsedReadings() <= result.getNumReadings());
+            assertTrue(result.getEstimationTimeNanos() >= 0);
+            numReadings += result.getNumReadings();
+
+            if (!result.isSuccessful()) {
+                numFailed++;
+                continue;
+            }
+            assertNull(result.getFailure());
+            assertTrue(result.getNumInliers() > 0);
+            assertTrue(result.getNumInliers() <= result.getNumUsedReadings());
+            assertTrue(result.getInlierRatio() > 0.0 && result.getInlierRatio() <= 1.0);
+
+            final WifiAccessPointWithPowerAndLocated2D estimated =
+                    (WifiAccessPointWithPowerAndLocated2D) result.getEstimatedRadioSource();
+            assertEquals(estimated.getBssid(), accessPoints.get(i).getBssid());
+
+            if (estimated.getPosition().distanceTo(positions.get(i)) > LARGE_POSITION_ERROR ||
+                    Math.abs(estimated.getTransmittedPower() - transmittedPowers.get(i)) >
+                            LARGE_POWER_ERROR) {
+                numFailed++;
+            }
+        }
+
+        assertTrue(numFailed <= MAX_FAILED_SOURCES);
+
+        int numExpectedReadings = 0;
+        for (final RangingAndRssiReadingLocated<WifiAccessPoint, Point2D> reading : readings) {
+            if (accessPoints.contains(reading.getSource())) {
+                numExpectedReadings++;
+            }
+        }
+        assertEquals(numReadings, numExpectedReadings);
+    }
+
+    private static List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> createReadings(
+            final UniformRandomizer randomizer, final List<WifiAccessPoint> accessPoints,
+            final List<Point2D> positions, final List<Double> transmittedPowers) {
+        final GaussianRandomizer errorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, STD_OUTLIER_ERROR);
+        final GaussianRandomizer inlierErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, INLIER_ERROR_STD);
+
+        final int numAccessPoints = randomizer.nextInt(MIN_SOURCES, MAX_SOURCES);
+        final List<List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>>> lists =
+                new ArrayList<>();
+        int total = 0;
+        for (int i = 0; i < numAccessPoints; i++) {
+            final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid" + i, FREQUENCY);
+            final Point2D position = new InhomogeneousPoint2D(
+                    randomizer.nextDouble(MIN_POS, MAX_POS),
+                    randomizer.nextDouble(MIN_POS, MAX_POS));
+            final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+            accessPoints.add(accessPoint);
+            positions.add(position);
+            transmittedPowers.add(transmittedPowerdBm);
+
+            final int numReadings = randomizer.nextInt(MIN_READINGS, MAX_READINGS);
+            final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> list =
+                    new ArrayList<>();
+            for (int j = 0; j < numReadings; j++) {
+                final Point2D readingPosition = new InhomogeneousPoint2D(
+                        randomizer.nextDouble(MIN_POS, MAX_POS),
+                        randomizer.nextDouble(MIN_POS, MAX_POS));
+                final double distance = readingPosition.distanceTo(position);
+                final double rssi = Utils.powerTodBm(receivedPower(
+                        Utils.dBmToPower(transmittedPowerdBm), distance, FREQUENCY,
+                        PATH_LOSS_EXPONENT));
+
+                double error = inlierErrorRandomizer.nextDouble();
+                if (randomizer.nextInt(0, 100) < PERCENTAGE_OUTLIERS) {
+                    error += errorRandomizer.nextDouble();
+                }
+
+                // each reading refers to a different instance of the same access point
+                list.add(new RangingAndRssiReadingLocated2D<>(
+                        new WifiAccessPoint(accessPoint.getBssid(), FREQUENCY),
+                        Math.max(distance + error, 0.0), rssi + error, readingPosition));
+            }
+            lists.add(list);
+            total += numReadings;
+        }
+
+        // interleave readings of all access points while keeping order of first
+        // appearance
+        final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> readings =
+                new ArrayList<>(total);
+        for (int i = 0; i < numAccessPoints; i++) {
+            readings.add(lists.get(i).remove(0));
+        }
+        final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> remaining =
+                new ArrayList<>();
+        for (final List<RangingAndRssiReadingLocated<WifiAccessPoint, Point2D>> list : lists) {
+            remaining.addAll(list);
+        }
+        Collections.shuffle(remaining, new Random());
+        readings.addAll(remaining);
+
+        return readings;
+    }
+
+    private static double receivedPower(
+            final double equivalentTransmittedPower, final double distance, final double frequency,
+            final double pathLossExponent) {
+        // Pr = Pt*Gt*Gr*lambda^2/(4*pi*d)^2,    where Pr is the received power
+        // lambda = c/f, where lambda is wavelength,
+        // Pte = Pt*Gt*Gr, is the equivalent transmitted power, Gt is the transmitted Gain and Gr is the received Gain
+        // Pr = Pte*c^2/((4*pi*f)^2 * d^2)
+        final double k = Math.pow(SPEED_OF_LIGHT / (4.0 * Math.PI * frequency), pathLossExponent);
+        return equivalentTransmittedPower * k /
+                Math.pow(distance, pathLossExponent);
+    }
+}
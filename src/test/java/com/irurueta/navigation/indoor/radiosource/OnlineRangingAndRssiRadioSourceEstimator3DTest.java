@@ -0,0 +1,632 @@
+/*
+ * Copyright (C) 2018 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.indoor.radiosource;
+
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.indoor.RangingAndRssiReadingLocated3D;
+import com.irurueta.navigation.indoor.Utils;
+import com.irurueta.navigation.indoor.WifiAccessPoint;
+import com.irurueta.navigation.indoor.WifiAccessPointWithPowerAndLocated3D;
+import com.irurueta.numerical.robust.RobustEstimatorException;
+import com.irurueta.statistics.GaussianRandomizer;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OnlineRangingAndRssiRadioSourceEstimator3DTest implements
+        OnlineRangingAndRssiRadioSourceEstimatorListener<WifiAccessPoint, Point3D> {
+
+    private static final double FREQUENCY = 2.4e9; //(Hz)
+
+    private static final int NUM_READINGS = 500;
+
+    private static final double MIN_POS = -50.0;
+    private static final double MAX_POS = 50.0;
+
+    private static final double MIN_RSSI = -100;
+    private static final double MAX_RSSI = -50;
+
+    private static final double PATH_LOSS_EXPONENT = 2.0;
+
+    private static final double DISTANCE_STD = 0.1;
+    private static final double RSSI_STD = 0.5;
+
+    private static final double LARGE_POSITION_ERROR = 0.5;
+    private static final double LARGE_POWER_ERROR = 0.5;
+
+    private static final double SPEED_OF_LIGHT = 299792458.0;
+
+    private static final int TIMES = 50;
+
+    private static final int PERCENTAGE_OUTLIERS = 20;
+
+    private static final double STD_OUTLIER_ERROR = 10.0;
+
+    private int fullEstimateStart;
+    private int fullEstimateEnd;
+
+    @Test
+    public void testConstructor() {
+        // test empty constructor
+        OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // check default values
+        assertTrue(estimator.getRobustEstimator() instanceof
+                SequentialRobustRangingAndRssiRadioSourceEstimator3D);
+        assertNull(estimator.getListener());
+        assertEquals(estimator.getGatingThreshold(),
+                OnlineRangingAndRssiRadioSourceEstimator.DEFAULT_GATING_THRESHOLD, 0.0);
+        assertEquals(estimator.getMaxInlierRatioDrift(),
+                OnlineRangingAndRssiRadioSourceEstimator.DEFAULT_MAX_INLIER_RATIO_DRIFT,
+                0.0);
+        assertEquals(estimator.getMinOnlineReadings(),
+                OnlineRangingAndRssiRadioSourceEstimator.DEFAULT_MIN_ONLINE_READINGS);
+        assertEquals(estimator.getMaxReadings(),
+                OnlineRangingAndRssiRadioSourceEstimator.DEFAULT_MAX_READINGS);
+        assertFalse(estimator.isLocked());
+        assertTrue(estimator.getReadings().isEmpty());
+        assertFalse(estimator.isEstimationAvailable());
+        assertEquals(estimator.getNumFullEstimations(), 0);
+        assertEquals(estimator.getNumOnlineReadings(), 0);
+        assertEquals(estimator.getNumOnlineInliers(), 0);
+        assertEquals(estimator.getReferenceInlierRatio(), 0.0, 0.0);
+        assertTrue(Double.isNaN(estimator.getOnlineInlierRatio()));
+        assertEquals(estimator.getMinReadings(),
+                estimator.getRobustEstimator().getMinReadings());
+        assertEquals(estimator.getNumberOfDimensions(), 3);
+        assertNull(estimator.getEstimatedPosition());
+        assertNull(estimator.getEstimatedPositionCovariance());
+        assertNull(estimator.getCovariance());
+        assertTrue(Double.isNaN(estimator.getEstimatedTransmittedPowerdBm()));
+        assertTrue(Double.isNaN(estimator.getEstimatedTransmittedPower()));
+        assertNull(estimator.getEstimatedTransmittedPowerVariance());
+        assertTrue(Double.isNaN(estimator.getEstimatedPathLossExponent()));
+        assertNull(estimator.getEstimatedPathLossExponentVariance());
+        assertNull(estimator.getEstimatedRadioSource());
+
+        // test constructor with listener
+        estimator = new OnlineRangingAndRssiRadioSourceEstimator3D<>(this);
+
+        // check
+        assertSame(estimator.getListener(), this);
+
+        // test constructor with robust estimator
+        final SequentialRobustRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> robustEstimator =
+                new SequentialRobustRangingAndRssiRadioSourceEstimator3D<>();
+        estimator = new OnlineRangingAndRssiRadioSourceEstimator3D<>(robustEstimator);
+
+        // check
+        assertSame(estimator.getRobustEstimator(), robustEstimator);
+        assertNull(estimator.getListener());
+
+        // test constructor with robust estimator and listener
+        estimator = new OnlineRangingAndRssiRadioSourceEstimator3D<>(robustEstimator, this);
+
+        // check
+        assertSame(estimator.getRobustEstimator(), robustEstimator);
+        assertSame(estimator.getListener(), this);
+
+        // Force IllegalArgumentException
+        try {
+            new OnlineRangingAndRssiRadioSourceEstimator3D<>(
+                    (SequentialRobustRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint>) null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetListener() throws LockedException {
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // set new value
+        estimator.setListener(this);
+
+        // check
+        assertSame(estimator.getListener(), this);
+    }
+
+    @Test
+    public void testGetSetGatingThreshold() throws LockedException {
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // set new value
+        estimator.setGatingThreshold(4.0);
+
+        // check
+        assertEquals(estimator.getGatingThreshold(), 4.0, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setGatingThreshold(0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMaxInlierRatioDrift() throws LockedException {
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // set new value
+        estimator.setMaxInlierRatioDrift(0.5);
+
+        // check
+        assertEquals(estimator.getMaxInlierRatioDrift(), 0.5, 0.0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxInlierRatioDrift(-0.1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            estimator.setMaxInlierRatioDrift(1.1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMinOnlineReadings() throws LockedException {
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // set new value
+        estimator.setMinOnlineReadings(50);
+
+        // check
+        assertEquals(estimator.getMinOnlineReadings(), 50);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMinOnlineReadings(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMaxReadings() throws LockedException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final Point3D accessPointPosition = randomPoint(randomizer);
+        final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+        final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY);
+
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // set new value
+        estimator.setMaxReadings(5);
+
+        // check
+        assertEquals(estimator.getMaxReadings(), 5);
+
+        // only the most recent readings are kept
+        final List<RangingAndRssiReadingLocated3D<WifiAccessPoint>> readings =
+                new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            final RangingAndRssiReadingLocated3D<WifiAccessPoint> reading =
+                    createReading(randomizer, accessPoint, accessPointPosition,
+                            transmittedPowerdBm, 0.0, 0.0);
+            readings.add(reading);
+            addReading(estimator, reading);
+        }
+
+        assertEquals(estimator.getReadings().size(), 5);
+        assertTrue(estimator.getReadings().containsAll(readings.subList(2, 7)));
+
+        // reducing maximum keeps the most recent readings
+        estimator.setMaxReadings(3);
+
+        assertEquals(estimator.getMaxReadings(), 3);
+        assertEquals(estimator.getReadings(), readings.subList(4, 7));
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxReadings(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testAddReadingInvalid() throws LockedException, RobustEstimatorException {
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY);
+        final WifiAccessPoint otherAccessPoint = new WifiAccessPoint("other", FREQUENCY);
+        assertFalse(estimator.addReading(new RangingAndRssiReadingLocated3D<>(
+                accessPoint, 1.0, -50.0, new InhomogeneousPoint3D())));
+
+        // Force IllegalArgumentException
+        try {
+            estimator.addReading(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            estimator.addReading(new RangingAndRssiReadingLocated3D<>(
+                    otherAccessPoint, 1.0, -50.0, new InhomogeneousPoint3D()));
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+
+        assertEquals(estimator.getReadings().size(), 1);
+    }
+
+    @Test
+    public void testAddReadingsWithoutOutliers() throws LockedException,
+            RobustEstimatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final GaussianRandomizer distanceErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, DISTANCE_STD);
+        final GaussianRandomizer rssiErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, RSSI_STD);
+
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final Point3D accessPointPosition = randomPoint(randomizer);
+            final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+            final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY);
+
+            final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                    new OnlineRangingAndRssiRadioSourceEstimator3D<>(this);
+            reset();
+
+            final int minReadings = estimator.getMinReadings();
+            for (int i = 0; i < NUM_READINGS; i++) {
+                final boolean updated = addReading(estimator, createReading(randomizer,
+                        accessPoint, accessPointPosition, transmittedPowerdBm,
+                        distanceErrorRandomizer.nextDouble(),
+                        rssiErrorRandomizer.nextDouble()));
+
+                if (i < minReadings - 1) {
+                    assertFalse(updated);
+                    assertFalse(estimator.isEstimationAvailable());
+                }
+            }
+
+            // check
+            assertTrue(estimator.isEstimationAvailable());
+            assertFalse(estimator.isLocked());
+            assertEquals(estimator.getReadings().size(), NUM_READINGS);
+            assertTrue(fullEstimateStart >= fullEstimateEnd);
+            assertEquals(estimator.getNumFullEstimations(), fullEstimateEnd);
+
+            assertNotNull(estimator.getCovariance());
+            assertEquals(estimator.getCovariance().getRows(), 4);
+            assertNotNull(estimator.getEstimatedPositionCovariance());
+            assertNotNull(estimator.getEstimatedTransmittedPowerVariance());
+            assertNull(estimator.getEstimatedPathLossExponentVariance());
+            assertEquals(estimator.getEstimatedPathLossExponent(), PATH_LOSS_EXPONENT,
+                    0.0);
+            assertEquals(estimator.getEstimatedTransmittedPower(),
+                    Utils.dBmToPower(estimator.getEstimatedTransmittedPowerdBm()), 0.0);
+
+            final WifiAccessPointWithPowerAndLocated3D estimatedAccessPoint =
+                    (WifiAccessPointWithPowerAndLocated3D) estimator.getEstimatedRadioSource();
+            assertEquals(estimatedAccessPoint.getBssid(), "bssid");
+            assertEquals(estimatedAccessPoint.getFrequency(), FREQUENCY, 0.0);
+            assertEquals(estimatedAccessPoint.getTransmittedPower(),
+                    estimator.getEstimatedTransmittedPowerdBm(), 0.0);
+            assertEquals(estimatedAccessPoint.getPosition(),
+                    estimator.getEstimatedPosition());
+            assertEquals(estimatedAccessPoint.getPositionCovariance(),
+                    estimator.getEstimatedPositionCovariance());
+
+            if (estimator.getNumFullEstimations() != 1) {
+                continue;
+            }
+            if (estimator.getEstimatedPosition().distanceTo(accessPointPosition) >
+                    LARGE_POSITION_ERROR) {
+                continue;
+            }
+            if (Math.abs(estimator.getEstimatedTransmittedPowerdBm() -
+                    transmittedPowerdBm) > LARGE_POWER_ERROR) {
+                continue;
+            }
+
+            numValid++;
+            break;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
+    @Test
+    public void testAddReadingsWithOutliers() throws LockedException,
+            RobustEstimatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final GaussianRandomizer distanceErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, DISTANCE_STD);
+        final GaussianRandomizer rssiErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, RSSI_STD);
+        final GaussianRandomizer outlierErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, STD_OUTLIER_ERROR);
+
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final Point3D accessPointPosition = randomPoint(randomizer);
+            final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+            final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY);
+
+            final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                    new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+            for (int i = 0; i < NUM_READINGS; i++) {
+                double distanceError = distanceErrorRandomizer.nextDouble();
+                double rssiError = rssiErrorRandomizer.nextDouble();
+                if (randomizer.nextInt(0, 100) < PERCENTAGE_OUTLIERS) {
+                    distanceError += Math.abs(outlierErrorRandomizer.nextDouble());
+                    rssiError += outlierErrorRandomizer.nextDouble();
+                }
+
+                addReading(estimator, createReading(randomizer, accessPoint,
+                        accessPointPosition, transmittedPowerdBm, distanceError,
+                        rssiError));
+            }
+
+            // check
+            assertTrue(estimator.isEstimationAvailable());
+            assertTrue(estimator.getNumOnlineReadings() > 0);
+            assertTrue(estimator.getNumOnlineInliers() <=
+                    estimator.getNumOnlineReadings());
+
+            if (estimator.getEstimatedPosition().distanceTo(accessPointPosition) >
+                    LARGE_POSITION_ERROR) {
+                continue;
+            }
+            if (Math.abs(estimator.getEstimatedTransmittedPowerdBm() -
+                    transmittedPowerdBm) > LARGE_POWER_ERROR) {
+                continue;
+            }
+
+            numValid++;
+            break;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
+    @Test
+    public void testAddReadingsWhenSourceMoves() throws LockedException,
+            RobustEstimatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final GaussianRandomizer distanceErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, DISTANCE_STD);
+        final GaussianRandomizer rssiErrorRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, RSSI_STD);
+
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final Point3D accessPointPosition1 = randomPoint(randomizer);
+            final Point3D accessPointPosition2 = randomPoint(randomizer);
+            final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+            final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY);
+
+            final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                    new OnlineRangingAndRssiRadioSourceEstimator3D<>(this);
+            reset();
+
+            for (int i = 0; i < NUM_READINGS; i++) {
+                addReading(estimator, createReading(randomizer, accessPoint,
+                        accessPointPosition1, transmittedPowerdBm,
+                        distanceErrorRandomizer.nextDouble(),
+                        rssiErrorRandomizer.nextDouble()));
+            }
+            final int numFullEstimations = estimator.getNumFullEstimations();
+
+            // radio source is moved, so that new readings become outliers until
+            // they are the majority of collected readings
+            for (int i = 0; i < 2 * NUM_READINGS; i++) {
+                addReading(estimator, createReading(randomizer, accessPoint,
+                        accessPointPosition2, transmittedPowerdBm,
+                        distanceErrorRandomizer.nextDouble(),
+                        rssiErrorRandomizer.nextDouble()));
+            }
+
+            // check
+            assertTrue(estimator.getNumFullEstimations() > numFullEstimations);
+            assertTrue(fullEstimateStart >= fullEstimateEnd);
+            assertEquals(estimator.getNumFullEstimations(), fullEstimateEnd);
+
+            if (estimator.getEstimatedPosition().distanceTo(accessPointPosition2) >
+                    LARGE_POSITION_ERROR) {
+                continue;
+            }
+
+            numValid++;
+            break;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
+    @Test
+    public void testEstimateAndReset() throws LockedException, NotReadyException,
+            RobustEstimatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final Point3D accessPointPosition = randomPoint(randomizer);
+        final double transmittedPowerdBm = randomizer.nextDouble(MIN_RSSI, MAX_RSSI);
+        final WifiAccessPoint accessPoint = new WifiAccessPoint("bssid", FREQUENCY);
+
+        final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator =
+                new OnlineRangingAndRssiRadioSourceEstimator3D<>();
+
+        // Force NotReadyException
+        try {
+            estimator.estimate();
+            fail("NotReadyException expected but not thrown");
+        } catch (final NotReadyException ignore) {
+        }
+
+        for (int i = 0; i < NUM_READINGS; i++) {
+            addReading(estimator, createReading(randomizer, accessPoint,
+                    accessPointPosition, transmittedPowerdBm, 0.0, 0.0));
+        }
+        final int numFullEstimations = estimator.getNumFullEstimations();
+
+        estimator.estimate();
+
+        // check
+        assertEquals(estimator.getNumFullEstimations(), numFullEstimations + 1);
+        assertEquals(estimator.getNumOnlineReadings(), 0);
+        assertEquals(estimator.getReferenceInlierRatio(), 1.0, 0.0);
+        assertTrue(estimator.getEstimatedPosition().equals(accessPointPosition,
+                LARGE_POSITION_ERROR));
+
+        estimator.reset();
+
+        // check
+        assertTrue(estimator.getReadings().isEmpty());
+        assertFalse(estimator.isEstimationAvailable());
+        assertEquals(estimator.getNumFullEstimations(), 0);
+        assertEquals(estimator.getNumOnlineReadings(), 0);
+        assertEquals(estimator.getNumOnlineInliers(), 0);
+        assertEquals(estimator.getReferenceInlierRatio(), 0.0, 0.0);
+        assertNull(estimator.getEstimatedPosition());
+    }
+
+    @Override
+    public void onFullEstimateStart(
+            final OnlineRangingAndRssiRadioSourceEstimator<WifiAccessPoint, Point3D> estimator) {
+        fullEstimateStart++;
+        checkLocked(estimator);
+    }
+
+    @Override
+    public void onFullEstimateEnd(
+            final OnlineRangingAndRssiRadioSourceEstimator<WifiAccessPoint, Point3D> estimator) {
+        fullEstimateEnd++;
+        checkLocked(estimator);
+    }
+
+    private void reset() {
+        fullEstimateStart = fullEstimateEnd = 0;
+    }
+
+    private static boolean addReading(
+            final OnlineRangingAndRssiRadioSourceEstimator3D<WifiAccessPoint> estimator,
+            final RangingAndRssiReadingLocated3D<WifiAccessPoint> reading)
+            throws LockedException {
+        try {
+            return estimator.addReading(reading);
+        } catch (final RobustEstimatorException e) {
+            // robust estimation might fail when only a few readings are available,
+            // in which case it is attempted again with next reading
+            return false;
+        }
+    }
+
+    private RangingAndRssiReadingLocated3D<WifiAccessPoint> createReading(
+            final UniformRandomizer randomizer, final WifiAccessPoint accessPoint,
+            final Point3D accessPointPosition, final double transmittedPowerdBm,
+            final double distanceError, final double rssiError) {
+        final Point3D readingPosition = randomPoint(randomizer);
+        final double distance = readingPosition.distanceTo(accessPointPosition);
+        final double rssi = Utils.powerTodBm(receivedPower(
+                Utils.dBmToPower(transmittedPowerdBm), distance,
+                accessPoint.getFrequency(), PATH_LOSS_EXPONENT));
+
+        return new RangingAndRssiReadingLocated3D<>(accessPoint,
+                Math.max(distance + distanceError, 0.0), rssi + rssiError,
+                readingPosition, DISTANCE_STD, RSSI_STD);
+    }
+
+    private Point3D randomPoint(final UniformRandomizer randomizer) {
+        return new InhomogeneousPoint3D(
+                randomizer.nextDouble(MIN_POS, MAX_POS),
+                randomizer.nextDouble(MIN_POS, MAX_POS),
+                randomizer.nextDouble(MIN_POS, MAX_POS));
+    }
+
+    private double receivedPower(
+            final double equivalentTransmittedPower, final double distance, final double frequency,
+            final double pathLossExponent) {
+        // Pr = Pt*Gt*Gr*lambda^2/(4*pi*d)^2,    where Pr is the received power
+        // lambda = c/f, where lambda is wavelength,
+        // Pte = Pt*Gt*Gr, is the equivalent transmitted power, Gt is the transmitted Gain and Gr is the received Gain
+        // Pr = Pte*c^2/((4*pi*f)^2 * d^2)
+        final double k = Math.pow(SPEED_OF_LIGHT / (4.0 * Math.PI * frequency), pathLossExponent);
+        return equivalentTransmittedPower * k /
+                Math.pow(distance, pathLossExponent);
+    }
+
+    private void checkLocked(
+            final OnlineRangingAndRssiRadioSourceEstimator<WifiAccessPoint, Point3D> estimator) {
+        assertTrue(estimator.isLocked());
+        try {
+            estimator.setListener(this);
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            estimator.setGatingThreshold(1.0);
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            estimator.setMaxInlierRatioDrift(0.5);
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            estimator.setMinOnlineReadings(1);
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            estimator.setMaxReadings(1);
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            estimator.addReading(null);
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        } catch (final Exception e) {
+            fail("LockedException expected but not thrown");
+        }
+        try {
+            estimator.estimate();
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        } catch (final Exception e) {
+            fail("LockedException expected but not thrown");
+        }
+        try {
+            estimator.reset();
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+    }
+}
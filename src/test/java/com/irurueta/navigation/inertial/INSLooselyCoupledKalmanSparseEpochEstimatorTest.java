@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.converters.ECEFtoNEDPositionVelocityConverter;
+import com.irurueta.navigation.frames.converters.NEDtoECEFPositionVelocityConverter;
+import com.irurueta.navigation.gnss.ECEFPositionAndVelocity;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class INSLooselyCoupledKalmanSparseEpochEstimatorTest {
+
+    private static final double MIN_LATITUDE_DEGREES = -90.0;
+    private static final double MAX_LATITUDE_DEGREES = 90.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT_METERS = -50.0;
+    private static final double MAX_HEIGHT_METERS = 50.0;
+
+    private static final double MIN_SPEED_VALUE = -2.0;
+    private static final double MAX_SPEED_VALUE = 2.0;
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final double MIN_ANGLE_DEGREES = -180.0;
+    private static final double MAX_ANGLE_DEGREES = 180.0;
+
+    private static final double MIN_SPECIFIC_FORCE = -12.0;
+    private static final double MAX_SPECIFIC_FORCE = 12.0;
+
+    private static final double MIN_ERROR = -1.0;
+    private static final double MAX_ERROR = 1.0;
+
+    private static final double MIN_VALUE = 1e-4;
+    private static final double MAX_VALUE = 1e-3;
+
+    private static final double MIN_NOISE_SD = 0.1;
+    private static final double MAX_NOISE_SD = 5.0;
+
+    private static final int TIMES = 100;
+
+    private static final int EPOCHS = 50;
+
+    private static final double ABSOLUTE_ERROR = 1e-12;
+
+    private static final double SEQUENCE_ERROR = 1e-9;
+
+    @Test
+    public void testEstimateMatchesDenseEstimation() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final INSLooselyCoupledKalmanSparseEpochEstimator estimator =
+                new INSLooselyCoupledKalmanSparseEpochEstimator();
+
+        for (int t = 0; t < TIMES; t++) {
+            final Scenario scenario = createScenario(randomizer);
+
+            final INSLooselyCoupledKalmanState expected = new INSLooselyCoupledKalmanState();
+            INSLooselyCoupledKalmanEpochEstimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                    scenario.mVx, scenario.mVy, scenario.mVz, TIME_INTERVAL_SECONDS,
+                    scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                    scenario.mPreviousLatitude, scenario.mConfig, expected);
+
+            final INSLooselyCoupledKalmanState result = new INSLooselyCoupledKalmanState();
+            estimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                    scenario.mVx, scenario.mVy, scenario.mVz, TIME_INTERVAL_SECONDS,
+                    scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                    scenario.mPreviousLatitude, scenario.mConfig, result);
+
+            assertEquivalent(expected, result, ABSOLUTE_ERROR);
+        }
+    }
+
+    @Test
+    public void testEstimateInPlace() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final INSLooselyCoupledKalmanSparseEpochEstimator estimator =
+                new INSLooselyCoupledKalmanSparseEpochEstimator();
+
+        final Scenario scenario = createScenario(randomizer);
+
+        final INSLooselyCoupledKalmanState expected = new INSLooselyCoupledKalmanState(
+                scenario.mPreviousState);
+        final INSLooselyCoupledKalmanState state = new INSLooselyCoupledKalmanState(
+                scenario.mPreviousState);
+        final Matrix covariance = state.getCovariance();
+        final Matrix cbe = state.getBodyToEcefCoordinateTransformationMatrix();
+
+        for (int i = 0; i < EPOCHS; i++) {
+            INSLooselyCoupledKalmanEpochEstimator.estimate(scenario.mX, scenario.mY,
+                    scenario.mZ, scenario.mVx, scenario.mVy, scenario.mVz,
+                    TIME_INTERVAL_SECONDS, expected, scenario.mFx, scenario.mFy,
+                    scenario.mFz, scenario.mPreviousLatitude, scenario.mConfig, expected);
+
+            estimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                    scenario.mVx, scenario.mVy, scenario.mVz, TIME_INTERVAL_SECONDS,
+                    state, scenario.mFx, scenario.mFy, scenario.mFz,
+                    scenario.mPreviousLatitude, scenario.mConfig, state);
+        }
+
+        // check that matrices have been reused
+        assertSame(covariance, state.getCovariance());
+        assertSame(cbe, state.getBodyToEcefCoordinateTransformationMatrix());
+
+        assertEquivalent(expected, state, SEQUENCE_ERROR);
+
+        // covariance remains symmetric
+        assertTrue(covariance.equals(covariance.transposeAndReturnNew(), 0.0));
+    }
+
+    @Test
+    public void testEstimateOverloads() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final INSLooselyCoupledKalmanSparseEpochEstimator estimator =
+                new INSLooselyCoupledKalmanSparseEpochEstimator();
+
+        final Scenario scenario = createScenario(randomizer);
+        final Time propagationInterval = new Time(TIME_INTERVAL_SECONDS, TimeUnit.SECOND);
+        final ECEFPositionAndVelocity positionAndVelocity = new ECEFPositionAndVelocity(
+                scenario.mX, scenario.mY, scenario.mZ,
+                scenario.mVx, scenario.mVy, scenario.mVz);
+        final BodyKinematics kinematics = new BodyKinematics(
+                scenario.mFx, scenario.mFy, scenario.mFz, 0.0, 0.0, 0.0);
+
+        final INSLooselyCoupledKalmanState result1 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                scenario.mVx, scenario.mVy, scenario.mVz, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                scenario.mPreviousLatitude, scenario.mConfig, result1);
+
+        final INSLooselyCoupledKalmanState result2 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                scenario.mVx, scenario.mVy, scenario.mVz, propagationInterval,
+                scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                scenario.mPreviousLatitude, scenario.mConfig, result2);
+
+        final INSLooselyCoupledKalmanState result3 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                scenario.mVx, scenario.mVy, scenario.mVz, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                scenario.mConfig, result3);
+
+        final INSLooselyCoupledKalmanState result4 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                scenario.mVx, scenario.mVy, scenario.mVz, propagationInterval,
+                scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                scenario.mConfig, result4);
+
+        final INSLooselyCoupledKalmanState result5 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(positionAndVelocity, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, kinematics, scenario.mPreviousLatitude,
+                scenario.mConfig, result5);
+
+        final INSLooselyCoupledKalmanState result6 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(positionAndVelocity, propagationInterval,
+                scenario.mPreviousState, kinematics, scenario.mPreviousLatitude,
+                scenario.mConfig, result6);
+
+        final INSLooselyCoupledKalmanState result7 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(positionAndVelocity, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, kinematics, scenario.mConfig, result7);
+
+        final INSLooselyCoupledKalmanState result8 = new INSLooselyCoupledKalmanState();
+        estimator.estimate(positionAndVelocity, propagationInterval,
+                scenario.mPreviousState, kinematics, scenario.mConfig, result8);
+
+        assertEquals(result1, result2);
+        assertEquals(result1, result5);
+        assertEquals(result1, result6);
+
+        final INSLooselyCoupledKalmanState expected = new INSLooselyCoupledKalmanState();
+        INSLooselyCoupledKalmanEpochEstimator.estimate(scenario.mX, scenario.mY, scenario.mZ,
+                scenario.mVx, scenario.mVy, scenario.mVz, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, scenario.mFx, scenario.mFy, scenario.mFz,
+                scenario.mConfig, expected);
+
+        assertEquivalent(expected, result3, ABSOLUTE_ERROR);
+        assertEquals(result3, result4);
+        assertEquals(result3, result7);
+        assertEquals(result3, result8);
+    }
+
+    private static void assertEquivalent(
+            final INSLooselyCoupledKalmanState expected,
+            final INSLooselyCoupledKalmanState result, final double absoluteError) {
+        assertTrue(expected.getCovariance().equals(result.getCovariance(), absoluteError));
+        assertTrue(expected.getBodyToEcefCoordinateTransformationMatrix().equals(
+                result.getBodyToEcefCoordinateTransformationMatrix(), absoluteError));
+        assertEquals(expected.getVx(), result.getVx(), absoluteError);
+        assertEquals(expected.getVy(), result.getVy(), absoluteError);
+        assertEquals(expected.getVz(), result.getVz(), absoluteError);
+        assertEquals(expected.getAccelerationBiasX(), result.getAccelerationBiasX(), absoluteError);
+        assertEquals(expected.getAccelerationBiasY(), result.getAccelerationBiasY(), absoluteError);
+        assertEquals(expected.getAccelerationBiasZ(), result.getAccelerationBiasZ(), absoluteError);
+        assertEquals(expected.getGyroBiasX(), result.getGyroBiasX(), absoluteError);
+        assertEquals(expected.getGyroBiasY(), result.getGyroBiasY(), absoluteError);
+        assertEquals(expected.getGyroBiasZ(), result.getGyroBiasZ(), absoluteError);
+
+        // ECEF coordinates are in the order of 1e6 meters, hence they can only be
+        // compared relative to their magnitude
+        assertEquals(expected.getX(), result.getX(), absoluteError * Math.abs(expected.getX()));
+        assertEquals(expected.getY(), result.getY(), absoluteError * Math.abs(expected.getY()));
+        assertEquals(expected.getZ(), result.getZ(), absoluteError * Math.abs(expected.getZ()));
+    }
+
+    private static Scenario createScenario(final UniformRandomizer randomizer)
+            throws AlgebraException {
+        final double userLatitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double userLongitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double userHeight = randomizer.nextDouble(
+                MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+
+        final double userVn = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+        final double userVe = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+        final double userVd = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+
+        final NEDPosition userNedPosition = new NEDPosition(
+                userLatitude, userLongitude, userHeight);
+        final NEDVelocity userNedVelocity = new NEDVelocity(userVn, userVe, userVd);
+
+        final ECEFPosition userEcefPosition = new ECEFPosition();
+        final ECEFVelocity userEcefVelocity = new ECEFVelocity();
+        NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                userNedPosition, userNedVelocity,
+                userEcefPosition, userEcefVelocity);
+
+        final double roll = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double pitch = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double yaw = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+
+        final CoordinateTransformation c = new CoordinateTransformation(
+                roll, pitch, yaw, FrameType.BODY_FRAME,
+                FrameType.EARTH_CENTERED_EARTH_FIXED_FRAME);
+
+        final ECEFPosition previousPosition = new ECEFPosition(
+                userEcefPosition.getX() + TIME_INTERVAL_SECONDS * userEcefVelocity.getVx(),
+                userEcefPosition.getY() + TIME_INTERVAL_SECONDS * userEcefVelocity.getVy(),
+                userEcefPosition.getZ() + TIME_INTERVAL_SECONDS * userEcefVelocity.getVz());
+
+        final double accelerationBiasX = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerationBiasY = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerationBiasZ = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasX = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasY = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasZ = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final Matrix covariance = Matrix.identity(INSLooselyCoupledKalmanState.NUM_PARAMS,
+                INSLooselyCoupledKalmanState.NUM_PARAMS);
+
+        final Scenario scenario = new Scenario();
+        scenario.mPreviousState = new INSLooselyCoupledKalmanState(c, userEcefVelocity,
+                previousPosition, accelerationBiasX, accelerationBiasY, accelerationBiasZ,
+                gyroBiasX, gyroBiasY, gyroBiasZ, covariance);
+
+        final NEDPosition previousNedPosition = new NEDPosition();
+        final NEDVelocity previousNedVelocity = new NEDVelocity();
+        ECEFtoNEDPositionVelocityConverter.convertECEFtoNED(previousPosition,
+                userEcefVelocity, previousNedPosition, previousNedVelocity);
+        scenario.mPreviousLatitude = previousNedPosition.getLatitude();
+
+        scenario.mX = userEcefPosition.getX() + randomizer.nextDouble(MIN_ERROR, MAX_ERROR);
+        scenario.mY = userEcefPosition.getY() + randomizer.nextDouble(MIN_ERROR, MAX_ERROR);
+        scenario.mZ = userEcefPosition.getZ() + randomizer.nextDouble(MIN_ERROR, MAX_ERROR);
+        scenario.mVx = userEcefVelocity.getVx() + randomizer.nextDouble(MIN_ERROR, MAX_ERROR);
+        scenario.mVy = userEcefVelocity.getVy() + randomizer.nextDouble(MIN_ERROR, MAX_ERROR);
+        scenario.mVz = userEcefVelocity.getVz() + randomizer.nextDouble(MIN_ERROR, MAX_ERROR);
+
+        scenario.mFx = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        scenario.mFy = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        scenario.mFz = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+
+        final double gyroNoisePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerometerNoisePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerometerBiasPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double positionNoiseSD = randomizer.nextDouble(MIN_NOISE_SD, MAX_NOISE_SD);
+        final double velocityNoiseSD = randomizer.nextDouble(MIN_NOISE_SD, MAX_NOISE_SD);
+        scenario.mConfig = new INSLooselyCoupledKalmanConfig(
+                gyroNoisePSD, accelerometerNoisePSD, accelerometerBiasPSD,
+                gyroBiasPSD, positionNoiseSD, velocityNoiseSD);
+
+        return scenario;
+    }
+
+    private static class Scenario {
+        private INSLooselyCoupledKalmanState mPreviousState;
+        private double mPreviousLatitude;
+        private double mX;
+        private double mY;
+        private double mZ;
+        private double mVx;
+        private double mVy;
+        private double mVz;
+        private double mFx;
+        private double mFy;
+        private double mFz;
+        private INSLooselyCoupledKalmanConfig mConfig;
+    }
+}
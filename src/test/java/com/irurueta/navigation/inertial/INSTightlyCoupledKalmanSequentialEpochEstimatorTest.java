@@ -0,0 +1,457 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.geometry.Point3D;
+import com.irurueta.navigation.frames.ECEFFrame;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.frames.converters.ECEFtoNEDPositionVelocityConverter;
+import com.irurueta.navigation.frames.converters.NEDtoECEFFrameConverter;
+import com.irurueta.navigation.frames.converters.NEDtoECEFPositionVelocityConverter;
+import com.irurueta.navigation.gnss.GNSSMeasurement;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Angle;
+import com.irurueta.units.AngleUnit;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class INSTightlyCoupledKalmanSequentialEpochEstimatorTest {
+
+    private static final double MIN_LATITUDE_DEGREES = -90.0;
+    private static final double MAX_LATITUDE_DEGREES = 90.0;
+
+    private static final double MIN_LONGITUDE_DEGREES = -180.0;
+    private static final double MAX_LONGITUDE_DEGREES = 180.0;
+
+    private static final double MIN_HEIGHT_METERS = -50.0;
+    private static final double MAX_HEIGHT_METERS = 50.0;
+
+    private static final double MIN_SPEED_VALUE = -2.0;
+    private static final double MAX_SPEED_VALUE = 2.0;
+
+    private static final int MIN_MEASUREMENTS = 4;
+    private static final int MAX_MEASUREMENTS = 40;
+
+    private static final double MIN_SAT_HEIGHT_METERS = 150000;
+    private static final double MAX_SAT_HEIGHT_METERS = 500000;
+
+    private static final double MIN_SAT_SPEED_VALUE = -20.0;
+    private static final double MAX_SAT_SPEED_VALUE = 20.0;
+
+    private static final double MIN_ERROR_METERS = -5.0;
+    private static final double MAX_ERROR_METERS = 5.0;
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final double MIN_VALUE = 1e-4;
+    private static final double MAX_VALUE = 1e-3;
+
+    private static final double MIN_PSEUDO_RANGE_SD = 1.0;
+    private static final double MAX_PSEUDO_RANGE_SD = 5.0;
+
+    private static final double MIN_RANGE_RATE_SD = 0.01;
+    private static final double MAX_RANGE_RATE_SD = 0.1;
+
+    private static final double ABSOLUTE_ERROR = 1e-6;
+
+    private static final int TIMES = 50;
+
+    @Test
+    public void testConstructor() {
+        INSTightlyCoupledKalmanSequentialEpochEstimator estimator =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator();
+
+        // check default values
+        assertEquals(estimator.getUpdateType(),
+                INSTightlyCoupledKalmanSequentialEpochEstimator.DEFAULT_UPDATE_TYPE);
+        assertEquals(estimator.getUpdateType(),
+                INSTightlyCoupledKalmanSequentialUpdateType.JOSEPH);
+
+        // test constructor with update type
+        estimator = new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                INSTightlyCoupledKalmanSequentialUpdateType.UD);
+
+        // check
+        assertEquals(estimator.getUpdateType(),
+                INSTightlyCoupledKalmanSequentialUpdateType.UD);
+
+        // Force NullPointerException
+        estimator = null;
+        try {
+            estimator = new INSTightlyCoupledKalmanSequentialEpochEstimator(null);
+            fail("NullPointerException expected but not thrown");
+        } catch (final NullPointerException ignore) {
+        }
+        assertNull(estimator);
+    }
+
+    @Test
+    public void testGetSetUpdateType() {
+        final INSTightlyCoupledKalmanSequentialEpochEstimator estimator =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator();
+
+        // check default value
+        assertEquals(estimator.getUpdateType(),
+                INSTightlyCoupledKalmanSequentialUpdateType.JOSEPH);
+
+        // set new value
+        estimator.setUpdateType(INSTightlyCoupledKalmanSequentialUpdateType.UD);
+
+        // check
+        assertEquals(estimator.getUpdateType(),
+                INSTightlyCoupledKalmanSequentialUpdateType.UD);
+
+        // Force NullPointerException
+        try {
+            estimator.setUpdateType(null);
+            fail("NullPointerException expected but not thrown");
+        } catch (final NullPointerException ignore) {
+        }
+    }
+
+    @Test
+    public void testEstimateJosephMatchesBatchEstimation() throws AlgebraException {
+        final INSTightlyCoupledKalmanSequentialEpochEstimator estimator =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                        INSTightlyCoupledKalmanSequentialUpdateType.JOSEPH);
+        for (int t = 0; t < TIMES; t++) {
+            checkMatchesBatchEstimation(estimator);
+        }
+    }
+
+    @Test
+    public void testEstimateUDMatchesBatchEstimation() throws AlgebraException {
+        final INSTightlyCoupledKalmanSequentialEpochEstimator estimator =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                        INSTightlyCoupledKalmanSequentialUpdateType.UD);
+        for (int t = 0; t < TIMES; t++) {
+            checkMatchesBatchEstimation(estimator);
+        }
+    }
+
+    @Test
+    public void testEstimateOverloads() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final Scenario scenario = createScenario(randomizer);
+        final INSTightlyCoupledKalmanSequentialEpochEstimator estimator =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator();
+
+        final List<GNSSMeasurement> measurements = scenario.mMeasurements;
+        final INSTightlyCoupledKalmanState previousState = scenario.mPreviousState;
+        final INSTightlyCoupledKalmanConfig config = scenario.mConfig;
+        final BodyKinematics kinematics = scenario.mKinematics;
+        final double fx = kinematics.getFx();
+        final double fy = kinematics.getFy();
+        final double fz = kinematics.getFz();
+        final double previousLatitude = scenario.mPreviousLatitude;
+        final Time propagationInterval = new Time(TIME_INTERVAL_SECONDS, TimeUnit.SECOND);
+        final Angle previousLatitudeAngle = new Angle(previousLatitude, AngleUnit.RADIANS);
+
+        final INSTightlyCoupledKalmanState result1 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, TIME_INTERVAL_SECONDS, previousState,
+                fx, fy, fz, previousLatitude, config, result1);
+
+        final INSTightlyCoupledKalmanState result2 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, propagationInterval, previousState,
+                fx, fy, fz, previousLatitude, config, result2);
+
+        final INSTightlyCoupledKalmanState result3 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, TIME_INTERVAL_SECONDS, previousState,
+                fx, fy, fz, previousLatitudeAngle, config, result3);
+
+        final INSTightlyCoupledKalmanState result4 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, propagationInterval, previousState,
+                fx, fy, fz, previousLatitudeAngle, config, result4);
+
+        final INSTightlyCoupledKalmanState result5 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, TIME_INTERVAL_SECONDS, previousState,
+                fx, fy, fz, config, result5);
+
+        final INSTightlyCoupledKalmanState result6 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, propagationInterval, previousState,
+                fx, fy, fz, config, result6);
+
+        final INSTightlyCoupledKalmanState result7 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, TIME_INTERVAL_SECONDS, previousState,
+                kinematics, previousLatitude, config, result7);
+
+        final INSTightlyCoupledKalmanState result8 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, propagationInterval, previousState,
+                kinematics, previousLatitude, config, result8);
+
+        final INSTightlyCoupledKalmanState result9 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, TIME_INTERVAL_SECONDS, previousState,
+                kinematics, previousLatitudeAngle, config, result9);
+
+        final INSTightlyCoupledKalmanState result10 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, propagationInterval, previousState,
+                kinematics, previousLatitudeAngle, config, result10);
+
+        final INSTightlyCoupledKalmanState result11 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, TIME_INTERVAL_SECONDS, previousState,
+                kinematics, config, result11);
+
+        final INSTightlyCoupledKalmanState result12 = new INSTightlyCoupledKalmanState();
+        estimator.estimate(measurements, propagationInterval, previousState,
+                kinematics, config, result12);
+
+        assertEquals(result1, result2);
+        assertEquals(result1, result3);
+        assertEquals(result1, result4);
+        assertEquals(result1, result7);
+        assertEquals(result1, result8);
+        assertEquals(result1, result9);
+        assertEquals(result1, result10);
+
+        // previous latitude obtained from previous state
+        final INSTightlyCoupledKalmanState expected = new INSTightlyCoupledKalmanState();
+        INSTightlyCoupledKalmanEpochEstimator.estimate(measurements,
+                TIME_INTERVAL_SECONDS, previousState, fx, fy, fz, config, expected);
+
+        assertTrue(expected.equals(result5, ABSOLUTE_ERROR));
+        assertEquals(result5, result6);
+        assertEquals(result5, result11);
+        assertEquals(result5, result12);
+    }
+
+    @Test
+    public void testEstimateReusesResultInstances() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final Scenario scenario = createScenario(randomizer);
+        final INSTightlyCoupledKalmanSequentialEpochEstimator estimator =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator();
+
+        final INSTightlyCoupledKalmanState result = new INSTightlyCoupledKalmanState();
+        estimator.estimate(scenario.mMeasurements, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, scenario.mKinematics, scenario.mPreviousLatitude,
+                scenario.mConfig, result);
+
+        final Matrix covariance = result.getCovariance();
+        final Matrix cbe = result.getBodyToEcefCoordinateTransformationMatrix();
+
+        // estimate again using result as previous state
+        final INSTightlyCoupledKalmanState expected = INSTightlyCoupledKalmanEpochEstimator
+                .estimate(scenario.mMeasurements, TIME_INTERVAL_SECONDS,
+                        new INSTightlyCoupledKalmanState(result), scenario.mKinematics,
+                        scenario.mPreviousLatitude, scenario.mConfig);
+
+        estimator.estimate(scenario.mMeasurements, TIME_INTERVAL_SECONDS,
+                result, scenario.mKinematics, scenario.mPreviousLatitude,
+                scenario.mConfig, result);
+
+        // check that matrices have been reused
+        assertSame(covariance, result.getCovariance());
+        assertSame(cbe, result.getBodyToEcefCoordinateTransformationMatrix());
+        assertTrue(expected.equals(result, ABSOLUTE_ERROR));
+    }
+
+    @Test
+    public void testEstimateUDMatchesJosephForManyEpochs() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final Scenario scenario = createScenario(randomizer);
+
+        final INSTightlyCoupledKalmanSequentialEpochEstimator joseph =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                        INSTightlyCoupledKalmanSequentialUpdateType.JOSEPH);
+        final INSTightlyCoupledKalmanSequentialEpochEstimator ud =
+                new INSTightlyCoupledKalmanSequentialEpochEstimator(
+                        INSTightlyCoupledKalmanSequentialUpdateType.UD);
+
+        final INSTightlyCoupledKalmanState josephState =
+                new INSTightlyCoupledKalmanState(scenario.mPreviousState);
+        final INSTightlyCoupledKalmanState udState =
+                new INSTightlyCoupledKalmanState(scenario.mPreviousState);
+        for (int i = 0; i < TIMES; i++) {
+            joseph.estimate(scenario.mMeasurements, TIME_INTERVAL_SECONDS, josephState,
+                    scenario.mKinematics, scenario.mPreviousLatitude, scenario.mConfig,
+                    josephState);
+            ud.estimate(scenario.mMeasurements, TIME_INTERVAL_SECONDS, udState,
+                    scenario.mKinematics, scenario.mPreviousLatitude, scenario.mConfig,
+                    udState);
+        }
+
+        assertTrue(josephState.equals(udState, ABSOLUTE_ERROR));
+
+        // covariance remains symmetric
+        final Matrix covariance = josephState.getCovariance();
+        assertTrue(covariance.equals(covariance.transposeAndReturnNew(), 0.0));
+    }
+
+    private static void checkMatchesBatchEstimation(
+            final INSTightlyCoupledKalmanSequentialEpochEstimator estimator)
+            throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final Scenario scenario = createScenario(randomizer);
+
+        final INSTightlyCoupledKalmanState expected = new INSTightlyCoupledKalmanState();
+        INSTightlyCoupledKalmanEpochEstimator.estimate(scenario.mMeasurements,
+                TIME_INTERVAL_SECONDS, scenario.mPreviousState, scenario.mKinematics,
+                scenario.mPreviousLatitude, scenario.mConfig, expected);
+
+        final INSTightlyCoupledKalmanState result = new INSTightlyCoupledKalmanState();
+        estimator.estimate(scenario.mMeasurements, TIME_INTERVAL_SECONDS,
+                scenario.mPreviousState, scenario.mKinematics, scenario.mPreviousLatitude,
+                scenario.mConfig, result);
+
+        assertTrue(expected.equals(result, ABSOLUTE_ERROR));
+    }
+
+    private static Scenario createScenario(final UniformRandomizer randomizer)
+            throws AlgebraException {
+        final double userLatitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double userLongitude = Math.toRadians(randomizer.nextDouble(
+                MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double userHeight = randomizer.nextDouble(
+                MIN_HEIGHT_METERS, MAX_HEIGHT_METERS);
+
+        final double userVn = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+        final double userVe = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+        final double userVd = randomizer.nextDouble(MIN_SPEED_VALUE, MAX_SPEED_VALUE);
+
+        final NEDPosition userNedPosition = new NEDPosition(
+                userLatitude, userLongitude, userHeight);
+        final NEDVelocity userNedVelocity = new NEDVelocity(userVn, userVe, userVd);
+
+        final ECEFPosition userEcefPosition = new ECEFPosition();
+        final ECEFVelocity userEcefVelocity = new ECEFVelocity();
+        NEDtoECEFPositionVelocityConverter.convertNEDtoECEF(
+                userNedPosition, userNedVelocity,
+                userEcefPosition, userEcefVelocity);
+
+        final NEDFrame userNedFrame = new NEDFrame(
+                userLatitude, userLongitude, userHeight, userVn, userVe, userVd);
+        final ECEFFrame userEcefFrame = NEDtoECEFFrameConverter
+                .convertNEDtoECEFAndReturnNew(userNedFrame);
+
+        final Point3D userPosition = userEcefFrame.getPosition();
+
+        final int numMeasurements = randomizer.nextInt(MIN_MEASUREMENTS, MAX_MEASUREMENTS);
+
+        final List<GNSSMeasurement> measurements = new ArrayList<>();
+        for (int i = 0; i < numMeasurements; i++) {
+            final double satLatitude = Math.toRadians(randomizer.nextDouble(
+                    MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+            final double satLongitude = Math.toRadians(randomizer.nextDouble(
+                    MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+            final double satHeight = randomizer.nextDouble(
+                    MIN_SAT_HEIGHT_METERS, MAX_SAT_HEIGHT_METERS);
+
+            final double satVn = randomizer.nextDouble(
+                    MIN_SAT_SPEED_VALUE, MAX_SAT_SPEED_VALUE);
+            final double satVe = randomizer.nextDouble(
+                    MIN_SAT_SPEED_VALUE, MAX_SAT_SPEED_VALUE);
+            final double satVd = randomizer.nextDouble(
+                    MIN_SAT_SPEED_VALUE, MAX_SAT_SPEED_VALUE);
+
+            final NEDFrame satNedFrame = new NEDFrame(satLatitude, satLongitude, satHeight,
+                    satVn, satVe, satVd);
+            final ECEFFrame satEcefFrame = NEDtoECEFFrameConverter
+                    .convertNEDtoECEFAndReturnNew(satNedFrame);
+
+            final Point3D satPosition = satEcefFrame.getPosition();
+
+            final double pseudoRange = userPosition.distanceTo(satPosition)
+                    + randomizer.nextDouble(MIN_ERROR_METERS, MAX_ERROR_METERS);
+
+            final double posDiffX = satEcefFrame.getX() - userEcefFrame.getX();
+            final double posDiffY = satEcefFrame.getY() - userEcefFrame.getY();
+            final double posDiffZ = satEcefFrame.getZ() - userEcefFrame.getZ();
+            final double posNorm = Math.sqrt(posDiffX * posDiffX + posDiffY * posDiffY
+                    + posDiffZ * posDiffZ);
+
+            final double pseudoRate = (posDiffX * (satEcefFrame.getVx() - userEcefFrame.getVx())
+                    + posDiffY * (satEcefFrame.getVy() - userEcefFrame.getVy())
+                    + posDiffZ * (satEcefFrame.getVz() - userEcefFrame.getVz())) / posNorm;
+
+            measurements.add(new GNSSMeasurement(pseudoRange, pseudoRate,
+                    satEcefFrame.getX(), satEcefFrame.getY(), satEcefFrame.getZ(),
+                    satEcefFrame.getVx(), satEcefFrame.getVy(), satEcefFrame.getVz()));
+        }
+
+        final double accelerationBiasX = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerationBiasY = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerationBiasZ = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasX = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasY = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasZ = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double receiverClockOffset = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double receiverClockDrift = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+
+        final Matrix covariance = Matrix.identity(INSTightlyCoupledKalmanState.NUM_PARAMS,
+                INSTightlyCoupledKalmanState.NUM_PARAMS);
+
+        final ECEFPosition previousPosition = new ECEFPosition(
+                userEcefPosition.getX() + TIME_INTERVAL_SECONDS * userEcefVelocity.getVx(),
+                userEcefPosition.getY() + TIME_INTERVAL_SECONDS * userEcefVelocity.getVy(),
+                userEcefPosition.getZ() + TIME_INTERVAL_SECONDS * userEcefVelocity.getVz());
+
+        final NEDPosition previousNedPosition = new NEDPosition();
+        final NEDVelocity previousNedVelocity = new NEDVelocity();
+        ECEFtoNEDPositionVelocityConverter.convertECEFtoNED(previousPosition,
+                userEcefVelocity, previousNedPosition, previousNedVelocity);
+
+        final Scenario scenario = new Scenario();
+        scenario.mMeasurements = measurements;
+        scenario.mPreviousLatitude = previousNedPosition.getLatitude();
+        scenario.mPreviousState = new INSTightlyCoupledKalmanState(
+                userEcefFrame.getCoordinateTransformation(),
+                userEcefVelocity, previousPosition,
+                accelerationBiasX, accelerationBiasY, accelerationBiasZ,
+                gyroBiasX, gyroBiasY, gyroBiasZ, receiverClockOffset,
+                receiverClockDrift, covariance);
+
+        final double gyroNoisePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerometerNoisePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double accelerometerBiasPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double gyroBiasPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double clockFrequencyPSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double clockPhasePSD = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        final double pseudoRangeSD = randomizer.nextDouble(
+                MIN_PSEUDO_RANGE_SD, MAX_PSEUDO_RANGE_SD);
+        final double rangeRateSD = randomizer.nextDouble(
+                MIN_RANGE_RATE_SD, MAX_RANGE_RATE_SD);
+        scenario.mConfig = new INSTightlyCoupledKalmanConfig(
+                gyroNoisePSD, accelerometerNoisePSD, accelerometerBiasPSD,
+                gyroBiasPSD, clockFrequencyPSD, clockPhasePSD, pseudoRangeSD,
+                rangeRateSD);
+
+        scenario.mKinematics = new BodyKinematics(
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                0.0, 0.0, 0.0);
+
+        return scenario;
+    }
+
+    private static class Scenario {
+        private List<GNSSMeasurement> mMeasurements;
+        private INSTightlyCoupledKalmanState mPreviousState;
+        private double mPreviousLatitude;
+        private INSTightlyCoupledKalmanConfig mConfig;
+        private BodyKinematics mKinematics;
+    }
+}
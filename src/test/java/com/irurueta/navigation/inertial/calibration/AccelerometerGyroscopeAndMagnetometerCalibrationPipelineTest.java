@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.navigation.LockedException;
+import com.irurueta.navigation.NotReadyException;
+import com.irurueta.navigation.inertial.calibration.accelerometer.RobustKnownGravityNormAccelerometerCalibrator;
+import com.irurueta.navigation.inertial.calibration.gyroscope.RobustEasyGyroscopeCalibrator;
+import com.irurueta.navigation.inertial.calibration.magnetometer.RobustKnownPositionAndInstantMagnetometerCalibrator;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AccelerometerGyroscopeAndMagnetometerCalibrationPipelineTest {
+
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @Test
+    public void testConstructor() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final RobustKnownGravityNormAccelerometerCalibrator accelerometerCalibrator =
+                    mock(RobustKnownGravityNormAccelerometerCalibrator.class);
+            final RobustEasyGyroscopeCalibrator gyroscopeCalibrator =
+                    mock(RobustEasyGyroscopeCalibrator.class);
+            final RobustKnownPositionAndInstantMagnetometerCalibrator magnetometerCalibrator =
+                    mock(RobustKnownPositionAndInstantMagnetometerCalibrator.class);
+            when(accelerometerCalibrator.getMinimumRequiredMeasurements()).thenReturn(10);
+            when(gyroscopeCalibrator.getMinimumRequiredSequences()).thenReturn(7);
+            when(magnetometerCalibrator.getMinimumRequiredMeasurements()).thenReturn(4);
+
+            final AccelerometerGyroscopeAndMagnetometerCalibrationPipeline pipeline =
+                    new AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+                            executor, accelerometerCalibrator, gyroscopeCalibrator,
+                            magnetometerCalibrator);
+
+            assertNotNull(pipeline.getGenerator());
+            assertSame(accelerometerCalibrator, pipeline.getAccelerometerCalibrator());
+            assertSame(gyroscopeCalibrator, pipeline.getGyroscopeCalibrator());
+            assertSame(magnetometerCalibrator, pipeline.getMagnetometerCalibrator());
+            assertEquals(AccelerometerGyroscopeAndMagnetometerCalibrationPipeline
+                    .DEFAULT_REDUNDANCY_FACTOR * 10,
+                    pipeline.getRequiredAccelerometerMeasurements());
+            assertEquals(AccelerometerGyroscopeAndMagnetometerCalibrationPipeline
+                    .DEFAULT_REDUNDANCY_FACTOR * 7,
+                    pipeline.getRequiredGyroscopeSequences());
+            assertEquals(AccelerometerGyroscopeAndMagnetometerCalibrationPipeline
+                    .DEFAULT_REDUNDANCY_FACTOR * 4,
+                    pipeline.getRequiredMagnetometerMeasurements());
+
+            // default values follow changes on calibrators minimum values
+            when(accelerometerCalibrator.getMinimumRequiredMeasurements()).thenReturn(13);
+            assertEquals(AccelerometerGyroscopeAndMagnetometerCalibrationPipeline
+                    .DEFAULT_REDUNDANCY_FACTOR * 13,
+                    pipeline.getRequiredAccelerometerMeasurements());
+            assertEquals(0, pipeline.getAccelerometerMeasurementsCount());
+            assertEquals(0, pipeline.getGyroscopeSequencesCount());
+            assertEquals(0, pipeline.getMagnetometerMeasurementsCount());
+            assertFalse(pipeline.getAccelerometerFuture().isDone());
+            assertFalse(pipeline.getGyroscopeFuture().isDone());
+            assertFalse(pipeline.getMagnetometerFuture().isDone());
+
+            // force IllegalArgumentException
+            try {
+                new AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+                        null, accelerometerCalibrator, gyroscopeCalibrator,
+                        magnetometerCalibrator);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+            try {
+                new AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+                        executor, null, gyroscopeCalibrator,
+                        magnetometerCalibrator);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetSetRequiredMeasurements() throws LockedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final RobustKnownGravityNormAccelerometerCalibrator accelerometerCalibrator =
+                    mock(RobustKnownGravityNormAccelerometerCalibrator.class);
+            final RobustEasyGyroscopeCalibrator gyroscopeCalibrator =
+                    mock(RobustEasyGyroscopeCalibrator.class);
+            final RobustKnownPositionAndInstantMagnetometerCalibrator magnetometerCalibrator =
+                    mock(RobustKnownPositionAndInstantMagnetometerCalibrator.class);
+            when(accelerometerCalibrator.getMinimumRequiredMeasurements()).thenReturn(10);
+            when(gyroscopeCalibrator.getMinimumRequiredSequences()).thenReturn(7);
+            when(magnetometerCalibrator.getMinimumRequiredMeasurements()).thenReturn(4);
+
+            final AccelerometerGyroscopeAndMagnetometerCalibrationPipeline pipeline =
+                    new AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+                            executor, accelerometerCalibrator, gyroscopeCalibrator,
+                            magnetometerCalibrator);
+
+            pipeline.setRequiredAccelerometerMeasurements(20);
+            pipeline.setRequiredGyroscopeSequences(30);
+            pipeline.setRequiredMagnetometerMeasurements(40);
+
+            assertEquals(20, pipeline.getRequiredAccelerometerMeasurements());
+            assertEquals(30, pipeline.getRequiredGyroscopeSequences());
+            assertEquals(40, pipeline.getRequiredMagnetometerMeasurements());
+
+            // force IllegalArgumentException
+            try {
+                pipeline.setRequiredAccelerometerMeasurements(9);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+            try {
+                pipeline.setRequiredGyroscopeSequences(6);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+            try {
+                pipeline.setRequiredMagnetometerMeasurements(3);
+                fail("IllegalArgumentException expected but not thrown");
+            } catch (final IllegalArgumentException ignore) {
+            }
+
+            // once started, values cannot be modified
+            pipeline.finish();
+            try {
+                pipeline.setRequiredAccelerometerMeasurements(20);
+                fail("LockedException expected but not thrown");
+            } catch (final LockedException ignore) {
+            }
+            try {
+                pipeline.setRequiredGyroscopeSequences(30);
+                fail("LockedException expected but not thrown");
+            } catch (final LockedException ignore) {
+            }
+            try {
+                pipeline.setRequiredMagnetometerMeasurements(40);
+                fail("LockedException expected but not thrown");
+            } catch (final LockedException ignore) {
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFinishPassesAccelerometerResultToGyroscope() throws Exception {
+        // a single thread must be enough to run all calibrations
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final RobustKnownGravityNormAccelerometerCalibrator accelerometerCalibrator =
+                    mock(RobustKnownGravityNormAccelerometerCalibrator.class);
+            final RobustEasyGyroscopeCalibrator gyroscopeCalibrator =
+                    mock(RobustEasyGyroscopeCalibrator.class);
+            final RobustKnownPositionAndInstantMagnetometerCalibrator magnetometerCalibrator =
+                    mock(RobustKnownPositionAndInstantMagnetometerCalibrator.class);
+
+            final double[] biases = new double[]{1.0, 2.0, 3.0};
+            final Matrix ma = Matrix.identity(3, 3);
+            when(accelerometerCalibrator.getEstimatedBiases()).thenReturn(biases);
+            when(accelerometerCalibrator.getEstimatedMa()).thenReturn(ma);
+
+            final AccelerometerGyroscopeAndMagnetometerCalibrationPipeline pipeline =
+                    new AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+                            executor, accelerometerCalibrator, gyroscopeCalibrator,
+                            magnetometerCalibrator);
+
+            pipeline.finish();
+
+            assertSame(accelerometerCalibrator, pipeline.getAccelerometerFuture()
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertSame(gyroscopeCalibrator, pipeline.getGyroscopeFuture()
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertSame(magnetometerCalibrator, pipeline.getMagnetometerFuture()
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            verify(accelerometerCalibrator, times(1)).calibrate();
+            verify(gyroscopeCalibrator, times(1)).setAccelerometerBias(biases);
+            verify(gyroscopeCalibrator, times(1)).setAccelerometerMa(ma);
+            verify(gyroscopeCalibrator, times(1)).calibrate();
+            verify(magnetometerCalibrator, times(1)).calibrate();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAccelerometerFailureIsPropagatedToGyroscope()
+            throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final RobustKnownGravityNormAccelerometerCalibrator accelerometerCalibrator =
+                    mock(RobustKnownGravityNormAccelerometerCalibrator.class);
+            final RobustEasyGyroscopeCalibrator gyroscopeCalibrator =
+                    mock(RobustEasyGyroscopeCalibrator.class);
+            final RobustKnownPositionAndInstantMagnetometerCalibrator magnetometerCalibrator =
+                    mock(RobustKnownPositionAndInstantMagnetometerCalibrator.class);
+            doThrow(new NotReadyException()).when(accelerometerCalibrator).calibrate();
+
+            final AccelerometerGyroscopeAndMagnetometerCalibrationPipeline pipeline =
+                    new AccelerometerGyroscopeAndMagnetometerCalibrationPipeline(
+                            executor, accelerometerCalibrator, gyroscopeCalibrator,
+                            magnetometerCalibrator);
+
+            pipeline.finish();
+
+            try {
+                pipeline.getAccelerometerFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                fail("ExecutionException expected but not thrown");
+            } catch (final ExecutionException e) {
+                assertTrue(e.getCause() instanceof NotReadyException);
+            }
+            try {
+                pipeline.getGyroscopeFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                fail("ExecutionException expected but not thrown");
+            } catch (final ExecutionException ignore) {
+            }
+
+            verify(gyroscopeCalibrator, never()).calibrate();
+
+            // magnetometer calibration is independent of accelerometer failure
+            assertSame(magnetometerCalibrator, pipeline.getMagnetometerFuture()
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (final TimeoutException e) {
+            fail("calibrations did not complete");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.statistics.GaussianRandomizer;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IMURandomWalkEstimatorTest {
+
+    private static final double TIME_INTERVAL_SECONDS = 0.01;
+
+    private static final double ACCELEROMETER_NOISE_STD = 1e-2;
+    private static final double GYRO_NOISE_STD = 1e-3;
+
+    private static final double GRAVITY = 9.81;
+
+    private static final double RATE_RANDOM_WALK = 1e-4;
+
+    private static final int MIN_SAMPLES = 1000;
+    private static final int MAX_SAMPLES = 5000;
+
+    private static final int NOISE_SAMPLES = 100000;
+
+    private static final double ABSOLUTE_ERROR = 1e-9;
+
+    private static final double RELATIVE_ERROR = 0.1;
+
+    private static final int TIMES = 20;
+
+    @Test
+    public void testConstructor() {
+        // test empty constructor
+        IMURandomWalkEstimator estimator = new IMURandomWalkEstimator();
+
+        // check default values
+        assertEquals(estimator.getTimeInterval(),
+                IMURandomWalkEstimator.DEFAULT_TIME_INTERVAL_SECONDS, 0.0);
+        final Time time1 = estimator.getTimeIntervalAsTime();
+        assertEquals(time1.getValue().doubleValue(),
+                IMURandomWalkEstimator.DEFAULT_TIME_INTERVAL_SECONDS, 0.0);
+        assertEquals(time1.getUnit(), TimeUnit.SECOND);
+        final Time time2 = new Time(1.0, TimeUnit.HOUR);
+        estimator.getTimeIntervalAsTime(time2);
+        assertEquals(time1, time2);
+        assertEquals(estimator.getMaxOverlappingClusterLevel(),
+                IMURandomWalkEstimator.DEFAULT_MAX_OVERLAPPING_CLUSTER_LEVEL);
+        assertEquals(estimator.getNumberOfProcessedSamples(), 0);
+        assertEquals(estimator.getNumberOfAveragingTimes(), 0);
+        assertFalse(estimator.isReady());
+        assertEquals(estimator.getAveragingTimes().length, 0);
+        assertEquals(estimator.getSpecificForceXAllanVariances().length, 0);
+        assertEquals(estimator.getAngularRateZAllanVariances().length, 0);
+        assertEquals(estimator.getVelocityRandomWalkX(), 0.0, 0.0);
+        assertEquals(estimator.getAngleRandomWalkX(), 0.0, 0.0);
+        assertEquals(estimator.getAccelerometerBiasInstabilityX(), 0.0, 0.0);
+        assertEquals(estimator.getGyroBiasInstabilityX(), 0.0, 0.0);
+        assertEquals(estimator.getAccelerationRandomWalkX(), 0.0, 0.0);
+        assertEquals(estimator.getRateRandomWalkX(), 0.0, 0.0);
+
+        // test constructor with time interval
+        estimator = new IMURandomWalkEstimator(TIME_INTERVAL_SECONDS);
+
+        // check
+        assertEquals(estimator.getTimeInterval(), TIME_INTERVAL_SECONDS, 0.0);
+
+        // Force IllegalArgumentException
+        estimator = null;
+        try {
+            estimator = new IMURandomWalkEstimator(0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        assertNull(estimator);
+    }
+
+    @Test
+    public void testGetSetTimeInterval() {
+        final IMURandomWalkEstimator estimator = new IMURandomWalkEstimator();
+
+        // check default value
+        assertEquals(estimator.getTimeInterval(),
+                IMURandomWalkEstimator.DEFAULT_TIME_INTERVAL_SECONDS, 0.0);
+
+        // set new value
+        estimator.setTimeInterval(1.0);
+
+        // check
+        assertEquals(estimator.getTimeInterval(), 1.0, 0.0);
+
+        // set new value
+        estimator.setTimeInterval(new Time(10.0, TimeUnit.MILLISECOND));
+
+        // check
+        assertEquals(estimator.getTimeInterval(), 0.01, ABSOLUTE_ERROR);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setTimeInterval(-1.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetMaxOverlappingClusterLevel() {
+        final IMURandomWalkEstimator estimator = new IMURandomWalkEstimator();
+
+        // check default value
+        assertEquals(estimator.getMaxOverlappingClusterLevel(),
+                IMURandomWalkEstimator.DEFAULT_MAX_OVERLAPPING_CLUSTER_LEVEL);
+
+        estimator.addBodyKinematics(new BodyKinematics());
+        assertEquals(estimator.getNumberOfProcessedSamples(), 1);
+
+        // set new value
+        estimator.setMaxOverlappingClusterLevel(2);
+
+        // check
+        assertEquals(estimator.getMaxOverlappingClusterLevel(), 2);
+        assertEquals(estimator.getNumberOfProcessedSamples(), 0);
+
+        // Force IllegalArgumentException
+        try {
+            estimator.setMaxOverlappingClusterLevel(
+                    IMURandomWalkEstimator.MIN_OVERLAPPING_CLUSTER_LEVEL - 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            estimator.setMaxOverlappingClusterLevel(
+                    IMURandomWalkEstimator.MAX_OVERLAPPING_CLUSTER_LEVEL + 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testAllanVariancesMatchDirectComputation() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+            final GaussianRandomizer noiseRandomizer = new GaussianRandomizer(
+                    new Random(), 0.0, ACCELEROMETER_NOISE_STD);
+
+            final int numSamples = randomizer.nextInt(MIN_SAMPLES, MAX_SAMPLES);
+            final int maxOverlappingLevel = randomizer.nextInt(0, 5);
+
+            final IMURandomWalkEstimator estimator =
+                    new IMURandomWalkEstimator(TIME_INTERVAL_SECONDS);
+            estimator.setMaxOverlappingClusterLevel(maxOverlappingLevel);
+
+            final double[] values = new double[numSamples];
+            for (int i = 0; i < numSamples; i++) {
+                values[i] = GRAVITY + noiseRandomizer.nextDouble();
+
+                final BodyKinematics kinematics = new BodyKinematics(
+                        0.0, 0.0, values[i], 0.0, 0.0, values[i]);
+                if (i % 2 == 0) {
+                    estimator.addBodyKinematics(kinematics);
+                } else {
+                    estimator.addTimedBodyKinematics(
+                            new TimedBodyKinematics(kinematics, i * TIME_INTERVAL_SECONDS));
+                }
+            }
+
+            // check
+            assertEquals(estimator.getNumberOfProcessedSamples(), numSamples);
+            assertTrue(estimator.isReady());
+
+            int numLevels = 0;
+            while (2 * (1 << numLevels) <= numSamples) {
+                numLevels++;
+            }
+            assertEquals(estimator.getNumberOfAveragingTimes(), numLevels);
+
+            final double[] averagingTimes = estimator.getAveragingTimes();
+            final double[] variancesFx = estimator.getSpecificForceXAllanVariances();
+            final double[] variancesFz = estimator.getSpecificForceZAllanVariances();
+            final double[] variancesWz = estimator.getAngularRateZAllanVariances();
+            assertEquals(averagingTimes.length, numLevels);
+            assertEquals(variancesFz.length, numLevels);
+            for (int l = 0; l < numLevels; l++) {
+                final int m = 1 << l;
+                assertEquals(averagingTimes[l], m * TIME_INTERVAL_SECONDS, ABSOLUTE_ERROR);
+
+                final double expected = l <= maxOverlappingLevel ?
+                        overlappingAllanVariance(values, m) :
+                        nonOverlappingAllanVariance(values, m);
+                assertEquals(variancesFx[l], 0.0, 0.0);
+                assertEquals(variancesFz[l], expected, ABSOLUTE_ERROR);
+                assertEquals(variancesWz[l], expected, ABSOLUTE_ERROR);
+            }
+
+            // reset
+            estimator.reset();
+
+            assertEquals(estimator.getNumberOfProcessedSamples(), 0);
+            assertEquals(estimator.getNumberOfAveragingTimes(), 0);
+            assertFalse(estimator.isReady());
+        }
+    }
+
+    @Test
+    public void testWhiteNoise() {
+        final GaussianRandomizer accelerometerRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, ACCELEROMETER_NOISE_STD);
+        final GaussianRandomizer gyroRandomizer = new GaussianRandomizer(
+                new Random(), 0.0, GYRO_NOISE_STD);
+
+        final IMURandomWalkEstimator estimator =
+                new IMURandomWalkEstimator(TIME_INTERVAL_SECONDS);
+        for (int i = 0; i < NOISE_SAMPLES; i++) {
+            estimator.addBodyKinematics(
+                    accelerometerRandomizer.nextDouble(),
+                    accelerometerRandomizer.nextDouble(),
+                    GRAVITY + accelerometerRandomizer.nextDouble(),
+                    gyroRandomizer.nextDouble(),
+                    gyroRandomizer.nextDouble(),
+                    gyroRandomizer.nextDouble());
+        }
+
+        // white noise of standard deviation sigma sampled every dt seconds has
+        // random walk sigma * sqrt(dt)
+        final double vrw = ACCELEROMETER_NOISE_STD * Math.sqrt(TIME_INTERVAL_SECONDS);
+        final double arw = GYRO_NOISE_STD * Math.sqrt(TIME_INTERVAL_SECONDS);
+
+        assertTrue(estimator.isReady());
+        assertEquals(estimator.getVelocityRandomWalkX(), vrw, RELATIVE_ERROR * vrw);
+        assertEquals(estimator.getVelocityRandomWalkY(), vrw, RELATIVE_ERROR * vrw);
+        assertEquals(estimator.getVelocityRandomWalkZ(), vrw, RELATIVE_ERROR * vrw);
+        assertEquals(estimator.getAngleRandomWalkX(), arw, RELATIVE_ERROR * arw);
+        assertEquals(estimator.getAngleRandomWalkY(), arw, RELATIVE_ERROR * arw);
+        assertEquals(estimator.getAngleRandomWalkZ(), arw, RELATIVE_ERROR * arw);
+
+        // bias instability is bounded by allan deviation at shortest averaging time
+        assertTrue(estimator.getAccelerometerBiasInstabilityX() > 0.0);
+        assertTrue(estimator.getAccelerometerBiasInstabilityY() > 0.0);
+        assertTrue(estimator.getAccelerometerBiasInstabilityZ() > 0.0);
+        assertTrue(estimator.getGyroBiasInstabilityX() > 0.0);
+        assertTrue(estimator.getGyroBiasInstabilityY() > 0.0);
+        assertTrue(estimator.getGyroBiasInstabilityZ() > 0.0);
+        assertTrue(estimator.getAccelerometerBiasInstabilityX() <
+                ACCELEROMETER_NOISE_STD / Math.sqrt(2.0 * Math.log(2.0) / Math.PI));
+        assertTrue(estimator.getGyroBiasInstabilityX() <
+                GYRO_NOISE_STD / Math.sqrt(2.0 * Math.log(2.0) / Math.PI));
+
+        assertTrue(estimator.getAccelerationRandomWalkX() > 0.0);
+        assertTrue(estimator.getAccelerationRandomWalkY() > 0.0);
+        assertTrue(estimator.getAccelerationRandomWalkZ() > 0.0);
+        assertTrue(estimator.getRateRandomWalkX() > 0.0);
+        assertTrue(estimator.getRateRandomWalkY() > 0.0);
+        assertTrue(estimator.getRateRandomWalkZ() > 0.0);
+    }
+
+    @Test
+    public void testRateRandomWalk() {
+        final GaussianRandomizer randomizer = new GaussianRandomizer(
+                new Random(), 0.0, 1.0);
+
+        final IMURandomWalkEstimator estimator =
+                new IMURandomWalkEstimator(TIME_INTERVAL_SECONDS);
+
+        // bias following a random walk
+        final double step = RATE_RANDOM_WALK * Math.sqrt(TIME_INTERVAL_SECONDS);
+        double bias = 0.0;
+        for (int i = 0; i < NOISE_SAMPLES; i++) {
+            bias += step * randomizer.nextDouble();
+            estimator.addBodyKinematics(bias, bias, bias, bias, bias, bias);
+        }
+
+        assertTrue(estimator.isReady());
+        assertTrue(estimator.getRateRandomWalkX() > RATE_RANDOM_WALK / 3.0);
+        assertTrue(estimator.getRateRandomWalkX() < 3.0 * RATE_RANDOM_WALK);
+        assertTrue(estimator.getAccelerationRandomWalkX() > RATE_RANDOM_WALK / 3.0);
+        assertTrue(estimator.getAccelerationRandomWalkX() < 3.0 * RATE_RANDOM_WALK);
+    }
+
+    private static double overlappingAllanVariance(final double[] values, final int m) {
+        final int n = values.length;
+        double sum = 0.0;
+        int count = 0;
+        for (int k = 0; k + 2 * m <= n; k++) {
+            final double diff = clusterAverage(values, k + m, m) -
+                    clusterAverage(values, k, m);
+            sum += diff * diff;
+            count++;
+        }
+        return sum / (2.0 * count);
+    }
+
+    private static double nonOverlappingAllanVariance(final double[] values, final int m) {
+        final int numClusters = values.length / m;
+        double sum = 0.0;
+        for (int k = 0; k < numClusters - 1; k++) {
+            final double diff = clusterAverage(values, (k + 1) * m, m) -
+                    clusterAverage(values, k * m, m);
+            sum += diff * diff;
+        }
+        return sum / (2.0 * (numClusters - 1));
+    }
+
+    private static double clusterAverage(final double[] values, final int start,
+                                         final int m) {
+        double sum = 0.0;
+        for (int i = start; i < start + m; i++) {
+            sum += values[i];
+        }
+        return sum / m;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import com.irurueta.algebra.SingularMatrixException;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NormalEquationsAccumulatorTest {
+
+    private static final int UNKNOWNS = 4;
+
+    private static final int EQUATIONS = 50;
+
+    private static final double MIN_VALUE = -10.0;
+    private static final double MAX_VALUE = 10.0;
+
+    private static final double ABSOLUTE_ERROR = 1e-8;
+
+    @Test
+    public void testConstructor() {
+        final NormalEquationsAccumulator accumulator =
+                new NormalEquationsAccumulator(UNKNOWNS);
+
+        assertEquals(UNKNOWNS, accumulator.getUnknowns());
+        assertEquals(0, accumulator.getNumberOfEquations());
+        assertEquals(0.0, accumulator.getSquaredNormB(), 0.0);
+
+        // force IllegalArgumentException
+        try {
+            new NormalEquationsAccumulator(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testSolve() throws SingularMatrixException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final double[] x = new double[UNKNOWNS];
+        randomizer.fill(x, MIN_VALUE, MAX_VALUE);
+
+        final NormalEquationsAccumulator accumulator =
+                new NormalEquationsAccumulator(UNKNOWNS);
+
+        // force SingularMatrixException
+        final double[] result = new double[UNKNOWNS];
+        try {
+            accumulator.solve(result);
+            fail("SingularMatrixException expected but not thrown");
+        } catch (final SingularMatrixException ignore) {
+        }
+
+        final double[] a = new double[UNKNOWNS];
+        for (int i = 0; i < EQUATIONS; i++) {
+            randomizer.fill(a, MIN_VALUE, MAX_VALUE);
+            // scale last unknown to check that scaling is handled
+            a[UNKNOWNS - 1] *= 1e-3;
+
+            double b = 0.0;
+            for (int j = 0; j < UNKNOWNS; j++) {
+                b += a[j] * x[j];
+            }
+            accumulator.add(a, b);
+        }
+
+        assertEquals(EQUATIONS, accumulator.getNumberOfEquations());
+
+        accumulator.solve(result);
+        assertArrayEquals(x, result, ABSOLUTE_ERROR);
+
+        // add and remove an outlier
+        randomizer.fill(a, MIN_VALUE, MAX_VALUE);
+        accumulator.add(a, 1e3);
+        assertEquals(EQUATIONS + 1, accumulator.getNumberOfEquations());
+
+        accumulator.remove(a, 1e3);
+        assertEquals(EQUATIONS, accumulator.getNumberOfEquations());
+
+        accumulator.solve(result);
+        assertArrayEquals(x, result, ABSOLUTE_ERROR);
+
+        // force IllegalArgumentException
+        try {
+            accumulator.add(new double[1], 0.0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            accumulator.solve(new double[1]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+
+        accumulator.reset();
+        assertEquals(0, accumulator.getNumberOfEquations());
+        assertEquals(0.0, accumulator.getSquaredNormB(), 0.0);
+
+        // force IllegalStateException
+        try {
+            accumulator.remove(a, 0.0);
+            fail("IllegalStateException expected but not thrown");
+        } catch (final IllegalStateException ignore) {
+        }
+    }
+
+    @Test
+    public void testSolveSubset() throws SingularMatrixException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        // last unknown is zero, so that it can be removed from the problem
+        final double[] x = new double[UNKNOWNS];
+        randomizer.fill(x, MIN_VALUE, MAX_VALUE);
+        x[UNKNOWNS - 1] = 0.0;
+
+        final NormalEquationsAccumulator accumulator =
+                new NormalEquationsAccumulator(UNKNOWNS);
+
+        final double[] a = new double[UNKNOWNS];
+        for (int i = 0; i < EQUATIONS; i++) {
+            randomizer.fill(a, MIN_VALUE, MAX_VALUE);
+
+            double b = 0.0;
+            for (int j = 0; j < UNKNOWNS; j++) {
+                b += a[j] * x[j];
+            }
+            accumulator.add(a, b);
+        }
+
+        final int[] indices = new int[UNKNOWNS - 1];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        final double[] result = new double[UNKNOWNS - 1];
+        accumulator.solve(indices, result);
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(x[i], result[i], ABSOLUTE_ERROR);
+        }
+
+        // Force IllegalArgumentException
+        try {
+            accumulator.solve(new int[]{1, 0}, new double[2]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            accumulator.solve(new int[]{0, 0}, new double[2]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            accumulator.solve(new int[]{-1, 0}, new double[2]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            accumulator.solve(new int[]{0, UNKNOWNS}, new double[2]);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration;
+
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+public class ParallelResidualEvaluatorTest {
+
+    private static final int TOTAL_SAMPLES = 1000;
+
+    private static final int PARALLELISM = 4;
+
+    private static final double MIN_VALUE = -10.0;
+    private static final double MAX_VALUE = 10.0;
+
+    @Test
+    public void testConstructor() {
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(new SquaredDifferenceListener(
+                        new double[TOTAL_SAMPLES]));
+
+        // check default values
+        assertEquals(evaluator.getParallelism(),
+                ParallelResidualEvaluator.DEFAULT_PARALLELISM);
+
+        // Force IllegalArgumentException
+        try {
+            new ParallelResidualEvaluator<double[]>(null);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetParallelism() {
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(new SquaredDifferenceListener(
+                        new double[TOTAL_SAMPLES]));
+
+        // check default value
+        assertEquals(evaluator.getParallelism(), 1);
+
+        // set new value
+        evaluator.setParallelism(PARALLELISM);
+
+        // check
+        assertEquals(evaluator.getParallelism(), PARALLELISM);
+
+        // Force IllegalArgumentException
+        try {
+            evaluator.setParallelism(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testEvaluateMatchesSingleThread() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final double[] samples = new double[TOTAL_SAMPLES];
+        for (int i = 0; i < TOTAL_SAMPLES; i++) {
+            samples[i] = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+        }
+
+        final SquaredDifferenceListener listener =
+                new SquaredDifferenceListener(samples);
+        final ParallelResidualEvaluator<double[]> serial =
+                new ParallelResidualEvaluator<>(listener);
+        final ParallelResidualEvaluator<double[]> parallel =
+                new ParallelResidualEvaluator<>(listener);
+        parallel.setParallelism(PARALLELISM);
+
+        final double[] estimation1 = new double[]{
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE)};
+        final double[] estimation2 = new double[]{
+                randomizer.nextDouble(MIN_VALUE, MAX_VALUE)};
+
+        for (int i = 0; i < TOTAL_SAMPLES; i++) {
+            assertEquals(serial.evaluate(estimation1, i, TOTAL_SAMPLES),
+                    parallel.evaluate(estimation1, i, TOTAL_SAMPLES), 0.0);
+        }
+
+        // residuals of a new estimation are computed again
+        for (int i = TOTAL_SAMPLES - 1; i >= 0; i--) {
+            assertEquals(serial.evaluate(estimation2, i, TOTAL_SAMPLES),
+                    parallel.evaluate(estimation2, i, TOTAL_SAMPLES), 0.0);
+        }
+    }
+
+    @Test
+    public void testEvaluateComputesEachResidualOncePerEstimation() {
+        final double[] samples = new double[TOTAL_SAMPLES];
+        final SquaredDifferenceListener listener =
+                new SquaredDifferenceListener(samples);
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(listener);
+        evaluator.setParallelism(PARALLELISM);
+
+        final double[] estimation = new double[]{1.0};
+        for (int i = 0; i < TOTAL_SAMPLES; i++) {
+            assertEquals(evaluator.evaluate(estimation, i, TOTAL_SAMPLES),
+                    1.0, 0.0);
+        }
+        assertEquals(listener.mCount.get(), TOTAL_SAMPLES);
+
+        // after reset, residuals are computed again
+        evaluator.reset();
+        assertEquals(evaluator.evaluate(estimation, 0, TOTAL_SAMPLES),
+                1.0, 0.0);
+        assertEquals(listener.mCount.get(), 2 * TOTAL_SAMPLES);
+
+        // after reset, modified values of the same estimation instance are
+        // taken into account
+        estimation[0] = 2.0;
+        evaluator.reset();
+        assertEquals(evaluator.evaluate(estimation, 0, TOTAL_SAMPLES),
+                4.0, 0.0);
+        assertEquals(listener.mCount.get(), 3 * TOTAL_SAMPLES);
+        estimation[0] = 1.0;
+
+        // on a single thread, residuals are computed on demand
+        evaluator.setParallelism(1);
+        assertEquals(evaluator.evaluate(estimation, 0, TOTAL_SAMPLES),
+                1.0, 0.0);
+        assertEquals(listener.mCount.get(), 3 * TOTAL_SAMPLES + 1);
+    }
+
+    @Test
+    public void testEvaluateAssignsEachBlockToSingleWorker() {
+        final AtomicIntegerArray workers = new AtomicIntegerArray(TOTAL_SAMPLES);
+        final AtomicIntegerArray activeWorkers = new AtomicIntegerArray(PARALLELISM);
+        final AtomicInteger overlaps = new AtomicInteger();
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(
+                        new ParallelResidualEvaluatorListener<double[]>() {
+                            @Override
+                            public double computeResidual(
+                                    final double[] estimation, final int i,
+                                    final int worker) {
+                                if (activeWorkers.getAndIncrement(worker) != 0) {
+                                    overlaps.incrementAndGet();
+                                }
+                                workers.set(i, worker);
+                                activeWorkers.decrementAndGet(worker);
+                                return 0.0;
+                            }
+                        });
+        evaluator.setParallelism(PARALLELISM);
+
+        evaluator.evaluate(new double[1], 0, TOTAL_SAMPLES);
+
+        // residuals of a worker are never computed concurrently
+        assertEquals(overlaps.get(), 0);
+
+        // first block is evaluated by the calling thread (worker 0) and
+        // workers increase along contiguous blocks
+        final int blockSize = TOTAL_SAMPLES / PARALLELISM;
+        for (int i = 0; i < TOTAL_SAMPLES; i++) {
+            assertEquals(workers.get(i), i / blockSize);
+        }
+
+        // on a single thread, all residuals are computed by worker 0
+        evaluator.setParallelism(1);
+        evaluator.evaluate(new double[1], TOTAL_SAMPLES - 1, TOTAL_SAMPLES);
+        assertEquals(workers.get(TOTAL_SAMPLES - 1), 0);
+    }
+
+    @Test
+    public void testClose() {
+        final double[] samples = new double[TOTAL_SAMPLES];
+        final SquaredDifferenceListener listener =
+                new SquaredDifferenceListener(samples);
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(listener);
+
+        // closing an evaluator that has no worker threads has no effect
+        evaluator.close();
+
+        evaluator.setParallelism(PARALLELISM);
+        final double[] estimation = new double[]{1.0};
+        assertEquals(evaluator.evaluate(estimation, 0, TOTAL_SAMPLES),
+                1.0, 0.0);
+
+        // after closing, evaluator can still be used
+        evaluator.close();
+        evaluator.reset();
+        assertEquals(evaluator.evaluate(estimation, TOTAL_SAMPLES - 1,
+                TOTAL_SAMPLES), 1.0, 0.0);
+        assertEquals(listener.mCount.get(), 2 * TOTAL_SAMPLES);
+
+        evaluator.close();
+    }
+
+    @Test
+    public void testEvaluateWithFewSamples() {
+        final double[] samples = new double[]{1.0, 2.0, 3.0};
+        final SquaredDifferenceListener listener =
+                new SquaredDifferenceListener(samples);
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(listener);
+        evaluator.setParallelism(PARALLELISM);
+
+        final double[] estimation = new double[]{0.0};
+        assertEquals(evaluator.evaluate(estimation, 2, samples.length),
+                9.0, 0.0);
+        assertEquals(listener.mCount.get(), 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEvaluateRethrowsListenerException() {
+        final ParallelResidualEvaluator<double[]> evaluator =
+                new ParallelResidualEvaluator<>(
+                        new ParallelResidualEvaluatorListener<double[]>() {
+                            @Override
+                            public double computeResidual(
+                                    final double[] estimation, final int i,
+                                    final int worker) {
+                                if (i == TOTAL_SAMPLES - 1) {
+                                    throw new IllegalStateException();
+                                }
+                                return 0.0;
+                            }
+                        });
+        evaluator.setParallelism(PARALLELISM);
+
+        evaluator.evaluate(new double[1], 0, TOTAL_SAMPLES);
+    }
+
+    private static class SquaredDifferenceListener
+            implements ParallelResidualEvaluatorListener<double[]> {
+
+        private final double[] mSamples;
+
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        SquaredDifferenceListener(final double[] samples) {
+            mSamples = samples;
+        }
+
+        @Override
+        public double computeResidual(final double[] estimation, final int i,
+                                      final int worker) {
+            mCount.incrementAndGet();
+            final double diff = mSamples[i] - estimation[0];
+            return diff * diff;
+        }
+    }
+}
@@ -501,6 +501,143 @@ public class KnownFrameAccelerometerLinearLeastSquaresCalibratorTest implements
         assertEstimatedResult(estimatedBa, estimatedMa, calibrator);
     }
 
+    @Test
+    public void testCalibrateAccumulatedMultipleOrientationsForGeneralAndCommonAxisCases()
+            throws WrongSizeException, InvalidSourceAndDestinationFrameTypeException,
+            LockedException, CalibrationException, NotReadyException {
+
+        final Matrix ba = generateBa();
+        final Matrix bg = generateBg();
+        final Matrix ma = generateMaCommonAxis();
+        final Matrix mg = generateMg();
+        final Matrix gg = generateGg();
+        final double accelNoiseRootPSD = 0.0;
+        final double gyroNoiseRootPSD = 0.0;
+        final double accelQuantLevel = 0.0;
+        final double gyroQuantLevel = 0.0;
+
+        final IMUErrors errors = new IMUErrors(ba, bg, ma, mg, gg, accelNoiseRootPSD,
+                gyroNoiseRootPSD, accelQuantLevel, gyroQuantLevel);
+
+        final Random random = new Random();
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final double latitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double longitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+        final NEDPosition nedPosition = new NEDPosition(latitude, longitude, height);
+
+        final KnownFrameAccelerometerLinearLeastSquaresCalibrator calibrator =
+                new KnownFrameAccelerometerLinearLeastSquaresCalibrator(this);
+
+        assertEquals(0, calibrator.getNumberOfAccumulatedMeasurements());
+        assertFalse(calibrator.isAccumulatedReady());
+
+        // force NotReadyException
+        try {
+            calibrator.calibrateAccumulated();
+            fail("NotReadyException expected but not thrown");
+        } catch (final NotReadyException ignore) {
+        }
+
+        // force IllegalStateException
+        final FrameBodyKinematics outlier = new FrameBodyKinematics();
+        try {
+            calibrator.removeMeasurement(outlier);
+            fail("IllegalStateException expected but not thrown");
+        } catch (final IllegalStateException ignore) {
+        }
+
+        for (int i = 0; i < SMALL_MEASUREMENT_NUMBER; i++) {
+
+            final double roll = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double pitch = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double yaw = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final CoordinateTransformation nedC = new CoordinateTransformation(
+                    roll, pitch, yaw, FrameType.BODY_FRAME,
+                    FrameType.LOCAL_NAVIGATION_FRAME);
+
+            final NEDFrame nedFrame = new NEDFrame(nedPosition, nedC);
+            final ECEFFrame ecefFrame = NEDtoECEFFrameConverter
+                    .convertNEDtoECEFAndReturnNew(nedFrame);
+
+            final BodyKinematics trueKinematics = ECEFKinematicsEstimator
+                    .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS, ecefFrame,
+                            ecefFrame);
+
+            final BodyKinematics measuredKinematics = BodyKinematicsGenerator
+                    .generate(TIME_INTERVAL_SECONDS, trueKinematics, errors, random);
+
+            calibrator.addMeasurement(new FrameBodyKinematics(
+                    measuredKinematics, ecefFrame, ecefFrame, TIME_INTERVAL_SECONDS));
+
+            if (i == 0) {
+                // corrupt a copy of first measurement to be used as an outlier
+                final BodyKinematics outlierKinematics =
+                        new BodyKinematics(measuredKinematics);
+                outlierKinematics.setSpecificForceCoordinates(
+                        measuredKinematics.getFx() + 1.0,
+                        measuredKinematics.getFy() - 1.0,
+                        measuredKinematics.getFz() + 1.0);
+                outlier.setKinematics(outlierKinematics);
+                outlier.setFrame(ecefFrame);
+                outlier.setPreviousFrame(ecefFrame);
+                outlier.setTimeInterval(TIME_INTERVAL_SECONDS);
+            }
+        }
+
+        calibrator.addMeasurement(outlier);
+        assertEquals(SMALL_MEASUREMENT_NUMBER + 1,
+                calibrator.getNumberOfAccumulatedMeasurements());
+
+        // remove outlier
+        calibrator.removeMeasurement(outlier);
+        assertEquals(SMALL_MEASUREMENT_NUMBER,
+                calibrator.getNumberOfAccumulatedMeasurements());
+        assertTrue(calibrator.isAccumulatedReady());
+
+        // estimate general case
+        reset();
+        calibrator.calibrateAccumulated();
+
+        assertFalse(calibrator.isRunning());
+        assertEquals(mCalibrateStart, 1);
+        assertEquals(mCalibrateEnd, 1);
+
+        Matrix estimatedBa = calibrator.getEstimatedBiasesAsMatrix();
+        Matrix estimatedMa = calibrator.getEstimatedMa();
+
+        assertTrue(ba.equals(estimatedBa, LARGE_ABSOLUTE_ERROR));
+        assertTrue(ma.equals(estimatedMa, LARGE_ABSOLUTE_ERROR));
+
+        assertEstimatedResult(estimatedBa, estimatedMa, calibrator);
+
+        // estimate common axis case from the same accumulated measurements
+        calibrator.setCommonAxisUsed(true);
+        calibrator.calibrateAccumulated();
+
+        assertEquals(mCalibrateStart, 2);
+        assertEquals(mCalibrateEnd, 2);
+
+        estimatedBa = calibrator.getEstimatedBiasesAsMatrix();
+        estimatedMa = calibrator.getEstimatedMa();
+
+        assertTrue(ba.equals(estimatedBa, LARGE_ABSOLUTE_ERROR));
+        assertTrue(ma.equals(estimatedMa, LARGE_ABSOLUTE_ERROR));
+        assertEquals(0.0, calibrator.getEstimatedMyx(), 0.0);
+        assertEquals(0.0, calibrator.getEstimatedMzx(), 0.0);
+        assertEquals(0.0, calibrator.getEstimatedMzy(), 0.0);
+
+        // reset
+        calibrator.resetAccumulatedMeasurements();
+        assertEquals(0, calibrator.getNumberOfAccumulatedMeasurements());
+        assertFalse(calibrator.isAccumulatedReady());
+    }
+
     @Test
     public void testCalibrateMultipleOrientationsForGeneralCaseWithNoiseLargeNumberOfMeasurements()
             throws WrongSizeException, InvalidSourceAndDestinationFrameTypeException,
@@ -1218,6 +1355,23 @@ public class KnownFrameAccelerometerLinearLeastSquaresCalibratorTest implements
         } catch (final Exception e) {
             fail("LockedException expected but not thrown");
         }
+        try {
+            calibrator.addMeasurement(new FrameBodyKinematics());
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            calibrator.resetAccumulatedMeasurements();
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        }
+        try {
+            calibrator.calibrateAccumulated();
+            fail("LockedException expected but not thrown");
+        } catch (final LockedException ignore) {
+        } catch (final Exception e) {
+            fail("LockedException expected but not thrown");
+        }
     }
 
     private void assertEstimatedResult(
@@ -6802,6 +6802,32 @@ public class RANSACRobustKnownPositionAccelerometerCalibratorTest implements
         }
     }
 
+    @Test
+    public void testGetSetParallelism() throws LockedException {
+        final RANSACRobustKnownPositionAccelerometerCalibrator calibrator =
+                new RANSACRobustKnownPositionAccelerometerCalibrator();
+
+        // check default value
+        assertEquals(calibrator.getParallelism(), 1);
+
+        // set new value
+        calibrator.setParallelism(4);
+
+        // check
+        assertEquals(calibrator.getParallelism(), 4);
+
+        // force IllegalArgumentException
+        try {
+            calibrator.setParallelism(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+
+        // worker threads can be released while calibrator is not running
+        calibrator.close();
+        assertEquals(calibrator.getParallelism(), 4);
+    }
+
     @Test
     public void testGetSetConfidence() throws LockedException {
         final RANSACRobustKnownPositionAccelerometerCalibrator calibrator =
@@ -7050,6 +7076,141 @@ public class RANSACRobustKnownPositionAccelerometerCalibratorTest implements
         assertTrue(numValid > 0);
     }
 
+    @Test
+    public void testCalibrateGeneralNoNoiseInlierWithParallelism() throws WrongSizeException,
+            InvalidSourceAndDestinationFrameTypeException, LockedException,
+            CalibrationException, NotReadyException {
+        int numValid = 0;
+        for (int t = 0; t < TIMES; t++) {
+            final Matrix ba = generateBa();
+            final Matrix bg = generateBg();
+            final Matrix ma = generateMaGeneral();
+            final Matrix mg = generateMg();
+            final Matrix gg = generateGg();
+            final double accelNoiseRootPSD = getAccelNoiseRootPSD();
+            final double gyroNoiseRootPSD = getGyroNoiseRootPSD();
+            final double accelQuantLevel = 0.0;
+            final double gyroQuantLevel = 0.0;
+
+            final IMUErrors errorsOutlier = new IMUErrors(ba, bg, ma, mg, gg,
+                    OUTLIER_ERROR_FACTOR * accelNoiseRootPSD,
+                    OUTLIER_ERROR_FACTOR * gyroNoiseRootPSD,
+                    accelQuantLevel, gyroQuantLevel);
+            final IMUErrors errorsInlier = new IMUErrors(ba, bg, ma, mg, gg,
+                    0.0, 0.0, accelQuantLevel,
+                    gyroQuantLevel);
+
+            final Random random = new Random();
+            final UniformRandomizer randomizer = new UniformRandomizer(random);
+            final double latitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+            final double longitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+            final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+            final NEDPosition nedPosition = new NEDPosition(latitude, longitude, height);
+
+            final double sqrtTimeInterval = Math.sqrt(TIME_INTERVAL_SECONDS);
+            final double specificForceStandardDeviation = getAccelNoiseRootPSD()
+                    / sqrtTimeInterval;
+            final double angularRateStandardDeviation = getGyroNoiseRootPSD()
+                    / sqrtTimeInterval;
+
+            final List<StandardDeviationBodyKinematics> measurements =
+                    new ArrayList<>();
+            for (int i = 0; i < MEASUREMENT_NUMBER; i++) {
+                final double roll = Math.toRadians(
+                        randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+                final double pitch = Math.toRadians(
+                        randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+                final double yaw = Math.toRadians(
+                        randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+                final CoordinateTransformation nedC = new CoordinateTransformation(
+                        roll, pitch, yaw, FrameType.BODY_FRAME,
+                        FrameType.LOCAL_NAVIGATION_FRAME);
+
+                final NEDFrame nedFrame = new NEDFrame(nedPosition, nedC);
+                final ECEFFrame ecefFrame = NEDtoECEFFrameConverter
+                        .convertNEDtoECEFAndReturnNew(nedFrame);
+
+                // compute ground-truth kinematics that should be generated at provided
+                // position, velocity and orientation
+                final BodyKinematics trueKinematics = ECEFKinematicsEstimator
+                        .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS, ecefFrame,
+                                ecefFrame);
+
+                // apply known calibration parameters to distort ground-truth and generate a
+                // measured kinematics sample
+                final BodyKinematics measuredKinematics;
+                if (randomizer.nextInt(0, 100) < OUTLIER_PERCENTAGE) {
+                    // outlier
+                    measuredKinematics = BodyKinematicsGenerator
+                            .generate(TIME_INTERVAL_SECONDS, trueKinematics,
+                                    errorsOutlier, random);
+
+                } else {
+                    // inlier
+                    measuredKinematics = BodyKinematicsGenerator
+                            .generate(TIME_INTERVAL_SECONDS, trueKinematics,
+                                    errorsInlier, random);
+                }
+
+                final StandardDeviationBodyKinematics measurement =
+                        new StandardDeviationBodyKinematics(measuredKinematics,
+                                specificForceStandardDeviation,
+                                angularRateStandardDeviation);
+                measurements.add(measurement);
+            }
+
+            final RANSACRobustKnownPositionAccelerometerCalibrator calibrator =
+                    new RANSACRobustKnownPositionAccelerometerCalibrator(nedPosition, measurements,
+                            false, ba, ma, this);
+            calibrator.setThreshold(THRESHOLD);
+            calibrator.setParallelism(4);
+
+            // estimate
+            reset();
+            assertTrue(calibrator.isReady());
+            assertFalse(calibrator.isRunning());
+            assertEquals(mCalibrateStart, 0);
+            assertEquals(mCalibrateEnd, 0);
+            assertEquals(mCalibrateNextIteration, 0);
+            assertEquals(mCalibrateProgressChange, 0);
+
+            calibrator.calibrate();
+
+            // check
+            assertTrue(calibrator.isReady());
+            assertFalse(calibrator.isRunning());
+            assertEquals(mCalibrateStart, 1);
+            assertEquals(mCalibrateEnd, 1);
+            assertTrue(mCalibrateNextIteration > 0);
+            assertTrue(mCalibrateProgressChange >= 0);
+
+            final Matrix estimatedBa = calibrator.getEstimatedBiasesAsMatrix();
+            final Matrix estimatedMa = calibrator.getEstimatedMa();
+
+            if (!ba.equals(estimatedBa, ABSOLUTE_ERROR)) {
+                continue;
+            }
+            if (!ma.equals(estimatedMa, ABSOLUTE_ERROR)) {
+                continue;
+            }
+            assertTrue(ba.equals(estimatedBa, ABSOLUTE_ERROR));
+            assertTrue(ma.equals(estimatedMa, ABSOLUTE_ERROR));
+
+            assertEstimatedResult(estimatedBa, estimatedMa, calibrator);
+
+            assertNotNull(calibrator.getEstimatedCovariance());
+
+            calibrator.close();
+
+            numValid++;
+            break;
+        }
+
+        assertTrue(numValid > 0);
+    }
+
     @Test
     public void testCalibrateCommonAxisNoNoiseInlier() throws WrongSizeException,
             InvalidSourceAndDestinationFrameTypeException, LockedException,
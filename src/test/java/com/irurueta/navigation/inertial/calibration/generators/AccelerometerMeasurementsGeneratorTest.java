@@ -1163,6 +1163,195 @@ public class AccelerometerMeasurementsGeneratorTest implements
                 TriadStaticIntervalDetector.Status.IDLE);
     }
 
+    @Test
+    public void testProcessBlock() throws WrongSizeException,
+            InvalidSourceAndDestinationFrameTypeException, LockedException {
+
+        final Matrix ba = generateBa();
+        final Matrix bg = generateBg();
+        final Matrix ma = generateMaGeneral();
+        final Matrix mg = generateMg();
+        final Matrix gg = generateGg();
+
+        final double accelNoiseRootPSD = getAccelNoiseRootPSD();
+        final double gyroNoiseRootPSD = getGyroNoiseRootPSD();
+        final double accelQuantLevel = 0.0;
+        final double gyroQuantLevel = 0.0;
+
+        final IMUErrors errors = new IMUErrors(ba, bg, ma, mg, gg, accelNoiseRootPSD,
+                gyroNoiseRootPSD, accelQuantLevel, gyroQuantLevel);
+
+        final Random random = new Random();
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final double latitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double longitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+        final NEDPosition nedPosition = new NEDPosition(latitude, longitude, height);
+
+        final double roll = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double pitch = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double yaw = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final CoordinateTransformation nedC = new CoordinateTransformation(
+                roll, pitch, yaw, FrameType.BODY_FRAME, FrameType.LOCAL_NAVIGATION_FRAME);
+
+        final NEDFrame nedFrame = new NEDFrame(nedPosition, nedC);
+        final ECEFFrame ecefFrame = NEDtoECEFFrameConverter
+                .convertNEDtoECEFAndReturnNew(nedFrame);
+
+        // compute ground-truth kinematics that should be generated at provided
+        // position, velocity and orientation
+        final BodyKinematics trueKinematics = ECEFKinematicsEstimator
+                .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS, ecefFrame, ecefFrame);
+
+        final List<StandardDeviationBodyKinematics> expectedMeasurements =
+                new ArrayList<>();
+        final AccelerometerMeasurementsGenerator generator =
+                new AccelerometerMeasurementsGenerator(
+                        new AccelerometerMeasurementsGeneratorListener() {
+                            @Override
+                            public void onInitializationStarted(
+                                    final AccelerometerMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onInitializationCompleted(
+                                    final AccelerometerMeasurementsGenerator generator,
+                                    final double baseNoiseLevel) {
+                            }
+
+                            @Override
+                            public void onError(
+                                    final AccelerometerMeasurementsGenerator generator,
+                                    final TriadStaticIntervalDetector.ErrorReason reason) {
+                            }
+
+                            @Override
+                            public void onStaticIntervalDetected(
+                                    final AccelerometerMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onDynamicIntervalDetected(
+                                    final AccelerometerMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onStaticIntervalSkipped(
+                                    final AccelerometerMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onDynamicIntervalSkipped(
+                                    final AccelerometerMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onGeneratedMeasurement(
+                                    final AccelerometerMeasurementsGenerator generator,
+                                    final StandardDeviationBodyKinematics measurement) {
+                                expectedMeasurements.add(measurement);
+                            }
+
+                            @Override
+                            public void onReset(
+                                    final AccelerometerMeasurementsGenerator generator) {
+                            }
+                        });
+
+        // generate initial static samples, followed by alternating dynamic and
+        // static periods
+        final int initialStaticSamples = generator.getInitialStaticSamples();
+        final int staticPeriodLength = 2 * generator.getMinStaticSamples();
+        final int dynamicPeriodLength = 2 * generator.getWindowSize();
+        final int numPeriods = 3;
+        final int numSamples = initialStaticSamples +
+                numPeriods * (dynamicPeriodLength + staticPeriodLength);
+
+        final double[] fx = new double[numSamples];
+        final double[] fy = new double[numSamples];
+        final double[] fz = new double[numSamples];
+        final BodyKinematics measuredKinematics = new BodyKinematics();
+        for (int i = 0; i < numSamples; i++) {
+            BodyKinematicsGenerator.generate(TIME_INTERVAL_SECONDS,
+                    trueKinematics, errors, random, measuredKinematics);
+            fx[i] = measuredKinematics.getFx();
+            fy[i] = measuredKinematics.getFy();
+            fz[i] = measuredKinematics.getFz();
+
+            final int periodPosition = i >= initialStaticSamples ?
+                    (i - initialStaticSamples) % (dynamicPeriodLength + staticPeriodLength) :
+                    dynamicPeriodLength;
+            if (periodPosition < dynamicPeriodLength) {
+                fx[i] += randomizer.nextDouble(-1.0, 1.0);
+                fy[i] += randomizer.nextDouble(-1.0, 1.0);
+                fz[i] += randomizer.nextDouble(-1.0, 1.0);
+            }
+        }
+
+        // process samples one by one
+        for (int i = 0; i < numSamples; i++) {
+            measuredKinematics.setSpecificForceCoordinates(fx[i], fy[i], fz[i]);
+            assertTrue(generator.process(measuredKinematics));
+        }
+
+        assertFalse(expectedMeasurements.isEmpty());
+
+        // process samples in blocks of random length
+        reset();
+        final AccelerometerMeasurementsGenerator blockGenerator =
+                new AccelerometerMeasurementsGenerator(this);
+
+        int offset = 0;
+        while (offset < numSamples) {
+            final int length = Math.min(randomizer.nextInt(1, staticPeriodLength),
+                    numSamples - offset);
+            assertEquals(blockGenerator.process(fx, fy, fz, offset, length), length);
+            offset += length;
+        }
+
+        assertEquals(mInitializationStarted, 1);
+        assertEquals(mInitializationCompleted, 1);
+        assertEquals(mError, 0);
+        assertEquals(mGeneratedMeasurement, expectedMeasurements.size());
+        assertEquals(mMeasurements, expectedMeasurements);
+        assertEquals(blockGenerator.getProcessedStaticSamples(),
+                generator.getProcessedStaticSamples());
+        assertEquals(blockGenerator.getProcessedDynamicSamples(),
+                generator.getProcessedDynamicSamples());
+
+        // Force IllegalArgumentException
+        try {
+            blockGenerator.process(fx, fy, fz, -1, 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockGenerator.process(fx, fy, fz, 0, -1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockGenerator.process(fx, new double[1], fz, 0, 2);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockGenerator.process(fx, fy, fz, 1, Integer.MAX_VALUE);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockGenerator.process(null, fy, fz, 0, 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
     private void reset() {
         mMeasurements.clear();
 
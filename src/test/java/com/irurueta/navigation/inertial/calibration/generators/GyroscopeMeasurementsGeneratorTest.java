@@ -2102,6 +2102,211 @@ public class GyroscopeMeasurementsGeneratorTest implements
         assertTrue(numValid > 0);
     }
 
+    @Test
+    public void testProcessBlock() throws WrongSizeException,
+            InvalidSourceAndDestinationFrameTypeException, LockedException {
+
+        final Matrix ba = generateBa();
+        final Matrix bg = generateBg();
+        final Matrix ma = generateMaCommonAxis();
+        final Matrix mg = generateMg();
+        final Matrix gg = new Matrix(3, 3);
+
+        final double accelNoiseRootPSD = getAccelNoiseRootPSD();
+        final double gyroNoiseRootPSD = getGyroNoiseRootPSD();
+        final double accelQuantLevel = 0.0;
+        final double gyroQuantLevel = 0.0;
+
+        final IMUErrors errors = new IMUErrors(ba, bg, ma, mg, gg, accelNoiseRootPSD,
+                gyroNoiseRootPSD, accelQuantLevel, gyroQuantLevel);
+
+        final Random random = new Random();
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final double latitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double longitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+        final NEDPosition nedPosition = new NEDPosition(latitude, longitude, height);
+
+        final double roll = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double pitch = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double yaw = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final CoordinateTransformation nedC = new CoordinateTransformation(
+                roll, pitch, yaw, FrameType.BODY_FRAME,
+                FrameType.LOCAL_NAVIGATION_FRAME);
+
+        final NEDFrame nedFrame = new NEDFrame(nedPosition, nedC);
+        final ECEFFrame ecefFrame = NEDtoECEFFrameConverter
+                .convertNEDtoECEFAndReturnNew(nedFrame);
+
+        // compute ground-truth kinematics that should be generated at provided
+        // position, velocity and orientation
+        final BodyKinematics trueKinematics = ECEFKinematicsEstimator
+                .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS,
+                        ecefFrame, ecefFrame);
+
+        final List<BodyKinematicsSequence<StandardDeviationTimedBodyKinematics>> expectedSequences =
+                new ArrayList<>();
+        final GyroscopeMeasurementsGenerator generator =
+                new GyroscopeMeasurementsGenerator(
+                        new GyroscopeMeasurementGeneratorListener() {
+                            @Override
+                            public void onInitializationStarted(
+                                    final GyroscopeMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onInitializationCompleted(
+                                    final GyroscopeMeasurementsGenerator generator,
+                                    final double baseNoiseLevel) {
+                            }
+
+                            @Override
+                            public void onError(
+                                    final GyroscopeMeasurementsGenerator generator,
+                                    final TriadStaticIntervalDetector.ErrorReason reason) {
+                            }
+
+                            @Override
+                            public void onStaticIntervalDetected(
+                                    final GyroscopeMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onDynamicIntervalDetected(
+                                    final GyroscopeMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onStaticIntervalSkipped(
+                                    final GyroscopeMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onDynamicIntervalSkipped(
+                                    final GyroscopeMeasurementsGenerator generator) {
+                            }
+
+                            @Override
+                            public void onGeneratedMeasurement(
+                                    final GyroscopeMeasurementsGenerator generator,
+                                    final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> measurement) {
+                                expectedSequences.add(measurement);
+                            }
+
+                            @Override
+                            public void onReset(
+                                    final GyroscopeMeasurementsGenerator generator) {
+                            }
+                        });
+
+        // generate initial static samples, followed by alternating dynamic and
+        // static periods
+        final int initialStaticSamples = generator.getInitialStaticSamples();
+        final int staticPeriodLength = 2 * generator.getMinStaticSamples();
+        final int dynamicPeriodLength = 2 * generator.getWindowSize();
+        final int numPeriods = 3;
+        final int numSamples = initialStaticSamples +
+                numPeriods * (dynamicPeriodLength + staticPeriodLength);
+
+        final double[] timestamps = new double[numSamples];
+        final double[] fx = new double[numSamples];
+        final double[] fy = new double[numSamples];
+        final double[] fz = new double[numSamples];
+        final double[] angularRateX = new double[numSamples];
+        final double[] angularRateY = new double[numSamples];
+        final double[] angularRateZ = new double[numSamples];
+        final BodyKinematics measuredKinematics = new BodyKinematics();
+        for (int i = 0; i < numSamples; i++) {
+            BodyKinematicsGenerator.generate(TIME_INTERVAL_SECONDS,
+                    trueKinematics, errors, random, measuredKinematics);
+            timestamps[i] = i * TIME_INTERVAL_SECONDS;
+            fx[i] = measuredKinematics.getFx();
+            fy[i] = measuredKinematics.getFy();
+            fz[i] = measuredKinematics.getFz();
+            angularRateX[i] = measuredKinematics.getAngularRateX();
+            angularRateY[i] = measuredKinematics.getAngularRateY();
+            angularRateZ[i] = measuredKinematics.getAngularRateZ();
+
+            final int periodPosition = i >= initialStaticSamples ?
+                    (i - initialStaticSamples) % (dynamicPeriodLength + staticPeriodLength) :
+                    dynamicPeriodLength;
+            if (periodPosition < dynamicPeriodLength) {
+                fx[i] += randomizer.nextDouble(-1.0, 1.0);
+                fy[i] += randomizer.nextDouble(-1.0, 1.0);
+                fz[i] += randomizer.nextDouble(-1.0, 1.0);
+                angularRateX[i] += randomizer.nextDouble(-0.1, 0.1);
+                angularRateY[i] += randomizer.nextDouble(-0.1, 0.1);
+                angularRateZ[i] += randomizer.nextDouble(-0.1, 0.1);
+            }
+        }
+
+        // process samples one by one
+        final TimedBodyKinematics timedMeasuredKinematics = new TimedBodyKinematics();
+        for (int i = 0; i < numSamples; i++) {
+            measuredKinematics.setSpecificForceCoordinates(fx[i], fy[i], fz[i]);
+            measuredKinematics.setAngularRateCoordinates(
+                    angularRateX[i], angularRateY[i], angularRateZ[i]);
+            timedMeasuredKinematics.setKinematics(measuredKinematics);
+            timedMeasuredKinematics.setTimestampSeconds(timestamps[i]);
+            assertTrue(generator.process(timedMeasuredKinematics));
+        }
+
+        assertFalse(expectedSequences.isEmpty());
+
+        // process samples in blocks of random length
+        reset();
+        final GyroscopeMeasurementsGenerator blockGenerator =
+                new GyroscopeMeasurementsGenerator(this);
+
+        int offset = 0;
+        while (offset < numSamples) {
+            final int length = Math.min(randomizer.nextInt(1, staticPeriodLength),
+                    numSamples - offset);
+            assertEquals(blockGenerator.process(timestamps, fx, fy, fz,
+                    angularRateX, angularRateY, angularRateZ, offset, length), length);
+            offset += length;
+        }
+
+        assertEquals(mInitializationStarted, 1);
+        assertEquals(mInitializationCompleted, 1);
+        assertEquals(mError, 0);
+        assertEquals(mGeneratedMeasurement, expectedSequences.size());
+        assertEquals(mSequences, expectedSequences);
+        for (final BodyKinematicsSequence<StandardDeviationTimedBodyKinematics> sequence :
+                mSequences) {
+            assertTrue(sequence.getItemsCount() > 0);
+        }
+        assertEquals(blockGenerator.getProcessedStaticSamples(),
+                generator.getProcessedStaticSamples());
+        assertEquals(blockGenerator.getProcessedDynamicSamples(),
+                generator.getProcessedDynamicSamples());
+
+        // Force IllegalArgumentException
+        try {
+            blockGenerator.process(timestamps, fx, fy, fz,
+                    angularRateX, angularRateY, angularRateZ, -1, 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockGenerator.process(timestamps, fx, fy, fz,
+                    angularRateX, angularRateY, angularRateZ, 0, -1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockGenerator.process(new double[1], fx, fy, fz,
+                    angularRateX, angularRateY, angularRateZ, 0, 2);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
     @Override
     public void onInitializationStarted(
             final GyroscopeMeasurementsGenerator generator) {
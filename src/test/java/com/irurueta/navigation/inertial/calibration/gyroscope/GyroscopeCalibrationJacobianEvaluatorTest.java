@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration.gyroscope;
+
+import com.irurueta.algebra.AlgebraException;
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.Utils;
+import com.irurueta.geometry.InhomogeneousPoint3D;
+import com.irurueta.geometry.Quaternion;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.navigation.inertial.calibration.BodyKinematicsSequence;
+import com.irurueta.navigation.inertial.calibration.StandardDeviationTimedBodyKinematics;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GyroscopeCalibrationJacobianEvaluatorTest {
+
+    private static final int NUM_SAMPLES = 200;
+
+    private static final double TIME_INTERVAL_BETWEEN_SAMPLES = 0.01;
+
+    private static final double MAX_ANGULAR_RATE = 1.0;
+
+    private static final double MAX_ERROR = 0.05;
+
+    private static final double GRAVITY = 9.81;
+
+    private static final double ABSOLUTE_ERROR = 1e-12;
+
+    private static final double DERIVATIVE_ERROR = 1e-5;
+
+    private static final double STEP = 1e-6;
+
+    private static final int TIMES = 20;
+
+    @Test
+    public void testConstructor() {
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(true, false, true)
+                        .getNumberOfParameters(),
+                EasyGyroscopeCalibrator.GENERAL_UNKNOWNS_AND_CROSS_BIASES);
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(true, true, true)
+                        .getNumberOfParameters(),
+                EasyGyroscopeCalibrator.COMMON_Z_AXIS_UNKNOWNS_AND_CROSS_BIASES);
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(true, false, false)
+                        .getNumberOfParameters(),
+                EasyGyroscopeCalibrator.GENERAL_UNKNOWNS);
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(true, true, false)
+                        .getNumberOfParameters(),
+                EasyGyroscopeCalibrator.COMMON_Z_AXIS_UNKNOWNS);
+
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(false, false, true)
+                        .getNumberOfParameters(),
+                KnownBiasEasyGyroscopeCalibrator.GENERAL_UNKNOWNS_AND_CROSS_BIASES);
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(false, true, true)
+                        .getNumberOfParameters(),
+                KnownBiasEasyGyroscopeCalibrator.COMMON_Z_AXIS_UNKNOWNS_AND_CROSS_BIASES);
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(false, false, false)
+                        .getNumberOfParameters(),
+                KnownBiasEasyGyroscopeCalibrator.GENERAL_UNKNOWNS);
+        assertEquals(new GyroscopeCalibrationJacobianEvaluator(false, true, false)
+                        .getNumberOfParameters(),
+                KnownBiasEasyGyroscopeCalibrator.COMMON_Z_AXIS_UNKNOWNS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetParametersWrongLength() throws AlgebraException {
+        new GyroscopeCalibrationJacobianEvaluator(true, false, true)
+                .setParameters(new double[1]);
+    }
+
+    @Test
+    public void testIntegrateMatchesQuaternionIntegrator() throws AlgebraException {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+            final GyroscopeCalibrationJacobianEvaluator evaluator =
+                    new GyroscopeCalibrationJacobianEvaluator(true, false, true);
+            final double[] params = generateParams(randomizer, true, false, true);
+            evaluator.setParameters(params);
+
+            final double[] timestamps = new double[NUM_SAMPLES];
+            final double[] angularRates = new double[3 * NUM_SAMPLES];
+            final double[] specificForces = new double[3 * NUM_SAMPLES];
+            generateSequence(randomizer, timestamps, angularRates, specificForces);
+
+            // fix angular rates and integrate them with quaternion integrator
+            final double[] measuredAngularRate = new double[3];
+            final double[] trueSpecificForce = new double[3];
+            final double[] trueAngularRate = new double[3];
+            final double[] jacobian = new double[3 * params.length];
+            final List<StandardDeviationTimedBodyKinematics> items = new ArrayList<>();
+            for (int j = 0; j < NUM_SAMPLES; j++) {
+                System.arraycopy(angularRates, 3 * j, measuredAngularRate, 0, 3);
+                System.arraycopy(specificForces, 3 * j, trueSpecificForce, 0, 3);
+                evaluator.fixAngularRate(measuredAngularRate, trueSpecificForce,
+                        trueAngularRate, jacobian);
+
+                final BodyKinematics kinematics = new BodyKinematics();
+                kinematics.setAngularRateCoordinates(trueAngularRate[0],
+                        trueAngularRate[1], trueAngularRate[2]);
+                items.add(new StandardDeviationTimedBodyKinematics(kinematics,
+                        timestamps[j]));
+            }
+
+            final Quaternion expected = QuaternionIntegrator
+                    .integrateGyroSequenceAndReturnNew(
+                            new BodyKinematicsSequence<>(items));
+
+            final double[] result = new double[4];
+            final double[] derivatives = new double[4 * params.length];
+            evaluator.integrate(timestamps, angularRates, specificForces, result,
+                    derivatives);
+
+            assertEquals(expected.getA(), result[0], ABSOLUTE_ERROR);
+            assertEquals(expected.getB(), result[1], ABSOLUTE_ERROR);
+            assertEquals(expected.getC(), result[2], ABSOLUTE_ERROR);
+            assertEquals(expected.getD(), result[3], ABSOLUTE_ERROR);
+
+            // check error of gravity versor using quaternion rotation
+            final double[] point = generatePoint(randomizer);
+            final InhomogeneousPoint3D startPoint = new InhomogeneousPoint3D(
+                    point[0], point[1], point[2]);
+            final InhomogeneousPoint3D endPoint = new InhomogeneousPoint3D();
+            expected.inverse();
+            expected.rotate(startPoint, endPoint);
+            final InhomogeneousPoint3D expectedEndPoint = new InhomogeneousPoint3D(
+                    point[3], point[4], point[5]);
+
+            final double error = evaluator.evaluateGravityVersorError(timestamps,
+                    angularRates, specificForces, point, new double[params.length]);
+            assertEquals(expectedEndPoint.distanceTo(endPoint), error,
+                    ABSOLUTE_ERROR);
+        }
+    }
+
+    @Test
+    public void testFixAngularRate() throws AlgebraException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final double[] params = generateParams(randomizer, true, false, true);
+        final GyroscopeCalibrationJacobianEvaluator evaluator =
+                new GyroscopeCalibrationJacobianEvaluator(true, false, true);
+        evaluator.setParameters(params);
+
+        final double[] measuredAngularRate = new double[]{
+                randomizer.nextDouble(-MAX_ANGULAR_RATE, MAX_ANGULAR_RATE),
+                randomizer.nextDouble(-MAX_ANGULAR_RATE, MAX_ANGULAR_RATE),
+                randomizer.nextDouble(-MAX_ANGULAR_RATE, MAX_ANGULAR_RATE)};
+        final double[] trueSpecificForce = new double[]{
+                randomizer.nextDouble(-GRAVITY, GRAVITY),
+                randomizer.nextDouble(-GRAVITY, GRAVITY),
+                randomizer.nextDouble(-GRAVITY, GRAVITY)};
+        final double[] result = new double[3];
+        evaluator.fixAngularRate(measuredAngularRate, trueSpecificForce, result,
+                new double[3 * params.length]);
+
+        // Ωtrue = M^-1 * Ωmeas - b - G*ftrue
+        final Matrix m = new Matrix(3, 3);
+        final Matrix g = new Matrix(3, 3);
+        for (int i = 0; i < 9; i++) {
+            m.setElementAtIndex(i, params[3 + i]);
+            g.setElementAtIndex(i, params[12 + i]);
+        }
+        final Matrix expected = Utils.inverse(m).multiplyAndReturnNew(
+                Matrix.newFromArray(measuredAngularRate));
+        expected.subtract(Matrix.newFromArray(new double[]{
+                params[0], params[1], params[2]}));
+        expected.subtract(g.multiplyAndReturnNew(
+                Matrix.newFromArray(trueSpecificForce)));
+
+        assertArrayEquals(expected.getBuffer(), result, ABSOLUTE_ERROR);
+    }
+
+    @Test
+    public void testEvaluateGravityVersorErrorDerivatives() throws AlgebraException {
+        for (int config = 0; config < 8; config++) {
+            final boolean biasEstimated = (config & 1) != 0;
+            final boolean commonAxisUsed = (config & 2) != 0;
+            final boolean gDependentCrossBiasesEstimated = (config & 4) != 0;
+
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+            final GyroscopeCalibrationJacobianEvaluator evaluator =
+                    new GyroscopeCalibrationJacobianEvaluator(biasEstimated,
+                            commonAxisUsed, gDependentCrossBiasesEstimated);
+            evaluator.setBias(randomizer.nextDouble(-MAX_ERROR, MAX_ERROR),
+                    randomizer.nextDouble(-MAX_ERROR, MAX_ERROR),
+                    randomizer.nextDouble(-MAX_ERROR, MAX_ERROR));
+            final double[] params = generateParams(randomizer, biasEstimated,
+                    commonAxisUsed, gDependentCrossBiasesEstimated);
+
+            final double[] timestamps = new double[NUM_SAMPLES];
+            final double[] angularRates = new double[3 * NUM_SAMPLES];
+            final double[] specificForces = new double[3 * NUM_SAMPLES];
+            generateSequence(randomizer, timestamps, angularRates, specificForces);
+            final double[] point = generatePoint(randomizer);
+
+            evaluator.setParameters(params);
+            final double[] derivatives = new double[params.length];
+            final double error = evaluator.evaluateGravityVersorError(timestamps,
+                    angularRates, specificForces, point, derivatives);
+            assertTrue(error > 0.0);
+
+            final double[] unused = new double[params.length];
+            for (int p = 0; p < params.length; p++) {
+                final double[] paramsPlus = params.clone();
+                final double[] paramsMinus = params.clone();
+                paramsPlus[p] += STEP;
+                paramsMinus[p] -= STEP;
+
+                evaluator.setParameters(paramsPlus);
+                final double errorPlus = evaluator.evaluateGravityVersorError(
+                        timestamps, angularRates, specificForces, point, unused);
+                evaluator.setParameters(paramsMinus);
+                final double errorMinus = evaluator.evaluateGravityVersorError(
+                        timestamps, angularRates, specificForces, point, unused);
+
+                assertEquals((errorPlus - errorMinus) / (2.0 * STEP),
+                        derivatives[p], DERIVATIVE_ERROR);
+            }
+        }
+    }
+
+    private static double[] generateParams(
+            final UniformRandomizer randomizer, final boolean biasEstimated,
+            final boolean commonAxisUsed,
+            final boolean gDependentCrossBiasesEstimated) {
+        final List<Double> params = new ArrayList<>();
+        if (biasEstimated) {
+            for (int i = 0; i < 3; i++) {
+                params.add(randomizer.nextDouble(-MAX_ERROR, MAX_ERROR));
+            }
+        }
+        for (int j = 0; j < 3; j++) {
+            for (int i = 0; i < 3; i++) {
+                if (!commonAxisUsed || i <= j) {
+                    final double identity = i == j ? 1.0 : 0.0;
+                    params.add(identity + randomizer.nextDouble(
+                            -MAX_ERROR, MAX_ERROR));
+                }
+            }
+        }
+        if (gDependentCrossBiasesEstimated) {
+            for (int i = 0; i < 9; i++) {
+                params.add(randomizer.nextDouble(-MAX_ERROR, MAX_ERROR) / GRAVITY);
+            }
+        }
+
+        final double[] result = new double[params.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = params.get(i);
+        }
+        return result;
+    }
+
+    private static void generateSequence(
+            final UniformRandomizer randomizer, final double[] timestamps,
+            final double[] angularRates, final double[] specificForces) {
+        // smoothly varying angular rates and specific forces
+        final double[] amplitudes = new double[6];
+        final double[] frequencies = new double[6];
+        final double[] phases = new double[6];
+        for (int i = 0; i < 6; i++) {
+            amplitudes[i] = randomizer.nextDouble(0.0, i < 3 ? MAX_ANGULAR_RATE : GRAVITY);
+            frequencies[i] = randomizer.nextDouble(0.1, 1.0);
+            phases[i] = randomizer.nextDouble(0.0, 2.0 * Math.PI);
+        }
+
+        for (int j = 0; j < NUM_SAMPLES; j++) {
+            final double timestamp = j * TIME_INTERVAL_BETWEEN_SAMPLES;
+            timestamps[j] = timestamp;
+            for (int i = 0; i < 3; i++) {
+                angularRates[3 * j + i] = amplitudes[i] * Math.sin(
+                        2.0 * Math.PI * frequencies[i] * timestamp + phases[i]);
+                specificForces[3 * j + i] = amplitudes[3 + i] * Math.sin(
+                        2.0 * Math.PI * frequencies[3 + i] * timestamp + phases[3 + i]);
+            }
+        }
+    }
+
+    private static double[] generatePoint(final UniformRandomizer randomizer) {
+        final double[] point = new double[6];
+        for (int i = 0; i < point.length; i++) {
+            point[i] = randomizer.nextDouble(-1.0, 1.0);
+        }
+        normalize(point, 0);
+        normalize(point, 3);
+        return point;
+    }
+
+    private static void normalize(final double[] point, final int offset) {
+        final double norm = Math.sqrt(point[offset] * point[offset]
+                + point[offset + 1] * point[offset + 1]
+                + point[offset + 2] * point[offset + 2]);
+        for (int i = 0; i < 3; i++) {
+            point[offset + i] /= norm;
+        }
+    }
+}
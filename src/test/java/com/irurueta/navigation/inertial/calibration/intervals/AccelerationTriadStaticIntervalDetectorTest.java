@@ -2106,6 +2106,150 @@ public class AccelerationTriadStaticIntervalDetectorTest implements
         checkLocked(detector);
     }
 
+    @Test
+    public void testProcessBlock() throws WrongSizeException,
+            InvalidSourceAndDestinationFrameTypeException, LockedException {
+        final Matrix ba = generateBa();
+        final Matrix bg = generateBg();
+        final Matrix ma = generateMaGeneral();
+        final Matrix mg = generateMg();
+        final Matrix gg = generateGg();
+
+        final double accelNoiseRootPSD = getAccelNoiseRootPSD();
+        final double gyroNoiseRootPSD = getGyroNoiseRootPSD();
+        final double accelQuantLevel = 0.0;
+        final double gyroQuantLevel = 0.0;
+
+        final IMUErrors errors = new IMUErrors(ba, bg, ma, mg, gg, accelNoiseRootPSD,
+                gyroNoiseRootPSD, accelQuantLevel, gyroQuantLevel);
+
+        final Random random = new Random();
+        final UniformRandomizer randomizer = new UniformRandomizer(random);
+        final double latitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LATITUDE_DEGREES, MAX_LATITUDE_DEGREES));
+        final double longitude = Math.toRadians(
+                randomizer.nextDouble(MIN_LONGITUDE_DEGREES, MAX_LONGITUDE_DEGREES));
+        final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+        final NEDPosition nedPosition = new NEDPosition(latitude, longitude, height);
+
+        final double roll = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double pitch = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final double yaw = Math.toRadians(
+                randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+        final CoordinateTransformation nedC = new CoordinateTransformation(
+                roll, pitch, yaw, FrameType.BODY_FRAME, FrameType.LOCAL_NAVIGATION_FRAME);
+
+        final NEDFrame nedFrame = new NEDFrame(nedPosition, nedC);
+        final ECEFFrame ecefFrame = NEDtoECEFFrameConverter
+                .convertNEDtoECEFAndReturnNew(nedFrame);
+
+        // compute ground-truth kinematics that should be generated at provided
+        // position, velocity and orientation
+        final BodyKinematics trueKinematics = ECEFKinematicsEstimator
+                .estimateKinematicsAndReturnNew(TIME_INTERVAL_SECONDS, ecefFrame, ecefFrame);
+
+        final AccelerationTriadStaticIntervalDetector detector =
+                new AccelerationTriadStaticIntervalDetector();
+
+        // generate initial static samples, followed by a dynamic period and a
+        // new static period
+        final int initialStaticSamples = detector.getInitialStaticSamples();
+        final int periodLength = 2 * detector.getWindowSize();
+        final int numSamples = initialStaticSamples + 2 * periodLength;
+
+        final double[] fx = new double[numSamples];
+        final double[] fy = new double[numSamples];
+        final double[] fz = new double[numSamples];
+        final BodyKinematics measuredKinematics = new BodyKinematics();
+        for (int i = 0; i < numSamples; i++) {
+            BodyKinematicsGenerator.generate(TIME_INTERVAL_SECONDS,
+                    trueKinematics, errors, random, measuredKinematics);
+            fx[i] = measuredKinematics.getFx();
+            fy[i] = measuredKinematics.getFy();
+            fz[i] = measuredKinematics.getFz();
+
+            if (i >= initialStaticSamples && i < initialStaticSamples + periodLength) {
+                fx[i] += randomizer.nextDouble(-1.0, 1.0);
+                fy[i] += randomizer.nextDouble(-1.0, 1.0);
+                fz[i] += randomizer.nextDouble(-1.0, 1.0);
+            }
+        }
+
+        // process samples one by one
+        for (int i = 0; i < numSamples; i++) {
+            assertTrue(detector.process(fx[i], fy[i], fz[i]));
+        }
+
+        // process samples in blocks of random length
+        reset();
+        final AccelerationTriadStaticIntervalDetector blockDetector =
+                new AccelerationTriadStaticIntervalDetector(this);
+
+        int offset = 0;
+        while (offset < numSamples) {
+            final int length = Math.min(randomizer.nextInt(1, 2 * periodLength),
+                    numSamples - offset);
+            assertEquals(blockDetector.process(fx, fy, fz, offset, length), length);
+            offset += length;
+        }
+
+        assertEquals(mInitializationStarted, 1);
+        assertEquals(mInitializationCompleted, 1);
+        assertEquals(mError, 0);
+        assertTrue(mStaticIntervalDetected > 0);
+        assertTrue(mDynamicIntervalDetected > 0);
+
+        assertEquals(blockDetector.getStatus(), detector.getStatus());
+        assertEquals(blockDetector.getProcessedSamples(),
+                detector.getProcessedSamples());
+        assertEquals(blockDetector.getBaseNoiseLevel(),
+                detector.getBaseNoiseLevel(), 0.0);
+        assertEquals(blockDetector.getAccumulatedAvgX(),
+                detector.getAccumulatedAvgX(), 0.0);
+        assertEquals(blockDetector.getAccumulatedAvgY(),
+                detector.getAccumulatedAvgY(), 0.0);
+        assertEquals(blockDetector.getAccumulatedAvgZ(),
+                detector.getAccumulatedAvgZ(), 0.0);
+        assertEquals(blockDetector.getInstantaneousAvgX(),
+                detector.getInstantaneousAvgX(), 0.0);
+        assertEquals(blockDetector.getInstantaneousAvgY(),
+                detector.getInstantaneousAvgY(), 0.0);
+        assertEquals(blockDetector.getInstantaneousAvgZ(),
+                detector.getInstantaneousAvgZ(), 0.0);
+
+        // empty blocks are ignored
+        assertEquals(blockDetector.process(fx, fy, fz, numSamples, 0), 0);
+
+        // Force IllegalArgumentException
+        try {
+            blockDetector.process(fx, fy, fz, -1, 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockDetector.process(fx, fy, fz, 0, -1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockDetector.process(fx, fy, new double[1], 0, 2);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockDetector.process(fx, fy, fz, 1, Integer.MAX_VALUE);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            blockDetector.process(fx, null, fz, 0, 1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
     private void reset() {
         mInitializationStarted = 0;
         mInitializationCompleted = 0;
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2020 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.calibration.noise;
+
+import com.irurueta.statistics.GaussianRandomizer;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.AccelerationUnit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SlidingWindowAccumulatorTest {
+
+    private static final int MIN_WINDOW_SIZE = 3;
+    private static final int MAX_WINDOW_SIZE = 101;
+
+    private static final double OFFSET = 9.81;
+    private static final double STD = 1e-3;
+
+    private static final double ABSOLUTE_ERROR = 1e-9;
+
+    private static final int TIMES = 100;
+
+    @Test
+    public void testConstructor() {
+        final SlidingWindowAccumulator accumulator =
+                new SlidingWindowAccumulator(3, 5, true);
+
+        // check default values
+        assertEquals(accumulator.getCapacity(), 5);
+        assertEquals(accumulator.size(), 0);
+        assertTrue(accumulator.isEmpty());
+        assertFalse(accumulator.isFull());
+        assertEquals(accumulator.getSum(0), 0.0, 0.0);
+        assertEquals(accumulator.getSqrDeviationsSum(0, 0.0), 0.0, 0.0);
+    }
+
+    @Test
+    public void testAddAndSums() {
+        for (int t = 0; t < TIMES; t++) {
+            final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+            final GaussianRandomizer gaussian = new GaussianRandomizer(
+                    new Random(), 0.0, STD);
+
+            final int windowSize = randomizer.nextInt(MIN_WINDOW_SIZE, MAX_WINDOW_SIZE);
+            final int numSamples = randomizer.nextInt(1, 10 * windowSize);
+
+            final SlidingWindowAccumulator accumulator =
+                    new SlidingWindowAccumulator(3, windowSize, true);
+            final List<double[]> samples = new ArrayList<>();
+            for (int i = 0; i < numSamples; i++) {
+                final double[] sample = new double[]{
+                        OFFSET + gaussian.nextDouble(),
+                        -OFFSET + gaussian.nextDouble(),
+                        gaussian.nextDouble()};
+                samples.add(sample);
+                accumulator.add(sample[0], sample[1], sample[2],
+                        AccelerationUnit.METERS_PER_SQUARED_SECOND);
+
+                if (samples.size() > windowSize) {
+                    samples.remove(0);
+                }
+
+                assertEquals(accumulator.size(), samples.size());
+                assertEquals(accumulator.isFull(), samples.size() == windowSize);
+                assertSamples(accumulator, samples);
+            }
+
+            // clear
+            accumulator.clear();
+
+            assertTrue(accumulator.isEmpty());
+            assertEquals(accumulator.getSum(0), 0.0, 0.0);
+        }
+    }
+
+    @Test
+    public void testSetCapacity() {
+        final SlidingWindowAccumulator accumulator =
+                new SlidingWindowAccumulator(6, 5, false);
+        final List<double[]> samples = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final double[] sample = new double[]{i, 2 * i, 3 * i, -i, -2 * i, -3 * i};
+            samples.add(sample);
+            accumulator.add(sample[0], sample[1], sample[2], sample[3],
+                    sample[4], sample[5]);
+        }
+
+        assertTrue(accumulator.isFull());
+        assertSamples(accumulator, samples);
+
+        // reduce capacity keeps most recent samples
+        accumulator.setCapacity(3);
+
+        samples.remove(0);
+        samples.remove(0);
+        assertEquals(accumulator.getCapacity(), 3);
+        assertEquals(accumulator.size(), 3);
+        assertTrue(accumulator.isFull());
+        assertSamples(accumulator, samples);
+
+        // increase capacity
+        accumulator.setCapacity(7);
+
+        assertEquals(accumulator.getCapacity(), 7);
+        assertEquals(accumulator.size(), 3);
+        assertFalse(accumulator.isFull());
+        assertSamples(accumulator, samples);
+    }
+
+    private static void assertSamples(final SlidingWindowAccumulator accumulator,
+                                      final List<double[]> samples) {
+        final int n = samples.size();
+        final int numChannels = samples.get(0).length;
+        for (int c = 0; c < numChannels; c++) {
+            double sum = 0.0;
+            for (final double[] sample : samples) {
+                sum += sample[c];
+            }
+            final double avg = sum / n;
+
+            double sqrDeviationsSum = 0.0;
+            for (final double[] sample : samples) {
+                final double diff = sample[c] - avg;
+                sqrDeviationsSum += diff * diff;
+            }
+
+            assertEquals(accumulator.getSum(c), sum, ABSOLUTE_ERROR);
+            assertEquals(accumulator.getSqrDeviationsSum(c, avg), sqrDeviationsSum,
+                    ABSOLUTE_ERROR);
+            assertEquals(accumulator.getFirst(c), samples.get(0)[c], 0.0);
+            assertEquals(accumulator.getLast(c), samples.get(n - 1)[c], 0.0);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.navigators;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.geometry.InvalidRotationMatrixException;
+import com.irurueta.geometry.Quaternion;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BatchNEDInertialNavigatorTest {
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final double MIN_HEIGHT = -10.0;
+    private static final double MAX_HEIGHT = 10.0;
+
+    private static final double MIN_VELOCITY_VALUE = -2.0;
+    private static final double MAX_VELOCITY_VALUE = 2.0;
+
+    private static final double MIN_ANGLE_DEGREES = -45.0;
+    private static final double MAX_ANGLE_DEGREES = 45.0;
+
+    private static final double MIN_SPECIFIC_FORCE = -12.0;
+    private static final double MAX_SPECIFIC_FORCE = 12.0;
+
+    private static final double MIN_ANGULAR_RATE_DEGREES_PER_SECOND = -5.0;
+    private static final double MAX_ANGULAR_RATE_DEGREES_PER_SECOND = 5.0;
+
+    private static final double ABSOLUTE_ERROR = 1e-8;
+
+    private static final int TRACKS = 1000;
+
+    private static final int STEPS = 50;
+
+    @Test
+    public void testConstructor() {
+        BatchNEDInertialNavigator navigator = new BatchNEDInertialNavigator();
+
+        // check default values
+        assertNull(navigator.getPool());
+        assertEquals(navigator.getMinTracksPerTask(),
+                BatchNEDInertialNavigator.DEFAULT_MIN_TRACKS_PER_TASK);
+
+        final ForkJoinPool pool = new ForkJoinPool();
+        navigator = new BatchNEDInertialNavigator(pool);
+
+        // check default values
+        assertSame(navigator.getPool(), pool);
+        assertEquals(navigator.getMinTracksPerTask(),
+                BatchNEDInertialNavigator.DEFAULT_MIN_TRACKS_PER_TASK);
+
+        pool.shutdown();
+    }
+
+    @Test
+    public void testGetSetMinTracksPerTask() {
+        final BatchNEDInertialNavigator navigator = new BatchNEDInertialNavigator();
+
+        // set new value
+        navigator.setMinTracksPerTask(10);
+
+        // check
+        assertEquals(navigator.getMinTracksPerTask(), 10);
+
+        // Force IllegalArgumentException
+        try {
+            navigator.setMinTracksPerTask(0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testNavigateMatchesNEDInertialNavigator() throws InvalidRotationMatrixException,
+            InvalidSourceAndDestinationFrameTypeException, InertialNavigatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final NEDNavigationBatch batch = new NEDNavigationBatch(TRACKS);
+        final NEDFrame[] expected = new NEDFrame[TRACKS];
+        final BodyKinematics[] kinematics = new BodyKinematics[TRACKS];
+        for (int i = 0; i < TRACKS; i++) {
+            expected[i] = createFrame(randomizer);
+            kinematics[i] = createKinematics(randomizer);
+
+            batch.setFrame(i, expected[i]);
+            batch.setKinematics(i, kinematics[i]);
+        }
+
+        final BatchNEDInertialNavigator navigator = new BatchNEDInertialNavigator();
+        navigator.navigate(TIME_INTERVAL_SECONDS, batch);
+
+        for (int i = 0; i < TRACKS; i++) {
+            expected[i] = NEDInertialNavigator.navigateNEDAndReturnNew(
+                    TIME_INTERVAL_SECONDS, expected[i], kinematics[i]);
+
+            assertTrue(expected[i].equals(batch.getFrame(i), ABSOLUTE_ERROR));
+        }
+
+        // navigate again using time
+        navigator.navigate(new Time(TIME_INTERVAL_SECONDS, TimeUnit.SECOND), batch);
+
+        for (int i = 0; i < TRACKS; i++) {
+            expected[i] = NEDInertialNavigator.navigateNEDAndReturnNew(
+                    TIME_INTERVAL_SECONDS, expected[i], kinematics[i]);
+
+            assertTrue(expected[i].equals(batch.getFrame(i), ABSOLUTE_ERROR));
+        }
+    }
+
+    @Test
+    public void testNavigateWithoutRotation() throws InvalidRotationMatrixException,
+            InvalidSourceAndDestinationFrameTypeException, InertialNavigatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final NEDNavigationBatch batch = new NEDNavigationBatch(TRACKS);
+        final NEDFrame[] frames = new NEDFrame[TRACKS];
+        final BodyKinematics[] kinematics = new BodyKinematics[TRACKS];
+        for (int i = 0; i < TRACKS; i++) {
+            frames[i] = createFrame(randomizer);
+            kinematics[i] = createKinematics(randomizer);
+            kinematics[i].setAngularRateCoordinates(0.0, 0.0, 0.0);
+
+            batch.setFrame(i, frames[i]);
+            batch.setKinematics(i, kinematics[i]);
+        }
+
+        final BatchNEDInertialNavigator navigator = new BatchNEDInertialNavigator();
+        navigator.navigate(TIME_INTERVAL_SECONDS, batch);
+
+        for (int i = 0; i < TRACKS; i++) {
+            final NEDFrame expected = NEDInertialNavigator.navigateNEDAndReturnNew(
+                    TIME_INTERVAL_SECONDS, frames[i], kinematics[i]);
+
+            assertTrue(expected.equals(batch.getFrame(i), ABSOLUTE_ERROR));
+        }
+    }
+
+    @Test
+    public void testNavigateRange() throws InvalidRotationMatrixException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final NEDNavigationBatch batch = new NEDNavigationBatch(TRACKS);
+        final NEDFrame[] frames = new NEDFrame[TRACKS];
+        for (int i = 0; i < TRACKS; i++) {
+            frames[i] = createFrame(randomizer);
+
+            batch.setFrame(i, frames[i]);
+            batch.setKinematics(i, createKinematics(randomizer));
+        }
+
+        final int fromIndex = TRACKS / 4;
+        final int toIndex = TRACKS / 2;
+
+        final BatchNEDInertialNavigator navigator = new BatchNEDInertialNavigator();
+        navigator.navigate(TIME_INTERVAL_SECONDS, batch, fromIndex, toIndex);
+
+        // tracks outside range remain unchanged
+        for (int i = 0; i < TRACKS; i++) {
+            final boolean unchanged = frames[i].equals(batch.getFrame(i), 0.0);
+            assertEquals(i < fromIndex || i >= toIndex, unchanged);
+        }
+
+        // Force IndexOutOfBoundsException
+        try {
+            navigator.navigate(TIME_INTERVAL_SECONDS, batch, -1, toIndex);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+        try {
+            navigator.navigate(TIME_INTERVAL_SECONDS, batch, fromIndex, TRACKS + 1);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+        try {
+            navigator.navigate(TIME_INTERVAL_SECONDS, batch, toIndex, fromIndex);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+    }
+
+    @Test
+    public void testNavigateWithPoolMatchesSequential() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        final NEDNavigationBatch sequentialBatch = new NEDNavigationBatch(TRACKS);
+        final NEDNavigationBatch parallelBatch = new NEDNavigationBatch(TRACKS);
+        for (int i = 0; i < TRACKS; i++) {
+            final NEDFrame frame = createFrame(randomizer);
+            final BodyKinematics kinematics = createKinematics(randomizer);
+
+            sequentialBatch.setFrame(i, frame);
+            sequentialBatch.setKinematics(i, kinematics);
+            parallelBatch.setFrame(i, frame);
+            parallelBatch.setKinematics(i, kinematics);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final BatchNEDInertialNavigator sequentialNavigator = new BatchNEDInertialNavigator();
+        final BatchNEDInertialNavigator parallelNavigator = new BatchNEDInertialNavigator(pool);
+        parallelNavigator.setMinTracksPerTask(16);
+
+        for (int s = 0; s < STEPS; s++) {
+            sequentialNavigator.navigate(TIME_INTERVAL_SECONDS, sequentialBatch);
+            parallelNavigator.navigate(TIME_INTERVAL_SECONDS, parallelBatch);
+        }
+
+        pool.shutdown();
+
+        // results must be identical
+        assertArrayEquals(sequentialBatch.getLatitudes(), parallelBatch.getLatitudes(), 0.0);
+        assertArrayEquals(sequentialBatch.getLongitudes(), parallelBatch.getLongitudes(), 0.0);
+        assertArrayEquals(sequentialBatch.getHeights(), parallelBatch.getHeights(), 0.0);
+        assertArrayEquals(sequentialBatch.getVn(), parallelBatch.getVn(), 0.0);
+        assertArrayEquals(sequentialBatch.getVe(), parallelBatch.getVe(), 0.0);
+        assertArrayEquals(sequentialBatch.getVd(), parallelBatch.getVd(), 0.0);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                assertArrayEquals(sequentialBatch.getAttitude(row, col),
+                        parallelBatch.getAttitude(row, col), 0.0);
+            }
+        }
+    }
+
+    private static NEDFrame createFrame(final UniformRandomizer randomizer) {
+        try {
+            final double latitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double longitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+
+            final double vn = randomizer.nextDouble(MIN_VELOCITY_VALUE, MAX_VELOCITY_VALUE);
+            final double ve = randomizer.nextDouble(MIN_VELOCITY_VALUE, MAX_VELOCITY_VALUE);
+            final double vd = randomizer.nextDouble(MIN_VELOCITY_VALUE, MAX_VELOCITY_VALUE);
+
+            final double roll = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double pitch = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double yaw = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final Quaternion q = new Quaternion(roll, pitch, yaw);
+
+            final Matrix m = q.asInhomogeneousMatrix();
+            final CoordinateTransformation c = new CoordinateTransformation(
+                    m, FrameType.BODY_FRAME,
+                    FrameType.LOCAL_NAVIGATION_FRAME);
+
+            return new NEDFrame(latitude, longitude, height, vn, ve, vd, c);
+        } catch (final InvalidRotationMatrixException | InvalidSourceAndDestinationFrameTypeException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BodyKinematics createKinematics(final UniformRandomizer randomizer) {
+        final double fx = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        final double fy = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        final double fz = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+
+        final double angularRateX = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGULAR_RATE_DEGREES_PER_SECOND, MAX_ANGULAR_RATE_DEGREES_PER_SECOND));
+        final double angularRateY = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGULAR_RATE_DEGREES_PER_SECOND, MAX_ANGULAR_RATE_DEGREES_PER_SECOND));
+        final double angularRateZ = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGULAR_RATE_DEGREES_PER_SECOND, MAX_ANGULAR_RATE_DEGREES_PER_SECOND));
+
+        return new BodyKinematics(fx, fy, fz, angularRateX, angularRateY, angularRateZ);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.navigators;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.geometry.InvalidRotationMatrixException;
+import com.irurueta.geometry.Quaternion;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.statistics.UniformRandomizer;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NEDNavigationBatchTest {
+
+    private static final int SIZE = 10;
+
+    private static final double MIN_ANGLE_DEGREES = -45.0;
+    private static final double MAX_ANGLE_DEGREES = 45.0;
+
+    private static final double MIN_VALUE = -10.0;
+    private static final double MAX_VALUE = 10.0;
+
+    private static final double ABSOLUTE_ERROR = 1e-12;
+
+    @Test
+    public void testConstructor() throws InvalidRotationMatrixException {
+        final NEDNavigationBatch batch = new NEDNavigationBatch(SIZE);
+
+        // check default values
+        assertEquals(batch.getSize(), SIZE);
+        assertEquals(batch.getLatitudes().length, SIZE);
+        assertEquals(batch.getLongitudes().length, SIZE);
+        assertEquals(batch.getHeights().length, SIZE);
+        assertEquals(batch.getVn().length, SIZE);
+        assertEquals(batch.getVe().length, SIZE);
+        assertEquals(batch.getVd().length, SIZE);
+        assertEquals(batch.getFx().length, SIZE);
+        assertEquals(batch.getFy().length, SIZE);
+        assertEquals(batch.getFz().length, SIZE);
+        assertEquals(batch.getAngularRateX().length, SIZE);
+        assertEquals(batch.getAngularRateY().length, SIZE);
+        assertEquals(batch.getAngularRateZ().length, SIZE);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                final double[] values = batch.getAttitude(row, col);
+                assertEquals(values.length, SIZE);
+                for (final double value : values) {
+                    assertEquals(value, row == col ? 1.0 : 0.0, 0.0);
+                }
+            }
+        }
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(batch.getFrame(i), new NEDFrame());
+        }
+
+        // Force IllegalArgumentException
+        try {
+            new NEDNavigationBatch(-1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetAttitude() {
+        final NEDNavigationBatch batch = new NEDNavigationBatch(SIZE);
+
+        // Force IllegalArgumentException
+        try {
+            batch.getAttitude(-1, 0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            batch.getAttitude(3, 0);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            batch.getAttitude(0, -1);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+        try {
+            batch.getAttitude(0, 3);
+            fail("IllegalArgumentException expected but not thrown");
+        } catch (final IllegalArgumentException ignore) {
+        }
+    }
+
+    @Test
+    public void testGetSetFrame() throws InvalidRotationMatrixException,
+            InvalidSourceAndDestinationFrameTypeException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final NEDNavigationBatch batch = new NEDNavigationBatch(SIZE);
+
+        final NEDFrame[] frames = new NEDFrame[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            final double latitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double longitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double height = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+            final double vn = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+            final double ve = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+            final double vd = randomizer.nextDouble(MIN_VALUE, MAX_VALUE);
+
+            final Quaternion q = new Quaternion(
+                    Math.toRadians(randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES)),
+                    Math.toRadians(randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES)),
+                    Math.toRadians(randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES)));
+            final CoordinateTransformation c = new CoordinateTransformation(
+                    q.asInhomogeneousMatrix(), FrameType.BODY_FRAME,
+                    FrameType.LOCAL_NAVIGATION_FRAME);
+
+            frames[i] = new NEDFrame(latitude, longitude, height, vn, ve, vd, c);
+            batch.setFrame(i, frames[i]);
+        }
+
+        // check
+        for (int i = 0; i < SIZE; i++) {
+            final NEDFrame frame = frames[i];
+            assertEquals(batch.getLatitudes()[i], frame.getLatitude(), 0.0);
+            assertEquals(batch.getLongitudes()[i], frame.getLongitude(), 0.0);
+            assertEquals(batch.getHeights()[i], frame.getHeight(), 0.0);
+            assertEquals(batch.getVn()[i], frame.getVn(), 0.0);
+            assertEquals(batch.getVe()[i], frame.getVe(), 0.0);
+            assertEquals(batch.getVd()[i], frame.getVd(), 0.0);
+
+            final Matrix cbn = frame.getCoordinateTransformationMatrix();
+            for (int row = 0; row < 3; row++) {
+                for (int col = 0; col < 3; col++) {
+                    assertEquals(batch.getAttitude(row, col)[i],
+                            cbn.getElementAt(row, col), 0.0);
+                }
+            }
+
+            final NEDFrame result = new NEDFrame();
+            batch.getFrame(i, result);
+            assertTrue(frame.equals(result, ABSOLUTE_ERROR));
+            assertTrue(frame.equals(batch.getFrame(i), ABSOLUTE_ERROR));
+        }
+
+        // Force IndexOutOfBoundsException
+        try {
+            batch.setFrame(SIZE, frames[0]);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+        try {
+            batch.getFrame(-1);
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+    }
+
+    @Test
+    public void testSetKinematics() {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final NEDNavigationBatch batch = new NEDNavigationBatch(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            final BodyKinematics kinematics = new BodyKinematics(
+                    randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                    randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                    randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                    randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                    randomizer.nextDouble(MIN_VALUE, MAX_VALUE),
+                    randomizer.nextDouble(MIN_VALUE, MAX_VALUE));
+            batch.setKinematics(i, kinematics);
+
+            // check
+            assertEquals(batch.getFx()[i], kinematics.getFx(), 0.0);
+            assertEquals(batch.getFy()[i], kinematics.getFy(), 0.0);
+            assertEquals(batch.getFz()[i], kinematics.getFz(), 0.0);
+            assertEquals(batch.getAngularRateX()[i], kinematics.getAngularRateX(), 0.0);
+            assertEquals(batch.getAngularRateY()[i], kinematics.getAngularRateY(), 0.0);
+            assertEquals(batch.getAngularRateZ()[i], kinematics.getAngularRateZ(), 0.0);
+        }
+
+        // Force IndexOutOfBoundsException
+        try {
+            batch.setKinematics(SIZE, new BodyKinematics());
+            fail("IndexOutOfBoundsException expected but not thrown");
+        } catch (final IndexOutOfBoundsException ignore) {
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2019 Alberto Irurueta Carro (alberto@irurueta.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.irurueta.navigation.inertial.navigators;
+
+import com.irurueta.algebra.Matrix;
+import com.irurueta.algebra.WrongSizeException;
+import com.irurueta.geometry.InvalidRotationMatrixException;
+import com.irurueta.geometry.Quaternion;
+import com.irurueta.navigation.frames.CoordinateTransformation;
+import com.irurueta.navigation.frames.ECEFFrame;
+import com.irurueta.navigation.frames.FrameType;
+import com.irurueta.navigation.frames.InvalidSourceAndDestinationFrameTypeException;
+import com.irurueta.navigation.frames.NEDFrame;
+import com.irurueta.navigation.frames.converters.NEDtoECEFFrameConverter;
+import com.irurueta.navigation.inertial.BodyKinematics;
+import com.irurueta.statistics.UniformRandomizer;
+import com.irurueta.units.Time;
+import com.irurueta.units.TimeUnit;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StatefulECEFInertialNavigatorTest {
+
+    private static final double TIME_INTERVAL_SECONDS = 0.02;
+
+    private static final double MIN_HEIGHT = -10.0;
+    private static final double MAX_HEIGHT = 10.0;
+
+    private static final double MIN_VELOCITY_VALUE = -2.0;
+    private static final double MAX_VELOCITY_VALUE = 2.0;
+
+    private static final double MIN_ANGLE_DEGREES = -45.0;
+    private static final double MAX_ANGLE_DEGREES = 45.0;
+
+    private static final double MIN_SPECIFIC_FORCE = -12.0;
+    private static final double MAX_SPECIFIC_FORCE = 12.0;
+
+    private static final double MIN_ANGULAR_RATE_DEGREES_PER_SECOND = -5.0;
+    private static final double MAX_ANGULAR_RATE_DEGREES_PER_SECOND = 5.0;
+
+    private static final double ABSOLUTE_ERROR = 1e-8;
+
+    private static final int TIMES = 100;
+
+    private static final int STEPS = 500;
+
+    @Test
+    public void testConstructor() throws WrongSizeException {
+        StatefulECEFInertialNavigator navigator = new StatefulECEFInertialNavigator();
+
+        // check default values
+        assertEquals(navigator.getX(), 0.0, 0.0);
+        assertEquals(navigator.getY(), 0.0, 0.0);
+        assertEquals(navigator.getZ(), 0.0, 0.0);
+        assertEquals(navigator.getVx(), 0.0, 0.0);
+        assertEquals(navigator.getVy(), 0.0, 0.0);
+        assertEquals(navigator.getVz(), 0.0, 0.0);
+
+        final Matrix m = new Matrix(1, 1);
+        navigator.getCoordinateTransformationMatrix(m);
+        assertEquals(m, Matrix.identity(3, 3));
+        assertEquals(navigator.getFrame(), new ECEFFrame());
+
+        // test constructor with frame
+        final ECEFFrame frame = createFrame(new UniformRandomizer(new Random()));
+        navigator = new StatefulECEFInertialNavigator(frame);
+
+        // check
+        assertEquals(navigator.getX(), frame.getX(), 0.0);
+        assertEquals(navigator.getY(), frame.getY(), 0.0);
+        assertEquals(navigator.getZ(), frame.getZ(), 0.0);
+        assertEquals(navigator.getVx(), frame.getVx(), 0.0);
+        assertEquals(navigator.getVy(), frame.getVy(), 0.0);
+        assertEquals(navigator.getVz(), frame.getVz(), 0.0);
+        assertEquals(navigator.getFrame(), frame);
+    }
+
+    @Test
+    public void testGetSetFrame() {
+        final StatefulECEFInertialNavigator navigator = new StatefulECEFInertialNavigator();
+
+        final ECEFFrame frame = createFrame(new UniformRandomizer(new Random()));
+        navigator.setFrame(frame);
+
+        // check
+        final ECEFFrame result = new ECEFFrame();
+        navigator.getFrame(result);
+        assertEquals(frame, result);
+        assertEquals(frame.getCoordinateTransformationMatrix(), navigator.getFrame()
+                .getCoordinateTransformationMatrix());
+
+        // modifying navigator does not modify returned frames
+        navigator.navigate(TIME_INTERVAL_SECONDS, 1.0, 2.0, 3.0, 0.1, 0.2, 0.3);
+        assertEquals(frame, result);
+    }
+
+    @Test
+    public void testNavigateMatchesStaticNavigation() throws InvalidSourceAndDestinationFrameTypeException,
+            InertialNavigatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final StatefulECEFInertialNavigator navigator = new StatefulECEFInertialNavigator();
+
+        for (int t = 0; t < TIMES; t++) {
+            final ECEFFrame oldFrame = createFrame(randomizer);
+            final BodyKinematics kinematics = createKinematics(randomizer);
+
+            final ECEFFrame expected = ECEFInertialNavigator.navigateECEFAndReturnNew(
+                    TIME_INTERVAL_SECONDS, oldFrame, kinematics);
+
+            final ECEFFrame result1 = new ECEFFrame();
+            navigator.navigate(TIME_INTERVAL_SECONDS, oldFrame, kinematics, result1);
+
+            final ECEFFrame result2 = new ECEFFrame();
+            navigator.navigate(new Time(TIME_INTERVAL_SECONDS, TimeUnit.SECOND), oldFrame,
+                    kinematics, result2);
+
+            navigator.setFrame(oldFrame);
+            navigator.navigate(TIME_INTERVAL_SECONDS, kinematics.getFx(), kinematics.getFy(),
+                    kinematics.getFz(), kinematics.getAngularRateX(),
+                    kinematics.getAngularRateY(), kinematics.getAngularRateZ());
+            final ECEFFrame result3 = navigator.getFrame();
+
+            navigator.setFrame(oldFrame);
+            navigator.navigate(new Time(TIME_INTERVAL_SECONDS, TimeUnit.SECOND), kinematics);
+            final ECEFFrame result4 = navigator.getFrame();
+
+            assertTrue(expected.equals(result1, ABSOLUTE_ERROR));
+            assertTrue(expected.equals(result2, ABSOLUTE_ERROR));
+            assertTrue(expected.equals(result3, ABSOLUTE_ERROR));
+            assertTrue(expected.equals(result4, ABSOLUTE_ERROR));
+        }
+    }
+
+    @Test
+    public void testNavigateSequenceMatchesStaticNavigation() throws InvalidSourceAndDestinationFrameTypeException,
+            InertialNavigatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+
+        ECEFFrame expected = createFrame(randomizer);
+        final StatefulECEFInertialNavigator navigator = new StatefulECEFInertialNavigator(expected);
+
+        for (int i = 0; i < STEPS; i++) {
+            final BodyKinematics kinematics = createKinematics(randomizer);
+
+            expected = ECEFInertialNavigator.navigateECEFAndReturnNew(
+                    TIME_INTERVAL_SECONDS, expected, kinematics);
+            navigator.navigate(TIME_INTERVAL_SECONDS, kinematics);
+        }
+
+        assertTrue(expected.equals(navigator.getFrame(), ABSOLUTE_ERROR));
+    }
+
+    @Test
+    public void testNavigateWithoutRotation() throws InvalidSourceAndDestinationFrameTypeException,
+            InertialNavigatorException {
+        final UniformRandomizer randomizer = new UniformRandomizer(new Random());
+        final StatefulECEFInertialNavigator navigator = new StatefulECEFInertialNavigator();
+
+        for (int t = 0; t < TIMES; t++) {
+            final ECEFFrame oldFrame = createFrame(randomizer);
+            final BodyKinematics kinematics = createKinematics(randomizer);
+            kinematics.setAngularRateCoordinates(0.0, 0.0, 0.0);
+
+            final ECEFFrame expected = ECEFInertialNavigator.navigateECEFAndReturnNew(
+                    TIME_INTERVAL_SECONDS, oldFrame, kinematics);
+
+            final ECEFFrame result = new ECEFFrame();
+            navigator.navigate(TIME_INTERVAL_SECONDS, oldFrame, kinematics, result);
+
+            assertTrue(expected.equals(result, ABSOLUTE_ERROR));
+        }
+    }
+
+    @Test
+    public void testNavigateZeroTimeInterval() {
+        final ECEFFrame oldFrame = createFrame(new UniformRandomizer(new Random()));
+        final StatefulECEFInertialNavigator navigator = new StatefulECEFInertialNavigator(oldFrame);
+
+        navigator.navigate(0.0, 1.0, 2.0, 3.0, 0.1, 0.2, 0.3);
+
+        assertTrue(oldFrame.equals(navigator.getFrame(), ABSOLUTE_ERROR));
+    }
+
+    private static ECEFFrame createFrame(final UniformRandomizer randomizer) {
+        try {
+            final double latitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double longitude = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double height = randomizer.nextDouble(MIN_HEIGHT, MAX_HEIGHT);
+
+            final double vn = randomizer.nextDouble(MIN_VELOCITY_VALUE, MAX_VELOCITY_VALUE);
+            final double ve = randomizer.nextDouble(MIN_VELOCITY_VALUE, MAX_VELOCITY_VALUE);
+            final double vd = randomizer.nextDouble(MIN_VELOCITY_VALUE, MAX_VELOCITY_VALUE);
+
+            final double roll = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double pitch = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final double yaw = Math.toRadians(
+                    randomizer.nextDouble(MIN_ANGLE_DEGREES, MAX_ANGLE_DEGREES));
+            final Quaternion q = new Quaternion(roll, pitch, yaw);
+
+            final Matrix m = q.asInhomogeneousMatrix();
+            final CoordinateTransformation c = new CoordinateTransformation(
+                    m, FrameType.BODY_FRAME,
+                    FrameType.LOCAL_NAVIGATION_FRAME);
+
+            final NEDFrame nedFrame = new NEDFrame(latitude, longitude, height, vn, ve, vd, c);
+            return NEDtoECEFFrameConverter.convertNEDtoECEFAndReturnNew(nedFrame);
+        } catch (final InvalidRotationMatrixException | InvalidSourceAndDestinationFrameTypeException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BodyKinematics createKinematics(final UniformRandomizer randomizer) {
+        final double fx = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        final double fy = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+        final double fz = randomizer.nextDouble(MIN_SPECIFIC_FORCE, MAX_SPECIFIC_FORCE);
+
+        final double angularRateX = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGULAR_RATE_DEGREES_PER_SECOND, MAX_ANGULAR_RATE_DEGREES_PER_SECOND));
+        final double angularRateY = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGULAR_RATE_DEGREES_PER_SECOND, MAX_ANGULAR_RATE_DEGREES_PER_SECOND));
+        final double angularRateZ = Math.toRadians(randomizer.nextDouble(
+                MIN_ANGULAR_RATE_DEGREES_PER_SECOND, MAX_ANGULAR_RATE_DEGREES_PER_SECOND));
+
+        return new BodyKinematics(fx, fy, fz, angularRateX, angularRateY, angularRateZ);
+    }
+}